@@ -38,6 +38,20 @@ public class FieldNodeBuilder {
         return this;
     }
 
+    /**
+     * Adds a temperature sensor capturing data at a given interval to the field node.
+     *
+     * @param sensorNoise the sensor noise
+     * @param captureInterval the capture interval of the sensor in milliseconds
+     * @return the field node builder
+     */
+    public FieldNodeBuilder addTemperatureSensor(int sensorNoise, long captureInterval) {
+        TemperatureSensor sensor = new TemperatureSensor(sensorNoise);
+        sensor.setCaptureInterval(captureInterval);
+        fieldNode.addDevice(sensor);
+        return this;
+    }
+
     /**
      * Adds a humidity sensor to the field node.
      *
@@ -49,6 +63,20 @@ public class FieldNodeBuilder {
         return this;
     }
 
+    /**
+     * Adds a humidity sensor capturing data at a given interval to the field node.
+     *
+     * @param sensorNoise the sensor noise
+     * @param captureInterval the capture interval of the sensor in milliseconds
+     * @return the field node builder
+     */
+    public FieldNodeBuilder addHumiditySensor(int sensorNoise, long captureInterval) {
+        HumiditySensor sensor = new HumiditySensor(sensorNoise);
+        sensor.setCaptureInterval(captureInterval);
+        fieldNode.addDevice(sensor);
+        return this;
+    }
+
     /**
      * Adds a luminosity sensor to the field node.
      *
@@ -60,6 +88,20 @@ public class FieldNodeBuilder {
         return this;
     }
 
+    /**
+     * Adds a luminosity sensor capturing data at a given interval to the field node.
+     *
+     * @param sensorNoise the sensor noise
+     * @param captureInterval the capture interval of the sensor in milliseconds
+     * @return the field node builder
+     */
+    public FieldNodeBuilder addLuminositySensor(int sensorNoise, long captureInterval) {
+        LuminositySensor sensor = new LuminositySensor(sensorNoise);
+        sensor.setCaptureInterval(captureInterval);
+        fieldNode.addDevice(sensor);
+        return this;
+    }
+
     /**
      * Adds a fan actuator to the field node.
      *
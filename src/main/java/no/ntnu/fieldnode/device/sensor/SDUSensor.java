@@ -4,8 +4,7 @@ import no.ntnu.broker.SduSensorDataBroker;
 import no.ntnu.environment.Environment;
 import no.ntnu.fieldnode.device.DeviceClass;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A sensor for capturing SDU data.
@@ -15,8 +14,10 @@ public abstract class SDUSensor implements Sensor {
     protected final String unit;
     protected final int sensorNoise;
     protected final SduSensorDataBroker dataBroker;
-    private Timer captureTimer;
-    private static final int CAPTURE_INTERVAL = 1000;
+    private static final long DEFAULT_CAPTURE_INTERVAL = 1000;
+    private final SensorCaptureScheduler captureScheduler;
+    private long captureInterval;
+    private SensorCaptureScheduler.ScheduledCapture capture;
     protected double sensorData;
     protected Environment environment;
 
@@ -40,30 +41,61 @@ public abstract class SDUSensor implements Sensor {
         this.unit = unit;
         this.sensorNoise = sensorNoise;
         this.dataBroker = new SduSensorDataBroker();
+        this.captureScheduler = SensorCaptureScheduler.getDefault();
+        this.captureInterval = DEFAULT_CAPTURE_INTERVAL;
+        this.capture = null;
     }
 
     /**
-     * Starts the capturing of sensor data every 1 second.
+     * Starts the capturing of sensor data at the capture interval, every 1 second unless set otherwise.
+     * The captures are run by the capture scheduler shared by all sensors, starting at a random moment within the
+     * first interval.
      */
     @Override
-    public void start() {
-        captureTimer = new Timer();
-        this.captureTimer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                if (null != environment) captureData();
-            }
-        }, CAPTURE_INTERVAL, CAPTURE_INTERVAL);
+    public synchronized void start() {
+        stop();
+
+        capture = captureScheduler.schedule(() -> {
+            if (null != environment) captureData();
+        }, captureInterval, TimeUnit.MILLISECONDS);
     }
 
     /**
      * Stops the capturing of sensor data.
      */
     @Override
-    public void stop() {
-        if (captureTimer != null) {
-            captureTimer.cancel();
+    public synchronized void stop() {
+        if (capture != null) {
+            capture.cancel();
+            capture = null;
+        }
+    }
+
+    /**
+     * Sets the interval between the captures of the sensor. A started sensor is restarted at the new interval.
+     *
+     * @param captureInterval the capture interval in milliseconds
+     */
+    public synchronized void setCaptureInterval(long captureInterval) {
+        if (captureInterval <= 0) {
+            throw new IllegalArgumentException("Cannot set capture interval, because capture interval must be " +
+                    "bigger than 0.");
         }
+
+        this.captureInterval = captureInterval;
+
+        if (capture != null) {
+            start();
+        }
+    }
+
+    /**
+     * Returns the interval between the captures of the sensor.
+     *
+     * @return the capture interval in milliseconds
+     */
+    public synchronized long getCaptureInterval() {
+        return captureInterval;
     }
 
     /**
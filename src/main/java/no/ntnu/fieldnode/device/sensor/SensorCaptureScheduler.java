@@ -0,0 +1,263 @@
+package no.ntnu.fieldnode.device.sensor;
+
+import no.ntnu.network.timer.HashedWheelTimer;
+import no.ntnu.network.timer.Timeout;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A scheduler capturing the data of many sensors using a fixed number of threads.
+ * <p/>
+ * The captures are timed by a timing wheel, and run on a fixed pool of daemon threads, so that the number of threads
+ * does not grow with the number of sensors. Every capture is given a random phase within its first interval, so that
+ * sensors started together do not all capture at the same moment. The following captures are due at fixed intervals
+ * from the first one, so that the lateness of a capture, bounded by the tick of the wheel and the load of the pool,
+ * never adds up to a drift.
+ */
+public class SensorCaptureScheduler {
+    private static final long TICK_MILLIS = 5;
+    private static final int WHEEL_SIZE = 512;
+    private static final SensorCaptureScheduler DEFAULT_SCHEDULER =
+            new SensorCaptureScheduler(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    private final HashedWheelTimer timer;
+    private final ExecutorService captureExecutor;
+    private final int threads;
+    private final LongAdder captures;
+    private final LongAdder failedCaptures;
+    private final LongAdder latenessNanos;
+    private final LongAccumulator maxLatenessNanos;
+
+    /**
+     * Creates a new SensorCaptureScheduler.
+     *
+     * @param threads the number of threads capturing sensor data
+     */
+    public SensorCaptureScheduler(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Cannot create SensorCaptureScheduler, because threads must be " +
+                    "bigger than 0.");
+        }
+
+        this.captureExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "sensor-capture");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer = new HashedWheelTimer(TICK_MILLIS, TimeUnit.MILLISECONDS, WHEEL_SIZE, captureExecutor,
+                "sensor-capture-timer");
+        this.threads = threads;
+        this.captures = new LongAdder();
+        this.failedCaptures = new LongAdder();
+        this.latenessNanos = new LongAdder();
+        this.maxLatenessNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Returns the default scheduler, shared by all sensors of the process.
+     *
+     * @return the default scheduler
+     */
+    public static SensorCaptureScheduler getDefault() {
+        return DEFAULT_SCHEDULER;
+    }
+
+    /**
+     * Schedules a capture to run at a fixed interval, starting at a random phase within the first interval.
+     *
+     * @param capture the capture to run
+     * @param interval the interval between captures
+     * @param unit the time unit of the interval
+     * @return the scheduled capture, which can be used to cancel it
+     * @throws IllegalStateException thrown if the scheduler has been stopped
+     */
+    public ScheduledCapture schedule(Runnable capture, long interval, TimeUnit unit) {
+        if (capture == null) {
+            throw new IllegalArgumentException("Cannot schedule capture, because capture is null.");
+        }
+
+        if (unit == null) {
+            throw new IllegalArgumentException("Cannot schedule capture, because unit is null.");
+        }
+
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Cannot schedule capture, because interval must be bigger than 0.");
+        }
+
+        long intervalNanos = unit.toNanos(interval);
+        long phaseNanos = ThreadLocalRandom.current().nextLong(intervalNanos);
+
+        ScheduledCapture scheduledCapture = new ScheduledCapture(capture, intervalNanos,
+                System.nanoTime() + phaseNanos);
+        scheduledCapture.scheduleNext();
+
+        return scheduledCapture;
+    }
+
+    /**
+     * Returns the number of threads capturing sensor data.
+     *
+     * @return the number of capture threads
+     */
+    public int getThreadCount() {
+        return threads;
+    }
+
+    /**
+     * Returns the number of captures run.
+     *
+     * @return the number of captures
+     */
+    public long getCaptureCount() {
+        return captures.sum();
+    }
+
+    /**
+     * Returns the number of captures that failed with an exception.
+     *
+     * @return the number of failed captures
+     */
+    public long getFailedCaptureCount() {
+        return failedCaptures.sum();
+    }
+
+    /**
+     * Returns the average time from the moment a capture was due until it was run.
+     *
+     * @param unit the time unit to return the lateness in
+     * @return the average lateness of the captures, 0 if none have run
+     */
+    public long getAverageLateness(TimeUnit unit) {
+        if (unit == null) {
+            throw new IllegalArgumentException("Cannot get average lateness, because unit is null.");
+        }
+
+        long captureCount = captures.sum();
+        long result = 0;
+
+        if (captureCount > 0) {
+            result = unit.convert(latenessNanos.sum() / captureCount, TimeUnit.NANOSECONDS);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the longest time from the moment a capture was due until it was run.
+     *
+     * @param unit the time unit to return the lateness in
+     * @return the maximum lateness of the captures
+     */
+    public long getMaxLateness(TimeUnit unit) {
+        if (unit == null) {
+            throw new IllegalArgumentException("Cannot get max lateness, because unit is null.");
+        }
+
+        return unit.convert(maxLatenessNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the scheduler. No more captures are run, and no more captures can be scheduled.
+     */
+    public void stop() {
+        timer.stop();
+        captureExecutor.shutdown();
+    }
+
+    /**
+     * A capture scheduled at a fixed interval, rescheduling itself on the timer after every run.
+     */
+    public final class ScheduledCapture implements Runnable {
+        private final Runnable capture;
+        private final long intervalNanos;
+        private long deadlineNanos;
+        private volatile Timeout timeout;
+        private volatile boolean cancelled;
+
+        /**
+         * Creates a new ScheduledCapture.
+         *
+         * @param capture the capture to run
+         * @param intervalNanos the interval between captures in nanoseconds
+         * @param deadlineNanos the moment the first capture is due
+         */
+        private ScheduledCapture(Runnable capture, long intervalNanos, long deadlineNanos) {
+            this.capture = capture;
+            this.intervalNanos = intervalNanos;
+            this.deadlineNanos = deadlineNanos;
+            this.timeout = null;
+            this.cancelled = false;
+        }
+
+        /**
+         * Runs the capture, and schedules the next one.
+         */
+        @Override
+        public void run() {
+            if (!cancelled) {
+                long lateness = System.nanoTime() - deadlineNanos;
+                captures.increment();
+                latenessNanos.add(lateness);
+                maxLatenessNanos.accumulate(lateness);
+
+                try {
+                    capture.run();
+                } catch (RuntimeException e) {
+                    // a failing capture must not stop the following captures of the sensor
+                    failedCaptures.increment();
+                }
+
+                deadlineNanos += intervalNanos;
+
+                // skip the captures already missed, rather than running them back to back
+                long behindNanos = System.nanoTime() - deadlineNanos;
+                if (behindNanos > 0) {
+                    deadlineNanos += (behindNanos / intervalNanos + 1) * intervalNanos;
+                }
+
+                try {
+                    scheduleNext();
+                } catch (IllegalStateException e) {
+                    // the scheduler has been stopped
+                }
+            }
+        }
+
+        /**
+         * Schedules the next capture on the timer, due at the current deadline.
+         */
+        private void scheduleNext() {
+            timeout = timer.schedule(this, deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+
+            // the capture may have been cancelled while the timeout was being replaced
+            if (cancelled) {
+                timeout.cancel();
+            }
+        }
+
+        /**
+         * Cancels the capture, so that it is never run again.
+         */
+        public void cancel() {
+            cancelled = true;
+
+            Timeout currentTimeout = timeout;
+            if (currentTimeout != null) {
+                currentTimeout.cancel();
+            }
+        }
+
+        /**
+         * Returns whether the capture has been cancelled.
+         *
+         * @return true if cancelled
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
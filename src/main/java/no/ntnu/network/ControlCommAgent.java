@@ -6,6 +6,7 @@ import no.ntnu.network.message.request.RequestMessage;
 import no.ntnu.network.message.response.ResponseMessage;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * An agent responsible for communicating control messages with another entity in the network.
@@ -14,11 +15,38 @@ import java.io.IOException;
 public interface ControlCommAgent {
     /**
      * Sends a request message to the remote peer.
+     * The request is given an id of its own, so that any number of requests can wait for a response at once.
+     * The future response must not be waited for by the thread processing received messages, since the response
+     * is processed by that same thread.
      *
      * @param request request message to send
+     * @return the future response, completed once the matching response has been processed, or failed if the
+     * request times out or the connection is closed first
      * @throws IOException thrown if an I/O exception is thrown
      */
-    void sendRequest(RequestMessage request) throws IOException;
+    CompletableFuture<ResponseMessage> sendRequest(RequestMessage request) throws IOException;
+
+    /**
+     * Posts a request message to be sent to the remote peer by the writer of the connection, without waiting for it
+     * to be written to the network. Requests posted to an agent are sent in the order they were posted, and their
+     * responses are processed like those of any other request.
+     * By default, the request is sent right away by the calling thread.
+     *
+     * @param request request message to send
+     * @return a future completed once the request has been sent, or failed with the exception thrown while sending it
+     */
+    default CompletableFuture<Void> postRequest(RequestMessage request) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+
+        try {
+            sendRequest(request);
+            result.complete(null);
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+        }
+
+        return result;
+    }
 
     /**
      * Sends a response message to the remote peer.
@@ -6,14 +6,24 @@ import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
 import no.ntnu.network.message.encryption.cipher.encrypt.PlainTextEncryption;
 import no.ntnu.tools.logger.SimpleLogger;
 import no.ntnu.network.connectionservice.ConnectionService;
+import no.ntnu.network.connectionservice.requestmanager.PendingRequest;
 import no.ntnu.network.connectionservice.requestmanager.RequestManager;
 import no.ntnu.network.connectionservice.requestmanager.RequestTimeoutListener;
 import no.ntnu.network.controlprocess.*;
+import no.ntnu.network.controlprocess.nio.NioConnection;
+import no.ntnu.network.controlprocess.nio.NioConnectionListener;
+import no.ntnu.network.controlprocess.nio.NioControlProcess;
+import no.ntnu.network.controlprocess.pipeline.PipelineMetrics;
+import no.ntnu.network.controlprocess.pipeline.StagedControlProcess;
+import no.ntnu.network.controlprocess.pipeline.StagedMessageHandler;
+import no.ntnu.network.executor.ConnectionExecutor;
+import no.ntnu.network.executor.PlatformThreadExecutor;
 import no.ntnu.network.message.Message;
 import no.ntnu.network.message.context.MessageContext;
 import no.ntnu.network.message.deserialize.component.MessageDeserializer;
 import no.ntnu.network.message.request.RequestMessage;
 import no.ntnu.network.message.response.ResponseMessage;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
 import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
 
 import java.io.IOException;
@@ -22,7 +32,11 @@ import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * An agent responsible for handling control message communication with another entity in the network.
@@ -33,19 +47,41 @@ import java.util.Set;
  * application. It leaves several methods for implementation by the concrete entities, allowing for custom handling
  * of several events. {@code ConnectionService} instances, which can be integrated by the concrete classes,
  * are run when connecting to the socket and closed during a graceful shutdown.
+ * <p/>
+ * By default, received messages are read by a dedicated thread blocking on the socket. If a {@code NioConnection}
+ * is set instead of a socket, received messages are pushed by the event loop serving the connection, and no
+ * thread is dedicated to the agent. If a staged pipeline is set up for a socket, received messages are instead
+ * passed through a {@code StagedControlProcess}, reading, deserializing, processing and sending messages on
+ * separate threads.
  *
  * @param <C> the type of message processing context to use
  */
 public abstract class ControlProcessAgent<C extends MessageContext> implements ControlCommAgent, RequestTimeoutListener {
     private static final long PENDING_REQUEST_TTL = 3000;
     private final List<ConnectionService> connectionServices;
-    private TcpControlProcess<C> controlProcess;
+    private volatile ControlProcess<C> controlProcess;
     private volatile boolean connected;
     protected Socket socket;
+    private NioConnection connection;
+    private ConnectionExecutor connectionExecutor;
     private volatile int clientNodeAddress;
     protected RequestManager requestManager;
     private final Set<SimpleLogger> loggers;
     private boolean messagesAreEncrypted;
+    private PipelineMetrics pipelineMetrics;
+    private int pipelineQueueCapacity;
+    // the request answered by the response being processed, only used by the thread processing received messages
+    private PendingRequest answeredRequest;
+    private final Queue<PostedRequest> postedRequests;
+    private final AtomicBoolean postedRequestWriterRunning;
+
+    /**
+     * A request posted to the agent, waiting to be sent by the writer of the connection.
+     *
+     * @param request the request to send
+     * @param sent completed once the request has been sent
+     */
+    private record PostedRequest(RequestMessage request, CompletableFuture<Void> sent) {}
 
     /**
      * Creates a new CommunicationAgent.
@@ -56,6 +92,12 @@ public abstract class ControlProcessAgent<C extends MessageContext> implements C
         this.clientNodeAddress = -1;
         this.loggers = new HashSet<>();
         this.messagesAreEncrypted = false;
+        this.connectionExecutor = new PlatformThreadExecutor();
+        this.pipelineMetrics = null;
+        this.pipelineQueueCapacity = 0;
+        this.answeredRequest = null;
+        this.postedRequests = new ConcurrentLinkedQueue<>();
+        this.postedRequestWriterRunning = new AtomicBoolean(false);
     }
 
     /**
@@ -103,12 +145,33 @@ public abstract class ControlProcessAgent<C extends MessageContext> implements C
         boolean success = false;
 
         logInfo("Connecting to " + socket.getRemoteSocketAddress() + "...");
-        if (establishControlProcess(serializer, deserializer)) {
+        if (connection != null) {
+            NioControlProcess<C> nioControlProcess = new NioControlProcess<>(connection, serializer, deserializer);
+            controlProcess = nioControlProcess;
             connected = true;
             createConnectionServices();
             startConnectionServices();
-            startHandlingReceivedMessages();
+            startReceivingPushedMessages(nioControlProcess, deserializer);
             success = true;
+        } else {
+            TcpControlProcess<C> tcpControlProcess = establishControlProcess(serializer, deserializer);
+            if (tcpControlProcess != null && pipelineMetrics != null) {
+                StagedControlProcess<C> stagedControlProcess = new StagedControlProcess<>(tcpControlProcess,
+                        createStagedMessageHandler(), pipelineQueueCapacity, pipelineMetrics);
+                controlProcess = stagedControlProcess;
+                connected = true;
+                createConnectionServices();
+                startConnectionServices();
+                stagedControlProcess.start(connectionExecutor);
+                success = true;
+            } else if (tcpControlProcess != null) {
+                controlProcess = tcpControlProcess;
+                connected = true;
+                createConnectionServices();
+                startConnectionServices();
+                startHandlingReceivedMessages(tcpControlProcess);
+                success = true;
+            }
         }
 
         return success;
@@ -118,7 +181,7 @@ public abstract class ControlProcessAgent<C extends MessageContext> implements C
      * Creates the connection services for the connection.
      */
     private void createConnectionServices() {
-        requestManager = new RequestManager();
+        requestManager = new RequestManager(connectionExecutor);
         requestManager.addListener(this);
         addConnectionService(requestManager);
     }
@@ -140,23 +203,88 @@ public abstract class ControlProcessAgent<C extends MessageContext> implements C
         this.socket = socket;
     }
 
+    /**
+     * Sets a non-blocking connection to communicate over, instead of a blocking socket.
+     *
+     * @param connection the non-blocking connection
+     */
+    protected void setConnection(NioConnection connection) {
+        if (connection == null) {
+            throw new IllegalArgumentException("Cannot set connection, because it is null.");
+        }
+
+        setSocket(connection.getSocket());
+        this.connection = connection;
+    }
+
+    /**
+     * Sets the executor running the work of the connection: reading received messages and running the connection
+     * services created by the agent. Platform threads are used by default.
+     *
+     * @param executor the connection executor
+     */
+    protected void setConnectionExecutor(ConnectionExecutor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Cannot set connection executor, because it is null.");
+        }
+
+        if (isConnected()) {
+            throw new IllegalStateException("Cannot set connection executor while connected.");
+        }
+
+        this.connectionExecutor = executor;
+    }
+
+    /**
+     * Sets up a staged pipeline for the messages of the socket, instead of reading, processing and sending them on
+     * a single thread. Every stage runs on a thread provided by the connection executor.
+     * Has no effect on non-blocking connections, whose messages are pushed by an event loop.
+     *
+     * @param queueCapacity the capacity of every queue between two stages
+     * @param metrics the metrics to record stage latencies in
+     */
+    protected void setStagedPipeline(int queueCapacity, PipelineMetrics metrics) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Cannot set staged pipeline, because queueCapacity is less than 1.");
+        }
+
+        if (metrics == null) {
+            throw new IllegalArgumentException("Cannot set staged pipeline, because metrics is null.");
+        }
+
+        if (isConnected()) {
+            throw new IllegalStateException("Cannot set staged pipeline while connected.");
+        }
+
+        this.pipelineQueueCapacity = queueCapacity;
+        this.pipelineMetrics = metrics;
+    }
+
+    /**
+     * Returns the executor running the work of the connection.
+     *
+     * @return the connection executor
+     */
+    protected ConnectionExecutor getConnectionExecutor() {
+        return connectionExecutor;
+    }
+
     /**
      * Establishes the TCP control message process, used to send and receive control messages.
      *
-     * @return true if control message process is successfully established
+     * @return the established control process, null if it could not be established
      */
-    private boolean establishControlProcess(ByteSerializerVisitor serializer, MessageDeserializer<C> deserializer) {
-        boolean success = false;
+    private TcpControlProcess<C> establishControlProcess(ByteSerializerVisitor serializer, MessageDeserializer<C> deserializer) {
+        TcpControlProcess<C> tcpControlProcess = null;
 
         try {
-            controlProcess = new TcpControlProcess<>(socket, serializer, deserializer);
-            success = true;
+            tcpControlProcess = new TcpControlProcess<>(socket, serializer, deserializer);
             logInfo("Control process for " + getRemoteSocketAddress() + " has been established successfully.");
         } catch (IOException e) {
            logError("Cannot establish control process: " + e.getMessage());
         }
 
-        return success;
+        return tcpControlProcess;
     }
 
     /**
@@ -184,33 +312,126 @@ public abstract class ControlProcessAgent<C extends MessageContext> implements C
 
     /**
      * Starts handling messages received from the remote socket.
+     *
+     * @param tcpControlProcess the control process to read received messages from
      */
-    private synchronized void startHandlingReceivedMessages() {
-        Thread receivedMessageHandlingThread = new Thread(() -> {
+    private synchronized void startHandlingReceivedMessages(TcpControlProcess<C> tcpControlProcess) {
+        connectionExecutor.execute(() -> {
             try {
                 while (isConnected() && !socket.isClosed()) {
-                    handleNextMessage();
+                    handleNextMessage(tcpControlProcess);
                 }
             } catch (IOException e) {
-                if (isConnected()) {
+                if (isConnected() && controlProcess == tcpControlProcess) {
                     handleMessageReadingException(e);
                 }
             } finally {
+                safelyClose(tcpControlProcess);
+                tcpControlProcess.releaseReceiveBuffers();
+            }
+        });
+    }
+
+    /**
+     * Starts receiving messages pushed by the event loop serving the non-blocking connection.
+     *
+     * @param nioControlProcess the control process to decode received messages with
+     * @param deserializer the deserializer providing the frame of received messages
+     */
+    private void startReceivingPushedMessages(NioControlProcess<C> nioControlProcess, MessageDeserializer<C> deserializer) {
+        connection.open(deserializer.getTlvFrame(), new NioConnectionListener() {
+            @Override
+            public void tlvReceived(Tlv tlv) {
+                try {
+                    Message<C> message = nioControlProcess.decodeMessage(tlv);
+                    if (message != null) {
+                        handleReceivedMessage(message);
+                    }
+                } catch (IOException e) {
+                    if (isConnected()) {
+                        handleMessageReadingException(e);
+                    }
+                    safelyClose();
+                }
+            }
+
+            @Override
+            public void connectionClosed() {
                 safelyClose();
             }
         });
-        receivedMessageHandlingThread.start();
+    }
+
+    /**
+     * Creates the handler of the events of a staged control process.
+     *
+     * @return the staged message handler
+     */
+    private StagedMessageHandler<C> createStagedMessageHandler() {
+        return new StagedMessageHandler<>() {
+            @Override
+            public void processMessage(Message<C> message) {
+                handleReceivedMessage(message);
+            }
+
+            @Override
+            public void handleMessageReadingException(IOException e) {
+                ControlProcessAgent.this.handleMessageReadingException(e);
+            }
+
+            @Override
+            public void handleMessageSendingException(IOException e) {
+                logError("Cannot send message to " + getRemoteSocketAddress() + ": " + e.getMessage());
+            }
+
+            @Override
+            public boolean isConnected() {
+                return ControlProcessAgent.this.isConnected();
+            }
+
+            @Override
+            public void close() {
+                safelyClose();
+            }
+        };
     }
 
     /**
      * Handles the next received message.
+     *
+     * @param tcpControlProcess the control process to read the message from
      */
-    private void handleNextMessage() throws IOException {
-        Message<C> nextMessage = controlProcess.getNextMessage();
+    private void handleNextMessage(TcpControlProcess<C> tcpControlProcess) throws IOException {
+        Message<C> nextMessage = tcpControlProcess.getNextMessage();
         if (nextMessage != null) {
-            processReceivedMessage(nextMessage);
+            handleReceivedMessage(nextMessage);
         } else {
-            safelyClose();
+            safelyClose(tcpControlProcess);
+        }
+    }
+
+    /**
+     * Handles a received message, processing it.
+     * A response is matched with its request before being processed, and the future response to the request is
+     * completed once the response has been processed, so that anyone waiting for it sees the effects of the
+     * processing.
+     *
+     * @param message the received message
+     */
+    private void handleReceivedMessage(Message<C> message) {
+        if (message instanceof ResponseMessage response) {
+            PendingRequest pendingRequest = requestManager.pullRequest(response.getId());
+            answeredRequest = pendingRequest;
+            try {
+                processReceivedMessage(message);
+            } finally {
+                answeredRequest = null;
+                if (pendingRequest != null) {
+                    pendingRequest.response().complete(response);
+                }
+            }
+        } else {
+            processReceivedMessage(message);
         }
     }
 
@@ -238,7 +459,7 @@ public abstract class ControlProcessAgent<C extends MessageContext> implements C
     }
 
     @Override
-    public void sendRequest(RequestMessage request) throws IOException {
+    public CompletableFuture<ResponseMessage> sendRequest(RequestMessage request) throws IOException {
         if (request == null) {
             throw new IllegalArgumentException("Cannot send request message, because it is null.");
         }
@@ -247,9 +468,73 @@ public abstract class ControlProcessAgent<C extends MessageContext> implements C
             throw new IOException("No connection established.");
         }
 
-        requestManager.putRequest(request, PENDING_REQUEST_TTL);
-        controlProcess.sendMessage(request);
+        CompletableFuture<ResponseMessage> response = requestManager.putRequest(request, PENDING_REQUEST_TTL);
+        try {
+            controlProcess.sendMessage(request);
+        } catch (IOException e) {
+            // a request that was never sent cannot be answered
+            requestManager.pullRequest(request.getId());
+            response.completeExceptionally(e);
+            throw e;
+        }
         logSendRequestMessage(request);
+
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<Void> postRequest(RequestMessage request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Cannot post request message, because it is null.");
+        }
+
+        PostedRequest postedRequest = new PostedRequest(request, new CompletableFuture<>());
+        ControlProcess<C> process = controlProcess;
+        // connections writing to the socket on the sending thread get a writer run by the connection executor while
+        // requests are posted, while other connections already hand their messages to a writer of their own
+        if (process != null && process.sendsBlockOnNetwork()) {
+            postedRequests.add(postedRequest);
+            if (postedRequestWriterRunning.compareAndSet(false, true)) {
+                connectionExecutor.execute(this::writePostedRequests);
+            }
+        } else {
+            sendPostedRequest(postedRequest);
+        }
+
+        return postedRequest.sent();
+    }
+
+    /**
+     * Sends posted requests until none are left, in the order they were posted.
+     */
+    private void writePostedRequests() {
+        boolean writing = true;
+
+        while (writing) {
+            PostedRequest postedRequest = postedRequests.poll();
+            while (postedRequest != null) {
+                sendPostedRequest(postedRequest);
+                postedRequest = postedRequests.poll();
+            }
+
+            postedRequestWriterRunning.set(false);
+            // a request posted after the queue was found empty, but before the writer stopped, is sent as well
+            writing = !postedRequests.isEmpty() && postedRequestWriterRunning.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * Sends a posted request, completing its future with the outcome.
+     *
+     * @param postedRequest the posted request
+     */
+    private void sendPostedRequest(PostedRequest postedRequest) {
+        try {
+            sendRequest(postedRequest.request());
+            postedRequest.sent().complete(null);
+        } catch (IOException | RuntimeException e) {
+            postedRequest.sent().completeExceptionally(e);
+        }
     }
 
     @Override
@@ -268,7 +553,16 @@ public abstract class ControlProcessAgent<C extends MessageContext> implements C
 
     @Override
     public RequestMessage acceptResponse(ResponseMessage response) {
-        return requestManager.pullRequest(response.getId());
+        RequestMessage result = null;
+
+        PendingRequest pendingRequest = answeredRequest;
+        if (pendingRequest != null && pendingRequest.request().getId() == response.getId()) {
+            result = pendingRequest.request();
+        } else {
+            result = requestManager.acceptResponse(response);
+        }
+
+        return result;
     }
 
     @Override
@@ -325,6 +619,19 @@ public abstract class ControlProcessAgent<C extends MessageContext> implements C
         }
     }
 
+    /**
+     * Safely closes the connection, unless it has been replaced since the given control process was established.
+     * A client reconnecting may still have a thread serving its previous connection, which must not close the new
+     * one.
+     *
+     * @param process the control process of the connection to close
+     */
+    private synchronized void safelyClose(ControlProcess<C> process) {
+        if (controlProcess == process) {
+            safelyClose();
+        }
+    }
+
     /**
      * Log the sending of a request message.
      *
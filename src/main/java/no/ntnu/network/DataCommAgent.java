@@ -1,5 +1,6 @@
 package no.ntnu.network;
 
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
 import no.ntnu.network.message.sensordata.SensorDataMessage;
 
 import java.io.IOException;
@@ -15,4 +16,15 @@ public interface DataCommAgent {
      * @throws IOException thrown if an I/O exception occurs
      */
     void sendSensorData(SensorDataMessage sensorData) throws IOException;
+
+    /**
+     * Sets the encryption strategy used to encrypt sensor data sent.
+     * Agents that cannot encrypt sensor data refuse to, rather than sending it unencrypted.
+     *
+     * @param encryption the encryption strategy to use
+     */
+    default void setEncryption(EncryptionStrategy encryption) {
+        throw new UnsupportedOperationException("Cannot set encryption, because the agent cannot encrypt sensor " +
+                "data.");
+    }
 }
@@ -0,0 +1,39 @@
+package no.ntnu.network;
+
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+import no.ntnu.network.message.sensordata.SensorDataMessage;
+
+import java.io.IOException;
+
+/**
+ * Sends the same sensor data message to several remote network entities, serializing it only once.
+ * Broadcasters may also send a message encrypted once with a group encryption shared by all the entities, instead of
+ * encrypting it for every entity on its own.
+ */
+public interface SensorDataBroadcaster {
+    /**
+     * Sends a sensor data message to every given agent.
+     * The message is sent to all agents, even if sending it to some of them fails.
+     *
+     * @param sensorData the sensor data message to send
+     * @param agents the agents to send the message to, all sharing this broadcaster
+     * @throws IOException thrown if the message could not be sent to one or more of the agents
+     */
+    void broadcast(SensorDataMessage sensorData, SharedDataCommAgent[] agents) throws IOException;
+
+    /**
+     * Sends a sensor data message encrypted with a group encryption to every given agent.
+     * The message is encrypted only once, and the same ciphertext is sent to all agents, which must all hold the
+     * group key. The message is sent to all agents, even if sending it to some of them fails.
+     *
+     * @param sensorData the sensor data message to send
+     * @param agents the agents to send the message to, all sharing this broadcaster
+     * @param groupEncryption the encryption shared by the agents
+     * @throws IOException thrown if the message could not be sent to one or more of the agents
+     */
+    default void broadcast(SensorDataMessage sensorData, SharedDataCommAgent[] agents,
+                           EncryptionStrategy groupEncryption) throws IOException {
+        throw new UnsupportedOperationException("Cannot broadcast sensor data with a group encryption, because the " +
+                "broadcaster does not support it.");
+    }
+}
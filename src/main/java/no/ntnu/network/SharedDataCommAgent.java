@@ -0,0 +1,25 @@
+package no.ntnu.network;
+
+/**
+ * A communication agent sending sensor data through a {@code SensorDataBroadcaster} shared with other agents.
+ * Sensor data sent to several agents sharing the same broadcaster can be sent with a single call to the broadcaster,
+ * serializing the sensor data only once.
+ */
+public interface SharedDataCommAgent extends DataCommAgent {
+    /**
+     * Returns the broadcaster the agent sends its sensor data through.
+     *
+     * @return the broadcaster
+     */
+    SensorDataBroadcaster getBroadcaster();
+
+    /**
+     * Returns whether the sensor data sent through the agent is encrypted.
+     * Only agents with encryption can be handed a group key, and sent sensor data encrypted once for a whole group.
+     *
+     * @return true if the sensor data is encrypted, false otherwise
+     */
+    default boolean isEncrypted() {
+        return false;
+    }
+}
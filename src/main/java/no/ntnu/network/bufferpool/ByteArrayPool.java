@@ -0,0 +1,31 @@
+package no.ntnu.network.bufferpool;
+
+/**
+ * A pool of byte arrays, letting hot code paths borrow arrays instead of allocating new ones for every message.
+ * An array acquired from the pool belongs to the caller until it is released back to the pool, after which it must
+ * no longer be used. Arrays acquired may be longer than requested, and may hold bytes left by a previous borrower.
+ */
+public interface ByteArrayPool {
+    /**
+     * Acquires an array of at least a given length.
+     *
+     * @param minimumLength the minimum length of the array
+     * @return the acquired array
+     */
+    byte[] acquire(int minimumLength);
+
+    /**
+     * Releases an array back to the pool.
+     * Arrays that the pool cannot reuse are left for the garbage collector.
+     *
+     * @param array the array to release
+     */
+    void release(byte[] array);
+
+    /**
+     * Returns the metrics for the pool.
+     *
+     * @return the pool metrics
+     */
+    ByteArrayPoolMetrics getMetrics();
+}
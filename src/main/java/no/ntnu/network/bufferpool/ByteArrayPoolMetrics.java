@@ -0,0 +1,41 @@
+package no.ntnu.network.bufferpool;
+
+/**
+ * A snapshot of the metrics for a {@code ByteArrayPool}.
+ *
+ * @param threadLocalHits the number of acquisitions served by the cache of the acquiring thread
+ * @param sharedHits the number of acquisitions served by the cache shared between threads
+ * @param misses the number of acquisitions that had to allocate a new array
+ */
+public record ByteArrayPoolMetrics(long threadLocalHits, long sharedHits, long misses) {
+    /**
+     * Returns the number of acquisitions served without allocating a new array.
+     *
+     * @return the number of hits
+     */
+    public long hits() {
+        return threadLocalHits + sharedHits;
+    }
+
+    /**
+     * Returns the share of acquisitions served without allocating a new array.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if nothing has been acquired
+     */
+    public double hitRatio() {
+        double result = 0;
+
+        long acquisitions = hits() + misses;
+        if (acquisitions > 0) {
+            result = (double) hits() / acquisitions;
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "hits: " + hits() + " (" + threadLocalHits + " thread-local, " + sharedHits + " shared), misses: " +
+                misses;
+    }
+}
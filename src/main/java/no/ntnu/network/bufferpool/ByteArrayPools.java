@@ -0,0 +1,22 @@
+package no.ntnu.network.bufferpool;
+
+/**
+ * Holds the byte array pool shared by components that are not given a pool of their own.
+ */
+public class ByteArrayPools {
+    private static final ByteArrayPool DEFAULT_POOL = new SizeClassedByteArrayPool();
+
+    /**
+     * Does not allow creating instances of the class.
+     */
+    private ByteArrayPools() {}
+
+    /**
+     * Returns the default pool, shared by the whole process.
+     *
+     * @return the default pool
+     */
+    public static ByteArrayPool getDefault() {
+        return DEFAULT_POOL;
+    }
+}
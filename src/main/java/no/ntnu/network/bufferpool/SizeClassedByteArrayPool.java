@@ -0,0 +1,202 @@
+package no.ntnu.network.bufferpool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A byte array pool sorting its arrays into size classes, each holding arrays of a power-of-two length.
+ * Every thread has a small cache of its own for each size class, so that a thread releasing and acquiring arrays
+ * does not contend with any other thread. Arrays not fitting in the cache of a thread fall back to a bounded cache
+ * shared between all threads, while arrays not fitting there either are left for the garbage collector.
+ * Requests for arrays longer than the largest size class are always served by allocating a new array.
+ * <p/>
+ * The pool can track all arrays that are acquired but not yet released, which is meant for detecting leaks in tests.
+ * A tracking pool rejects the release of arrays that it did not hand out, or that have already been released.
+ */
+public class SizeClassedByteArrayPool implements ByteArrayPool {
+    private static final int MIN_SIZE_CLASS_SHIFT = 6; // 64 bytes
+    private static final int MAX_SIZE_CLASS_SHIFT = 16; // 64 KiB
+    private static final int SIZE_CLASSES = MAX_SIZE_CLASS_SHIFT - MIN_SIZE_CLASS_SHIFT + 1;
+    private static final int THREAD_CACHE_CAPACITY = 8;
+    private static final int SHARED_CACHE_CAPACITY = 64;
+    private final ThreadLocal<ThreadCache> threadCaches = ThreadLocal.withInitial(ThreadCache::new);
+    private final List<ArrayBlockingQueue<byte[]>> sharedCaches;
+    private final Set<byte[]> outstandingArrays;
+    private final LongAdder threadLocalHits;
+    private final LongAdder sharedHits;
+    private final LongAdder misses;
+
+    /**
+     * The arrays cached by a single thread, kept as one stack per size class.
+     */
+    private static class ThreadCache {
+        private final byte[][][] arrays = new byte[SIZE_CLASSES][THREAD_CACHE_CAPACITY][];
+        private final int[] counts = new int[SIZE_CLASSES];
+    }
+
+    /**
+     * Creates a new SizeClassedByteArrayPool.
+     */
+    public SizeClassedByteArrayPool() {
+        this(false);
+    }
+
+    /**
+     * Creates a new SizeClassedByteArrayPool.
+     *
+     * @param trackLeaks true to track arrays that are acquired but not yet released, false otherwise
+     */
+    public SizeClassedByteArrayPool(boolean trackLeaks) {
+        this.sharedCaches = new ArrayList<>(SIZE_CLASSES);
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            sharedCaches.add(new ArrayBlockingQueue<>(SHARED_CACHE_CAPACITY));
+        }
+
+        this.outstandingArrays = trackLeaks ? Collections.synchronizedSet(
+                Collections.newSetFromMap(new IdentityHashMap<>())) : null;
+        this.threadLocalHits = new LongAdder();
+        this.sharedHits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    @Override
+    public byte[] acquire(int minimumLength) {
+        if (minimumLength < 0) {
+            throw new IllegalArgumentException("Cannot acquire array, because minimumLength is negative.");
+        }
+
+        byte[] result = null;
+
+        int sizeClass = sizeClassFor(minimumLength);
+        if (sizeClass < SIZE_CLASSES) {
+            result = takeFromCaches(sizeClass);
+            if (result == null) {
+                result = new byte[1 << (sizeClass + MIN_SIZE_CLASS_SHIFT)];
+                misses.increment();
+            }
+        } else {
+            result = new byte[minimumLength];
+            misses.increment();
+        }
+
+        if (outstandingArrays != null) {
+            outstandingArrays.add(result);
+        }
+
+        return result;
+    }
+
+    @Override
+    public void release(byte[] array) {
+        if (array == null) {
+            throw new IllegalArgumentException("Cannot release array, because array is null.");
+        }
+
+        if (outstandingArrays != null && !outstandingArrays.remove(array)) {
+            throw new IllegalStateException("Cannot release array, because it is not held by a borrower of the pool.");
+        }
+
+        int sizeClass = sizeClassOf(array);
+        if (sizeClass >= 0) {
+            putIntoCaches(array, sizeClass);
+        }
+    }
+
+    @Override
+    public ByteArrayPoolMetrics getMetrics() {
+        return new ByteArrayPoolMetrics(threadLocalHits.sum(), sharedHits.sum(), misses.sum());
+    }
+
+    /**
+     * Returns the number of arrays acquired but not yet released.
+     * Only available if the pool tracks leaks.
+     *
+     * @return the number of outstanding arrays
+     */
+    public int getOutstandingArrays() {
+        if (outstandingArrays == null) {
+            throw new IllegalStateException("Cannot count outstanding arrays, because the pool does not track leaks.");
+        }
+
+        return outstandingArrays.size();
+    }
+
+    /**
+     * Takes an array of a given size class from the cache of the calling thread, or from the shared cache if the
+     * cache of the thread is empty.
+     *
+     * @param sizeClass the size class of the array
+     * @return the array taken, null if both caches are empty
+     */
+    private byte[] takeFromCaches(int sizeClass) {
+        byte[] result = null;
+
+        ThreadCache threadCache = threadCaches.get();
+        if (threadCache.counts[sizeClass] > 0) {
+            int index = --threadCache.counts[sizeClass];
+            result = threadCache.arrays[sizeClass][index];
+            threadCache.arrays[sizeClass][index] = null;
+            threadLocalHits.increment();
+        } else {
+            result = sharedCaches.get(sizeClass).poll();
+            if (result != null) {
+                sharedHits.increment();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Puts an array of a given size class into the cache of the calling thread, or into the shared cache if the
+     * cache of the thread is full. The array is dropped if both caches are full.
+     *
+     * @param array the array to put
+     * @param sizeClass the size class of the array
+     */
+    private void putIntoCaches(byte[] array, int sizeClass) {
+        ThreadCache threadCache = threadCaches.get();
+        if (threadCache.counts[sizeClass] < THREAD_CACHE_CAPACITY) {
+            threadCache.arrays[sizeClass][threadCache.counts[sizeClass]++] = array;
+        } else {
+            sharedCaches.get(sizeClass).offer(array);
+        }
+    }
+
+    /**
+     * Returns the smallest size class holding arrays of at least a given length.
+     *
+     * @param length the minimum length
+     * @return the index of the size class, at least {@code SIZE_CLASSES} if the length is too big for any class
+     */
+    private static int sizeClassFor(int length) {
+        int shift = length <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(length - 1);
+
+        return Math.max(shift, MIN_SIZE_CLASS_SHIFT) - MIN_SIZE_CLASS_SHIFT;
+    }
+
+    /**
+     * Returns the size class of an array.
+     *
+     * @param array the array
+     * @return the index of the size class, -1 if the length of the array does not match any size class
+     */
+    private static int sizeClassOf(byte[] array) {
+        int result = -1;
+
+        int length = array.length;
+        if (Integer.bitCount(length) == 1) {
+            int shift = Integer.numberOfTrailingZeros(length);
+            if (shift >= MIN_SIZE_CLASS_SHIFT && shift <= MAX_SIZE_CLASS_SHIFT) {
+                result = shift - MIN_SIZE_CLASS_SHIFT;
+            }
+        }
+
+        return result;
+    }
+}
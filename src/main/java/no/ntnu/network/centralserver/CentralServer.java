@@ -2,14 +2,25 @@ package no.ntnu.network.centralserver;
 
 import no.ntnu.network.centralserver.centralhub.CentralHub;
 import no.ntnu.network.connectionservice.sensordatarouter.UdpSensorDataRouter;
+import no.ntnu.network.controlprocess.nio.NioConnection;
+import no.ntnu.network.controlprocess.nio.NioEventLoopGroup;
+import no.ntnu.network.controlprocess.pipeline.PipelineMetrics;
+import no.ntnu.network.executor.ConnectionExecutor;
+import no.ntnu.network.executor.PlatformThreadExecutor;
+import no.ntnu.network.executor.VirtualThreadExecutor;
 import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.encryption.keygen.KeyMaterialService;
 import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
-import no.ntnu.network.message.serialize.visitor.NofspSerializer;
-import no.ntnu.network.sensordataprocess.UdpSensorDataSink;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+import no.ntnu.network.sensordataprocess.SensorDataFanOut;
+import no.ntnu.network.sensordataprocess.SensorDataOverflowPolicy;
+import no.ntnu.network.sensordataprocess.SharedUdpSensorDataSender;
+import no.ntnu.network.sensordataprocess.UdpChannelSensorDataSink;
 import no.ntnu.tools.logger.SimpleLogger;
 
 import java.io.IOException;
 import java.net.*;
+import java.nio.channels.ServerSocketChannel;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -36,23 +47,105 @@ import java.util.Set;
 public class CentralServer {
     public static final int CONTROL_PORT_NUMBER = 60005;
     public static final int DATA_PORT_NUMBER = 60006;
+    private static final int CONNECTION_BACKLOG = 1024;
+    private static final int SENSOR_DATA_SENDER_CHANNELS = 2;
+    private static final int SENSOR_DATA_SENDER_THREADS = 2;
+    private static final int SENSOR_DATA_QUEUE_CAPACITY = 256;
+    private static final int MESSAGE_PIPELINE_QUEUE_CAPACITY = 64;
+    private final ControlTransport controlTransport;
+    private final int sensorDataWorkers;
     private final CentralHub centralHub;
     private final ByteSerializerVisitor serializer;
     private final NofspServerDeserializer deserializer;
     private volatile boolean running;
     private ServerSocket serverSocket;
     private UdpSensorDataRouter sensorDataRouter;
+    private SharedUdpSensorDataSender sensorDataSender;
+    private SensorDataFanOut sensorDataFanOut;
+    private SensorDataOverflowPolicy sensorDataOverflowPolicy;
+    private volatile boolean stagedMessagePipeline;
+    private final PipelineMetrics pipelineMetrics;
+    private NioEventLoopGroup eventLoopGroup;
+    private ConnectionExecutor connectionExecutor;
     private final Set<SimpleLogger> loggers;
 
     /**
-     * Creates a new CentralServer.
+     * Creates a new CentralServer, serving every client on its own threads.
      */
     public CentralServer() {
+        this(ControlTransport.THREAD_PER_CLIENT);
+    }
+
+    /**
+     * Creates a new CentralServer, decoding sensor data on one worker for every available processor.
+     *
+     * @param controlTransport the transport to use for client control connections
+     */
+    public CentralServer(ControlTransport controlTransport) {
+        this(controlTransport, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new CentralServer.
+     *
+     * @param controlTransport the transport to use for client control connections
+     * @param sensorDataWorkers the number of workers decoding incoming sensor data
+     */
+    public CentralServer(ControlTransport controlTransport, int sensorDataWorkers) {
+        if (controlTransport == null) {
+            throw new IllegalArgumentException("Cannot create CentralServer, because controlTransport is null.");
+        }
+
+        if (sensorDataWorkers < 1) {
+            throw new IllegalArgumentException("Cannot create CentralServer, because sensorDataWorkers is smaller " +
+                    "than 1.");
+        }
+
+        this.controlTransport = controlTransport;
+        this.sensorDataWorkers = sensorDataWorkers;
         this.centralHub = new CentralHub();
-        this.serializer = new NofspSerializer();
+        this.serializer = new NofspFrameSerializer();
         this.deserializer = new NofspServerDeserializer(centralHub);
         this.running = false;
         this.loggers = new HashSet<>();
+        this.sensorDataOverflowPolicy = SensorDataOverflowPolicy.KEEP_LATEST_PER_SENSOR;
+        this.stagedMessagePipeline = false;
+        this.pipelineMetrics = new PipelineMetrics();
+    }
+
+    /**
+     * Sets the policy for sensor data for a control panel whose sensor data queue is full.
+     * Takes effect the next time the server is run.
+     *
+     * @param overflowPolicy the overflow policy
+     */
+    public synchronized void setSensorDataOverflowPolicy(SensorDataOverflowPolicy overflowPolicy) {
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Cannot set sensor data overflow policy, because overflowPolicy is " +
+                    "null.");
+        }
+
+        this.sensorDataOverflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Sets whether the control messages of clients are passed through a staged pipeline, reading, deserializing,
+     * processing and sending them on separate threads. Only applies to the thread-per-client transports, and takes
+     * effect for clients connecting later.
+     *
+     * @param enabled true to use the staged pipeline
+     */
+    public void setStagedMessagePipeline(boolean enabled) {
+        this.stagedMessagePipeline = enabled;
+    }
+
+    /**
+     * Returns the stage latencies of the staged message pipeline, across all clients.
+     *
+     * @return the pipeline metrics
+     */
+    public PipelineMetrics getPipelineMetrics() {
+        return pipelineMetrics;
     }
 
     /**
@@ -110,14 +203,20 @@ public class CentralServer {
 
         serverSocket = openListeningSocket();
 
+        if (serverSocket != null) {
+            createConnectionExecutor();
+            // generates the key pairs of the first handshakes before any client connects
+            KeyMaterialService.getDefault().prefill();
+        }
+
         if (serverSocket != null) {
             success = true;
             Thread incomingClientListeningThread = new Thread(() -> {
                 while (running) {
                     Socket clientSocket = acceptNextClient();
 
-                    if (clientSocket != null) {
-                        ClientHandler clientHandler = new ClientHandler(clientSocket, centralHub, serializer, deserializer);
+                    ClientHandler clientHandler = createClientHandler(clientSocket);
+                    if (clientHandler != null) {
                         // passes the loggers to the client handler to log client specific events
                         loggers.forEach(clientHandler::addLogger);
                         clientHandler.run();
@@ -135,6 +234,81 @@ public class CentralServer {
         return success;
     }
 
+    /**
+     * Creates the executor running the work of all client connections, according to the transport of the server.
+     */
+    private void createConnectionExecutor() {
+        if (controlTransport == ControlTransport.SELECTOR) {
+            startSelectorTransport();
+        } else if (controlTransport == ControlTransport.VIRTUAL_THREAD_PER_CLIENT && VirtualThreadExecutor.isSupported()) {
+            connectionExecutor = new VirtualThreadExecutor();
+        } else {
+            if (controlTransport == ControlTransport.VIRTUAL_THREAD_PER_CLIENT) {
+                logError("Virtual threads are not supported by the runtime, using platform threads instead.");
+            }
+            connectionExecutor = new PlatformThreadExecutor();
+        }
+    }
+
+    /**
+     * Starts the event loops used by the selector transport.
+     */
+    private void startSelectorTransport() {
+        try {
+            eventLoopGroup = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors());
+            loggers.forEach(eventLoopGroup::addLogger);
+            eventLoopGroup.start();
+            connectionExecutor = new PlatformThreadExecutor();
+        } catch (IOException e) {
+            logError("Cannot start selector transport: " + e.getMessage());
+            closeListeningSocket();
+            serverSocket = null;
+        }
+    }
+
+    /**
+     * Closes the listening server socket, along with its channel, when the server cannot use it.
+     */
+    private void closeListeningSocket() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logError("Cannot close listening socket: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a client handler for an accepted client socket, using the transport of the server.
+     *
+     * @param clientSocket the accepted client socket
+     * @return the client handler, null if no client handler could be created
+     */
+    private ClientHandler createClientHandler(Socket clientSocket) {
+        ClientHandler clientHandler = null;
+
+        if (clientSocket != null) {
+            if (controlTransport == ControlTransport.SELECTOR) {
+                try {
+                    NioConnection connection = new NioConnection(clientSocket.getChannel(), eventLoopGroup.next());
+                    clientHandler = new ClientHandler(connection, centralHub, serializer, deserializer, connectionExecutor);
+                } catch (IOException e) {
+                    logError("Cannot create non-blocking connection for client: " + e.getMessage());
+                }
+            } else {
+                clientHandler = new ClientHandler(clientSocket, centralHub, serializer, deserializer, connectionExecutor);
+                if (stagedMessagePipeline) {
+                    clientHandler.useStagedPipeline(MESSAGE_PIPELINE_QUEUE_CAPACITY, pipelineMetrics);
+                }
+            }
+        }
+
+        if (clientHandler != null) {
+            clientHandler.setSensorDataFanOut(sensorDataFanOut);
+        }
+
+        return clientHandler;
+    }
+
     /**
      * Starts handling incoming UDP sensor data.
      *
@@ -144,12 +318,22 @@ public class CentralServer {
         boolean success = false;
 
         try {
-            UdpSensorDataSink sensorDataSink = new UdpSensorDataSink(deserializer, DATA_PORT_NUMBER);
+            // all control panels are sent sensor data through the same few sockets, by threads of their own
+            sensorDataSender = new SharedUdpSensorDataSender(serializer, SENSOR_DATA_SENDER_CHANNELS);
+            sensorDataFanOut = new SensorDataFanOut(sensorDataSender, SENSOR_DATA_SENDER_THREADS,
+                    SENSOR_DATA_QUEUE_CAPACITY, sensorDataOverflowPolicy);
+            loggers.forEach(sensorDataFanOut::addLogger);
+
+            UdpChannelSensorDataSink sensorDataSink = new UdpChannelSensorDataSink(deserializer, DATA_PORT_NUMBER,
+                    sensorDataWorkers);
+            // every field node encrypts its sensor data with a key of its own session
+            sensorDataSink.setDecryption(centralHub.getSensorDataKeys());
             sensorDataRouter = new UdpSensorDataRouter(sensorDataSink);
+            loggers.forEach(sensorDataRouter::addLogger);
             sensorDataRouter.addDestination(centralHub);
             sensorDataRouter.start();
             success = true;
-        } catch (SocketException e) {
+        } catch (IOException e) {
             logError("Could not start handling incoming sensor data: " + e.getMessage());
         }
 
@@ -166,11 +350,20 @@ public class CentralServer {
 
         try {
             running = false;
-            serverSocket.close();
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
             sensorDataRouter.stop();
+            sensorDataFanOut.close();
+            sensorDataSender.close();
+            stopSelectorTransport();
+            centralHub.close();
+            if (stagedMessagePipeline) {
+                logInfo("Message pipeline stage latencies: " + pipelineMetrics);
+            }
             logInfo("Server has been shut down.");
         } catch (IOException e) {
-            if (serverSocket.isClosed()) {
+            if (serverSocket == null || serverSocket.isClosed()) {
                 running = false;
             } else {
                 logError("Cannot stop server: " + e.getMessage());
@@ -178,6 +371,15 @@ public class CentralServer {
         }
     }
 
+    /**
+     * Stops the event loops used by the selector transport, if started.
+     */
+    private void stopSelectorTransport() {
+        if (eventLoopGroup != null) {
+            eventLoopGroup.stop();
+        }
+    }
+
     /**
      * Accepts the next incoming client connection, and returns the associated socket.
      *
@@ -205,7 +407,14 @@ public class CentralServer {
         ServerSocket socket = null;
 
         try {
-            socket = new ServerSocket(60005);
+            if (controlTransport == ControlTransport.SELECTOR) {
+                // a channel-backed server socket accepts clients as socket channels
+                ServerSocketChannel serverChannel = ServerSocketChannel.open();
+                serverChannel.bind(new InetSocketAddress(CONTROL_PORT_NUMBER), CONNECTION_BACKLOG);
+                socket = serverChannel.socket();
+            } else {
+                socket = new ServerSocket(CONTROL_PORT_NUMBER, CONNECTION_BACKLOG);
+            }
         } catch (IOException e) {
             logError("Cannot open server socket: " + e.getMessage());
         }
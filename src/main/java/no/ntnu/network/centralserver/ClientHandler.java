@@ -7,6 +7,10 @@ import no.ntnu.network.centralserver.centralhub.CentralHub;
 import no.ntnu.network.connectionservice.ClientGate;
 import no.ntnu.network.connectionservice.ConnServiceShutdownListener;
 import no.ntnu.network.connectionservice.HeartBeater;
+import no.ntnu.network.controlprocess.nio.NioConnection;
+import no.ntnu.network.controlprocess.pipeline.PipelineMetrics;
+import no.ntnu.network.executor.ConnectionExecutor;
+import no.ntnu.network.executor.PlatformThreadExecutor;
 import no.ntnu.network.message.Message;
 import no.ntnu.network.message.context.ServerContext;
 import no.ntnu.network.message.deserialize.component.MessageDeserializer;
@@ -14,6 +18,8 @@ import no.ntnu.network.message.request.RequestMessage;
 import no.ntnu.network.message.response.ResponseMessage;
 import no.ntnu.network.message.serialize.NofspSerializationConstants;
 import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+import no.ntnu.network.sensordataprocess.QueuedSensorDataTarget;
+import no.ntnu.network.sensordataprocess.SensorDataFanOut;
 import no.ntnu.network.sensordataprocess.UdpSensorDataPusher;
 import no.ntnu.tools.eventformatter.ServerEventFormatter;
 
@@ -30,19 +36,65 @@ public class ClientHandler extends ControlProcessAgent<ServerContext> implements
     private final MessageDeserializer<ServerContext> deserializer;
     private ClientGate clientGate;
     private final ServerContext context;
+    private volatile SensorDataFanOut sensorDataFanOut;
+    private volatile QueuedSensorDataTarget sensorDataTarget;
 
     /**
-     * Creates a new ClientHandler.
+     * Creates a new ClientHandler, reading messages from the client on a dedicated platform thread.
      *
      * @param clientSocket the client to handle
      * @param centralHub the central hub
      */
     public ClientHandler(Socket clientSocket, CentralHub centralHub, ByteSerializerVisitor serializer, MessageDeserializer<ServerContext> deserializer) {
-        super();
+        this(clientSocket, centralHub, serializer, deserializer, new PlatformThreadExecutor());
+    }
+
+    /**
+     * Creates a new ClientHandler, reading messages from the client on a thread provided by the given executor.
+     *
+     * @param clientSocket the client to handle
+     * @param centralHub the central hub
+     * @param executor the executor running the reading of messages, and providing the timer of all connection services
+     */
+    public ClientHandler(Socket clientSocket, CentralHub centralHub, ByteSerializerVisitor serializer,
+                         MessageDeserializer<ServerContext> deserializer, ConnectionExecutor executor) {
+        this(centralHub, serializer, deserializer, executor);
         if (clientSocket == null) {
             throw new IllegalArgumentException("Cannot create ClientHandler, because client socket is null.");
         }
 
+        setSocket(clientSocket);
+    }
+
+    /**
+     * Creates a new ClientHandler, receiving messages from the client through a non-blocking connection.
+     * No thread is dedicated to the client handler: messages are processed by the event loop serving the connection,
+     * and the timeouts of all connection services are kept by the timer of the given executor, which by default is the
+     * {@code HashedWheelTimer} shared by the whole process ({@code Timers.getDefault()}).
+     *
+     * @param connection the non-blocking connection to the client to handle
+     * @param centralHub the central hub
+     * @param executor the executor providing the timer of all connection services
+     */
+    public ClientHandler(NioConnection connection, CentralHub centralHub, ByteSerializerVisitor serializer,
+                         MessageDeserializer<ServerContext> deserializer, ConnectionExecutor executor) {
+        this(centralHub, serializer, deserializer, executor);
+        if (connection == null) {
+            throw new IllegalArgumentException("Cannot create ClientHandler, because connection is null.");
+        }
+
+        setConnection(connection);
+    }
+
+    /**
+     * Creates a new ClientHandler without a connection.
+     *
+     * @param centralHub the central hub
+     * @param executor the executor running the work of the connection
+     */
+    private ClientHandler(CentralHub centralHub, ByteSerializerVisitor serializer, MessageDeserializer<ServerContext> deserializer,
+                          ConnectionExecutor executor) {
+        super();
         if (centralHub == null) {
             throw new IllegalArgumentException("Cannot create ClientHandler, because centralHub is null.");
         }
@@ -55,9 +107,13 @@ public class ClientHandler extends ControlProcessAgent<ServerContext> implements
             throw new IllegalArgumentException("Cannot create ClientHandler, because deserializer is null.");
         }
 
+        if (executor == null) {
+            throw new IllegalArgumentException("Cannot create ClientHandler, because executor is null.");
+        }
+
         this.serializer = serializer;
         this.deserializer = deserializer;
-        setSocket(clientSocket);
+        setConnectionExecutor(executor);
         establishConnectionServices();
         this.context = new ServerContext(this, this, centralHub, getLoggers());
     }
@@ -74,7 +130,7 @@ public class ClientHandler extends ControlProcessAgent<ServerContext> implements
      * Establishes the heart beating service.
      */
     private void establishHeartBeater() {
-        HeartBeater heartBeater = new HeartBeater(this, HEARTBEAT_INTERVAL);
+        HeartBeater heartBeater = new HeartBeater(this, HEARTBEAT_INTERVAL, getConnectionExecutor());
         heartBeater.addShutdownListener(this);
         addConnectionService(heartBeater);
     }
@@ -83,7 +139,7 @@ public class ClientHandler extends ControlProcessAgent<ServerContext> implements
      * Establishes the client gate service.
      */
     private void establishClientGate() {
-        clientGate = new ClientGate(this, CLIENT_ACCEPTANCE_PHASE);
+        clientGate = new ClientGate(this, CLIENT_ACCEPTANCE_PHASE, getConnectionExecutor());
         addConnectionService(clientGate);
     }
 
@@ -116,6 +172,11 @@ public class ClientHandler extends ControlProcessAgent<ServerContext> implements
         if (getClientNodeAddress() != -1) {
             context.deregisterClient();
         }
+
+        QueuedSensorDataTarget target = sensorDataTarget;
+        if (target != null) {
+            target.close();
+        }
     }
 
     @Override
@@ -154,8 +215,55 @@ public class ClientHandler extends ControlProcessAgent<ServerContext> implements
         clientGate.stop();
     }
 
+    /**
+     * Sets a fan-out shared by all client handlers, used for queueing sensor data for the client.
+     * Without a shared fan-out, a pusher with a socket of its own is created for the client.
+     *
+     * @param sensorDataFanOut the shared fan-out
+     */
+    public void setSensorDataFanOut(SensorDataFanOut sensorDataFanOut) {
+        if (sensorDataFanOut == null) {
+            throw new IllegalArgumentException("Cannot set sensor data fan-out, because sensorDataFanOut is null.");
+        }
+
+        this.sensorDataFanOut = sensorDataFanOut;
+    }
+
+    /**
+     * Makes the client handler pass the messages of the client through a staged pipeline, processing received messages
+     * on a thread of their own rather than on the thread reading the socket.
+     * Must be called before the client handler is run, and has no effect on non-blocking connections.
+     *
+     * @param queueCapacity the capacity of every queue between two stages
+     * @param metrics the metrics to record stage latencies in, shared by all client handlers
+     */
+    public void useStagedPipeline(int queueCapacity, PipelineMetrics metrics) {
+        setStagedPipeline(queueCapacity, metrics);
+    }
+
+    /**
+     * Disconnects the client, because it cannot keep up with the sensor data it subscribes to.
+     */
+    private void disconnectOverflowingClient() {
+        logError("Client " + getRemoteEntityAsString() + " cannot keep up with its sensor data, and will " +
+                "therefore be disconnected.");
+        safelyClose();
+    }
+
     @Override
     public DataCommAgent getDataCommAgent(int portNumber) throws IOException {
-        return new UdpSensorDataPusher(socket.getInetAddress(), portNumber, serializer);
+        DataCommAgent result = null;
+
+        SensorDataFanOut fanOut = sensorDataFanOut;
+        if (fanOut != null) {
+            QueuedSensorDataTarget target = fanOut.createTarget(socket.getInetAddress(), portNumber,
+                    this::disconnectOverflowingClient);
+            sensorDataTarget = target;
+            result = target;
+        } else {
+            result = new UdpSensorDataPusher(socket.getInetAddress(), portNumber, serializer);
+        }
+
+        return result;
     }
 }
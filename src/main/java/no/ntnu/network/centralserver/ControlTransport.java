@@ -0,0 +1,23 @@
+package no.ntnu.network.centralserver;
+
+/**
+ * The transports a central server can use for its TCP control connections.
+ */
+public enum ControlTransport {
+    /**
+     * Every client is served by its own platform reader thread and its own platform connection service threads.
+     */
+    THREAD_PER_CLIENT,
+
+    /**
+     * Every client is served by its own virtual reader thread and its own virtual connection service threads.
+     * Requires a runtime supporting virtual threads, and falls back to platform threads otherwise.
+     */
+    VIRTUAL_THREAD_PER_CLIENT,
+
+    /**
+     * All clients are served by a fixed group of selector-based event loops and a shared connection service scheduler,
+     * keeping the number of threads independent of the number of clients.
+     */
+    SELECTOR
+}
@@ -7,36 +7,88 @@ import no.ntnu.network.DataCommAgent;
 import no.ntnu.network.centralserver.centralhub.clientproxy.ClientProxy;
 import no.ntnu.network.centralserver.centralhub.clientproxy.ControlPanelClientProxy;
 import no.ntnu.network.centralserver.centralhub.clientproxy.FieldNodeClientProxy;
+import no.ntnu.network.centralserver.resumption.ResumptionTicketCache;
 import no.ntnu.network.connectionservice.sensordatarouter.SensorDataDestination;
+import no.ntnu.network.message.encryption.cipher.decrypt.DatagramKeyring;
 import no.ntnu.network.message.deserialize.component.DeviceLookupTable;
-import no.ntnu.network.message.request.AdlUpdateRequest;
-import no.ntnu.network.message.request.ServerFnsmNotificationRequest;
 import no.ntnu.network.message.sensordata.SensorDataMessage;
 import no.ntnu.network.representation.FieldNodeInformation;
 import no.ntnu.tools.logger.SimpleLogger;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * The CentralHub is the 'logic class' for the central server, responsible for managing clients.
  * Although the class does handle client communication, it is not dependent on a concrete communication implementation,
  * and can therefore handle client communication of any type.
+ * <p/>
+ * The hub is partitioned into shards by field node address. Every {@code CentralHubShard} owns its field nodes along
+ * with their routes, ADLs and FNSMs, and changes them one at a time on an event loop of its own, so that subscriptions
+ * to field nodes of different shards never wait for each other. Subscribing to a field node is a message to the shard
+ * of the field node, and deregistering a control panel is a message to every shard, removing it from the routes of the
+ * shard. The sensor data path never locks: every field node has an immutable {@code SensorDataRoute}, holding its
+ * subscribers and an index of its FNST, and any change to these replaces the route as a whole. Sensor data is
+ * therefore always routed using a consistent snapshot, without waiting for registrations or ADL updates in progress.
+ * <p/>
+ * Registered clients are indexed by the identity of their control communication agent, and client addresses are
+ * handed out by a {@code ClientAddressAllocator}, so that registering and deregistering a client takes constant time
+ * regardless of the number of registered clients.
+ * <p/>
+ * The ADL of every field node is maintained incrementally by a {@code FieldNodeAdl}, counting the subscribers
+ * compatible with each device class. A field node is sent the difference between this ADL and the ADL it last
+ * confirmed, so that an update it never applied is made up for by the next one.
+ * <p/>
+ * The hub also remembers the sessions of registered clients in a {@code ResumptionTicketCache}, so that a client
+ * reconnecting shortly after losing its connection can be registered again without repeating the handshake. The
+ * session keys of registered field nodes are kept in a {@code DatagramKeyring}, decrypting the sensor data datagrams
+ * they push. Every field node with encrypted subscribers has a group key, handed to the subscribers by its shard, so
+ * that each reading is encrypted once for all subscribers holding the key rather than once for each of them.
  */
 public class CentralHub implements SensorDataDestination, DeviceLookupTable {
-    private final Map<Integer, FieldNodeClientProxy> fieldNodes;
+    private static final int RESUMPTION_TICKET_CAPACITY = 4096;
+    private static final long RESUMPTION_TICKET_LIFETIME_MILLIS = 10 * 60 * 1000;
+    private final CentralHubShard[] shards;
     private final Map<Integer, ControlPanelClientProxy> controlPanels;
-    private final Map<Integer, Set<Integer>> sensorDataRoutingTable;
+    private final Map<ControlCommAgent, Integer> clientAddresses;
+    private final ClientAddressAllocator addressAllocator;
+    private final Object registryLock;
     private final Set<SimpleLogger> loggers;
+    private final ResumptionTicketCache resumptionTickets;
+    private final DatagramKeyring sensorDataKeys;
 
     /**
-     * Creates a new CentralHub.
+     * Creates a new CentralHub, with one shard for every available processor.
      */
     public CentralHub() {
-        this.fieldNodes = new HashMap<>();
-        this.controlPanels = new HashMap<>();
-        this.sensorDataRoutingTable = new HashMap<>();
-        this.loggers = new HashSet<>();
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new CentralHub.
+     *
+     * @param shardCount the number of shards to partition the field nodes into
+     */
+    public CentralHub(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Cannot create CentralHub, because shardCount is less than 1.");
+        }
+
+        this.controlPanels = new ConcurrentHashMap<>();
+        this.clientAddresses = new IdentityHashMap<>();
+        this.addressAllocator = new ClientAddressAllocator();
+        this.registryLock = new Object();
+        this.loggers = new CopyOnWriteArraySet<>();
+        this.resumptionTickets = new ResumptionTicketCache(RESUMPTION_TICKET_CAPACITY,
+                RESUMPTION_TICKET_LIFETIME_MILLIS);
+        this.sensorDataKeys = new DatagramKeyring();
+        this.shards = new CentralHubShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new CentralHubShard(i, controlPanels, this::logError);
+        }
     }
 
     /**
@@ -61,6 +113,25 @@ public class CentralHub implements SensorDataDestination, DeviceLookupTable {
         loggers.forEach(logger -> logger.logError(message));
     }
 
+    /**
+     * Returns the shard owning a field node address.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @return the shard owning the address
+     */
+    private CentralHubShard shardOf(int fieldNodeAddress) {
+        return shards[ClientAddressAllocator.slotOf(fieldNodeAddress) % shards.length];
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the number of shards
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
     /**
      * Registers a field node client.
      *
@@ -69,7 +140,7 @@ public class CentralHub implements SensorDataDestination, DeviceLookupTable {
      * @return the assigned address for the field node
      * @throws ClientRegistrationException thrown if registration fails
      */
-    public synchronized int registerFieldNode(FieldNodeInformation fieldNodeInformation, ControlCommAgent agent) throws ClientRegistrationException {
+    public int registerFieldNode(FieldNodeInformation fieldNodeInformation, ControlCommAgent agent) throws ClientRegistrationException {
         if (fieldNodeInformation == null) {
             throw new IllegalArgumentException("Cannot register field node, because fieldNodeInformation is null.");
         }
@@ -79,14 +150,18 @@ public class CentralHub implements SensorDataDestination, DeviceLookupTable {
         }
 
         FieldNodeClientProxy clientProxy = new FieldNodeClientProxy(agent, fieldNodeInformation);
-        int clientAddress = registerClient(clientProxy, fieldNodes);
+        int clientAddress = registerClient(clientProxy);
         // checks if address is -1, which indicated that the client is already registered
         if (clientAddress == -1) {
             throw new ClientRegistrationException("Cannot register field node, because it is already registered.");
         }
 
-        // adds a new entry to the sensor data routing table
-        sensorDataRoutingTable.put(clientAddress, new HashSet<>());
+        // the field node, its route and its ADL are added by the shard owning the address
+        CentralHubShard shard = shardOf(clientAddress);
+        shard.callUnchecked(() -> {
+            shard.addFieldNode(clientAddress, clientProxy);
+            return null;
+        });
 
         return clientAddress;
     }
@@ -100,7 +175,7 @@ public class CentralHub implements SensorDataDestination, DeviceLookupTable {
      * @return the assigned address for the control panel
      * @throws ClientRegistrationException thrown if registration fails
      */
-    public synchronized int registerControlPanel(Set<DeviceClass> compatibilityList, ControlCommAgent controlAgent, DataCommAgent dataAgent) throws ClientRegistrationException {
+    public int registerControlPanel(Set<DeviceClass> compatibilityList, ControlCommAgent controlAgent, DataCommAgent dataAgent) throws ClientRegistrationException {
         if (compatibilityList == null) {
             throw new IllegalArgumentException("Cannot register control panel, because compatibility list is null.");
         }
@@ -110,30 +185,33 @@ public class CentralHub implements SensorDataDestination, DeviceLookupTable {
         }
 
         ControlPanelClientProxy clientProxy = new ControlPanelClientProxy(controlAgent, dataAgent, compatibilityList);
-        int clientAddress = registerClient(clientProxy, controlPanels);
+        int clientAddress = registerClient(clientProxy);
         // checks if address is -1, which indicates that the client is already registered
         if (clientAddress == -1) {
             throw new ClientRegistrationException("Cannot register control panel, because it is already registered.");
         }
 
+        controlPanels.put(clientAddress, clientProxy);
+
         return clientAddress;
     }
 
     /**
-     * Registers a client in a register.
+     * Allocates an address for a client.
+     * A client is already registered if its control communication agent is registered, as any type of client.
      *
-     * @param client   the client to register
-     * @param register the register in which to put the client
-     * @param <C>      the client proxy
+     * @param client the client to register
      * @return the assigned address for the client, -1 if client is already registered
      * @throws ClientRegistrationException thrown if client cannot be registered
      */
-    private synchronized <C extends ClientProxy> int registerClient(C client, Map<Integer, C> register) {
+    private int registerClient(ClientProxy client) {
         int clientAddress = -1;
 
-        if (!(register.containsValue(client))) {
-            clientAddress = generateNewClientAddress();
-            register.put(clientAddress, client);
+        synchronized (registryLock) {
+            if (!clientAddresses.containsKey(client.getAgent())) {
+                clientAddress = addressAllocator.allocate();
+                clientAddresses.put(client.getAgent(), clientAddress);
+            }
         }
 
         return clientAddress;
@@ -141,53 +219,33 @@ public class CentralHub implements SensorDataDestination, DeviceLookupTable {
 
     /**
      * Deregisters a client.
+     * The address of the client is recycled under a new generation, so the address itself is never handed out again
+     * until its generation wraps around.
      *
      * @param clientAddress the client address
      */
-    public synchronized void deregisterClient(int clientAddress) {
-        if (fieldNodes.remove(clientAddress) != null) {
-            handleFieldNodeRemoval(clientAddress);
-        } else if (controlPanels.remove(clientAddress) != null) {
-            removeSensorDataSubscriber(clientAddress);
+    public void deregisterClient(int clientAddress) {
+        // the field node is removed by its shard, which removes it from the routing table first
+        CentralHubShard shard = shardOf(clientAddress);
+        ClientProxy removedClient = shard.callUnchecked(() -> shard.removeFieldNode(clientAddress));
+
+        if (removedClient == null) {
+            // the control panel is removed before its routes, so that no shard lets it subscribe again meanwhile
+            ControlPanelClientProxy controlPanel = controlPanels.remove(clientAddress);
+            if (controlPanel != null) {
+                removeSubscriberFromShards(clientAddress, controlPanel);
+            }
+            removedClient = controlPanel;
         }
-    }
-
-    /**
-     * Handles the removal of a field node.
-     *
-     * @param clientAddress the address of the field node
-     */
-    private void handleFieldNodeRemoval(int clientAddress) {
-        sensorDataRoutingTable.remove(clientAddress);
-    }
-
-    /**
-     * Generates the smallest available address in a map of addresses.
-     *
-     * @return the smallest available address
-     */
-    private int generateNewClientAddress() {
-        int currentCheck = 0;
 
-        Set<Integer> addresses = getAllAddresses();
-        while (addresses.contains(currentCheck)) {
-            currentCheck++;
+        if (removedClient != null) {
+            // the key goes before the address, so that it is never removed from a client given the address anew
+            sensorDataKeys.removeChannel(clientAddress);
+            synchronized (registryLock) {
+                clientAddresses.remove(removedClient.getAgent());
+                addressAllocator.release(clientAddress);
+            }
         }
-
-        return currentCheck;
-    }
-
-    /**
-     * Returns a set of all client addresses currently in use.
-     *
-     * @return all client addresses
-     */
-    private Set<Integer> getAllAddresses() {
-        Set<Integer> allAddresses = new HashSet<>();
-        allAddresses.addAll(fieldNodes.keySet());
-        allAddresses.addAll(controlPanels.keySet());
-
-        return allAddresses;
     }
 
     /**
@@ -207,87 +265,46 @@ public class CentralHub implements SensorDataDestination, DeviceLookupTable {
      * @return the field node proxy, null if no field node with the provided address exists
      */
     public FieldNodeClientProxy getFieldNodeClientProxy(int address) {
-        return fieldNodes.get(address);
+        return shardOf(address).getFieldNode(address);
     }
 
     /**
      * Subscribes a control panel to a field node.
+     * The subscription is made by the shard owning the field node, and withdrawn again if the ADL update it causes
+     * cannot be sent to the field node.
      *
      * @param subscriber       the communication agent for the control panel
      * @param fieldNodeAddress the node address of the field node to subscribe to
      * @return an Optional containing the corresponding field node client proxy, or empty if subscription fails
      * @throws SubscriptionException if subscribing fails
      */
-    public synchronized FieldNodeClientProxy subscribeToFieldNode(ControlCommAgent subscriber, int fieldNodeAddress) throws SubscriptionException {
+    public FieldNodeClientProxy subscribeToFieldNode(ControlCommAgent subscriber, int fieldNodeAddress) throws SubscriptionException {
         Objects.requireNonNull(subscriber, "Cannot subscribe to field node because subscriber is null.");
 
-        if (!sensorDataRoutingTable.containsKey(fieldNodeAddress)) {
-            throw new SubscriptionException(formatExceptionMessage("no such field node exists", fieldNodeAddress));
-        }
-
-        return handleFieldNodeSubscription(subscriber.getClientNodeAddress(), fieldNodeAddress);
-    }
-
-    /**
-     * Handles the subscription to a field node.
-     * Only control panels can currently subscribe to field nodes.
-     *
-     * @param subscriberAddress the node address of the subscriber
-     * @param fieldNodeAddress  the node address of the field node to subscribe to
-     * @return the client proxy for the field node, or null if subscription is not successful
-     * @throws SubscriptionException if subscription fails
-     */
-    private FieldNodeClientProxy handleFieldNodeSubscription(int subscriberAddress, int fieldNodeAddress) throws SubscriptionException {
-        if (!validControlPanel(subscriberAddress)) {
-            throw new SubscriptionException(formatExceptionMessage("control panel is not registered", fieldNodeAddress));
-        }
-
-        if (getFieldNodeSubscribers(fieldNodeAddress).contains(subscriberAddress)) {
-            throw new SubscriptionException(formatExceptionMessage("control panel is already subscribed", fieldNodeAddress));
-        }
-
-        addFieldNodeSubscriber(subscriberAddress, fieldNodeAddress);
-        if (adlOutOfSync(fieldNodeAddress)) {
-            try {
-                sendAdlUpdate(fieldNodeAddress);
-            } catch (IOException e) {
-                throw new SubscriptionException(e.getMessage());
-            }
-        }
+        int subscriberAddress = subscriber.getClientNodeAddress();
+        CentralHubShard shard = shardOf(fieldNodeAddress);
 
-        return fieldNodes.get(fieldNodeAddress);
-    }
+        CentralHubShard.Subscription subscription = shard.call(() ->
+                shard.subscribe(subscriberAddress, fieldNodeAddress));
 
-    /**
-     * Indicates whether the local ADL for a field node contains data that the field node does not have.
-     *
-     * @param fieldNodeAddress the address of the field node
-     * @return true if field node knows about adl changes, false otherwise
-     */
-    private boolean adlOutOfSync(int fieldNodeAddress) {
-        boolean isSynchronized = false;
-
-        FieldNodeClientProxy fieldNodeProxy = fieldNodes.get(fieldNodeAddress);
-        if (fieldNodeProxy != null) {
-            isSynchronized = fieldNodeProxy.getAdl().equals(getAdlForFieldNode(fieldNodeAddress));
-        } else {
-            throw new IllegalArgumentException("Cannot check if adl is synchronized, because no field node with" +
-                    " address " + fieldNodeAddress + " was found.");
+        // waits for the ADL update here rather than on the loop of the shard, which serves other field nodes meanwhile
+        try {
+            subscription.adlUpdateSent().join();
+        } catch (CompletionException e) {
+            shard.callUnchecked(() -> {
+                shard.withdrawSubscription(subscriberAddress, fieldNodeAddress);
+                return null;
+            });
+            throw new SubscriptionException("Cannot subscribe to field node with address " + fieldNodeAddress +
+                    ", because the ADL update could not be sent: " + e.getCause().getMessage());
         }
 
-        return !isSynchronized;
-    }
-
-    private boolean validControlPanel(int subscriberAddress) {
-        return controlPanels.containsKey(subscriberAddress);
-    }
-
-    private String formatExceptionMessage(String reason, int fieldNodeAddress) {
-        return String.format("Cannot subscribe to field node with address %d, because %s.", fieldNodeAddress, reason);
+        return subscription.fieldNode();
     }
 
     /**
      * Unsubscribes a control panel from a field node.
+     * The subscription is removed by the shard owning the field node.
      *
      * @param subscriber       the communication agent for the control panel
      * @param fieldNodeAddress the node address of the field node to unsubscribe from
@@ -299,21 +316,34 @@ public class CentralHub implements SensorDataDestination, DeviceLookupTable {
                     ", because subscriber is null.");
         }
 
-        Set<Integer> subscribers = getFieldNodeSubscribers(fieldNodeAddress);
         int subscriberAddress = subscriber.getClientNodeAddress();
-        if (subscribers != null && subscribers.contains(subscriberAddress)) {
-            subscribers.remove(subscriberAddress);
-            if (adlOutOfSync(fieldNodeAddress)) {
-                try {
-                    sendAdlUpdate(fieldNodeAddress);
-                } catch (IOException e) {
-                    throw new SubscriptionException(e.getMessage());
-                }
-            }
-        } else {
-            throw new SubscriptionException("Cannot unsubscribe from field node " + fieldNodeAddress + ", because " +
-                    "no such subscription exists.");
+        CentralHubShard shard = shardOf(fieldNodeAddress);
+        shard.call(() -> {
+            shard.unsubscribe(subscriberAddress, fieldNodeAddress);
+            return null;
+        });
+    }
+
+    /**
+     * Marks a control panel as holding the group key of a field node, so that it is sent the sensor data of the field
+     * node encrypted once for the whole group.
+     * The change is made by the shard owning the field node.
+     *
+     * @param subscriber the communication agent for the control panel
+     * @param fieldNodeAddress the address of the field node
+     * @param epoch the epoch of the accepted group key
+     */
+    public void acceptSensorDataKey(ControlCommAgent subscriber, int fieldNodeAddress, int epoch) {
+        if (subscriber == null) {
+            throw new IllegalArgumentException("Cannot accept sensor data key, because subscriber is null.");
         }
+
+        int subscriberAddress = subscriber.getClientNodeAddress();
+        CentralHubShard shard = shardOf(fieldNodeAddress);
+        shard.callUnchecked(() -> {
+            shard.acceptGroupKey(fieldNodeAddress, subscriberAddress, epoch);
+            return null;
+        });
     }
 
     /**
@@ -322,133 +352,63 @@ public class CentralHub implements SensorDataDestination, DeviceLookupTable {
      * @param fieldNodeAddress the address of the field node
      * @param updatedAdl       the updated adl to set
      */
-    public synchronized void updateLocalAdl(int fieldNodeAddress, Set<Integer> updatedAdl) {
+    public void updateLocalAdl(int fieldNodeAddress, Set<Integer> updatedAdl) {
         if (updatedAdl == null) {
             throw new IllegalArgumentException("Cannot update local ADL, because updatedAdl is null.");
         }
 
-        fieldNodes.get(fieldNodeAddress).setAdl(updatedAdl);
+        CentralHubShard shard = shardOf(fieldNodeAddress);
+        shard.callUnchecked(() -> {
+            shard.updateLocalAdl(fieldNodeAddress, updatedAdl);
+            return null;
+        });
     }
 
     /**
      * Removes a client completely from the sensor data routing table.
+     * Every shard is sent a message removing the client from its routes, and the field nodes it was subscribed to are
+     * sent an ADL update if they no longer have subscribers for some of their devices.
      *
      * @param subscriberAddress the subscriber to remove
      */
-    public synchronized void removeSensorDataSubscriber(int subscriberAddress) {
-        sensorDataRoutingTable.values().forEach(set -> set.remove(subscriberAddress));
+    public void removeSensorDataSubscriber(int subscriberAddress) {
+        ControlPanelClientProxy subscriber = controlPanels.get(subscriberAddress);
+
+        if (subscriber != null) {
+            removeSubscriberFromShards(subscriberAddress, subscriber);
+        }
     }
 
     /**
-     * Adds a subscriber to a field node.
+     * Removes a control panel from the routes of every shard, waiting for each shard in turn.
      *
-     * @param subscriberAddress the address of the subscribing control panel
-     * @param fieldNodeAddress  the address of the field node to subscribe to
+     * @param subscriberAddress the address of the control panel
+     * @param subscriber        the control panel proxy
      */
-    private void addFieldNodeSubscriber(int subscriberAddress, int fieldNodeAddress) {
-        Set<Integer> subscribers = getFieldNodeSubscribers(fieldNodeAddress);
-        subscribers.add(subscriberAddress);
+    private void removeSubscriberFromShards(int subscriberAddress, ControlPanelClientProxy subscriber) {
+        for (CentralHubShard shard : shards) {
+            shard.callUnchecked(() -> {
+                shard.removeSubscriber(subscriberAddress, subscriber);
+                return null;
+            });
+        }
     }
 
     /**
      * Returns a set of addresses representing the control panels subscribed to the given field node.
      *
      * @param fieldNodeAddress the address of the field node
-     * @return the field node subscribers
+     * @return an unmodifiable snapshot of the field node subscribers, null if no such field node exists
      */
     public Set<Integer> getFieldNodeSubscribers(int fieldNodeAddress) {
-        return sensorDataRoutingTable.get(fieldNodeAddress);
-    }
-
-    /**
-     * Generates and sends an ADL update to the given field node address.
-     *
-     * @param fieldNodeAddress the field node to send update to
-     */
-    private void sendAdlUpdate(int fieldNodeAddress) throws IOException {
-        ControlCommAgent fieldNodeAgent = fieldNodes.get(fieldNodeAddress).getAgent();
-        fieldNodeAgent.sendRequest(new AdlUpdateRequest(getAdlUpdate(fieldNodeAddress)));
-    }
-
-    /**
-     * Returns an ADL update for a field node.
-     * An ADL update is a set of device classes, where positive addresses means the adding of the device to the ADL,
-     * while negative addresses means the removal of the device from the ADL.
-     *
-     * @param fieldNodeAddress the address of the field node
-     * @return the adl update
-     */
-    private Set<Integer> getAdlUpdate(int fieldNodeAddress) {
-        Set<Integer> previousAdl = fieldNodes.get(fieldNodeAddress).getAdl();
-        Set<Integer> newAdl = getAdlForFieldNode(fieldNodeAddress);
-
-        // computes the addresses to add - the ones that are in the new adl but not in the previous
-        Set<Integer> addressesToAdd = new HashSet<>(newAdl);
-        addressesToAdd.removeAll(previousAdl);
-
-        // computes the addresses to remove - the ones that were in the previous adl but not in the new
-        Set<Integer> addressesToRemove = new HashSet<>(previousAdl);
-        addressesToRemove.removeAll(newAdl);
-
-        // add addresses to add to the adl update
-        Set<Integer> adlUpdate = new HashSet<>(addressesToAdd);
-
-        // negate the addresses to remove and add them to update
-        addressesToRemove.forEach(address -> adlUpdate.add(address * -1));
-
-        return adlUpdate;
-    }
-
-    /**
-     * Generates the current ADL for a given field node.
-     *
-     * @param fieldNodeAddress the address of the field node
-     * @return the generated adl
-     */
-    private Set<Integer> getAdlForFieldNode(int fieldNodeAddress) {
-        return generateAdl(fieldNodeAddress, getActiveDeviceClasses(fieldNodeAddress));
-    }
-
-    /**
-     * Generates a current ADL for a field node.
-     *
-     * @param fieldNodeAddress the address of the field node
-     * @param activeClasses    the active device classes for the field node
-     * @return a current ADL for the field node
-     */
-    private Set<Integer> generateAdl(int fieldNodeAddress, Set<DeviceClass> activeClasses) {
-        Set<Integer> adl = new HashSet<>();
-
-        Map<Integer, DeviceClass> fnst = fieldNodes.get(fieldNodeAddress).getFNST();
-        fnst.forEach((key, value) -> {
-            // adding the device address to adl if the device class is 'active'
-            if (activeClasses.contains(value)) {
-                adl.add(key);
-            }
-        });
-
-        return adl;
-    }
+        Set<Integer> result = null;
 
-    /**
-     * Returns the active device classes for a given field node.
-     * A device class is considered active for a field node if a subscriber is compatible with this device class, and
-     * the field node owns a device of this kind.
-     *
-     * @param fieldNodeAddress the address of the field node
-     * @return a set of all active device classes for the field node
-     */
-    private Set<DeviceClass> getActiveDeviceClasses(int fieldNodeAddress) {
-        Set<DeviceClass> activeClasses = new HashSet<>();
-
-        Set<Integer> subscribers = getFieldNodeSubscribers(fieldNodeAddress);
-        subscribers.forEach(subscriber -> {
-            // adding all compatible device classes for each subscriber of the field node
-            ControlPanelClientProxy controlPanel = controlPanels.get(subscriber);
-            activeClasses.addAll(controlPanel.getCompatibilityList());
-        });
+        SensorDataRoute route = shardOf(fieldNodeAddress).getRoute(fieldNodeAddress);
+        if (route != null) {
+            result = route.getSubscriberAddresses();
+        }
 
-        return activeClasses;
+        return result;
     }
 
     /**
@@ -459,7 +419,9 @@ public class CentralHub implements SensorDataDestination, DeviceLookupTable {
     public Map<Integer, String> getFieldNodePool() {
         Map<Integer, String> fieldNodePool = new HashMap<>();
 
-        fieldNodes.forEach((key, value) -> fieldNodePool.put(key, value.getName()));
+        for (CentralHubShard shard : shards) {
+            shard.getFieldNodes().forEach((key, value) -> fieldNodePool.put(key, value.getName()));
+        }
 
         return fieldNodePool;
     }
@@ -474,20 +436,12 @@ public class CentralHub implements SensorDataDestination, DeviceLookupTable {
      * @param newState         the new state to set
      * @throws NoSuchAddressException thrown if one of the addresses is invalid
      */
-    public synchronized void setLocalActuatorState(int fieldNodeAddress, int actuatorAddress, int newState) throws NoSuchAddressException {
-        if (!(fieldNodes.containsKey(fieldNodeAddress))) {
-            throw new NoSuchAddressException("Cannot set actuator state for field node with address " + fieldNodeAddress +
-                    ", because no such field node exists.");
-        }
-
-        FieldNodeClientProxy fieldNode = fieldNodes.get(fieldNodeAddress);
-        try {
-            fieldNode.setActuatorState(actuatorAddress, newState);
-            handleActuatorStateChangeForwarding(fieldNodeAddress, actuatorAddress, newState);
-        } catch (NoSuchActuatorException e) {
-            throw new NoSuchAddressException("Cannot set state of actuator with address " + actuatorAddress +
-                    " for field node with address " + fieldNodeAddress + ", because no such actuator exists.");
-        }
+    public void setLocalActuatorState(int fieldNodeAddress, int actuatorAddress, int newState) throws NoSuchAddressException {
+        CentralHubShard shard = shardOf(fieldNodeAddress);
+        shard.callUnchecked(() -> {
+            shard.setLocalActuatorState(fieldNodeAddress, actuatorAddress, newState);
+            return null;
+        });
     }
 
     /**
@@ -497,51 +451,86 @@ public class CentralHub implements SensorDataDestination, DeviceLookupTable {
      * @return the field node proxy for the given address, null if none is found
      */
     public FieldNodeClientProxy getFieldNodeProxy(int fieldNodeAddress) {
-        return fieldNodes.get(fieldNodeAddress);
+        return shardOf(fieldNodeAddress).getFieldNode(fieldNodeAddress);
     }
 
     /**
-     * Handles the forwarding of information about the change of state for an actuator.
-     * All control panels subscribed to the field node will need to be notified about this event.
+     * Returns the cache of resumable client sessions.
      *
-     * @param fieldNodeAddress the address of the field node
-     * @param actuatorAddress  the address of the actuator
-     * @param newState         the new state of the actuator
+     * @return the resumption tickets
      */
-    private void handleActuatorStateChangeForwarding(int fieldNodeAddress, int actuatorAddress, int newState) {
-        ServerFnsmNotificationRequest request = new ServerFnsmNotificationRequest(fieldNodeAddress, actuatorAddress, newState);
-
-        getFieldNodeSubscribers(fieldNodeAddress).forEach(controlPanelAddress -> {
-            ControlPanelClientProxy controlPanel = controlPanels.get(controlPanelAddress);
-            ControlCommAgent agent = controlPanel.getAgent();
-
-            try {
-                agent.sendRequest(request);
-            } catch (IOException e) {
-                logError("Cannot notify " + agent.getRemoteEntityAsString() + " about the change of state for" +
-                        "actuator " + actuatorAddress + " on field node " + fieldNodeAddress);
-            }
-        });
+    public ResumptionTicketCache getResumptionTickets() {
+        return resumptionTickets;
+    }
+
+    /**
+     * Returns the keyring decrypting the sensor data datagrams pushed by registered field nodes.
+     *
+     * @return the sensor data keys
+     */
+    public DatagramKeyring getSensorDataKeys() {
+        return sensorDataKeys;
+    }
+
+    /**
+     * Stops the event loops of all shards.
+     */
+    public void close() {
+        for (CentralHubShard shard : shards) {
+            shard.close();
+        }
     }
 
     @Override
     public DeviceClass lookup(int clientAddress, int deviceAddress) {
-        return fieldNodes.get(clientAddress).getFNST().get(deviceAddress);
+        DeviceClass result = null;
+
+        SensorDataRoute route = shardOf(clientAddress).getRoute(clientAddress);
+        if (route != null) {
+            result = route.lookup(deviceAddress);
+        }
+
+        return result;
     }
 
     @Override
     public void receiveSensorData(SensorDataMessage sensorData) {
-        // further routes the sensor data to the subscribed control panels
-        Set<Integer> subscribers = getFieldNodeSubscribers(sensorData.getClientNodeAddress());
-
-        subscribers.forEach(subscriberAddress -> {
-            ControlPanelClientProxy controlPanel = controlPanels.get(subscriberAddress);
-            try {
-                controlPanel.sendSensorData(sensorData);
-            } catch (IOException e) {
-                logError("Cannot send sensor data to control panel with address " + subscriberAddress + ": " +
-                        e.getMessage());
+        // further routes the sensor data to the subscribed control panels, using the current route snapshot
+        int fieldNodeAddress = sensorData.getClientNodeAddress();
+        SensorDataRoute route = shardOf(fieldNodeAddress).getRoute(fieldNodeAddress);
+
+        if (route != null) {
+            // subscribers sharing a broadcaster get the sensor data serialized once for all of them, and those
+            // holding the group key get it encrypted once for all of them as well
+            SensorDataGroupKey groupKey = route.getGroupKey();
+            for (int group = 0; group < route.getBroadcastGroupCount(); group++) {
+                if (route.getMemberGroup(group).length > 0) {
+                    try {
+                        route.getBroadcaster(group).broadcast(sensorData, route.getMemberGroup(group),
+                                groupKey.getEncryption());
+                    } catch (IOException e) {
+                        logError("Cannot send sensor data to control panels: " + e.getMessage());
+                    }
+                }
+
+                if (route.getBroadcastGroup(group).length > 0) {
+                    try {
+                        route.getBroadcaster(group).broadcast(sensorData, route.getBroadcastGroup(group));
+                    } catch (IOException e) {
+                        logError("Cannot send sensor data to control panels: " + e.getMessage());
+                    }
+                }
             }
-        });
+
+            for (int i = 0; i < route.getIndividualSubscriberCount(); i++) {
+                int subscriber = route.getIndividualSubscriberIndex(i);
+                try {
+                    route.getSubscriber(subscriber).sendSensorData(sensorData);
+                } catch (IOException e) {
+                    logError("Cannot send sensor data to control panel with address " +
+                            route.getSubscriberAddress(subscriber) + ": " + e.getMessage());
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,571 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.exception.NoSuchActuatorException;
+import no.ntnu.exception.NoSuchAddressException;
+import no.ntnu.exception.SubscriptionException;
+import no.ntnu.network.ControlCommAgent;
+import no.ntnu.network.centralserver.centralhub.clientproxy.ControlPanelClientProxy;
+import no.ntnu.network.centralserver.centralhub.clientproxy.FieldNodeClientProxy;
+import no.ntnu.network.message.request.AdlUpdateRequest;
+import no.ntnu.network.message.request.SensorDataKeyRequest;
+import no.ntnu.network.message.request.ServerFnsmNotificationRequest;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * A partition of the {@code CentralHub}, owning a subset of the field nodes along with their routes, ADLs and FNSMs.
+ * <p/>
+ * Every shard is driven by an event loop of its own: a single thread taking commands from the mailbox of the shard,
+ * one at a time. All changes to the field nodes of a shard are made by commands on its loop, so that no locks are
+ * needed, and shards never wait for each other. Commands for a shard are either called, waiting for the result, or
+ * posted, leaving the loop to run them in the background. Field nodes and routes can be read from any thread, as the
+ * loop publishes them through concurrent maps.
+ * <p/>
+ * The shard also hands out the group keys of its field nodes. A subscriber whose sensor data is encrypted is sent the
+ * group key of the field node over its control channel, and is sent sensor data encrypted once for the whole group as
+ * soon as it has accepted the key. Whenever such a subscriber leaves, the key is replaced, so that a former subscriber
+ * cannot read the sensor data sent after it left.
+ * <p/>
+ * Requests caused by a command, such as ADL updates, group keys and actuator notifications, are posted to the writers
+ * of their connections rather than sent by the loop, so that a slow connection never holds up the other field nodes
+ * of the shard.
+ */
+class CentralHubShard {
+    private final int index;
+    private final Map<Integer, FieldNodeClientProxy> fieldNodes;
+    private final Map<Integer, SensorDataRoute> sensorDataRoutingTable;
+    private final Map<Integer, FieldNodeAdl> fieldNodeAdls;
+    private final Map<Integer, ControlPanelClientProxy> controlPanels;
+    private final Consumer<String> errorLogger;
+    private final ExecutorService eventLoop;
+    private volatile Thread eventLoopThread;
+    private int nextGroupKeyEpoch;
+
+    /**
+     * A command run on the event loop of a shard.
+     *
+     * @param <T> the result of the command
+     */
+    @FunctionalInterface
+    interface ShardCommand<T> {
+        /**
+         * Runs the command.
+         *
+         * @return the result of the command
+         * @throws SubscriptionException thrown if a subscription command fails
+         */
+        T run() throws SubscriptionException;
+    }
+
+    /**
+     * A subscription made by a shard, along with the ADL update it sent the field node.
+     *
+     * @param fieldNode the client proxy for the field node subscribed to
+     * @param adlUpdateSent completed once the ADL update has been sent, or failed if it could not be sent
+     */
+    record Subscription(FieldNodeClientProxy fieldNode, CompletableFuture<Void> adlUpdateSent) {}
+
+    /**
+     * Creates a new CentralHubShard.
+     *
+     * @param index the index of the shard
+     * @param controlPanels all registered control panels, shared by all shards
+     * @param errorLogger logs errors encountered by the shard
+     */
+    CentralHubShard(int index, Map<Integer, ControlPanelClientProxy> controlPanels, Consumer<String> errorLogger) {
+        this.index = index;
+        this.fieldNodes = new ConcurrentHashMap<>();
+        this.sensorDataRoutingTable = new ConcurrentHashMap<>();
+        this.fieldNodeAdls = new HashMap<>();
+        this.controlPanels = controlPanels;
+        this.errorLogger = errorLogger;
+        this.nextGroupKeyEpoch = 0;
+        this.eventLoop = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "central-hub-shard-" + index);
+            thread.setDaemon(true);
+            eventLoopThread = thread;
+            return thread;
+        });
+    }
+
+    /**
+     * Runs a command on the event loop, waiting for its result.
+     * A command called from the event loop itself is run right away.
+     *
+     * @param command the command to run
+     * @param <T> the result of the command
+     * @return the result of the command
+     * @throws SubscriptionException thrown if a subscription command fails
+     */
+    <T> T call(ShardCommand<T> command) throws SubscriptionException {
+        T result = null;
+
+        if (Thread.currentThread() == eventLoopThread) {
+            result = command.run();
+        } else {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            post(() -> {
+                try {
+                    future.complete(command.run());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+
+            result = awaitResult(future);
+        }
+
+        return result;
+    }
+
+    /**
+     * Runs a command on the event loop, waiting for its result, for commands that cannot fail with a
+     * {@code SubscriptionException}.
+     *
+     * @param command the command to run
+     * @param <T> the result of the command
+     * @return the result of the command
+     */
+    <T> T callUnchecked(ShardCommand<T> command) {
+        T result = null;
+
+        try {
+            result = call(command);
+        } catch (SubscriptionException e) {
+            throw new IllegalStateException("Shard command failed unexpectedly: " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * Posts a command to the mailbox of the event loop, without waiting for it to run.
+     *
+     * @param command the command to run
+     */
+    void post(Runnable command) {
+        try {
+            eventLoop.execute(command);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Cannot post command to shard " + index + ", because it is closed.");
+        }
+    }
+
+    /**
+     * Waits for the result of a command, passing on any exception thrown by the command.
+     *
+     * @param future the future result of the command
+     * @param <T> the result of the command
+     * @return the result of the command
+     * @throws SubscriptionException thrown if the command failed with a subscription exception
+     */
+    private static <T> T awaitResult(CompletableFuture<T> future) throws SubscriptionException {
+        T result = null;
+
+        try {
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard command.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SubscriptionException subscriptionException) {
+                throw subscriptionException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            } else {
+                throw new IllegalStateException("Shard command failed: " + cause);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds a field node to the shard. Must run on the event loop.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param fieldNode the field node proxy
+     */
+    void addFieldNode(int fieldNodeAddress, FieldNodeClientProxy fieldNode) {
+        fieldNodes.put(fieldNodeAddress, fieldNode);
+        fieldNodeAdls.put(fieldNodeAddress, new FieldNodeAdl(fieldNode.getFNST()));
+        sensorDataRoutingTable.put(fieldNodeAddress, SensorDataRoute.of(fieldNode.getFNST()));
+    }
+
+    /**
+     * Removes a field node from the shard. Must run on the event loop.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @return the removed field node proxy, null if no such field node exists
+     */
+    FieldNodeClientProxy removeFieldNode(int fieldNodeAddress) {
+        // the field node is removed from the routing table first, so that no more sensor data is routed from it
+        sensorDataRoutingTable.remove(fieldNodeAddress);
+        fieldNodeAdls.remove(fieldNodeAddress);
+
+        return fieldNodes.remove(fieldNodeAddress);
+    }
+
+    /**
+     * Subscribes a control panel to a field node of the shard. Must run on the event loop.
+     * Only control panels can currently subscribe to field nodes. The ADL update caused by the subscription is posted
+     * to the field node, and the subscription must be withdrawn if it cannot be sent.
+     *
+     * @param subscriberAddress the node address of the subscriber
+     * @param fieldNodeAddress  the node address of the field node to subscribe to
+     * @return the subscription
+     * @throws SubscriptionException if subscription fails
+     */
+    Subscription subscribe(int subscriberAddress, int fieldNodeAddress) throws SubscriptionException {
+        SensorDataRoute route = sensorDataRoutingTable.get(fieldNodeAddress);
+        if (route == null) {
+            throw new SubscriptionException(formatExceptionMessage("no such field node exists", fieldNodeAddress));
+        }
+
+        ControlPanelClientProxy subscriber = controlPanels.get(subscriberAddress);
+        if (subscriber == null) {
+            throw new SubscriptionException(formatExceptionMessage("control panel is not registered", fieldNodeAddress));
+        }
+
+        if (route.hasSubscriber(subscriberAddress)) {
+            throw new SubscriptionException(formatExceptionMessage("control panel is already subscribed", fieldNodeAddress));
+        }
+
+        sensorDataRoutingTable.put(fieldNodeAddress, route.withSubscriber(subscriberAddress, subscriber));
+        fieldNodeAdls.get(fieldNodeAddress).addSubscriber(subscriber.getCompatibilityList());
+        CompletableFuture<Void> adlUpdateSent = sendAdlUpdate(fieldNodeAddress);
+
+        if (SensorDataRoute.canHoldGroupKey(subscriber)) {
+            shareGroupKey(fieldNodeAddress, subscriber);
+        }
+
+        return new Subscription(fieldNodes.get(fieldNodeAddress), adlUpdateSent);
+    }
+
+    /**
+     * Withdraws a subscription whose ADL update could not be sent, so that the control panel can subscribe again.
+     * Must run on the event loop.
+     *
+     * @param subscriberAddress the node address of the subscriber
+     * @param fieldNodeAddress the node address of the field node subscribed to
+     */
+    void withdrawSubscription(int subscriberAddress, int fieldNodeAddress) {
+        SensorDataRoute route = sensorDataRoutingTable.get(fieldNodeAddress);
+        ControlPanelClientProxy subscriber = controlPanels.get(subscriberAddress);
+
+        // the subscription may already be gone, if the control panel has been deregistered meanwhile
+        if (route != null && subscriber != null && route.hasSubscriber(subscriberAddress)) {
+            removeSubscription(fieldNodeAddress, route, subscriberAddress, subscriber);
+        }
+    }
+
+    /**
+     * Sends the group key of a field node to a new subscriber, creating the key first if the field node has none.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param subscriber the subscriber
+     */
+    private void shareGroupKey(int fieldNodeAddress, ControlPanelClientProxy subscriber) {
+        SensorDataRoute route = sensorDataRoutingTable.get(fieldNodeAddress);
+        SensorDataGroupKey groupKey = route.getGroupKey();
+
+        if (groupKey == null) {
+            groupKey = createGroupKey(fieldNodeAddress);
+            if (groupKey != null) {
+                sensorDataRoutingTable.put(fieldNodeAddress, route.withGroupKey(groupKey));
+            }
+        }
+
+        if (groupKey != null) {
+            sendGroupKey(fieldNodeAddress, groupKey, subscriber);
+        }
+    }
+
+    /**
+     * Replaces the group key of a field node after a subscriber holding it has left.
+     * The new key is sent to all remaining subscribers that can hold it, which are sent sensor data encrypted for
+     * each of them until they accept it. If no such subscribers remain, the field node is left without a key.
+     *
+     * @param fieldNodeAddress the address of the field node
+     */
+    private void rotateGroupKey(int fieldNodeAddress) {
+        SensorDataRoute route = sensorDataRoutingTable.get(fieldNodeAddress);
+
+        if (route != null && route.getGroupKey() != null) {
+            SensorDataGroupKey groupKey = route.hasGroupKeyCandidates() ? createGroupKey(fieldNodeAddress) : null;
+            sensorDataRoutingTable.put(fieldNodeAddress, route.withGroupKey(groupKey));
+
+            if (groupKey != null) {
+                for (int i = 0; i < route.getSubscriberCount(); i++) {
+                    if (SensorDataRoute.canHoldGroupKey(route.getSubscriber(i))) {
+                        sendGroupKey(fieldNodeAddress, groupKey, route.getSubscriber(i));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new group key for a field node, under the next epoch of the shard.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @return the group key, null if it could not be created
+     */
+    private SensorDataGroupKey createGroupKey(int fieldNodeAddress) {
+        SensorDataGroupKey result = null;
+
+        try {
+            result = SensorDataGroupKey.generate(fieldNodeAddress, nextGroupKeyEpoch++);
+        } catch (NoSuchAlgorithmException e) {
+            errorLogger.accept("Cannot create group key for field node with address " + fieldNodeAddress + ": " +
+                    e.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * Posts the group key of a field node to a subscriber over its control channel.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param groupKey the group key
+     * @param subscriber the subscriber
+     */
+    private void sendGroupKey(int fieldNodeAddress, SensorDataGroupKey groupKey, ControlPanelClientProxy subscriber) {
+        ControlCommAgent agent = subscriber.getAgent();
+
+        logSendFailure(agent.postRequest(new SensorDataKeyRequest(fieldNodeAddress, groupKey.getEpoch(),
+                groupKey.getKey())), "Cannot send group key for field node with address " + fieldNodeAddress +
+                " to " + agent.getRemoteEntityAsString());
+    }
+
+    /**
+     * Makes a subscriber a member of the group key of a field node, once it has accepted the key. Must run on the
+     * event loop.
+     * Keys accepted after being replaced are ignored, as the subscriber is sent the new key as well.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param subscriberAddress the address of the subscriber
+     * @param epoch the epoch of the accepted key
+     */
+    void acceptGroupKey(int fieldNodeAddress, int subscriberAddress, int epoch) {
+        SensorDataRoute route = sensorDataRoutingTable.get(fieldNodeAddress);
+
+        if (route != null) {
+            sensorDataRoutingTable.put(fieldNodeAddress, route.withGroupMember(subscriberAddress, epoch));
+        }
+    }
+
+    private String formatExceptionMessage(String reason, int fieldNodeAddress) {
+        return String.format("Cannot subscribe to field node with address %d, because %s.", fieldNodeAddress, reason);
+    }
+
+    /**
+     * Unsubscribes a control panel from a field node of the shard. Must run on the event loop.
+     *
+     * @param subscriberAddress the node address of the subscriber
+     * @param fieldNodeAddress  the node address of the field node to unsubscribe from
+     * @throws SubscriptionException thrown if unsubscribing fails
+     */
+    void unsubscribe(int subscriberAddress, int fieldNodeAddress) throws SubscriptionException {
+        SensorDataRoute route = sensorDataRoutingTable.get(fieldNodeAddress);
+        ControlPanelClientProxy subscriber = controlPanels.get(subscriberAddress);
+
+        if (route != null && subscriber != null && route.hasSubscriber(subscriberAddress)) {
+            removeSubscription(fieldNodeAddress, route, subscriberAddress, subscriber);
+        } else {
+            throw new SubscriptionException("Cannot unsubscribe from field node " + fieldNodeAddress + ", because " +
+                    "no such subscription exists.");
+        }
+    }
+
+    /**
+     * Removes a control panel from all routes of the shard. Must run on the event loop.
+     * The field nodes it was subscribed to are sent an ADL update if they no longer have subscribers for some of
+     * their devices.
+     *
+     * @param subscriberAddress the address of the control panel
+     * @param subscriber the control panel proxy
+     */
+    void removeSubscriber(int subscriberAddress, ControlPanelClientProxy subscriber) {
+        sensorDataRoutingTable.forEach((fieldNodeAddress, route) -> {
+            if (route.hasSubscriber(subscriberAddress)) {
+                removeSubscription(fieldNodeAddress, route, subscriberAddress, subscriber);
+            }
+        });
+    }
+
+    /**
+     * Removes a subscriber from the route of a field node, replacing the group key it held and posting an ADL update
+     * to the field node if it no longer has subscribers for some of its devices.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param route the current route of the field node
+     * @param subscriberAddress the address of the subscriber
+     * @param subscriber the subscriber
+     */
+    private void removeSubscription(int fieldNodeAddress, SensorDataRoute route, int subscriberAddress,
+                                    ControlPanelClientProxy subscriber) {
+        sensorDataRoutingTable.put(fieldNodeAddress, route.withoutSubscriber(subscriberAddress));
+        if (SensorDataRoute.canHoldGroupKey(subscriber)) {
+            rotateGroupKey(fieldNodeAddress);
+        }
+
+        fieldNodeAdls.get(fieldNodeAddress).removeSubscriber(subscriber.getCompatibilityList());
+        logSendFailure(sendAdlUpdate(fieldNodeAddress),
+                "Cannot send ADL update to field node with address " + fieldNodeAddress);
+    }
+
+    /**
+     * Updates the locally stored ADL for a field node of the shard, as confirmed by the field node. Must run on the
+     * event loop.
+     * If the subscriptions have changed since the confirmed update was sent, the field node is sent the difference.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param updatedAdl       the updated adl to set
+     */
+    void updateLocalAdl(int fieldNodeAddress, Set<Integer> updatedAdl) {
+        FieldNodeClientProxy fieldNode = fieldNodes.get(fieldNodeAddress);
+
+        if (fieldNode != null) {
+            fieldNode.setAdl(updatedAdl);
+            logSendFailure(sendAdlUpdate(fieldNodeAddress),
+                    "Cannot send ADL update to field node with address " + fieldNodeAddress);
+        }
+    }
+
+    /**
+     * Sets the local state for an actuator of a field node of the shard, and posts the notification of all
+     * subscribed control panels about the change to their connections. Must run on the event loop.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param actuatorAddress  the address of the actuator
+     * @param newState         the new state to set
+     * @throws NoSuchAddressException thrown if one of the addresses is invalid
+     */
+    void setLocalActuatorState(int fieldNodeAddress, int actuatorAddress, int newState) {
+        FieldNodeClientProxy fieldNode = fieldNodes.get(fieldNodeAddress);
+        if (fieldNode == null) {
+            throw new NoSuchAddressException("Cannot set actuator state for field node with address " + fieldNodeAddress +
+                    ", because no such field node exists.");
+        }
+
+        try {
+            fieldNode.setActuatorState(actuatorAddress, newState);
+        } catch (NoSuchActuatorException e) {
+            throw new NoSuchAddressException("Cannot set state of actuator with address " + actuatorAddress +
+                    " for field node with address " + fieldNodeAddress + ", because no such actuator exists.");
+        }
+
+        handleActuatorStateChangeForwarding(fieldNodeAddress, actuatorAddress, newState);
+    }
+
+    /**
+     * Handles the forwarding of information about the change of state for an actuator.
+     * All control panels subscribed to the field node will need to be notified about this event.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param actuatorAddress  the address of the actuator
+     * @param newState         the new state of the actuator
+     */
+    private void handleActuatorStateChangeForwarding(int fieldNodeAddress, int actuatorAddress, int newState) {
+        ServerFnsmNotificationRequest request = new ServerFnsmNotificationRequest(fieldNodeAddress, actuatorAddress, newState);
+
+        SensorDataRoute route = sensorDataRoutingTable.get(fieldNodeAddress);
+        if (route != null) {
+            for (int i = 0; i < route.getSubscriberCount(); i++) {
+                ControlCommAgent agent = route.getSubscriber(i).getAgent();
+
+                logSendFailure(agent.postRequest(request), "Cannot notify " + agent.getRemoteEntityAsString() +
+                        " about the change of state for actuator " + actuatorAddress + " on field node " +
+                        fieldNodeAddress);
+            }
+        }
+    }
+
+    /**
+     * Posts an ADL update to the given field node address, taking it from the ADL it last confirmed to the current
+     * ADL. No update is sent if the field node has already confirmed the current ADL.
+     *
+     * @param fieldNodeAddress the field node to send update to
+     * @return completed once the update has been sent, or failed if it could not be sent
+     */
+    private CompletableFuture<Void> sendAdlUpdate(int fieldNodeAddress) {
+        CompletableFuture<Void> result = null;
+
+        FieldNodeClientProxy fieldNode = fieldNodes.get(fieldNodeAddress);
+        Set<Integer> adlUpdate = fieldNodeAdls.get(fieldNodeAddress).getUpdateFrom(fieldNode.getAdl());
+        if (adlUpdate.isEmpty()) {
+            result = CompletableFuture.completedFuture(null);
+        } else {
+            result = fieldNode.getAgent().postRequest(new AdlUpdateRequest(adlUpdate));
+        }
+
+        return result;
+    }
+
+    /**
+     * Logs an error if a posted request cannot be sent.
+     *
+     * @param sent completed once the request has been sent
+     * @param error describes the request that could not be sent
+     */
+    private void logSendFailure(CompletableFuture<Void> sent, String error) {
+        sent.whenComplete((result, failure) -> {
+            if (failure != null) {
+                Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                errorLogger.accept(error + ": " + cause.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Returns a field node of the shard. Can be called from any thread.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @return the field node proxy, null if no such field node exists
+     */
+    FieldNodeClientProxy getFieldNode(int fieldNodeAddress) {
+        return fieldNodes.get(fieldNodeAddress);
+    }
+
+    /**
+     * Returns all field nodes of the shard. Can be called from any thread.
+     *
+     * @return the field nodes, by address
+     */
+    Map<Integer, FieldNodeClientProxy> getFieldNodes() {
+        return fieldNodes;
+    }
+
+    /**
+     * Returns the current route for a field node of the shard. Can be called from any thread.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @return the route, null if no such field node exists
+     */
+    SensorDataRoute getRoute(int fieldNodeAddress) {
+        return sensorDataRoutingTable.get(fieldNodeAddress);
+    }
+
+    /**
+     * Stops the event loop. Commands already in the mailbox are still run.
+     */
+    void close() {
+        eventLoop.shutdown();
+    }
+}
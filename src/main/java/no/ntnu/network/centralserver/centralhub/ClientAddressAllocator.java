@@ -0,0 +1,144 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.exception.ClientRegistrationException;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Allocates client addresses in constant time, recycling the addresses of deregistered clients.
+ * <p/>
+ * A client address consists of a slot, held by the lower bits, and a generation tag, held by the upper bits. Slots are
+ * handed out in increasing order until one is released, after which released slots are reused first. Every time a slot
+ * is released, its generation is incremented, so that a recycled slot is handed out as a different address. Messages
+ * still underway to or from the previous holder of the slot, such as sensor data sent over UDP, therefore carry an
+ * address that is no longer allocated, and cannot be mistaken for the new holder.
+ * <p/>
+ * The first generation is 0, so the first addresses handed out are simply 0, 1, 2 and so on.
+ * The class is not thread safe, and is meant to be used by a single owner holding its own lock.
+ */
+class ClientAddressAllocator {
+    static final int SLOT_BITS = 20;
+    static final int MAX_SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = MAX_SLOTS - 1;
+    // leaves the sign bit clear, so that every address is positive
+    private static final int GENERATION_MASK = (1 << (Integer.SIZE - 1 - SLOT_BITS)) - 1;
+    private static final int INITIAL_CAPACITY = 64;
+    private int[] generations;
+    private int[] freeSlots;
+    private int freeSlotCount;
+    private int nextFreshSlot;
+    private final BitSet allocatedSlots;
+    private int allocatedCount;
+
+    /**
+     * Creates a new ClientAddressAllocator.
+     */
+    ClientAddressAllocator() {
+        this.generations = new int[INITIAL_CAPACITY];
+        this.freeSlots = new int[INITIAL_CAPACITY];
+        this.freeSlotCount = 0;
+        this.nextFreshSlot = 0;
+        this.allocatedSlots = new BitSet();
+        this.allocatedCount = 0;
+    }
+
+    /**
+     * Allocates a new client address.
+     *
+     * @return the allocated address
+     * @throws ClientRegistrationException thrown if all slots are allocated
+     */
+    int allocate() {
+        int slot;
+        if (freeSlotCount > 0) {
+            freeSlotCount--;
+            slot = freeSlots[freeSlotCount];
+        } else {
+            if (nextFreshSlot == MAX_SLOTS) {
+                throw new ClientRegistrationException("Cannot allocate client address, because all " + MAX_SLOTS +
+                        " addresses are in use.");
+            }
+
+            slot = nextFreshSlot;
+            nextFreshSlot++;
+            if (slot == generations.length) {
+                generations = Arrays.copyOf(generations, Math.min(MAX_SLOTS, generations.length * 2));
+            }
+        }
+
+        allocatedSlots.set(slot);
+        allocatedCount++;
+
+        return toAddress(slot, generations[slot]);
+    }
+
+    /**
+     * Releases an allocated client address, making its slot available for a later allocation under a new generation.
+     *
+     * @param address the address to release
+     * @return true if the address was released, false if it was not allocated
+     */
+    boolean release(int address) {
+        boolean released = false;
+
+        if (isAllocated(address)) {
+            int slot = address & SLOT_MASK;
+            allocatedSlots.clear(slot);
+            allocatedCount--;
+            generations[slot] = (generations[slot] + 1) & GENERATION_MASK;
+
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            freeSlots[freeSlotCount] = slot;
+            freeSlotCount++;
+            released = true;
+        }
+
+        return released;
+    }
+
+    /**
+     * Returns whether an address is currently allocated, with the generation it was allocated under.
+     *
+     * @param address the address to check
+     * @return true if allocated
+     */
+    boolean isAllocated(int address) {
+        int slot = address & SLOT_MASK;
+
+        return address >= 0 && slot < nextFreshSlot && allocatedSlots.get(slot) &&
+                generations[slot] == address >>> SLOT_BITS;
+    }
+
+    /**
+     * Returns the number of currently allocated addresses.
+     *
+     * @return the number of allocated addresses
+     */
+    int getAllocatedCount() {
+        return allocatedCount;
+    }
+
+    /**
+     * Returns the slot of an address, which stays the same across generations.
+     *
+     * @param address the address
+     * @return the slot of the address
+     */
+    static int slotOf(int address) {
+        return address & SLOT_MASK;
+    }
+
+    /**
+     * Returns the address of a slot under a given generation.
+     *
+     * @param slot the slot
+     * @param generation the generation
+     * @return the address
+     */
+    private static int toAddress(int slot, int generation) {
+        return (generation << SLOT_BITS) | slot;
+    }
+}
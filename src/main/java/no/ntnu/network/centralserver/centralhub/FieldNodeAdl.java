@@ -0,0 +1,151 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The active device list (ADL) of a single field node, maintained incrementally from the compatibility lists of its
+ * subscribers.
+ * <p/>
+ * For every device class, the ADL counts the subscribers compatible with the class. A class is active as long as
+ * its count is above zero, and the devices of an active class are in the ADL. Adding or removing a subscriber only
+ * touches the classes of its compatibility list, and the ADL only changes when the count of a class crosses zero.
+ * <p/>
+ * The ADL update to send a field node is the difference between this ADL and the ADL the field node last confirmed,
+ * rather than the classes that just crossed zero, so that an update the field node never applied is sent again with
+ * the next one. ADL updates use the format of the {@code AdlUpdateRequest}: positive addresses are added to the ADL,
+ * while negated addresses are removed from it.
+ * The class is not thread safe, and is meant to be used by a single owner holding its own lock.
+ */
+class FieldNodeAdl {
+    private static final DeviceClass[] DEVICE_CLASSES = DeviceClass.values();
+    private final int[][] devicesByClass;
+    private final int[] subscriberCounts;
+
+    /**
+     * Creates a new FieldNodeAdl with no subscribers.
+     *
+     * @param fnst the field node system table of the field node
+     */
+    FieldNodeAdl(Map<Integer, DeviceClass> fnst) {
+        if (fnst == null) {
+            throw new IllegalArgumentException("Cannot create FieldNodeAdl, because fnst is null.");
+        }
+
+        int[] deviceCounts = new int[DEVICE_CLASSES.length];
+        fnst.values().forEach(deviceClass -> deviceCounts[deviceClass.ordinal()]++);
+
+        this.devicesByClass = new int[DEVICE_CLASSES.length][];
+        for (int i = 0; i < DEVICE_CLASSES.length; i++) {
+            devicesByClass[i] = new int[deviceCounts[i]];
+        }
+
+        Arrays.fill(deviceCounts, 0);
+        fnst.forEach((address, deviceClass) -> {
+            int classIndex = deviceClass.ordinal();
+            devicesByClass[classIndex][deviceCounts[classIndex]] = address;
+            deviceCounts[classIndex]++;
+        });
+
+        this.subscriberCounts = new int[DEVICE_CLASSES.length];
+    }
+
+    /**
+     * Adds a subscriber, activating every class of its compatibility list that had no compatible subscriber.
+     *
+     * @param compatibilityList the compatibility list of the subscriber
+     */
+    void addSubscriber(Set<DeviceClass> compatibilityList) {
+        if (compatibilityList == null) {
+            throw new IllegalArgumentException("Cannot add subscriber, because compatibilityList is null.");
+        }
+
+        for (DeviceClass deviceClass : compatibilityList) {
+            subscriberCounts[deviceClass.ordinal()]++;
+        }
+    }
+
+    /**
+     * Removes a subscriber, deactivating every class of its compatibility list that has no compatible subscriber
+     * left.
+     *
+     * @param compatibilityList the compatibility list of the subscriber
+     */
+    void removeSubscriber(Set<DeviceClass> compatibilityList) {
+        if (compatibilityList == null) {
+            throw new IllegalArgumentException("Cannot remove subscriber, because compatibilityList is null.");
+        }
+
+        // checks every class before changing any, so that a failed removal leaves the counts untouched
+        for (DeviceClass deviceClass : compatibilityList) {
+            if (subscriberCounts[deviceClass.ordinal()] == 0) {
+                throw new IllegalStateException("Cannot remove subscriber, because no subscriber is compatible " +
+                        "with " + deviceClass + ".");
+            }
+        }
+
+        for (DeviceClass deviceClass : compatibilityList) {
+            subscriberCounts[deviceClass.ordinal()]--;
+        }
+    }
+
+    /**
+     * Returns the ADL update taking a field node from the ADL it last confirmed to the current ADL.
+     *
+     * @param confirmedAdl the ADL last confirmed by the field node
+     * @return the ADL update, empty if the field node already has the current ADL
+     */
+    Set<Integer> getUpdateFrom(Set<Integer> confirmedAdl) {
+        if (confirmedAdl == null) {
+            throw new IllegalArgumentException("Cannot compute ADL update, because confirmedAdl is null.");
+        }
+
+        Set<Integer> adlUpdate = new HashSet<>();
+
+        for (int i = 0; i < DEVICE_CLASSES.length; i++) {
+            boolean active = subscriberCounts[i] > 0;
+            for (int address : devicesByClass[i]) {
+                if (active && !confirmedAdl.contains(address)) {
+                    adlUpdate.add(address);
+                } else if (!active && confirmedAdl.contains(address)) {
+                    adlUpdate.add(address * -1);
+                }
+            }
+        }
+
+        return adlUpdate;
+    }
+
+    /**
+     * Returns whether a device class is active, having at least one compatible subscriber.
+     *
+     * @param deviceClass the device class
+     * @return true if active
+     */
+    boolean isActive(DeviceClass deviceClass) {
+        return subscriberCounts[deviceClass.ordinal()] > 0;
+    }
+
+    /**
+     * Returns the current ADL.
+     *
+     * @return the addresses of all devices of active classes
+     */
+    Set<Integer> getAdl() {
+        Set<Integer> adl = new HashSet<>();
+
+        for (int i = 0; i < DEVICE_CLASSES.length; i++) {
+            if (subscriberCounts[i] > 0) {
+                for (int address : devicesByClass[i]) {
+                    adl.add(address);
+                }
+            }
+        }
+
+        return adl;
+    }
+}
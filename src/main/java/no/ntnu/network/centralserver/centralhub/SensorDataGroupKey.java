@@ -0,0 +1,79 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.network.message.encryption.cipher.encrypt.DatagramEncryption;
+import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
+
+import javax.crypto.SecretKey;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The group key of a field node, shared by the control panels subscribed to it, so that its sensor data can be
+ * encrypted once for all of them.
+ * The sensor data is encrypted on the channel of the field node address. Field nodes and control panels get their
+ * addresses from the same allocator, so the channel of a group key never collides with the session channel of a
+ * control panel. Every key has an epoch, telling the key of a field node apart from the keys it replaced.
+ */
+final class SensorDataGroupKey {
+    private final int epoch;
+    private final SecretKey key;
+    private final DatagramEncryption encryption;
+
+    /**
+     * Creates a new SensorDataGroupKey.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param epoch the epoch of the key
+     * @param key the secret key
+     */
+    SensorDataGroupKey(int fieldNodeAddress, int epoch, SecretKey key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Cannot create SensorDataGroupKey, because key is null.");
+        }
+
+        this.epoch = epoch;
+        this.key = key;
+        this.encryption = new DatagramEncryption(key, fieldNodeAddress);
+    }
+
+    /**
+     * Generates a new group key for a field node.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param epoch the epoch of the key
+     * @return the group key
+     * @throws NoSuchAlgorithmException thrown if the AES algorithm is not found
+     */
+    static SensorDataGroupKey generate(int fieldNodeAddress, int epoch) throws NoSuchAlgorithmException {
+        AESKeyGenerator keyGenerator = new AESKeyGenerator();
+        keyGenerator.createKey();
+
+        return new SensorDataGroupKey(fieldNodeAddress, epoch, keyGenerator.getKey());
+    }
+
+    /**
+     * Returns the epoch of the key.
+     *
+     * @return the epoch
+     */
+    int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the secret key, as handed to the subscribers.
+     *
+     * @return the secret key
+     */
+    SecretKey getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the encryption of the sensor data sent to the subscribers holding the key.
+     *
+     * @return the group encryption
+     */
+    DatagramEncryption getEncryption() {
+        return encryption;
+    }
+}
@@ -0,0 +1,423 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.DataCommAgent;
+import no.ntnu.network.SensorDataBroadcaster;
+import no.ntnu.network.SharedDataCommAgent;
+import no.ntnu.network.centralserver.centralhub.clientproxy.ControlPanelClientProxy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of everything needed for routing the sensor data of a single field node: the control panels
+ * subscribed to it, and an index of its field node system table (FNST).
+ * Routes are never modified. Any change to the subscribers of a field node creates a new route, which replaces the
+ * previous one, so that the sensor data path can read a route without any locking.
+ * <p/>
+ * Subscribers whose sensor data agents share a {@code SensorDataBroadcaster} are grouped by their broadcaster, so
+ * that sensor data can be sent to the whole group at once, serializing it only once. Any other subscribers are sent
+ * sensor data one by one.
+ * <p/>
+ * A route may also hold the group key of the field node. Subscribers that have accepted the current group key are
+ * its members, and are grouped apart from the rest of their broadcast group, so that sensor data can be encrypted
+ * once for all of them. Replacing the group key leaves the route without members, until the subscribers accept the
+ * new key.
+ */
+final class SensorDataRoute {
+    // device addresses below this limit are indexed by an array, any others by a map
+    private static final int DENSE_ADDRESS_LIMIT = 256;
+    private final DeviceClass[] denseDeviceClasses;
+    private final Map<Integer, DeviceClass> sparseDeviceClasses;
+    private final int[] subscriberAddresses;
+    private final ControlPanelClientProxy[] subscribers;
+    private final SensorDataBroadcaster[] broadcasters;
+    private final SharedDataCommAgent[][] broadcastGroups;
+    private final SharedDataCommAgent[][] memberGroups;
+    private final int[] individualSubscriberIndices;
+    private final SensorDataGroupKey groupKey;
+    private final Set<Integer> groupMembers;
+
+    /**
+     * Creates a new SensorDataRoute.
+     *
+     * @param denseDeviceClasses the device classes indexed by device address
+     * @param sparseDeviceClasses the device classes for addresses outside the dense index
+     * @param subscriberAddresses the addresses of the subscribers
+     * @param subscribers the subscribers, in the same order as their addresses
+     * @param groupKey the group key of the field node, null if it has none
+     * @param groupMembers the addresses of the subscribers holding the group key
+     */
+    private SensorDataRoute(DeviceClass[] denseDeviceClasses, Map<Integer, DeviceClass> sparseDeviceClasses,
+                            int[] subscriberAddresses, ControlPanelClientProxy[] subscribers,
+                            SensorDataGroupKey groupKey, Set<Integer> groupMembers) {
+        this.denseDeviceClasses = denseDeviceClasses;
+        this.sparseDeviceClasses = sparseDeviceClasses;
+        this.subscriberAddresses = subscriberAddresses;
+        this.subscribers = subscribers;
+        this.groupKey = groupKey;
+        this.groupMembers = groupMembers;
+
+        // groups the shared agents of the subscribers by their broadcaster, keeping group key members apart
+        Map<SensorDataBroadcaster, List<SharedDataCommAgent>> groups = new LinkedHashMap<>();
+        Map<SensorDataBroadcaster, List<SharedDataCommAgent>> members = new HashMap<>();
+        List<Integer> individualIndices = new ArrayList<>();
+        for (int i = 0; i < subscribers.length; i++) {
+            DataCommAgent dataAgent = subscribers[i].getDataAgent();
+            if (dataAgent instanceof SharedDataCommAgent sharedAgent && sharedAgent.getBroadcaster() != null) {
+                SensorDataBroadcaster broadcaster = sharedAgent.getBroadcaster();
+                groups.computeIfAbsent(broadcaster, b -> new ArrayList<>());
+                members.computeIfAbsent(broadcaster, b -> new ArrayList<>());
+
+                if (groupMembers.contains(subscriberAddresses[i])) {
+                    members.get(broadcaster).add(sharedAgent);
+                } else {
+                    groups.get(broadcaster).add(sharedAgent);
+                }
+            } else {
+                individualIndices.add(i);
+            }
+        }
+
+        this.broadcasters = groups.keySet().toArray(new SensorDataBroadcaster[0]);
+        this.broadcastGroups = new SharedDataCommAgent[broadcasters.length][];
+        this.memberGroups = new SharedDataCommAgent[broadcasters.length][];
+        for (int group = 0; group < broadcasters.length; group++) {
+            broadcastGroups[group] = groups.get(broadcasters[group]).toArray(new SharedDataCommAgent[0]);
+            memberGroups[group] = members.get(broadcasters[group]).toArray(new SharedDataCommAgent[0]);
+        }
+        this.individualSubscriberIndices = individualIndices.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Creates a route without any subscribers for a field node.
+     *
+     * @param fnst the field node system table of the field node
+     * @return the route
+     */
+    static SensorDataRoute of(Map<Integer, DeviceClass> fnst) {
+        if (fnst == null) {
+            throw new IllegalArgumentException("Cannot create SensorDataRoute, because fnst is null.");
+        }
+
+        int denseLength = 0;
+        for (int address : fnst.keySet()) {
+            if (address >= 0 && address < DENSE_ADDRESS_LIMIT) {
+                denseLength = Math.max(denseLength, address + 1);
+            }
+        }
+
+        DeviceClass[] denseDeviceClasses = new DeviceClass[denseLength];
+        Map<Integer, DeviceClass> sparseDeviceClasses = new HashMap<>();
+        fnst.forEach((address, deviceClass) -> {
+            if (address >= 0 && address < denseDeviceClasses.length) {
+                denseDeviceClasses[address] = deviceClass;
+            } else {
+                sparseDeviceClasses.put(address, deviceClass);
+            }
+        });
+
+        return new SensorDataRoute(denseDeviceClasses, Map.copyOf(sparseDeviceClasses), new int[0],
+                new ControlPanelClientProxy[0], null, Set.of());
+    }
+
+    /**
+     * Returns the device class of a device on the field node.
+     *
+     * @param deviceAddress the address of the device
+     * @return the device class, null if no such device exists
+     */
+    DeviceClass lookup(int deviceAddress) {
+        DeviceClass result = null;
+
+        if (deviceAddress >= 0 && deviceAddress < denseDeviceClasses.length) {
+            result = denseDeviceClasses[deviceAddress];
+        } else if (!sparseDeviceClasses.isEmpty()) {
+            result = sparseDeviceClasses.get(deviceAddress);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a copy of the route with an added subscriber.
+     *
+     * @param subscriberAddress the address of the subscriber
+     * @param subscriber the subscriber
+     * @return the new route
+     */
+    SensorDataRoute withSubscriber(int subscriberAddress, ControlPanelClientProxy subscriber) {
+        if (subscriber == null) {
+            throw new IllegalArgumentException("Cannot add subscriber, because subscriber is null.");
+        }
+
+        if (hasSubscriber(subscriberAddress)) {
+            throw new IllegalArgumentException("Cannot add subscriber, because " + subscriberAddress + " is already " +
+                    "subscribed.");
+        }
+
+        int[] newAddresses = Arrays.copyOf(subscriberAddresses, subscriberAddresses.length + 1);
+        ControlPanelClientProxy[] newSubscribers = Arrays.copyOf(subscribers, subscribers.length + 1);
+        newAddresses[subscriberAddresses.length] = subscriberAddress;
+        newSubscribers[subscribers.length] = subscriber;
+
+        return new SensorDataRoute(denseDeviceClasses, sparseDeviceClasses, newAddresses, newSubscribers, groupKey,
+                groupMembers);
+    }
+
+    /**
+     * Returns a copy of the route without a given subscriber.
+     * The subscriber is no longer a member of the group key either, although it still knows the key.
+     * If the subscriber is not subscribed, the route itself is returned.
+     *
+     * @param subscriberAddress the address of the subscriber
+     * @return the new route
+     */
+    SensorDataRoute withoutSubscriber(int subscriberAddress) {
+        SensorDataRoute result = this;
+
+        int index = indexOf(subscriberAddress);
+        if (index != -1) {
+            int[] newAddresses = new int[subscriberAddresses.length - 1];
+            ControlPanelClientProxy[] newSubscribers = new ControlPanelClientProxy[subscribers.length - 1];
+
+            System.arraycopy(subscriberAddresses, 0, newAddresses, 0, index);
+            System.arraycopy(subscriberAddresses, index + 1, newAddresses, index, newAddresses.length - index);
+            System.arraycopy(subscribers, 0, newSubscribers, 0, index);
+            System.arraycopy(subscribers, index + 1, newSubscribers, index, newSubscribers.length - index);
+
+            Set<Integer> newMembers = new HashSet<>(groupMembers);
+            newMembers.remove(subscriberAddress);
+
+            result = new SensorDataRoute(denseDeviceClasses, sparseDeviceClasses, newAddresses, newSubscribers,
+                    groupKey, Set.copyOf(newMembers));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a copy of the route with a new group key, or without a group key.
+     * None of the subscribers are members of the new key, until they accept it.
+     *
+     * @param newGroupKey the new group key, null for no group key
+     * @return the new route
+     */
+    SensorDataRoute withGroupKey(SensorDataGroupKey newGroupKey) {
+        return new SensorDataRoute(denseDeviceClasses, sparseDeviceClasses, subscriberAddresses, subscribers,
+                newGroupKey, Set.of());
+    }
+
+    /**
+     * Returns a copy of the route where a subscriber is a member of the group key.
+     * If the subscriber accepted a key other than the current one, is not subscribed, cannot be sent sensor data
+     * encrypted for a group, or already is a member, the route itself is returned.
+     *
+     * @param subscriberAddress the address of the subscriber
+     * @param epoch the epoch of the key accepted by the subscriber
+     * @return the new route
+     */
+    SensorDataRoute withGroupMember(int subscriberAddress, int epoch) {
+        SensorDataRoute result = this;
+
+        int index = indexOf(subscriberAddress);
+        if (groupKey != null && groupKey.getEpoch() == epoch && index != -1 &&
+                canHoldGroupKey(subscribers[index]) && !groupMembers.contains(subscriberAddress)) {
+            Set<Integer> newMembers = new HashSet<>(groupMembers);
+            newMembers.add(subscriberAddress);
+
+            result = new SensorDataRoute(denseDeviceClasses, sparseDeviceClasses, subscriberAddresses, subscribers,
+                    groupKey, Set.copyOf(newMembers));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns whether a subscriber can be handed the group key of a field node.
+     * Only subscribers whose sensor data is encrypted, and sent through a shared broadcaster, can be sent sensor data
+     * encrypted once for a whole group.
+     *
+     * @param subscriber the subscriber
+     * @return true if the subscriber can hold the group key, false otherwise
+     */
+    static boolean canHoldGroupKey(ControlPanelClientProxy subscriber) {
+        return subscriber.getDataAgent() instanceof SharedDataCommAgent sharedAgent &&
+                sharedAgent.getBroadcaster() != null && sharedAgent.isEncrypted();
+    }
+
+    /**
+     * Returns whether any subscriber can be handed the group key of the field node.
+     *
+     * @return true if any subscriber can hold the group key, false otherwise
+     */
+    boolean hasGroupKeyCandidates() {
+        boolean result = false;
+
+        for (int i = 0; i < subscribers.length && !result; i++) {
+            result = canHoldGroupKey(subscribers[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the group key of the field node.
+     *
+     * @return the group key, null if the field node has none
+     */
+    SensorDataGroupKey getGroupKey() {
+        return groupKey;
+    }
+
+    /**
+     * Returns whether a subscriber is a member of the current group key.
+     *
+     * @param subscriberAddress the address of the subscriber
+     * @return true if the subscriber has accepted the current group key, false otherwise
+     */
+    boolean isGroupMember(int subscriberAddress) {
+        return groupMembers.contains(subscriberAddress);
+    }
+
+    /**
+     * Returns whether a given client is subscribed to the field node.
+     *
+     * @param subscriberAddress the address of the client
+     * @return true if subscribed, false otherwise
+     */
+    boolean hasSubscriber(int subscriberAddress) {
+        return indexOf(subscriberAddress) != -1;
+    }
+
+    /**
+     * Returns the index of a subscriber.
+     *
+     * @param subscriberAddress the address of the subscriber
+     * @return the index of the subscriber, -1 if not subscribed
+     */
+    private int indexOf(int subscriberAddress) {
+        int result = -1;
+
+        for (int i = 0; i < subscriberAddresses.length && result == -1; i++) {
+            if (subscriberAddresses[i] == subscriberAddress) {
+                result = i;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of subscribers.
+     *
+     * @return the number of subscribers
+     */
+    int getSubscriberCount() {
+        return subscribers.length;
+    }
+
+    /**
+     * Returns the subscriber at a given index.
+     *
+     * @param index the index of the subscriber
+     * @return the subscriber
+     */
+    ControlPanelClientProxy getSubscriber(int index) {
+        return subscribers[index];
+    }
+
+    /**
+     * Returns the address of the subscriber at a given index.
+     *
+     * @param index the index of the subscriber
+     * @return the address of the subscriber
+     */
+    int getSubscriberAddress(int index) {
+        return subscriberAddresses[index];
+    }
+
+    /**
+     * Returns the number of groups of subscribers sharing a broadcaster.
+     *
+     * @return the number of broadcast groups
+     */
+    int getBroadcastGroupCount() {
+        return broadcasters.length;
+    }
+
+    /**
+     * Returns the broadcaster shared by a group of subscribers.
+     *
+     * @param group the index of the group
+     * @return the broadcaster of the group
+     */
+    SensorDataBroadcaster getBroadcaster(int group) {
+        return broadcasters[group];
+    }
+
+    /**
+     * Returns the agents of a group of subscribers sharing a broadcaster, not holding the group key.
+     * The returned array belongs to the route, and must not be modified, and may be empty if all subscribers of the
+     * group hold the group key.
+     *
+     * @param group the index of the group
+     * @return the agents of the group
+     */
+    SharedDataCommAgent[] getBroadcastGroup(int group) {
+        return broadcastGroups[group];
+    }
+
+    /**
+     * Returns the agents of a group of subscribers sharing a broadcaster, holding the group key.
+     * The returned array belongs to the route, and must not be modified, and is empty if no subscriber of the group
+     * holds the group key.
+     *
+     * @param group the index of the group
+     * @return the agents of the group holding the group key
+     */
+    SharedDataCommAgent[] getMemberGroup(int group) {
+        return memberGroups[group];
+    }
+
+    /**
+     * Returns the number of subscribers not sharing a broadcaster, which are sent sensor data one by one.
+     *
+     * @return the number of individual subscribers
+     */
+    int getIndividualSubscriberCount() {
+        return individualSubscriberIndices.length;
+    }
+
+    /**
+     * Returns the subscriber index of a subscriber not sharing a broadcaster.
+     *
+     * @param index the index among the individual subscribers
+     * @return the index of the subscriber, as used by {@code getSubscriber()}
+     */
+    int getIndividualSubscriberIndex(int index) {
+        return individualSubscriberIndices[index];
+    }
+
+    /**
+     * Returns the addresses of all subscribers.
+     *
+     * @return an unmodifiable set of the subscriber addresses
+     */
+    Set<Integer> getSubscriberAddresses() {
+        Set<Integer> result = new HashSet<>();
+
+        for (int subscriberAddress : subscriberAddresses) {
+            result.add(subscriberAddress);
+        }
+
+        return Collections.unmodifiableSet(result);
+    }
+}
@@ -45,6 +45,15 @@ public class ControlPanelClientProxy extends ClientProxy {
         dataAgent.sendSensorData(message);
     }
 
+    /**
+     * Returns the sensor data communication agent for the control panel.
+     *
+     * @return the sensor data communication agent
+     */
+    public DataCommAgent getDataAgent() {
+        return dataAgent;
+    }
+
     /**
      * Returns the compatibility list for the control panel client proxy.
      *
@@ -0,0 +1,40 @@
+package no.ntnu.network.centralserver.resumption;
+
+import javax.crypto.SecretKey;
+
+/**
+ * A session that a reconnecting client can resume, consisting of the secret key of its symmetric encryption and its
+ * registration.
+ *
+ * @param secretKey the secret key of the session
+ * @param registration the registration of the client
+ * @param expiresAt the time in milliseconds after which the session can no longer be resumed
+ */
+public record ResumableSession(SecretKey secretKey, SessionRegistration registration, long expiresAt) {
+    /**
+     * Creates a new ResumableSession.
+     *
+     * @param secretKey the secret key of the session
+     * @param registration the registration of the client
+     * @param expiresAt the time in milliseconds after which the session can no longer be resumed
+     */
+    public ResumableSession {
+        if (secretKey == null) {
+            throw new IllegalArgumentException("Cannot create ResumableSession, because secretKey is null.");
+        }
+
+        if (registration == null) {
+            throw new IllegalArgumentException("Cannot create ResumableSession, because registration is null.");
+        }
+    }
+
+    /**
+     * Returns whether the session has expired at a given time.
+     *
+     * @param now the time in milliseconds
+     * @return true if expired
+     */
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+}
@@ -0,0 +1,131 @@
+package no.ntnu.network.centralserver.resumption;
+
+import javax.crypto.SecretKey;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of resumable sessions, each identified by a random ticket handed to its client.
+ * <p/>
+ * A client presenting its ticket when reconnecting gets its symmetric encryption and registration back without
+ * repeating the handshake. Tickets are single-use: redeeming a ticket removes it, and the resumed session gets a new
+ * ticket, so a ticket seen on the network cannot be replayed. A session keeps the expiry it was first given however
+ * many times it is resumed, which bounds the lifetime of its secret key. Once the cache is full, the oldest ticket is
+ * evicted.
+ */
+public class ResumptionTicketCache {
+    private static final int TICKET_LENGTH = 16;
+    private final int capacity;
+    private final long lifetimeMillis;
+    private final Map<String, ResumableSession> sessions;
+    private final SecureRandom random;
+
+    /**
+     * Creates a new ResumptionTicketCache.
+     *
+     * @param capacity the maximum number of tickets held
+     * @param lifetimeMillis the time in milliseconds a session can be resumed after it was established
+     */
+    public ResumptionTicketCache(int capacity, long lifetimeMillis) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cannot create ResumptionTicketCache, because capacity is less than 1.");
+        }
+
+        if (lifetimeMillis < 1) {
+            throw new IllegalArgumentException("Cannot create ResumptionTicketCache, because lifetimeMillis is " +
+                    "less than 1.");
+        }
+
+        this.capacity = capacity;
+        this.lifetimeMillis = lifetimeMillis;
+        this.sessions = new LinkedHashMap<>();
+        this.random = new SecureRandom();
+    }
+
+    /**
+     * Issues a ticket for a newly established session.
+     *
+     * @param secretKey the secret key of the session
+     * @param registration the registration of the client
+     * @return the ticket
+     */
+    public String issue(SecretKey secretKey, SessionRegistration registration) {
+        return reissue(new ResumableSession(secretKey, registration, System.currentTimeMillis() + lifetimeMillis));
+    }
+
+    /**
+     * Issues a new ticket for a resumed session, keeping the expiry of the session.
+     *
+     * @param session the resumed session
+     * @return the ticket
+     */
+    public synchronized String reissue(ResumableSession session) {
+        if (session == null) {
+            throw new IllegalArgumentException("Cannot issue ticket, because session is null.");
+        }
+
+        removeExpired(System.currentTimeMillis());
+
+        byte[] ticketBytes = new byte[TICKET_LENGTH];
+        random.nextBytes(ticketBytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(ticketBytes);
+
+        sessions.put(ticket, session);
+        if (sessions.size() > capacity) {
+            Iterator<String> oldest = sessions.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+
+        return ticket;
+    }
+
+    /**
+     * Redeems a ticket, removing it from the cache.
+     *
+     * @param ticket the ticket to redeem
+     * @return the session of the ticket, null if the ticket is unknown or the session has expired
+     */
+    public synchronized ResumableSession redeem(String ticket) {
+        if (ticket == null) {
+            throw new IllegalArgumentException("Cannot redeem ticket, because ticket is null.");
+        }
+
+        ResumableSession session = sessions.remove(ticket);
+        if (session != null && session.isExpired(System.currentTimeMillis())) {
+            session = null;
+        }
+
+        return session;
+    }
+
+    /**
+     * Removes expired sessions, scanning from the oldest ticket until a session that has not expired is met.
+     * A reissued session keeps its earlier expiry behind newer tickets, and is instead removed once redeemed or
+     * evicted.
+     *
+     * @param now the current time in milliseconds
+     */
+    private void removeExpired(long now) {
+        Iterator<ResumableSession> oldest = sessions.values().iterator();
+        boolean expired = true;
+        while (expired && oldest.hasNext()) {
+            expired = oldest.next().isExpired(now);
+            if (expired) {
+                oldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tickets held.
+     *
+     * @return the number of tickets
+     */
+    public synchronized int getSize() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,19 @@
+package no.ntnu.network.centralserver.resumption;
+
+import no.ntnu.exception.ClientRegistrationException;
+import no.ntnu.network.message.context.ServerContext;
+
+/**
+ * Registers a client again, the way it was registered when a resumable session was established.
+ */
+@FunctionalInterface
+public interface SessionRegistration {
+    /**
+     * Registers the client of the context.
+     *
+     * @param context the context of the connection resuming the session
+     * @return the address assigned to the client
+     * @throws ClientRegistrationException thrown if registration fails
+     */
+    int register(ServerContext context) throws ClientRegistrationException;
+}
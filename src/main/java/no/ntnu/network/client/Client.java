@@ -3,7 +3,6 @@ package no.ntnu.network.client;
 import no.ntnu.network.ControlProcessAgent;
 import no.ntnu.network.message.context.ClientContext;
 import no.ntnu.network.message.deserialize.component.MessageDeserializer;
-import no.ntnu.network.message.request.AsymmetricEncryptionRequest;
 import no.ntnu.network.message.request.RequestMessage;
 import no.ntnu.network.message.response.ResponseMessage;
 import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
@@ -17,6 +16,26 @@ import java.net.Socket;
  * A client communication agent, responsible for communicating with a server.
  */
 public abstract class Client<C extends ClientContext> extends ControlProcessAgent<C> {
+    /**
+     * Sets whether encryption is initiated by an elliptic-curve key agreement instead of asymmetric encryption.
+     * A key agreement takes a single round trip, and does not require the server to generate an RSA key pair.
+     *
+     * @param keyAgreement true to use key agreement, false to use asymmetric encryption
+     */
+    public void setKeyAgreement(boolean keyAgreement) {
+        getContext().setKeyAgreement(keyAgreement);
+    }
+
+    /**
+     * Sets whether the client resumes its previous session when reconnecting, instead of repeating the handshake and
+     * registration. Sessions are resumed by default.
+     *
+     * @param sessionResumption true to resume sessions, false to always repeat the handshake
+     */
+    public void setSessionResumption(boolean sessionResumption) {
+        getContext().setSessionResumption(sessionResumption);
+    }
+
     /**
      * Connects the client to a server.
      *
@@ -66,16 +85,19 @@ public abstract class Client<C extends ClientContext> extends ControlProcessAgen
     public abstract void connect(String serverAddress) throws IOException;
 
     /**
-     * Initializes registration at the central server, starting with requesting asymmetric encryption.
+     * Initializes registration at the central server, resuming the previous session if possible, and starting with
+     * the handshake otherwise.
      */
     protected void initializeRegistration() {
-        try {
-            sendRequest(new AsymmetricEncryptionRequest());
-        } catch (IOException e) {
-            logError("Could not send request: " + e.getMessage());
-        }
+        getContext().initializeSession();
     }
 
+    /**
+     * Returns the message context of the client.
+     *
+     * @return the context
+     */
+    protected abstract C getContext();
 
     /**
      * Disconnects from the server
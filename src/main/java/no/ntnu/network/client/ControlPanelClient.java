@@ -10,16 +10,21 @@ import no.ntnu.network.message.Message;
 import no.ntnu.network.message.context.ControlPanelContext;
 import no.ntnu.network.message.deserialize.NofspControlPanelDeserializer;
 import no.ntnu.network.message.request.*;
+import no.ntnu.network.message.response.ResponseMessage;
 import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
-import no.ntnu.network.message.serialize.visitor.NofspSerializer;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
 import no.ntnu.network.sensordataprocess.UdpSensorDataSink;
 
+import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.net.SocketException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A client for a control panel, connecting it to a central server using NOFSP.
  * The class is necessary for a control panel to be able to monitor and control field nodes in the network.
+ * Once registered in a session encrypted with a secret key, the sensor data received is decrypted using a key
+ * derived from the session key, or the group key of the field node it belongs to.
  */
 public class ControlPanelClient extends Client<ControlPanelContext> implements FieldNodeAgent {
     private final ControlPanel controlPanel;
@@ -27,6 +32,7 @@ public class ControlPanelClient extends Client<ControlPanelContext> implements F
     private final ByteSerializerVisitor serializer;
     private final NofspControlPanelDeserializer deserializer;
     private UdpSensorDataRouter sensorDataRouter;
+    private UdpSensorDataSink sensorDataSink;
 
     /**
      * Creates a new ControlPanelClient.
@@ -39,7 +45,7 @@ public class ControlPanelClient extends Client<ControlPanelContext> implements F
             throw new IllegalArgumentException("Cannot create ControlPanelClient, because control panel is null.");
         }
 
-        this.serializer = new NofspSerializer();
+        this.serializer = new NofspFrameSerializer();
         this.controlPanel = controlPanel;
         controlPanel.setFieldNodeAgent(this);
         this.deserializer = new NofspControlPanelDeserializer(controlPanel);
@@ -73,7 +79,7 @@ public class ControlPanelClient extends Client<ControlPanelContext> implements F
         boolean success = false;
 
         try {
-            UdpSensorDataSink sensorDataSink = new UdpSensorDataSink(deserializer);
+            sensorDataSink = new UdpSensorDataSink(deserializer);
             context.setDataSink(sensorDataSink);
             sensorDataRouter = new UdpSensorDataRouter(sensorDataSink);
             sensorDataRouter.addDestination(controlPanel);
@@ -86,6 +92,19 @@ public class ControlPanelClient extends Client<ControlPanelContext> implements F
         return success;
     }
 
+    @Override
+    public void setClientNodeAddress(int address) {
+        // the sensor data sent by the server is encrypted as soon as the registration is confirmed, either with
+        // the session key or with the group keys of the field nodes subscribed to
+        SecretKey sessionKey = context.getSessionKey();
+        if (sensorDataSink != null && sessionKey != null && address != -1) {
+            context.getSensorDataKeys().addChannel(address, sessionKey);
+            sensorDataSink.setDecryption(context.getSensorDataKeys());
+        }
+
+        super.setClientNodeAddress(address);
+    }
+
     /**
      * Returns the control panel.
      *
@@ -96,42 +115,62 @@ public class ControlPanelClient extends Client<ControlPanelContext> implements F
     }
 
     @Override
-    public void requestFieldNodePool() {
+    public CompletableFuture<ResponseMessage> requestFieldNodePool() {
+        CompletableFuture<ResponseMessage> response = null;
+
         try {
-            sendRequest(new FieldNodePoolPullRequest());
+            response = sendRequest(new FieldNodePoolPullRequest());
         } catch (IOException e) {
             logError("Cannot send field node pool pull request: " + e.getMessage());
+            response = CompletableFuture.failedFuture(e);
         }
+
+        return response;
     }
 
     @Override
-    public void subscribeToFieldNode(int fieldNodeAddress) {
+    public CompletableFuture<ResponseMessage> subscribeToFieldNode(int fieldNodeAddress) {
+        CompletableFuture<ResponseMessage> response = null;
+
         try {
-            sendRequest(new SubscribeToFieldNodeRequest(fieldNodeAddress));
+            response = sendRequest(new SubscribeToFieldNodeRequest(fieldNodeAddress));
         } catch (IOException e) {
             logError("Cannot send request to subscribe to field node with address " + fieldNodeAddress +
                     ": " + e.getMessage());
+            response = CompletableFuture.failedFuture(e);
         }
+
+        return response;
     }
 
     @Override
-    public void unsubscribeFromFieldNode(int fieldNodeAddress) {
+    public CompletableFuture<ResponseMessage> unsubscribeFromFieldNode(int fieldNodeAddress) {
+        CompletableFuture<ResponseMessage> response = null;
+
         try {
-            sendRequest(new UnsubscribeFromFieldNodeRequest(fieldNodeAddress));
+            response = sendRequest(new UnsubscribeFromFieldNodeRequest(fieldNodeAddress));
         } catch (IOException e) {
             logError("Cannot send request to unsubscribe to field node with address " + fieldNodeAddress +
                     ": " + e.getMessage());
+            response = CompletableFuture.failedFuture(e);
         }
+
+        return response;
     }
 
     @Override
-    public void setActuatorState(int fieldNodeAddress, int actuatorAddress, int newState) {
+    public CompletableFuture<ResponseMessage> setActuatorState(int fieldNodeAddress, int actuatorAddress, int newState) {
+        CompletableFuture<ResponseMessage> response = null;
+
         try {
-            sendRequest(new ServerActivateActuatorRequest(fieldNodeAddress, actuatorAddress, newState));
+            response = sendRequest(new ServerActivateActuatorRequest(fieldNodeAddress, actuatorAddress, newState));
         } catch (IOException e) {
             logError("Cannot send request to activate actuator with address " + actuatorAddress + " on field " +
                     "node " + fieldNodeAddress + ": " + e.getMessage());
+            response = CompletableFuture.failedFuture(e);
         }
+
+        return response;
     }
 
     @Override
@@ -144,6 +183,11 @@ public class ControlPanelClient extends Client<ControlPanelContext> implements F
 
     }
 
+    @Override
+    protected ControlPanelContext getContext() {
+        return context;
+    }
+
     @Override
     protected void processReceivedMessage(Message<ControlPanelContext> message) {
         try {
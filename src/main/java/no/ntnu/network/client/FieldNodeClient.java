@@ -7,15 +7,15 @@ import no.ntnu.network.message.Message;
 import no.ntnu.network.message.context.FieldNodeContext;
 import no.ntnu.network.message.deserialize.NofspFieldNodeDeserializer;
 import no.ntnu.network.message.deserialize.component.MessageDeserializer;
+import no.ntnu.network.message.encryption.cipher.encrypt.DatagramEncryption;
 import no.ntnu.network.message.request.ActuatorNotificationRequest;
 import no.ntnu.network.message.request.RegisterFieldNodeRequest;
-import no.ntnu.network.message.sensordata.SduSensorDataMessage;
-import no.ntnu.network.message.sensordata.SensorDataMessage;
 import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
-import no.ntnu.network.message.serialize.visitor.NofspSerializer;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
 import no.ntnu.network.representation.FieldNodeInformation;
 import no.ntnu.network.sensordataprocess.UdpSensorDataPusher;
 
+import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.net.SocketException;
 import java.util.HashSet;
@@ -24,7 +24,8 @@ import java.util.Set;
 /**
  * A client for a field node, connecting it to a central server using NOFSP.
  * The class is necessary for a field node to be able to push sensor data and share actuator control in the
- * network.
+ * network. Once registered in a session encrypted with a secret key, the sensor data pushed is encrypted as well,
+ * using a key derived from the session key.
  */
 public class FieldNodeClient extends Client<FieldNodeContext> implements FieldNodeListener {
     private final ByteSerializerVisitor serializer;
@@ -34,6 +35,7 @@ public class FieldNodeClient extends Client<FieldNodeContext> implements FieldNo
     private final Set<Integer> adl;
     private final FieldNodeContext context;
     private UdpSensorDataPusher sensorDataProcess;
+    private long sensorDataLingerMillis;
 
     /**
      * Creates a new FieldNodeClient.
@@ -51,13 +53,32 @@ public class FieldNodeClient extends Client<FieldNodeContext> implements FieldNo
             throw new IllegalArgumentException("Cannot create FieldNodeClient, because name is null.");
         }
 
-        serializer = new NofspSerializer();
+        serializer = new NofspFrameSerializer();
         deserializer = new NofspFieldNodeDeserializer();
         this.fieldNode = fieldNode;
         this.name = name;
         fieldNode.addListener(this);
         this.adl = new HashSet<>();
         this.context = new FieldNodeContext(this, fieldNode, this.adl, name, getLoggers());
+        this.sensorDataLingerMillis = 0;
+    }
+
+    /**
+     * Enables batching of sensor data, packing the sensor data captured within a given linger time into as few
+     * datagrams as possible.
+     *
+     * @param lingerMillis the maximum time in milliseconds sensor data is held back before being sent
+     */
+    public synchronized void enableSensorDataBatching(long lingerMillis) {
+        if (lingerMillis < 1) {
+            throw new IllegalArgumentException("Cannot enable sensor data batching, because linger time is smaller " +
+                    "than 1.");
+        }
+
+        sensorDataLingerMillis = lingerMillis;
+        if (sensorDataProcess != null) {
+            sensorDataProcess.enableBatching(lingerMillis);
+        }
     }
 
     @Override
@@ -77,8 +98,35 @@ public class FieldNodeClient extends Client<FieldNodeContext> implements FieldNo
         }
     }
 
-    private void establishSensorDataProcess() throws SocketException {
+    private synchronized void establishSensorDataProcess() throws SocketException {
         sensorDataProcess = new UdpSensorDataPusher(getServerInetAddress(), CentralServer.DATA_PORT_NUMBER, serializer);
+        getLoggers().forEach(sensorDataProcess::addLogger);
+        if (sensorDataLingerMillis > 0) {
+            sensorDataProcess.enableBatching(sensorDataLingerMillis);
+        }
+
+        // the registration might have been confirmed before the process was established
+        secureSensorDataProcess(getClientNodeAddress());
+    }
+
+    @Override
+    public void setClientNodeAddress(int address) {
+        // the sensor data is secured before the address is set, so that no sensor data is sent unencrypted
+        secureSensorDataProcess(address);
+        super.setClientNodeAddress(address);
+    }
+
+    /**
+     * Encrypts the sensor data pushed to the central server with a key derived from the session key, if the field
+     * node is registered in a session encrypted with a secret key.
+     *
+     * @param address the client node address of the field node
+     */
+    private synchronized void secureSensorDataProcess(int address) {
+        SecretKey sessionKey = context.getSessionKey();
+        if (sensorDataProcess != null && sessionKey != null && address != -1) {
+            sensorDataProcess.setEncryption(new DatagramEncryption(sessionKey, address));
+        }
     }
 
     /**
@@ -104,14 +152,25 @@ public class FieldNodeClient extends Client<FieldNodeContext> implements FieldNo
         }
     }
 
-    private void sendSensorDataMessage(SensorDataMessage message) {
+    /**
+     * Sends SDU sensor data captured by a sensor.
+     *
+     * @param sensorAddress the address of the sensor that captured the data
+     * @param data the sdu data captured
+     */
+    private void sendSduData(int sensorAddress, double data) {
         try {
-            sensorDataProcess.sendSensorData(message);
+            sensorDataProcess.sendSduData(getClientNodeAddress(), sensorAddress, data);
         } catch (IOException e) {
             logError("Cannot send sensor data message: " + e.getMessage());
         }
     }
 
+    @Override
+    protected FieldNodeContext getContext() {
+        return context;
+    }
+
     @Override
     protected void processReceivedMessage(Message<FieldNodeContext> message) {
         try {
@@ -138,7 +197,7 @@ public class FieldNodeClient extends Client<FieldNodeContext> implements FieldNo
     public void sensorDataCapture(int sensorAddress, double data) {
         // only send the data if the sensor is listed in the ADL
         if (adl.contains(sensorAddress)) {
-            sendSensorDataMessage(new SduSensorDataMessage(getClientNodeAddress(), sensorAddress, data));
+            sendSduData(sensorAddress, data);
         }
     }
 }
@@ -1,10 +1,12 @@
 package no.ntnu.network.connectionservice;
 
 import no.ntnu.network.ControlCommAgent;
+import no.ntnu.network.executor.ConnectionExecutor;
+import no.ntnu.network.executor.PlatformThreadExecutor;
+import no.ntnu.network.timer.HashedWheelTimer;
+import no.ntnu.network.timer.Timeout;
 import no.ntnu.tools.eventformatter.ServerEventFormatter;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -15,15 +17,27 @@ import java.util.concurrent.TimeUnit;
 public class ClientGate implements ConnectionService {
     private final ControlCommAgent agent;
     private final long acceptancePhase;
-    private ScheduledExecutorService scheduler;
+    private final HashedWheelTimer timer;
+    private Timeout closingTimeout;
 
     /**
-     * Creates a ClientGate.
+     * Creates a ClientGate, using the timer shared by the process.
      *
      * @param agent the communication agent to possibly close
      * @param acceptancePhase the amount of time to wait before closing the connection, in milliseconds
      */
     public ClientGate(ControlCommAgent agent, long acceptancePhase) {
+        this(agent, acceptancePhase, new PlatformThreadExecutor());
+    }
+
+    /**
+     * Creates a ClientGate.
+     *
+     * @param agent the communication agent to possibly close
+     * @param acceptancePhase the amount of time to wait before closing the connection, in milliseconds
+     * @param executor the executor providing the timer to schedule the closing on
+     */
+    public ClientGate(ControlCommAgent agent, long acceptancePhase, ConnectionExecutor executor) {
         if (agent == null) {
             throw new IllegalArgumentException("Cannot create ClientGate, because client is null.");
         }
@@ -33,17 +47,21 @@ public class ClientGate implements ConnectionService {
                     "longer than 0 milliseconds.");
         }
 
+        if (executor == null) {
+            throw new IllegalArgumentException("Cannot create ClientGate, because executor is null.");
+        }
+
         this.agent = agent;
         this.acceptancePhase = acceptancePhase;
+        this.timer = executor.getTimer();
+        this.closingTimeout = null;
     }
 
     @Override
-    public void start() {
-        if (scheduler == null || scheduler.isShutdown()) {
-            scheduler = Executors.newSingleThreadScheduledExecutor();
+    public synchronized void start() {
+        if (closingTimeout == null) {
+            closingTimeout = timer.schedule(this::closeConnection, acceptancePhase, TimeUnit.MILLISECONDS);
         }
-
-        scheduler.schedule(this::closeConnection, acceptancePhase, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -56,9 +74,10 @@ public class ClientGate implements ConnectionService {
     }
 
     @Override
-    public void stop() {
-        if (scheduler != null && !(scheduler.isShutdown())) {
-            scheduler.shutdownNow();
+    public synchronized void stop() {
+        if (closingTimeout != null) {
+            closingTimeout.cancel();
+            closingTimeout = null;
         }
     }
 }
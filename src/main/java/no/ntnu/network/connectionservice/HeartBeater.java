@@ -2,33 +2,56 @@ package no.ntnu.network.connectionservice;
 
 import no.ntnu.broker.ConnectionServiceShutdownBroker;
 import no.ntnu.network.ControlCommAgent;
+import no.ntnu.network.executor.ConnectionExecutor;
+import no.ntnu.network.executor.PlatformThreadExecutor;
 import no.ntnu.network.message.request.HeartbeatRequest;
+import no.ntnu.network.timer.HashedWheelTimer;
+import no.ntnu.network.timer.Timeout;
 
 import java.io.IOException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
  * A connection service sending heart beat requests to a remote network entity.
- * The heartbeat requests are sent periodically at a given interval.
+ * The heartbeat requests are sent periodically at a given interval, every heartbeat scheduling the next one on the
+ * timer of the connection executor.
  */
 public class HeartBeater implements ConnectionService {
     private final ControlCommAgent agent;
     private final long interval;
     private final ConnectionServiceShutdownBroker shutdownBroker;
-    private ScheduledExecutorService scheduler;
+    private final HashedWheelTimer timer;
+    private Timeout nextHeartbeat;
+    private boolean running;
 
     /**
-     * Creates a new HeartBeater.
+     * Creates a new HeartBeater, using the timer shared by the process.
      *
      * @param agent the communication agent to send heartbeats to
      * @param interval the interval between the requests sent
      */
     public HeartBeater(ControlCommAgent agent, long interval) {
+        this(agent, interval, new PlatformThreadExecutor());
+    }
+
+    /**
+     * Creates a new HeartBeater.
+     *
+     * @param agent the communication agent to send heartbeats to
+     * @param interval the interval between the requests sent
+     * @param executor the executor providing the timer to schedule heartbeats on
+     */
+    public HeartBeater(ControlCommAgent agent, long interval, ConnectionExecutor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Cannot create HeartBeater, because executor is null.");
+        }
+
         this.agent = agent;
         this.interval = interval;
         this.shutdownBroker = new ConnectionServiceShutdownBroker();
+        this.timer = executor.getTimer();
+        this.nextHeartbeat = null;
+        this.running = false;
     }
 
     /**
@@ -41,20 +64,29 @@ public class HeartBeater implements ConnectionService {
     }
 
     @Override
-    public void start() {
-        if (scheduler == null || scheduler.isShutdown()) {
-            scheduler = Executors.newSingleThreadScheduledExecutor();
+    public synchronized void start() {
+        if (!running) {
+            running = true;
+            scheduleNextHeartbeat();
         }
+    }
 
-        scheduler.scheduleAtFixedRate(this::sendHeartbeat, interval, interval, TimeUnit.MILLISECONDS);
+    /**
+     * Schedules the next heartbeat, unless the service has been stopped.
+     */
+    private synchronized void scheduleNextHeartbeat() {
+        if (running) {
+            nextHeartbeat = timer.schedule(this::sendHeartbeat, interval, TimeUnit.MILLISECONDS);
+        }
     }
 
     /**
-     * Sends a heartbeat request.
+     * Sends a heartbeat request, and schedules the next one.
      */
     private void sendHeartbeat() {
         try {
             agent.sendRequest(new HeartbeatRequest<>());
+            scheduleNextHeartbeat();
         } catch (IOException e) {
             stop();
             // notifies the listeners about the shutdown of the service
@@ -63,16 +95,12 @@ public class HeartBeater implements ConnectionService {
     }
 
     @Override
-    public void stop() {
-        if (scheduler != null) {
-            scheduler.shutdown();
-            try {
-                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                scheduler.shutdownNow();
-            }
+    public synchronized void stop() {
+        running = false;
+
+        if (nextHeartbeat != null) {
+            nextHeartbeat.cancel();
+            nextHeartbeat = null;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,17 @@
 package no.ntnu.network.connectionservice.requestmanager;
 
+import no.ntnu.network.message.request.RequestMessage;
+import no.ntnu.network.message.response.ResponseMessage;
+
+import java.util.concurrent.CompletableFuture;
+
 /**
  * A pending request, storing the time of its creation as well as its time-to-live.
  *
  * @param request the pending request
  * @param timestamp a timestamp indicating when the request was sent
  * @param ttl the time-to-live value in milliseconds
+ * @param response the future response, completed by the matching response or failed by a timeout
  */
-public record PendingRequest(no.ntnu.network.message.request.RequestMessage request, long timestamp, long ttl) {
+public record PendingRequest(RequestMessage request, long timestamp, long ttl, CompletableFuture<ResponseMessage> response) {
 }
@@ -2,38 +2,71 @@ package no.ntnu.network.connectionservice.requestmanager;
 
 import no.ntnu.broker.RequestTimeoutBroker;
 import no.ntnu.network.connectionservice.ConnectionService;
+import no.ntnu.network.executor.ConnectionExecutor;
+import no.ntnu.network.executor.PlatformThreadExecutor;
 import no.ntnu.network.message.request.RequestMessage;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Random;
+import no.ntnu.network.message.response.ResponseMessage;
+import no.ntnu.network.timer.HashedWheelTimer;
+import no.ntnu.network.timer.Timeout;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A class managing sent requests.
+ * <p/>
+ * Every request is given the next id of a monotonic sequence, skipping ids still held by pending requests once the
+ * sequence wraps around, and is kept in a concurrent table until answered or timed out. Any number of requests can
+ * therefore be outstanding on a connection at once, sent and answered from any thread. Every pending request holds a
+ * future response, completed by the matching response, or failed by a {@code TimeoutException} if the request times
+ * out, or by an {@code IOException} if the connection is closed first.
+ * <p/>
+ * Every request is given a timeout of its own on the timer of the connection executor, expiring once its
+ * time-to-live has passed and cancelled as soon as its future response is completed, so that timeouts fire within
+ * a tick of the timer rather than being found by periodically scanning all pending requests.
  */
 public class RequestManager implements ConnectionService {
-    private final HashMap<Integer, PendingRequest> requests;
+    private final Map<Integer, PendingRequest> requests;
+    private final AtomicInteger nextId;
     private final RequestTimeoutBroker timeoutBroker;
-    private Thread timeoutCheckThread;
-    private volatile boolean running;
+    private final HashedWheelTimer timer;
 
+    /**
+     * Creates a new RequestManager, using the timer shared by the process.
+     */
+    public RequestManager() {
+        this(new PlatformThreadExecutor());
+    }
 
     /**
      * Creates a new RequestManager.
+     *
+     * @param executor the executor providing the timer to schedule request timeouts on
      */
-    public RequestManager() {
-        this.requests = new HashMap<>();
+    public RequestManager(ConnectionExecutor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Cannot create RequestManager, because executor is null.");
+        }
+
+        this.requests = new ConcurrentHashMap<>();
+        this.nextId = new AtomicInteger(1);
         this.timeoutBroker = new RequestTimeoutBroker();
+        this.timer = executor.getTimer();
     }
 
     /**
-     * Adds a request message to be handled.
+     * Adds a request message to be handled, assigning it a new id.
      *
      * @param request the request message to add
      * @param ttl the time-to-live for the request message in milliseconds
+     * @return the future response to the request
      */
-    public void putRequest(RequestMessage request, long ttl) {
+    public CompletableFuture<ResponseMessage> putRequest(RequestMessage request, long ttl) {
         if (request == null) {
             throw new IllegalArgumentException("Cannot add request, because request is null");
         }
@@ -42,53 +75,105 @@ public class RequestManager implements ConnectionService {
             throw new IllegalArgumentException("Cannot add request, because ttl must be bigger than 0");
         }
 
-        assignRequestId(request);
-        requests.put(request.getId(), new PendingRequest(request, System.currentTimeMillis(), ttl));
-    }
+        PendingRequest pendingRequest = new PendingRequest(request, System.currentTimeMillis(), ttl,
+                new CompletableFuture<>());
 
-    private void assignRequestId(RequestMessage request) {
-        int messageId = getRandomAvailableId();
+        int messageId = nextId();
         request.setId(messageId);
+        while (requests.putIfAbsent(messageId, pendingRequest) != null) {
+            // the id is still held by a request sent before the sequence wrapped around
+            messageId = nextId();
+            request.setId(messageId);
+        }
+
+        scheduleTimeout(messageId, pendingRequest);
+
+        return pendingRequest.response();
     }
 
-    private int getRandomAvailableId() {
-        int counter = 0;
-        int randomJumper = new Random().nextInt(50);
+    /**
+     * Schedules the timeout of a pending request, cancelled once its future response is completed.
+     *
+     * @param requestId the message id of the request
+     * @param pendingRequest the pending request
+     */
+    private void scheduleTimeout(int requestId, PendingRequest pendingRequest) {
+        Timeout timeout = timer.schedule(() -> expireRequest(requestId, pendingRequest), pendingRequest.ttl(),
+                TimeUnit.MILLISECONDS);
+        pendingRequest.response().whenComplete((response, exception) -> timeout.cancel());
+    }
 
-        int checkId;
-        do {
-            counter++;
-            checkId = counter * randomJumper;
-        } while (requests.containsKey(checkId));
+    /**
+     * Expires a pending request whose time-to-live has passed, unless it has been answered or pulled meanwhile.
+     *
+     * @param requestId the message id of the request
+     * @param pendingRequest the pending request
+     */
+    private void expireRequest(int requestId, PendingRequest pendingRequest) {
+        if (requests.remove(requestId, pendingRequest)) {
+            handleRequestTimeout(pendingRequest);
+        }
+    }
 
-        return checkId;
+    /**
+     * Returns the next id of the sequence, wrapping around to 0 rather than becoming negative.
+     *
+     * @return the next id
+     */
+    private int nextId() {
+        return nextId.getAndIncrement() & Integer.MAX_VALUE;
     }
 
     /**
-     * Pulls a request, removing it from the request handler.
+     * Pulls a pending request, removing it from the request handler without completing its future response.
      *
      * @param requestId the message id for the request
-     * @return the request message, null if no request with given id exists
+     * @return the pending request, null if no request with given id exists
+     */
+    public PendingRequest pullRequest(int requestId) {
+        return requests.remove(requestId);
+    }
+
+    /**
+     * Accepts a response, removing the matching request from the request handler and completing its future response.
+     *
+     * @param response the received response
+     * @return the request message answered by the response, null if no request with the id of the response exists
      */
-    public RequestMessage pullRequest(int requestId) {
+    public RequestMessage acceptResponse(ResponseMessage response) {
+        if (response == null) {
+            throw new IllegalArgumentException("Cannot accept response, because response is null.");
+        }
+
         RequestMessage request = null;
 
-        PendingRequest pendingRequest = requests.get(requestId);
+        PendingRequest pendingRequest = requests.remove(response.getId());
         if (pendingRequest != null) {
             request = pendingRequest.request();
-            requests.remove(requestId);
+            pendingRequest.response().complete(response);
         }
 
         return request;
     }
 
+    /**
+     * Returns the number of requests waiting for a response.
+     *
+     * @return the number of pending requests
+     */
+    public int getPendingRequestCount() {
+        return requests.size();
+    }
+
     /**
      * Handles the timeout for a request message
      *
-     * @param request timed out request message
+     * @param pendingRequest timed out pending request
      */
-    private void handleRequestTimeout(RequestMessage request) {
-        timeoutBroker.notifyListeners(request);
+    private void handleRequestTimeout(PendingRequest pendingRequest) {
+        pendingRequest.response().completeExceptionally(new TimeoutException("No response to request " +
+                pendingRequest.request().getId() + " within " + pendingRequest.ttl() + " ms."));
+        timeoutBroker.notifyListeners(pendingRequest.request());
     }
 
     /**
@@ -101,43 +186,18 @@ public class RequestManager implements ConnectionService {
     }
 
     @Override
-    public void start() {
-        running = true;
-        timeoutCheckThread = new Thread(this::checkForTimeouts);
-        timeoutCheckThread.start();
-    }
-
-    private void checkForTimeouts() {
-        while (running) {
-            long currentTime = System.currentTimeMillis();
-            List<Integer> timedOutRequests = new ArrayList<>();
-
-            synchronized (requests) {
-                requests.forEach((requestId, pendingRequest) -> {
-                    long requestTime = pendingRequest.timestamp();
-                    long ttl = pendingRequest.ttl();
-
-                    if (currentTime - requestTime > ttl) {
-                        handleRequestTimeout(pendingRequest.request());
-                        timedOutRequests.add(requestId);
-                    }
-                });
-
-                timedOutRequests.forEach(requests::remove);
-            }
-
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return;
-            }
-        }
+    public synchronized void start() {
+        // the timeout of every request is scheduled as the request is put
     }
 
     @Override
-    public void stop() {
-        running = false;
-        timeoutCheckThread.interrupt();
+    public synchronized void stop() {
+        // requests can no longer be answered once the connection is closed
+        requests.forEach((requestId, pendingRequest) -> {
+            if (requests.remove(requestId, pendingRequest)) {
+                pendingRequest.response().completeExceptionally(new IOException("Connection closed before request " +
+                        requestId + " was answered."));
+            }
+        });
     }
 }
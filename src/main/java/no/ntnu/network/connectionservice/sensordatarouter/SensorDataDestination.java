@@ -1,15 +1,25 @@
 package no.ntnu.network.connectionservice.sensordatarouter;
 
+import no.ntnu.network.message.sensordata.SduSensorDataMessage;
 import no.ntnu.network.message.sensordata.SensorDataMessage;
+import no.ntnu.network.message.sensordata.SensorDataReceiver;
 
 /**
  * A destination for received sensor data messages.
+ * Sensor data may be routed to the destination either as messages, or as primitive values through the
+ * {@code SensorDataReceiver} methods. By default, primitive values are wrapped in a message, so destinations that
+ * can handle the values directly should override the {@code SensorDataReceiver} methods.
  */
-public interface SensorDataDestination {
+public interface SensorDataDestination extends SensorDataReceiver {
     /**
      * Receives routed sensor data at the destination.
      *
      * @param sensorData the sensor data message to transmit
      */
     void receiveSensorData(SensorDataMessage sensorData);
+
+    @Override
+    default void receiveSduData(int fieldNodeAddress, int sensorAddress, double data) {
+        receiveSensorData(new SduSensorDataMessage(fieldNodeAddress, sensorAddress, data));
+    }
 }
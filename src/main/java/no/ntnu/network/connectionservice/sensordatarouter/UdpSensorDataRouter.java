@@ -1,34 +1,36 @@
 package no.ntnu.network.connectionservice.sensordatarouter;
 
 import no.ntnu.network.connectionservice.ConnectionService;
-import no.ntnu.network.message.sensordata.SensorDataMessage;
-import no.ntnu.network.sensordataprocess.UdpSensorDataSink;
+import no.ntnu.network.message.sensordata.SensorDataReceiver;
+import no.ntnu.network.sensordataprocess.SensorDataSink;
 import no.ntnu.tools.logger.SimpleLogger;
-import no.ntnu.tools.logger.SystemOutLogger;
 
-import java.io.IOException;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * A connection service that Routes received sensor data to specified destinations.
+ * Received sensor data is routed as primitive values, so that destinations handling the values directly do not
+ * cause any message objects to be created. Depending on the sensor data sink, sensor data may be routed from several
+ * threads at once, so destinations need to be thread-safe.
  */
-public class UdpSensorDataRouter implements ConnectionService {
-    private final UdpSensorDataSink sensorDataSink;
+public class UdpSensorDataRouter implements ConnectionService, SensorDataReceiver {
+    private final SensorDataSink sensorDataSink;
     private final Set<SensorDataDestination> destinations;
-    private Thread routingThread;
     private volatile boolean running;
-    private final Set<SimpleLogger> loggers;
 
     /**
      * Creates a new UdpSensorDataRouter.
      *
      * @param sensorDataSink the sensor data sink to receive sensor data from
      */
-    public UdpSensorDataRouter(UdpSensorDataSink sensorDataSink) {
+    public UdpSensorDataRouter(SensorDataSink sensorDataSink) {
+        if (sensorDataSink == null) {
+            throw new IllegalArgumentException("Cannot create UdpSensorDataRouter, because sensorDataSink is null.");
+        }
+
         this.sensorDataSink = sensorDataSink;
-        this.destinations = new HashSet<>();
-        this.loggers = new HashSet<>();
+        this.destinations = new CopyOnWriteArraySet<>();
     }
 
     /**
@@ -37,16 +39,7 @@ public class UdpSensorDataRouter implements ConnectionService {
      * @param logger the logger to add
      */
     public void addLogger(SimpleLogger logger) {
-        loggers.add(logger);
-    }
-
-    /**
-     * Logs an error.
-     *
-     * @param error error message to log
-     */
-    private void logError(String error) {
-        loggers.forEach(logger -> logger.logError(error));
+        sensorDataSink.addLogger(logger);
     }
 
     @Override
@@ -56,23 +49,13 @@ public class UdpSensorDataRouter implements ConnectionService {
         }
 
         running = true;
-        routingThread = new Thread(this::startRoutingSensorData);
-        routingThread.start();
+        sensorDataSink.start(this);
     }
 
-    /**
-     * Starts routing received sensor data messages to the destinations.
-     */
-    private void startRoutingSensorData() {
-        while (running) {
-            try {
-                SensorDataMessage message = sensorDataSink.receiveNextMessage();
-                if (message != null) {
-                    destinations.forEach(destination -> destination.receiveSensorData(message));
-                }
-            } catch (IOException e) {
-                logError("Could not receive sensor data message: " + e.getMessage());
-            }
+    @Override
+    public void receiveSduData(int fieldNodeAddress, int sensorAddress, double data) {
+        for (SensorDataDestination destination : destinations) {
+            destination.receiveSduData(fieldNodeAddress, sensorAddress, data);
         }
     }
 
@@ -83,7 +66,7 @@ public class UdpSensorDataRouter implements ConnectionService {
         }
 
         running = false;
-        routingThread.interrupt();
+        sensorDataSink.stop();
     }
 
     /**
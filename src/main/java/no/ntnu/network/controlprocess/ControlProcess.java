@@ -0,0 +1,49 @@
+package no.ntnu.network.controlprocess;
+
+import no.ntnu.network.message.common.ControlMessage;
+import no.ntnu.network.message.context.MessageContext;
+import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+
+import java.io.IOException;
+
+/**
+ * A control process is responsible for exchanging control messages with another entity in the network.
+ * How received messages are delivered depends on the implementation: a blocking process is polled for the next
+ * message, while a non-blocking process pushes messages as they arrive.
+ *
+ * @param <C> a message context used for message deserialization
+ */
+public interface ControlProcess<C extends MessageContext> {
+    /**
+     * Sets the encryption used for sending Tlvs.
+     *
+     * @param encryption the encryption strategy to use
+     */
+    void setEncryption(EncryptionStrategy encryption);
+
+    /**
+     * Sets the decryption used for receiving Tlvs.
+     *
+     * @param decryption the decryption strategy to use
+     */
+    void setDecryption(DecryptionStrategy decryption);
+
+    /**
+     * Sends a control message.
+     *
+     * @param message message to send
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    void sendMessage(ControlMessage message) throws IOException;
+
+    /**
+     * Returns whether sending a message may block the sending thread until the message is written to the network,
+     * rather than handing it to a writer of the connection.
+     *
+     * @return true if sending a message may block on the network
+     */
+    default boolean sendsBlockOnNetwork() {
+        return false;
+    }
+}
@@ -7,6 +7,7 @@ import no.ntnu.network.message.deserialize.component.MessageDeserializer;
 import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
 import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
 import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
 
 import java.io.IOException;
@@ -20,7 +21,7 @@ import java.net.Socket;
  *
  * @param <C> a message context used for message deserialization
  */
-public class TcpControlProcess<C extends MessageContext> {
+public class TcpControlProcess<C extends MessageContext> implements ControlProcess<C> {
     private final TcpTlvSender tlvSender;
     private final TcpTlvReceiver tlvReceiver;
     private final ByteSerializerVisitor serializer;
@@ -48,34 +49,28 @@ public class TcpControlProcess<C extends MessageContext> {
         this.deserializer = deserializer;
     }
 
-    /**
-     * Sets the encryption used for sending Tlvs.
-     *
-     * @param encryption the encryption strategy to use
-     */
+    @Override
     public void setEncryption(EncryptionStrategy encryption) {
         tlvSender.setEncryption(encryption);
     }
 
-    /**
-     * Sets the decryption used for receiving Tlvs.
-     *
-     * @param decryption the decryption strategy to use
-     */
+    @Override
     public void setDecryption(DecryptionStrategy decryption) {
         tlvReceiver.setDecryption(decryption);
     }
 
-    /**
-     * Sends a control message.
-     *
-     * @param message message to send
-     */
+    @Override
     public void sendMessage(ControlMessage message) throws IOException {
-        Tlv serializedMessage = serializer.serialize(message);
+        TlvView serializedMessage = serializer.serializeToView(message);
         tlvSender.sendTlv(serializedMessage);
     }
 
+    @Override
+    public boolean sendsBlockOnNetwork() {
+        // messages are written to the socket by the sending thread itself
+        return true;
+    }
+
     /**
      * Returns the next available message received.
      * The method blocks until a message is received, the end of the stream is met or an exception is thrown.
@@ -84,7 +79,75 @@ public class TcpControlProcess<C extends MessageContext> {
      * @throws IOException thrown if an I/O exception occurs
      */
     public Message<C> getNextMessage() throws IOException {
-        Tlv serializedMessage = tlvReceiver.getNextTlv();
-        return deserializer.deserializeMessage(serializedMessage);
+        Message<C> result = null;
+
+        TlvView serializedMessage = tlvReceiver.getNextView();
+        if (serializedMessage != null) {
+            result = deserializer.deserializeMessage(serializedMessage);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a view of the next received TLV, as received from the socket.
+     * The method blocks until a TLV is received, the end of the stream is met or an exception is thrown.
+     *
+     * @return a view of the next received tlv, still encrypted, null if end of stream is met
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    public TlvView readNextEncryptedView() throws IOException {
+        return tlvReceiver.readNextEncryptedView();
+    }
+
+    /**
+     * Decrypts the last received TLV into a TLV of its own, which stays valid after the next TLV is received.
+     *
+     * @param encryptedTlv a view of the last received tlv, as returned by {@code readNextEncryptedView()}
+     * @return the decrypted tlv
+     * @throws IOException thrown if the tlv cannot be decrypted
+     */
+    public Tlv decryptReceivedTlv(TlvView encryptedTlv) throws IOException {
+        return tlvReceiver.decryptView(encryptedTlv).toTlv();
+    }
+
+    /**
+     * Deserializes a received and decrypted TLV.
+     *
+     * @param tlv the decrypted tlv
+     * @return the deserialized message
+     * @throws IOException thrown if the tlv cannot be deserialized
+     */
+    public Message<C> deserializeMessage(Tlv tlv) throws IOException {
+        return deserializer.deserializeMessage(tlv);
+    }
+
+    /**
+     * Returns the encryption currently used for sending messages.
+     *
+     * @return the current encryption strategy
+     */
+    public EncryptionStrategy getEncryption() {
+        return tlvSender.getEncryption();
+    }
+
+    /**
+     * Sends a control message, encrypted with a given encryption rather than the current one.
+     *
+     * @param message message to send
+     * @param encryption the encryption strategy to encrypt the message with
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    public void sendMessage(ControlMessage message, EncryptionStrategy encryption) throws IOException {
+        TlvView serializedMessage = serializer.serializeToView(message);
+        tlvSender.sendTlv(serializedMessage, encryption);
+    }
+
+    /**
+     * Returns the arrays borrowed for receiving messages to their pool.
+     * Should only be called by the thread receiving messages, once it has stopped receiving them.
+     */
+    public void releaseReceiveBuffers() {
+        tlvReceiver.release();
     }
 }
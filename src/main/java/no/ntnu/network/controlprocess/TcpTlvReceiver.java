@@ -1,6 +1,8 @@
 package no.ntnu.network.controlprocess;
 
 import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.bufferpool.ByteArrayPools;
 import no.ntnu.network.message.encryption.TlvEncryption;
 import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
 import no.ntnu.network.message.encryption.cipher.decrypt.PlainTextDecryption;
@@ -8,24 +10,40 @@ import no.ntnu.network.message.serialize.tool.InputStreamByteSource;
 import no.ntnu.network.message.serialize.tool.tlv.Tlv;
 import no.ntnu.network.message.serialize.tool.tlv.TlvFrame;
 import no.ntnu.network.message.serialize.tool.tlv.TlvReader;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.Socket;
 
 /**
  * Receives Type-Length-Value structures of bytes from a remote socket using TCP.
+ * Received TLVs are read into arrays borrowed from a {@code ByteArrayPool}, which are reused for the next TLV
+ * received, and decrypted in place.
  */
 public class TcpTlvReceiver {
     private final TlvReader socketReader;
-    private DecryptionStrategy decryption;
+    private volatile DecryptionStrategy decryption;
 
     /**
-     * Creates a new TCPMessageReceiver.
+     * Creates a new TCPMessageReceiver, borrowing from the default pool.
      *
      * @param socket the socket to receive messages from
      * @param tlvFrame the frame for received tlvs
      */
     public TcpTlvReceiver(Socket socket, TlvFrame tlvFrame) throws IOException {
+        this(socket, tlvFrame, ByteArrayPools.getDefault());
+    }
+
+    /**
+     * Creates a new TCPMessageReceiver.
+     *
+     * @param socket the socket to receive messages from
+     * @param tlvFrame the frame for received tlvs
+     * @param pool the pool to borrow arrays from
+     */
+    public TcpTlvReceiver(Socket socket, TlvFrame tlvFrame, ByteArrayPool pool) throws IOException {
         if (socket == null) {
             throw new IllegalArgumentException("Cannot create TcpTlvReceiver, because socket is null");
         }
@@ -34,7 +52,13 @@ public class TcpTlvReceiver {
             throw new IllegalArgumentException("Cannot create TcpTlvReceiver, because tlvFrame is null.");
         }
 
-        this.socketReader = new TlvReader(new InputStreamByteSource(socket.getInputStream()), tlvFrame);
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot create TcpTlvReceiver, because pool is null.");
+        }
+
+        // buffers the stream, so that a tlv header and a small value-field are usually read with a single system call
+        InputStream inputStream = new BufferedInputStream(socket.getInputStream());
+        this.socketReader = new TlvReader(new InputStreamByteSource(inputStream), tlvFrame, pool);
         this.decryption = new PlainTextDecryption();
     }
 
@@ -59,15 +83,73 @@ public class TcpTlvReceiver {
      * @throws IOException thrown if an I/O exception occurs
      */
     public Tlv getNextTlv() throws IOException {
-        Tlv processedTlv = null;
+        Tlv result = null;
+
+        TlvView view = getNextView();
+        if (view != null) {
+            result = view.toTlv();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a view of the next received TLV.
+     * The view is held by arrays borrowed from the pool, and is only valid until the next TLV is received or the
+     * receiver is released. The method blocks until the end of the stream is met or an exception occurs.
+     *
+     * @return a view of the next received tlv, null if end of stream is met
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    public TlvView getNextView() throws IOException {
+        TlvView processedTlv = null;
+
+        TlvView encryptedTlv = readNextEncryptedView();
+        if (encryptedTlv != null) {
+            processedTlv = decryptView(encryptedTlv);
+        }
+
+        return processedTlv;
+    }
+
+    /**
+     * Returns a view of the next received TLV, as received from the socket.
+     * The view is held by arrays borrowed from the pool, and is only valid until the next TLV is received or the
+     * receiver is released. The method blocks until the end of the stream is met or an exception occurs.
+     *
+     * @return a view of the next received tlv, still encrypted, null if end of stream is met
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    public TlvView readNextEncryptedView() throws IOException {
+        return socketReader.readNextView();
+    }
+
+    /**
+     * Decrypts a view of the last received TLV in place, using the current decryption.
+     * The decrypted view is only valid until the next TLV is received or the receiver is released, and the
+     * encrypted view must no longer be used.
+     *
+     * @param encryptedTlv a view of the last received tlv, as returned by {@code readNextEncryptedView()}
+     * @return a view of the decrypted tlv
+     * @throws IOException thrown if the tlv cannot be decrypted
+     */
+    public TlvView decryptView(TlvView encryptedTlv) throws IOException {
+        TlvView processedTlv = null;
 
-        Tlv encryptedTlv = socketReader.readNextTlv();
         try {
-            processedTlv = TlvEncryption.decryptTlv(encryptedTlv, decryption);
+            processedTlv = TlvEncryption.decryptTlvInPlace(encryptedTlv, decryption);
         } catch (EncryptionException e) {
             throw new IOException("Could not decrypt the TLV: " + e.getMessage());
         }
 
         return processedTlv;
     }
+
+    /**
+     * Returns all arrays borrowed by the receiver to the pool.
+     * Views previously returned by the receiver must no longer be used.
+     */
+    public void release() {
+        socketReader.release();
+    }
 }
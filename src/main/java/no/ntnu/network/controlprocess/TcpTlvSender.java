@@ -1,42 +1,59 @@
 package no.ntnu.network.controlprocess;
 
 import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.bufferpool.ByteArrayPools;
 import no.ntnu.network.message.encryption.TlvEncryption;
 import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
 import no.ntnu.network.message.encryption.cipher.encrypt.PlainTextEncryption;
-import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.Socket;
 
 /**
  * Sends Type-Value-Length structures of bytes to a remote socket using TCP.
+ * TLVs are encrypted into arrays borrowed from a {@code ByteArrayPool}, which are returned once the TLV is sent.
  */
-public class TcpTlvSender {
+public class TcpTlvSender implements TlvSender {
     private final OutputStream outputStream;
-    private EncryptionStrategy encryption;
+    private final ByteArrayPool pool;
+    private volatile EncryptionStrategy encryption;
 
     /**
-     * Creates a new TCPMessageSender.
+     * Creates a new TCPMessageSender, borrowing from the default pool.
      *
      * @param socket socket to send messages to
      * @throws IOException thrown if an I/O exception occurs
      */
     public TcpTlvSender(Socket socket) throws IOException {
+        this(socket, ByteArrayPools.getDefault());
+    }
+
+    /**
+     * Creates a new TCPMessageSender.
+     *
+     * @param socket socket to send messages to
+     * @param pool the pool to borrow arrays from
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    public TcpTlvSender(Socket socket, ByteArrayPool pool) throws IOException {
         if (socket == null) {
             throw new IllegalArgumentException("Cannot create TcpTlvSender, because socket is null.");
         }
 
-        this.outputStream = socket.getOutputStream();
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot create TcpTlvSender, because pool is null.");
+        }
+
+        this.outputStream = new BufferedOutputStream(socket.getOutputStream());
+        this.pool = pool;
         this.encryption = new PlainTextEncryption();
     }
 
-    /**
-     * Sets the encryption used for sending Tlvs.
-     *
-     * @param encryption the encryption strategy to use
-     */
+    @Override
     public void setEncryption(EncryptionStrategy encryption) {
         if (encryption == null) {
             throw new IllegalArgumentException("Cannot set encryption, because encryption strategy is null.");
@@ -46,32 +63,57 @@ public class TcpTlvSender {
     }
 
     /**
-     * Sends a TLV to the remote socket.
+     * Returns the encryption currently used for sending Tlvs.
+     *
+     * @return the current encryption strategy
+     */
+    public EncryptionStrategy getEncryption() {
+        return encryption;
+    }
+
+    @Override
+    public void sendTlv(TlvView tlv) throws IOException {
+        sendTlv(tlv, encryption);
+    }
+
+    /**
+     * Sends a view of a TLV to the remote entity, encrypted with a given encryption rather than the current one.
+     * The TLV is sent before the method returns, so the view is not used after that.
      *
      * @param tlv tlv to send
+     * @param encryption the encryption strategy to encrypt the tlv with
      * @throws IOException thrown if an I/O exception occurs
      */
-    public void sendTlv(Tlv tlv) throws IOException {
-        Tlv processedTlv = null;
+    public synchronized void sendTlv(TlvView tlv, EncryptionStrategy encryption) throws IOException {
+        if (encryption == null) {
+            throw new IllegalArgumentException("Cannot send TLV, because encryption is null.");
+        }
+
+        TlvView processedTlv = null;
 
         try {
-            processedTlv = TlvEncryption.encryptTlv(tlv, encryption);
+            processedTlv = TlvEncryption.encryptTlv(tlv, encryption, pool);
         } catch (EncryptionException e) {
             throw new IOException("Could not encrypt the TLV: " + e.getMessage());
         }
 
-        writeAndFlush(processedTlv);
+        try {
+            writeAndFlush(processedTlv);
+        } finally {
+            pool.release(processedTlv.getValueBuffer());
+        }
     }
 
     /**
      * Writes the TLV to the output stream and flushes it.
+     * The fields of the TLV are gathered in the buffered output stream, and sent together once it is flushed.
      *
      * @param tlv the tlv to write and flush
      * @throws IOException thrown if an I/O exception occurs
      */
-    private void writeAndFlush(Tlv tlv) throws IOException {
+    private void writeAndFlush(TlvView tlv) throws IOException {
         if (tlv != null) {
-            outputStream.write(tlv.toBytes());
+            tlv.writeTo(outputStream);
             outputStream.flush();
         }
     }
@@ -0,0 +1,44 @@
+package no.ntnu.network.controlprocess;
+
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
+
+import java.io.IOException;
+
+/**
+ * Sends Type-Length-Value structures of bytes to a remote entity.
+ * Implementations decide how the bytes are transported, but must always apply the current encryption strategy
+ * to the TLV before it is sent.
+ */
+public interface TlvSender {
+    /**
+     * Sets the encryption used for sending Tlvs.
+     *
+     * @param encryption the encryption strategy to use
+     */
+    void setEncryption(EncryptionStrategy encryption);
+
+    /**
+     * Sends a view of a TLV to the remote entity.
+     * The TLV is sent before the method returns, so the view is not used after that.
+     *
+     * @param tlv tlv to send
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    void sendTlv(TlvView tlv) throws IOException;
+
+    /**
+     * Sends a TLV to the remote entity.
+     *
+     * @param tlv tlv to send
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    default void sendTlv(Tlv tlv) throws IOException {
+        if (tlv == null) {
+            throw new IllegalArgumentException("Cannot send TLV, because tlv is null.");
+        }
+
+        sendTlv(TlvView.of(tlv));
+    }
+}
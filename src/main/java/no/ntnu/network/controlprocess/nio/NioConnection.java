@@ -0,0 +1,264 @@
+package no.ntnu.network.controlprocess.nio;
+
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvFrame;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A non-blocking TCP connection served by a {@code NioEventLoop}.
+ * Received bytes are split into TLVs and delivered to a {@code NioConnectionListener} on the event loop thread.
+ * Bytes can be written from any thread. They are written to the channel directly when possible, and otherwise
+ * queued for the event loop to write as the channel becomes writable.
+ */
+public class NioConnection {
+    private final SocketChannel channel;
+    private final NioEventLoop eventLoop;
+    private final Queue<ByteBuffer> writeQueue;
+    private final AtomicBoolean flushScheduled;
+    private final AtomicBoolean terminated;
+    private TlvStreamDecoder decoder;
+    private NioConnectionListener listener;
+    private SelectionKey key;
+
+    /**
+     * Creates a new NioConnection.
+     *
+     * @param channel the connected socket channel
+     * @param eventLoop the event loop to serve the connection
+     * @throws IOException thrown if the channel cannot be made non-blocking
+     */
+    public NioConnection(SocketChannel channel, NioEventLoop eventLoop) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("Cannot create NioConnection, because channel is null.");
+        }
+
+        if (eventLoop == null) {
+            throw new IllegalArgumentException("Cannot create NioConnection, because eventLoop is null.");
+        }
+
+        channel.configureBlocking(false);
+        this.channel = channel;
+        this.eventLoop = eventLoop;
+        this.writeQueue = new ConcurrentLinkedQueue<>();
+        this.flushScheduled = new AtomicBoolean(false);
+        this.terminated = new AtomicBoolean(false);
+    }
+
+    /**
+     * Returns the socket of the connection.
+     * The socket can be used for retrieving addresses and closing the connection, but not for streaming bytes.
+     *
+     * @return the socket of the connection
+     */
+    public Socket getSocket() {
+        return channel.socket();
+    }
+
+    /**
+     * Opens the connection, registering it with its event loop.
+     *
+     * @param tlvFrame the frame for received tlvs
+     * @param listener the listener to deliver received tlvs to
+     */
+    public synchronized void open(TlvFrame tlvFrame, NioConnectionListener listener) {
+        if (tlvFrame == null) {
+            throw new IllegalArgumentException("Cannot open connection, because tlvFrame is null.");
+        }
+
+        if (listener == null) {
+            throw new IllegalArgumentException("Cannot open connection, because listener is null.");
+        }
+
+        if (this.listener != null) {
+            throw new IllegalStateException("Cannot open connection, because it is already open.");
+        }
+
+        this.decoder = new TlvStreamDecoder(tlvFrame);
+        this.listener = listener;
+        eventLoop.register(this);
+    }
+
+    /**
+     * Writes bytes to the remote entity, queueing whatever the channel cannot accept right away.
+     *
+     * @param bytes the bytes to write
+     * @throws IOException thrown if the connection is closed
+     */
+    public void write(byte[] bytes) throws IOException {
+        if (bytes == null) {
+            throw new IllegalArgumentException("Cannot write bytes, because bytes is null.");
+        }
+
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes a range of an array of bytes to the remote entity, queueing whatever the channel cannot accept right
+     * away. If any bytes are queued, the array is referred to until they are written, and must not be modified.
+     *
+     * @param bytes the array holding the bytes to write
+     * @param offset the index of the first byte to write
+     * @param length the number of bytes to write
+     * @return true if all bytes were written right away, false if any were queued
+     * @throws IOException thrown if the connection is closed
+     */
+    public boolean write(byte[] bytes, int offset, int length) throws IOException {
+        if (bytes == null) {
+            throw new IllegalArgumentException("Cannot write bytes, because bytes is null.");
+        }
+
+        if (!channel.isOpen()) {
+            throw new ClosedChannelException();
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        synchronized (writeQueue) {
+            // writes directly if nothing is queued, saving a round trip through the event loop
+            if (writeQueue.isEmpty()) {
+                channel.write(buffer);
+            }
+
+            if (buffer.hasRemaining()) {
+                writeQueue.add(buffer);
+            }
+        }
+
+        boolean queued = buffer.hasRemaining();
+        if (queued && flushScheduled.compareAndSet(false, true)) {
+            eventLoop.execute(this::flush);
+        }
+
+        return !queued;
+    }
+
+    /**
+     * Registers the channel with a selector.
+     * Must be called on the event loop thread.
+     *
+     * @param selector the selector of the event loop
+     */
+    void registerWith(Selector selector) {
+        try {
+            key = channel.register(selector, SelectionKey.OP_READ, this);
+            // bytes might have been queued before the channel was registered
+            updateWriteInterest(!writeQueue.isEmpty());
+        } catch (IOException e) {
+            terminate();
+        }
+    }
+
+    /**
+     * Handles the operations the channel is ready for.
+     * Must be called on the event loop thread.
+     *
+     * @param selectedKey the selected key for the channel
+     */
+    void handleReadyOperations(SelectionKey selectedKey) {
+        try {
+            if (selectedKey.isReadable()) {
+                readAvailableBytes();
+            }
+
+            if (selectedKey.isValid() && selectedKey.isWritable()) {
+                flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            terminate();
+        }
+    }
+
+    /**
+     * Reads all available bytes from the channel, delivering every complete TLV to the listener.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private void readAvailableBytes() throws IOException {
+        int bytesRead = channel.read(decoder.getWritableBuffer());
+        if (bytesRead == -1) {
+            terminate();
+        } else {
+            Tlv tlv = decoder.nextTlv();
+            while (tlv != null && channel.isOpen()) {
+                listener.tlvReceived(tlv);
+                tlv = decoder.nextTlv();
+            }
+        }
+    }
+
+    /**
+     * Writes as many queued bytes as the channel accepts, and registers interest in writability for the rest.
+     * Must be called on the event loop thread.
+     */
+    private void flush() {
+        flushScheduled.set(false);
+
+        try {
+            synchronized (writeQueue) {
+                flushQueue();
+            }
+        } catch (IOException e) {
+            terminate();
+        }
+    }
+
+    /**
+     * Writes queued bytes until the queue is empty or the channel is full.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private void flushQueue() throws IOException {
+        boolean channelFull = false;
+        ByteBuffer nextBuffer = writeQueue.peek();
+        while (nextBuffer != null && !channelFull && channel.isOpen()) {
+            channel.write(nextBuffer);
+            if (nextBuffer.hasRemaining()) {
+                channelFull = true;
+            } else {
+                writeQueue.poll();
+                nextBuffer = writeQueue.peek();
+            }
+        }
+
+        updateWriteInterest(nextBuffer != null);
+    }
+
+    /**
+     * Updates whether the event loop should wait for the channel to become writable.
+     *
+     * @param interested true if there are bytes left to write
+     */
+    private void updateWriteInterest(boolean interested) {
+        if (key != null && key.isValid()) {
+            int operations = interested ? (SelectionKey.OP_READ | SelectionKey.OP_WRITE) : SelectionKey.OP_READ;
+            key.interestOps(operations);
+        }
+    }
+
+    /**
+     * Closes the connection and notifies the listener, unless already done.
+     */
+    void terminate() {
+        if (terminated.compareAndSet(false, true)) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // the channel is abandoned either way
+            }
+
+            writeQueue.clear();
+            if (listener != null) {
+                listener.connectionClosed();
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package no.ntnu.network.controlprocess.nio;
+
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+
+/**
+ * A listener for events happening on a non-blocking connection.
+ * All methods are called from the event loop owning the connection, and should therefore never block.
+ */
+public interface NioConnectionListener {
+    /**
+     * Handles a complete TLV received from the remote entity.
+     *
+     * @param tlv the received tlv
+     */
+    void tlvReceived(Tlv tlv);
+
+    /**
+     * Handles the closing of the connection, either by the remote entity or due to an I/O error.
+     */
+    void connectionClosed();
+}
@@ -0,0 +1,94 @@
+package no.ntnu.network.controlprocess.nio;
+
+import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.controlprocess.ControlProcess;
+import no.ntnu.network.controlprocess.TlvSender;
+import no.ntnu.network.message.Message;
+import no.ntnu.network.message.common.ControlMessage;
+import no.ntnu.network.message.context.MessageContext;
+import no.ntnu.network.message.deserialize.component.MessageDeserializer;
+import no.ntnu.network.message.encryption.TlvEncryption;
+import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
+import no.ntnu.network.message.encryption.cipher.decrypt.PlainTextDecryption;
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+
+import java.io.IOException;
+
+/**
+ * A control process exchanging control messages over a non-blocking connection.
+ * Instead of being polled for the next message, the process decodes the TLVs pushed to it by the event loop serving
+ * the connection. Decryption is applied when a TLV is decoded rather than when it is received, so that a change of
+ * decryption made while processing one message applies to the next.
+ *
+ * @param <C> a message context used for message deserialization
+ */
+public class NioControlProcess<C extends MessageContext> implements ControlProcess<C> {
+    private final TlvSender tlvSender;
+    private final ByteSerializerVisitor serializer;
+    private final MessageDeserializer<C> deserializer;
+    private DecryptionStrategy decryption;
+
+    /**
+     * Creates a new NioControlProcess.
+     *
+     * @param connection   the connection to exchange messages over
+     * @param serializer   the serializer for serializing messages
+     * @param deserializer the deserializer for deserializing messages
+     */
+    public NioControlProcess(NioConnection connection, ByteSerializerVisitor serializer, MessageDeserializer<C> deserializer) {
+        if (serializer == null) {
+            throw new IllegalArgumentException("Cannot create NioControlProcess, because serializer is null");
+        }
+
+        if (deserializer == null) {
+            throw new IllegalArgumentException("Cannot create NioControlProcess, because deserializer is null");
+        }
+
+        this.tlvSender = new NioTlvSender(connection);
+        this.serializer = serializer;
+        this.deserializer = deserializer;
+        this.decryption = new PlainTextDecryption();
+    }
+
+    @Override
+    public void setEncryption(EncryptionStrategy encryption) {
+        tlvSender.setEncryption(encryption);
+    }
+
+    @Override
+    public void setDecryption(DecryptionStrategy decryption) {
+        if (decryption == null) {
+            throw new IllegalArgumentException("Cannot set decryption, because decryption strategy is null.");
+        }
+
+        this.decryption = decryption;
+    }
+
+    @Override
+    public void sendMessage(ControlMessage message) throws IOException {
+        TlvView serializedMessage = serializer.serializeToView(message);
+        tlvSender.sendTlv(serializedMessage);
+    }
+
+    /**
+     * Decrypts and deserializes a received TLV.
+     *
+     * @param tlv the received tlv
+     * @return the deserialized message
+     * @throws IOException thrown if the tlv cannot be decrypted or deserialized
+     */
+    public Message<C> decodeMessage(Tlv tlv) throws IOException {
+        Tlv processedTlv = null;
+
+        try {
+            processedTlv = TlvEncryption.decryptTlv(tlv, decryption);
+        } catch (EncryptionException e) {
+            throw new IOException("Could not decrypt the TLV: " + e.getMessage());
+        }
+
+        return deserializer.deserializeMessage(processedTlv);
+    }
+}
@@ -0,0 +1,171 @@
+package no.ntnu.network.controlprocess.nio;
+
+import no.ntnu.tools.logger.SimpleLogger;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * An event loop multiplexing I/O for many non-blocking connections on a single thread.
+ * Connections are registered with the loop, which then reads from and writes to them as their channels become ready.
+ * Other threads interact with the loop by submitting tasks, which are run on the loop thread between selections.
+ * A failing task, like a failing connection, is isolated from the rest, so that it never stops the loop for the other
+ * connections.
+ */
+public class NioEventLoop {
+    private final Selector selector;
+    private final Queue<Runnable> tasks;
+    private final Set<SimpleLogger> loggers;
+    private Thread loopThread;
+    private volatile boolean running;
+
+    /**
+     * Creates a new NioEventLoop.
+     *
+     * @throws IOException thrown if the selector cannot be opened
+     */
+    public NioEventLoop() throws IOException {
+        this.selector = Selector.open();
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.loggers = new CopyOnWriteArraySet<>();
+        this.running = false;
+    }
+
+    /**
+     * Adds a logger for errors encountered by the event loop.
+     *
+     * @param logger the logger to add
+     */
+    public void addLogger(SimpleLogger logger) {
+        loggers.add(logger);
+    }
+
+    /**
+     * Starts the event loop on a new thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Cannot start event loop, because it is already running.");
+        }
+
+        running = true;
+        loopThread = new Thread(this::runLoop, "nio-event-loop");
+        loopThread.start();
+    }
+
+    /**
+     * Stops the event loop, closing all connections registered with it.
+     */
+    public synchronized void stop() {
+        if (running) {
+            running = false;
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Submits a task to be run on the event loop thread.
+     *
+     * @param task the task to run
+     */
+    public void execute(Runnable task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Cannot execute task, because task is null.");
+        }
+
+        tasks.add(task);
+        if (Thread.currentThread() != loopThread) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Registers a connection with the event loop.
+     *
+     * @param connection the connection to register
+     */
+    void register(NioConnection connection) {
+        execute(() -> connection.registerWith(selector));
+    }
+
+    /**
+     * Runs the event loop until it is stopped.
+     */
+    private void runLoop() {
+        try {
+            while (running) {
+                selector.select();
+                runTasks();
+                handleSelectedKeys();
+            }
+        } catch (IOException e) {
+            logError("Event loop stopped, because the selector failed: " + e.getMessage());
+            running = false;
+        } finally {
+            closeAllConnections();
+        }
+    }
+
+    /**
+     * Runs all submitted tasks. A task throwing an exception is logged and skipped, so that the remaining tasks still
+     * run.
+     */
+    private void runTasks() {
+        Runnable task = tasks.poll();
+        while (task != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logError("Task submitted to the event loop failed: " + e);
+            }
+            task = tasks.poll();
+        }
+    }
+
+    /**
+     * Logs an error.
+     *
+     * @param error the error message to log
+     */
+    private void logError(String error) {
+        loggers.forEach(logger -> logger.logError(error));
+    }
+
+    /**
+     * Handles all keys selected by the last selection.
+     */
+    private void handleSelectedKeys() {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+
+            if (key.isValid() && key.attachment() instanceof NioConnection connection) {
+                connection.handleReadyOperations(key);
+            }
+        }
+    }
+
+    /**
+     * Closes all connections registered with the event loop, and the selector itself.
+     */
+    private void closeAllConnections() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof NioConnection connection) {
+                connection.terminate();
+            }
+        }
+
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // the selector is abandoned either way
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package no.ntnu.network.controlprocess.nio;
+
+import no.ntnu.tools.logger.SimpleLogger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed group of event loops sharing the load of many non-blocking connections.
+ * Connections are assigned to the event loops in a round-robin manner, so that the number of threads used stays the
+ * same no matter how many connections are served.
+ */
+public class NioEventLoopGroup {
+    private final List<NioEventLoop> eventLoops;
+    private final AtomicInteger nextIndex;
+
+    /**
+     * Creates a new NioEventLoopGroup.
+     *
+     * @param numberOfLoops the number of event loops in the group
+     * @throws IOException thrown if the event loops cannot be created
+     */
+    public NioEventLoopGroup(int numberOfLoops) throws IOException {
+        if (numberOfLoops <= 0) {
+            throw new IllegalArgumentException("Cannot create NioEventLoopGroup, because number of loops must be " +
+                    "bigger than 0.");
+        }
+
+        this.eventLoops = new ArrayList<>();
+        for (int i = 0; i < numberOfLoops; i++) {
+            eventLoops.add(new NioEventLoop());
+        }
+        this.nextIndex = new AtomicInteger(0);
+    }
+
+    /**
+     * Adds a logger for errors encountered by the event loops in the group.
+     *
+     * @param logger the logger to add
+     */
+    public void addLogger(SimpleLogger logger) {
+        eventLoops.forEach(eventLoop -> eventLoop.addLogger(logger));
+    }
+
+    /**
+     * Starts all event loops in the group.
+     */
+    public void start() {
+        eventLoops.forEach(NioEventLoop::start);
+    }
+
+    /**
+     * Stops all event loops in the group.
+     */
+    public void stop() {
+        eventLoops.forEach(NioEventLoop::stop);
+    }
+
+    /**
+     * Returns the next event loop to assign a connection to.
+     *
+     * @return the next event loop
+     */
+    public NioEventLoop next() {
+        return eventLoops.get(Math.floorMod(nextIndex.getAndIncrement(), eventLoops.size()));
+    }
+}
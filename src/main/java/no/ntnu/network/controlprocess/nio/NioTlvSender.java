@@ -0,0 +1,81 @@
+package no.ntnu.network.controlprocess.nio;
+
+import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.bufferpool.ByteArrayPools;
+import no.ntnu.network.controlprocess.TlvSender;
+import no.ntnu.network.message.encryption.TlvEncryption;
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+import no.ntnu.network.message.encryption.cipher.encrypt.PlainTextEncryption;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
+
+import java.io.IOException;
+
+/**
+ * Sends Type-Length-Value structures of bytes over a non-blocking connection.
+ * TLVs are encrypted and framed in arrays borrowed from a {@code ByteArrayPool}. An array holding a framed TLV is
+ * returned to the pool once the TLV is written, unless the connection had to queue part of it.
+ */
+public class NioTlvSender implements TlvSender {
+    private final NioConnection connection;
+    private final ByteArrayPool pool;
+    private EncryptionStrategy encryption;
+
+    /**
+     * Creates a new NioTlvSender, borrowing from the default pool.
+     *
+     * @param connection the connection to send tlvs over
+     */
+    public NioTlvSender(NioConnection connection) {
+        this(connection, ByteArrayPools.getDefault());
+    }
+
+    /**
+     * Creates a new NioTlvSender.
+     *
+     * @param connection the connection to send tlvs over
+     * @param pool the pool to borrow arrays from
+     */
+    public NioTlvSender(NioConnection connection, ByteArrayPool pool) {
+        if (connection == null) {
+            throw new IllegalArgumentException("Cannot create NioTlvSender, because connection is null.");
+        }
+
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot create NioTlvSender, because pool is null.");
+        }
+
+        this.connection = connection;
+        this.pool = pool;
+        this.encryption = new PlainTextEncryption();
+    }
+
+    @Override
+    public void setEncryption(EncryptionStrategy encryption) {
+        if (encryption == null) {
+            throw new IllegalArgumentException("Cannot set encryption, because encryption strategy is null.");
+        }
+
+        this.encryption = encryption;
+    }
+
+    @Override
+    public synchronized void sendTlv(TlvView tlv) throws IOException {
+        TlvView processedTlv = null;
+
+        try {
+            processedTlv = TlvEncryption.encryptTlv(tlv, encryption, pool);
+        } catch (EncryptionException e) {
+            throw new IOException("Could not encrypt the TLV: " + e.getMessage());
+        }
+
+        byte[] frame = pool.acquire(processedTlv.getLength());
+        int frameLength = processedTlv.writeTo(frame, 0);
+        pool.release(processedTlv.getValueBuffer());
+
+        // a frame partly queued by the connection is still referred to, and is left for the garbage collector
+        if (connection.write(frame, 0, frameLength)) {
+            pool.release(frame);
+        }
+    }
+}
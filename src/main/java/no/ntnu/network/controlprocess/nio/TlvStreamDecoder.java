@@ -0,0 +1,140 @@
+package no.ntnu.network.controlprocess.nio;
+
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvFrame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Splits a stream of bytes arriving in arbitrary chunks into complete Type-Length-Value structures.
+ * Bytes are written into the buffer returned by {@code getWritableBuffer()}, after which all complete TLVs can be
+ * pulled using {@code nextTlv()}. Incomplete TLVs are kept in the buffer until the rest of their bytes arrive.
+ * <p/>
+ * The decoder is not thread safe, and is meant to be owned by a single event loop.
+ */
+public class TlvStreamDecoder {
+    private static final int INITIAL_CAPACITY = 1024;
+    private final TlvFrame tlvFrame;
+    private final int headerLength;
+    private ByteBuffer buffer;
+
+    /**
+     * Creates a new TlvStreamDecoder.
+     *
+     * @param tlvFrame the frame for the tlvs to decode
+     */
+    public TlvStreamDecoder(TlvFrame tlvFrame) {
+        if (tlvFrame == null) {
+            throw new IllegalArgumentException("Cannot create TlvStreamDecoder, because tlvFrame is null.");
+        }
+
+        if (tlvFrame.lengthFieldLength() > Integer.BYTES) {
+            throw new IllegalArgumentException("Cannot create TlvStreamDecoder, because length-fields longer than " +
+                    Integer.BYTES + " bytes are not supported.");
+        }
+
+        this.tlvFrame = tlvFrame;
+        this.headerLength = tlvFrame.typeFieldLength() + tlvFrame.lengthFieldLength();
+        this.buffer = ByteBuffer.allocate(Math.max(INITIAL_CAPACITY, headerLength));
+    }
+
+    /**
+     * Returns the buffer that received bytes should be written into.
+     * The buffer is guaranteed to have space left for at least one more byte.
+     *
+     * @return the buffer to write received bytes into
+     */
+    public ByteBuffer getWritableBuffer() {
+        if (!buffer.hasRemaining()) {
+            growBuffer(buffer.capacity() * 2);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Returns the next complete TLV received.
+     *
+     * @return the next complete tlv, null if no complete tlv is available yet
+     * @throws IOException thrown if the length-field of the next tlv is invalid, or exceeds the maximum frame length
+     */
+    public Tlv nextTlv() throws IOException {
+        Tlv tlv = null;
+        int tlvLength = 0;
+
+        buffer.flip();
+        if (buffer.remaining() >= headerLength) {
+            int valueLength = peekValueLength();
+            if (valueLength < 0) {
+                throw new IOException("Cannot decode TLV, because length-field is invalid: " + valueLength);
+            }
+
+            // checked before the buffer is grown to hold the tlv, as the length-field is chosen by the peer
+            if (valueLength > tlvFrame.maxValueLength()) {
+                throw new IOException("Cannot decode TLV, because it is longer than the maximum frame length of " +
+                        tlvFrame.maxFrameLength() + " bytes: " + valueLength);
+            }
+
+            tlvLength = headerLength + valueLength;
+            if (buffer.remaining() >= tlvLength) {
+                tlv = readTlv(valueLength);
+            }
+        }
+        buffer.compact();
+
+        // makes sure the whole tlv fits in the buffer before more bytes are read
+        if (tlv == null && buffer.capacity() < tlvLength) {
+            growBuffer(tlvLength);
+        }
+
+        return tlv;
+    }
+
+    /**
+     * Reads the value of the length-field for the next TLV, without consuming any bytes.
+     *
+     * @return the value of the length-field
+     */
+    private int peekValueLength() {
+        int value = 0;
+
+        int lengthFieldStart = buffer.position() + tlvFrame.typeFieldLength();
+        for (int i = 0; i < tlvFrame.lengthFieldLength(); i++) {
+            value = (value << 8) | (buffer.get(lengthFieldStart + i) & 0xFF);
+        }
+
+        return value;
+    }
+
+    /**
+     * Consumes the next TLV from the buffer.
+     *
+     * @param valueLength the length of the value-field
+     * @return the consumed tlv
+     */
+    private Tlv readTlv(int valueLength) {
+        byte[] typeField = new byte[tlvFrame.typeFieldLength()];
+        byte[] lengthField = new byte[tlvFrame.lengthFieldLength()];
+        byte[] valueField = new byte[valueLength];
+
+        buffer.get(typeField);
+        buffer.get(lengthField);
+        buffer.get(valueField);
+
+        return new Tlv(typeField, lengthField, valueField);
+    }
+
+    /**
+     * Replaces the buffer with a bigger one, keeping all unread bytes.
+     * The buffer must be in write mode.
+     *
+     * @param minimumCapacity the minimum capacity of the new buffer
+     */
+    private void growBuffer(int minimumCapacity) {
+        ByteBuffer biggerBuffer = ByteBuffer.allocate(Math.max(minimumCapacity, buffer.capacity()));
+        buffer.flip();
+        biggerBuffer.put(buffer);
+        buffer = biggerBuffer;
+    }
+}
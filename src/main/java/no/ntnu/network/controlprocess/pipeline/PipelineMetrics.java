@@ -0,0 +1,62 @@
+package no.ntnu.network.controlprocess.pipeline;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Latency metrics for every stage of the staged control message pipeline.
+ * A single instance is meant to be shared by all connections of a process, showing where the time of the
+ * process goes under load.
+ */
+public class PipelineMetrics {
+    private final Map<PipelineStage, StageMetrics> stages;
+
+    /**
+     * Creates a new PipelineMetrics.
+     */
+    public PipelineMetrics() {
+        this.stages = new EnumMap<>(PipelineStage.class);
+        for (PipelineStage stage : PipelineStage.values()) {
+            stages.put(stage, new StageMetrics());
+        }
+    }
+
+    /**
+     * Returns the metrics of a stage.
+     *
+     * @param stage the stage
+     * @return the metrics of the stage
+     */
+    public StageMetrics getStage(PipelineStage stage) {
+        if (stage == null) {
+            throw new IllegalArgumentException("Cannot get stage metrics, because stage is null.");
+        }
+
+        return stages.get(stage);
+    }
+
+    /**
+     * Records an item handled by a stage.
+     *
+     * @param stage the stage handling the item
+     * @param waitNanos the nanoseconds the item waited in the queue of the stage
+     * @param serviceNanos the nanoseconds the stage spent handling the item
+     */
+    void record(PipelineStage stage, long waitNanos, long serviceNanos) {
+        stages.get(stage).record(waitNanos, serviceNanos);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        stages.forEach((stage, metrics) -> {
+            if (!builder.isEmpty()) {
+                builder.append("; ");
+            }
+            builder.append(stage.name().toLowerCase()).append(": ").append(metrics);
+        });
+
+        return builder.toString();
+    }
+}
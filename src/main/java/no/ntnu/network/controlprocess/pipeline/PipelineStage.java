@@ -0,0 +1,26 @@
+package no.ntnu.network.controlprocess.pipeline;
+
+/**
+ * The stages of a staged control message pipeline, in the order received messages pass through them.
+ */
+public enum PipelineStage {
+    /**
+     * Reads the next TLV from the socket and decrypts it.
+     */
+    RECEIVE,
+
+    /**
+     * Deserializes a received TLV into a message.
+     */
+    DECODE,
+
+    /**
+     * Processes a received message, which may call into the central hub and send messages.
+     */
+    PROCESS,
+
+    /**
+     * Serializes, encrypts and sends a message.
+     */
+    SEND
+}
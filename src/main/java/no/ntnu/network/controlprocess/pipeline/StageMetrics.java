@@ -0,0 +1,98 @@
+package no.ntnu.network.controlprocess.pipeline;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency metrics for a single stage of the staged control message pipeline, across all connections.
+ * For every item passing through the stage, the time spent waiting in the queue of the stage and the time spent
+ * being handled by the stage are recorded.
+ */
+public class StageMetrics {
+    private final LongAdder items;
+    private final LongAdder waitNanos;
+    private final LongAdder serviceNanos;
+    private final LongAccumulator maxServiceNanos;
+
+    /**
+     * Creates a new StageMetrics.
+     */
+    public StageMetrics() {
+        this.items = new LongAdder();
+        this.waitNanos = new LongAdder();
+        this.serviceNanos = new LongAdder();
+        this.maxServiceNanos = new LongAccumulator(Long::max, 0);
+    }
+
+    /**
+     * Records an item handled by the stage.
+     *
+     * @param waitNanos the nanoseconds the item waited in the queue of the stage
+     * @param serviceNanos the nanoseconds the stage spent handling the item
+     */
+    void record(long waitNanos, long serviceNanos) {
+        items.increment();
+        this.waitNanos.add(waitNanos);
+        this.serviceNanos.add(serviceNanos);
+        maxServiceNanos.accumulate(serviceNanos);
+    }
+
+    /**
+     * Returns the number of items handled by the stage.
+     *
+     * @return the number of items
+     */
+    public long getItemCount() {
+        return items.sum();
+    }
+
+    /**
+     * Returns the average time an item waited in the queue of the stage.
+     *
+     * @return the average wait in microseconds, 0 if no item has been handled
+     */
+    public long getAverageWaitMicros() {
+        return average(waitNanos.sum()) / 1000;
+    }
+
+    /**
+     * Returns the average time the stage spent handling an item.
+     *
+     * @return the average service time in microseconds, 0 if no item has been handled
+     */
+    public long getAverageServiceMicros() {
+        return average(serviceNanos.sum()) / 1000;
+    }
+
+    /**
+     * Returns the longest time the stage spent handling a single item.
+     *
+     * @return the longest service time in microseconds
+     */
+    public long getMaxServiceMicros() {
+        return maxServiceNanos.get() / 1000;
+    }
+
+    /**
+     * Returns the average of a total over all handled items.
+     *
+     * @param total the total
+     * @return the average, 0 if no item has been handled
+     */
+    private long average(long total) {
+        long result = 0;
+
+        long count = items.sum();
+        if (count > 0) {
+            result = total / count;
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getItemCount() + " items, average wait " + getAverageWaitMicros() + " us, average service " +
+                getAverageServiceMicros() + " us, max service " + getMaxServiceMicros() + " us";
+    }
+}
@@ -0,0 +1,362 @@
+package no.ntnu.network.controlprocess.pipeline;
+
+import no.ntnu.network.controlprocess.ControlProcess;
+import no.ntnu.network.controlprocess.TcpControlProcess;
+import no.ntnu.network.executor.ConnectionExecutor;
+import no.ntnu.network.message.Message;
+import no.ntnu.network.message.common.ControlMessage;
+import no.ntnu.network.message.context.MessageContext;
+import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A control process splitting the handling of a TCP connection into stages, each running on a thread of its own.
+ * <p/>
+ * Received TLVs are read and decrypted by the receive stage, deserialized by the decode stage and processed by the
+ * process stage, while outgoing messages are serialized, encrypted and sent by the send stage. The stages hand items
+ * to each other through bounded queues, so that a slow stage holds back the stages feeding it rather than letting
+ * its queue grow, and a slow {@code process()} no longer keeps the socket from being read. Every stage handles the
+ * items of the connection one at a time, so received messages are processed, and outgoing messages sent, in order.
+ * <p/>
+ * Messages sent while processing a received message are handed to the send stage once the processing is done, so
+ * that the remote entity cannot react to them before any change of decryption made by the processing applies.
+ * Every outgoing message is encrypted with the encryption in place when it was sent, regardless of when the send
+ * stage gets to it.
+ *
+ * @param <C> a message context used for message deserialization
+ */
+public class StagedControlProcess<C extends MessageContext> implements ControlProcess<C> {
+    private static final long HAND_OFF_POLL_MILLIS = 100;
+    private final TcpControlProcess<C> controlProcess;
+    private final StagedMessageHandler<C> handler;
+    private final PipelineMetrics metrics;
+    private final BlockingQueue<ReceivedTlv> decodeQueue;
+    private final BlockingQueue<DecodedMessage<C>> processQueue;
+    private final BlockingQueue<OutgoingMessage> sendQueue;
+    private final List<OutgoingMessage> processingOutput;
+    private volatile Thread processingThread;
+    private volatile boolean closed;
+
+    /**
+     * A received and decrypted TLV, handed to the decode stage.
+     *
+     * @param tlv the tlv, null to mark the end of the stream
+     * @param handOffNanos the time the tlv was handed off
+     */
+    private record ReceivedTlv(Tlv tlv, long handOffNanos) {}
+
+    /**
+     * A deserialized message, handed to the process stage.
+     *
+     * @param message the message, null to mark the end of the stream
+     * @param handOffNanos the time the message was handed off
+     * @param <C> a message context used for message deserialization
+     */
+    private record DecodedMessage<C extends MessageContext>(Message<C> message, long handOffNanos) {}
+
+    /**
+     * An outgoing message, handed to the send stage.
+     *
+     * @param message the message, null to mark the end of the stream
+     * @param encryption the encryption in place when the message was sent
+     * @param handOffNanos the time the message was handed off
+     */
+    private record OutgoingMessage(ControlMessage message, EncryptionStrategy encryption, long handOffNanos) {}
+
+    /**
+     * Creates a new StagedControlProcess.
+     *
+     * @param controlProcess the control process of the connection
+     * @param handler the handler of the connection events
+     * @param queueCapacity the capacity of every queue between two stages
+     * @param metrics the metrics to record stage latencies in
+     */
+    public StagedControlProcess(TcpControlProcess<C> controlProcess, StagedMessageHandler<C> handler,
+                                int queueCapacity, PipelineMetrics metrics) {
+        if (controlProcess == null) {
+            throw new IllegalArgumentException("Cannot create StagedControlProcess, because controlProcess is null.");
+        }
+
+        if (handler == null) {
+            throw new IllegalArgumentException("Cannot create StagedControlProcess, because handler is null.");
+        }
+
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Cannot create StagedControlProcess, because queueCapacity is less " +
+                    "than 1.");
+        }
+
+        if (metrics == null) {
+            throw new IllegalArgumentException("Cannot create StagedControlProcess, because metrics is null.");
+        }
+
+        this.controlProcess = controlProcess;
+        this.handler = handler;
+        this.metrics = metrics;
+        this.decodeQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.processQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.sendQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.processingOutput = new ArrayList<>();
+        this.processingThread = null;
+        this.closed = false;
+    }
+
+    /**
+     * Starts all stages, each on a thread provided by the given executor.
+     * Once the end of the stream is met, or the connection fails, the remaining items pass through the stages
+     * before the connection is closed by the send stage.
+     *
+     * @param executor the executor running the stages
+     */
+    public void start(ConnectionExecutor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Cannot start StagedControlProcess, because executor is null.");
+        }
+
+        executor.execute(this::runSendStage);
+        executor.execute(this::runProcessStage);
+        executor.execute(this::runDecodeStage);
+        executor.execute(this::runReceiveStage);
+    }
+
+    @Override
+    public void setEncryption(EncryptionStrategy encryption) {
+        controlProcess.setEncryption(encryption);
+    }
+
+    @Override
+    public void setDecryption(DecryptionStrategy decryption) {
+        controlProcess.setDecryption(decryption);
+    }
+
+    /**
+     * Hands a control message to the send stage, encrypted with the current encryption once sent.
+     * Messages sent while processing a received message are handed off once the processing is done. The method
+     * only blocks while the queue of the send stage is full.
+     *
+     * @param message message to send
+     * @throws IOException thrown if the connection is closed
+     */
+    @Override
+    public void sendMessage(ControlMessage message) throws IOException {
+        if (message == null) {
+            throw new IllegalArgumentException("Cannot send message, because message is null.");
+        }
+
+        OutgoingMessage outgoing = new OutgoingMessage(message, controlProcess.getEncryption(), System.nanoTime());
+        if (Thread.currentThread() == processingThread) {
+            processingOutput.add(outgoing);
+        } else {
+            handOffOutgoing(outgoing);
+        }
+    }
+
+    @Override
+    public boolean sendsBlockOnNetwork() {
+        // messages are handed to the send stage, waiting while its queue is full
+        return true;
+    }
+
+    /**
+     * Hands an outgoing message to the send stage, waiting while its queue is full.
+     *
+     * @param outgoing the outgoing message
+     * @throws IOException thrown if the connection is closed
+     */
+    private void handOffOutgoing(OutgoingMessage outgoing) throws IOException {
+        boolean handedOff = false;
+
+        try {
+            while (!handedOff && !closed) {
+                handedOff = sendQueue.offer(outgoing, HAND_OFF_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while handing off message for sending.");
+        }
+
+        if (!handedOff) {
+            throw new IOException("Cannot send message, because the connection is closed.");
+        }
+    }
+
+    /**
+     * Reads and decrypts received TLVs, handing them to the decode stage until the end of the stream is met.
+     */
+    private void runReceiveStage() {
+        try {
+            TlvView encryptedTlv = controlProcess.readNextEncryptedView();
+            while (encryptedTlv != null && handler.isConnected()) {
+                long start = System.nanoTime();
+                Tlv tlv = controlProcess.decryptReceivedTlv(encryptedTlv);
+                long end = System.nanoTime();
+                metrics.record(PipelineStage.RECEIVE, 0, end - start);
+
+                handOff(decodeQueue, new ReceivedTlv(tlv, end));
+                encryptedTlv = controlProcess.readNextEncryptedView();
+            }
+        } catch (IOException e) {
+            if (handler.isConnected()) {
+                handler.handleMessageReadingException(e);
+            }
+        } finally {
+            controlProcess.releaseReceiveBuffers();
+            handOff(decodeQueue, new ReceivedTlv(null, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Deserializes received TLVs, handing the messages to the process stage.
+     * A TLV that cannot be deserialized closes the connection.
+     */
+    private void runDecodeStage() {
+        ReceivedTlv received = take(decodeQueue);
+        while (received.tlv() != null) {
+            long start = System.nanoTime();
+            try {
+                Message<C> message = controlProcess.deserializeMessage(received.tlv());
+                long end = System.nanoTime();
+                metrics.record(PipelineStage.DECODE, start - received.handOffNanos(), end - start);
+
+                if (message != null) {
+                    handOff(processQueue, new DecodedMessage<>(message, end));
+                }
+            } catch (IOException e) {
+                if (handler.isConnected()) {
+                    handler.handleMessageReadingException(e);
+                }
+                handler.close();
+            }
+
+            received = take(decodeQueue);
+        }
+
+        handOff(processQueue, new DecodedMessage<>(null, System.nanoTime()));
+    }
+
+    /**
+     * Processes received messages as long as the connection is open, handing the messages sent while processing
+     * each of them to the send stage once it has been processed.
+     */
+    private void runProcessStage() {
+        processingThread = Thread.currentThread();
+
+        DecodedMessage<C> decoded = take(processQueue);
+        while (decoded.message() != null) {
+            if (handler.isConnected()) {
+                long start = System.nanoTime();
+                handler.processMessage(decoded.message());
+                metrics.record(PipelineStage.PROCESS, start - decoded.handOffNanos(), System.nanoTime() - start);
+            }
+
+            handOffProcessingOutput();
+            decoded = take(processQueue);
+        }
+
+        processingThread = null;
+        handOff(sendQueue, new OutgoingMessage(null, null, System.nanoTime()));
+    }
+
+    /**
+     * Hands the messages sent while processing the last received message to the send stage.
+     */
+    private void handOffProcessingOutput() {
+        for (OutgoingMessage outgoing : processingOutput) {
+            try {
+                handOffOutgoing(new OutgoingMessage(outgoing.message(), outgoing.encryption(), System.nanoTime()));
+            } catch (IOException e) {
+                handler.handleMessageSendingException(e);
+            }
+        }
+
+        processingOutput.clear();
+    }
+
+    /**
+     * Serializes, encrypts and sends outgoing messages as long as the connection is open, closing the connection
+     * once all stages are done.
+     * A message that cannot be sent closes the connection.
+     */
+    private void runSendStage() {
+        OutgoingMessage outgoing = take(sendQueue);
+        while (outgoing.message() != null) {
+            if (handler.isConnected()) {
+                long start = System.nanoTime();
+                try {
+                    controlProcess.sendMessage(outgoing.message(), outgoing.encryption());
+                } catch (IOException e) {
+                    handler.handleMessageSendingException(e);
+                    handler.close();
+                }
+                metrics.record(PipelineStage.SEND, start - outgoing.handOffNanos(), System.nanoTime() - start);
+            }
+
+            outgoing = take(sendQueue);
+        }
+
+        closed = true;
+        sendQueue.clear();
+        handler.close();
+    }
+
+    /**
+     * Hands an item to the next stage, waiting while its queue is full.
+     * The stages of a connection hand off the end of the stream even if interrupted, so that every stage stops.
+     *
+     * @param queue the queue of the next stage
+     * @param item the item to hand off
+     * @param <T> the type of item
+     */
+    private static <T> void handOff(BlockingQueue<T> queue, T item) {
+        boolean handedOff = false;
+        boolean interrupted = false;
+
+        while (!handedOff) {
+            try {
+                queue.put(item);
+                handedOff = true;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Takes the next item from the queue of a stage, waiting until one is available.
+     *
+     * @param queue the queue of the stage
+     * @param <T> the type of item
+     * @return the next item
+     */
+    private static <T> T take(BlockingQueue<T> queue) {
+        T item = null;
+        boolean interrupted = false;
+
+        while (item == null) {
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        return item;
+    }
+}
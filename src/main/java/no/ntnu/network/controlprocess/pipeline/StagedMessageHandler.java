@@ -0,0 +1,47 @@
+package no.ntnu.network.controlprocess.pipeline;
+
+import no.ntnu.network.message.Message;
+import no.ntnu.network.message.context.MessageContext;
+
+import java.io.IOException;
+
+/**
+ * Handles the events of a staged control process on behalf of the entity owning the connection.
+ *
+ * @param <C> the type of message processing context to use
+ */
+public interface StagedMessageHandler<C extends MessageContext> {
+    /**
+     * Processes a received message.
+     * Messages of a connection are processed one at a time, in the order they were received.
+     *
+     * @param message the received message
+     */
+    void processMessage(Message<C> message);
+
+    /**
+     * Handles an I/O exception thrown while receiving, decrypting or deserializing a message.
+     *
+     * @param e the I/O exception thrown
+     */
+    void handleMessageReadingException(IOException e);
+
+    /**
+     * Handles an I/O exception thrown while serializing, encrypting or sending a message.
+     *
+     * @param e the I/O exception thrown
+     */
+    void handleMessageSendingException(IOException e);
+
+    /**
+     * Returns whether the connection is still open.
+     *
+     * @return true if connected
+     */
+    boolean isConnected();
+
+    /**
+     * Closes the connection, if it is still open.
+     */
+    void close();
+}
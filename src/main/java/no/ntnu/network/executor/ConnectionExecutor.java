@@ -0,0 +1,32 @@
+package no.ntnu.network.executor;
+
+import no.ntnu.network.timer.HashedWheelTimer;
+import no.ntnu.network.timer.Timers;
+
+/**
+ * Decides what kind of threads the work of a connection runs on.
+ * Every connection runs long-running tasks, such as reading received messages, and periodic or delayed tasks,
+ * such as sending heartbeats and expiring timed out requests. By handing all of this work to a single
+ * {@code ConnectionExecutor}, the threading model of a whole process can be changed in one place.
+ * <p/>
+ * Timeouts of the connection services are kept on a timer shared by all connections, so that an idle connection
+ * costs no thread and no periodic work.
+ */
+public interface ConnectionExecutor {
+    /**
+     * Runs a long-running task, which may block, on a thread of its own.
+     *
+     * @param task the task to run
+     */
+    void execute(Runnable task);
+
+    /**
+     * Returns the timer keeping the timeouts of the connection services, such as heartbeats, acceptance phases and
+     * request time-to-lives. By default, this is the timer shared by the whole process.
+     *
+     * @return the timer to schedule timeouts on
+     */
+    default HashedWheelTimer getTimer() {
+        return Timers.getDefault();
+    }
+}
@@ -0,0 +1,16 @@
+package no.ntnu.network.executor;
+
+/**
+ * A connection executor running every task on its own platform thread.
+ * Every long-running task gets a new thread, while timeouts are kept on the shared timer.
+ */
+public class PlatformThreadExecutor implements ConnectionExecutor {
+    @Override
+    public void execute(Runnable task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Cannot execute task, because task is null.");
+        }
+
+        new Thread(task).start();
+    }
+}
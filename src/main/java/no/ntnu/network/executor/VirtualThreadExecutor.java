@@ -0,0 +1,66 @@
+package no.ntnu.network.executor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A connection executor running every task on its own virtual thread.
+ * Virtual threads are cheap enough for a process to host tens of thousands of connections with blocking sockets,
+ * without running out of platform threads. They are only available on Java 21 or newer, and are therefore looked
+ * up at runtime, so that the application still builds and runs on older runtimes.
+ */
+public class VirtualThreadExecutor implements ConnectionExecutor {
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = lookupVirtualThreadFactory();
+    private final ThreadFactory threadFactory;
+
+    /**
+     * Creates a new VirtualThreadExecutor.
+     *
+     * @throws UnsupportedOperationException thrown if the runtime does not support virtual threads
+     */
+    public VirtualThreadExecutor() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Cannot create VirtualThreadExecutor, because the runtime " +
+                    "does not support virtual threads.");
+        }
+
+        this.threadFactory = VIRTUAL_THREAD_FACTORY;
+    }
+
+    /**
+     * Returns whether the runtime supports virtual threads.
+     *
+     * @return true if virtual threads are supported
+     */
+    public static boolean isSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /**
+     * Looks up the factory for virtual threads.
+     *
+     * @return the virtual thread factory, null if virtual threads are not supported
+     */
+    private static ThreadFactory lookupVirtualThreadFactory() {
+        ThreadFactory factory = null;
+
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factoryMethod = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            factory = (ThreadFactory) factoryMethod.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // virtual threads are not available on this runtime
+        }
+
+        return factory;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Cannot execute task, because task is null.");
+        }
+
+        threadFactory.newThread(task).start();
+    }
+}
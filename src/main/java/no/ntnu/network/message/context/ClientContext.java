@@ -1,7 +1,14 @@
 package no.ntnu.network.message.context;
 
+import no.ntnu.network.message.encryption.ResumptionProof;
+import no.ntnu.network.message.encryption.cipher.decrypt.ResumptionDecryption;
 import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
+import no.ntnu.network.message.encryption.keygen.ECKeyAgreement;
+import no.ntnu.network.message.encryption.keygen.ECKeyPairGenerator;
 import no.ntnu.network.message.encryption.keygen.SymmetricKeyGenerator;
+import no.ntnu.network.message.request.AsymmetricEncryptionRequest;
+import no.ntnu.network.message.request.KeyAgreementRequest;
+import no.ntnu.network.message.request.ResumeSessionRequest;
 import no.ntnu.network.message.request.SymmetricEncryptionRequest;
 import no.ntnu.tools.logger.SimpleLogger;
 import no.ntnu.network.ControlCommAgent;
@@ -11,13 +18,25 @@ import no.ntnu.tools.eventformatter.ClientEventFormatter;
 
 import javax.crypto.SecretKey;
 import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
 import java.util.Set;
 
 /**
  * A message context for processing client messages.
+ * <p/>
+ * The context outlives the connections of its client, and keeps the secret key and resumption ticket of the last
+ * session, so that a client reconnecting to the central server can resume its session in a single round trip instead
+ * of repeating the handshake and registration.
  */
 public abstract class ClientContext extends MessageContext {
+    private volatile boolean keyAgreement;
+    private volatile boolean sessionResumption;
+    private volatile String resumptionTicket;
+    private volatile ResumptionDecryption resumptionDecryption;
+
     /**
      * Creates a new ClientContext.
      *
@@ -26,6 +45,135 @@ public abstract class ClientContext extends MessageContext {
      */
     protected ClientContext(ControlCommAgent agent, Set<SimpleLogger> loggers) {
         super(agent, loggers);
+
+        this.keyAgreement = false;
+        this.sessionResumption = true;
+        this.resumptionTicket = null;
+        this.resumptionDecryption = null;
+    }
+
+    /**
+     * Sets whether encryption is initiated by an elliptic-curve key agreement instead of asymmetric encryption.
+     * A key agreement takes a single round trip, and does not require the server to generate an RSA key pair.
+     *
+     * @param keyAgreement true to use key agreement, false to use asymmetric encryption
+     */
+    public void setKeyAgreement(boolean keyAgreement) {
+        this.keyAgreement = keyAgreement;
+    }
+
+    /**
+     * Sets whether a reconnecting client resumes its previous session when it holds a resumption ticket.
+     *
+     * @param sessionResumption true to resume sessions, false to always repeat the handshake
+     */
+    public void setSessionResumption(boolean sessionResumption) {
+        this.sessionResumption = sessionResumption;
+    }
+
+    /**
+     * Sets the ticket for resuming the current session.
+     *
+     * @param resumptionTicket the resumption ticket, null if the session cannot be resumed
+     */
+    public void setResumptionTicket(String resumptionTicket) {
+        this.resumptionTicket = resumptionTicket;
+    }
+
+    /**
+     * Returns the ticket for resuming the current session.
+     *
+     * @return the resumption ticket, null if the session cannot be resumed
+     */
+    public String getResumptionTicket() {
+        return resumptionTicket;
+    }
+
+    /**
+     * Initializes a secure session with the central server, resuming the previous session if possible, and starting
+     * the handshake otherwise.
+     * A ticket is only presented once, as the server redeems it whether the session is resumed or not.
+     */
+    public void initializeSession() {
+        String ticket = resumptionTicket;
+        SecretKey sessionKey = getSessionKey();
+
+        if (sessionResumption && ticket != null && sessionKey != null) {
+            resumptionTicket = null;
+
+            // the server responds encrypted with the session key if it resumes the session
+            resumptionDecryption = new ResumptionDecryption(sessionKey);
+            setDecryption(resumptionDecryption);
+
+            try {
+                agent.sendRequest(new ResumeSessionRequest(ticket, ResumptionProof.create(sessionKey, ticket)));
+            } catch (IOException e) {
+                logError("Could not send request: " + e.getMessage());
+            }
+        } else {
+            initializeHandshake();
+        }
+    }
+
+    /**
+     * Starts the handshake with the central server, requesting asymmetric encryption, or a key agreement if enabled.
+     */
+    private void initializeHandshake() {
+        try {
+            if (keyAgreement) {
+                ECKeyPairGenerator keyGen = new ECKeyPairGenerator();
+                keyGen.createKeys();
+                agent.sendRequest(new KeyAgreementRequest(keyGen.getKeyPair()));
+            } else {
+                agent.sendRequest(new AsymmetricEncryptionRequest());
+            }
+        } catch (NoSuchAlgorithmException e) {
+            logError("Cannot create key pair: " + e.getMessage());
+        } catch (IOException e) {
+            logError("Could not send request: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Completes the resumption of the previous session, encrypting all further communication using its secret key.
+     * The resumption is only completed if the response was encrypted with the secret key, showing that it was sent
+     * by the server holding the key.
+     *
+     * @param nodeAddress the address assigned to the client
+     * @param ticket the ticket for resuming the session again
+     */
+    public void completeSessionResumption(int nodeAddress, String ticket) {
+        ResumptionDecryption decryption = resumptionDecryption;
+
+        if (decryption != null && decryption.isSecure()) {
+            resumptionDecryption = null;
+            setSymmetricEncryption(getSessionKey());
+            setClientNodeAddress(nodeAddress);
+            resumptionTicket = ticket;
+        } else {
+            logError("Cannot complete session resumption, because the response was not encrypted with the " +
+                    "session key.");
+        }
+    }
+
+    /**
+     * Forgets the previous session after the central server declined to resume it.
+     * If the server declined in plain text, it does not hold the session key, and the handshake is started instead.
+     * If the server declined encrypted with the session key, it holds the key but could not register the client
+     * again, so the client registers over the secure connection.
+     */
+    public void declineSessionResumption() {
+        ResumptionDecryption decryption = resumptionDecryption;
+        resumptionDecryption = null;
+        resumptionTicket = null;
+
+        if (decryption != null && decryption.isSecure()) {
+            setSymmetricEncryption(getSessionKey());
+            register();
+        } else {
+            clearSessionKey();
+            initializeHandshake();
+        }
     }
 
     /**
@@ -42,6 +190,24 @@ public abstract class ClientContext extends MessageContext {
         }
     }
 
+    /**
+     * Completes a key agreement with the central server, and registers once the communication is secure.
+     *
+     * @param privateKey the private key of the client
+     * @param serverPublicKey the public key of the central server
+     */
+    public void completeKeyAgreement(PrivateKey privateKey, PublicKey serverPublicKey) {
+        try {
+            SecretKey secretKey = ECKeyAgreement.deriveSecretKey(privateKey, serverPublicKey);
+            setSymmetricEncryption(secretKey);
+
+            // as communication is now secure, the client can register
+            register();
+        } catch (GeneralSecurityException e) {
+            logError("Cannot derive secret key: " + e.getMessage());
+        }
+    }
+
     /**
      * Creates a secret key.
      *
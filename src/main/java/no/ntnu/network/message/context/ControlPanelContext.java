@@ -4,11 +4,13 @@ import no.ntnu.controlpanel.ControlPanel;
 import no.ntnu.controlpanel.virtual.VirtualFieldNode;
 import no.ntnu.exception.NoSuchVirtualDeviceException;
 import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.message.encryption.cipher.decrypt.DatagramKeyring;
 import no.ntnu.network.message.request.RegisterControlPanelRequest;
-import no.ntnu.network.sensordataprocess.UdpSensorDataSink;
+import no.ntnu.network.sensordataprocess.SensorDataSink;
 import no.ntnu.tools.logger.SimpleLogger;
 import no.ntnu.network.ControlCommAgent;
 
+import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Map;
@@ -16,10 +18,13 @@ import java.util.Set;
 
 /**
  * A message context for processing control panel messages.
+ * The context holds the keys used to decrypt the sensor data received: the key of the session, and the group key of
+ * every field node subscribed to.
  */
 public class ControlPanelContext extends ClientContext {
     private final ControlPanel controlPanel;
-    private UdpSensorDataSink dataSink;
+    private final DatagramKeyring sensorDataKeys;
+    private SensorDataSink dataSink;
 
     /**
      * Creates a ControlPanelContext.
@@ -35,6 +40,7 @@ public class ControlPanelContext extends ClientContext {
         }
 
         this.controlPanel = controlPanel;
+        this.sensorDataKeys = new DatagramKeyring();
     }
 
     /**
@@ -52,13 +58,36 @@ public class ControlPanelContext extends ClientContext {
      *
      * @param dataSink the data sink
      */
-    public void setDataSink(UdpSensorDataSink dataSink) {
+    public void setDataSink(SensorDataSink dataSink) {
         if (dataSink == null) {
             throw new IllegalArgumentException("Cannot set data sink, because dataSink is null.");
         }
         this.dataSink = dataSink;
     }
 
+    /**
+     * Returns the keys used to decrypt the sensor data received by the control panel.
+     *
+     * @return the sensor data keys
+     */
+    public DatagramKeyring getSensorDataKeys() {
+        return sensorDataKeys;
+    }
+
+    /**
+     * Adds the group key used to decrypt the sensor data of a field node, replacing any earlier key.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param groupKey the group key of the field node
+     */
+    public void addSensorDataKey(int fieldNodeAddress, SecretKey groupKey) {
+        if (groupKey == null) {
+            throw new IllegalArgumentException("Cannot add sensor data key, because groupKey is null.");
+        }
+
+        sensorDataKeys.addChannel(fieldNodeAddress, groupKey);
+    }
+
     /**
      * Adds a new virtual field node to the control panel.
      *
@@ -81,6 +110,7 @@ public class ControlPanelContext extends ClientContext {
      */
     public void removeVirtualFieldNode(int fieldNodeAddress) {
         controlPanel.removeVirtualFieldNode(fieldNodeAddress);
+        sensorDataKeys.removeChannel(fieldNodeAddress);
     }
 
     /**
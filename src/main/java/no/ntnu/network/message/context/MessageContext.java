@@ -1,12 +1,15 @@
 package no.ntnu.network.message.context;
 
 import no.ntnu.network.ControlCommAgent;
+import no.ntnu.network.message.encryption.cipher.decrypt.AESDecryption;
 import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
+import no.ntnu.network.message.encryption.cipher.encrypt.AESEncryption;
 import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
 import no.ntnu.network.message.request.RequestMessage;
 import no.ntnu.network.message.response.ResponseMessage;
 import no.ntnu.tools.logger.SimpleLogger;
 
+import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.util.Set;
 
@@ -17,6 +20,7 @@ import java.util.Set;
 public abstract class MessageContext {
     protected final ControlCommAgent agent;
     private final Set<SimpleLogger> loggers;
+    private volatile SecretKey sessionKey;
 
     /**
      * Creates a new MessageContext.
@@ -34,6 +38,7 @@ public abstract class MessageContext {
 
         this.agent = agent;
         this.loggers = loggers;
+        this.sessionKey = null;
     }
 
     /**
@@ -121,6 +126,38 @@ public abstract class MessageContext {
         agent.setDecryption(decryption);
     }
 
+    /**
+     * Encrypts all further communication using a symmetric secret key, remembering the key as the key of the
+     * session.
+     *
+     * @param secretKey the secret key of the session
+     */
+    public void setSymmetricEncryption(SecretKey secretKey) {
+        if (secretKey == null) {
+            throw new IllegalArgumentException("Cannot set symmetric encryption, because secretKey is null.");
+        }
+
+        sessionKey = secretKey;
+        setEncryption(new AESEncryption(secretKey));
+        setDecryption(new AESDecryption(secretKey));
+    }
+
+    /**
+     * Returns the secret key of the session.
+     *
+     * @return the session key, null if symmetric encryption has not been initiated
+     */
+    public SecretKey getSessionKey() {
+        return sessionKey;
+    }
+
+    /**
+     * Forgets the secret key of the session. The encryption strategies in use are not changed.
+     */
+    protected void clearSessionKey() {
+        sessionKey = null;
+    }
+
     /**
      * Logs info.
      *
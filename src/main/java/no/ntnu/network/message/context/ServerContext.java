@@ -11,11 +11,16 @@ import no.ntnu.network.representation.FieldNodeInformation;
 import no.ntnu.network.sensordataprocess.UdpDataCommAgentProvider;
 import no.ntnu.network.centralserver.centralhub.CentralHub;
 import no.ntnu.network.centralserver.centralhub.clientproxy.FieldNodeClientProxy;
+import no.ntnu.network.centralserver.resumption.ResumableSession;
+import no.ntnu.network.centralserver.resumption.SessionRegistration;
+import no.ntnu.network.message.encryption.ResumptionProof;
+import no.ntnu.network.message.encryption.cipher.encrypt.DatagramEncryption;
 import no.ntnu.network.message.request.FieldNodeActivateActuatorRequest;
 import no.ntnu.network.message.request.RequestMessage;
 import no.ntnu.network.message.response.ResponseMessage;
 import no.ntnu.tools.eventformatter.ServerEventFormatter;
 
+import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Map;
@@ -63,6 +68,8 @@ public class ServerContext extends MessageContext {
 
     /**
      * Registers a field node client at the central server.
+     * If the session is encrypted with a secret key, the sensor data datagrams pushed by the field node are decrypted
+     * using a key derived from it.
      *
      * @param fieldNodeInformation information about the field node
      * @return the assigned address for the field node client
@@ -71,6 +78,10 @@ public class ServerContext extends MessageContext {
     public int registerFieldNodeClient(FieldNodeInformation fieldNodeInformation) throws ClientRegistrationException {
         int clientAddress = centralHub.registerFieldNode(fieldNodeInformation, agent);
         if (clientAddress != -1) {
+            SecretKey sessionKey = getSessionKey();
+            if (sessionKey != null) {
+                centralHub.getSensorDataKeys().addChannel(clientAddress, sessionKey);
+            }
             agent.setClientNodeAddress(clientAddress);
         }
 
@@ -79,6 +90,8 @@ public class ServerContext extends MessageContext {
 
     /**
      * Registers a control panel client at the central server.
+     * If the session is encrypted with a secret key, the sensor data datagrams sent to the control panel are
+     * encrypted using a key derived from it.
      *
      * @param compatibilityList  the compatibility list for the control panel
      * @param dataSinkPortNumber the port number for the control panel data sink
@@ -92,6 +105,10 @@ public class ServerContext extends MessageContext {
             DataCommAgent dataAgent = udpDataSink.getDataCommAgent(dataSinkPortNumber);
             clientAddress = centralHub.registerControlPanel(compatibilityList, agent, dataAgent);
             if (clientAddress != -1) {
+                SecretKey sessionKey = getSessionKey();
+                if (sessionKey != null) {
+                    dataAgent.setEncryption(new DatagramEncryption(sessionKey, clientAddress));
+                }
                 agent.setClientNodeAddress(clientAddress);
             }
         } catch (IOException e) {
@@ -101,6 +118,77 @@ public class ServerContext extends MessageContext {
         return clientAddress;
     }
 
+    /**
+     * Issues a ticket that lets the registered client resume its session when reconnecting.
+     * Only sessions encrypted with a symmetric secret key can be resumed.
+     *
+     * @param registration the registration of the client, repeated when the session is resumed
+     * @return the resumption ticket, null if the session cannot be resumed
+     */
+    public String issueResumptionTicket(SessionRegistration registration) {
+        String ticket = null;
+
+        SecretKey sessionKey = getSessionKey();
+        if (sessionKey != null) {
+            ticket = centralHub.getResumptionTickets().issue(sessionKey, registration);
+        }
+
+        return ticket;
+    }
+
+    /**
+     * Redeems the resumption ticket of a reconnecting client, and registers the client the way it was registered in
+     * the resumed session.
+     * Once the proof has been verified, all further communication is encrypted with the secret key of the session,
+     * before the client is registered, so that the registration can key the sensor data of the client with it.
+     * The ticket is redeemed even if the proof does not match, so that it cannot be guessed against.
+     *
+     * @param ticket the resumption ticket
+     * @param proof the proof that the client holds the secret key of the session
+     * @return the resumed session
+     * @throws ClientRegistrationException thrown if the session cannot be resumed, or registration fails
+     */
+    public ResumableSession resumeSession(String ticket, String proof) throws ClientRegistrationException {
+        if (isClientRegistered()) {
+            throw new ClientRegistrationException("Cannot resume session, because the client is already registered.");
+        }
+
+        ResumableSession session = centralHub.getResumptionTickets().redeem(ticket);
+        if (session == null) {
+            throw new ClientRegistrationException("Cannot resume session, because the ticket is unknown or has " +
+                    "expired.");
+        }
+
+        if (!ResumptionProof.verify(session.secretKey(), ticket, proof)) {
+            throw new ClientRegistrationException("Cannot resume session, because the client could not prove that " +
+                    "it holds the session key.");
+        }
+
+        setSymmetricEncryption(session.secretKey());
+        session.registration().register(this);
+
+        return session;
+    }
+
+    /**
+     * Issues a new ticket for a resumed session.
+     *
+     * @param session the resumed session
+     * @return the new resumption ticket
+     */
+    public String reissueResumptionTicket(ResumableSession session) {
+        return centralHub.getResumptionTickets().reissue(session);
+    }
+
+    /**
+     * Returns the address of the connected client.
+     *
+     * @return the client address, -1 if not registered
+     */
+    public int getClientNodeAddress() {
+        return agent.getClientNodeAddress();
+    }
+
     /**
      * Deregisters the connected client.
      */
@@ -152,6 +240,17 @@ public class ServerContext extends MessageContext {
         centralHub.unsubscribeFromFieldNode(agent, fieldNodeAddress);
     }
 
+    /**
+     * Marks the control panel as holding the group key of a field node, so that it is sent the sensor data of the
+     * field node encrypted once for all subscribers holding the key.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param epoch the epoch of the accepted group key
+     */
+    public void acceptSensorDataKey(int fieldNodeAddress, int epoch) {
+        centralHub.acceptSensorDataKey(agent, fieldNodeAddress, epoch);
+    }
+
     /**
      * Requests the change of state for an actuator on a remote field node.
      *
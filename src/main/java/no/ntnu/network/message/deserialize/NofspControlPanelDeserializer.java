@@ -9,6 +9,7 @@ import no.ntnu.network.message.deserialize.component.DeviceLookupTable;
 import no.ntnu.network.message.deserialize.component.NofspClientMessageDeserializer;
 import no.ntnu.network.message.deserialize.component.NofspSensorDataDeserializer;
 import no.ntnu.network.message.deserialize.component.SensorDataMessageDeserializer;
+import no.ntnu.network.message.request.SensorDataKeyRequest;
 import no.ntnu.network.message.request.ServerFnsmNotificationRequest;
 import no.ntnu.network.message.response.ActuatorStateSetControlPanelResponse;
 import no.ntnu.network.message.response.FieldNodePoolResponse;
@@ -16,11 +17,13 @@ import no.ntnu.network.message.response.SubscribedToFieldNodeResponse;
 import no.ntnu.network.message.response.UnsubscribedFromFieldNodeResponse;
 import no.ntnu.network.message.response.error.FieldNodeUnreachableError;
 import no.ntnu.network.message.sensordata.SensorDataMessage;
+import no.ntnu.network.message.sensordata.SensorDataReceiver;
 import no.ntnu.network.message.serialize.NofspSerializationConstants;
 import no.ntnu.network.message.serialize.tool.DataTypeConverter;
-import no.ntnu.network.message.serialize.tool.tlv.Tlv;
 import no.ntnu.network.message.serialize.tool.tlv.TlvReader;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 
+import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.util.Map;
 
@@ -41,16 +44,22 @@ public class NofspControlPanelDeserializer extends NofspClientMessageDeserialize
     }
 
     @Override
-    public SensorDataMessage deserializeSensorData(Tlv tlv) throws IOException {
+    public SensorDataMessage deserializeSensorData(TlvView tlv) throws IOException {
         return sensorDataDeserializer.deserializeMessage(tlv);
     }
 
+    @Override
+    public void deserializeSensorData(TlvView tlv, SensorDataReceiver receiver) throws IOException {
+        sensorDataDeserializer.deserializeMessage(tlv, receiver);
+    }
+
     /**
      * Adds the implemented control panel message deserialization methods to the lookup tables.
      */
     private void initializeDeserializationMethods() {
         // requests
         addRequestMessageDeserialization(NofspSerializationConstants.FNSM_NOTIFICATION_COMMAND, this::getServerFnsmNotificationRequest);
+        addRequestMessageDeserialization(NofspSerializationConstants.SENSOR_DATA_KEY_COMMAND, this::getSensorDataKeyRequest);
 
         // responses
         addResponseMessageDeserialization(NofspSerializationConstants.FIELD_NODE_POOL_CODE, this::getFieldNodePoolResponse);
@@ -72,7 +81,7 @@ public class NofspControlPanelDeserializer extends NofspClientMessageDeserialize
         FieldNodePoolResponse response = null;
 
         // deserializes field node pool
-        Tlv fieldNodePoolTlv = parameterReader.readNextTlv();
+        TlvView fieldNodePoolTlv = parameterReader.readNextView();
         ByteSerializableMap<ByteSerializableInteger, ByteSerializableString> serializableFieldNodePool =
                 getMapOfType(fieldNodePoolTlv, ByteSerializableInteger.class, ByteSerializableString.class);
         Map<Integer, String> fieldNodePool = DataTypeConverter.getFieldNodePool(serializableFieldNodePool);
@@ -94,20 +103,20 @@ public class NofspControlPanelDeserializer extends NofspClientMessageDeserialize
         SubscribedToFieldNodeResponse response = null;
 
         // deserializes the field node address
-        int fieldNodeAddress = getRegularInt(parameterReader.readNextTlv());
+        int fieldNodeAddress = getRegularInt(parameterReader.readNextView());
 
         // deserializes FNST
         ByteSerializableMap<ByteSerializableInteger, ByteSerializableString> serializableFnst
-                = getMapOfType(parameterReader.readNextTlv(), ByteSerializableInteger.class, ByteSerializableString.class);
+                = getMapOfType(parameterReader.readNextView(), ByteSerializableInteger.class, ByteSerializableString.class);
         Map<Integer, DeviceClass> fnst = DataTypeConverter.getFnst(serializableFnst);
 
         // deserializes FNSM
         ByteSerializableMap<ByteSerializableInteger, ByteSerializableInteger> serializableFnsm
-                = getMapOfType(parameterReader.readNextTlv(), ByteSerializableInteger.class, ByteSerializableInteger.class);
+                = getMapOfType(parameterReader.readNextView(), ByteSerializableInteger.class, ByteSerializableInteger.class);
         Map<Integer, Integer> fnsm = DataTypeConverter.getFnsm(serializableFnsm);
 
         // deserializes name
-        String name = getRegularString(parameterReader.readNextTlv());
+        String name = getRegularString(parameterReader.readNextView());
 
         response = new SubscribedToFieldNodeResponse(messageId, fieldNodeAddress, fnst, fnsm, name);
 
@@ -126,13 +135,13 @@ public class NofspControlPanelDeserializer extends NofspClientMessageDeserialize
         ServerFnsmNotificationRequest request = null;
 
         // deserializes the field node address
-        int fieldNodeAddress = getRegularInt(parameterReader.readNextTlv());
+        int fieldNodeAddress = getRegularInt(parameterReader.readNextView());
 
         // deserializes the actuator address
-        int actuatorAddress = getRegularInt(parameterReader.readNextTlv());
+        int actuatorAddress = getRegularInt(parameterReader.readNextView());
 
         // deserializes the new state
-        int newState = getRegularInt(parameterReader.readNextTlv());
+        int newState = getRegularInt(parameterReader.readNextView());
 
         request = new ServerFnsmNotificationRequest(messageId, fieldNodeAddress, actuatorAddress, newState);
 
@@ -163,7 +172,7 @@ public class NofspControlPanelDeserializer extends NofspClientMessageDeserialize
         FieldNodeUnreachableError response = null;
 
         // deserializes the error description
-        String description = getRegularString(parameterReader.readNextTlv());
+        String description = getRegularString(parameterReader.readNextView());
 
         response = new FieldNodeUnreachableError(messageId, description);
 
@@ -181,10 +190,35 @@ public class NofspControlPanelDeserializer extends NofspClientMessageDeserialize
         UnsubscribedFromFieldNodeResponse response = null;
 
         // deserializes the field node address
-        int fieldNodeAddress = getRegularInt(parameterReader.readNextTlv());
+        int fieldNodeAddress = getRegularInt(parameterReader.readNextView());
 
         response = new UnsubscribedFromFieldNodeResponse(messageId, fieldNodeAddress);
 
         return response;
     }
+
+    /**
+     * Deserializes a {@code SensorDataKeyRequest}.
+     *
+     * @param messageId the message id
+     * @param parameterReader a TlvReader holding the message parameters
+     * @return the deserialized request
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private SensorDataKeyRequest getSensorDataKeyRequest(int messageId, TlvReader parameterReader) throws IOException {
+        SensorDataKeyRequest request = null;
+
+        // deserializes the field node address
+        int fieldNodeAddress = getRegularInt(parameterReader.readNextView());
+
+        // deserializes the epoch of the key
+        int epoch = getRegularInt(parameterReader.readNextView());
+
+        // deserializes the group key
+        SecretKey groupKey = getAESSecretKey(parameterReader.readNextView()).key();
+
+        request = new SensorDataKeyRequest(messageId, fieldNodeAddress, epoch, groupKey);
+
+        return request;
+    }
 }
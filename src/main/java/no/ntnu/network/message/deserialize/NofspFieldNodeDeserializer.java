@@ -54,7 +54,7 @@ public class NofspFieldNodeDeserializer extends NofspClientMessageDeserializer<F
 
         // deserializes the adl update set
         ByteSerializableSet<ByteSerializableInteger> serializableAdlUpdate
-                = getSetOfType(parameterReader.readNextTlv(), ByteSerializableInteger.class);
+                = getSetOfType(parameterReader.readNextView(), ByteSerializableInteger.class);
         Set<Integer> adlUpdates = DataTypeConverter.getSetOfIntegers(serializableAdlUpdate);
 
         request = new AdlUpdateRequest(messageId, adlUpdates);
@@ -85,7 +85,7 @@ public class NofspFieldNodeDeserializer extends NofspClientMessageDeserializer<F
         ServerFnsmUpdateRejectedError response = null;
 
         // deserializes the error description
-        String description = getRegularString(parameterReader.readNextTlv());
+        String description = getRegularString(parameterReader.readNextView());
 
         response = new ServerFnsmUpdateRejectedError(messageId, description);
 
@@ -104,10 +104,10 @@ public class NofspFieldNodeDeserializer extends NofspClientMessageDeserializer<F
         FieldNodeActivateActuatorRequest request = null;
 
         // deserializes the actuator address
-        int actuatorAddress = getRegularInt(parameterReader.readNextTlv());
+        int actuatorAddress = getRegularInt(parameterReader.readNextView());
 
         // deserializes the new state
-        int newState = getRegularInt(parameterReader.readNextTlv());
+        int newState = getRegularInt(parameterReader.readNextView());
 
         request = new FieldNodeActivateActuatorRequest(messageId, actuatorAddress, newState);
 
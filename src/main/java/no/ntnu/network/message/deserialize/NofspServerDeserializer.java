@@ -13,14 +13,16 @@ import no.ntnu.network.message.response.error.AdlUpdateRejectedError;
 import no.ntnu.network.message.response.error.DeviceInteractionFailedError;
 import no.ntnu.network.message.response.error.NoSuchVirtualDeviceError;
 import no.ntnu.network.message.sensordata.SensorDataMessage;
+import no.ntnu.network.message.sensordata.SensorDataReceiver;
 import no.ntnu.network.message.serialize.NofspSerializationConstants;
 import no.ntnu.network.message.serialize.tool.DataTypeConverter;
-import no.ntnu.network.message.serialize.tool.tlv.Tlv;
 import no.ntnu.network.message.serialize.tool.tlv.TlvReader;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 import no.ntnu.network.representation.FieldNodeInformation;
 
 import javax.crypto.SecretKey;
 import java.io.IOException;
+import java.security.PublicKey;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -41,10 +43,15 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
     }
 
     @Override
-    public SensorDataMessage deserializeSensorData(Tlv tlv) throws IOException {
+    public SensorDataMessage deserializeSensorData(TlvView tlv) throws IOException {
         return sensorDataDeserializer.deserializeMessage(tlv);
     }
 
+    @Override
+    public void deserializeSensorData(TlvView tlv, SensorDataReceiver receiver) throws IOException {
+        sensorDataDeserializer.deserializeMessage(tlv, receiver);
+    }
+
     /**
      * Adds the implemented server message deserialization methods to the lookup tables.
      */
@@ -60,6 +67,8 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
         addRequestMessageDeserialization(NofspSerializationConstants.DISCONNECT_CLIENT_COMMAND, this::getDisconnectRequest);
         addRequestMessageDeserialization(NofspSerializationConstants.ASYMMETRIC_ENCRYPTION_REQUEST, this::getAsymmetricEncryptionRequest);
         addRequestMessageDeserialization(NofspSerializationConstants.SYMMETRIC_ENCRYPTION_REQUEST, this::getSymmetricEncryptionRequest);
+        addRequestMessageDeserialization(NofspSerializationConstants.KEY_AGREEMENT_REQUEST, this::getKeyAgreementRequest);
+        addRequestMessageDeserialization(NofspSerializationConstants.RESUME_SESSION_REQUEST, this::getResumeSessionRequest);
 
         // responses
         addResponseMessageDeserialization(NofspSerializationConstants.HEART_BEAT_CODE, this::getHeartBeatResponse);
@@ -69,6 +78,7 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
         addResponseMessageDeserialization(NofspSerializationConstants.NO_SUCH_VIRTUAL_DEVICE_CODE, this::getNoSuchVirtualDeviceError);
         addResponseMessageDeserialization(NofspSerializationConstants.ACTUATOR_STATE_SET_CODE, this::getActuatorStateSetServerResponse);
         addResponseMessageDeserialization(NofspSerializationConstants.DEVICE_INTERACTION_FAILED_CODE, this::getDeviceInteractionFailedError);
+        addResponseMessageDeserialization(NofspSerializationConstants.SENSOR_DATA_KEY_ACCEPTED_CODE, this::getSensorDataKeyAcceptedResponse);
     }
 
     /**
@@ -83,15 +93,15 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
         RegisterFieldNodeRequest request = null;
 
         // deserializes fnst
-        Tlv fnstTlv = parameterReader.readNextTlv();
+        TlvView fnstTlv = parameterReader.readNextView();
         Map<Integer, DeviceClass> fnst = getFnst(fnstTlv);
 
         // deserializes fnsm
-        Tlv fnsmTlv = parameterReader.readNextTlv();
+        TlvView fnsmTlv = parameterReader.readNextView();
         Map<Integer, Integer> fnsm = getFnsm(fnsmTlv);
 
         // deserializes the name
-        Tlv nameTlv = parameterReader.readNextTlv();
+        TlvView nameTlv = parameterReader.readNextView();
         String name = getFieldNodeName(nameTlv);
 
         FieldNodeInformation fieldNodeInformation = new FieldNodeInformation(fnst, fnsm, name);
@@ -108,7 +118,7 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
      * @return the reconstructed fnst
      * @throws IOException thrown if an I/O exception occurs
      */
-    private Map<Integer, DeviceClass> getFnst(Tlv fnstTlv) throws IOException {
+    private Map<Integer, DeviceClass> getFnst(TlvView fnstTlv) throws IOException {
         ByteSerializableMap<ByteSerializableInteger, ByteSerializableString> serializableFnst
                 = getMapOfType(fnstTlv, ByteSerializableInteger.class, ByteSerializableString.class);
         return DataTypeConverter.getFnst(serializableFnst);
@@ -121,7 +131,7 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
      * @return the reconstructed fnsm
      * @throws IOException thrown if an I/O exception occurs
      */
-    private Map<Integer, Integer> getFnsm(Tlv fnsmTlv) throws IOException {
+    private Map<Integer, Integer> getFnsm(TlvView fnsmTlv) throws IOException {
         Map<Integer, Integer> fnsm = new HashMap<>();
 
         ByteSerializableMap<ByteSerializableInteger, ByteSerializableInteger> serializableFnsm =
@@ -137,7 +147,7 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
      * @param nameTlv the string tlv representing the field node name
      * @return the field node name, null if none is found
      */
-    private String getFieldNodeName(Tlv nameTlv) {
+    private String getFieldNodeName(TlvView nameTlv) {
         String name = null;
 
         if (nameTlv != null) {
@@ -160,11 +170,11 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
         RegisterControlPanelRequest request = null;
 
         // deserializes compatibility list
-        Tlv compatibilityListTlv = parameterReader.readNextTlv();
+        TlvView compatibilityListTlv = parameterReader.readNextView();
         ByteSerializableSet<ByteSerializableString> serializableCompatibilityList = getSetOfType(compatibilityListTlv, ByteSerializableString.class);
 
         // deserializes data sink port number
-        int dataSinkPortNumber = getRegularInt(parameterReader.readNextTlv());
+        int dataSinkPortNumber = getRegularInt(parameterReader.readNextView());
 
         request = new RegisterControlPanelRequest(messageId, DataTypeConverter.getCompatibilityList(serializableCompatibilityList), dataSinkPortNumber);
 
@@ -183,7 +193,7 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
         SubscribeToFieldNodeRequest request = null;
 
         // deserializes field node address
-        Tlv fieldNodeAddressTlv = parameterReader.readNextTlv();
+        TlvView fieldNodeAddressTlv = parameterReader.readNextView();
         ByteSerializableInteger serializableAddress = getInteger(fieldNodeAddressTlv);
 
         request = new SubscribeToFieldNodeRequest(messageId, serializableAddress.getInteger());
@@ -224,7 +234,7 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
         AdlUpdatedResponse response = null;
 
         // deserializes the updated adl
-        ByteSerializableSet<ByteSerializableInteger> updatedAdl = getSetOfType(parameterReader.readNextTlv(),
+        ByteSerializableSet<ByteSerializableInteger> updatedAdl = getSetOfType(parameterReader.readNextView(),
                 ByteSerializableInteger.class);
 
         response = new AdlUpdatedResponse(messageId, DataTypeConverter.getSetOfIntegers(updatedAdl));
@@ -244,7 +254,7 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
         AdlUpdateRejectedError response = null;
 
         // deserializes the description
-        String description = getRegularString(parameterReader.readNextTlv());
+        String description = getRegularString(parameterReader.readNextView());
 
         response = new AdlUpdateRejectedError(messageId, description);
 
@@ -263,10 +273,10 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
         ActuatorNotificationRequest request = null;
 
         // deserializes the actuator address
-        int actuatorAddress = getRegularInt(parameterReader.readNextTlv());
+        int actuatorAddress = getRegularInt(parameterReader.readNextView());
 
         // deserializes the new state
-        int newState = getRegularInt(parameterReader.readNextTlv());
+        int newState = getRegularInt(parameterReader.readNextView());
 
         request = new ActuatorNotificationRequest(messageId, actuatorAddress, newState);
 
@@ -297,7 +307,7 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
         NoSuchVirtualDeviceError response = null;
 
         // deserializes the error description
-        String description = getRegularString(parameterReader.readNextTlv());
+        String description = getRegularString(parameterReader.readNextView());
 
         response = new NoSuchVirtualDeviceError(messageId, description);
 
@@ -316,13 +326,13 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
         ServerActivateActuatorRequest request = null;
 
         // deserializes the field node address
-        int fieldNodeAddress = getRegularInt(parameterReader.readNextTlv());
+        int fieldNodeAddress = getRegularInt(parameterReader.readNextView());
 
         // deserializes the actuator address
-        int actuatorAddress = getRegularInt(parameterReader.readNextTlv());
+        int actuatorAddress = getRegularInt(parameterReader.readNextView());
 
         // deserializes the new state
-        int newState = getRegularInt(parameterReader.readNextTlv());
+        int newState = getRegularInt(parameterReader.readNextView());
 
         request = new ServerActivateActuatorRequest(messageId, fieldNodeAddress, actuatorAddress, newState);
 
@@ -352,7 +362,7 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
         DeviceInteractionFailedError response = null;
 
         // deserializes the error description
-        String description = getRegularString(parameterReader.readNextTlv());
+        String description = getRegularString(parameterReader.readNextView());
 
         response = new DeviceInteractionFailedError(messageId, description);
 
@@ -371,7 +381,7 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
         UnsubscribeFromFieldNodeRequest request = null;
 
         // deserializes the field node address
-        int fieldNodeAddress = getRegularInt(parameterReader.readNextTlv());
+        int fieldNodeAddress = getRegularInt(parameterReader.readNextView());
 
         request = new UnsubscribeFromFieldNodeRequest(messageId, fieldNodeAddress);
 
@@ -412,10 +422,71 @@ public class NofspServerDeserializer extends NofspMessageDeserializer<ServerCont
         SymmetricEncryptionRequest request = null;
 
         // deserializes the secret key
-        SecretKey key = getAESSecretKey(parameterReader.readNextTlv()).key();
+        SecretKey key = getAESSecretKey(parameterReader.readNextView()).key();
 
         request = new SymmetricEncryptionRequest(messageId, key);
 
         return request;
     }
+
+    /**
+     * Deserializes a {@code KeyAgreementRequest}.
+     *
+     * @param messageId the message id
+     * @param parameterReader a TlvReader holding the parameter tlvs
+     * @return the deserialized request
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private KeyAgreementRequest getKeyAgreementRequest(int messageId, TlvReader parameterReader) throws IOException {
+        KeyAgreementRequest request = null;
+
+        // deserializes the public key
+        PublicKey publicKey = getKeyAgreementPublicKey(parameterReader.readNextView()).key();
+
+        request = new KeyAgreementRequest(messageId, publicKey);
+
+        return request;
+    }
+
+    /**
+     * Deserializes a {@code ResumeSessionRequest}.
+     *
+     * @param messageId the message id
+     * @param parameterReader a TlvReader holding the parameter tlvs
+     * @return the deserialized request
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private ResumeSessionRequest getResumeSessionRequest(int messageId, TlvReader parameterReader) throws IOException {
+        ResumeSessionRequest request = null;
+
+        // deserializes the ticket and the proof
+        String ticket = getRegularString(parameterReader.readNextView());
+        String proof = getRegularString(parameterReader.readNextView());
+
+        request = new ResumeSessionRequest(messageId, ticket, proof);
+
+        return request;
+    }
+
+    /**
+     * Deserializes a {@code SensorDataKeyAcceptedResponse}.
+     *
+     * @param messageId the message id
+     * @param parameterReader a TlvReader holding the parameter tlvs
+     * @return the deserialized response
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private SensorDataKeyAcceptedResponse getSensorDataKeyAcceptedResponse(int messageId, TlvReader parameterReader) throws IOException {
+        SensorDataKeyAcceptedResponse response = null;
+
+        // deserializes the field node address
+        int fieldNodeAddress = getRegularInt(parameterReader.readNextView());
+
+        // deserializes the epoch of the key
+        int epoch = getRegularInt(parameterReader.readNextView());
+
+        response = new SensorDataKeyAcceptedResponse(messageId, fieldNodeAddress, epoch);
+
+        return response;
+    }
 }
@@ -0,0 +1,62 @@
+package no.ntnu.network.message.deserialize.component;
+
+import java.util.Arrays;
+
+/**
+ * A lookup table mapping non-negative integer codes, such as TLV type codes and response status codes, to entries.
+ * The entries are held in a dense array indexed by the code itself, so that a lookup is a single bounds check and
+ * array access, without boxing the code or hashing it. The array grows to fit the highest code put into the table,
+ * which makes the table suitable for the small and tightly packed codes used by NOFSP.
+ *
+ * @param <T> the type of entries
+ */
+final class CodeTable<T> {
+    private static final int MAX_CODE = 0xFFFF;
+    private Object[] entries;
+
+    /**
+     * Creates a new CodeTable.
+     */
+    CodeTable() {
+        this.entries = new Object[0];
+    }
+
+    /**
+     * Puts an entry for a given code into the table, replacing any entry already put for the code.
+     *
+     * @param code the code, between 0 and 65535
+     * @param entry the entry
+     */
+    void put(int code, T entry) {
+        if (code < 0 || code > MAX_CODE) {
+            throw new IllegalArgumentException("Cannot put entry, because code " + code + " is out of range.");
+        }
+
+        if (entry == null) {
+            throw new IllegalArgumentException("Cannot put entry, because entry is null.");
+        }
+
+        if (code >= entries.length) {
+            entries = Arrays.copyOf(entries, code + 1);
+        }
+
+        entries[code] = entry;
+    }
+
+    /**
+     * Returns the entry for a given code.
+     *
+     * @param code the code
+     * @return the entry, null if no entry has been put for the code
+     */
+    @SuppressWarnings("unchecked")
+    T get(int code) {
+        T result = null;
+
+        if (code >= 0 && code < entries.length) {
+            result = (T) entries[code];
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,130 @@
+package no.ntnu.network.message.deserialize.component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A lookup table mapping request commands to entries.
+ * The commands are encoded to UTF-8 once when put into the table, and held in an open-addressing hash table keyed
+ * by the encoded bytes. A lookup hashes and compares a range of bytes in place, such as the value-field of a
+ * received command TLV, so that no string needs to be decoded for finding the entry of a command.
+ *
+ * @param <T> the type of entries
+ */
+final class CommandTable<T> {
+    private byte[][] commands;
+    private Object[] entries;
+    private int size;
+
+    /**
+     * Creates a new CommandTable.
+     */
+    CommandTable() {
+        this.commands = new byte[16][];
+        this.entries = new Object[16];
+        this.size = 0;
+    }
+
+    /**
+     * Puts an entry for a given command into the table, replacing any entry already put for the command.
+     *
+     * @param command the command
+     * @param entry the entry
+     */
+    void put(String command, T entry) {
+        if (command == null) {
+            throw new IllegalArgumentException("Cannot put entry, because command is null.");
+        }
+
+        if (entry == null) {
+            throw new IllegalArgumentException("Cannot put entry, because entry is null.");
+        }
+
+        // keeps the table at most half full, so that probe sequences stay short
+        if (2 * (size + 1) > commands.length) {
+            grow();
+        }
+
+        byte[] commandBytes = command.getBytes(StandardCharsets.UTF_8);
+        int slot = findSlot(commandBytes, 0, commandBytes.length);
+        if (commands[slot] == null) {
+            commands[slot] = commandBytes;
+            size++;
+        }
+        entries[slot] = entry;
+    }
+
+    /**
+     * Returns the entry for a command given as a range of UTF-8 encoded bytes.
+     *
+     * @param bytes the array holding the command
+     * @param offset the index of the first byte of the command
+     * @param length the number of bytes in the command
+     * @return the entry, null if no entry has been put for the command
+     */
+    @SuppressWarnings("unchecked")
+    T get(byte[] bytes, int offset, int length) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("Cannot get entry, because bytes is null.");
+        }
+
+        return (T) entries[findSlot(bytes, offset, length)];
+    }
+
+    /**
+     * Finds the slot holding a given command, or the empty slot where the command would be put.
+     *
+     * @param bytes the array holding the command
+     * @param offset the index of the first byte of the command
+     * @param length the number of bytes in the command
+     * @return the index of the slot
+     */
+    private int findSlot(byte[] bytes, int offset, int length) {
+        int mask = commands.length - 1;
+        int slot = hash(bytes, offset, length) & mask;
+
+        while (commands[slot] != null
+                && !Arrays.equals(commands[slot], 0, commands[slot].length, bytes, offset, offset + length)) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Doubles the number of slots in the table, putting every command into its new slot.
+     */
+    private void grow() {
+        byte[][] oldCommands = commands;
+        Object[] oldEntries = entries;
+        commands = new byte[oldCommands.length * 2][];
+        entries = new Object[oldEntries.length * 2];
+
+        for (int i = 0; i < oldCommands.length; i++) {
+            if (oldCommands[i] != null) {
+                int slot = findSlot(oldCommands[i], 0, oldCommands[i].length);
+                commands[slot] = oldCommands[i];
+                entries[slot] = oldEntries[i];
+            }
+        }
+    }
+
+    /**
+     * Hashes a range of bytes.
+     *
+     * @param bytes the array holding the bytes
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     * @return the hash
+     */
+    private static int hash(byte[] bytes, int offset, int length) {
+        int result = 1;
+
+        for (int i = offset; i < offset + length; i++) {
+            result = 31 * result + bytes[i];
+        }
+
+        // spreads the higher bits into the lower bits, as only the lower bits select the slot
+        return result ^ (result >>> 16);
+    }
+}
@@ -5,6 +5,7 @@ import no.ntnu.network.message.context.MessageContext;
 import no.ntnu.network.message.sensordata.SensorDataMessage;
 import no.ntnu.network.message.serialize.tool.tlv.Tlv;
 import no.ntnu.network.message.serialize.tool.tlv.TlvFrame;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 
 import java.io.IOException;
 
@@ -23,6 +24,23 @@ public interface MessageDeserializer<C extends MessageContext> {
      */
     Message<C> deserializeMessage(Tlv tlv) throws IOException;
 
+    /**
+     * Deserializes a view of a control message TLV into a {@code Message} object.
+     * The view is only read during the call, so its backing array may be reused afterwards.
+     * The default implementation materializes the view before deserializing it.
+     *
+     * @param tlv the tlv to deserialize
+     * @return the deserialized message
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    default Message<C> deserializeMessage(TlvView tlv) throws IOException {
+        if (tlv == null) {
+            throw new IllegalArgumentException("Cannot deserialize TLV, because TLV is null.");
+        }
+
+        return deserializeMessage(tlv.toTlv());
+    }
+
     /**
      * Returns the TLV frame used for deserialization.
      *
@@ -5,8 +5,10 @@ import no.ntnu.network.message.request.HeartbeatRequest;
 import no.ntnu.network.message.response.*;
 import no.ntnu.network.message.response.error.SubscriptionError;
 import no.ntnu.network.message.response.error.RegistrationDeclinedError;
+import no.ntnu.network.message.response.error.ResumptionDeclinedError;
 import no.ntnu.network.message.serialize.NofspSerializationConstants;
 import no.ntnu.network.message.serialize.tool.tlv.TlvReader;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 
 import javax.crypto.SecretKey;
 import java.io.IOException;
@@ -41,6 +43,9 @@ public abstract class NofspClientMessageDeserializer<C extends ClientContext> ex
         addResponseMessageDeserialization(NofspSerializationConstants.DISCONNECTION_ALLOWED_CODE, this::getDisconnectionAllowedResponse);
         addResponseMessageDeserialization(NofspSerializationConstants.ASYMMETRIC_ENCRYPTION_CODE, this::getAsymmetricEncryptionResponse);
         addResponseMessageDeserialization(NofspSerializationConstants.SYMMETRIC_ENCRYPTION_CODE, this::getSymmetricEncryptionResponse);
+        addResponseMessageDeserialization(NofspSerializationConstants.KEY_AGREEMENT_CODE, this::getKeyAgreementResponse);
+        addResponseMessageDeserialization(NofspSerializationConstants.SESSION_RESUMED_CODE, this::getSessionResumedResponse);
+        addResponseMessageDeserialization(NofspSerializationConstants.RESUMPTION_DECLINED_CODE, this::getResumptionDeclinedError);
     }
 
     /**
@@ -55,9 +60,16 @@ public abstract class NofspClientMessageDeserializer<C extends ClientContext> ex
         RegistrationConfirmationResponse<C> response = null;
 
         // deserializes the node address
-        int nodeAddress = getRegularInt(parameterReader.readNextTlv());
+        int nodeAddress = getRegularInt(parameterReader.readNextView());
 
-        response = new RegistrationConfirmationResponse<>(messageId, nodeAddress);
+        // deserializes the resumption ticket, if any
+        String resumptionTicket = null;
+        TlvView ticketTlv = parameterReader.readNextView();
+        if (ticketTlv != null) {
+            resumptionTicket = getRegularString(ticketTlv);
+        }
+
+        response = new RegistrationConfirmationResponse<>(messageId, nodeAddress, resumptionTicket);
 
         return response;
     }
@@ -74,7 +86,7 @@ public abstract class NofspClientMessageDeserializer<C extends ClientContext> ex
         RegistrationDeclinedError<C> response = null;
 
         // deserializes the description
-        String description = getRegularString(parameterReader.readNextTlv());
+        String description = getRegularString(parameterReader.readNextView());
 
         response = new RegistrationDeclinedError<>(messageId, description);
 
@@ -104,7 +116,7 @@ public abstract class NofspClientMessageDeserializer<C extends ClientContext> ex
         SubscriptionError<C> response = null;
 
         // deserializes the description
-        String description = getRegularString(parameterReader.readNextTlv());
+        String description = getRegularString(parameterReader.readNextView());
 
         response = new SubscriptionError<>(messageId, description);
 
@@ -134,7 +146,7 @@ public abstract class NofspClientMessageDeserializer<C extends ClientContext> ex
         AsymmetricEncryptionResponse<C> response = null;
 
         // deserializes the public key
-        PublicKey publicKey = getRSAPublicKey(parameterReader.readNextTlv()).key();
+        PublicKey publicKey = getRSAPublicKey(parameterReader.readNextView()).key();
 
         response = new AsymmetricEncryptionResponse<>(messageId, publicKey);
 
@@ -153,10 +165,68 @@ public abstract class NofspClientMessageDeserializer<C extends ClientContext> ex
         SymmetricEncryptionResponse<C> response = null;
 
         // deserializes the secret key
-        SecretKey key = getAESSecretKey(parameterReader.readNextTlv()).key();
+        SecretKey key = getAESSecretKey(parameterReader.readNextView()).key();
 
         response = new SymmetricEncryptionResponse<>(messageId, key);
 
         return response;
     }
+
+    /**
+     * Deserializes a {@code KeyAgreementResponse}.
+     *
+     * @param messageId the message id
+     * @param parameterReader a TlvReader holding the response parameters
+     * @return the deserialized response
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private KeyAgreementResponse<C> getKeyAgreementResponse(int messageId, TlvReader parameterReader) throws IOException {
+        KeyAgreementResponse<C> response = null;
+
+        // deserializes the public key
+        PublicKey publicKey = getKeyAgreementPublicKey(parameterReader.readNextView()).key();
+
+        response = new KeyAgreementResponse<>(messageId, publicKey);
+
+        return response;
+    }
+
+    /**
+     * Deserializes a {@code SessionResumedResponse}.
+     *
+     * @param messageId the message id
+     * @param parameterReader a TlvReader holding the response parameters
+     * @return the deserialized response
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private SessionResumedResponse<C> getSessionResumedResponse(int messageId, TlvReader parameterReader) throws IOException {
+        SessionResumedResponse<C> response = null;
+
+        // deserializes the node address and the new resumption ticket
+        int nodeAddress = getRegularInt(parameterReader.readNextView());
+        String resumptionTicket = getRegularString(parameterReader.readNextView());
+
+        response = new SessionResumedResponse<>(messageId, nodeAddress, resumptionTicket);
+
+        return response;
+    }
+
+    /**
+     * Deserializes a {@code ResumptionDeclinedError}.
+     *
+     * @param messageId the message id
+     * @param parameterReader a TlvReader holding the response parameters
+     * @return the deserialized response
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private ResumptionDeclinedError<C> getResumptionDeclinedError(int messageId, TlvReader parameterReader) throws IOException {
+        ResumptionDeclinedError<C> response = null;
+
+        // deserializes the description
+        String description = getRegularString(parameterReader.readNextView());
+
+        response = new ResumptionDeclinedError<>(messageId, description);
+
+        return response;
+    }
 }
@@ -1,12 +1,13 @@
 package no.ntnu.network.message.deserialize.component;
 
 import no.ntnu.network.message.common.*;
+import no.ntnu.network.message.encryption.keygen.ECKeyAgreement;
 import no.ntnu.network.message.serialize.NofspSerializationConstants;
 import no.ntnu.network.message.serialize.ByteSerializable;
 import no.ntnu.network.message.serialize.tool.*;
 import no.ntnu.network.message.serialize.tool.tlv.Tlv;
-import no.ntnu.network.message.serialize.tool.tlv.TlvFrame;
 import no.ntnu.network.message.serialize.tool.tlv.TlvReader;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
@@ -51,46 +52,57 @@ public abstract class NofspDeserializer {
      */
     @FunctionalInterface
     interface DataTypeDeserializer {
-        ByteSerializable deserialize(Tlv tlv) throws IOException;
+        ByteSerializable deserialize(TlvView tlv) throws IOException;
     }
 
-    private final Map<String, DataTypeDeserializer> deserializerMap = new HashMap<>();
+    // lookup table for data type deserializers, indexed by TLV type code
+    private final CodeTable<DataTypeDeserializer> deserializerTable = new CodeTable<>();
 
     /**
      * Creates a new NofspDeserializer.
      */
     protected NofspDeserializer() {
-        initializeDeserializerMap();
+        initializeDeserializerTable();
     }
 
     /**
-     * Initializes all the entries for the deserializer map, which is used to map TLV type fields to
+     * Initializes all the entries for the deserializer table, which is used to map TLV type codes to
      * deserialization methods.
      */
-    private void initializeDeserializerMap() {
+    private void initializeDeserializerTable() {
         // type: Integer
-        deserializerMap.put(ByteHandler.bytesToString(NofspSerializationConstants.INTEGER_BYTES), this::getInteger);
+        deserializerTable.put(typeCode(NofspSerializationConstants.INTEGER_BYTES), this::getInteger);
 
         // type: Double
-        deserializerMap.put(ByteHandler.bytesToString(NofspSerializationConstants.DOUBLE_BYTES), this::getDouble);
+        deserializerTable.put(typeCode(NofspSerializationConstants.DOUBLE_BYTES), this::getDouble);
 
         // type: String
-        deserializerMap.put(ByteHandler.bytesToString(NofspSerializationConstants.STRING_BYTES), this::getString);
+        deserializerTable.put(typeCode(NofspSerializationConstants.STRING_BYTES), this::getString);
 
         // type: PublicKey
-        deserializerMap.put(ByteHandler.bytesToString(NofspSerializationConstants.PUBLIC_KEY_BYTES), this::getRSAPublicKey);
+        deserializerTable.put(typeCode(NofspSerializationConstants.PUBLIC_KEY_BYTES), this::getRSAPublicKey);
 
         // type: SecretKey
-        deserializerMap.put(ByteHandler.bytesToString(NofspSerializationConstants.SECRET_KEY_BYTES), this::getAESSecretKey);
+        deserializerTable.put(typeCode(NofspSerializationConstants.SECRET_KEY_BYTES), this::getAESSecretKey);
 
         // type: Set
-        deserializerMap.put(ByteHandler.bytesToString(NofspSerializationConstants.SET_BYTES), this::getSet);
+        deserializerTable.put(typeCode(NofspSerializationConstants.SET_BYTES), this::getSet);
 
         // type: List
-        deserializerMap.put(ByteHandler.bytesToString(NofspSerializationConstants.LIST_BYTES), this::getList);
+        deserializerTable.put(typeCode(NofspSerializationConstants.LIST_BYTES), this::getList);
 
         // type: Map
-        deserializerMap.put(ByteHandler.bytesToString(NofspSerializationConstants.MAP_BYTES), this::getMap);
+        deserializerTable.put(typeCode(NofspSerializationConstants.MAP_BYTES), this::getMap);
+    }
+
+    /**
+     * Returns the numeric type code for a type-field, as given by {@code TlvView.getType()}.
+     *
+     * @param typeField the type-field
+     * @return the type code
+     */
+    protected static int typeCode(byte[] typeField) {
+        return ByteHandler.bytesToInt(typeField, 0, typeField.length);
     }
 
     /**
@@ -105,10 +117,24 @@ public abstract class NofspDeserializer {
             throw new IllegalArgumentException("Cannot deserialize TLV, because TLV is null");
         }
 
+        return deserialize(TlvView.of(tlv));
+    }
+
+    /**
+     * Deserializes a view of a TLV into a {@code ByteSerializable} object.
+     *
+     * @param tlv the TLV to deserialize
+     * @return the corresponding deserialized object, null if TLV was not recognized
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    protected ByteSerializable deserialize(TlvView tlv) throws IOException {
+        if (tlv == null) {
+            throw new IllegalArgumentException("Cannot deserialize TLV, because TLV is null");
+        }
+
         ByteSerializable result = null;
 
-        String bytesKey = ByteHandler.bytesToString(tlv.typeField());
-        DataTypeDeserializer deserializer = deserializerMap.get(bytesKey);
+        DataTypeDeserializer deserializer = deserializerTable.get(tlv.getType());
         if (deserializer != null) {
             result = deserializer.deserialize(tlv);
         }
@@ -122,10 +148,10 @@ public abstract class NofspDeserializer {
      * @param tlv the integer tlv
      * @return the corresponding integer
      */
-    protected ByteSerializableInteger getInteger(Tlv tlv) {
+    protected ByteSerializableInteger getInteger(TlvView tlv) {
         ByteSerializableInteger result = null;
 
-        int deserializedInt = ByteHandler.bytesToInt(tlv.valueField());
+        int deserializedInt = ByteHandler.bytesToInt(tlv.getValueBuffer(), tlv.getValueOffset(), tlv.getValueLength());
         result = new ByteSerializableInteger(deserializedInt);
 
         return result;
@@ -137,7 +163,7 @@ public abstract class NofspDeserializer {
      * @param intTlv the integer tlv to deserialize
      * @return a regular int
      */
-    protected int getRegularInt(Tlv intTlv) {
+    protected int getRegularInt(TlvView intTlv) {
         if (intTlv == null) {
             throw new IllegalArgumentException("Cannot deserialize TLV, because intTlv is null.");
         }
@@ -151,10 +177,9 @@ public abstract class NofspDeserializer {
      * @param doubleTlv the double tlv
      * @return the corresponding double
      */
-    protected ByteSerializableDouble getDouble(Tlv doubleTlv) {
-        ByteBuffer buffer = ByteBuffer.allocate(Double.BYTES);
-        buffer.put(doubleTlv.valueField());
-        buffer.flip();
+    protected ByteSerializableDouble getDouble(TlvView doubleTlv) {
+        ByteBuffer buffer = ByteBuffer.wrap(doubleTlv.getValueBuffer(), doubleTlv.getValueOffset(),
+                doubleTlv.getValueLength());
 
         return new ByteSerializableDouble(buffer.getDouble());
     }
@@ -165,7 +190,7 @@ public abstract class NofspDeserializer {
      * @param doubleTlv the double tlv
      * @return a regular double
      */
-    protected double getRegularDouble(Tlv doubleTlv) {
+    protected double getRegularDouble(TlvView doubleTlv) {
         if (doubleTlv == null) {
             throw new IllegalArgumentException("Cannot deserialize TLV, because doubleTlv is null.");
         }
@@ -179,10 +204,11 @@ public abstract class NofspDeserializer {
      * @param tlv the string tlv
      * @return the corresponding String
      */
-    protected ByteSerializableString getString(Tlv tlv) {
+    protected ByteSerializableString getString(TlvView tlv) {
         ByteSerializableString result = null;
 
-        String deserializedString = new String(tlv.valueField(), StandardCharsets.UTF_8);
+        String deserializedString = new String(tlv.getValueBuffer(), tlv.getValueOffset(), tlv.getValueLength(),
+                StandardCharsets.UTF_8);
         result = new ByteSerializableString(deserializedString);
 
         return result;
@@ -194,7 +220,7 @@ public abstract class NofspDeserializer {
      * @param stringTlv the string tlv to deserialize
      * @return a regular string
      */
-    protected String getRegularString(Tlv stringTlv) {
+    protected String getRegularString(TlvView stringTlv) {
         if (stringTlv == null) {
             throw new IllegalArgumentException("Cannot deserialize TLV, because descriptionTlv is null.");
         }
@@ -203,13 +229,36 @@ public abstract class NofspDeserializer {
     }
 
     /**
-     * Deserializes a public key Tlv.
+     * Deserializes an RSA public key Tlv.
+     *
+     * @param keyTlv the public key tlv to deserialize
+     * @return the public key
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    protected ByteSerializablePublicKey getRSAPublicKey(TlvView keyTlv) throws IOException {
+        return getPublicKey(keyTlv, "RSA");
+    }
+
+    /**
+     * Deserializes a key agreement public key Tlv.
+     *
+     * @param keyTlv the public key tlv to deserialize
+     * @return the public key
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    protected ByteSerializablePublicKey getKeyAgreementPublicKey(TlvView keyTlv) throws IOException {
+        return getPublicKey(keyTlv, ECKeyAgreement.ALGORITHM);
+    }
+
+    /**
+     * Deserializes a public key Tlv of a given algorithm.
      *
      * @param keyTlv the public key tlv to deserialize
+     * @param algorithm the algorithm of the key
      * @return the public key
      * @throws IOException thrown if an I/O exception occurs
      */
-    protected ByteSerializablePublicKey getRSAPublicKey(Tlv keyTlv) throws IOException {
+    private static ByteSerializablePublicKey getPublicKey(TlvView keyTlv, String algorithm) throws IOException {
         if (keyTlv == null) {
             throw new IllegalArgumentException("Cannot deserialize TLV, because keyTlv is null.");
         }
@@ -217,7 +266,7 @@ public abstract class NofspDeserializer {
         ByteSerializablePublicKey result = null;
 
         X509EncodedKeySpec keySpec = new X509EncodedKeySpec(keyTlv.valueField());
-        KeyFactory keyFactory = getKeyFactory();
+        KeyFactory keyFactory = getKeyFactory(algorithm);
         try {
             result = new ByteSerializablePublicKey(keyFactory.generatePublic(keySpec));
         } catch (InvalidKeySpecException e) {
@@ -234,20 +283,28 @@ public abstract class NofspDeserializer {
      * @return the secret key
      * @throws IOException thrown if an I/O exception occurs
      */
-    protected ByteSerializableSecretKey getAESSecretKey(Tlv keyTlv) throws IOException {
+    protected ByteSerializableSecretKey getAESSecretKey(TlvView keyTlv) throws IOException {
         if (keyTlv == null) {
             throw new IllegalArgumentException("Cannot deserialize TLV, because keyTlv is null.");
         }
 
-        SecretKey key = new SecretKeySpec(keyTlv.valueField(), 0, keyTlv.valueField().length, "AES");
+        SecretKey key = new SecretKeySpec(keyTlv.getValueBuffer(), keyTlv.getValueOffset(), keyTlv.getValueLength(),
+                "AES");
         return new ByteSerializableSecretKey(key);
     }
 
-    private static KeyFactory getKeyFactory() throws IOException {
+    /**
+     * Returns a key factory for a given algorithm.
+     *
+     * @param algorithm the algorithm of the keys
+     * @return the key factory
+     * @throws IOException thrown if the algorithm cannot be found
+     */
+    private static KeyFactory getKeyFactory(String algorithm) throws IOException {
         KeyFactory keyFactory;
 
         try {
-            keyFactory = KeyFactory.getInstance("RSA");
+            keyFactory = KeyFactory.getInstance(algorithm);
         } catch (NoSuchAlgorithmException e) {
             throw new IOException("Cannot deserialize public key: " + e.getMessage());
         }
@@ -264,7 +321,7 @@ public abstract class NofspDeserializer {
      * @return the reconstructed set, null on error
      * @throws IOException thrown if an I/O exception is thrown
      */
-    private ByteSerializable getSet(Tlv tlv) throws IOException {
+    private ByteSerializable getSet(TlvView tlv) throws IOException {
         ByteSerializableSet<?> set = null;
 
         try {
@@ -287,16 +344,15 @@ public abstract class NofspDeserializer {
      * @return the set containing all valid elements
      * @throws IOException thrown if an I/O exception occurs
      */
-    protected <T extends ByteSerializable> ByteSerializableSet<T> getSetOfType(Tlv tlv, Class<T> typeClass) throws IOException {
+    protected <T extends ByteSerializable> ByteSerializableSet<T> getSetOfType(TlvView tlv, Class<T> typeClass) throws IOException {
         ByteSerializableSet<T> set = new ByteSerializableSet<>();
 
         // assuming the list elements use the same tlv frame as the actual list tlv
-        TlvFrame tlvFrame = tlv.getFrame();
-        TlvReader elementReader = new TlvReader(tlv.valueField(), tlvFrame);
+        TlvReader elementReader = tlv.valueReader();
 
         boolean readerEmpty = false;
         while (!readerEmpty) {
-            Tlv elementTlv = elementReader.readNextTlv();
+            TlvView elementTlv = elementReader.readNextView();
 
             if (elementTlv != null) {
                 ByteSerializable serializable = deserialize(elementTlv);
@@ -321,7 +377,7 @@ public abstract class NofspDeserializer {
      * @return the reconstructed list, null on error
      * @throws IOException thrown if an I/O exception is thrown
      */
-    private ByteSerializableList<?> getList(Tlv tlv) throws IOException {
+    private ByteSerializableList<?> getList(TlvView tlv) throws IOException {
         ByteSerializableList<?> list = null;
 
         try {
@@ -346,16 +402,15 @@ public abstract class NofspDeserializer {
      * @return the list containing all valid elements
      * @throws IOException thrown if an I/O exception occurs
      */
-    protected <T extends ByteSerializable> ByteSerializableList<T> getListOfType(Tlv tlv, Class<T> typeClass) throws IOException {
+    protected <T extends ByteSerializable> ByteSerializableList<T> getListOfType(TlvView tlv, Class<T> typeClass) throws IOException {
         ByteSerializableList<T> list = new ByteSerializableList<>();
 
         // assuming that the list elements use the same tlv frame as the actual list tlv
-        TlvFrame tlvFrame = tlv.getFrame();
-        TlvReader tlvReader = new TlvReader(tlv.valueField(), tlvFrame);
+        TlvReader tlvReader = tlv.valueReader();
 
         boolean readerEmpty = false;
         while (!readerEmpty) {
-            Tlv elementTlv = tlvReader.readNextTlv();
+            TlvView elementTlv = tlvReader.readNextView();
 
             if (elementTlv != null) {
                 ByteSerializable serializable = deserialize(elementTlv);
@@ -381,7 +436,7 @@ public abstract class NofspDeserializer {
      * @return the reconstructed map, null on error
      * @throws IOException thrown if an I/O exception occurs
      */
-    private ByteSerializableMap<?, ?> getMap(Tlv tlv) throws IOException {
+    private ByteSerializableMap<?, ?> getMap(TlvView tlv) throws IOException {
         ByteSerializableMap<?, ?> map = null;
 
         try {
@@ -407,12 +462,11 @@ public abstract class NofspDeserializer {
      * @return the deserialized map containing all valid entries
      * @throws IOException thrown if an I/O exception occurs
      */
-    protected <K extends ByteSerializable, V extends ByteSerializable> ByteSerializableMap<K, V> getMapOfType(Tlv tlv, Class<K> mapKeyTypeClass, Class<V> mapValueTypeClass) throws IOException {
+    protected <K extends ByteSerializable, V extends ByteSerializable> ByteSerializableMap<K, V> getMapOfType(TlvView tlv, Class<K> mapKeyTypeClass, Class<V> mapValueTypeClass) throws IOException {
         ByteSerializableMap<K, V> map = new ByteSerializableMap<>();
 
         // assuming that the map elements use the same tlv frame as the map tlv
-        TlvFrame tlvFrame = tlv.getFrame();
-        TlvReader tlvReader = new TlvReader(tlv.valueField(), tlvFrame);
+        TlvReader tlvReader = tlv.valueReader();
 
         boolean readerEmpty = false;
         while (!readerEmpty) {
@@ -420,12 +474,11 @@ public abstract class NofspDeserializer {
             V value = null;
 
             // reads the next map entry
-            byte[] entry = getNextMapEntry(tlvReader);
+            TlvView[] entry = getNextMapEntry(tlvReader);
             if (entry != null) {
                 // reads the key and value from entry
-                TlvReader entryReader = new TlvReader(entry, tlvFrame);
-                key = deserializeOfTypeClass(mapKeyTypeClass, entryReader.readNextTlv());
-                value = deserializeOfTypeClass(mapValueTypeClass, entryReader.readNextTlv());
+                key = deserializeOfTypeClass(mapKeyTypeClass, entry[0]);
+                value = deserializeOfTypeClass(mapValueTypeClass, entry[1]);
 
                 // puts the entry in the map if key is not null
                 if (key != null) {
@@ -472,14 +525,13 @@ public abstract class NofspDeserializer {
      * @return the concrete {@code ByteSerializable} class for the TLV
      * @throws IOException thrown if an I/O exception occurs
      */
-    private Class<? extends ByteSerializable> getTlvCollectionTypeClass(Tlv tlv) throws IOException {
+    private Class<? extends ByteSerializable> getTlvCollectionTypeClass(TlvView tlv) throws IOException {
         Class<? extends ByteSerializable> typeClass = null;
 
         // assuming that the collection elements use the same tlv frame as the collection tlv
-        TlvFrame tlvFrame = tlv.getFrame();
-        TlvReader tlvReader = new TlvReader(tlv.valueField(), tlvFrame);
+        TlvReader tlvReader = tlv.valueReader();
 
-        Tlv firstElement = tlvReader.readNextTlv();
+        TlvView firstElement = tlvReader.readNextView();
         ByteSerializable serializable = deserialize(firstElement);
         if (serializable != null) {
             typeClass = serializable.getClass();
@@ -492,23 +544,22 @@ public abstract class NofspDeserializer {
 
     /**
      * Returns the next entry for a serialized map.
+     * The key and value are returned as views of the map, so that the entry can be read without copying it.
      *
      * @param tlvReader the TlvReader holding the map entries
-     * @return the next map entry, null if no more entries exists
+     * @return the key and value of the next map entry, in that order, null if no more entries exists
      * @throws IOException thrown if an I/O exception occurs
      */
-    private static byte[] getNextMapEntry(TlvReader tlvReader) throws IOException {
-        byte[] entry = null;
+    private static TlvView[] getNextMapEntry(TlvReader tlvReader) throws IOException {
+        TlvView[] entry = null;
 
         // read key and value
-        Tlv keyTlv = tlvReader.readNextTlv();
-        Tlv valueTlv = tlvReader.readNextTlv();
+        TlvView keyTlv = tlvReader.readNextView();
+        TlvView valueTlv = tlvReader.readNextView();
 
         // create entry
         if (keyTlv != null && valueTlv != null) {
-            SimpleByteBuffer entryBuffer = new SimpleByteBuffer();
-            entryBuffer.addTlvs(keyTlv, valueTlv);
-            entry = entryBuffer.toArray();
+            entry = new TlvView[] {keyTlv, valueTlv};
         }
 
         return entry;
@@ -524,7 +575,7 @@ public abstract class NofspDeserializer {
      * @return deserialized object of predefined class, null if object is not of that class
      * @throws IOException thrown if an I/O exception occurs
      */
-    private <E extends ByteSerializable> E deserializeOfTypeClass(Class<E> elementTypeClass, Tlv tlv) throws IOException {
+    private <E extends ByteSerializable> E deserializeOfTypeClass(Class<E> elementTypeClass, TlvView tlv) throws IOException {
         E element = null;
 
         ByteSerializable serializable = deserialize(tlv);
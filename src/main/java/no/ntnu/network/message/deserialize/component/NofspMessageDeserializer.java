@@ -5,14 +5,12 @@ import no.ntnu.network.message.context.MessageContext;
 import no.ntnu.network.message.response.error.KeyGenError;
 import no.ntnu.network.message.response.error.UnsecureRequestError;
 import no.ntnu.network.message.serialize.NofspSerializationConstants;
-import no.ntnu.network.message.serialize.tool.ByteHandler;
 import no.ntnu.network.message.serialize.tool.tlv.Tlv;
 import no.ntnu.network.message.serialize.tool.tlv.TlvFrame;
 import no.ntnu.network.message.serialize.tool.tlv.TlvReader;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * A deserializer for deserializing TLVs into {@code Message} objects.
@@ -27,7 +25,7 @@ import java.util.Map;
  * <p>
  * {@code Message<C> deserialize(int messageId, TlvReader parameterReader) throws IOException}.
  * <p>
- * Once the method has been implemented, the method needs to be put into a deserializerMap together with a
+ * Once the method has been implemented, the method needs to be put into a lookup table together with a
  * key. This is done as follows:
  * <ul>
  *     <li>
@@ -72,27 +70,27 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
      */
     @FunctionalInterface
     protected interface SensorDataDeserializationMethod<C extends MessageContext> {
-        Message<C> deserialize(int clientNodeAddress, int sensorAddress, Tlv dataTlv) throws IOException;
+        Message<C> deserialize(int clientNodeAddress, int sensorAddress, TlvView dataTlv) throws IOException;
     }
 
-    // lookup table for message frame types
-    protected final Map<String, MessageDeserializerMethod<C>> messageDeserializerMap;
+    // lookup table for message frame types, indexed by TLV type code
+    private final CodeTable<MessageDeserializerMethod<C>> messageDeserializerTable;
 
-    // lookup table for request messages commands
-    protected final Map<String, ControlMessageDeserializerMethod<C>> requestDeserializerMap;
+    // lookup table for request messages commands, keyed by the UTF-8 encoded command
+    private final CommandTable<ControlMessageDeserializerMethod<C>> requestDeserializerTable;
 
-    // lookup table for response message status codes
-    protected final Map<Integer, ControlMessageDeserializerMethod<C>> responseDeserializerMap;
+    // lookup table for response message status codes, indexed by status code
+    private final CodeTable<ControlMessageDeserializerMethod<C>> responseDeserializerTable;
 
     /**
      * Creates a new NofspMessageDeserializer.
      */
     protected NofspMessageDeserializer() {
-        this.messageDeserializerMap = new HashMap<>();
-        this.requestDeserializerMap = new HashMap<>();
-        this.responseDeserializerMap = new HashMap<>();
+        this.messageDeserializerTable = new CodeTable<>();
+        this.requestDeserializerTable = new CommandTable<>();
+        this.responseDeserializerTable = new CodeTable<>();
 
-        initializeMessageDeserializerMap();
+        initializeMessageDeserializerTables();
     }
 
     @Override
@@ -101,14 +99,22 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
             throw new IllegalArgumentException("Cannot deserialize TLV, because TLV is null.");
         }
 
+        return deserializeMessage(TlvView.of(tlv));
+    }
+
+    @Override
+    public Message<C> deserializeMessage(TlvView tlv) throws IOException {
+        if (tlv == null) {
+            throw new IllegalArgumentException("Cannot deserialize TLV, because TLV is null.");
+        }
+
         Message<C> result = null;
 
         // gets the appropriate deserialization method by identifying the message type
-        String byteKey = ByteHandler.bytesToString(tlv.typeField());
-        MessageDeserializerMethod<C> deserializerMethod = messageDeserializerMap.get(byteKey);
+        MessageDeserializerMethod<C> deserializerMethod = messageDeserializerTable.get(tlv.getType());
         if (deserializerMethod != null) {
-            // extracts the value field of the message frame TLV, as it holds the specific message field TLVs
-            TlvReader messageFieldReader = new TlvReader(tlv.valueField(), tlv.getFrame());
+            // reads the value field of the message frame TLV in place, as it holds the specific message field TLVs
+            TlvReader messageFieldReader = tlv.valueReader();
             result = deserializerMethod.deserialize(messageFieldReader);
         }
 
@@ -116,10 +122,10 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
     }
 
     /**
-     * Initializes all the entries for the message deserializer map, which is used to map TLV type fields to
-     * deserialization methods.
+     * Initializes all the entries for the message deserializer tables, which are used to map TLV type codes,
+     * request commands and response status codes to deserialization methods.
      */
-    private void initializeMessageDeserializerMap() {
+    private void initializeMessageDeserializerTables() {
         addMessageDeserialization(NofspSerializationConstants.REQUEST_BYTES, this::getRequestMessage);
         addMessageDeserialization(NofspSerializationConstants.RESPONSE_BYTES, this::getResponseMessage);
 
@@ -134,7 +140,7 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
      * @param method    the associated deserialization method
      */
     private void addMessageDeserialization(byte[] typeField, MessageDeserializerMethod<C> method) {
-        messageDeserializerMap.put(ByteHandler.bytesToString(typeField), method);
+        messageDeserializerTable.put(typeCode(typeField), method);
     }
 
     /**
@@ -144,7 +150,7 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
      * @param method  the associated deserialization method
      */
     protected void addRequestMessageDeserialization(String command, ControlMessageDeserializerMethod<C> method) {
-        requestDeserializerMap.put(command, method);
+        requestDeserializerTable.put(command, method);
     }
 
     /**
@@ -154,7 +160,7 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
      * @param method     the associated deserialization method
      */
     protected void addResponseMessageDeserialization(int statusCode, ControlMessageDeserializerMethod<C> method) {
-        responseDeserializerMap.put(statusCode, method);
+        responseDeserializerTable.put(statusCode, method);
     }
 
     /**
@@ -168,22 +174,23 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
         Message<C> result = null;
 
         // the first TLV holds the message ID
-        int messageId = getMessageId(messageFieldReader.readNextTlv());
+        int messageId = getMessageId(messageFieldReader.readNextView());
 
         // the second TLV holds the request message command
-        String command = getRequestMessageCommand(messageFieldReader.readNextTlv());
+        TlvView commandTlv = messageFieldReader.readNextView();
 
         // the third TLV is a container TLV holding the request parameters
-        TlvReader parameterReader = getParameterReader(messageFieldReader.readNextTlv());
+        TlvReader parameterReader = getParameterReader(messageFieldReader.readNextView());
 
-        // gets the appropriate request deserialization method identified by the request command
-        ControlMessageDeserializerMethod<C> deserializationMethod = requestDeserializerMap.get(command);
+        // gets the appropriate request deserialization method identified by the request command, without decoding it
+        ControlMessageDeserializerMethod<C> deserializationMethod = requestDeserializerTable.get(
+                commandTlv.getValueBuffer(), commandTlv.getValueOffset(), commandTlv.getValueLength());
 
         if (deserializationMethod != null) {
             result = deserializationMethod.deserialize(messageId, parameterReader);
         } else {
             throw new IOException("Cannot deserialize message, because no deserialization method was found" +
-                    " for request command: " + command);
+                    " for request command: " + getRequestMessageCommand(commandTlv));
         }
 
         return result;
@@ -200,16 +207,16 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
         Message<C> result = null;
 
         // the first TLV holds the message ID
-        int messageId = getMessageId(messageFieldReader.readNextTlv());
+        int messageId = getMessageId(messageFieldReader.readNextView());
 
         // the second TLV holds the response message status code
-        int statusCode = getResponseStatusCode(messageFieldReader.readNextTlv());
+        int statusCode = getResponseStatusCode(messageFieldReader.readNextView());
 
         // the third TLV is a container TLV holding the request parameters
-        TlvReader parameterReader = getParameterReader(messageFieldReader.readNextTlv());
+        TlvReader parameterReader = getParameterReader(messageFieldReader.readNextView());
 
         // gets the appropriate request deserialization method identified by the response status code
-        ControlMessageDeserializerMethod<C> deserializationMethod = responseDeserializerMap.get(statusCode);
+        ControlMessageDeserializerMethod<C> deserializationMethod = responseDeserializerTable.get(statusCode);
 
         if (deserializationMethod != null) {
             result = deserializationMethod.deserialize(messageId, parameterReader);
@@ -227,11 +234,11 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
      * @param parameterContainerTlv the tlv holding the parameter tlvs in its value field
      * @return the parameter reader
      */
-    private static TlvReader getParameterReader(Tlv parameterContainerTlv) {
+    private static TlvReader getParameterReader(TlvView parameterContainerTlv) {
         TlvReader parameterReader = null;
 
         if (parameterContainerTlv != null) {
-            parameterReader = new TlvReader(parameterContainerTlv.valueField(), parameterContainerTlv.getFrame());
+            parameterReader = parameterContainerTlv.valueReader();
         }
 
         return parameterReader;
@@ -243,7 +250,7 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
      * @param messageIdTlv the TlvReader holding the message fields
      * @return the message id
      */
-    private int getMessageId(Tlv messageIdTlv) {
+    private int getMessageId(TlvView messageIdTlv) {
         return getInteger(messageIdTlv).getInteger();
     }
 
@@ -253,7 +260,7 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
      * @param requestMessageCommandTlv the command tlv
      * @return the request command
      */
-    private String getRequestMessageCommand(Tlv requestMessageCommandTlv) {
+    private String getRequestMessageCommand(TlvView requestMessageCommandTlv) {
         return getString(requestMessageCommandTlv).getString();
     }
 
@@ -263,7 +270,7 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
      * @param statusCodeTlv the status code tlv
      * @return the status code
      */
-    private int getResponseStatusCode(Tlv statusCodeTlv) {
+    private int getResponseStatusCode(TlvView statusCodeTlv) {
         return getInteger(statusCodeTlv).getInteger();
     }
 
@@ -279,7 +286,7 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
         UnsecureRequestError<C> response = null;
 
         // deserializes the error description
-        String description = getRegularString(parameterReader.readNextTlv());
+        String description = getRegularString(parameterReader.readNextView());
 
         response = new UnsecureRequestError<>(description);
 
@@ -298,7 +305,7 @@ public abstract class NofspMessageDeserializer<C extends MessageContext> extends
         KeyGenError<C> response = null;
 
         // deserializes the error description
-        String description = getRegularString(parameterReader.readNextTlv());
+        String description = getRegularString(parameterReader.readNextView());
 
         response = new KeyGenError<>(description);
 
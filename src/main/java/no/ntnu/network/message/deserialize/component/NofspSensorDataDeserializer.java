@@ -1,10 +1,13 @@
 package no.ntnu.network.message.deserialize.component;
 
 import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.message.sensordata.SduSensorDataCodec;
 import no.ntnu.network.message.sensordata.SduSensorDataMessage;
 import no.ntnu.network.message.sensordata.SensorDataMessage;
-import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.sensordata.SensorDataReceiver;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
 import no.ntnu.network.message.serialize.tool.tlv.TlvReader;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 
 import java.io.IOException;
 import java.util.EnumMap;
@@ -13,6 +16,7 @@ import java.util.EnumMap;
  * A deserializer for deserialization of sensor data messages in NOFSP.
  */
 public class NofspSensorDataDeserializer extends NofspDeserializer {
+    private static final int SENSOR_DATA_BATCH_CODE = typeCode(NofspSerializationConstants.SENSOR_DATA_BATCH_BYTES);
     private final EnumMap<DeviceClass, MessageDeserializationMethod> deserializationMethods;
     private final DeviceLookupTable lookupTable;
 
@@ -21,7 +25,7 @@ public class NofspSensorDataDeserializer extends NofspDeserializer {
      */
     @FunctionalInterface
     private interface MessageDeserializationMethod {
-        SensorDataMessage deserialize(int clientNodeAddress, int sensorAddress, Tlv tlv) throws IOException;
+        SensorDataMessage deserialize(int clientNodeAddress, int sensorAddress, TlvView tlv) throws IOException;
     }
 
     /**
@@ -42,29 +46,35 @@ public class NofspSensorDataDeserializer extends NofspDeserializer {
 
     /**
      * Deserializes a sensor data message TLV.
+     * A sensor data batch holds several messages, and can therefore only be deserialized by delivering its sensor
+     * data to a receiver.
      *
      * @param tlv the TLV to deserialize
      * @return the deserialized sensor data message
      * @throws IOException thrown if an I/O exception occurs
      */
-    public SensorDataMessage deserializeMessage(Tlv tlv) throws IOException {
+    public SensorDataMessage deserializeMessage(TlvView tlv) throws IOException {
         if (tlv == null) {
             throw new IllegalArgumentException("Cannot deserialize sensor data message, because tlv is null.");
         }
 
+        if (tlv.getType() == SENSOR_DATA_BATCH_CODE) {
+            throw new IOException("Cannot deserialize sensor data message, because the tlv is a sensor data batch.");
+        }
+
         SensorDataMessage result = null;
 
-        // creates a tlv reader to read the sensor data message fields
-        TlvReader tlvReader = new TlvReader(tlv.valueField(), tlv.getFrame());
+        // creates a tlv reader to read the sensor data message fields in place
+        TlvReader tlvReader = tlv.valueReader();
 
         // first field is the client node address
-        int clientNodeAddress = getRegularInt(tlvReader.readNextTlv());
+        int clientNodeAddress = getRegularInt(tlvReader.readNextView());
 
         // second field is the sensor address
-        int sensorAddress = getRegularInt(tlvReader.readNextTlv());
+        int sensorAddress = getRegularInt(tlvReader.readNextView());
 
         // third field is the sensor data
-        Tlv dataTlv = tlvReader.readNextTlv();
+        TlvView dataTlv = tlvReader.readNextView();
 
         // checks the class for the given sensor
         DeviceClass sensorClass = lookupTable.lookup(clientNodeAddress, sensorAddress);
@@ -84,6 +94,66 @@ public class NofspSensorDataDeserializer extends NofspDeserializer {
         return result;
     }
 
+    /**
+     * Deserializes a sensor data message TLV, delivering the sensor data to a receiver.
+     * SDU sensor data is decoded in place by the {@code SduSensorDataCodec}, without creating a message object.
+     * Any other sensor data is deserialized into a message, which then extracts its data to the receiver.
+     * For a sensor data batch, the sensor data of every message in the batch is delivered, in the order the messages
+     * appear in the batch.
+     *
+     * @param tlv the TLV to deserialize
+     * @param receiver the receiver of the sensor data
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    public void deserializeMessage(TlvView tlv, SensorDataReceiver receiver) throws IOException {
+        if (tlv == null) {
+            throw new IllegalArgumentException("Cannot deserialize sensor data message, because tlv is null.");
+        }
+
+        if (receiver == null) {
+            throw new IllegalArgumentException("Cannot deserialize sensor data message, because receiver is null.");
+        }
+
+        if (tlv.getType() == SENSOR_DATA_BATCH_CODE) {
+            deserializeBatch(tlv, receiver);
+        } else {
+            deserializeSingleMessage(tlv, receiver);
+        }
+    }
+
+    /**
+     * Deserializes every sensor data message held by a sensor data batch TLV, delivering the sensor data to a
+     * receiver.
+     *
+     * @param batchTlv the batch TLV to deserialize
+     * @param receiver the receiver of the sensor data
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private void deserializeBatch(TlvView batchTlv, SensorDataReceiver receiver) throws IOException {
+        // the messages are read in place from the value-field of the batch
+        TlvReader batchReader = batchTlv.valueReader();
+
+        TlvView messageTlv = batchReader.readNextView();
+        while (messageTlv != null) {
+            deserializeSingleMessage(messageTlv, receiver);
+            messageTlv = batchReader.readNextView();
+        }
+    }
+
+    /**
+     * Deserializes a single sensor data message TLV, delivering the sensor data to a receiver.
+     *
+     * @param tlv the TLV to deserialize
+     * @param receiver the receiver of the sensor data
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private void deserializeSingleMessage(TlvView tlv, SensorDataReceiver receiver) throws IOException {
+        if (!SduSensorDataCodec.decodeValue(tlv.getValueBuffer(), tlv.getValueOffset(), tlv.getValueLength(),
+                lookupTable, receiver)) {
+            deserializeMessage(tlv).extractData(receiver);
+        }
+    }
+
     /**
      * Initializes the map for mapping device classes to deserialization methods.
      */
@@ -101,7 +171,7 @@ public class NofspSensorDataDeserializer extends NofspDeserializer {
      * @param dataTlv a tlv holding the sensor data
      * @return the deserialized sdu sensor data message
      */
-    private SduSensorDataMessage getSduSensorDataMessage(int clientNodeAddress, int sensorAddress, Tlv dataTlv) {
+    private SduSensorDataMessage getSduSensorDataMessage(int clientNodeAddress, int sensorAddress, TlvView dataTlv) {
         SduSensorDataMessage message = null;
 
         // deserializes the sdu data
@@ -1,7 +1,9 @@
 package no.ntnu.network.message.deserialize.component;
 
 import no.ntnu.network.message.sensordata.SensorDataMessage;
+import no.ntnu.network.message.sensordata.SensorDataReceiver;
 import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 
 import java.io.IOException;
 
@@ -9,6 +11,15 @@ import java.io.IOException;
  * A deserializer for deserializing sensor data messages.
  */
 public interface SensorDataMessageDeserializer {
+    /**
+     * Deserializes a view of a sensor data message TLV into a {@code SensorDataMessage} object.
+     *
+     * @param tlv the sensor data message tlv
+     * @return the deserialized sensor data message
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    SensorDataMessage deserializeSensorData(TlvView tlv) throws IOException;
+
     /**
      * Deserializes a sensor data message TLV into a {@code SensorDataMessage} object.
      *
@@ -16,5 +27,28 @@ public interface SensorDataMessageDeserializer {
      * @return the deserialized sensor data message
      * @throws IOException thrown if an I/O exception occurs
      */
-    SensorDataMessage deserializeSensorData(Tlv tlv) throws IOException;
+    default SensorDataMessage deserializeSensorData(Tlv tlv) throws IOException {
+        if (tlv == null) {
+            throw new IllegalArgumentException("Cannot deserialize sensor data message, because tlv is null.");
+        }
+
+        return deserializeSensorData(TlvView.of(tlv));
+    }
+
+    /**
+     * Deserializes a view of a sensor data message TLV, delivering the sensor data to a receiver.
+     * The default implementation deserializes the TLV into a {@code SensorDataMessage}, which then extracts its data
+     * to the receiver.
+     *
+     * @param tlv the sensor data message tlv
+     * @param receiver the receiver of the sensor data
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    default void deserializeSensorData(TlvView tlv, SensorDataReceiver receiver) throws IOException {
+        if (receiver == null) {
+            throw new IllegalArgumentException("Cannot deserialize sensor data message, because receiver is null.");
+        }
+
+        deserializeSensorData(tlv).extractData(receiver);
+    }
 }
@@ -0,0 +1,95 @@
+package no.ntnu.network.message.encryption;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Creates and verifies the proof a client presents with a resumption ticket, showing that it holds the secret key of
+ * the session it resumes.
+ * <p/>
+ * The proof is an HMAC of the ticket, keyed with the session key. The ticket is a random value chosen by the server,
+ * handed to the client encrypted and redeemed only once, so it serves as the server nonce of the proof: a proof
+ * cannot be made for a ticket without the session key, and a proof seen on the network is worthless once its ticket
+ * has been redeemed.
+ */
+public class ResumptionProof {
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final byte[] PROOF_LABEL = "NOFSP session resumption".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Does not allow creating instances of the class.
+     */
+    private ResumptionProof() {}
+
+    /**
+     * Creates the proof for a resumption ticket.
+     *
+     * @param sessionKey the secret key of the session
+     * @param ticket the resumption ticket
+     * @return the proof
+     */
+    public static String create(SecretKey sessionKey, String ticket) {
+        if (sessionKey == null) {
+            throw new IllegalArgumentException("Cannot create resumption proof, because sessionKey is null.");
+        }
+
+        if (ticket == null) {
+            throw new IllegalArgumentException("Cannot create resumption proof, because ticket is null.");
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(computeMac(sessionKey, ticket));
+    }
+
+    /**
+     * Verifies the proof presented with a resumption ticket.
+     *
+     * @param sessionKey the secret key of the session
+     * @param ticket the resumption ticket
+     * @param proof the proof to verify
+     * @return true if the proof was made with the session key for the ticket
+     */
+    public static boolean verify(SecretKey sessionKey, String ticket, String proof) {
+        if (proof == null) {
+            throw new IllegalArgumentException("Cannot verify resumption proof, because proof is null.");
+        }
+
+        byte[] expected = Base64.getUrlDecoder().decode(create(sessionKey, ticket));
+        byte[] presented = null;
+        try {
+            presented = Base64.getUrlDecoder().decode(proof);
+        } catch (IllegalArgumentException e) {
+            presented = new byte[0];
+        }
+
+        // compares in constant time, so that the proof cannot be guessed byte by byte
+        return MessageDigest.isEqual(expected, presented);
+    }
+
+    /**
+     * Computes the HMAC of a ticket.
+     *
+     * @param sessionKey the secret key of the session
+     * @param ticket the resumption ticket
+     * @return the HMAC
+     */
+    private static byte[] computeMac(SecretKey sessionKey, String ticket) {
+        byte[] result = null;
+
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(sessionKey.getEncoded(), MAC_ALGORITHM));
+            mac.update(PROOF_LABEL);
+            result = mac.doFinal(ticket.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            // every Java platform is required to support HmacSHA256
+            throw new IllegalStateException("Cannot compute resumption proof: " + e.getMessage());
+        }
+
+        return result;
+    }
+}
@@ -1,11 +1,15 @@
 package no.ntnu.network.message.encryption;
 
 import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
 import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
 import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
 import no.ntnu.network.message.serialize.tool.ByteHandler;
 import no.ntnu.network.message.serialize.tool.tlv.Tlv;
 import no.ntnu.network.message.serialize.tool.tlv.TlvFrame;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
+
+import java.nio.ByteBuffer;
 
 /**
  * Encrypts Type-Length-Value structures of bytes.
@@ -64,6 +68,133 @@ public class TlvEncryption {
         return new Tlv(tlv.typeField(), newLengthField, newValueField);
     }
 
+    /**
+     * Encrypts a view of a Tlv.
+     * The value-field is encrypted directly from the backing array of the view, and the type-field is shared with
+     * the given view.
+     *
+     * @param tlv the tlv to encrypt
+     * @param strategy the encryption strategy
+     * @return a view of the encrypted tlv
+     * @throws EncryptionException thrown if encryption fails
+     */
+    public static TlvView encryptTlv(TlvView tlv, EncryptionStrategy strategy) throws EncryptionException {
+        if (tlv == null) {
+            throw new IllegalArgumentException("Cannot encrypt tlv, because tlv is null.");
+        }
+
+        if (strategy == null) {
+            throw new IllegalArgumentException("Cannot encrypt tlv, because encryption strategy is null.");
+        }
+
+        return tlv.withValue(strategy.encrypt(tlv.getValueBuffer(), tlv.getValueOffset(), tlv.getValueLength()));
+    }
+
+    /**
+     * Decrypts a view of a Tlv.
+     * The value-field is decrypted directly from the backing array of the view, and the type-field is shared with
+     * the given view.
+     *
+     * @param tlv the tlv to decrypt
+     * @param strategy the decryption strategy
+     * @return a view of the decrypted tlv
+     * @throws EncryptionException thrown if decryption fails
+     */
+    public static TlvView decryptTlv(TlvView tlv, DecryptionStrategy strategy) throws EncryptionException {
+        if (tlv == null) {
+            throw new IllegalArgumentException("Cannot decrypt tlv, because tlv is null.");
+        }
+
+        if (strategy == null) {
+            throw new IllegalArgumentException("Cannot decrypt tlv, because decryption strategy is null.");
+        }
+
+        return tlv.withValue(strategy.decrypt(tlv.getValueBuffer(), tlv.getValueOffset(), tlv.getValueLength()));
+    }
+
+    /**
+     * Decrypts a view of a Tlv in place, writing the decrypted value-field over the encrypted one.
+     * The returned view shares all arrays with the given view, which must no longer be used as an encrypted tlv.
+     *
+     * @param tlv the tlv to decrypt
+     * @param strategy the decryption strategy
+     * @return a view of the decrypted tlv
+     * @throws EncryptionException thrown if decryption fails
+     */
+    public static TlvView decryptTlvInPlace(TlvView tlv, DecryptionStrategy strategy) throws EncryptionException {
+        if (tlv == null) {
+            throw new IllegalArgumentException("Cannot decrypt tlv, because tlv is null.");
+        }
+
+        if (strategy == null) {
+            throw new IllegalArgumentException("Cannot decrypt tlv, because decryption strategy is null.");
+        }
+
+        int valueLength = strategy.decryptInPlace(tlv.getValueBuffer(), tlv.getValueOffset(), tlv.getValueLength());
+
+        return tlv.withValue(tlv.getValueBuffer(), tlv.getValueOffset(), valueLength);
+    }
+
+    /**
+     * Encrypts a view of a Tlv into a value-field borrowed from a pool.
+     * The value-field of the returned view is held by an array borrowed from the pool, which the caller must release
+     * back to the pool once the view is no longer needed.
+     *
+     * @param tlv the tlv to encrypt
+     * @param strategy the encryption strategy
+     * @param pool the pool to borrow the value-field from
+     * @return a view of the encrypted tlv
+     * @throws EncryptionException thrown if encryption fails
+     */
+    public static TlvView encryptTlv(TlvView tlv, EncryptionStrategy strategy, ByteArrayPool pool)
+            throws EncryptionException {
+        if (tlv == null) {
+            throw new IllegalArgumentException("Cannot encrypt tlv, because tlv is null.");
+        }
+
+        if (strategy == null) {
+            throw new IllegalArgumentException("Cannot encrypt tlv, because encryption strategy is null.");
+        }
+
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot encrypt tlv, because pool is null.");
+        }
+
+        ByteBuffer valueField = strategy.encrypt(tlv.getValueBuffer(), tlv.getValueOffset(), tlv.getValueLength(), pool);
+
+        return tlv.withValue(valueField.array(), 0, valueField.limit());
+    }
+
+    /**
+     * Decrypts a view of a Tlv into a value-field borrowed from a pool.
+     * The value-field of the returned view is held by an array borrowed from the pool, which the caller must release
+     * back to the pool once the view is no longer needed.
+     *
+     * @param tlv the tlv to decrypt
+     * @param strategy the decryption strategy
+     * @param pool the pool to borrow the value-field from
+     * @return a view of the decrypted tlv
+     * @throws EncryptionException thrown if decryption fails
+     */
+    public static TlvView decryptTlv(TlvView tlv, DecryptionStrategy strategy, ByteArrayPool pool)
+            throws EncryptionException {
+        if (tlv == null) {
+            throw new IllegalArgumentException("Cannot decrypt tlv, because tlv is null.");
+        }
+
+        if (strategy == null) {
+            throw new IllegalArgumentException("Cannot decrypt tlv, because decryption strategy is null.");
+        }
+
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot decrypt tlv, because pool is null.");
+        }
+
+        ByteBuffer valueField = strategy.decrypt(tlv.getValueBuffer(), tlv.getValueOffset(), tlv.getValueLength(), pool);
+
+        return tlv.withValue(valueField.array(), 0, valueField.limit());
+    }
+
     /**
      * Generates a length field for a Tlv with a specified value field and TLV frame.
      *
@@ -0,0 +1,48 @@
+package no.ntnu.network.message.encryption.cipher;
+
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * Holds the parameters of the AES/GCM authenticated encryption used for symmetric session encryption.
+ * <p/>
+ * Every encrypted message starts with the nonce it was encrypted with, followed by the ciphertext and the
+ * authentication tag. A message that has been tampered with, or encrypted with another key, fails to decrypt
+ * rather than decrypting into garbage.
+ */
+public class AesGcm {
+    /**
+     * The transformation of the cipher.
+     */
+    public static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    /**
+     * The length of the nonce in bytes.
+     */
+    public static final int NONCE_LENGTH = 12;
+
+    /**
+     * The length of the authentication tag in bytes.
+     */
+    public static final int TAG_LENGTH = 16;
+
+    /**
+     * The number of bytes an encrypted message is longer than the plaintext.
+     */
+    public static final int OVERHEAD = NONCE_LENGTH + TAG_LENGTH;
+
+    /**
+     * Does not allow creating instances of the class.
+     */
+    private AesGcm() {}
+
+    /**
+     * Returns the cipher parameters for a nonce.
+     *
+     * @param buffer the array holding the nonce
+     * @param offset the index of the nonce in the array
+     * @return the parameters
+     */
+    public static GCMParameterSpec parameters(byte[] buffer, int offset) {
+        return new GCMParameterSpec(TAG_LENGTH * Byte.SIZE, buffer, offset, NONCE_LENGTH);
+    }
+}
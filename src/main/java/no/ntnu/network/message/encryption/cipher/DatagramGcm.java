@@ -0,0 +1,99 @@
+package no.ntnu.network.message.encryption.cipher;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Holds the parameters of the AES/GCM authenticated encryption of sensor data datagrams.
+ * <p/>
+ * Datagrams may be lost, duplicated or reordered, so every datagram is encrypted on its own. Its nonce is made of the
+ * channel id, being the address of the client whose session the datagrams belong to, followed by a sequence number
+ * counted by the sender. The nonce is written in front of the encrypted datagram, letting the receiver find the key
+ * of the channel and reject datagrams it has already received. Datagrams are encrypted with a key derived from the
+ * session key, so that their nonces never collide with those of the control messages of the session.
+ */
+public class DatagramGcm {
+    /**
+     * The length of the channel id in bytes.
+     */
+    public static final int CHANNEL_ID_LENGTH = Integer.BYTES;
+
+    /**
+     * The length of the sequence number in bytes.
+     */
+    public static final int SEQUENCE_NUMBER_LENGTH = AesGcm.NONCE_LENGTH - CHANNEL_ID_LENGTH;
+
+    private static final String KEY_DIGEST = "SHA-256";
+    private static final byte[] KEY_LABEL = "NOFSP sensor data".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Does not allow creating instances of the class.
+     */
+    private DatagramGcm() {}
+
+    /**
+     * Derives the key encrypting the sensor data datagrams of a session from the session key.
+     * The derived key is as long as the session key.
+     *
+     * @param sessionKey the secret key of the session
+     * @return the derived key
+     */
+    public static SecretKey deriveKey(SecretKey sessionKey) {
+        if (sessionKey == null) {
+            throw new IllegalArgumentException("Cannot derive datagram key, because sessionKey is null.");
+        }
+
+        byte[] sessionKeyBytes = sessionKey.getEncoded();
+        MessageDigest digest = null;
+        try {
+            digest = MessageDigest.getInstance(KEY_DIGEST);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException("Cannot derive datagram key: " + e.getMessage());
+        }
+
+        digest.update(KEY_LABEL);
+        byte[] hash = digest.digest(sessionKeyBytes);
+
+        return new SecretKeySpec(Arrays.copyOf(hash, sessionKeyBytes.length), sessionKey.getAlgorithm());
+    }
+
+    /**
+     * Writes a nonce made of a channel id and a sequence number.
+     *
+     * @param channelId the channel id
+     * @param sequenceNumber the sequence number
+     * @param destination the array to write the nonce to
+     * @param offset the index to write the nonce to
+     */
+    public static void writeNonce(int channelId, long sequenceNumber, byte[] destination, int offset) {
+        ByteBuffer.wrap(destination, offset, AesGcm.NONCE_LENGTH).putInt(channelId).putLong(sequenceNumber);
+    }
+
+    /**
+     * Reads the channel id of the nonce of an encrypted datagram.
+     *
+     * @param data the array holding the encrypted datagram
+     * @param offset the index of the nonce
+     * @return the channel id
+     */
+    public static int readChannelId(byte[] data, int offset) {
+        return ByteBuffer.wrap(data, offset, CHANNEL_ID_LENGTH).getInt();
+    }
+
+    /**
+     * Reads the sequence number of the nonce of an encrypted datagram.
+     *
+     * @param data the array holding the encrypted datagram
+     * @param offset the index of the nonce
+     * @return the sequence number
+     */
+    public static long readSequenceNumber(byte[] data, int offset) {
+        return ByteBuffer.wrap(data, offset + CHANNEL_ID_LENGTH, SEQUENCE_NUMBER_LENGTH).getLong();
+    }
+}
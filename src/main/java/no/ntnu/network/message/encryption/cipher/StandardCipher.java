@@ -1,22 +1,33 @@
 package no.ntnu.network.message.encryption.cipher;
 
 import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
+import java.nio.ByteBuffer;
+import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
+import java.security.spec.AlgorithmParameterSpec;
 
 /**
  * A base class for standard ciphers.
+ * <p/>
+ * Every thread transforming data with the cipher is given a {@code Cipher} instance of its own, looked up and
+ * initialized the first time the thread uses it, rather than for every message. A cipher returns to its initialized
+ * state after every transformation, so ciphers whose parameters do not change between messages are never
+ * initialized again, while ciphers needing new parameters for every message are only reinitialized.
  */
 public abstract class StandardCipher {
     private final String transformation;
     private final int mode;
     private final Key key;
+    private final ThreadLocal<Cipher> threadCiphers;
 
     /**
      * Creates a new StandardCipher.
@@ -37,15 +48,16 @@ public abstract class StandardCipher {
         this.transformation = transformation;
         this.mode = mode;
         this.key = key;
+        this.threadCiphers = new ThreadLocal<>();
     }
 
     /**
-     * Returns a cipher using the RSA algorithm.
+     * Returns a new cipher using the transformation of the cipher.
      *
      * @return the cipher
      * @throws EncryptionException thrown if cipher could not be established
      */
-    private Cipher getCipher() throws EncryptionException {
+    private Cipher createCipher() throws EncryptionException {
         Cipher cipher = null;
 
         try {
@@ -58,33 +70,113 @@ public abstract class StandardCipher {
     }
 
     /**
-     * Initializes the cipher.
+     * Initializes a cipher.
      *
      * @param cipher the cipher to initialize
+     * @param parameters the parameters to initialize the cipher with, null if the cipher takes no parameters
      * @throws EncryptionException thrown if cipher cannot be initialized
      */
-    private void initializeCipher(Cipher cipher) throws EncryptionException {
+    private void initializeCipher(Cipher cipher, AlgorithmParameterSpec parameters) throws EncryptionException {
         try {
-            cipher.init(mode, key);
-        } catch (InvalidKeyException e) {
+            if (parameters == null) {
+                cipher.init(mode, key);
+            } else {
+                cipher.init(mode, key, parameters);
+            }
+        } catch (InvalidKeyException | InvalidAlgorithmParameterException e) {
             throw new EncryptionException(e.getMessage());
         }
     }
 
+    /**
+     * Returns the cipher of the calling thread, initialized with the key of the cipher.
+     * The cipher is created and initialized the first time the thread uses it.
+     *
+     * @return the initialized cipher
+     * @throws EncryptionException thrown if the cipher cannot be established
+     */
+    protected Cipher getInitializedCipher() throws EncryptionException {
+        Cipher cipher = threadCiphers.get();
+
+        if (cipher == null) {
+            cipher = createCipher();
+            initializeCipher(cipher, null);
+            threadCiphers.set(cipher);
+        }
+
+        return cipher;
+    }
+
+    /**
+     * Returns the cipher of the calling thread, initialized with the key of the cipher and the given parameters.
+     * Used by ciphers needing new parameters for every message, such as the nonce of an authenticated mode.
+     *
+     * @param parameters the parameters to initialize the cipher with
+     * @return the initialized cipher
+     * @throws EncryptionException thrown if the cipher cannot be established
+     */
+    protected Cipher getInitializedCipher(AlgorithmParameterSpec parameters) throws EncryptionException {
+        if (parameters == null) {
+            throw new IllegalArgumentException("Cannot initialize cipher, because parameters is null.");
+        }
+
+        Cipher cipher = threadCiphers.get();
+
+        if (cipher == null) {
+            cipher = createCipher();
+            threadCiphers.set(cipher);
+        }
+
+        initializeCipher(cipher, parameters);
+
+        return cipher;
+    }
+
+    /**
+     * Transforms a range of an array of data into a given output array, using a cipher of the calling thread.
+     * The input and output may be held by the same array. A cipher failing to transform the data is discarded,
+     * so that the thread starts over with a new cipher.
+     *
+     * @param cipher the cipher to use for transformation
+     * @param data the array holding the data to transform
+     * @param offset the index of the first byte to transform
+     * @param length the number of bytes to transform
+     * @param output the array to write the transformed data to
+     * @param outputOffset the index to write the first transformed byte to
+     * @return the number of bytes written to the output
+     * @throws EncryptionException thrown if data cannot be transformed
+     */
+    protected int transformInto(Cipher cipher, byte[] data, int offset, int length, byte[] output, int outputOffset)
+            throws EncryptionException {
+        int result = 0;
+
+        try {
+            result = cipher.doFinal(data, offset, length, output, outputOffset);
+        } catch (IllegalBlockSizeException | BadPaddingException | ShortBufferException e) {
+            threadCiphers.remove();
+            throw new EncryptionException(e.getMessage());
+        }
+
+        return result;
+    }
+
     /**
      * Transforms data, assuming that a cipher has already been established.
      *
-     * @param data the data to transform
+     * @param data the array holding the data to transform
+     * @param offset the index of the first byte to transform
+     * @param length the number of bytes to transform
      * @param cipher the cipher to use for transformation
      * @return the transformed data
      * @throws EncryptionException thrown if data cannot be transformed
      */
-    private static byte[] transformData(byte[] data, Cipher cipher) throws EncryptionException {
+    private byte[] transformData(byte[] data, int offset, int length, Cipher cipher) throws EncryptionException {
         byte[] result = null;
 
         try {
-            result = cipher.doFinal(data);
+            result = cipher.doFinal(data, offset, length);
         } catch (IllegalBlockSizeException | BadPaddingException e) {
+            threadCiphers.remove();
             throw new EncryptionException(e.getMessage());
         }
 
@@ -99,8 +191,51 @@ public abstract class StandardCipher {
      * @throws EncryptionException thrown if data transformation fails
      */
     protected byte[] transform(byte[] data) throws EncryptionException {
-        Cipher cipher = getCipher();
-        initializeCipher(cipher);
-        return transformData(data, cipher);
+        return transform(data, 0, data.length);
+    }
+
+    /**
+     * Transforms a range of an array of data, without copying the range.
+     *
+     * @param data the array holding the data to transform
+     * @param offset the index of the first byte to transform
+     * @param length the number of bytes to transform
+     * @return the transformed data
+     * @throws EncryptionException thrown if data transformation fails
+     */
+    protected byte[] transform(byte[] data, int offset, int length) throws EncryptionException {
+        return transformData(data, offset, length, getInitializedCipher());
+    }
+
+    /**
+     * Transforms a range of an array of data into an array borrowed from a pool.
+     * The borrowed array is sized by the cipher to fit the output, and is returned to the pool if the transformation
+     * fails.
+     *
+     * @param data the array holding the data to transform
+     * @param offset the index of the first byte to transform
+     * @param length the number of bytes to transform
+     * @param pool the pool to borrow the output array from
+     * @return a buffer wrapping the borrowed array, holding the transformed data up to its limit
+     * @throws EncryptionException thrown if data transformation fails
+     */
+    protected ByteBuffer transform(byte[] data, int offset, int length, ByteArrayPool pool) throws EncryptionException {
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot transform data, because pool is null.");
+        }
+
+        ByteBuffer result = null;
+
+        Cipher cipher = getInitializedCipher();
+        byte[] output = pool.acquire(cipher.getOutputSize(length));
+        try {
+            int outputLength = transformInto(cipher, data, offset, length, output, 0);
+            result = ByteBuffer.wrap(output, 0, outputLength);
+        } catch (EncryptionException e) {
+            pool.release(output);
+            throw e;
+        }
+
+        return result;
     }
 }
@@ -1,13 +1,18 @@
 package no.ntnu.network.message.encryption.cipher.decrypt;
 
 import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.message.encryption.cipher.AesGcm;
 import no.ntnu.network.message.encryption.cipher.StandardCipher;
 
 import javax.crypto.Cipher;
+import java.nio.ByteBuffer;
 import java.security.Key;
 
 /**
- * A decryption strategy using the AES decryption strategy.
+ * A decryption strategy using the AES algorithm in GCM mode.
+ * Every message is decrypted with the nonce written in front of it, and is only accepted if its authentication tag
+ * matches.
  */
 public class AESDecryption extends StandardCipher implements DecryptionStrategy {
     /**
@@ -16,11 +21,78 @@ public class AESDecryption extends StandardCipher implements DecryptionStrategy
      * @param key the secret key to use for encryption
      */
     public AESDecryption(Key key) {
-        super("AES", Cipher.DECRYPT_MODE, key);
+        super(AesGcm.TRANSFORMATION, Cipher.DECRYPT_MODE, key);
     }
 
     @Override
     public byte[] decrypt(byte[] data) throws EncryptionException {
-        return transform(data);
+        return decrypt(data, 0, data.length);
+    }
+
+    @Override
+    public byte[] decrypt(byte[] data, int offset, int length) throws EncryptionException {
+        checkLength(length);
+
+        byte[] output = new byte[length - AesGcm.OVERHEAD];
+        open(data, offset, length, output, 0);
+
+        return output;
+    }
+
+    @Override
+    public ByteBuffer decrypt(byte[] data, int offset, int length, ByteArrayPool pool) throws EncryptionException {
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot decrypt data, because pool is null.");
+        }
+
+        checkLength(length);
+        ByteBuffer result = null;
+
+        byte[] output = pool.acquire(length - AesGcm.OVERHEAD);
+        try {
+            result = ByteBuffer.wrap(output, 0, open(data, offset, length, output, 0));
+        } catch (EncryptionException e) {
+            pool.release(output);
+            throw e;
+        }
+
+        return result;
+    }
+
+    @Override
+    public int decryptInPlace(byte[] data, int offset, int length) throws EncryptionException {
+        checkLength(length);
+
+        return open(data, offset, length, data, offset);
+    }
+
+    /**
+     * Checks that an encrypted message is long enough to hold a nonce and an authentication tag.
+     *
+     * @param length the length of the encrypted message
+     * @throws EncryptionException thrown if the message is too short
+     */
+    private static void checkLength(int length) throws EncryptionException {
+        if (length < AesGcm.OVERHEAD) {
+            throw new EncryptionException("Cannot decrypt data, because it is too short to hold a nonce and a tag.");
+        }
+    }
+
+    /**
+     * Decrypts an encrypted message, starting with its nonce, into an output array.
+     *
+     * @param data the array holding the encrypted message
+     * @param offset the index of the first byte of the message
+     * @param length the length of the message
+     * @param output the array to write the decrypted bytes to
+     * @param outputOffset the index to write the first decrypted byte to
+     * @return the number of decrypted bytes
+     * @throws EncryptionException thrown if decryption fails, or the message has been tampered with
+     */
+    private int open(byte[] data, int offset, int length, byte[] output, int outputOffset) throws EncryptionException {
+        Cipher cipher = getInitializedCipher(AesGcm.parameters(data, offset));
+
+        return transformInto(cipher, data, offset + AesGcm.NONCE_LENGTH, length - AesGcm.NONCE_LENGTH, output,
+                outputOffset);
     }
 }
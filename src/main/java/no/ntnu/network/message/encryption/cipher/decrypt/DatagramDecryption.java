@@ -0,0 +1,167 @@
+package no.ntnu.network.message.encryption.cipher.decrypt;
+
+import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.message.encryption.cipher.AesGcm;
+import no.ntnu.network.message.encryption.cipher.DatagramGcm;
+import no.ntnu.network.message.encryption.cipher.StandardCipher;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+
+/**
+ * A decryption strategy for the sensor data datagrams of a single channel, encrypted by a
+ * {@code DatagramEncryption}.
+ * A datagram is only accepted if its nonce holds the id of the channel, its authentication tag matches, and its
+ * sequence number has not been seen before. Sequence numbers are tracked using a sliding window, accepting datagrams
+ * arriving out of order as long as they are not too far behind the newest datagram received.
+ */
+public class DatagramDecryption extends StandardCipher implements DecryptionStrategy {
+    private static final int REPLAY_WINDOW = Long.SIZE;
+    private final int channelId;
+    private boolean receivedAny;
+    private long highestSequenceNumber;
+    // bit i is set if the datagram i sequence numbers behind the highest has been received
+    private long receivedWindow;
+
+    /**
+     * Creates a new DatagramDecryption.
+     *
+     * @param sessionKey the secret key of the session
+     * @param channelId the address of the client the session belongs to
+     */
+    public DatagramDecryption(SecretKey sessionKey, int channelId) {
+        super(AesGcm.TRANSFORMATION, Cipher.DECRYPT_MODE, DatagramGcm.deriveKey(sessionKey));
+
+        this.channelId = channelId;
+        this.receivedAny = false;
+        this.highestSequenceNumber = 0;
+        this.receivedWindow = 0;
+    }
+
+    @Override
+    public byte[] decrypt(byte[] data) throws EncryptionException {
+        return decrypt(data, 0, data.length);
+    }
+
+    @Override
+    public byte[] decrypt(byte[] data, int offset, int length) throws EncryptionException {
+        checkLength(length);
+
+        byte[] output = new byte[length - AesGcm.OVERHEAD];
+        open(data, offset, length, output, 0);
+
+        return output;
+    }
+
+    @Override
+    public ByteBuffer decrypt(byte[] data, int offset, int length, ByteArrayPool pool) throws EncryptionException {
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot decrypt data, because pool is null.");
+        }
+
+        checkLength(length);
+        ByteBuffer result = null;
+
+        byte[] output = pool.acquire(length - AesGcm.OVERHEAD);
+        try {
+            result = ByteBuffer.wrap(output, 0, open(data, offset, length, output, 0));
+        } catch (EncryptionException e) {
+            pool.release(output);
+            throw e;
+        }
+
+        return result;
+    }
+
+    @Override
+    public int decryptInPlace(byte[] data, int offset, int length) throws EncryptionException {
+        checkLength(length);
+
+        return open(data, offset, length, data, offset);
+    }
+
+    /**
+     * Checks that an encrypted datagram is long enough to hold a nonce and an authentication tag.
+     *
+     * @param length the length of the encrypted datagram
+     * @throws EncryptionException thrown if the datagram is too short
+     */
+    private static void checkLength(int length) throws EncryptionException {
+        if (length < AesGcm.OVERHEAD) {
+            throw new EncryptionException("Cannot decrypt datagram, because it is too short to hold a nonce and a " +
+                    "tag.");
+        }
+    }
+
+    /**
+     * Decrypts an encrypted datagram, starting with its nonce, into an output array.
+     *
+     * @param data the array holding the encrypted datagram
+     * @param offset the index of the first byte of the datagram
+     * @param length the length of the datagram
+     * @param output the array to write the decrypted bytes to
+     * @param outputOffset the index to write the first decrypted byte to
+     * @return the number of decrypted bytes
+     * @throws EncryptionException thrown if decryption fails, or the datagram has been tampered with or replayed
+     */
+    private int open(byte[] data, int offset, int length, byte[] output, int outputOffset)
+            throws EncryptionException {
+        if (DatagramGcm.readChannelId(data, offset) != channelId) {
+            throw new EncryptionException("Cannot decrypt datagram, because it belongs to another channel.");
+        }
+
+        long sequenceNumber = DatagramGcm.readSequenceNumber(data, offset);
+        Cipher cipher = getInitializedCipher(AesGcm.parameters(data, offset));
+        int result = transformInto(cipher, data, offset + AesGcm.NONCE_LENGTH, length - AesGcm.NONCE_LENGTH,
+                output, outputOffset);
+
+        // only authentic datagrams move the window, so forged sequence numbers cannot push out real datagrams
+        if (!acceptSequenceNumber(sequenceNumber)) {
+            throw new EncryptionException("Cannot decrypt datagram, because it has already been received.");
+        }
+
+        return result;
+    }
+
+    /**
+     * Records the sequence number of an authentic datagram, unless it has been received before or is too far
+     * behind the newest datagram to tell.
+     *
+     * @param sequenceNumber the sequence number of the datagram
+     * @return true if the datagram is accepted, false if it is a replay or too old
+     */
+    private synchronized boolean acceptSequenceNumber(long sequenceNumber) {
+        boolean result = false;
+
+        if (!receivedAny) {
+            receivedAny = true;
+            highestSequenceNumber = sequenceNumber;
+            receivedWindow = 1;
+            result = true;
+        } else if (sequenceNumber > highestSequenceNumber) {
+            long shift = sequenceNumber - highestSequenceNumber;
+            receivedWindow = shift < REPLAY_WINDOW ? (receivedWindow << shift) | 1 : 1;
+            highestSequenceNumber = sequenceNumber;
+            result = true;
+        } else {
+            long age = highestSequenceNumber - sequenceNumber;
+            if (age < REPLAY_WINDOW && (receivedWindow & (1L << age)) == 0) {
+                receivedWindow |= 1L << age;
+                result = true;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the id of the channel the datagrams are decrypted for.
+     *
+     * @return the channel id
+     */
+    public int getChannelId() {
+        return channelId;
+    }
+}
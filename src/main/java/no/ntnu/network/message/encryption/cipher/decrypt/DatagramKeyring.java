@@ -0,0 +1,96 @@
+package no.ntnu.network.message.encryption.cipher.decrypt;
+
+import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.message.encryption.cipher.DatagramGcm;
+
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A decryption strategy for sensor data datagrams received from many channels on the same socket.
+ * Every datagram is decrypted by the {@code DatagramDecryption} of the channel whose id is written in its nonce, and
+ * datagrams of channels without a key are rejected.
+ */
+public class DatagramKeyring implements DecryptionStrategy {
+    private final Map<Integer, DatagramDecryption> channels;
+
+    /**
+     * Creates a new DatagramKeyring.
+     */
+    public DatagramKeyring() {
+        this.channels = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds the key of a channel, replacing any earlier key of the channel.
+     *
+     * @param channelId the address of the client the session belongs to
+     * @param sessionKey the secret key of the session
+     */
+    public void addChannel(int channelId, SecretKey sessionKey) {
+        channels.put(channelId, new DatagramDecryption(sessionKey, channelId));
+    }
+
+    /**
+     * Removes the key of a channel, rejecting its datagrams from now on.
+     *
+     * @param channelId the id of the channel to remove
+     */
+    public void removeChannel(int channelId) {
+        channels.remove(channelId);
+    }
+
+    /**
+     * Returns the number of channels with a key.
+     *
+     * @return the number of channels
+     */
+    public int getChannelCount() {
+        return channels.size();
+    }
+
+    /**
+     * Returns the decryption of the channel an encrypted datagram belongs to.
+     *
+     * @param data the array holding the encrypted datagram
+     * @param offset the index of the first byte of the datagram
+     * @param length the length of the datagram
+     * @return the decryption of the channel
+     * @throws EncryptionException thrown if the datagram cannot hold a channel id, or the channel has no key
+     */
+    private DatagramDecryption getChannel(byte[] data, int offset, int length) throws EncryptionException {
+        if (length < DatagramGcm.CHANNEL_ID_LENGTH) {
+            throw new EncryptionException("Cannot decrypt datagram, because it is too short to hold a channel id.");
+        }
+
+        DatagramDecryption channel = channels.get(DatagramGcm.readChannelId(data, offset));
+        if (channel == null) {
+            throw new EncryptionException("Cannot decrypt datagram, because its channel has no key.");
+        }
+
+        return channel;
+    }
+
+    @Override
+    public byte[] decrypt(byte[] data) throws EncryptionException {
+        return decrypt(data, 0, data.length);
+    }
+
+    @Override
+    public byte[] decrypt(byte[] data, int offset, int length) throws EncryptionException {
+        return getChannel(data, offset, length).decrypt(data, offset, length);
+    }
+
+    @Override
+    public ByteBuffer decrypt(byte[] data, int offset, int length, ByteArrayPool pool) throws EncryptionException {
+        return getChannel(data, offset, length).decrypt(data, offset, length, pool);
+    }
+
+    @Override
+    public int decryptInPlace(byte[] data, int offset, int length) throws EncryptionException {
+        return getChannel(data, offset, length).decryptInPlace(data, offset, length);
+    }
+}
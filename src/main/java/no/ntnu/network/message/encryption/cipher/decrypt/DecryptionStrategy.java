@@ -1,6 +1,10 @@
 package no.ntnu.network.message.encryption.cipher.decrypt;
 
 import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * An interface for decryption algorithms.
@@ -13,4 +17,60 @@ public interface DecryptionStrategy {
      * @return the decrypted bytes
      */
     byte[] decrypt(byte[] data) throws EncryptionException;
+
+    /**
+     * Decrypts a range of an array of bytes.
+     * The default implementation copies the range before decrypting it.
+     *
+     * @param data the array holding the bytes to decrypt
+     * @param offset the index of the first byte to decrypt
+     * @param length the number of bytes to decrypt
+     * @return the decrypted bytes
+     */
+    default byte[] decrypt(byte[] data, int offset, int length) throws EncryptionException {
+        return decrypt(Arrays.copyOfRange(data, offset, offset + length));
+    }
+
+    /**
+     * Decrypts a range of an array of bytes into an array borrowed from a pool.
+     * The returned buffer wraps the borrowed array, holding the decrypted bytes from index 0 up to its limit.
+     * The caller is responsible for releasing the array back to the pool once the bytes are no longer needed.
+     * The default implementation copies the bytes returned by {@code decrypt(byte[], int, int)} into the borrowed
+     * array.
+     *
+     * @param data the array holding the bytes to decrypt
+     * @param offset the index of the first byte to decrypt
+     * @param length the number of bytes to decrypt
+     * @param pool the pool to borrow the output array from
+     * @return a buffer wrapping the borrowed array
+     */
+    default ByteBuffer decrypt(byte[] data, int offset, int length, ByteArrayPool pool) throws EncryptionException {
+        byte[] decrypted = decrypt(data, offset, length);
+        byte[] output = pool.acquire(decrypted.length);
+        System.arraycopy(decrypted, 0, output, 0, decrypted.length);
+
+        return ByteBuffer.wrap(output, 0, decrypted.length);
+    }
+
+    /**
+     * Decrypts a range of an array of bytes in place, writing the decrypted bytes over the encrypted ones, starting
+     * at the same index. Decrypted bytes are never longer than the encrypted bytes they were decrypted from.
+     * The default implementation copies the bytes returned by {@code decrypt(byte[], int, int)} back into the array.
+     *
+     * @param data the array holding the bytes to decrypt
+     * @param offset the index of the first byte to decrypt
+     * @param length the number of bytes to decrypt
+     * @return the number of decrypted bytes
+     */
+    default int decryptInPlace(byte[] data, int offset, int length) throws EncryptionException {
+        byte[] decrypted = decrypt(data, offset, length);
+        if (decrypted.length > length) {
+            throw new EncryptionException("Cannot decrypt data in place, because the decrypted data is longer than " +
+                    "the encrypted data.");
+        }
+
+        System.arraycopy(decrypted, 0, data, offset, decrypted.length);
+
+        return decrypted.length;
+    }
 }
@@ -1,9 +1,11 @@
 package no.ntnu.network.message.encryption.cipher.decrypt;
 
 import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
 import no.ntnu.network.message.encryption.cipher.StandardCipher;
 
 import javax.crypto.Cipher;
+import java.nio.ByteBuffer;
 import java.security.PrivateKey;
 
 /**
@@ -23,4 +25,14 @@ public class RSADecryption extends StandardCipher implements DecryptionStrategy
     public byte[] decrypt(byte[] data) throws EncryptionException {
         return transform(data);
     }
+
+    @Override
+    public byte[] decrypt(byte[] data, int offset, int length) throws EncryptionException {
+        return transform(data, offset, length);
+    }
+
+    @Override
+    public ByteBuffer decrypt(byte[] data, int offset, int length, ByteArrayPool pool) throws EncryptionException {
+        return transform(data, offset, length, pool);
+    }
 }
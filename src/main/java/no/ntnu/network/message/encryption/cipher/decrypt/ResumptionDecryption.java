@@ -0,0 +1,67 @@
+package no.ntnu.network.message.encryption.cipher.decrypt;
+
+import no.ntnu.exception.EncryptionException;
+
+import javax.crypto.SecretKey;
+import java.util.Arrays;
+
+/**
+ * A decryption strategy used by a client while resuming a session, before it knows whether the server holds the
+ * session key.
+ * <p/>
+ * A server resuming the session encrypts its response with the session key, while a server declining the ticket does
+ * not know the key and responds in plain text. Messages are therefore decrypted with the session key when their
+ * authentication tag matches, and passed on as plain text otherwise. Once a message has been decrypted with the
+ * session key, the server is known to hold it, and plain text is no longer accepted.
+ */
+public class ResumptionDecryption implements DecryptionStrategy {
+    private final AESDecryption sessionDecryption;
+    private volatile boolean secure;
+
+    /**
+     * Creates a new ResumptionDecryption.
+     *
+     * @param sessionKey the secret key of the session being resumed
+     */
+    public ResumptionDecryption(SecretKey sessionKey) {
+        if (sessionKey == null) {
+            throw new IllegalArgumentException("Cannot create ResumptionDecryption, because sessionKey is null.");
+        }
+
+        this.sessionDecryption = new AESDecryption(sessionKey);
+        this.secure = false;
+    }
+
+    @Override
+    public byte[] decrypt(byte[] data) throws EncryptionException {
+        return decrypt(data, 0, data.length);
+    }
+
+    @Override
+    public byte[] decrypt(byte[] data, int offset, int length) throws EncryptionException {
+        byte[] result = null;
+
+        if (secure) {
+            result = sessionDecryption.decrypt(data, offset, length);
+        } else {
+            try {
+                result = sessionDecryption.decrypt(data, offset, length);
+                secure = true;
+            } catch (EncryptionException e) {
+                // not encrypted with the session key, so the server has not resumed the session
+                result = Arrays.copyOfRange(data, offset, offset + length);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns whether a message has been decrypted with the session key, showing that the server holds it.
+     *
+     * @return true if the server holds the session key
+     */
+    public boolean isSecure() {
+        return secure;
+    }
+}
@@ -1,26 +1,86 @@
 package no.ntnu.network.message.encryption.cipher.encrypt;
 
 import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.message.encryption.cipher.AesGcm;
 import no.ntnu.network.message.encryption.cipher.StandardCipher;
 
 import javax.crypto.Cipher;
+import java.nio.ByteBuffer;
 import java.security.Key;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * An encryption strategy using the AES algorithm.
+ * An encryption strategy using the AES algorithm in GCM mode.
+ * Every message is encrypted with a nonce of its own, made of a random prefix and a counter starting at a random
+ * value, so that the nonces of two encryptions sharing a key, such as the two ends of a connection, do not collide.
+ * The nonce is written in front of the encrypted message.
  */
 public class AESEncryption extends StandardCipher implements EncryptionStrategy {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private final int noncePrefix;
+    private final AtomicLong nonceCounter;
+
     /**
      * Creates a new AESEncryption.
      *
      * @param key the secret key to use for encryption
      */
     public AESEncryption(Key key) {
-        super("AES", Cipher.ENCRYPT_MODE, key);
+        super(AesGcm.TRANSFORMATION, Cipher.ENCRYPT_MODE, key);
+
+        this.noncePrefix = RANDOM.nextInt();
+        this.nonceCounter = new AtomicLong(RANDOM.nextLong());
     }
 
     @Override
     public byte[] encrypt(byte[] data) throws EncryptionException {
-        return transform(data);
+        return encrypt(data, 0, data.length);
+    }
+
+    @Override
+    public byte[] encrypt(byte[] data, int offset, int length) throws EncryptionException {
+        byte[] output = new byte[length + AesGcm.OVERHEAD];
+        seal(data, offset, length, output);
+
+        return output;
+    }
+
+    @Override
+    public ByteBuffer encrypt(byte[] data, int offset, int length, ByteArrayPool pool) throws EncryptionException {
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot encrypt data, because pool is null.");
+        }
+
+        ByteBuffer result = null;
+
+        byte[] output = pool.acquire(length + AesGcm.OVERHEAD);
+        try {
+            result = ByteBuffer.wrap(output, 0, seal(data, offset, length, output));
+        } catch (EncryptionException e) {
+            pool.release(output);
+            throw e;
+        }
+
+        return result;
+    }
+
+    /**
+     * Encrypts a range of an array of bytes into an output array, writing the next nonce in front of the encrypted
+     * bytes.
+     *
+     * @param data the array holding the bytes to encrypt
+     * @param offset the index of the first byte to encrypt
+     * @param length the number of bytes to encrypt
+     * @param output the array to write the nonce and the encrypted bytes to, starting at index 0
+     * @return the number of bytes written to the output
+     * @throws EncryptionException thrown if encryption fails
+     */
+    private int seal(byte[] data, int offset, int length, byte[] output) throws EncryptionException {
+        ByteBuffer.wrap(output, 0, AesGcm.NONCE_LENGTH).putInt(noncePrefix).putLong(nonceCounter.getAndIncrement());
+
+        Cipher cipher = getInitializedCipher(AesGcm.parameters(output, 0));
+        return AesGcm.NONCE_LENGTH + transformInto(cipher, data, offset, length, output, AesGcm.NONCE_LENGTH);
     }
 }
@@ -0,0 +1,117 @@
+package no.ntnu.network.message.encryption.cipher.encrypt;
+
+import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.message.encryption.cipher.AesGcm;
+import no.ntnu.network.message.encryption.cipher.DatagramGcm;
+import no.ntnu.network.message.encryption.cipher.StandardCipher;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An encryption strategy for sensor data datagrams, using the AES algorithm in GCM mode with a key derived from the
+ * session key.
+ * Every datagram is encrypted with a nonce of its own, made of the channel id and the next sequence number. The
+ * sequence starts at a random number, so that a session resumed under the same key does not repeat the nonces of
+ * its earlier datagrams.
+ */
+public class DatagramEncryption extends StandardCipher implements EncryptionStrategy {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private final int channelId;
+    private final AtomicLong sequenceNumber;
+
+    /**
+     * Creates a new DatagramEncryption.
+     *
+     * @param sessionKey the secret key of the session
+     * @param channelId the address of the client the session belongs to
+     */
+    public DatagramEncryption(SecretKey sessionKey, int channelId) {
+        super(AesGcm.TRANSFORMATION, Cipher.ENCRYPT_MODE, DatagramGcm.deriveKey(sessionKey));
+
+        this.channelId = channelId;
+        // leaves room for counting far beyond any realistic number of datagrams without overflowing
+        this.sequenceNumber = new AtomicLong(RANDOM.nextLong() >>> 2);
+    }
+
+    @Override
+    public byte[] encrypt(byte[] data) throws EncryptionException {
+        return encrypt(data, 0, data.length);
+    }
+
+    @Override
+    public byte[] encrypt(byte[] data, int offset, int length) throws EncryptionException {
+        byte[] output = new byte[length + AesGcm.OVERHEAD];
+        seal(data, offset, length, output, 0);
+
+        return output;
+    }
+
+    @Override
+    public ByteBuffer encrypt(byte[] data, int offset, int length, ByteArrayPool pool) throws EncryptionException {
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot encrypt data, because pool is null.");
+        }
+
+        ByteBuffer result = null;
+
+        byte[] output = pool.acquire(length + AesGcm.OVERHEAD);
+        try {
+            result = ByteBuffer.wrap(output, 0, seal(data, offset, length, output, 0));
+        } catch (EncryptionException e) {
+            pool.release(output);
+            throw e;
+        }
+
+        return result;
+    }
+
+    @Override
+    public int getHeaderLength() {
+        return AesGcm.NONCE_LENGTH;
+    }
+
+    @Override
+    public int encryptInPlace(byte[] data, int offset, int length) throws EncryptionException {
+        if (data.length - offset < length + AesGcm.OVERHEAD) {
+            throw new EncryptionException("Cannot encrypt data in place, because the array has no room for the " +
+                    "nonce and the tag.");
+        }
+
+        return seal(data, offset + AesGcm.NONCE_LENGTH, length, data, offset);
+    }
+
+    /**
+     * Encrypts a range of an array of bytes into an output array, writing the next nonce in front of the encrypted
+     * bytes. The encrypted bytes may be written over the bytes they are encrypted from.
+     *
+     * @param data the array holding the bytes to encrypt
+     * @param offset the index of the first byte to encrypt
+     * @param length the number of bytes to encrypt
+     * @param output the array to write the nonce and the encrypted bytes to
+     * @param outputOffset the index to write the nonce to
+     * @return the number of bytes written to the output
+     * @throws EncryptionException thrown if encryption fails
+     */
+    private int seal(byte[] data, int offset, int length, byte[] output, int outputOffset)
+            throws EncryptionException {
+        DatagramGcm.writeNonce(channelId, sequenceNumber.getAndIncrement(), output, outputOffset);
+
+        Cipher cipher = getInitializedCipher(AesGcm.parameters(output, outputOffset));
+        return AesGcm.NONCE_LENGTH + transformInto(cipher, data, offset, length, output,
+                outputOffset + AesGcm.NONCE_LENGTH);
+    }
+
+    /**
+     * Returns the channel id written in the nonce of every datagram.
+     *
+     * @return the channel id
+     */
+    public int getChannelId() {
+        return channelId;
+    }
+}
@@ -1,6 +1,10 @@
 package no.ntnu.network.message.encryption.cipher.encrypt;
 
 import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * An interface for encryption algorithms.
@@ -13,4 +17,72 @@ public interface EncryptionStrategy {
      * @return the encrypted bytes
      */
     byte[] encrypt(byte[] data) throws EncryptionException;
+
+    /**
+     * Encrypts a range of an array of bytes.
+     * The default implementation copies the range before encrypting it.
+     *
+     * @param data the array holding the bytes to encrypt
+     * @param offset the index of the first byte to encrypt
+     * @param length the number of bytes to encrypt
+     * @return the encrypted bytes
+     */
+    default byte[] encrypt(byte[] data, int offset, int length) throws EncryptionException {
+        return encrypt(Arrays.copyOfRange(data, offset, offset + length));
+    }
+
+    /**
+     * Encrypts a range of an array of bytes into an array borrowed from a pool.
+     * The returned buffer wraps the borrowed array, holding the encrypted bytes from index 0 up to its limit.
+     * The caller is responsible for releasing the array back to the pool once the bytes are no longer needed.
+     * The default implementation copies the bytes returned by {@code encrypt(byte[], int, int)} into the borrowed
+     * array.
+     *
+     * @param data the array holding the bytes to encrypt
+     * @param offset the index of the first byte to encrypt
+     * @param length the number of bytes to encrypt
+     * @param pool the pool to borrow the output array from
+     * @return a buffer wrapping the borrowed array
+     */
+    default ByteBuffer encrypt(byte[] data, int offset, int length, ByteArrayPool pool) throws EncryptionException {
+        byte[] encrypted = encrypt(data, offset, length);
+        byte[] output = pool.acquire(encrypted.length);
+        System.arraycopy(encrypted, 0, output, 0, encrypted.length);
+
+        return ByteBuffer.wrap(output, 0, encrypted.length);
+    }
+
+    /**
+     * Returns the number of bytes the encryption writes in front of the encrypted bytes, such as a nonce.
+     * Callers encrypting in place leave this many bytes free in front of the bytes to encrypt.
+     *
+     * @return the length of the header
+     */
+    default int getHeaderLength() {
+        return 0;
+    }
+
+    /**
+     * Encrypts a range of an array of bytes in place.
+     * The bytes to encrypt start {@code getHeaderLength()} bytes after the given offset, and the encrypted bytes,
+     * header included, are written starting at the offset. The array must have room for the encrypted bytes, which
+     * may be longer than the bytes they were encrypted from. The default implementation copies the bytes returned by
+     * {@code encrypt(byte[], int, int)} back into the array.
+     *
+     * @param data the array holding the bytes to encrypt
+     * @param offset the index to write the first encrypted byte to
+     * @param length the number of bytes to encrypt
+     * @return the number of encrypted bytes
+     */
+    default int encryptInPlace(byte[] data, int offset, int length) throws EncryptionException {
+        byte[] encrypted = encrypt(data, offset + getHeaderLength(), length);
+        if (encrypted.length > data.length - offset) {
+            throw new EncryptionException("Cannot encrypt data in place, because the array has no room for the " +
+                    "encrypted data.");
+        }
+
+        System.arraycopy(encrypted, 0, data, offset, encrypted.length);
+
+        return encrypted.length;
+    }
 }
@@ -1,6 +1,10 @@
 package no.ntnu.network.message.encryption.cipher.encrypt;
 
 import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * An encryption strategy that does not perform any encryption.
@@ -10,4 +14,29 @@ public class PlainTextEncryption implements EncryptionStrategy {
     public byte[] encrypt(byte[] data) throws EncryptionException {
         return data;
     }
+
+    @Override
+    public byte[] encrypt(byte[] data, int offset, int length) throws EncryptionException {
+        byte[] result = data;
+
+        // only copies the bytes if the range does not cover the whole array
+        if (offset != 0 || length != data.length) {
+            result = Arrays.copyOfRange(data, offset, offset + length);
+        }
+
+        return result;
+    }
+
+    @Override
+    public ByteBuffer encrypt(byte[] data, int offset, int length, ByteArrayPool pool) throws EncryptionException {
+        byte[] output = pool.acquire(length);
+        System.arraycopy(data, offset, output, 0, length);
+
+        return ByteBuffer.wrap(output, 0, length);
+    }
+
+    @Override
+    public int encryptInPlace(byte[] data, int offset, int length) throws EncryptionException {
+        return length;
+    }
 }
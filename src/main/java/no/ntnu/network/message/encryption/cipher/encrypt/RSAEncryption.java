@@ -1,9 +1,11 @@
 package no.ntnu.network.message.encryption.cipher.encrypt;
 
 import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
 import no.ntnu.network.message.encryption.cipher.StandardCipher;
 
 import javax.crypto.Cipher;
+import java.nio.ByteBuffer;
 import java.security.PublicKey;
 
 /**
@@ -23,4 +25,14 @@ public class RSAEncryption extends StandardCipher implements EncryptionStrategy
     public byte[] encrypt(byte[] data) throws EncryptionException {
         return transform(data);
     }
+
+    @Override
+    public byte[] encrypt(byte[] data, int offset, int length) throws EncryptionException {
+        return transform(data, offset, length);
+    }
+
+    @Override
+    public ByteBuffer encrypt(byte[] data, int offset, int length, ByteArrayPool pool) throws EncryptionException {
+        return transform(data, offset, length, pool);
+    }
 }
@@ -0,0 +1,58 @@
+package no.ntnu.network.message.encryption.keygen;
+
+import javax.crypto.KeyAgreement;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Arrays;
+
+/**
+ * Derives a shared secret key from an elliptic-curve key agreement between two parties.
+ * Each party combines its own private key with the public key of the other party, and both end up with the same
+ * AES key, without the key ever being sent.
+ */
+public class ECKeyAgreement {
+    /**
+     * The name of the key agreement algorithm, and of its keys.
+     */
+    public static final String ALGORITHM = "XDH";
+
+    /**
+     * Does not allow creating instances of the class.
+     */
+    private ECKeyAgreement() {}
+
+    /**
+     * Derives the AES key shared with another party, hashing the agreed secret with SHA-256.
+     *
+     * @param privateKey the private key of this party
+     * @param peerPublicKey the public key of the other party
+     * @return the shared secret key
+     * @throws NoSuchAlgorithmException thrown if the key agreement or hash algorithm cannot be found
+     * @throws InvalidKeyException thrown if any of the keys cannot be used for the key agreement
+     */
+    public static SecretKey deriveSecretKey(PrivateKey privateKey, PublicKey peerPublicKey)
+            throws NoSuchAlgorithmException, InvalidKeyException {
+        if (privateKey == null) {
+            throw new IllegalArgumentException("Cannot derive secret key, because privateKey is null.");
+        }
+
+        if (peerPublicKey == null) {
+            throw new IllegalArgumentException("Cannot derive secret key, because peerPublicKey is null.");
+        }
+
+        KeyAgreement keyAgreement = KeyAgreement.getInstance(ALGORITHM);
+        keyAgreement.init(privateKey);
+        keyAgreement.doPhase(peerPublicKey, true);
+
+        byte[] sharedSecret = keyAgreement.generateSecret();
+        byte[] keyBytes = MessageDigest.getInstance("SHA-256").digest(sharedSecret);
+        Arrays.fill(sharedSecret, (byte) 0);
+
+        return new SecretKeySpec(keyBytes, "AES");
+    }
+}
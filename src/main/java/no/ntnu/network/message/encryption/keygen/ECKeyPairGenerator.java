@@ -0,0 +1,40 @@
+package no.ntnu.network.message.encryption.keygen;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.NamedParameterSpec;
+
+/**
+ * An asymmetric key-pair generator for elliptic-curve key agreement, using the X25519 curve.
+ * Generating a pair takes a small fraction of the time of generating an RSA pair.
+ */
+public class ECKeyPairGenerator implements AsymmetricKeyPairGenerator {
+    private final KeyPairGenerator keyGen;
+    private KeyPair pair;
+
+    /**
+     * Creates a new ECKeyPairGenerator.
+     *
+     * @throws NoSuchAlgorithmException thrown if the X25519 algorithm is not found
+     */
+    public ECKeyPairGenerator() throws NoSuchAlgorithmException {
+        this.keyGen = KeyPairGenerator.getInstance(ECKeyAgreement.ALGORITHM);
+        try {
+            this.keyGen.initialize(NamedParameterSpec.X25519);
+        } catch (InvalidAlgorithmParameterException e) {
+            throw new NoSuchAlgorithmException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void createKeys() {
+        pair = keyGen.generateKeyPair();
+    }
+
+    @Override
+    public KeyPair getKeyPair() {
+        return pair;
+    }
+}
@@ -0,0 +1,120 @@
+package no.ntnu.network.message.encryption.keygen;
+
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides the ephemeral key pairs used by the handshakes of a process, pre-generated in the background.
+ * <p/>
+ * Generating a 2048-bit RSA pair takes tens of milliseconds, which would otherwise be spent on the thread reading
+ * the messages of the connection being set up, for every connection. The service keeps a pool of RSA pairs for
+ * asymmetric encryption and a pool of X25519 pairs for key agreement, both refilled on a pool of background daemon
+ * threads that are let go once idle.
+ */
+public class KeyMaterialService {
+    private static final int DEFAULT_RSA_CAPACITY = 32;
+    private static final int DEFAULT_RSA_LOW_WATER_MARK = 16;
+    private static final int DEFAULT_EC_CAPACITY = 64;
+    private static final int DEFAULT_EC_LOW_WATER_MARK = 16;
+    private static final long IDLE_THREAD_SECONDS = 60;
+    private static final KeyMaterialService DEFAULT_SERVICE = new KeyMaterialService(DEFAULT_RSA_CAPACITY,
+            DEFAULT_RSA_LOW_WATER_MARK, DEFAULT_EC_CAPACITY, DEFAULT_EC_LOW_WATER_MARK,
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private final ExecutorService executor;
+    private final KeyPairPool rsaKeyPairs;
+    private final KeyPairPool ecKeyPairs;
+
+    /**
+     * Creates a new KeyMaterialService.
+     *
+     * @param rsaCapacity the maximum number of pre-generated RSA pairs
+     * @param rsaLowWaterMark the number of RSA pairs left below which they are refilled
+     * @param ecCapacity the maximum number of pre-generated X25519 pairs
+     * @param ecLowWaterMark the number of X25519 pairs left below which they are refilled
+     * @param threads the number of background threads generating pairs
+     */
+    public KeyMaterialService(int rsaCapacity, int rsaLowWaterMark, int ecCapacity, int ecLowWaterMark, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Cannot create KeyMaterialService, because threads is less than 1.");
+        }
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, IDLE_THREAD_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "key-material");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+
+        this.executor = executor;
+        this.rsaKeyPairs = new KeyPairPool(RSAKeyPairGenerator::new, rsaCapacity, rsaLowWaterMark, threads, executor);
+        this.ecKeyPairs = new KeyPairPool(ECKeyPairGenerator::new, ecCapacity, ecLowWaterMark, threads, executor);
+    }
+
+    /**
+     * Returns the default service, shared by the whole process.
+     *
+     * @return the default service
+     */
+    public static KeyMaterialService getDefault() {
+        return DEFAULT_SERVICE;
+    }
+
+    /**
+     * Starts filling both pools in the background, so that the first handshakes do not have to generate pairs.
+     */
+    public void prefill() {
+        rsaKeyPairs.prefill();
+        ecKeyPairs.prefill();
+    }
+
+    /**
+     * Stops generating pairs in the background. Pairs can still be taken, but are generated by the taking thread once
+     * the pools run empty.
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Takes an ephemeral RSA key pair for asymmetric encryption.
+     *
+     * @return the key pair
+     * @throws NoSuchAlgorithmException thrown if no pair is left and the RSA algorithm cannot be found
+     */
+    public KeyPair takeRsaKeyPair() throws NoSuchAlgorithmException {
+        return rsaKeyPairs.takeKeyPair();
+    }
+
+    /**
+     * Takes an ephemeral X25519 key pair for key agreement.
+     *
+     * @return the key pair
+     * @throws NoSuchAlgorithmException thrown if no pair is left and the X25519 algorithm cannot be found
+     */
+    public KeyPair takeEcKeyPair() throws NoSuchAlgorithmException {
+        return ecKeyPairs.takeKeyPair();
+    }
+
+    /**
+     * Returns the pool of RSA key pairs.
+     *
+     * @return the rsa key pairs
+     */
+    public KeyPairPool getRsaKeyPairs() {
+        return rsaKeyPairs;
+    }
+
+    /**
+     * Returns the pool of X25519 key pairs.
+     *
+     * @return the ec key pairs
+     */
+    public KeyPairPool getEcKeyPairs() {
+        return ecKeyPairs;
+    }
+}
@@ -0,0 +1,180 @@
+package no.ntnu.network.message.encryption.keygen;
+
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of pre-generated ephemeral key pairs of a single algorithm.
+ * <p/>
+ * Key pairs are generated in the background, and every pair is handed out once. Whenever the number of pairs left
+ * drops below the low-water mark, the pool is refilled up to its capacity, using up to a given number of background
+ * tasks at once. A pair taken from an empty pool is generated by the taking thread itself, so taking a pair never
+ * waits for the background tasks.
+ */
+public class KeyPairPool {
+    private final GeneratorFactory generatorFactory;
+    private final BlockingQueue<KeyPair> keyPairs;
+    private final int lowWaterMark;
+    private final int maxRefillTasks;
+    private final Executor executor;
+    private final AtomicInteger activeRefillTasks;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Creates the key-pair generators used by a pool.
+     */
+    @FunctionalInterface
+    public interface GeneratorFactory {
+        /**
+         * Creates a new key-pair generator.
+         *
+         * @return the generator
+         * @throws NoSuchAlgorithmException thrown if the algorithm of the generator cannot be found
+         */
+        AsymmetricKeyPairGenerator create() throws NoSuchAlgorithmException;
+    }
+
+    /**
+     * Creates a new KeyPairPool. The pool starts out empty, until filled by {@code prefill()} or by the first pair
+     * taken.
+     *
+     * @param generatorFactory the factory creating the generators of the pool
+     * @param capacity the maximum number of pre-generated pairs
+     * @param lowWaterMark the number of pairs left below which the pool is refilled
+     * @param maxRefillTasks the maximum number of background tasks refilling the pool at once
+     * @param executor the executor running the background tasks
+     */
+    public KeyPairPool(GeneratorFactory generatorFactory, int capacity, int lowWaterMark, int maxRefillTasks,
+                       Executor executor) {
+        if (generatorFactory == null) {
+            throw new IllegalArgumentException("Cannot create KeyPairPool, because generatorFactory is null.");
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cannot create KeyPairPool, because capacity is less than 1.");
+        }
+
+        if (lowWaterMark < 0 || lowWaterMark > capacity) {
+            throw new IllegalArgumentException("Cannot create KeyPairPool, because lowWaterMark must be between 0 " +
+                    "and capacity.");
+        }
+
+        if (maxRefillTasks < 1) {
+            throw new IllegalArgumentException("Cannot create KeyPairPool, because maxRefillTasks is less than 1.");
+        }
+
+        if (executor == null) {
+            throw new IllegalArgumentException("Cannot create KeyPairPool, because executor is null.");
+        }
+
+        this.generatorFactory = generatorFactory;
+        this.keyPairs = new ArrayBlockingQueue<>(capacity);
+        this.lowWaterMark = lowWaterMark;
+        this.maxRefillTasks = maxRefillTasks;
+        this.executor = executor;
+        this.activeRefillTasks = new AtomicInteger(0);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Starts filling the pool in the background, using as many tasks as allowed.
+     */
+    public void prefill() {
+        for (int i = 0; i < maxRefillTasks; i++) {
+            startRefillTask();
+        }
+    }
+
+    /**
+     * Takes a key pair, which is never handed out again.
+     * If the pool is empty, the pair is generated by the calling thread.
+     *
+     * @return the key pair
+     * @throws NoSuchAlgorithmException thrown if the pool is empty and the algorithm cannot be found
+     */
+    public KeyPair takeKeyPair() throws NoSuchAlgorithmException {
+        KeyPair keyPair = keyPairs.poll();
+
+        if (keyPair != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            AsymmetricKeyPairGenerator generator = generatorFactory.create();
+            generator.createKeys();
+            keyPair = generator.getKeyPair();
+        }
+
+        if (keyPairs.size() < lowWaterMark || keyPairs.isEmpty()) {
+            startRefillTask();
+        }
+
+        return keyPair;
+    }
+
+    /**
+     * Starts a background task refilling the pool, unless the maximum number of tasks are already refilling it.
+     */
+    private void startRefillTask() {
+        int active = activeRefillTasks.get();
+
+        if (active < maxRefillTasks && activeRefillTasks.compareAndSet(active, active + 1)) {
+            try {
+                executor.execute(this::refill);
+            } catch (RejectedExecutionException e) {
+                activeRefillTasks.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Generates key pairs until the pool is full, or the task is interrupted.
+     */
+    private void refill() {
+        try {
+            AsymmetricKeyPairGenerator generator = generatorFactory.create();
+            while (keyPairs.remainingCapacity() > 0 && !Thread.currentThread().isInterrupted()) {
+                generator.createKeys();
+                keyPairs.offer(generator.getKeyPair());
+            }
+        } catch (NoSuchAlgorithmException e) {
+            // the pool stays empty, and takers report the missing algorithm themselves
+        } finally {
+            activeRefillTasks.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of pre-generated key pairs left in the pool.
+     *
+     * @return the number of available pairs
+     */
+    public int getAvailableCount() {
+        return keyPairs.size();
+    }
+
+    /**
+     * Returns the number of pairs taken from the pre-generated pairs.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of pairs generated by the taking thread, because the pool was empty.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+}
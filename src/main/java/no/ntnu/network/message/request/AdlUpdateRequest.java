@@ -43,6 +43,16 @@ public class AdlUpdateRequest extends StandardProcessingRequestMessage<FieldNode
         setId(id);
     }
 
+    /**
+     * Returns the requested ADL updates.
+     * Positive addresses are to be added to the ADL, while negated addresses are to be removed from it.
+     *
+     * @return the adl updates
+     */
+    public Set<Integer> getAdlUpdates() {
+        return adlUpdates;
+    }
+
     @Override
     protected ResponseMessage executeAndCreateResponse(FieldNodeContext context) {
         ResponseMessage response = null;
@@ -3,8 +3,7 @@ package no.ntnu.network.message.request;
 import no.ntnu.network.message.Message;
 import no.ntnu.network.message.context.ServerContext;
 import no.ntnu.network.message.encryption.cipher.decrypt.RSADecryption;
-import no.ntnu.network.message.encryption.keygen.AsymmetricKeyPairGenerator;
-import no.ntnu.network.message.encryption.keygen.RSAKeyPairGenerator;
+import no.ntnu.network.message.encryption.keygen.KeyMaterialService;
 import no.ntnu.network.message.response.AsymmetricEncryptionResponse;
 import no.ntnu.network.message.response.ResponseMessage;
 import no.ntnu.network.message.response.error.KeyGenError;
@@ -19,6 +18,8 @@ import java.security.NoSuchAlgorithmException;
 /**
  * A request sent from any client to the central server, requesting the public key of the server to be used
  * for asymmetric encryption.
+ * The server answers with the public key of an ephemeral key pair, pre-generated by the key material service of
+ * the process, so that processing the request does not wait for a key pair to be generated.
  */
 public class AsymmetricEncryptionRequest extends RequestMessage implements Message<ServerContext> {
     /**
@@ -45,7 +46,7 @@ public class AsymmetricEncryptionRequest extends RequestMessage implements Messa
         context.logReceivingRequest(this);
 
         try {
-            KeyPair pair = generateKeyPair();
+            KeyPair pair = KeyMaterialService.getDefault().takeRsaKeyPair();
 
             ResponseMessage response = new AsymmetricEncryptionResponse<>(pair.getPublic());
             sendResponse(context, response);
@@ -70,19 +71,6 @@ public class AsymmetricEncryptionRequest extends RequestMessage implements Messa
         context.respond(response);
     }
 
-    /**
-     * Generates an asymmetric key pair.
-     *
-     * @return the asymmetric key pair
-     * @throws NoSuchAlgorithmException thrown if the encryption algorithm cannot be found
-     */
-    private static KeyPair generateKeyPair() throws NoSuchAlgorithmException {
-        AsymmetricKeyPairGenerator keyGen = new RSAKeyPairGenerator();
-        keyGen.createKeys();
-
-        return keyGen.getKeyPair();
-    }
-
     @Override
     public Tlv accept(ByteSerializerVisitor visitor) throws IOException {
         return visitor.visitRequestMessage(this);
@@ -0,0 +1,140 @@
+package no.ntnu.network.message.request;
+
+import no.ntnu.network.message.Message;
+import no.ntnu.network.message.common.ByteSerializablePublicKey;
+import no.ntnu.network.message.context.ServerContext;
+import no.ntnu.network.message.encryption.keygen.ECKeyAgreement;
+import no.ntnu.network.message.encryption.keygen.KeyMaterialService;
+import no.ntnu.network.message.response.KeyAgreementResponse;
+import no.ntnu.network.message.response.ResponseMessage;
+import no.ntnu.network.message.response.error.KeyGenError;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.PublicKey;
+
+/**
+ * A request sent from any client to the central server, requesting symmetric encryption to be initiated using an
+ * elliptic-curve key agreement, as an alternative to the {@code AsymmetricEncryptionRequest}.
+ * <p/>
+ * The request carries the public key of an ephemeral X25519 key pair of the client. The server answers with the
+ * public key of an ephemeral pair of its own, after which both parties derive the same secret key, and encrypt all
+ * further communication using it. Symmetric encryption is thereby initiated in a single round trip, without
+ * generating an RSA key pair.
+ */
+public class KeyAgreementRequest extends RequestMessage implements Message<ServerContext> {
+    private final PublicKey publicKey;
+    private final KeyPair keyPair;
+
+    /**
+     * Creates a new KeyAgreementRequest, sent by the client owning the key pair.
+     * The private key of the pair stays with the request, and is never sent.
+     *
+     * @param keyPair the ephemeral key pair of the client
+     */
+    public KeyAgreementRequest(KeyPair keyPair) {
+        super(NofspSerializationConstants.KEY_AGREEMENT_REQUEST);
+        if (keyPair == null) {
+            throw new IllegalArgumentException("Cannot create KeyAgreementRequest, because keyPair is null.");
+        }
+
+        this.publicKey = keyPair.getPublic();
+        this.keyPair = keyPair;
+    }
+
+    /**
+     * Creates a new KeyAgreementRequest, as received by the server.
+     *
+     * @param id the message id
+     * @param publicKey the public key of the client
+     */
+    public KeyAgreementRequest(int id, PublicKey publicKey) {
+        super(NofspSerializationConstants.KEY_AGREEMENT_REQUEST);
+        if (publicKey == null) {
+            throw new IllegalArgumentException("Cannot create KeyAgreementRequest, because publicKey is null.");
+        }
+
+        this.publicKey = publicKey;
+        this.keyPair = null;
+
+        setId(id);
+    }
+
+    /**
+     * Returns the key pair of the client, only known to the client sending the request.
+     *
+     * @return the key pair, null if the request was received
+     */
+    public KeyPair getKeyPair() {
+        return keyPair;
+    }
+
+    @Override
+    public void process(ServerContext context) throws IOException {
+        // logs the receiving of the request
+        context.logReceivingRequest(this);
+
+        try {
+            KeyPair pair = KeyMaterialService.getDefault().takeEcKeyPair();
+            SecretKey secretKey = ECKeyAgreement.deriveSecretKey(pair.getPrivate(), publicKey);
+
+            ResponseMessage response = new KeyAgreementResponse<>(pair.getPublic());
+            sendResponse(context, response);
+
+            // the response is sent in plain text, as the client needs the public key to derive the secret key
+            context.setSymmetricEncryption(secretKey);
+        } catch (GeneralSecurityException e) {
+            ResponseMessage response = new KeyGenError<>(e.getMessage());
+            sendResponse(context, response);
+        }
+    }
+
+    /**
+     * Sends a response.
+     *
+     * @param context the context to send response with
+     * @param response the response message to send
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private void sendResponse(ServerContext context, ResponseMessage response) throws IOException {
+        setResponseId(response);
+        context.respond(response);
+    }
+
+    @Override
+    public Tlv accept(ByteSerializerVisitor visitor) throws IOException {
+        return visitor.visitRequestMessage(this, new ByteSerializablePublicKey(publicKey));
+    }
+
+    @Override
+    public String toString() {
+        return "requesting to initiate symmetric key encryption by key agreement";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+
+        if (!(o instanceof KeyAgreementRequest k)) {
+            return false;
+        }
+
+        return super.equals(k) && publicKey.equals(k.publicKey);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+
+        result = result * 31 + publicKey.hashCode();
+
+        return result;
+    }
+}
@@ -62,7 +62,11 @@ public class RegisterFieldNodeRequest extends StandardProcessingRequestMessage<S
 
         try {
             int clientAddress = context.registerFieldNodeClient(fieldNodeInformation);
-            response = new RegistrationConfirmationResponse<>(clientAddress);
+
+            // the field node can resume its session by registering with the same information again
+            String ticket = context.issueResumptionTicket(
+                    resumingContext -> resumingContext.registerFieldNodeClient(fieldNodeInformation));
+            response = new RegistrationConfirmationResponse<>(clientAddress, ticket);
         } catch (ClientRegistrationException e) {
             response = new RegistrationDeclinedError<>(e.getMessage());
         }
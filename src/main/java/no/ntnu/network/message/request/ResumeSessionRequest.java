@@ -0,0 +1,127 @@
+package no.ntnu.network.message.request;
+
+import no.ntnu.exception.ClientRegistrationException;
+import no.ntnu.network.centralserver.resumption.ResumableSession;
+import no.ntnu.network.message.Message;
+import no.ntnu.network.message.common.ByteSerializableString;
+import no.ntnu.network.message.context.ServerContext;
+import no.ntnu.network.message.response.ResponseMessage;
+import no.ntnu.network.message.response.SessionResumedResponse;
+import no.ntnu.network.message.response.error.ResumptionDeclinedError;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+
+import java.io.IOException;
+
+/**
+ * A request sent from a reconnecting client to the central server, requesting its previous session to be resumed.
+ * <p/>
+ * The request carries the resumption ticket the client was given for the session, and a proof that the client holds
+ * the secret key of the session. If the ticket is valid and the proof matches, the server encrypts all further
+ * communication with the secret key of the session, registers the client the way it was registered in the session,
+ * and responds with the new address of the client and a new ticket. This replaces both the handshake and the
+ * registration with a single round trip. The request is sent in plain text, as the server cannot know the secret key
+ * before the ticket is redeemed, while the response is encrypted, so that only the holder of the key learns the new
+ * ticket.
+ */
+public class ResumeSessionRequest extends RequestMessage implements Message<ServerContext> {
+    private final String ticket;
+    private final String proof;
+
+    /**
+     * Creates a new ResumeSessionRequest.
+     *
+     * @param ticket the resumption ticket
+     * @param proof the proof that the client holds the secret key of the session
+     */
+    public ResumeSessionRequest(String ticket, String proof) {
+        super(NofspSerializationConstants.RESUME_SESSION_REQUEST);
+        if (ticket == null) {
+            throw new IllegalArgumentException("Cannot create ResumeSessionRequest, because ticket is null.");
+        }
+
+        if (proof == null) {
+            throw new IllegalArgumentException("Cannot create ResumeSessionRequest, because proof is null.");
+        }
+
+        this.ticket = ticket;
+        this.proof = proof;
+    }
+
+    /**
+     * Creates a new ResumeSessionRequest.
+     *
+     * @param id the message id
+     * @param ticket the resumption ticket
+     * @param proof the proof that the client holds the secret key of the session
+     */
+    public ResumeSessionRequest(int id, String ticket, String proof) {
+        this(ticket, proof);
+
+        setId(id);
+    }
+
+    @Override
+    public void process(ServerContext context) throws IOException {
+        // logs the receiving of the request
+        context.logReceivingRequest(this);
+
+        try {
+            // the response is encrypted with the session key, as the context has switched to it
+            ResumableSession session = context.resumeSession(ticket, proof);
+            ResponseMessage response = new SessionResumedResponse<>(context.getClientNodeAddress(),
+                    context.reissueResumptionTicket(session));
+            sendResponse(context, response);
+        } catch (ClientRegistrationException e) {
+            ResponseMessage response = new ResumptionDeclinedError<>(e.getMessage());
+            sendResponse(context, response);
+        }
+    }
+
+    /**
+     * Sends a response.
+     *
+     * @param context the context to send response with
+     * @param response the response message to send
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private void sendResponse(ServerContext context, ResponseMessage response) throws IOException {
+        setResponseId(response);
+        context.respond(response);
+    }
+
+    @Override
+    public Tlv accept(ByteSerializerVisitor visitor) throws IOException {
+        return visitor.visitRequestMessage(this, new ByteSerializableString(ticket),
+                new ByteSerializableString(proof));
+    }
+
+    @Override
+    public String toString() {
+        return "requesting to resume previous session";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+
+        if (!(o instanceof ResumeSessionRequest r)) {
+            return false;
+        }
+
+        return super.equals(r) && ticket.equals(r.ticket) && proof.equals(r.proof);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+
+        result = result * 31 + ticket.hashCode();
+        result = result * 31 + proof.hashCode();
+
+        return result;
+    }
+}
@@ -0,0 +1,138 @@
+package no.ntnu.network.message.request;
+
+import no.ntnu.network.message.common.ByteSerializableInteger;
+import no.ntnu.network.message.common.ByteSerializableSecretKey;
+import no.ntnu.network.message.context.ControlPanelContext;
+import no.ntnu.network.message.response.ResponseMessage;
+import no.ntnu.network.message.response.SensorDataKeyAcceptedResponse;
+import no.ntnu.network.message.response.error.UnsecureRequestError;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+
+/**
+ * A request sent from the central server to a control panel subscribed to a field node, handing it the group key
+ * the sensor data of the field node is encrypted with.
+ * The sensor data of a field node is encrypted once for all its subscribers using the group key, which is replaced
+ * whenever a subscriber leaves. Every key has an epoch, which the control panel returns when accepting the key, so
+ * that the server only sends sensor data encrypted with the key to control panels holding it.
+ */
+public class SensorDataKeyRequest extends StandardProcessingRequestMessage<ControlPanelContext> {
+    private final int fieldNodeAddress;
+    private final int epoch;
+    private final SecretKey groupKey;
+
+    /**
+     * Creates a new SensorDataKeyRequest.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param epoch the epoch of the group key
+     * @param groupKey the group key
+     */
+    public SensorDataKeyRequest(int fieldNodeAddress, int epoch, SecretKey groupKey) {
+        super(NofspSerializationConstants.SENSOR_DATA_KEY_COMMAND);
+        if (groupKey == null) {
+            throw new IllegalArgumentException("Cannot create SensorDataKeyRequest, because groupKey is null.");
+        }
+
+        this.fieldNodeAddress = fieldNodeAddress;
+        this.epoch = epoch;
+        this.groupKey = groupKey;
+    }
+
+    /**
+     * Creates a new SensorDataKeyRequest.
+     *
+     * @param id the message id
+     * @param fieldNodeAddress the address of the field node
+     * @param epoch the epoch of the group key
+     * @param groupKey the group key
+     */
+    public SensorDataKeyRequest(int id, int fieldNodeAddress, int epoch, SecretKey groupKey) {
+        this(fieldNodeAddress, epoch, groupKey);
+
+        setId(id);
+    }
+
+    /**
+     * Returns the address of the field node the group key belongs to.
+     *
+     * @return the field node address
+     */
+    public int getFieldNodeAddress() {
+        return fieldNodeAddress;
+    }
+
+    /**
+     * Returns the epoch of the group key.
+     *
+     * @return the epoch
+     */
+    public int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the group key.
+     *
+     * @return the group key
+     */
+    public SecretKey getGroupKey() {
+        return groupKey;
+    }
+
+    @Override
+    protected ResponseMessage executeAndCreateResponse(ControlPanelContext context) {
+        ResponseMessage response = null;
+
+        // only accept the group key if it was sent encrypted
+        if (context.receivedMessagesSecure()) {
+            context.addSensorDataKey(fieldNodeAddress, groupKey);
+            response = new SensorDataKeyAcceptedResponse(fieldNodeAddress, epoch);
+        } else {
+            response = new UnsecureRequestError<>("Cannot accept sensor data key, because the request was not " +
+                    "secure, and may have been accessed by other parties.");
+        }
+
+        return response;
+    }
+
+    @Override
+    public Tlv accept(ByteSerializerVisitor visitor) throws IOException {
+        return visitor.visitRequestMessage(this, new ByteSerializableInteger(fieldNodeAddress),
+                new ByteSerializableInteger(epoch), new ByteSerializableSecretKey(groupKey));
+    }
+
+    @Override
+    public String toString() {
+        return "handing over sensor data key " + epoch + " for field node " + fieldNodeAddress;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+
+        if (!(o instanceof SensorDataKeyRequest s)) {
+            return false;
+        }
+
+        return super.equals(s) && fieldNodeAddress == s.fieldNodeAddress && epoch == s.epoch &&
+                groupKey.equals(s.groupKey);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+
+        result = result * 31 + fieldNodeAddress;
+        result = result * 31 + epoch;
+        result = result * 31 + groupKey.hashCode();
+
+        return result;
+    }
+}
@@ -3,8 +3,6 @@ package no.ntnu.network.message.request;
 import no.ntnu.network.message.Message;
 import no.ntnu.network.message.common.ByteSerializableSecretKey;
 import no.ntnu.network.message.context.ServerContext;
-import no.ntnu.network.message.encryption.cipher.decrypt.AESDecryption;
-import no.ntnu.network.message.encryption.cipher.encrypt.AESEncryption;
 import no.ntnu.network.message.response.ResponseMessage;
 import no.ntnu.network.message.response.SymmetricEncryptionResponse;
 import no.ntnu.network.message.response.error.UnsecureRequestError;
@@ -83,8 +81,7 @@ public class SymmetricEncryptionRequest extends RequestMessage implements Messag
      * @param context the context to initialize for
      */
     private void initializeSymmetricEncryption(ServerContext context) {
-        context.setEncryption(new AESEncryption(secretKey));
-        context.setDecryption(new AESDecryption(secretKey));
+        context.setSymmetricEncryption(secretKey);
     }
 
     @Override
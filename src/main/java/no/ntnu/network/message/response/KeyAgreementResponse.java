@@ -0,0 +1,92 @@
+package no.ntnu.network.message.response;
+
+import no.ntnu.network.message.Message;
+import no.ntnu.network.message.common.ByteSerializablePublicKey;
+import no.ntnu.network.message.context.ClientContext;
+import no.ntnu.network.message.request.KeyAgreementRequest;
+import no.ntnu.network.message.request.RequestMessage;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+
+import java.io.IOException;
+import java.security.PublicKey;
+
+/**
+ * A response to a successful {@code KeyAgreementRequest}, providing the ephemeral public key of the central server.
+ * The response is processed using the key pair of the associated request, which is why it does not use the standard
+ * response processing.
+ *
+ * @param <C> any client context
+ */
+public class KeyAgreementResponse<C extends ClientContext> extends ResponseMessage implements Message<C> {
+    private final PublicKey publicKey;
+
+    /**
+     * Creates a new KeyAgreementResponse.
+     *
+     * @param publicKey the public key
+     */
+    public KeyAgreementResponse(PublicKey publicKey) {
+        super(NofspSerializationConstants.KEY_AGREEMENT_CODE);
+        if (publicKey == null) {
+            throw new IllegalArgumentException("Cannot create KeyAgreementResponse, because publicKey is null.");
+        }
+
+        this.publicKey = publicKey;
+    }
+
+    /**
+     * Creates a new KeyAgreementResponse.
+     *
+     * @param id the message id
+     * @param publicKey the public key
+     */
+    public KeyAgreementResponse(int id, PublicKey publicKey) {
+        this(publicKey);
+
+        setId(id);
+    }
+
+    @Override
+    public void process(C context) {
+        RequestMessage associatedRequest = context.acceptResponse(this);
+        // only completes the key agreement if the response is accepted, and the request holds the private key
+        if (associatedRequest instanceof KeyAgreementRequest request && request.getKeyPair() != null) {
+            context.logReceivingResponse(this);
+            context.completeKeyAgreement(request.getKeyPair().getPrivate(), publicKey);
+        }
+    }
+
+    @Override
+    public Tlv accept(ByteSerializerVisitor visitor) throws IOException {
+        return visitor.visitResponseMessage(this, new ByteSerializablePublicKey(publicKey));
+    }
+
+    @Override
+    public String toString() {
+        return "key agreement has been successfully initiated";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+
+        if (!(o instanceof KeyAgreementResponse<?> k)) {
+            return false;
+        }
+
+        return super.equals(k) && publicKey.equals(k.publicKey);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+
+        result = result * 31 + publicKey.hashCode();
+
+        return result;
+    }
+}
@@ -1,19 +1,23 @@
 package no.ntnu.network.message.response;
 
 import no.ntnu.network.message.common.ByteSerializableInteger;
+import no.ntnu.network.message.common.ByteSerializableString;
 import no.ntnu.network.message.context.ClientContext;
 import no.ntnu.network.message.serialize.NofspSerializationConstants;
 import no.ntnu.network.message.serialize.tool.tlv.Tlv;
 import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
 
 import java.io.IOException;
+import java.util.Objects;
 
 /**
  * A confirmation response to a node registration request, indicating that the client has been
  * registered successfully.
+ * The response may carry a ticket that lets the client resume its session when reconnecting.
  */
 public class RegistrationConfirmationResponse<C extends ClientContext> extends StandardProcessingResponseMessage<C> {
     private final int nodeAddress;
+    private final String resumptionTicket;
 
     /**
      * Creates a new RegistrationConfirmationResponse.
@@ -21,9 +25,20 @@ public class RegistrationConfirmationResponse<C extends ClientContext> extends S
      * @param nodeAddress the address assigned to the node
      */
     public RegistrationConfirmationResponse(int nodeAddress) {
+        this(nodeAddress, null);
+    }
+
+    /**
+     * Creates a new RegistrationConfirmationResponse.
+     *
+     * @param nodeAddress the address assigned to the node
+     * @param resumptionTicket the ticket for resuming the session, null if the session cannot be resumed
+     */
+    public RegistrationConfirmationResponse(int nodeAddress, String resumptionTicket) {
         super(NofspSerializationConstants.NODE_REGISTRATION_CONFIRMED_CODE);
 
         this.nodeAddress = nodeAddress;
+        this.resumptionTicket = resumptionTicket;
     }
 
     /**
@@ -38,6 +53,19 @@ public class RegistrationConfirmationResponse<C extends ClientContext> extends S
         setId(messageId);
     }
 
+    /**
+     * Creates a new RegistrationConfirmationResponse.
+     *
+     * @param messageId the message id
+     * @param nodeAddress the address assigned to the node
+     * @param resumptionTicket the ticket for resuming the session, null if the session cannot be resumed
+     */
+    public RegistrationConfirmationResponse(int messageId, int nodeAddress, String resumptionTicket) {
+        this(nodeAddress, resumptionTicket);
+
+        setId(messageId);
+    }
+
     /**
      * Returns the node address assigned to the client.
      *
@@ -47,14 +75,34 @@ public class RegistrationConfirmationResponse<C extends ClientContext> extends S
         return nodeAddress;
     }
 
+    /**
+     * Returns the ticket for resuming the session.
+     *
+     * @return the resumption ticket, null if the session cannot be resumed
+     */
+    public String getResumptionTicket() {
+        return resumptionTicket;
+    }
+
     @Override
     public Tlv accept(ByteSerializerVisitor visitor) throws IOException {
-        return visitor.visitResponseMessage(this, new ByteSerializableInteger(nodeAddress));
+        Tlv tlv = null;
+
+        // the ticket is left out when there is none
+        if (resumptionTicket != null) {
+            tlv = visitor.visitResponseMessage(this, new ByteSerializableInteger(nodeAddress),
+                    new ByteSerializableString(resumptionTicket));
+        } else {
+            tlv = visitor.visitResponseMessage(this, new ByteSerializableInteger(nodeAddress));
+        }
+
+        return tlv;
     }
 
     @Override
     protected void handleResponseProcessing(C context) {
         context.setClientNodeAddress(nodeAddress);
+        context.setResumptionTicket(resumptionTicket);
     }
 
     @Override
@@ -67,7 +115,8 @@ public class RegistrationConfirmationResponse<C extends ClientContext> extends S
             return false;
         }
 
-        return super.equals(r) && nodeAddress == r.nodeAddress;
+        return super.equals(r) && nodeAddress == r.nodeAddress &&
+                Objects.equals(resumptionTicket, r.resumptionTicket);
     }
 
     @Override
@@ -75,6 +124,7 @@ public class RegistrationConfirmationResponse<C extends ClientContext> extends S
         int result = super.hashCode();
 
         result = result * 31 + nodeAddress;;
+        result = result * 31 + Objects.hashCode(resumptionTicket);
 
         return result;
     }
@@ -0,0 +1,83 @@
+package no.ntnu.network.message.response;
+
+import no.ntnu.network.message.common.ByteSerializableInteger;
+import no.ntnu.network.message.context.ServerContext;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+
+import java.io.IOException;
+
+/**
+ * A response to a {@code SensorDataKeyRequest}, indicating that the control panel holds the group key of a field
+ * node, and can be sent the sensor data encrypted with it.
+ */
+public class SensorDataKeyAcceptedResponse extends StandardProcessingResponseMessage<ServerContext> {
+    private final int fieldNodeAddress;
+    private final int epoch;
+
+    /**
+     * Creates a new SensorDataKeyAcceptedResponse.
+     *
+     * @param fieldNodeAddress the address of the field node
+     * @param epoch the epoch of the accepted group key
+     */
+    public SensorDataKeyAcceptedResponse(int fieldNodeAddress, int epoch) {
+        super(NofspSerializationConstants.SENSOR_DATA_KEY_ACCEPTED_CODE);
+
+        this.fieldNodeAddress = fieldNodeAddress;
+        this.epoch = epoch;
+    }
+
+    /**
+     * Creates a new SensorDataKeyAcceptedResponse.
+     *
+     * @param id the message id
+     * @param fieldNodeAddress the address of the field node
+     * @param epoch the epoch of the accepted group key
+     */
+    public SensorDataKeyAcceptedResponse(int id, int fieldNodeAddress, int epoch) {
+        this(fieldNodeAddress, epoch);
+
+        setId(id);
+    }
+
+    @Override
+    protected void handleResponseProcessing(ServerContext context) {
+        context.acceptSensorDataKey(fieldNodeAddress, epoch);
+    }
+
+    @Override
+    public Tlv accept(ByteSerializerVisitor visitor) throws IOException {
+        return visitor.visitResponseMessage(this, new ByteSerializableInteger(fieldNodeAddress),
+                new ByteSerializableInteger(epoch));
+    }
+
+    @Override
+    public String toString() {
+        return "sensor data key " + epoch + " for field node " + fieldNodeAddress + " was accepted";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+
+        if (!(o instanceof SensorDataKeyAcceptedResponse s)) {
+            return false;
+        }
+
+        return super.equals(s) && fieldNodeAddress == s.fieldNodeAddress && epoch == s.epoch;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+
+        result = result * 31 + fieldNodeAddress;
+        result = result * 31 + epoch;
+
+        return result;
+    }
+}
@@ -0,0 +1,101 @@
+package no.ntnu.network.message.response;
+
+import no.ntnu.network.message.common.ByteSerializableInteger;
+import no.ntnu.network.message.common.ByteSerializableString;
+import no.ntnu.network.message.context.ClientContext;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+
+import java.io.IOException;
+
+/**
+ * A response to a successful {@code ResumeSessionRequest}, indicating that the client has been registered again and
+ * that the secret key of the session is used from now on. The response is itself encrypted with the secret key, so
+ * that the new ticket it carries is only learned by the holder of the key.
+ *
+ * @param <C> any client context
+ */
+public class SessionResumedResponse<C extends ClientContext> extends StandardProcessingResponseMessage<C> {
+    private final int nodeAddress;
+    private final String resumptionTicket;
+
+    /**
+     * Creates a new SessionResumedResponse.
+     *
+     * @param nodeAddress the address assigned to the client
+     * @param resumptionTicket the ticket for resuming the session again
+     */
+    public SessionResumedResponse(int nodeAddress, String resumptionTicket) {
+        super(NofspSerializationConstants.SESSION_RESUMED_CODE);
+        if (resumptionTicket == null) {
+            throw new IllegalArgumentException("Cannot create SessionResumedResponse, because resumptionTicket is " +
+                    "null.");
+        }
+
+        this.nodeAddress = nodeAddress;
+        this.resumptionTicket = resumptionTicket;
+    }
+
+    /**
+     * Creates a new SessionResumedResponse.
+     *
+     * @param id the message id
+     * @param nodeAddress the address assigned to the client
+     * @param resumptionTicket the ticket for resuming the session again
+     */
+    public SessionResumedResponse(int id, int nodeAddress, String resumptionTicket) {
+        this(nodeAddress, resumptionTicket);
+
+        setId(id);
+    }
+
+    /**
+     * Returns the node address assigned to the client.
+     *
+     * @return the node address
+     */
+    public int getNodeAddress() {
+        return nodeAddress;
+    }
+
+    @Override
+    protected void handleResponseProcessing(C context) {
+        // as communication is now secure again, the client is registered
+        context.completeSessionResumption(nodeAddress, resumptionTicket);
+    }
+
+    @Override
+    public Tlv accept(ByteSerializerVisitor visitor) throws IOException {
+        return visitor.visitResponseMessage(this, new ByteSerializableInteger(nodeAddress),
+                new ByteSerializableString(resumptionTicket));
+    }
+
+    @Override
+    public String toString() {
+        return "session has been resumed, assigned address " + nodeAddress;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+
+        if (!(o instanceof SessionResumedResponse<?> s)) {
+            return false;
+        }
+
+        return super.equals(s) && nodeAddress == s.nodeAddress && resumptionTicket.equals(s.resumptionTicket);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+
+        result = result * 31 + nodeAddress;
+        result = result * 31 + resumptionTicket.hashCode();
+
+        return result;
+    }
+}
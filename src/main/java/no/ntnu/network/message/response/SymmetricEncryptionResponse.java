@@ -2,8 +2,6 @@ package no.ntnu.network.message.response;
 
 import no.ntnu.network.message.common.ByteSerializableSecretKey;
 import no.ntnu.network.message.context.ClientContext;
-import no.ntnu.network.message.encryption.cipher.decrypt.AESDecryption;
-import no.ntnu.network.message.encryption.cipher.encrypt.AESEncryption;
 import no.ntnu.network.message.serialize.NofspSerializationConstants;
 import no.ntnu.network.message.serialize.tool.tlv.Tlv;
 import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
@@ -60,8 +58,7 @@ public class SymmetricEncryptionResponse<C extends ClientContext> extends Standa
      * @param context the context to set for
      */
     private void setSymmetricKeyEncryptionAndDecryption(C context) {
-        context.setEncryption(new AESEncryption(secretKey));
-        context.setDecryption(new AESDecryption(secretKey));
+        context.setSymmetricEncryption(secretKey);
     }
 
     @Override
@@ -0,0 +1,38 @@
+package no.ntnu.network.message.response.error;
+
+import no.ntnu.network.message.context.ClientContext;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+
+/**
+ * An error message for when the central server declines to resume the previous session of a client, after which the
+ * client starts the handshake instead.
+ *
+ * @param <C> any client context
+ */
+public class ResumptionDeclinedError<C extends ClientContext> extends ErrorMessage<C> {
+    /**
+     * Creates a new ResumptionDeclinedError.
+     *
+     * @param description the description of the decline
+     */
+    public ResumptionDeclinedError(String description) {
+        super(NofspSerializationConstants.RESUMPTION_DECLINED_CODE, description);
+    }
+
+    /**
+     * Creates a new ResumptionDeclinedError.
+     *
+     * @param id the message id
+     * @param description the description of the decline
+     */
+    public ResumptionDeclinedError(int id, String description) {
+        this(description);
+
+        setId(id);
+    }
+
+    @Override
+    protected void handleResponseProcessing(C context) {
+        context.declineSessionResumption();
+    }
+}
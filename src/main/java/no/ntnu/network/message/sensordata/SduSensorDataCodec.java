@@ -0,0 +1,362 @@
+package no.ntnu.network.message.sensordata;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.message.deserialize.component.DeviceLookupTable;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.ByteHandler;
+import no.ntnu.network.message.serialize.tool.tlv.TlvFrame;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A codec for sensor data messages holding SDU data, encoding and decoding the fixed layout of the NOFSP sensor
+ * data frame directly to and from caller-supplied arrays.
+ * The frame is a sensor data TLV holding three TLVs in its value-field: an integer TLV with the client node address,
+ * an integer TLV with the sensor address and a double TLV with the data. The encoded bytes are identical to those
+ * produced by serializing an {@code SduSensorDataMessage}, and decoded values are delivered to a
+ * {@code SensorDataReceiver}, so that no message objects, TLV objects or intermediate arrays are created.
+ * Several encoded frames can be packed into the value-field of a sensor data batch frame.
+ */
+public class SduSensorDataCodec {
+    private static final TlvFrame FRAME = NofspSerializationConstants.TLV_FRAME;
+    private static final Set<DeviceClass> SDU_SENSOR_CLASSES = EnumSet.of(DeviceClass.S1, DeviceClass.S2,
+            DeviceClass.S3);
+
+    /**
+     * The length of the header of a frame, consisting of its type-field and length-field.
+     */
+    public static final int HEADER_LENGTH = FRAME.typeFieldLength() + FRAME.lengthFieldLength();
+
+    /**
+     * The maximum length of an encoded frame, including its header.
+     */
+    public static final int MAX_FRAME_LENGTH = 4 * HEADER_LENGTH + 2 * Integer.BYTES + Double.BYTES;
+
+    /**
+     * Does not allow creating instances of the class.
+     */
+    private SduSensorDataCodec() {}
+
+    /**
+     * Returns whether sensors of a given device class capture SDU data.
+     *
+     * @param deviceClass the device class
+     * @return true if the sensors capture SDU data, false otherwise
+     */
+    public static boolean isSduSensorClass(DeviceClass deviceClass) {
+        return deviceClass != null && SDU_SENSOR_CLASSES.contains(deviceClass);
+    }
+
+    /**
+     * Encodes a sensor data frame into an array.
+     *
+     * @param clientNodeAddress the address of the client that sent the data
+     * @param sensorAddress the address of the sensor that captured the data
+     * @param data the sdu data captured
+     * @param destination the array to encode into
+     * @param offset the index in the array to encode from
+     * @return the length of the encoded frame
+     */
+    public static int encode(int clientNodeAddress, int sensorAddress, double data, byte[] destination, int offset) {
+        int valueLength = getValueLength(clientNodeAddress, sensorAddress);
+        int headerLength = encodeHeader(valueLength, destination, offset);
+
+        return headerLength + encodeValue(clientNodeAddress, sensorAddress, data, destination, offset + headerLength);
+    }
+
+    /**
+     * Encodes the header of a sensor data frame into an array, consisting of its type-field and length-field.
+     * This can be used for framing a value-field that has been encoded with {@code encodeValue()} and then
+     * processed, for example by encryption.
+     *
+     * @param valueLength the length of the value-field
+     * @param destination the array to encode into
+     * @param offset the index in the array to encode from
+     * @return the length of the header
+     */
+    public static int encodeHeader(int valueLength, byte[] destination, int offset) {
+        return encodeHeader(NofspSerializationConstants.SENSOR_DATA_BYTES, valueLength, destination, offset);
+    }
+
+    /**
+     * Encodes the header of a sensor data batch frame into an array, consisting of its type-field and length-field.
+     * The value-field of a batch is a series of sensor data frames, each encoded with {@code encode()}, which may be
+     * processed as a whole, for example by encryption, before being framed.
+     *
+     * @param valueLength the length of the value-field
+     * @param destination the array to encode into
+     * @param offset the index in the array to encode from
+     * @return the length of the header
+     */
+    public static int encodeBatchHeader(int valueLength, byte[] destination, int offset) {
+        return encodeHeader(NofspSerializationConstants.SENSOR_DATA_BATCH_BYTES, valueLength, destination, offset);
+    }
+
+    /**
+     * Encodes the header of a frame into an array.
+     *
+     * @param typeField the type-field of the frame
+     * @param valueLength the length of the value-field
+     * @param destination the array to encode into
+     * @param offset the index in the array to encode from
+     * @return the length of the header
+     */
+    private static int encodeHeader(byte[] typeField, int valueLength, byte[] destination, int offset) {
+        if (destination == null) {
+            throw new IllegalArgumentException("Cannot encode header, because destination is null.");
+        }
+
+        if (offset < 0 || destination.length - offset < HEADER_LENGTH) {
+            throw new IllegalArgumentException("Cannot encode header, because the destination is too short.");
+        }
+
+        writeHeader(typeField, valueLength, destination, offset);
+
+        return HEADER_LENGTH;
+    }
+
+    /**
+     * Encodes the value-field of a sensor data frame into an array.
+     *
+     * @param clientNodeAddress the address of the client that sent the data
+     * @param sensorAddress the address of the sensor that captured the data
+     * @param data the sdu data captured
+     * @param destination the array to encode into
+     * @param offset the index in the array to encode from
+     * @return the length of the encoded value-field
+     */
+    public static int encodeValue(int clientNodeAddress, int sensorAddress, double data, byte[] destination,
+                                  int offset) {
+        if (destination == null) {
+            throw new IllegalArgumentException("Cannot encode sensor data, because destination is null.");
+        }
+
+        int valueLength = getValueLength(clientNodeAddress, sensorAddress);
+        if (offset < 0 || destination.length - offset < valueLength) {
+            throw new IllegalArgumentException("Cannot encode sensor data, because the destination is too short.");
+        }
+
+        int position = writeInteger(clientNodeAddress, destination, offset);
+        position = writeInteger(sensorAddress, destination, position);
+
+        writeHeader(NofspSerializationConstants.DOUBLE_BYTES, Double.BYTES, destination, position);
+        writeBigEndian(Double.doubleToRawLongBits(data), Double.BYTES, destination, position + HEADER_LENGTH);
+
+        return valueLength;
+    }
+
+    /**
+     * Returns the length of the value-field of an encoded sensor data frame.
+     *
+     * @param clientNodeAddress the address of the client that sent the data
+     * @param sensorAddress the address of the sensor that captured the data
+     * @return the length of the value-field
+     */
+    public static int getValueLength(int clientNodeAddress, int sensorAddress) {
+        return 3 * HEADER_LENGTH + significantBytes(clientNodeAddress) + significantBytes(sensorAddress) +
+                Double.BYTES;
+    }
+
+    /**
+     * Decodes a sensor data frame held by an array, delivering the decoded values to a receiver.
+     * The values are only delivered if the frame has the fixed layout of SDU sensor data, and if the lookup table
+     * identifies the sensor as a sensor capturing SDU data. Otherwise, nothing is delivered, leaving the frame to
+     * be deserialized by a general deserializer.
+     *
+     * @param source the array holding the frame
+     * @param offset the index of the first byte of the frame
+     * @param length the length of the frame
+     * @param lookupTable the lookup table used for identifying the sensor
+     * @param receiver the receiver of the decoded values
+     * @return true if the values were delivered, false otherwise
+     */
+    public static boolean decode(byte[] source, int offset, int length, DeviceLookupTable lookupTable,
+                                 SensorDataReceiver receiver) {
+        if (source == null) {
+            throw new IllegalArgumentException("Cannot decode sensor data, because source is null.");
+        }
+
+        boolean result = false;
+
+        int valueLength = getFieldLength(source, offset, offset + length,
+                NofspSerializationConstants.SENSOR_DATA_BYTES);
+        if (valueLength == length - HEADER_LENGTH) {
+            result = decodeValue(source, offset + HEADER_LENGTH, valueLength, lookupTable, receiver);
+        }
+
+        return result;
+    }
+
+    /**
+     * Decodes the value-field of a sensor data frame held by an array, delivering the decoded values to a receiver.
+     * The values are only delivered if the value-field has the fixed layout of SDU sensor data, and if the lookup
+     * table identifies the sensor as a sensor capturing SDU data. Otherwise, nothing is delivered, leaving the frame
+     * to be deserialized by a general deserializer.
+     *
+     * @param source the array holding the value-field
+     * @param offset the index of the first byte of the value-field
+     * @param length the length of the value-field
+     * @param lookupTable the lookup table used for identifying the sensor
+     * @param receiver the receiver of the decoded values
+     * @return true if the values were delivered, false otherwise
+     */
+    public static boolean decodeValue(byte[] source, int offset, int length, DeviceLookupTable lookupTable,
+                                      SensorDataReceiver receiver) {
+        if (source == null) {
+            throw new IllegalArgumentException("Cannot decode sensor data, because source is null.");
+        }
+
+        if (lookupTable == null) {
+            throw new IllegalArgumentException("Cannot decode sensor data, because lookupTable is null.");
+        }
+
+        if (receiver == null) {
+            throw new IllegalArgumentException("Cannot decode sensor data, because receiver is null.");
+        }
+
+        boolean result = false;
+
+        int end = offset + length;
+        int clientNodeAddressLength = getFieldLength(source, offset, end, NofspSerializationConstants.INTEGER_BYTES);
+        if (isIntegerLength(clientNodeAddressLength)) {
+            int sensorAddressOffset = offset + HEADER_LENGTH + clientNodeAddressLength;
+            int sensorAddressLength = getFieldLength(source, sensorAddressOffset, end,
+                    NofspSerializationConstants.INTEGER_BYTES);
+
+            if (isIntegerLength(sensorAddressLength)) {
+                int dataOffset = sensorAddressOffset + HEADER_LENGTH + sensorAddressLength;
+                int dataLength = getFieldLength(source, dataOffset, end, NofspSerializationConstants.DOUBLE_BYTES);
+
+                if (dataLength == Double.BYTES && dataOffset + HEADER_LENGTH + dataLength == end) {
+                    int clientNodeAddress = ByteHandler.bytesToInt(source, offset + HEADER_LENGTH,
+                            clientNodeAddressLength);
+                    int sensorAddress = ByteHandler.bytesToInt(source, sensorAddressOffset + HEADER_LENGTH,
+                            sensorAddressLength);
+
+                    if (isSduSensorClass(lookupTable.lookup(clientNodeAddress, sensorAddress))) {
+                        double data = Double.longBitsToDouble(readLong(source, dataOffset + HEADER_LENGTH));
+                        receiver.receiveSduData(clientNodeAddress, sensorAddress, data);
+                        result = true;
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the length of the value-field of a TLV held by an array, if the TLV has a given type and fits within
+     * the given range of the array.
+     *
+     * @param source the array holding the tlv
+     * @param offset the index of the first byte of the tlv
+     * @param end the index after the last byte the tlv may hold
+     * @param typeField the expected type-field
+     * @return the length of the value-field, -1 if the tlv does not have the type or does not fit
+     */
+    private static int getFieldLength(byte[] source, int offset, int end, byte[] typeField) {
+        int result = -1;
+
+        if (offset >= 0 && end <= source.length && end - offset >= HEADER_LENGTH
+                && Arrays.equals(source, offset, offset + FRAME.typeFieldLength(), typeField, 0, typeField.length)) {
+            int valueLength = ByteHandler.bytesToInt(source, offset + FRAME.typeFieldLength(),
+                    FRAME.lengthFieldLength());
+
+            if (valueLength >= 0 && valueLength <= end - offset - HEADER_LENGTH) {
+                result = valueLength;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns whether a value-field length is valid for an integer TLV.
+     *
+     * @param length the length of the value-field
+     * @return true if valid, false otherwise
+     */
+    private static boolean isIntegerLength(int length) {
+        return length >= 1 && length <= Integer.BYTES;
+    }
+
+    /**
+     * Writes an integer TLV into an array, using as few bytes as possible for the value, as done by the serializers.
+     *
+     * @param value the integer to write
+     * @param destination the array to write into
+     * @param offset the index to write from
+     * @return the index after the written tlv
+     */
+    private static int writeInteger(int value, byte[] destination, int offset) {
+        int valueLength = significantBytes(value);
+
+        writeHeader(NofspSerializationConstants.INTEGER_BYTES, valueLength, destination, offset);
+        writeBigEndian(value, valueLength, destination, offset + HEADER_LENGTH);
+
+        return offset + HEADER_LENGTH + valueLength;
+    }
+
+    /**
+     * Writes the type-field and length-field of a TLV into an array.
+     *
+     * @param typeField the type-field
+     * @param valueLength the length of the value-field
+     * @param destination the array to write into
+     * @param offset the index to write from
+     */
+    private static void writeHeader(byte[] typeField, int valueLength, byte[] destination, int offset) {
+        System.arraycopy(typeField, 0, destination, offset, FRAME.typeFieldLength());
+        writeBigEndian(valueLength, FRAME.lengthFieldLength(), destination, offset + FRAME.typeFieldLength());
+    }
+
+    /**
+     * Writes the lowest bytes of a value into an array, in big-endian order.
+     *
+     * @param value the value to write
+     * @param length the number of bytes to write
+     * @param destination the array to write into
+     * @param offset the index to write from
+     */
+    private static void writeBigEndian(long value, int length, byte[] destination, int offset) {
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = (byte) (value >>> (8 * (length - 1 - i)));
+        }
+    }
+
+    /**
+     * Reads a big-endian long from an array.
+     *
+     * @param source the array to read from
+     * @param offset the index of the first byte
+     * @return the long
+     */
+    private static long readLong(byte[] source, int offset) {
+        long result = 0;
+
+        for (int i = offset; i < offset + Long.BYTES; i++) {
+            result = (result << 8) | (source[i] & 0xFF);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of bytes needed for an integer, leaving out leading zero bytes.
+     *
+     * @param value the integer
+     * @return the number of bytes, at least 1
+     */
+    private static int significantBytes(int value) {
+        int result = Integer.BYTES;
+
+        while (result > 1 && (value >>> (8 * (result - 1))) == 0) {
+            result--;
+        }
+
+        return result;
+    }
+}
@@ -14,8 +14,11 @@ public class NofspSerializationConstants {
     // version of protocol
     public static final String VERSION = "1.0";
 
+    // the largest TLV accepted from a peer, header included, so that a forged length-field cannot exhaust the memory
+    public static final int MAX_TLV_LENGTH = 16 * 1024 * 1024;
+
     // a tlv frame with type-field length of 2 bytes, and length-field length of 4 bytes
-    public static final TlvFrame TLV_FRAME = new TlvFrame(2, 4);
+    public static final TlvFrame TLV_FRAME = new TlvFrame(2, 4, MAX_TLV_LENGTH);
 
     // TLV type-fields (bytes)
     public static final byte[] INTEGER_BYTES = new byte[] {0, 0};
@@ -31,6 +34,7 @@ public class NofspSerializationConstants {
     public static final byte[] REQUEST_BYTES = new byte[] {1, 0};
     public static final byte[] RESPONSE_BYTES = new byte[] {1, 1};
     public static final byte[] SENSOR_DATA_BYTES = new byte[] {2, 0};
+    public static final byte[] SENSOR_DATA_BATCH_BYTES = new byte[] {2, 1};
 
     // request commands (UTF-8 String)
     public static final String HEART_BEAT = "HBEAT";
@@ -46,12 +50,16 @@ public class NofspSerializationConstants {
     public static final String DISCONNECT_CLIENT_COMMAND = "DISC";
     public static final String ASYMMETRIC_ENCRYPTION_REQUEST = "ASYM";
     public static final String SYMMETRIC_ENCRYPTION_REQUEST = "SYM";
+    public static final String KEY_AGREEMENT_REQUEST = "KEYAGR";
+    public static final String RESUME_SESSION_REQUEST = "RESUME";
+    public static final String SENSOR_DATA_KEY_COMMAND = "SDKEY";
 
     // status codes - successful requests
     public static final int HEART_BEAT_CODE = 0;
     public static final int NODE_REGISTRATION_CONFIRMED_CODE = 1;
     public static final int SUBSCRIBED_TO_FIELD_NODE_CODE = 2;
     public static final int UNSUBSCRIBED_FROM_FIELD_NODE_CODE = 3;
+    public static final int SENSOR_DATA_KEY_ACCEPTED_CODE = 4;
     public static final int FIELD_NODE_POOL_CODE = 10;
     public static final int ADL_UPDATED_CODE = 20;
     public static final int SERVER_FNSM_UPDATED_CODE = 25;
@@ -60,6 +68,8 @@ public class NofspSerializationConstants {
     public static final int DISCONNECTION_ALLOWED_CODE = 50;
     public static final int ASYMMETRIC_ENCRYPTION_CODE = 60;
     public static final int SYMMETRIC_ENCRYPTION_CODE = 61;
+    public static final int KEY_AGREEMENT_CODE = 62;
+    public static final int SESSION_RESUMED_CODE = 63;
 
     // status codes - error
     public static final int AUTHENTICATION_FAILED_CODE = 100;
@@ -72,4 +82,5 @@ public class NofspSerializationConstants {
     public static final int DEVICE_INTERACTION_FAILED_CODE = 107;
     public static final int UNSECURE_REQUEST_ERROR_CODE = 110;
     public static final int KEY_GEN_ERROR_CODE = 111;
+    public static final int RESUMPTION_DECLINED_CODE = 112;
 }
@@ -60,13 +60,8 @@ public class ByteHandler {
         int paddingLength = totalLength - bytes.length;
 
         if (paddingLength > 0) {
-            SimpleByteBuffer simpleByteBuffer = new SimpleByteBuffer();
-
-            byte[] padding = new byte[paddingLength];
-
-            simpleByteBuffer.addBytes(padding, bytes);
-
-            result = simpleByteBuffer.toArray();
+            result = new byte[totalLength];
+            System.arraycopy(bytes, 0, result, paddingLength, bytes.length);
         }
 
 
@@ -95,6 +90,26 @@ public class ByteHandler {
         return buffer.getInt();
     }
 
+    /**
+     * Translates a range of an array of bytes into an integer, without copying the range.
+     * The range is read as a big-endian integer, giving the same result as {@code bytesToInt(byte[])} does for
+     * ranges of at most {@code Integer.BYTES} bytes.
+     *
+     * @param bytes the array holding the bytes to translate
+     * @param offset the index of the first byte to translate
+     * @param length the number of bytes to translate
+     * @return translated integer
+     */
+    public static int bytesToInt(byte[] bytes, int offset, int length) {
+        int result = 0;
+
+        for (int i = offset; i < offset + length; i++) {
+            result = (result << 8) | (bytes[i] & 0xFF);
+        }
+
+        return result;
+    }
+
     /**
      * Converts an array of bytes to a String.
      *
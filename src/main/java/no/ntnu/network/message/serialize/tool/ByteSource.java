@@ -13,4 +13,30 @@ public interface ByteSource {
      * @throws IOException thrown if an I/O error occurs
      */
     int read() throws IOException;
+
+    /**
+     * Reads a given amount of bytes from the source into an array.
+     * The method blocks until the given amount of bytes is read, or the end of the source is reached.
+     * Sources able to read several bytes at once should override this method.
+     *
+     * @param bytes the array to read into
+     * @param offset the index in the array to start writing at
+     * @param length the number of bytes to read
+     * @return the number of bytes actually read, less than length only if the end of the source is reached
+     * @throws IOException thrown if an I/O error occurs
+     */
+    default int readNBytes(byte[] bytes, int offset, int length) throws IOException {
+        int bytesRead = 0;
+        int nextByte = 0;
+
+        while (bytesRead < length && nextByte != -1) {
+            nextByte = read();
+            if (nextByte != -1) {
+                bytes[offset + bytesRead] = (byte) nextByte;
+                bytesRead++;
+            }
+        }
+
+        return bytesRead;
+    }
 }
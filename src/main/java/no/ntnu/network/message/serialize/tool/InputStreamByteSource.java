@@ -26,4 +26,9 @@ public class InputStreamByteSource implements ByteSource {
     public int read() throws IOException {
         return inputStream.read();
     }
+
+    @Override
+    public int readNBytes(byte[] bytes, int offset, int length) throws IOException {
+        return inputStream.readNBytes(bytes, offset, length);
+    }
 }
@@ -1,5 +1,7 @@
 package no.ntnu.network.message.serialize.tool;
 
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.bufferpool.ByteArrayPools;
 import no.ntnu.network.message.serialize.tool.tlv.Tlv;
 
 import java.io.IOException;
@@ -7,9 +9,16 @@ import java.io.IOException;
 /**
  * A buffer for handling bytes. The {@code SimpleByteBuffer} provides efficient operations on the buffer,
  * having adding and removing bytes run in O(n) time.
+ * <p/>
+ * The backing array is borrowed from a {@code ByteArrayPool}, and is swapped for a bigger one from the same pool when
+ * the buffer grows. Reading bytes does not shrink the buffer, but an emptied buffer starts over at the front of its
+ * array. Once a buffer is no longer needed, its array can be returned to the pool using {@code release()}.
  */
 public class SimpleByteBuffer implements ByteSource {
     private static final int DEFAULT_INITIAL_CAPACITY = 32;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final byte[] RELEASED = new byte[0];
+    private final ByteArrayPool pool;
     private byte[] buffer;
     private int head;
     private int tail;
@@ -22,12 +31,27 @@ public class SimpleByteBuffer implements ByteSource {
     }
 
     /**
-     * Creates a new SimpleByteBuffer with a predefined initial capacity.
+     * Creates a new SimpleByteBuffer with a predefined initial capacity, borrowing from the default pool.
      *
      * @param initialCapacity initial buffer capacity
      */
     public SimpleByteBuffer(int initialCapacity) {
-        this.buffer = new byte[initialCapacity];
+        this(initialCapacity, ByteArrayPools.getDefault());
+    }
+
+    /**
+     * Creates a new SimpleByteBuffer with a predefined initial capacity.
+     *
+     * @param initialCapacity initial buffer capacity
+     * @param pool the pool to borrow arrays from
+     */
+    public SimpleByteBuffer(int initialCapacity, ByteArrayPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot create SimpleByteBuffer, because pool is null.");
+        }
+
+        this.pool = pool;
+        this.buffer = pool.acquire(initialCapacity);
 
         this.head = 0;
         this.tail = 0;
@@ -50,7 +74,7 @@ public class SimpleByteBuffer implements ByteSource {
      * @param aByte byte to add
      */
     public void addByte(byte aByte) {
-        handleBufferExpansion();
+        ensureCapacity(size() + 1);
         buffer[tail] = aByte;
         tail++;
     }
@@ -62,9 +86,9 @@ public class SimpleByteBuffer implements ByteSource {
      */
     public void addBytes(byte[]... bytes) {
         for (byte[] byteArray : bytes) {
-            for (byte aByte : byteArray) {
-                addByte(aByte);
-            }
+            ensureCapacity(size() + byteArray.length);
+            System.arraycopy(byteArray, 0, buffer, tail, byteArray.length);
+            tail += byteArray.length;
         }
     }
 
@@ -78,8 +102,7 @@ public class SimpleByteBuffer implements ByteSource {
             throw new IllegalArgumentException("Cannot add TLV, because TLV is null.");
         }
 
-        byte[] tlvBytes = ByteHandler.combineBytes(tlv.typeField(), tlv.lengthField(), tlv.valueField());
-        addBytes(tlvBytes);
+        addBytes(tlv.typeField(), tlv.lengthField(), tlv.valueField());
     }
 
     /**
@@ -98,41 +121,70 @@ public class SimpleByteBuffer implements ByteSource {
     }
 
     /**
-     * Expands the underlying array size if necessary.
+     * Makes sure there is room for a given amount of bytes after the head of the buffer.
+     * The bytes are moved to the front of the array if that makes enough room, otherwise they are moved into a bigger
+     * array from the pool.
+     *
+     * @param capacity the number of bytes to make room for
      */
-    private void handleBufferExpansion() {
-        if (tail == buffer.length) {
-            buffer = migrateBytes(buffer.length * 2);
+    private void ensureCapacity(int capacity) {
+        if (head + capacity > buffer.length) {
+            int currentSize = size();
+
+            if (capacity <= buffer.length) {
+                System.arraycopy(buffer, head, buffer, 0, currentSize);
+            } else {
+                byte[] newBuffer = pool.acquire(Math.max(capacity, buffer.length * 2));
+                System.arraycopy(buffer, head, newBuffer, 0, currentSize);
+                releaseBuffer();
+                buffer = newBuffer;
+            }
+
+            head = 0;
+            tail = currentSize;
         }
     }
 
     /**
-     * Reduces the underlying array size if necessary.
+     * Moves the head and tail back to the front of the array once the buffer has been emptied.
      */
-    private void handleBufferReduction() {
-        int currentSize = size();
-        if (currentSize <= buffer.length / 4 && buffer.length > 32) {
-            buffer = migrateBytes(Math.max(currentSize * 2, 32));
+    private void handleEmptiedBuffer() {
+        if (head == tail) {
             head = 0;
-            tail = currentSize;
+            tail = 0;
         }
     }
 
     /**
-     * Migrates the bytes in the underlying array to a new array of a new size.
-     *
-     * @param newSize the size of the new array
-     * @return the new array
+     * Returns the backing array to the pool, unless it has already been released.
      */
-    private byte[] migrateBytes(int newSize) {
-        byte[] newBytes = new byte[newSize];
-        System.arraycopy(buffer, head, newBytes, 0, size());
-
-        return newBytes;
+    private void releaseBuffer() {
+        if (buffer != RELEASED) {
+            pool.release(buffer);
+        }
     }
 
+    /**
+     * Clears the buffer.
+     * If the buffer has grown unusually large, its array is returned to the pool and replaced by a smaller one.
+     */
     public void reset() {
-        this.buffer = new byte[DEFAULT_INITIAL_CAPACITY];
+        if (buffer == RELEASED || buffer.length > MAX_RETAINED_CAPACITY) {
+            releaseBuffer();
+            buffer = pool.acquire(DEFAULT_INITIAL_CAPACITY);
+        }
+
+        head = 0;
+        tail = 0;
+    }
+
+    /**
+     * Clears the buffer and returns its array to the pool.
+     * The buffer can still be used afterwards, in which case it borrows a new array.
+     */
+    public void release() {
+        releaseBuffer();
+        buffer = RELEASED;
         head = 0;
         tail = 0;
     }
@@ -152,7 +204,10 @@ public class SimpleByteBuffer implements ByteSource {
      * @return buffer as array
      */
     public byte[] toArray() {
-        return migrateBytes(size());
+        byte[] result = new byte[size()];
+        System.arraycopy(buffer, head, result, 0, result.length);
+
+        return result;
     }
 
     @Override
@@ -161,12 +216,23 @@ public class SimpleByteBuffer implements ByteSource {
 
         if (head < tail) {
             readByte = buffer[head++] & 0xFF;
-            handleBufferReduction();
+            handleEmptiedBuffer();
         }
 
         return readByte;
     }
 
+    @Override
+    public int readNBytes(byte[] bytes, int offset, int length) throws IOException {
+        int bytesRead = Math.min(length, size());
+
+        System.arraycopy(buffer, head, bytes, offset, bytesRead);
+        head += bytesRead;
+        handleEmptiedBuffer();
+
+        return bytesRead;
+    }
+
     @Override
     public String toString() {
         return ByteHandler.bytesToString(toArray());
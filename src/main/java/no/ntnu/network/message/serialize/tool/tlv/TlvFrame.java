@@ -5,6 +5,40 @@ package no.ntnu.network.message.serialize.tool.tlv;
  *
  * @param typeFieldLength the length of the type field
  * @param lengthFieldLength the length of the length field
+ * @param maxFrameLength the largest number of bytes a whole TLV may take up, header included
  */
-public record TlvFrame(int typeFieldLength, int lengthFieldLength) {
+public record TlvFrame(int typeFieldLength, int lengthFieldLength, int maxFrameLength) {
+    /**
+     * Creates a new TlvFrame.
+     *
+     * @param typeFieldLength the length of the type field
+     * @param lengthFieldLength the length of the length field
+     * @param maxFrameLength the largest number of bytes a whole TLV may take up, header included
+     */
+    public TlvFrame {
+        if (maxFrameLength < typeFieldLength + lengthFieldLength) {
+            throw new IllegalArgumentException("Cannot create TlvFrame, because maxFrameLength is shorter than the " +
+                    "header.");
+        }
+    }
+
+    /**
+     * Creates a new TlvFrame, only limiting the length of a TLV to what an array can hold.
+     *
+     * @param typeFieldLength the length of the type field
+     * @param lengthFieldLength the length of the length field
+     */
+    public TlvFrame(int typeFieldLength, int lengthFieldLength) {
+        this(typeFieldLength, lengthFieldLength, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the largest value-field a TLV may have, so that the whole TLV fits in the maximum frame length.
+     * Comparing a length-field to this value, rather than adding the header to it, cannot overflow.
+     *
+     * @return the maximum length of the value field
+     */
+    public int maxValueLength() {
+        return maxFrameLength - typeFieldLength - lengthFieldLength;
+    }
 }
@@ -0,0 +1,243 @@
+package no.ntnu.network.message.serialize.tool.tlv;
+
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.bufferpool.ByteArrayPools;
+
+/**
+ * A growable buffer for writing Type-Length-Value structures in a single pass.
+ * A TLV is started by writing its type-field and reserving space for its length-field, after which its value-field
+ * is written, possibly consisting of other TLVs. Once the TLV is ended, its length-field is back-patched with the
+ * number of bytes written since it was started. This way, nested TLVs are written exactly once, without copying
+ * any child bytes into their parents.
+ * <p/>
+ * The backing array of the buffer is borrowed from a {@code ByteArrayPool}, and is swapped for a bigger one from the
+ * same pool when the buffer grows. The buffer is meant to be reused, and is not thread safe.
+ */
+public class TlvOutputBuffer {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private final TlvFrame tlvFrame;
+    private final ByteArrayPool pool;
+    private byte[] bytes;
+    private int size;
+    private int openTlvs;
+
+    /**
+     * Creates a new TlvOutputBuffer, borrowing from the default pool.
+     *
+     * @param tlvFrame the frame of the tlvs to write
+     */
+    public TlvOutputBuffer(TlvFrame tlvFrame) {
+        this(tlvFrame, ByteArrayPools.getDefault());
+    }
+
+    /**
+     * Creates a new TlvOutputBuffer.
+     *
+     * @param tlvFrame the frame of the tlvs to write
+     * @param pool the pool to borrow arrays from
+     */
+    public TlvOutputBuffer(TlvFrame tlvFrame, ByteArrayPool pool) {
+        if (tlvFrame == null) {
+            throw new IllegalArgumentException("Cannot create TlvOutputBuffer, because tlvFrame is null.");
+        }
+
+        if (tlvFrame.lengthFieldLength() > Integer.BYTES) {
+            throw new IllegalArgumentException("Cannot create TlvOutputBuffer, because length-fields longer than " +
+                    Integer.BYTES + " bytes are not supported.");
+        }
+
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot create TlvOutputBuffer, because pool is null.");
+        }
+
+        this.tlvFrame = tlvFrame;
+        this.pool = pool;
+        this.bytes = pool.acquire(INITIAL_CAPACITY);
+        this.size = 0;
+        this.openTlvs = 0;
+    }
+
+    /**
+     * Starts a new TLV by writing its type-field and reserving space for its length-field.
+     *
+     * @param typeField the type-field of the tlv
+     * @return a mark to end the tlv with
+     */
+    public int startTlv(byte[] typeField) {
+        if (typeField == null || typeField.length != tlvFrame.typeFieldLength()) {
+            throw new IllegalArgumentException("Cannot start TLV, because typeField does not fit the frame.");
+        }
+
+        writeBytes(typeField);
+        int mark = size;
+        ensureCapacity(tlvFrame.lengthFieldLength());
+        size += tlvFrame.lengthFieldLength();
+        openTlvs++;
+
+        return mark;
+    }
+
+    /**
+     * Ends a TLV, back-patching its length-field with the length of everything written since it was started.
+     *
+     * @param mark the mark returned when the tlv was started
+     */
+    public void endTlv(int mark) {
+        if (openTlvs == 0) {
+            throw new IllegalStateException("Cannot end TLV, because no TLV has been started.");
+        }
+
+        int valueLength = size - mark - tlvFrame.lengthFieldLength();
+        for (int i = tlvFrame.lengthFieldLength() - 1; i >= 0; i--) {
+            bytes[mark + i] = (byte) (valueLength >>> (8 * (tlvFrame.lengthFieldLength() - 1 - i)));
+        }
+
+        openTlvs--;
+    }
+
+    /**
+     * Returns the number of TLVs that have been started, but not yet ended.
+     *
+     * @return the number of open tlvs
+     */
+    public int getOpenTlvs() {
+        return openTlvs;
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param b the byte to write
+     */
+    public void writeByte(int b) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) b;
+    }
+
+    /**
+     * Writes a long as eight big-endian bytes.
+     *
+     * @param value the long to write
+     */
+    public void writeLong(long value) {
+        ensureCapacity(Long.BYTES);
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            bytes[size++] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    /**
+     * Writes an array of bytes.
+     *
+     * @param source the bytes to write
+     */
+    public void writeBytes(byte[] source) {
+        writeBytes(source, 0, source.length);
+    }
+
+    /**
+     * Writes a range of an array of bytes.
+     *
+     * @param source the array holding the bytes to write
+     * @param offset the index of the first byte to write
+     * @param length the number of bytes to write
+     */
+    public void writeBytes(byte[] source, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(source, offset, bytes, size, length);
+        size += length;
+    }
+
+    /**
+     * Writes a complete TLV.
+     *
+     * @param tlv the tlv to write
+     */
+    public void writeTlv(Tlv tlv) {
+        writeBytes(tlv.typeField());
+        writeBytes(tlv.lengthField());
+        writeBytes(tlv.valueField());
+    }
+
+    /**
+     * Returns the number of bytes written.
+     *
+     * @return the number of bytes written
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Clears the buffer, so that it can be reused.
+     * If the buffer has grown unusually large, it is returned to the pool and replaced by a smaller one.
+     */
+    public void reset() {
+        if (bytes.length > MAX_RETAINED_CAPACITY) {
+            pool.release(bytes);
+            bytes = pool.acquire(INITIAL_CAPACITY);
+        }
+
+        size = 0;
+        openTlvs = 0;
+    }
+
+    /**
+     * Returns a view of the first TLV written to the buffer.
+     * The view refers to the buffer directly, and is only valid until the buffer is written to or reset.
+     *
+     * @return a view of the first tlv
+     */
+    public TlvView toView() {
+        if (openTlvs != 0 || size < tlvFrame.typeFieldLength() + tlvFrame.lengthFieldLength()) {
+            throw new IllegalStateException("Cannot create view, because the buffer does not hold a complete TLV.");
+        }
+
+        int valueLength = 0;
+        for (int i = 0; i < tlvFrame.lengthFieldLength(); i++) {
+            valueLength = (valueLength << 8) | (bytes[tlvFrame.typeFieldLength() + i] & 0xFF);
+        }
+
+        return TlvView.of(bytes, 0, valueLength, tlvFrame);
+    }
+
+    /**
+     * Returns a copy of the bytes written.
+     *
+     * @return the bytes written
+     */
+    public byte[] toByteArray() {
+        byte[] result = new byte[size];
+        System.arraycopy(bytes, 0, result, 0, size);
+
+        return result;
+    }
+
+    /**
+     * Returns the backing array to the pool.
+     * The buffer must not be used after it has been released.
+     */
+    public void release() {
+        if (bytes != null) {
+            pool.release(bytes);
+            bytes = null;
+        }
+    }
+
+    /**
+     * Makes sure the buffer has room for a given number of additional bytes, growing it if necessary.
+     * A grown buffer moves its bytes into a bigger array from the pool, and returns the old array to the pool.
+     *
+     * @param additionalBytes the number of bytes to make room for
+     */
+    private void ensureCapacity(int additionalBytes) {
+        int requiredCapacity = size + additionalBytes;
+        if (requiredCapacity > bytes.length) {
+            byte[] grownBytes = pool.acquire(Math.max(requiredCapacity, bytes.length * 2));
+            System.arraycopy(bytes, 0, grownBytes, 0, size);
+            pool.release(bytes);
+            bytes = grownBytes;
+        }
+    }
+}
@@ -1,30 +1,61 @@
 package no.ntnu.network.message.serialize.tool.tlv;
 
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.bufferpool.ByteArrayPools;
 import no.ntnu.network.message.serialize.tool.ByteHandler;
 import no.ntnu.network.message.serialize.tool.ByteSource;
-import no.ntnu.network.message.serialize.tool.SimpleByteBuffer;
 
 import java.io.IOException;
 import java.util.Arrays;
 
 /**
- * Reads Type-Length-Value (TLV) structures from a {@code ByteSource}.
+ * Reads Type-Length-Value (TLV) structures from a {@code ByteSource} or an array of bytes.
+ * When reading from an array of bytes, TLVs can be read as {@code TlvView}s referring to the array directly, which
+ * allows nested TLVs to be walked without copying any bytes.
+ * <p/>
+ * When reading views from a byte source, every TLV is read into a frame buffer borrowed from a
+ * {@code ByteArrayPool} and reused for the next TLV. The buffer can be returned to the pool using {@code release()}.
  */
 public class TlvReader {
     private final ByteSource byteSource;
-    private final SimpleByteBuffer buffer;
+    private final byte[] array;
+    private final int limit;
     private final TlvFrame tlvFrame;
+    private final byte[] headerBuffer;
+    private final ByteArrayPool pool;
+    private byte[] frameBuffer;
+    private int position;
 
     /**
-     * Creates a new TlvReader.
+     * Creates a new TlvReader, borrowing from the default pool.
      *
      * @param source   source of bytes to read from
      * @param tlvFrame Tlv frame to use for parsing segments
      */
     public TlvReader(ByteSource source, TlvFrame tlvFrame) {
+        this(source, tlvFrame, ByteArrayPools.getDefault());
+    }
+
+    /**
+     * Creates a new TlvReader.
+     *
+     * @param source   source of bytes to read from
+     * @param tlvFrame Tlv frame to use for parsing segments
+     * @param pool     the pool to borrow the frame buffer from
+     */
+    public TlvReader(ByteSource source, TlvFrame tlvFrame, ByteArrayPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot create TlvReader, because pool is null.");
+        }
+
         this.byteSource = source;
-        this.buffer = new SimpleByteBuffer();
+        this.array = null;
+        this.limit = 0;
         this.tlvFrame = tlvFrame;
+        this.headerBuffer = new byte[tlvFrame.typeFieldLength() + tlvFrame.lengthFieldLength()];
+        this.pool = pool;
+        this.frameBuffer = null;
+        this.position = 0;
     }
 
     /**
@@ -34,13 +65,40 @@ public class TlvReader {
      * @param tlvFrame Tlv frame to use for parsing segments
      */
     public TlvReader(byte[] bytes, TlvFrame tlvFrame) {
-        this.byteSource = new SimpleByteBuffer(bytes);
-        this.buffer = new SimpleByteBuffer();
+        this(bytes, 0, bytes.length, tlvFrame);
+    }
+
+    /**
+     * Creates a new TlvReader, reading from a range of an array of bytes in place.
+     *
+     * @param bytes    the array to read from
+     * @param offset   the index of the first byte to read
+     * @param length   the number of bytes to read
+     * @param tlvFrame Tlv frame to use for parsing segments
+     */
+    public TlvReader(byte[] bytes, int offset, int length, TlvFrame tlvFrame) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("Cannot create TlvReader, because bytes is null.");
+        }
+
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IllegalArgumentException("Cannot create TlvReader, because the range is out of bounds.");
+        }
+
+        this.byteSource = null;
+        this.array = bytes;
+        this.limit = offset + length;
         this.tlvFrame = tlvFrame;
+        this.headerBuffer = null;
+        this.pool = null;
+        this.frameBuffer = null;
+        this.position = offset;
     }
 
     /**
-     * Reads the next TLV from the buffer.
+     * Reads the next TLV.
+     * When reading from a byte source, the header of the TLV is read in one bulk read into a reused buffer, after
+     * which the value-field is read in another bulk read directly into the array held by the returned TLV.
      * The method will block until a complete TLV is read, the byte source is out of bytes or an exception is thrown.
      *
      * @return next TLV, null if there are no more TlVs to read
@@ -49,44 +107,164 @@ public class TlvReader {
     public Tlv readNextTlv() throws IOException {
         Tlv tlv = null;
 
-        if (waitForBytes(tlvFrame.typeFieldLength() + tlvFrame.lengthFieldLength())) {
-            byte[] lengthField = getLengthField(buffer.toArray(), tlvFrame);
+        if (array != null) {
+            TlvView view = readNextView();
+            if (view != null) {
+                tlv = view.toTlv();
+            }
+        } else {
+            tlv = readNextTlvFromSource();
+        }
+
+        return tlv;
+    }
+
+    /**
+     * Reads the next TLV as a view.
+     * When reading from an array of bytes, the view refers to the array directly, and no bytes are copied.
+     * When reading from a byte source, the TLV is read into the frame buffer of the reader, and the view is only
+     * valid until the next TLV is read or the reader is released.
+     *
+     * @return a view of the next TLV, null if there are no more TLVs to read
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    public TlvView readNextView() throws IOException {
+        TlvView view = null;
+
+        if (array != null) {
+            view = readNextViewFromArray();
+        } else {
+            view = readNextViewFromSource();
+        }
+
+        return view;
+    }
+
+    /**
+     * Returns the frame buffer to the pool.
+     * The reader can still be used afterwards, in which case it borrows a new frame buffer.
+     */
+    public void release() {
+        if (frameBuffer != null) {
+            pool.release(frameBuffer);
+            frameBuffer = null;
+        }
+    }
+
+    /**
+     * Reads the next TLV from the byte source.
+     *
+     * @return next TLV, null if there are no more TLVs to read
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private Tlv readNextTlvFromSource() throws IOException {
+        Tlv tlv = null;
+
+        if (byteSource.readNBytes(headerBuffer, 0, headerBuffer.length) == headerBuffer.length) {
+            byte[] typeField = Arrays.copyOfRange(headerBuffer, 0, tlvFrame.typeFieldLength());
+            byte[] lengthField = Arrays.copyOfRange(headerBuffer, tlvFrame.typeFieldLength(), headerBuffer.length);
             int valueLength = ByteHandler.bytesToInt(lengthField);
+            checkValueLength(valueLength);
 
-            if (waitForBytes(valueLength)) {
-                byte[] tlvBytes = buffer.toArray();
-                tlv = constructTlv(tlvBytes, tlvFrame);
+            byte[] valueField = new byte[valueLength];
+            if (byteSource.readNBytes(valueField, 0, valueLength) == valueLength) {
+                tlv = new Tlv(typeField, lengthField, valueField);
             }
         }
-        buffer.reset();
 
         return tlv;
     }
 
     /**
-     * Reads a given amount of bytes and indicates whether the given amount was successfully read.
+     * Reads the next TLV from the byte source into the frame buffer.
+     * The header is read straight into the frame buffer, which is swapped for a bigger one from the pool if the
+     * value-field does not fit.
      *
-     * @param numberOfBytes amount of bytes to read
-     * @return true if number of bytes were successfully read, false if end of source was met before all bytes could
-     * be read
+     * @return a view of the next TLV, null if there are no more TLVs to read
      * @throws IOException thrown if an I/O exception occurs
      */
-    private boolean waitForBytes(int numberOfBytes) throws IOException {
-        boolean endOfSource = false;
-        int bytesRead = 0;
+    private TlvView readNextViewFromSource() throws IOException {
+        TlvView view = null;
+
+        int headerLength = headerBuffer.length;
+        ensureFrameCapacity(headerLength);
+        if (byteSource.readNBytes(frameBuffer, 0, headerLength) == headerLength) {
+            int valueLength = ByteHandler.bytesToInt(frameBuffer, tlvFrame.typeFieldLength(),
+                    tlvFrame.lengthFieldLength());
+            checkValueLength(valueLength);
 
-        while ((bytesRead < numberOfBytes) && !endOfSource) {
-            int nextByte = byteSource.read();
-            if (nextByte != -1) {
-                buffer.addByte((byte) nextByte);
-            } else {
-                endOfSource = true;
+            ensureFrameCapacity(headerLength + valueLength);
+            if (byteSource.readNBytes(frameBuffer, headerLength, valueLength) == valueLength) {
+                view = TlvView.of(frameBuffer, 0, valueLength, tlvFrame);
             }
+        }
+
+        return view;
+    }
+
+    /**
+     * Checks the value of a length-field before any room is made for the value-field, as the length-field is chosen
+     * by the sender. The value-field must fit in the maximum frame length of the tlv frame along with the header,
+     * which also keeps the length of the whole TLV from overflowing.
+     *
+     * @param valueLength the value of the length-field
+     * @throws IOException thrown if the length-field is negative or exceeds the maximum frame length
+     */
+    private void checkValueLength(int valueLength) throws IOException {
+        if (valueLength < 0) {
+            throw new IOException("Cannot read TLV, because length-field is invalid: " + valueLength);
+        }
+
+        int headerLength = tlvFrame.typeFieldLength() + tlvFrame.lengthFieldLength();
+        if (valueLength > Integer.MAX_VALUE - headerLength || valueLength > tlvFrame.maxValueLength()) {
+            throw new IOException("Cannot read TLV, because it is longer than the maximum frame length of " +
+                    tlvFrame.maxFrameLength() + " bytes: " + valueLength);
+        }
+    }
+
+    /**
+     * Makes sure the frame buffer can hold a given number of bytes, keeping the header of the current TLV.
+     *
+     * @param capacity the number of bytes to make room for
+     */
+    private void ensureFrameCapacity(int capacity) {
+        if (frameBuffer == null) {
+            frameBuffer = pool.acquire(capacity);
+        } else if (frameBuffer.length < capacity) {
+            byte[] grownBuffer = pool.acquire(capacity);
+            System.arraycopy(frameBuffer, 0, grownBuffer, 0, headerBuffer.length);
+            pool.release(frameBuffer);
+            frameBuffer = grownBuffer;
+        }
+    }
+
+    /**
+     * Reads the next TLV from the array in place.
+     * A TLV cut short by the end of the range is not returned, and the rest of the range is skipped.
+     *
+     * @return a view of the next TLV, null if there are no more TLVs to read
+     * @throws IOException thrown if the length-field of the next tlv is invalid
+     */
+    private TlvView readNextViewFromArray() throws IOException {
+        TlvView view = null;
+
+        int headerLength = tlvFrame.typeFieldLength() + tlvFrame.lengthFieldLength();
+        if (limit - position >= headerLength) {
+            int valueLength = ByteHandler.bytesToInt(array, position + tlvFrame.typeFieldLength(),
+                    tlvFrame.lengthFieldLength());
+            checkValueLength(valueLength);
+
+            if (limit - position - headerLength >= valueLength) {
+                view = TlvView.of(array, position, valueLength, tlvFrame);
+                position += headerLength + valueLength;
+            }
+        }
 
-            bytesRead++;
+        if (view == null) {
+            position = limit;
         }
 
-        return !endOfSource;
+        return view;
     }
 
     /**
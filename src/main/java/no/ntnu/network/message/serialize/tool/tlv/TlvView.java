@@ -0,0 +1,320 @@
+package no.ntnu.network.message.serialize.tool.tlv;
+
+import no.ntnu.network.message.serialize.tool.ByteHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A read-only view of a Type-Length-Value structure held by a backing array of bytes.
+ * Unlike a {@code Tlv}, a view does not own its fields, but refers to the range of the backing array holding them.
+ * This allows nested TLVs to be walked in place, by creating views of the value-field of their container, without
+ * copying any bytes. The type of the TLV is decoded lazily, the first time it is asked for.
+ * <p/>
+ * Since the backing array is shared, a view is only valid for as long as the array is not modified.
+ * A view can be materialized into an independent {@code Tlv} using {@code toTlv()}.
+ */
+public class TlvView {
+    private final byte[] typeBuffer;
+    private final int typeOffset;
+    private final byte[] valueBuffer;
+    private final int valueOffset;
+    private final int valueLength;
+    private final TlvFrame frame;
+    private int type;
+    private boolean typeDecoded;
+
+    /**
+     * Creates a new TlvView.
+     *
+     * @param typeBuffer the array holding the type-field
+     * @param typeOffset the index of the type-field in its array
+     * @param valueBuffer the array holding the value-field
+     * @param valueOffset the index of the value-field in its array
+     * @param valueLength the length of the value-field
+     * @param frame the frame of the tlv
+     */
+    private TlvView(byte[] typeBuffer, int typeOffset, byte[] valueBuffer, int valueOffset, int valueLength,
+                    TlvFrame frame) {
+        this.typeBuffer = typeBuffer;
+        this.typeOffset = typeOffset;
+        this.valueBuffer = valueBuffer;
+        this.valueOffset = valueOffset;
+        this.valueLength = valueLength;
+        this.frame = frame;
+        this.typeDecoded = false;
+    }
+
+    /**
+     * Creates a view of a TLV starting at a given index in an array of bytes.
+     * The whole TLV must already be known to fit within the array.
+     *
+     * @param bytes the array holding the tlv
+     * @param offset the index of the first byte of the tlv
+     * @param valueLength the length of the value-field, as given by the length-field of the tlv
+     * @param frame the frame of the tlv
+     * @return a view of the tlv
+     */
+    static TlvView of(byte[] bytes, int offset, int valueLength, TlvFrame frame) {
+        int valueOffset = offset + frame.typeFieldLength() + frame.lengthFieldLength();
+
+        return new TlvView(bytes, offset, bytes, valueOffset, valueLength, frame);
+    }
+
+    /**
+     * Creates a view of a TLV.
+     * The view refers to the fields of the TLV directly, without copying them.
+     *
+     * @param tlv the tlv to create a view of
+     * @return a view of the tlv
+     */
+    public static TlvView of(Tlv tlv) {
+        if (tlv == null) {
+            throw new IllegalArgumentException("Cannot create TlvView, because tlv is null.");
+        }
+
+        return new TlvView(tlv.typeField(), 0, tlv.valueField(), 0, tlv.valueField().length, tlv.getFrame());
+    }
+
+    /**
+     * Returns the frame of the TLV.
+     *
+     * @return the tlv frame
+     */
+    public TlvFrame getFrame() {
+        return frame;
+    }
+
+    /**
+     * Returns the type of the TLV, decoding the type-field as a big-endian integer the first time it is called.
+     *
+     * @return the type of the tlv
+     */
+    public int getType() {
+        if (!typeDecoded) {
+            type = ByteHandler.bytesToInt(typeBuffer, typeOffset, frame.typeFieldLength());
+            typeDecoded = true;
+        }
+
+        return type;
+    }
+
+    /**
+     * Returns whether the type-field of the TLV equals a given type-field.
+     *
+     * @param typeField the type-field to compare with
+     * @return true if the type-fields are equal, false otherwise
+     */
+    public boolean typeEquals(byte[] typeField) {
+        if (typeField == null) {
+            throw new IllegalArgumentException("Cannot compare type-fields, because typeField is null.");
+        }
+
+        return Arrays.equals(typeBuffer, typeOffset, typeOffset + frame.typeFieldLength(),
+                typeField, 0, typeField.length);
+    }
+
+    /**
+     * Returns the array backing the value-field.
+     * The value-field is the range of {@code getValueLength()} bytes starting at {@code getValueOffset()}, and must
+     * not be modified.
+     *
+     * @return the array backing the value-field
+     */
+    public byte[] getValueBuffer() {
+        return valueBuffer;
+    }
+
+    /**
+     * Returns the index of the value-field in the array backing it.
+     *
+     * @return the index of the value-field
+     */
+    public int getValueOffset() {
+        return valueOffset;
+    }
+
+    /**
+     * Returns the length of the value-field.
+     *
+     * @return the length of the value-field
+     */
+    public int getValueLength() {
+        return valueLength;
+    }
+
+    /**
+     * Returns a copy of the type-field.
+     *
+     * @return the type-field
+     */
+    public byte[] typeField() {
+        return Arrays.copyOfRange(typeBuffer, typeOffset, typeOffset + frame.typeFieldLength());
+    }
+
+    /**
+     * Returns a copy of the value-field.
+     *
+     * @return the value-field
+     */
+    public byte[] valueField() {
+        return Arrays.copyOfRange(valueBuffer, valueOffset, valueOffset + valueLength);
+    }
+
+    /**
+     * Returns a reader for the TLVs nested in the value-field, reading them in place.
+     * The nested TLVs are assumed to use the same frame as this TLV.
+     *
+     * @return a reader for the nested tlvs
+     */
+    public TlvReader valueReader() {
+        return new TlvReader(valueBuffer, valueOffset, valueLength, frame);
+    }
+
+    /**
+     * Returns a view of a TLV with the same type as this TLV, but with another value-field.
+     * The type-field is shared with this view rather than copied.
+     *
+     * @param valueField the value-field of the new tlv
+     * @return a view of the new tlv
+     */
+    public TlvView withValue(byte[] valueField) {
+        if (valueField == null) {
+            throw new IllegalArgumentException("Cannot create TlvView, because valueField is null.");
+        }
+
+        return new TlvView(typeBuffer, typeOffset, valueField, 0, valueField.length, frame);
+    }
+
+    /**
+     * Returns a view of a TLV with the same type as this TLV, but with its value-field held by a range of another
+     * array. The type-field is shared with this view rather than copied.
+     *
+     * @param valueBuffer the array holding the value-field of the new tlv
+     * @param valueOffset the index of the value-field in its array
+     * @param valueLength the length of the value-field
+     * @return a view of the new tlv
+     */
+    public TlvView withValue(byte[] valueBuffer, int valueOffset, int valueLength) {
+        if (valueBuffer == null) {
+            throw new IllegalArgumentException("Cannot create TlvView, because valueBuffer is null.");
+        }
+
+        if (valueOffset < 0 || valueLength < 0 || valueOffset + valueLength > valueBuffer.length) {
+            throw new IllegalArgumentException("Cannot create TlvView, because the value range is out of bounds.");
+        }
+
+        return new TlvView(typeBuffer, typeOffset, valueBuffer, valueOffset, valueLength, frame);
+    }
+
+    /**
+     * Returns the total length of the TLV, including its type- and length-fields.
+     *
+     * @return the total length of the tlv
+     */
+    public int getLength() {
+        return frame.typeFieldLength() + frame.lengthFieldLength() + valueLength;
+    }
+
+    /**
+     * Returns the TLV as an array of bytes.
+     *
+     * @return tlv as array of bytes
+     */
+    public byte[] toBytes() {
+        byte[] result = new byte[getLength()];
+        writeTo(result, 0);
+
+        return result;
+    }
+
+    /**
+     * Writes the TLV into an array of bytes.
+     *
+     * @param destination the array to write into
+     * @param offset the index to write the first byte of the tlv at
+     * @return the number of bytes written
+     */
+    public int writeTo(byte[] destination, int offset) {
+        if (destination == null) {
+            throw new IllegalArgumentException("Cannot write TLV, because destination is null.");
+        }
+
+        if (offset < 0 || offset + getLength() > destination.length) {
+            throw new IllegalArgumentException("Cannot write TLV, because it does not fit in the destination.");
+        }
+
+        int headerLength = frame.typeFieldLength() + frame.lengthFieldLength();
+        System.arraycopy(typeBuffer, typeOffset, destination, offset, frame.typeFieldLength());
+        writeLengthField(destination, offset + frame.typeFieldLength());
+        System.arraycopy(valueBuffer, valueOffset, destination, offset + headerLength, valueLength);
+
+        return headerLength + valueLength;
+    }
+
+    /**
+     * Writes the TLV to an output stream.
+     * If the fields of the TLV are laid out contiguously in the backing array, they are written in a single write.
+     * Otherwise, the length-field is written byte by byte, which is meant for buffered output streams.
+     *
+     * @param outputStream the output stream to write to
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        int headerLength = frame.typeFieldLength() + frame.lengthFieldLength();
+
+        if (typeBuffer == valueBuffer && typeOffset + headerLength == valueOffset) {
+            outputStream.write(valueBuffer, typeOffset, headerLength + valueLength);
+        } else {
+            outputStream.write(typeBuffer, typeOffset, frame.typeFieldLength());
+            int lengthFieldLength = frame.lengthFieldLength();
+            for (int i = 0; i < lengthFieldLength; i++) {
+                outputStream.write(lengthFieldByte(i));
+            }
+            outputStream.write(valueBuffer, valueOffset, valueLength);
+        }
+    }
+
+    /**
+     * Writes the length-field of the TLV into an array of bytes.
+     *
+     * @param destination the array to write into
+     * @param offset the index to write the length-field at
+     */
+    private void writeLengthField(byte[] destination, int offset) {
+        int lengthFieldLength = frame.lengthFieldLength();
+        for (int i = 0; i < lengthFieldLength; i++) {
+            destination[offset + i] = lengthFieldByte(i);
+        }
+    }
+
+    /**
+     * Returns a byte of the big-endian length-field of the TLV.
+     *
+     * @param index the index of the byte in the length-field
+     * @return the byte of the length-field
+     */
+    private byte lengthFieldByte(int index) {
+        int shift = 8 * (frame.lengthFieldLength() - 1 - index);
+
+        return shift < Integer.SIZE ? (byte) (valueLength >>> shift) : 0;
+    }
+
+    /**
+     * Materializes the view into an independent TLV, copying its fields.
+     *
+     * @return the materialized tlv
+     */
+    public Tlv toTlv() {
+        byte[] lengthField = ByteHandler.addLeadingPadding(ByteHandler.intToBytes(valueLength),
+                frame.lengthFieldLength());
+
+        return new Tlv(typeField(), lengthField, valueField());
+    }
+
+    @Override
+    public String toString() {
+        return toTlv().toString();
+    }
+}
@@ -6,6 +6,7 @@ import no.ntnu.network.message.response.ResponseMessage;
 import no.ntnu.network.message.sensordata.SensorDataMessage;
 import no.ntnu.network.message.serialize.ByteSerializable;
 import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 
 import java.io.IOException;
 
@@ -27,6 +28,20 @@ public interface ByteSerializerVisitor {
      */
     Tlv serialize(ByteSerializable serializable) throws IOException;
 
+    /**
+     * Serializes a {@code ByteSerializable} object into a view of the serialized TLV.
+     * Serializers writing into a reusable buffer may return a view of that buffer, in which case the view is only
+     * valid until the next object is serialized by the same thread. The default implementation wraps the TLV
+     * returned by {@code serialize(ByteSerializable)}.
+     *
+     * @param serializable the object to serialize
+     * @return a view of the serialized tlv
+     * @throws IOException thrown if serialization fails
+     */
+    default TlvView serializeToView(ByteSerializable serializable) throws IOException {
+        return TlvView.of(serialize(serializable));
+    }
+
     /**
      * Serializes a {@code ByteSerializableInteger} object.
      *
@@ -0,0 +1,342 @@
+package no.ntnu.network.message.serialize.visitor;
+
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.bufferpool.ByteArrayPools;
+import no.ntnu.network.message.common.*;
+import no.ntnu.network.message.request.RequestMessage;
+import no.ntnu.network.message.response.ResponseMessage;
+import no.ntnu.network.message.sensordata.SensorDataMessage;
+import no.ntnu.network.message.serialize.ByteSerializable;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvOutputBuffer;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * A serializer producing the same bytes as {@code NofspSerializer}, but writing every object in a single pass into a
+ * reusable output buffer. Nested objects are written directly into the value-field of their parent, and length-fields
+ * are back-patched once the value-field is complete, so no bytes are copied between nesting levels.
+ * <p/>
+ * Every thread serializing with the serializer gets a buffer of its own. Objects serialized using
+ * {@code serializeToView(ByteSerializable)} are returned as a view of that buffer, which is valid until the same
+ * thread serializes another object. Objects serialized using {@code serialize(ByteSerializable)} are materialized into
+ * an independent {@code Tlv}. The buffers borrow their arrays from a {@code ByteArrayPool}.
+ */
+public class NofspFrameSerializer implements ByteSerializerVisitor {
+    private final ThreadLocal<Output> outputs;
+
+    /**
+     * The output of a single thread.
+     */
+    private static class Output {
+        private final TlvOutputBuffer buffer;
+        private ByteSerializable retainedObject;
+
+        /**
+         * Creates a new Output.
+         *
+         * @param pool the pool to borrow arrays from
+         */
+        private Output(ByteArrayPool pool) {
+            this.buffer = new TlvOutputBuffer(NofspSerializationConstants.TLV_FRAME, pool);
+        }
+    }
+
+    /**
+     * Creates a new NofspFrameSerializer, borrowing from the default pool.
+     */
+    public NofspFrameSerializer() {
+        this(ByteArrayPools.getDefault());
+    }
+
+    /**
+     * Creates a new NofspFrameSerializer.
+     *
+     * @param pool the pool to borrow arrays from
+     */
+    public NofspFrameSerializer(ByteArrayPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot create NofspFrameSerializer, because pool is null.");
+        }
+
+        this.outputs = ThreadLocal.withInitial(() -> new Output(pool));
+    }
+
+    @Override
+    public Tlv serialize(ByteSerializable serializable) throws IOException {
+        Tlv result = null;
+
+        Output output = outputs.get();
+        boolean topLevel = output.buffer.getOpenTlvs() == 0;
+        try {
+            result = serializable.accept(this);
+        } catch (IOException | RuntimeException e) {
+            // leaves the buffer usable for the next object
+            if (topLevel) {
+                output.buffer.reset();
+            }
+
+            throw e;
+        }
+
+        return result;
+    }
+
+    @Override
+    public TlvView serializeToView(ByteSerializable serializable) throws IOException {
+        if (serializable == null) {
+            throw new IllegalArgumentException("Cannot serialize object, because serializable is null.");
+        }
+
+        Output output = outputs.get();
+        if (output.buffer.getOpenTlvs() != 0) {
+            throw new IllegalStateException("Cannot serialize object into view while another object is being " +
+                    "serialized.");
+        }
+
+        output.retainedObject = serializable;
+        try {
+            serializable.accept(this);
+        } catch (IOException | RuntimeException e) {
+            output.buffer.reset();
+            throw e;
+        } finally {
+            output.retainedObject = null;
+        }
+
+        return output.buffer.toView();
+    }
+
+    @Override
+    public Tlv visitInteger(ByteSerializableInteger integer) throws IOException {
+        Output output = outputs.get();
+
+        int mark = startTlv(output, NofspSerializationConstants.INTEGER_BYTES);
+        writeIntegerValue(output.buffer, integer.getInteger());
+
+        return endTlv(output, mark, integer);
+    }
+
+    @Override
+    public Tlv visitDouble(ByteSerializableDouble theDouble) throws IOException {
+        Output output = outputs.get();
+
+        int mark = startTlv(output, NofspSerializationConstants.DOUBLE_BYTES);
+        output.buffer.writeLong(Double.doubleToRawLongBits(theDouble.getDouble()));
+
+        return endTlv(output, mark, theDouble);
+    }
+
+    @Override
+    public Tlv visitString(ByteSerializableString string) throws IOException {
+        Output output = outputs.get();
+
+        int mark = startTlv(output, NofspSerializationConstants.STRING_BYTES);
+        output.buffer.writeBytes(string.getString().getBytes(StandardCharsets.UTF_8));
+
+        return endTlv(output, mark, string);
+    }
+
+    @Override
+    public Tlv visitPublicKey(ByteSerializablePublicKey key) throws IOException {
+        Output output = outputs.get();
+
+        int mark = startTlv(output, NofspSerializationConstants.PUBLIC_KEY_BYTES);
+        output.buffer.writeBytes(key.key().getEncoded());
+
+        return endTlv(output, mark, key);
+    }
+
+    @Override
+    public Tlv visitSecretKey(ByteSerializableSecretKey key) throws IOException {
+        Output output = outputs.get();
+
+        int mark = startTlv(output, NofspSerializationConstants.SECRET_KEY_BYTES);
+        output.buffer.writeBytes(key.key().getEncoded());
+
+        return endTlv(output, mark, key);
+    }
+
+    @Override
+    public <T extends ByteSerializable> Tlv visitList(ByteSerializableList<T> list) throws IOException {
+        Output output = outputs.get();
+
+        int mark = startTlv(output, NofspSerializationConstants.LIST_BYTES);
+        for (ByteSerializable item : list) {
+            item.accept(this);
+        }
+
+        return endTlv(output, mark, list);
+    }
+
+    @Override
+    public <T extends ByteSerializable> Tlv visitSet(ByteSerializableSet<T> set) throws IOException {
+        Output output = outputs.get();
+
+        int mark = startTlv(output, NofspSerializationConstants.SET_BYTES);
+        for (ByteSerializable item : set) {
+            item.accept(this);
+        }
+
+        return endTlv(output, mark, set);
+    }
+
+    @Override
+    public <K extends ByteSerializable, V extends ByteSerializable> Tlv visitMap(ByteSerializableMap<K, V> map) throws IOException {
+        Output output = outputs.get();
+
+        int mark = startTlv(output, NofspSerializationConstants.MAP_BYTES);
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            entry.getKey().accept(this);
+
+            V value = entry.getValue();
+            if (value != null) {
+                value.accept(this);
+            } else {
+                writeNullValueTlv(output.buffer);
+            }
+        }
+
+        return endTlv(output, mark, map);
+    }
+
+    @Override
+    public Tlv visitRequestMessage(RequestMessage request, ByteSerializable... parameters) throws IOException {
+        Output output = outputs.get();
+
+        int mark = startTlv(output, NofspSerializationConstants.REQUEST_BYTES);
+        request.getSerializableId().accept(this);
+        request.getCommand().accept(this);
+        writeContainerTlv(output.buffer, parameters);
+
+        return endTlv(output, mark, request);
+    }
+
+    @Override
+    public Tlv visitRequestMessage(RequestMessage request) throws IOException {
+        Output output = outputs.get();
+
+        int mark = startTlv(output, NofspSerializationConstants.REQUEST_BYTES);
+        request.getSerializableId().accept(this);
+        request.getCommand().accept(this);
+
+        return endTlv(output, mark, request);
+    }
+
+    @Override
+    public Tlv visitResponseMessage(ResponseMessage response, ByteSerializable... parameters) throws IOException {
+        Output output = outputs.get();
+
+        int mark = startTlv(output, NofspSerializationConstants.RESPONSE_BYTES);
+        response.getSerializableId().accept(this);
+        response.getStatusCode().accept(this);
+        writeContainerTlv(output.buffer, parameters);
+
+        return endTlv(output, mark, response);
+    }
+
+    @Override
+    public Tlv visitResponseMessage(ResponseMessage response) throws IOException {
+        Output output = outputs.get();
+
+        int mark = startTlv(output, NofspSerializationConstants.RESPONSE_BYTES);
+        response.getSerializableId().accept(this);
+        response.getStatusCode().accept(this);
+
+        return endTlv(output, mark, response);
+    }
+
+    @Override
+    public Tlv visitSensorDataMessage(SensorDataMessage message, Tlv data) throws IOException {
+        Output output = outputs.get();
+
+        int mark = startTlv(output, NofspSerializationConstants.SENSOR_DATA_BYTES);
+        message.getSerializableClientNodeAddress().accept(this);
+        message.getSerializableSensorAddress().accept(this);
+        output.buffer.writeTlv(data);
+
+        return endTlv(output, mark, message);
+    }
+
+    /**
+     * Starts a TLV in the output buffer.
+     * If the TLV is not nested in another TLV, the buffer is cleared first.
+     *
+     * @param output the output to write to
+     * @param typeField the type-field of the tlv
+     * @return a mark to end the tlv with
+     */
+    private static int startTlv(Output output, byte[] typeField) {
+        if (output.buffer.getOpenTlvs() == 0) {
+            output.buffer.reset();
+        }
+
+        return output.buffer.startTlv(typeField);
+    }
+
+    /**
+     * Ends a TLV in the output buffer.
+     * If the TLV is not nested in another TLV, and is not to be retained in the buffer, it is materialized.
+     *
+     * @param output the output to write to
+     * @param mark the mark returned when the tlv was started
+     * @param serialized the object serialized into the tlv
+     * @return the materialized tlv, null if the tlv is nested or retained in the buffer
+     */
+    private static Tlv endTlv(Output output, int mark, ByteSerializable serialized) {
+        Tlv tlv = null;
+
+        output.buffer.endTlv(mark);
+        if (output.buffer.getOpenTlvs() == 0 && serialized != output.retainedObject) {
+            tlv = output.buffer.toView().toTlv();
+        }
+
+        return tlv;
+    }
+
+    /**
+     * Serializes multiple objects into a container TLV.
+     *
+     * @param buffer the buffer to write to
+     * @param serializables the serializable objects to put in container
+     * @throws IOException thrown if serialization fails
+     */
+    private void writeContainerTlv(TlvOutputBuffer buffer, ByteSerializable... serializables) throws IOException {
+        int mark = buffer.startTlv(NofspSerializationConstants.CONTAINER_TLV);
+        for (ByteSerializable serializable : serializables) {
+            serializable.accept(this);
+        }
+        buffer.endTlv(mark);
+    }
+
+    /**
+     * Writes a TLV for null values.
+     *
+     * @param buffer the buffer to write to
+     */
+    private static void writeNullValueTlv(TlvOutputBuffer buffer) {
+        buffer.endTlv(buffer.startTlv(NofspSerializationConstants.NULL_BYTES));
+    }
+
+    /**
+     * Writes the value-field of an integer, which holds the big-endian bytes of the integer without any leading
+     * zero bytes, but always at least one byte.
+     *
+     * @param buffer the buffer to write to
+     * @param value the integer to write
+     */
+    private static void writeIntegerValue(TlvOutputBuffer buffer, int value) {
+        int significantBytes = Integer.BYTES;
+        while (significantBytes > 1 && (value >>> (8 * (significantBytes - 1))) == 0) {
+            significantBytes--;
+        }
+
+        for (int i = significantBytes - 1; i >= 0; i--) {
+            buffer.writeByte(value >>> (8 * i));
+        }
+    }
+}
@@ -83,6 +83,7 @@ public class NofspSerializer implements ByteSerializerVisitor {
         }
 
         valueField = valueBuffer.toArray();
+        valueBuffer.release();
 
         return createTlv(typeField, valueField);
     }
@@ -98,6 +99,7 @@ public class NofspSerializer implements ByteSerializerVisitor {
         }
 
         valueField = valueBuffer.toArray();
+        valueBuffer.release();
 
         return createTlv(typeField, valueField);
     }
@@ -121,6 +123,7 @@ public class NofspSerializer implements ByteSerializerVisitor {
         }
 
         valueField = valueBuffer.toArray();
+        valueBuffer.release();
 
         return createTlv(typeField, valueField);
     }
@@ -319,8 +322,10 @@ public class NofspSerializer implements ByteSerializerVisitor {
     private static Tlv createTlv(byte[] typeField, List<Tlv> tlvs) throws IOException {
         SimpleByteBuffer valueByteBuffer = new SimpleByteBuffer();
         valueByteBuffer.addTlvs(tlvs.toArray(new Tlv[0]));
+        byte[] valueField = valueByteBuffer.toArray();
+        valueByteBuffer.release();
 
-        return createTlv(typeField, valueByteBuffer.toArray());
+        return createTlv(typeField, valueField);
     }
 
     /**
@@ -1,27 +1,37 @@
 package no.ntnu.network.representation;
 
+import no.ntnu.network.message.response.ResponseMessage;
+
+import java.util.concurrent.CompletableFuture;
+
 /**
  * An agent interacting with field nodes, used to access information and manage field nodes.
+ * Every interaction returns the future response to it, failed if the interaction cannot be sent or is not answered
+ * in time.
  */
 public interface FieldNodeAgent {
     /**
      * Requests a field node pool.
+     *
+     * @return the future response
      */
-    void requestFieldNodePool();
+    CompletableFuture<ResponseMessage> requestFieldNodePool();
 
     /**
      * Subscribes a field node consumer to a specific field node.
      *
      * @param fieldNodeAddress the address of the field node
+     * @return the future response
      */
-    void subscribeToFieldNode(int fieldNodeAddress);
+    CompletableFuture<ResponseMessage> subscribeToFieldNode(int fieldNodeAddress);
 
     /**
      * Unsubscribes a field node consumer from a specific field node.
      *
      * @param fieldNodeAddress the address of the field node
+     * @return the future response
      */
-    void unsubscribeFromFieldNode(int fieldNodeAddress);
+    CompletableFuture<ResponseMessage> unsubscribeFromFieldNode(int fieldNodeAddress);
 
     /**
      * Sets the state for a specific actuator on a specific field node.
@@ -29,8 +39,9 @@ public interface FieldNodeAgent {
      * @param fieldNodeAddress the address of the field node
      * @param actuatorAddress the address of the actuator
      * @param newState the state to set
+     * @return the future response
      */
-    void setActuatorState(int fieldNodeAddress, int actuatorAddress, int newState);
+    CompletableFuture<ResponseMessage> setActuatorState(int fieldNodeAddress, int actuatorAddress, int newState);
 
     /**
      * Returns a string representation of the field node information agent.
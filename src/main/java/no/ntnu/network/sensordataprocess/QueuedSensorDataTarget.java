@@ -0,0 +1,328 @@
+package no.ntnu.network.sensordataprocess;
+
+import no.ntnu.network.SensorDataBroadcaster;
+import no.ntnu.network.SharedDataCommAgent;
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+import no.ntnu.network.message.sensordata.SensorDataMessage;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A communication agent for a single remote network entity, queueing sensor data for it in a {@code SensorDataFanOut}.
+ * Sending sensor data through the agent only puts it in the bounded queue of the agent, while the sender threads of
+ * the fan-out send it on to the destination.
+ */
+public class QueuedSensorDataTarget implements SharedDataCommAgent {
+    // the most messages sent in a row before the sender thread is handed over to other subscribers
+    private static final int MAX_DRAIN_BATCH = 64;
+    private final SensorDataFanOut fanOut;
+    private final UdpSensorDataTarget target;
+    private final int capacity;
+    private final SensorDataOverflowPolicy overflowPolicy;
+    private final Runnable disconnectHandler;
+    private final Deque<QueuedSensorData> queue;
+    private final LongAdder droppedMessages;
+    private final LongAdder sentMessages;
+    private final LongAdder failedMessages;
+    private boolean drainScheduled;
+    private boolean closed;
+
+    /**
+     * Creates a new QueuedSensorDataTarget.
+     *
+     * @param fanOut the fan-out queueing the sensor data
+     * @param target the target to send the queued sensor data to
+     * @param capacity the maximum number of queued messages
+     * @param overflowPolicy the policy for sensor data arriving when the queue is full
+     * @param disconnectHandler run if the subscriber is disconnected by the overflow policy
+     */
+    QueuedSensorDataTarget(SensorDataFanOut fanOut, UdpSensorDataTarget target, int capacity,
+                           SensorDataOverflowPolicy overflowPolicy, Runnable disconnectHandler) {
+        this.fanOut = fanOut;
+        this.target = target;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.disconnectHandler = disconnectHandler;
+        this.queue = new ArrayDeque<>(capacity);
+        this.droppedMessages = new LongAdder();
+        this.sentMessages = new LongAdder();
+        this.failedMessages = new LongAdder();
+        this.drainScheduled = false;
+        this.closed = false;
+    }
+
+    @Override
+    public void sendSensorData(SensorDataMessage sensorData) throws IOException {
+        fanOut.broadcast(sensorData, new SharedDataCommAgent[] {this});
+    }
+
+    @Override
+    public SensorDataBroadcaster getBroadcaster() {
+        return fanOut;
+    }
+
+    @Override
+    public boolean isEncrypted() {
+        return target.isEncrypted();
+    }
+
+    /**
+     * Queues serialized sensor data for the destination, applying the overflow policy if the queue is full.
+     * Never blocks for longer than it takes to update the queue.
+     *
+     * @param sensorData the sensor data message
+     * @param rawTlv the serialized message
+     * @param encrypted true if the message is already encrypted, and is to be sent as it is
+     */
+    void offer(SensorDataMessage sensorData, byte[] rawTlv, boolean encrypted) {
+        boolean scheduleDrain = false;
+        boolean disconnect = false;
+
+        synchronized (queue) {
+            if (!closed) {
+                if (queue.size() >= capacity) {
+                    disconnect = handleOverflow(sensorData);
+                }
+
+                if (!closed) {
+                    queue.addLast(new QueuedSensorData(sensorData, rawTlv, encrypted));
+                    scheduleDrain = !drainScheduled;
+                    drainScheduled = true;
+                }
+            }
+        }
+
+        if (scheduleDrain) {
+            fanOut.execute(this::drain);
+        }
+
+        if (disconnect) {
+            fanOut.execute(disconnectHandler);
+        }
+    }
+
+    /**
+     * Makes room in the full queue according to the overflow policy.
+     * Must be called while holding the lock of the queue.
+     *
+     * @param sensorData the sensor data message that did not fit in the queue
+     * @return true if the subscriber is to be disconnected
+     */
+    private boolean handleOverflow(SensorDataMessage sensorData) {
+        boolean disconnect = false;
+
+        switch (overflowPolicy) {
+            case DROP_OLDEST -> queue.pollFirst();
+            case KEEP_LATEST_PER_SENSOR -> {
+                if (!removeQueuedReading(sensorData)) {
+                    queue.pollFirst();
+                }
+            }
+            case DISCONNECT -> {
+                droppedMessages.add(queue.size());
+                queue.clear();
+                closeQueue();
+                disconnect = true;
+            }
+        }
+        droppedMessages.increment();
+
+        return disconnect;
+    }
+
+    /**
+     * Removes the queued sensor data from the same sensor as the given sensor data, if any.
+     *
+     * @param sensorData the sensor data message
+     * @return true if queued sensor data was removed
+     */
+    private boolean removeQueuedReading(SensorDataMessage sensorData) {
+        boolean removed = false;
+
+        Iterator<QueuedSensorData> iterator = queue.iterator();
+        while (!removed && iterator.hasNext()) {
+            SensorDataMessage queuedSensorData = iterator.next().sensorData();
+            if (queuedSensorData.getClientNodeAddress() == sensorData.getClientNodeAddress() &&
+                    queuedSensorData.getSensorAddress() == sensorData.getSensorAddress()) {
+                iterator.remove();
+                removed = true;
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Sends queued sensor data to the destination, running on a sender thread of the fan-out.
+     * If sensor data is still queued after a batch of messages, the rest is left for a new run, so that other
+     * subscribers get their turn.
+     */
+    private void drain() {
+        int sentInRun = 0;
+        QueuedSensorData next = poll();
+        while (next != null) {
+            send(next);
+            sentInRun++;
+            next = sentInRun < MAX_DRAIN_BATCH ? poll() : null;
+        }
+
+        boolean reschedule;
+        synchronized (queue) {
+            reschedule = !queue.isEmpty();
+            drainScheduled = reschedule;
+        }
+
+        if (reschedule) {
+            fanOut.execute(this::drain);
+        }
+    }
+
+    /**
+     * Takes the next sensor data from the queue.
+     *
+     * @return the next queued sensor data, null if the queue is empty
+     */
+    private QueuedSensorData poll() {
+        synchronized (queue) {
+            return queue.pollFirst();
+        }
+    }
+
+    /**
+     * Sends a single queued sensor data message to the destination.
+     *
+     * @param queuedSensorData the queued sensor data
+     */
+    private void send(QueuedSensorData queuedSensorData) {
+        try {
+            if (queuedSensorData.encrypted()) {
+                fanOut.getSender().sendPrepared(queuedSensorData.rawTlv(), target);
+            } else {
+                fanOut.getSender().sendSerialized(queuedSensorData.rawTlv(), target);
+            }
+            sentMessages.increment();
+        } catch (IOException e) {
+            failedMessages.increment();
+            fanOut.logError("Cannot send sensor data to " + target.getDestIpAddress() + ":" +
+                    target.getDestPortNumber() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the target, dropping any queued sensor data and removing the target from its fan-out.
+     */
+    public void close() {
+        synchronized (queue) {
+            queue.clear();
+            closeQueue();
+        }
+    }
+
+    /**
+     * Marks the queue as closed. Must be called while holding the lock of the queue.
+     */
+    private void closeQueue() {
+        closed = true;
+        fanOut.removeTarget(this);
+    }
+
+    /**
+     * Sets the encryption used for sending sensor data to the destination.
+     *
+     * @param encryption the encryption strategy to use, null for no encryption
+     */
+    @Override
+    public void setEncryption(EncryptionStrategy encryption) {
+        target.setEncryption(encryption);
+    }
+
+    /**
+     * Returns the fan-out queueing the sensor data.
+     *
+     * @return the fan-out
+     */
+    SensorDataFanOut getFanOut() {
+        return fanOut;
+    }
+
+    /**
+     * Returns the number of sensor data messages currently queued.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Returns the number of sensor data messages dropped because the queue was full.
+     *
+     * @return the number of dropped messages
+     */
+    public long getDroppedMessages() {
+        return droppedMessages.sum();
+    }
+
+    /**
+     * Returns the number of sensor data messages sent to the destination.
+     *
+     * @return the number of sent messages
+     */
+    public long getSentMessages() {
+        return sentMessages.sum();
+    }
+
+    /**
+     * Returns the number of sensor data messages that could not be sent to the destination.
+     *
+     * @return the number of failed messages
+     */
+    public long getFailedMessages() {
+        return failedMessages.sum();
+    }
+
+    /**
+     * Returns whether the target is closed, either explicitly or by the overflow policy.
+     *
+     * @return true if closed
+     */
+    public boolean isClosed() {
+        synchronized (queue) {
+            return closed;
+        }
+    }
+
+    /**
+     * Returns the ip address of the destination.
+     *
+     * @return the ip address
+     */
+    public InetAddress getDestIpAddress() {
+        return target.getDestIpAddress();
+    }
+
+    /**
+     * Returns the port number of the destination.
+     *
+     * @return the port number
+     */
+    public int getDestPortNumber() {
+        return target.getDestPortNumber();
+    }
+
+    /**
+     * Sensor data waiting in the queue, along with its serialized form.
+     *
+     * @param sensorData the sensor data message
+     * @param rawTlv the serialized message
+     * @param encrypted true if the message is already encrypted
+     */
+    private record QueuedSensorData(SensorDataMessage sensorData, byte[] rawTlv, boolean encrypted) {}
+}
@@ -0,0 +1,251 @@
+package no.ntnu.network.sensordataprocess;
+
+import no.ntnu.network.SensorDataBroadcaster;
+import no.ntnu.network.SharedDataCommAgent;
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+import no.ntnu.network.message.sensordata.SensorDataMessage;
+import no.ntnu.tools.logger.SimpleLogger;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fan-out stage between the routing of incoming sensor data and the sending of it to the subscribed control panels.
+ * Every subscriber is represented by a {@code QueuedSensorDataTarget} with a bounded queue of its own. Broadcasting
+ * sensor data serializes it once and only puts it in the queues of the subscribers, which never blocks, so that a
+ * subscriber that is slow to send to, or fails, does not hold back the routing of sensor data for anyone else.
+ * Sensor data broadcast with a group encryption is also encrypted before it is queued, so that the same ciphertext
+ * is sent to every subscriber sharing the encryption.
+ * <p/>
+ * The queues are emptied by a dedicated pool of sender threads. A queue is emptied by at most one thread at a time,
+ * so every subscriber gets its sensor data in the order it was broadcast. When the queue of a subscriber is full,
+ * the overflow policy of the fan-out decides what happens to the sensor data.
+ */
+public class SensorDataFanOut implements SensorDataBroadcaster {
+    private final SharedUdpSensorDataSender sender;
+    private final int queueCapacity;
+    private final SensorDataOverflowPolicy overflowPolicy;
+    private final ExecutorService senderPool;
+    private final Set<QueuedSensorDataTarget> targets;
+    private final Set<SimpleLogger> loggers;
+
+    /**
+     * Creates a new SensorDataFanOut.
+     *
+     * @param sender the shared sender to send sensor data through
+     * @param senderThreads the number of threads emptying the queues
+     * @param queueCapacity the maximum number of sensor data messages queued for a single subscriber
+     * @param overflowPolicy the policy for sensor data for a subscriber whose queue is full
+     */
+    public SensorDataFanOut(SharedUdpSensorDataSender sender, int senderThreads, int queueCapacity,
+                            SensorDataOverflowPolicy overflowPolicy) {
+        if (sender == null) {
+            throw new IllegalArgumentException("Cannot create SensorDataFanOut, because sender is null.");
+        }
+
+        if (senderThreads < 1) {
+            throw new IllegalArgumentException("Cannot create SensorDataFanOut, because senderThreads is smaller " +
+                    "than 1.");
+        }
+
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Cannot create SensorDataFanOut, because queueCapacity is smaller " +
+                    "than 1.");
+        }
+
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Cannot create SensorDataFanOut, because overflowPolicy is null.");
+        }
+
+        this.sender = sender;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.targets = ConcurrentHashMap.newKeySet();
+        this.loggers = new CopyOnWriteArraySet<>();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senderPool = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sensor-data-sender-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a queued target for sending sensor data to a given destination through this fan-out.
+     *
+     * @param destIpAddress the ip address of the destination
+     * @param destPortNumber the port number of the destination
+     * @param disconnectHandler run if the subscriber is disconnected by the {@code DISCONNECT} overflow policy
+     * @return the queued target for the destination
+     */
+    public QueuedSensorDataTarget createTarget(InetAddress destIpAddress, int destPortNumber,
+                                               Runnable disconnectHandler) {
+        if (disconnectHandler == null) {
+            throw new IllegalArgumentException("Cannot create target, because disconnectHandler is null.");
+        }
+
+        QueuedSensorDataTarget target = new QueuedSensorDataTarget(this,
+                sender.createTarget(destIpAddress, destPortNumber), queueCapacity, overflowPolicy, disconnectHandler);
+        targets.add(target);
+
+        return target;
+    }
+
+    @Override
+    public void broadcast(SensorDataMessage sensorData, SharedDataCommAgent[] agents) throws IOException {
+        if (sensorData == null) {
+            throw new IllegalArgumentException("Cannot broadcast sensor data, because sensorData is null.");
+        }
+
+        if (agents == null) {
+            throw new IllegalArgumentException("Cannot broadcast sensor data, because agents is null.");
+        }
+
+        // the message is serialized once, and the same bytes are queued for all agents
+        byte[] rawTlv = sender.serialize(sensorData);
+
+        for (SharedDataCommAgent agent : agents) {
+            toTarget(agent).offer(sensorData, rawTlv, false);
+        }
+    }
+
+    @Override
+    public void broadcast(SensorDataMessage sensorData, SharedDataCommAgent[] agents,
+                          EncryptionStrategy groupEncryption) throws IOException {
+        if (sensorData == null) {
+            throw new IllegalArgumentException("Cannot broadcast sensor data, because sensorData is null.");
+        }
+
+        if (agents == null) {
+            throw new IllegalArgumentException("Cannot broadcast sensor data, because agents is null.");
+        }
+
+        if (groupEncryption == null) {
+            throw new IllegalArgumentException("Cannot broadcast sensor data, because groupEncryption is null.");
+        }
+
+        // the message is serialized and encrypted once, and the same ciphertext is queued for all agents
+        byte[] datagram = sender.serializeEncrypted(sensorData, groupEncryption);
+
+        for (SharedDataCommAgent agent : agents) {
+            toTarget(agent).offer(sensorData, datagram, true);
+        }
+    }
+
+    /**
+     * Returns an agent as a target of this fan-out.
+     *
+     * @param agent the agent
+     * @return the agent as a target
+     */
+    private QueuedSensorDataTarget toTarget(SharedDataCommAgent agent) {
+        if (!(agent instanceof QueuedSensorDataTarget target) || target.getFanOut() != this) {
+            throw new IllegalArgumentException("Cannot broadcast sensor data, because an agent was not created by " +
+                    "this fan-out.");
+        }
+
+        return target;
+    }
+
+    /**
+     * Runs a task on the sender pool.
+     * Tasks handed over after the fan-out is closed are ignored.
+     *
+     * @param task the task to run
+     */
+    void execute(Runnable task) {
+        try {
+            senderPool.execute(task);
+        } catch (RejectedExecutionException e) {
+            // the fan-out is closed, so nothing is sent anymore
+        }
+    }
+
+    /**
+     * Removes a target from the fan-out, once it is closed.
+     *
+     * @param target the target to remove
+     */
+    void removeTarget(QueuedSensorDataTarget target) {
+        targets.remove(target);
+    }
+
+    /**
+     * Returns the shared sender the fan-out sends through.
+     *
+     * @return the sender
+     */
+    SharedUdpSensorDataSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Adds a logger, logging errors for sensor data that could not be sent to a subscriber.
+     *
+     * @param logger the logger to add
+     */
+    public void addLogger(SimpleLogger logger) {
+        loggers.add(logger);
+    }
+
+    /**
+     * Logs an error.
+     *
+     * @param error error message to log
+     */
+    void logError(String error) {
+        loggers.forEach(logger -> logger.logError(error));
+    }
+
+    /**
+     * Returns all open targets of the fan-out, for inspecting their queue depths and counters.
+     *
+     * @return the open targets
+     */
+    public Set<QueuedSensorDataTarget> getTargets() {
+        return Collections.unmodifiableSet(targets);
+    }
+
+    /**
+     * Returns the total number of sensor data messages dropped for all open targets.
+     *
+     * @return the number of dropped messages
+     */
+    public long getDroppedMessages() {
+        return targets.stream().mapToLong(QueuedSensorDataTarget::getDroppedMessages).sum();
+    }
+
+    /**
+     * Returns the maximum number of sensor data messages queued for a single subscriber.
+     *
+     * @return the queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Returns the policy for sensor data for a subscriber whose queue is full.
+     *
+     * @return the overflow policy
+     */
+    public SensorDataOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Stops the sender threads. Sensor data still queued is not sent.
+     */
+    public void close() {
+        senderPool.shutdownNow();
+    }
+}
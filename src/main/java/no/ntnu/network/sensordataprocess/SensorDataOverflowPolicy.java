@@ -0,0 +1,22 @@
+package no.ntnu.network.sensordataprocess;
+
+/**
+ * The policies for handling sensor data for a subscriber whose queue is full.
+ */
+public enum SensorDataOverflowPolicy {
+    /**
+     * Drops the oldest queued sensor data to make room for the new.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Replaces the queued sensor data from the same sensor with the new, keeping only the latest reading of every
+     * sensor. If no sensor data from the same sensor is queued, the oldest queued sensor data is dropped.
+     */
+    KEEP_LATEST_PER_SENSOR,
+
+    /**
+     * Drops all queued sensor data and disconnects the subscriber.
+     */
+    DISCONNECT
+}
@@ -0,0 +1,45 @@
+package no.ntnu.network.sensordataprocess;
+
+import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
+import no.ntnu.network.message.sensordata.SensorDataReceiver;
+import no.ntnu.tools.logger.SimpleLogger;
+
+/**
+ * A sensor data process receiving sensor data messages from the network, delivering the sensor data they hold to a
+ * receiver.
+ */
+public interface SensorDataSink {
+    /**
+     * Starts receiving sensor data messages, delivering their sensor data to a given receiver.
+     * Depending on the implementation, the receiver may be called from more than one thread.
+     *
+     * @param receiver the receiver of the sensor data
+     */
+    void start(SensorDataReceiver receiver);
+
+    /**
+     * Stops receiving sensor data messages.
+     */
+    void stop();
+
+    /**
+     * Sets the decryption used for receiving Tlvs.
+     *
+     * @param decryption the decryption strategy to use
+     */
+    void setDecryption(DecryptionStrategy decryption);
+
+    /**
+     * Adds a logger, logging errors for messages that could not be received.
+     *
+     * @param logger the logger to add
+     */
+    void addLogger(SimpleLogger logger);
+
+    /**
+     * Returns the local port number for the process.
+     *
+     * @return local port number
+     */
+    int getPortNumber();
+}
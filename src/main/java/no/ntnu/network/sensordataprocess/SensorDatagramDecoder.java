@@ -0,0 +1,109 @@
+package no.ntnu.network.sensordataprocess;
+
+import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.message.deserialize.component.SensorDataMessageDeserializer;
+import no.ntnu.network.message.encryption.TlvEncryption;
+import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
+import no.ntnu.network.message.sensordata.SensorDataMessage;
+import no.ntnu.network.message.sensordata.SensorDataReceiver;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.tlv.TlvReader;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
+
+import java.io.IOException;
+
+/**
+ * Decodes the sensor data message TLV held by a received datagram, by decrypting and deserializing it.
+ * The value-field is decrypted in place, writing over the datagram rather than into another array, so the datagram
+ * must not be decoded twice. The decoder holds no state of its own, and can be used by several threads.
+ */
+final class SensorDatagramDecoder {
+    private final SensorDataMessageDeserializer deserializer;
+
+    /**
+     * Creates a new SensorDatagramDecoder.
+     *
+     * @param deserializer the deserializer used for message deserialization
+     */
+    SensorDatagramDecoder(SensorDataMessageDeserializer deserializer) {
+        if (deserializer == null) {
+            throw new IllegalArgumentException("Cannot create SensorDatagramDecoder, because deserializer is null.");
+        }
+
+        this.deserializer = deserializer;
+    }
+
+    /**
+     * Decodes a datagram into a sensor data message.
+     *
+     * @param datagram the array holding the datagram
+     * @param offset the index of the first byte of the datagram
+     * @param length the length of the datagram
+     * @param decryption the decryption to use
+     * @return the sensor data message
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    SensorDataMessage decodeMessage(byte[] datagram, int offset, int length, DecryptionStrategy decryption)
+            throws IOException {
+        TlvView processedTlv = processTlv(readRawTlv(datagram, offset, length), decryption);
+
+        return deserializer.deserializeSensorData(processedTlv);
+    }
+
+    /**
+     * Decodes a datagram, delivering the sensor data it holds to a receiver.
+     *
+     * @param datagram the array holding the datagram
+     * @param offset the index of the first byte of the datagram
+     * @param length the length of the datagram
+     * @param decryption the decryption to use
+     * @param receiver the receiver of the sensor data
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    void decode(byte[] datagram, int offset, int length, DecryptionStrategy decryption, SensorDataReceiver receiver)
+            throws IOException {
+        TlvView processedTlv = processTlv(readRawTlv(datagram, offset, length), decryption);
+        deserializer.deserializeSensorData(processedTlv, receiver);
+    }
+
+    /**
+     * Processes a raw TLV in place.
+     *
+     * @param rawTlv the raw tlv to process
+     * @param decryption the decryption to use
+     * @return the processed tlv
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private TlvView processTlv(TlvView rawTlv, DecryptionStrategy decryption) throws IOException {
+        TlvView processedTlv = null;
+
+        try {
+            processedTlv = TlvEncryption.decryptTlvInPlace(rawTlv, decryption);
+        } catch (EncryptionException e) {
+            throw new IOException("Could not process the TLV: " + e.getMessage());
+        }
+
+        return processedTlv;
+    }
+
+    /**
+     * Reads the raw Tlv held by a received datagram, without any processing.
+     * The tlv is returned as a view of the datagram, without copying it.
+     *
+     * @param datagram the array holding the datagram
+     * @param offset the index of the first byte of the datagram
+     * @param length the length of the datagram
+     * @return the raw tlv
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private static TlvView readRawTlv(byte[] datagram, int offset, int length) throws IOException {
+        TlvReader datagramReader = new TlvReader(datagram, offset, length, NofspSerializationConstants.TLV_FRAME);
+
+        TlvView rawTlv = datagramReader.readNextView();
+        if (rawTlv == null) {
+            throw new IOException("Cannot read sensor data message, because the datagram does not hold a complete TLV.");
+        }
+
+        return rawTlv;
+    }
+}
@@ -0,0 +1,386 @@
+package no.ntnu.network.sensordataprocess;
+
+import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.SensorDataBroadcaster;
+import no.ntnu.network.SharedDataCommAgent;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.bufferpool.ByteArrayPools;
+import no.ntnu.network.message.encryption.TlvEncryption;
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+import no.ntnu.network.message.sensordata.SensorDataMessage;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.tlv.TlvReader;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A sensor data process pushing sensor data to any number of destinations using UDP, through a small, fixed number
+ * of sockets shared by all destinations.
+ * Every destination is represented by a {@code UdpSensorDataTarget} created by the sender. When the same sensor data
+ * message is broadcast to several targets, it is serialized only once, and the same datagram is sent to every target
+ * without encryption. Only targets whose session requires encryption get a datagram encrypted for them alone, unless
+ * the message is broadcast with a group encryption shared by the targets, in which case it is also encrypted only
+ * once, and the same ciphertext is sent to every target.
+ * <p/>
+ * Every target is assigned to one of the sockets when created, so that the datagrams for a target always leave through
+ * the same socket, in the order they were sent.
+ */
+public class SharedUdpSensorDataSender implements SensorDataBroadcaster {
+    private static final int MAX_DATAGRAM_SIZE = 800; // careful of not exceeding the MTU
+    private final List<DatagramSocket> sockets;
+    private final List<UdpDatagramSender> channels;
+    private final ByteSerializerVisitor serializer;
+    private final ByteArrayPool pool;
+    private final LongAdder serializedMessages;
+    private final LongAdder encryptedMessages;
+    private final LongAdder sentDatagrams;
+
+    /**
+     * Creates a new SharedUdpSensorDataSender using a single socket.
+     *
+     * @param serializer the serializer used for message serialization
+     * @throws SocketException thrown if socket establishment fails
+     */
+    public SharedUdpSensorDataSender(ByteSerializerVisitor serializer) throws SocketException {
+        this(serializer, 1);
+    }
+
+    /**
+     * Creates a new SharedUdpSensorDataSender.
+     *
+     * @param serializer the serializer used for message serialization
+     * @param channelCount the number of sockets to send through
+     * @throws SocketException thrown if socket establishment fails
+     */
+    public SharedUdpSensorDataSender(ByteSerializerVisitor serializer, int channelCount) throws SocketException {
+        if (serializer == null) {
+            throw new IllegalArgumentException("Cannot create SharedUdpSensorDataSender, because serializer is null.");
+        }
+
+        if (channelCount < 1) {
+            throw new IllegalArgumentException("Cannot create SharedUdpSensorDataSender, because channelCount is " +
+                    "smaller than 1.");
+        }
+
+        this.serializer = serializer;
+        this.pool = ByteArrayPools.getDefault();
+        this.serializedMessages = new LongAdder();
+        this.encryptedMessages = new LongAdder();
+        this.sentDatagrams = new LongAdder();
+        this.sockets = new ArrayList<>(channelCount);
+        this.channels = new ArrayList<>(channelCount);
+
+        try {
+            for (int i = 0; i < channelCount; i++) {
+                DatagramSocket socket = new DatagramSocket();
+                sockets.add(socket);
+                channels.add(new UdpDatagramSender(socket, serializer, MAX_DATAGRAM_SIZE));
+            }
+        } catch (SocketException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a target for sending sensor data to a given destination through this sender.
+     *
+     * @param destIpAddress the ip address of the destination
+     * @param destPortNumber the port number of the destination
+     * @return the target for the destination
+     */
+    public UdpSensorDataTarget createTarget(InetAddress destIpAddress, int destPortNumber) {
+        if (destIpAddress == null) {
+            throw new IllegalArgumentException("Cannot create target, because destIpAddress is null.");
+        }
+
+        int channelIndex = Math.floorMod(31 * destIpAddress.hashCode() + destPortNumber, channels.size());
+
+        return new UdpSensorDataTarget(this, destIpAddress, destPortNumber, channelIndex);
+    }
+
+    @Override
+    public void broadcast(SensorDataMessage sensorData, SharedDataCommAgent[] agents) throws IOException {
+        if (sensorData == null) {
+            throw new IllegalArgumentException("Cannot broadcast sensor data, because sensorData is null.");
+        }
+
+        if (agents == null) {
+            throw new IllegalArgumentException("Cannot broadcast sensor data, because agents is null.");
+        }
+
+        // the message is serialized once, for all agents
+        TlvView rawTlv = serializer.serializeToView(sensorData);
+        serializedMessages.increment();
+
+        byte[] sharedDatagram = null;
+        int sharedDatagramLength = 0;
+        int failures = 0;
+        String lastFailure = null;
+        try {
+            for (SharedDataCommAgent agent : agents) {
+                UdpSensorDataTarget target = toTarget(agent);
+
+                try {
+                    EncryptionStrategy encryption = target.getEncryption();
+                    if (encryption == null) {
+                        if (sharedDatagram == null) {
+                            sharedDatagram = pool.acquire(rawTlv.getLength());
+                            sharedDatagramLength = rawTlv.writeTo(sharedDatagram, 0);
+                        }
+
+                        send(sharedDatagram, sharedDatagramLength, target);
+                    } else {
+                        sendEncrypted(rawTlv, encryption, target);
+                    }
+                } catch (IOException e) {
+                    failures++;
+                    lastFailure = e.getMessage();
+                }
+            }
+        } finally {
+            if (sharedDatagram != null) {
+                pool.release(sharedDatagram);
+            }
+        }
+
+        if (failures > 0) {
+            throw new IOException("Could not send sensor data to " + failures + " of " + agents.length +
+                    " destinations: " + lastFailure);
+        }
+    }
+
+    @Override
+    public void broadcast(SensorDataMessage sensorData, SharedDataCommAgent[] agents,
+                          EncryptionStrategy groupEncryption) throws IOException {
+        if (sensorData == null) {
+            throw new IllegalArgumentException("Cannot broadcast sensor data, because sensorData is null.");
+        }
+
+        if (agents == null) {
+            throw new IllegalArgumentException("Cannot broadcast sensor data, because agents is null.");
+        }
+
+        if (groupEncryption == null) {
+            throw new IllegalArgumentException("Cannot broadcast sensor data, because groupEncryption is null.");
+        }
+
+        // the message is serialized and encrypted once, and the same ciphertext is sent to all agents
+        TlvView rawTlv = serializer.serializeToView(sensorData);
+        serializedMessages.increment();
+
+        TlvView processedTlv = encrypt(rawTlv, groupEncryption);
+        byte[] datagram = pool.acquire(processedTlv.getLength());
+        int failures = 0;
+        String lastFailure = null;
+        try {
+            int datagramLength = processedTlv.writeTo(datagram, 0);
+            pool.release(processedTlv.getValueBuffer());
+
+            for (SharedDataCommAgent agent : agents) {
+                try {
+                    send(datagram, datagramLength, toTarget(agent));
+                } catch (IOException e) {
+                    failures++;
+                    lastFailure = e.getMessage();
+                }
+            }
+        } finally {
+            pool.release(datagram);
+        }
+
+        if (failures > 0) {
+            throw new IOException("Could not send sensor data to " + failures + " of " + agents.length +
+                    " destinations: " + lastFailure);
+        }
+    }
+
+    /**
+     * Serializes a sensor data message into an array of its own, which can be held on to and sent to any number of
+     * targets later.
+     *
+     * @param sensorData the sensor data message to serialize
+     * @return the serialized message
+     * @throws IOException thrown if the message cannot be serialized
+     */
+    byte[] serialize(SensorDataMessage sensorData) throws IOException {
+        byte[] result = serializer.serializeToView(sensorData).toBytes();
+        serializedMessages.increment();
+
+        return result;
+    }
+
+    /**
+     * Sends an already serialized message to a single target, encrypting it first if the target requires it.
+     *
+     * @param rawTlv the serialized message, as returned by {@code serialize}
+     * @param target the target to send to
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    void sendSerialized(byte[] rawTlv, UdpSensorDataTarget target) throws IOException {
+        toTarget(target);
+
+        EncryptionStrategy encryption = target.getEncryption();
+        if (encryption == null) {
+            send(rawTlv, rawTlv.length, target);
+        } else {
+            sendEncrypted(new TlvReader(rawTlv, NofspSerializationConstants.TLV_FRAME).readNextView(), encryption,
+                    target);
+        }
+    }
+
+    /**
+     * Serializes and encrypts a sensor data message into an array of its own, which can be held on to and sent to
+     * any number of targets sharing the encryption later.
+     *
+     * @param sensorData the sensor data message to serialize
+     * @param groupEncryption the encryption shared by the targets
+     * @return the serialized and encrypted message
+     * @throws IOException thrown if the message cannot be serialized or encrypted
+     */
+    byte[] serializeEncrypted(SensorDataMessage sensorData, EncryptionStrategy groupEncryption) throws IOException {
+        TlvView rawTlv = serializer.serializeToView(sensorData);
+        serializedMessages.increment();
+
+        TlvView processedTlv = encrypt(rawTlv, groupEncryption);
+        byte[] result = processedTlv.toBytes();
+        pool.release(processedTlv.getValueBuffer());
+
+        return result;
+    }
+
+    /**
+     * Sends a message that is already serialized, and encrypted if needed, to a single target as it is.
+     *
+     * @param datagram the message, as returned by {@code serializeEncrypted}
+     * @param target the target to send to
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    void sendPrepared(byte[] datagram, UdpSensorDataTarget target) throws IOException {
+        send(datagram, datagram.length, toTarget(target));
+    }
+
+    /**
+     * Returns an agent as a target of this sender.
+     *
+     * @param agent the agent
+     * @return the agent as a target
+     */
+    private UdpSensorDataTarget toTarget(SharedDataCommAgent agent) {
+        if (!(agent instanceof UdpSensorDataTarget target) || target.getSender() != this) {
+            throw new IllegalArgumentException("Cannot broadcast sensor data, because an agent was not created by " +
+                    "this sender.");
+        }
+
+        return target;
+    }
+
+    /**
+     * Encrypts a serialized message for a single target, and sends it to the target.
+     *
+     * @param rawTlv the serialized message
+     * @param encryption the encryption of the target
+     * @param target the target to send to
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private void sendEncrypted(TlvView rawTlv, EncryptionStrategy encryption, UdpSensorDataTarget target)
+            throws IOException {
+        TlvView processedTlv = encrypt(rawTlv, encryption);
+
+        byte[] datagram = pool.acquire(processedTlv.getLength());
+        try {
+            int datagramLength = processedTlv.writeTo(datagram, 0);
+            pool.release(processedTlv.getValueBuffer());
+            send(datagram, datagramLength, target);
+        } finally {
+            pool.release(datagram);
+        }
+    }
+
+    /**
+     * Encrypts a serialized message, into a value-field borrowed from the pool.
+     * The caller must release the value-field of the returned view back to the pool.
+     *
+     * @param rawTlv the serialized message
+     * @param encryption the encryption to use
+     * @return a view of the encrypted message
+     * @throws IOException thrown if encryption fails
+     */
+    private TlvView encrypt(TlvView rawTlv, EncryptionStrategy encryption) throws IOException {
+        TlvView result = null;
+
+        try {
+            result = TlvEncryption.encryptTlv(rawTlv, encryption, pool);
+        } catch (EncryptionException e) {
+            throw new IOException("Could not process the TLV: " + e.getMessage());
+        }
+        encryptedMessages.increment();
+
+        return result;
+    }
+
+    /**
+     * Sends a datagram to a target, through the socket assigned to the target.
+     *
+     * @param datagram the array holding the datagram
+     * @param length the length of the datagram
+     * @param target the target to send to
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private void send(byte[] datagram, int length, UdpSensorDataTarget target) throws IOException {
+        channels.get(target.getChannelIndex()).sendMessage(datagram, 0, length, target.getDestIpAddress(),
+                target.getDestPortNumber());
+        sentDatagrams.increment();
+    }
+
+    /**
+     * Returns the number of messages serialized so far.
+     *
+     * @return the number of serialized messages
+     */
+    public long getSerializedMessages() {
+        return serializedMessages.sum();
+    }
+
+    /**
+     * Returns the number of times a message has been encrypted so far, whether for a single target or for a group.
+     *
+     * @return the number of encrypted messages
+     */
+    public long getEncryptedMessages() {
+        return encryptedMessages.sum();
+    }
+
+    /**
+     * Returns the number of datagrams sent so far.
+     *
+     * @return the number of sent datagrams
+     */
+    public long getSentDatagrams() {
+        return sentDatagrams.sum();
+    }
+
+    /**
+     * Returns the number of sockets the sender sends through.
+     *
+     * @return the number of sockets
+     */
+    public int getChannelCount() {
+        return channels.size();
+    }
+
+    /**
+     * Closes all sockets of the sender.
+     */
+    public void close() {
+        sockets.forEach(DatagramSocket::close);
+    }
+}
@@ -0,0 +1,305 @@
+package no.ntnu.network.sensordataprocess;
+
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.bufferpool.ByteArrayPools;
+import no.ntnu.network.message.deserialize.component.SensorDataMessageDeserializer;
+import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
+import no.ntnu.network.message.encryption.cipher.decrypt.PlainTextDecryption;
+import no.ntnu.network.message.sensordata.SensorDataReceiver;
+import no.ntnu.tools.logger.SimpleLogger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A sensor data process receiving sensor data messages using a {@code DatagramChannel}, decoding them on a
+ * configurable number of worker threads.
+ * A single receiving thread reads every datagram into a reusable direct buffer, copies it into an array borrowed
+ * from a {@code ByteArrayPool}, and hands it to a worker, which decrypts it in place, deserializes it and delivers the
+ * sensor data to the receiver. Datagrams are assigned to workers by their source address, and every field node sends
+ * its sensor data from a single socket, so the sensor data of a field node is always delivered in the order it was
+ * received, while the sensor data of different field nodes is decoded in parallel.
+ * <p/>
+ * Every worker has a bounded queue of datagrams. If a worker falls behind so far that its queue is full, further
+ * datagrams assigned to it are dropped, as for any other UDP datagram that cannot be handled in time, instead of
+ * holding up the receiving thread and thereby all the other field nodes.
+ */
+public class UdpChannelSensorDataSink implements SensorDataSink {
+    private static final int MAX_DATAGRAM_SIZE = 800; // careful of not exceeding the MTU
+    private static final int WORKER_QUEUE_CAPACITY = 1024;
+    private static final int RECEIVE_BUFFER_SIZE = 1 << 20;
+    private final DatagramChannel channel;
+    private final int portNumber;
+    private final SensorDatagramDecoder decoder;
+    private final ByteArrayPool pool;
+    private final int workerCount;
+    private final Set<SimpleLogger> loggers;
+    private final LongAdder receivedDatagrams;
+    private final LongAdder droppedDatagrams;
+    private volatile DecryptionStrategy decryption;
+    private volatile boolean running;
+    private List<Worker> workers;
+    private Thread receivingThread;
+
+    /**
+     * A datagram received by the sink, held by an array borrowed from the pool.
+     *
+     * @param data the array holding the datagram
+     * @param length the length of the datagram
+     */
+    private record ReceivedDatagram(byte[] data, int length) {}
+
+    /**
+     * A worker decoding the datagrams assigned to it, in the order they were received.
+     */
+    private class Worker implements Runnable {
+        private final BlockingQueue<ReceivedDatagram> queue;
+        private final SensorDataReceiver receiver;
+        private final Thread thread;
+
+        /**
+         * Creates a new Worker.
+         *
+         * @param receiver the receiver of the sensor data
+         * @param index the index of the worker
+         */
+        private Worker(SensorDataReceiver receiver, int index) {
+            this.queue = new ArrayBlockingQueue<>(WORKER_QUEUE_CAPACITY);
+            this.receiver = receiver;
+            this.thread = new Thread(this, "sensor-data-worker-" + index);
+        }
+
+        @Override
+        public void run() {
+            while (running && !Thread.currentThread().isInterrupted()) {
+                try {
+                    decode(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            queue.forEach(datagram -> pool.release(datagram.data()));
+            queue.clear();
+        }
+
+        /**
+         * Decodes a received datagram, returning its array to the pool afterwards.
+         *
+         * @param datagram the datagram to decode
+         */
+        private void decode(ReceivedDatagram datagram) {
+            try {
+                decoder.decode(datagram.data(), 0, datagram.length(), decryption, receiver);
+            } catch (IOException e) {
+                logError("Could not receive sensor data message: " + e.getMessage());
+            } finally {
+                pool.release(datagram.data());
+            }
+        }
+    }
+
+    /**
+     * Creates a new UdpChannelSensorDataSink, using one worker for every available processor.
+     *
+     * @param deserializer the deserializer used for message deserialization
+     * @param portNumber the port number on which to receive datagrams, 0 for any free port
+     * @throws IOException thrown if the channel cannot be opened
+     */
+    public UdpChannelSensorDataSink(SensorDataMessageDeserializer deserializer, int portNumber) throws IOException {
+        this(deserializer, portNumber, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new UdpChannelSensorDataSink.
+     *
+     * @param deserializer the deserializer used for message deserialization
+     * @param portNumber the port number on which to receive datagrams, 0 for any free port
+     * @param workerCount the number of workers decoding received datagrams
+     * @throws IOException thrown if the channel cannot be opened
+     */
+    public UdpChannelSensorDataSink(SensorDataMessageDeserializer deserializer, int portNumber, int workerCount)
+            throws IOException {
+        if (deserializer == null) {
+            throw new IllegalArgumentException("Cannot create UdpChannelSensorDataSink, because deserializer is null.");
+        }
+
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Cannot create UdpChannelSensorDataSink, because workerCount is " +
+                    "smaller than 1.");
+        }
+
+        this.pool = ByteArrayPools.getDefault();
+        this.decoder = new SensorDatagramDecoder(deserializer);
+        this.workerCount = workerCount;
+        this.loggers = new CopyOnWriteArraySet<>();
+        this.receivedDatagrams = new LongAdder();
+        this.droppedDatagrams = new LongAdder();
+        this.decryption = new PlainTextDecryption();
+        this.running = false;
+        this.channel = openChannel(portNumber);
+        this.portNumber = ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Opens a blocking datagram channel bound to a given port.
+     *
+     * @param portNumber the port number to bind to
+     * @return the opened channel
+     * @throws IOException thrown if the channel cannot be opened
+     */
+    private static DatagramChannel openChannel(int portNumber) throws IOException {
+        DatagramChannel result = DatagramChannel.open();
+
+        try {
+            // a larger socket buffer absorbs bursts from many field nodes while the workers catch up
+            result.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_SIZE);
+            result.bind(new InetSocketAddress(portNumber));
+        } catch (IOException e) {
+            result.close();
+            throw e;
+        }
+
+        return result;
+    }
+
+    @Override
+    public void setDecryption(DecryptionStrategy decryption) {
+        if (decryption == null) {
+            throw new IllegalArgumentException("Cannot set decryption, because decryption strategy is null.");
+        }
+
+        this.decryption = decryption;
+    }
+
+    @Override
+    public void addLogger(SimpleLogger logger) {
+        loggers.add(logger);
+    }
+
+    /**
+     * Logs an error.
+     *
+     * @param error error message to log
+     */
+    private void logError(String error) {
+        loggers.forEach(logger -> logger.logError(error));
+    }
+
+    @Override
+    public synchronized void start(SensorDataReceiver receiver) {
+        if (receiver == null) {
+            throw new IllegalArgumentException("Cannot start the sink, because receiver is null.");
+        }
+
+        if (running) {
+            throw new IllegalStateException("Cannot start the sink, because it is already running.");
+        }
+
+        if (!channel.isOpen()) {
+            throw new IllegalStateException("Cannot start the sink, because it has already been stopped.");
+        }
+
+        running = true;
+        workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            Worker worker = new Worker(receiver, i);
+            workers.add(worker);
+            worker.thread.start();
+        }
+
+        receivingThread = new Thread(this::receiveDatagrams, "sensor-data-receiver");
+        receivingThread.start();
+    }
+
+    /**
+     * Keeps receiving datagrams and handing them to the workers, until the sink is stopped.
+     */
+    private void receiveDatagrams() {
+        ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_SIZE);
+
+        while (running && channel.isOpen()) {
+            try {
+                receiveBuffer.clear();
+                SocketAddress source = channel.receive(receiveBuffer);
+                receiveBuffer.flip();
+                dispatch(source, receiveBuffer);
+            } catch (IOException e) {
+                if (running && channel.isOpen()) {
+                    logError("Could not receive sensor data datagram: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands a received datagram to the worker assigned to its source address.
+     *
+     * @param source the source address of the datagram
+     * @param receiveBuffer the buffer holding the datagram between its position and limit
+     */
+    private void dispatch(SocketAddress source, ByteBuffer receiveBuffer) {
+        receivedDatagrams.increment();
+
+        int length = receiveBuffer.remaining();
+        byte[] data = pool.acquire(length);
+        receiveBuffer.get(data, 0, length);
+
+        Worker worker = workers.get(Math.floorMod(source.hashCode(), workers.size()));
+        if (!worker.queue.offer(new ReceivedDatagram(data, length))) {
+            pool.release(data);
+            droppedDatagrams.increment();
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            throw new IllegalStateException("Cannot stop the sink, because it is not running.");
+        }
+
+        running = false;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logError("Could not close sensor data channel: " + e.getMessage());
+        }
+
+        receivingThread.interrupt();
+        workers.forEach(worker -> worker.thread.interrupt());
+    }
+
+    /**
+     * Returns the number of datagrams received so far.
+     *
+     * @return the number of received datagrams
+     */
+    public long getReceivedDatagrams() {
+        return receivedDatagrams.sum();
+    }
+
+    /**
+     * Returns the number of received datagrams dropped so far, because their worker was too far behind.
+     *
+     * @return the number of dropped datagrams
+     */
+    public long getDroppedDatagrams() {
+        return droppedDatagrams.sum();
+    }
+
+    @Override
+    public int getPortNumber() {
+        return portNumber;
+    }
+}
@@ -1,23 +1,40 @@
 package no.ntnu.network.sensordataprocess;
 
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.bufferpool.ByteArrayPools;
+
 import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 
 /**
  * Receives UDP datagram packets from another network entity.
+ * Datagrams are received into arrays borrowed from a {@code ByteArrayPool}, which are returned to the pool using
+ * {@code releaseDatagramPacket(DatagramPacket)} once the datagram has been processed.
  */
 public class UdpDatagramReceiver {
     private final DatagramSocket datagramSocket;
     private final int maxDatagramBytes;
+    private final ByteArrayPool pool;
 
     /**
-     * Creates a new UdpDatagramReceiver.
+     * Creates a new UdpDatagramReceiver, borrowing from the default pool.
      *
      * @param datagramSocket the datagram socket to receive datagrams from
      * @param maxDatagramBytes the max amount of bytes allowed for each received datagram
      */
     public UdpDatagramReceiver(DatagramSocket datagramSocket, int maxDatagramBytes) {
+        this(datagramSocket, maxDatagramBytes, ByteArrayPools.getDefault());
+    }
+
+    /**
+     * Creates a new UdpDatagramReceiver.
+     *
+     * @param datagramSocket the datagram socket to receive datagrams from
+     * @param maxDatagramBytes the max amount of bytes allowed for each received datagram
+     * @param pool the pool to borrow arrays from
+     */
+    public UdpDatagramReceiver(DatagramSocket datagramSocket, int maxDatagramBytes, ByteArrayPool pool) {
         if (datagramSocket == null) {
             throw new IllegalArgumentException("Cannot create UdpDatagramReceiver, because datagramSocket is null.");
         }
@@ -27,13 +44,19 @@ public class UdpDatagramReceiver {
                     "is smaller than 9 bytes.");
         }
 
+        if (pool == null) {
+            throw new IllegalArgumentException("Cannot create UdpDatagramReceiver, because pool is null.");
+        }
+
         this.datagramSocket = datagramSocket;
         this.maxDatagramBytes = maxDatagramBytes;
+        this.pool = pool;
     }
 
     /**
      * Returns the next received datagram packet.
-     * This method blocks until a datagram is received.
+     * The data of the packet is held by an array borrowed from the pool, which should be returned using
+     * {@code releaseDatagramPacket(DatagramPacket)}. This method blocks until a datagram is received.
      *
      * @return next received datagram packet
      * @throws IOException thrown if an I/O exception occurs
@@ -41,13 +64,32 @@ public class UdpDatagramReceiver {
     public DatagramPacket getNextDatagramPacket() throws IOException {
         DatagramPacket datagramPacket = null;
 
-        byte[] dataBuffer = new byte[maxDatagramBytes];
-        datagramPacket = new DatagramPacket(dataBuffer, dataBuffer.length);
-        datagramSocket.receive(datagramPacket);
+        byte[] dataBuffer = pool.acquire(maxDatagramBytes);
+        datagramPacket = new DatagramPacket(dataBuffer, maxDatagramBytes);
+        try {
+            datagramSocket.receive(datagramPacket);
+        } catch (IOException e) {
+            pool.release(dataBuffer);
+            throw e;
+        }
 
         return datagramPacket;
     }
 
+    /**
+     * Returns the array holding the data of a received datagram packet to the pool.
+     * The packet must no longer be used afterwards.
+     *
+     * @param datagramPacket the datagram packet to release
+     */
+    public void releaseDatagramPacket(DatagramPacket datagramPacket) {
+        if (datagramPacket == null) {
+            throw new IllegalArgumentException("Cannot release datagram packet, because datagramPacket is null.");
+        }
+
+        pool.release(datagramPacket.getData());
+    }
+
     /**
      * Returns the port number for the datagram receiver.
      *
@@ -46,12 +46,27 @@ public class UdpDatagramSender {
      * @throws IOException thrown if an I/O exception occurs
      */
     public void sendMessage(byte[] bytes, InetAddress destIpAddress, int destPortNumber) throws IOException {
-        if (bytes.length > maxDatagramSize) {
+        sendMessage(bytes, 0, bytes.length, destIpAddress, destPortNumber);
+    }
+
+    /**
+     * Sends a range of an array of bytes as a sensor data message to another network entity.
+     *
+     * @param bytes the array holding the bytes to send
+     * @param offset the index of the first byte to send
+     * @param length the number of bytes to send
+     * @param destIpAddress the ip address of the destination
+     * @param destPortNumber the port number of the destination
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    public void sendMessage(byte[] bytes, int offset, int length, InetAddress destIpAddress, int destPortNumber)
+            throws IOException {
+        if (length > maxDatagramSize) {
             throw new IllegalArgumentException("Cannot send message, because its size is above the maximum allowed" +
                     "size of " + maxDatagramSize + " bytes.");
         }
 
-        DatagramPacket packetToSend = new DatagramPacket(bytes, 0, bytes.length, destIpAddress, destPortNumber);
+        DatagramPacket packetToSend = new DatagramPacket(bytes, offset, length, destIpAddress, destPortNumber);
         datagramSocket.send(packetToSend);
     }
 }
@@ -2,28 +2,59 @@ package no.ntnu.network.sensordataprocess;
 
 import no.ntnu.exception.EncryptionException;
 import no.ntnu.network.DataCommAgent;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.bufferpool.ByteArrayPools;
 import no.ntnu.network.message.encryption.TlvEncryption;
 import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
 import no.ntnu.network.message.encryption.cipher.encrypt.PlainTextEncryption;
+import no.ntnu.network.message.sensordata.SduSensorDataCodec;
 import no.ntnu.network.message.sensordata.SensorDataMessage;
-import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+import no.ntnu.tools.logger.SimpleLogger;
 
 import java.io.IOException;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A sensor data process responsible for pushing sensor data messages to a given destination using UDP.
+ * Every message is encrypted and framed in arrays borrowed from a {@code ByteArrayPool}, which are returned to the
+ * pool as soon as the datagram is sent. SDU sensor data is encoded straight into the datagram, behind room left for
+ * its header and for any nonce of the encryption, and encrypted in place.
+ * <p/>
+ * The pusher can be switched into a batching mode, in which SDU sensor data is packed into sensor data batches
+ * instead of being sent right away. A batch is sent as soon as another sensor data message might not fit into the
+ * datagram, or once its oldest message has waited for the linger time, so that fewer, larger datagrams are sent
+ * without delaying any sensor data for longer than the linger time.
  */
 public class UdpSensorDataPusher implements DataCommAgent {
     private static final int MAX_DATAGRAM_SIZE = 800; // careful of not exceeding the MTU
+    // leaves room for any padding, nonce or tag added to the batch by encryption
+    private static final int ENCRYPTION_OVERHEAD = 64;
+    private static final int MAX_BATCH_VALUE_LENGTH = MAX_DATAGRAM_SIZE - SduSensorDataCodec.HEADER_LENGTH -
+            ENCRYPTION_OVERHEAD;
     private final InetAddress destIpAddress;
     private final int destPortNumber;
     private final UdpDatagramSender messageSender;
     private final ByteSerializerVisitor serializer;
-    private EncryptionStrategy encryption;
+    private final ByteArrayPool pool;
+    private final Set<SimpleLogger> loggers;
+    private volatile EncryptionStrategy encryption;
+    private ScheduledExecutorService flushScheduler;
+    private ScheduledFuture<?> scheduledFlush;
+    private long lingerMillis;
+    private byte[] batch;
+    private int batchLength;
+    private EncryptionStrategy batchEncryption;
+    private int batchValueOffset;
 
     /**
      * Creates a new SensorDataProcess.
@@ -36,6 +67,8 @@ public class UdpSensorDataPusher implements DataCommAgent {
         DatagramSocket datagramSocket = new DatagramSocket();
         this.messageSender = new UdpDatagramSender(datagramSocket, serializer, MAX_DATAGRAM_SIZE);
         this.serializer = serializer;
+        this.pool = ByteArrayPools.getDefault();
+        this.loggers = new CopyOnWriteArraySet<>();
         this.encryption = new PlainTextEncryption();
     }
 
@@ -44,6 +77,7 @@ public class UdpSensorDataPusher implements DataCommAgent {
      *
      * @param encryption the encryption strategy to use
      */
+    @Override
     public void setEncryption(EncryptionStrategy encryption) {
         if (encryption == null) {
             throw new IllegalArgumentException("Cannot set encryption, because encryption strategy is null.");
@@ -52,25 +86,254 @@ public class UdpSensorDataPusher implements DataCommAgent {
         this.encryption = encryption;
     }
 
+    /**
+     * Adds a logger, logging errors for batches that could not be sent once their linger time passed.
+     *
+     * @param logger the logger to add
+     */
+    public void addLogger(SimpleLogger logger) {
+        loggers.add(logger);
+    }
+
+    /**
+     * Logs an error.
+     *
+     * @param error error message to log
+     */
+    private void logError(String error) {
+        loggers.forEach(logger -> logger.logError(error));
+    }
+
+    /**
+     * Enables the batching mode, packing SDU sensor data into sensor data batches.
+     * If batching is already enabled, only the linger time is changed, taking effect from the next batch.
+     *
+     * @param lingerMillis the maximum time in milliseconds sensor data is held back before its batch is sent
+     */
+    public synchronized void enableBatching(long lingerMillis) {
+        if (lingerMillis < 1) {
+            throw new IllegalArgumentException("Cannot enable batching, because linger time is smaller than 1.");
+        }
+
+        if (flushScheduler == null) {
+            flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sensor-data-batch-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        this.lingerMillis = lingerMillis;
+    }
+
+    /**
+     * Disables the batching mode, sending any sensor data still held back.
+     *
+     * @throws IOException thrown if the held back sensor data could not be sent
+     */
+    public synchronized void disableBatching() throws IOException {
+        if (flushScheduler != null) {
+            try {
+                flush();
+            } finally {
+                flushScheduler.shutdownNow();
+                flushScheduler = null;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the batching mode is enabled.
+     *
+     * @return true if enabled, false otherwise
+     */
+    public synchronized boolean isBatching() {
+        return flushScheduler != null;
+    }
+
     @Override
     public void sendSensorData(SensorDataMessage sensorData) throws IOException {
-        Tlv rawTlv = serializer.serialize(sensorData);
-        Tlv processedTlv = processTlv(rawTlv);
-        messageSender.sendMessage(processedTlv.toBytes(), destIpAddress, destPortNumber);
+        TlvView rawTlv = serializer.serializeToView(sensorData);
+        TlvView processedTlv = processTlv(rawTlv);
+
+        byte[] datagram = pool.acquire(processedTlv.getLength());
+        try {
+            int datagramLength = processedTlv.writeTo(datagram, 0);
+            pool.release(processedTlv.getValueBuffer());
+            messageSender.sendMessage(datagram, 0, datagramLength, destIpAddress, destPortNumber);
+        } finally {
+            pool.release(datagram);
+        }
+    }
+
+    /**
+     * Sends SDU sensor data, encoding it directly with the {@code SduSensorDataCodec}.
+     * Unless batching is enabled, the datagram sent is identical to the one sent for an equal
+     * {@code SduSensorDataMessage}, but no message object is created for it. If batching is enabled, the sensor data
+     * is added to the current batch instead.
+     *
+     * @param clientNodeAddress the address of the client that captured the data
+     * @param sensorAddress the address of the sensor that captured the data
+     * @param data the sdu data captured
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    public void sendSduData(int clientNodeAddress, int sensorAddress, double data) throws IOException {
+        if (!addToBatch(clientNodeAddress, sensorAddress, data)) {
+            sendSingleSduData(clientNodeAddress, sensorAddress, data);
+        }
+    }
+
+    /**
+     * Sends SDU sensor data in a datagram of its own.
+     *
+     * @param clientNodeAddress the address of the client that captured the data
+     * @param sensorAddress the address of the sensor that captured the data
+     * @param data the sdu data captured
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private void sendSingleSduData(int clientNodeAddress, int sensorAddress, double data) throws IOException {
+        EncryptionStrategy datagramEncryption = encryption;
+        byte[] datagram = pool.acquire(MAX_DATAGRAM_SIZE);
+        try {
+            int valueOffset = SduSensorDataCodec.HEADER_LENGTH + datagramEncryption.getHeaderLength();
+            int valueLength = SduSensorDataCodec.encodeValue(clientNodeAddress, sensorAddress, data, datagram,
+                    valueOffset);
+            int processedValueLength = processValue(datagramEncryption, datagram, valueLength);
+
+            int headerLength = SduSensorDataCodec.encodeHeader(processedValueLength, datagram, 0);
+            messageSender.sendMessage(datagram, 0, headerLength + processedValueLength, destIpAddress,
+                    destPortNumber);
+        } finally {
+            pool.release(datagram);
+        }
+    }
+
+    /**
+     * Adds SDU sensor data to the current batch if batching is enabled, starting a new batch if there is none.
+     * The batch is sent right away if it might not have room for another sensor data message.
+     *
+     * @param clientNodeAddress the address of the client that captured the data
+     * @param sensorAddress the address of the sensor that captured the data
+     * @param data the sdu data captured
+     * @return true if the sensor data was added to a batch, false if batching is disabled
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private synchronized boolean addToBatch(int clientNodeAddress, int sensorAddress, double data)
+            throws IOException {
+        boolean result = false;
+
+        if (flushScheduler != null) {
+            if (batch == null) {
+                // the batch is encoded into the datagram it will be sent in, using the encryption of the moment
+                batch = pool.acquire(MAX_DATAGRAM_SIZE);
+                batchLength = 0;
+                batchEncryption = encryption;
+                batchValueOffset = SduSensorDataCodec.HEADER_LENGTH + batchEncryption.getHeaderLength();
+                scheduledFlush = flushScheduler.schedule(this::flushLingeringBatch, lingerMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+
+            batchLength += SduSensorDataCodec.encode(clientNodeAddress, sensorAddress, data, batch,
+                    batchValueOffset + batchLength);
+            result = true;
+
+            if (MAX_BATCH_VALUE_LENGTH - batchLength < SduSensorDataCodec.MAX_FRAME_LENGTH) {
+                flush();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Sends the current batch once its linger time has passed.
+     */
+    private void flushLingeringBatch() {
+        try {
+            flush();
+        } catch (IOException e) {
+            logError("Cannot send sensor data batch: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends the current batch right away, if there is one.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    public synchronized void flush() throws IOException {
+        if (batch != null) {
+            byte[] sentBatch = batch;
+            int sentBatchLength = batchLength;
+            EncryptionStrategy sentBatchEncryption = batchEncryption;
+            batch = null;
+            batchLength = 0;
+            batchEncryption = null;
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+
+            try {
+                sendBatch(sentBatch, sentBatchLength, sentBatchEncryption);
+            } finally {
+                pool.release(sentBatch);
+            }
+        }
+    }
+
+    /**
+     * Encrypts and frames a batch of encoded sensor data messages in place, sending it in a single datagram.
+     *
+     * @param datagram the array holding the value-field of the batch, behind room for the header and nonce
+     * @param batchValueLength the length of the value-field
+     * @param datagramEncryption the encryption the batch was encoded for
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private void sendBatch(byte[] datagram, int batchValueLength, EncryptionStrategy datagramEncryption)
+            throws IOException {
+        int processedValueLength = processValue(datagramEncryption, datagram, batchValueLength);
+
+        int headerLength = SduSensorDataCodec.encodeBatchHeader(processedValueLength, datagram, 0);
+        messageSender.sendMessage(datagram, 0, headerLength + processedValueLength, destIpAddress, destPortNumber);
+    }
+
+    /**
+     * Processes an encoded value-field in place.
+     * The value-field is held by the datagram behind room for the header and for the header of the encryption, and
+     * the processed value-field is written right behind the room for the header.
+     *
+     * @param datagramEncryption the encryption to process the value-field with
+     * @param datagram the array holding the value-field
+     * @param valueLength the length of the value-field
+     * @return the length of the processed value-field
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private static int processValue(EncryptionStrategy datagramEncryption, byte[] datagram, int valueLength)
+            throws IOException {
+        int processedValueLength = 0;
+
+        try {
+            processedValueLength = datagramEncryption.encryptInPlace(datagram, SduSensorDataCodec.HEADER_LENGTH,
+                    valueLength);
+        } catch (EncryptionException e) {
+            throw new IOException("Could not process the TLV: " + e.getMessage());
+        }
+
+        return processedValueLength;
     }
 
     /**
      * Processes a raw TLV.
+     * The value-field of the processed tlv is borrowed from the pool, and must be released by the caller.
      *
      * @param rawTlv the raw tlv to process
      * @return the processed tlv
      * @throws IOException thrown if an I/O exception occurs
      */
-    private Tlv processTlv(Tlv rawTlv) throws IOException {
-        Tlv processedTlv = null;
+    private TlvView processTlv(TlvView rawTlv) throws IOException {
+        TlvView processedTlv = null;
 
         try {
-            processedTlv = TlvEncryption.encryptTlv(rawTlv, encryption);
+            processedTlv = TlvEncryption.encryptTlv(rawTlv, encryption, pool);
         } catch (EncryptionException e) {
             throw new IOException("Could not process the TLV: " + e.getMessage());
         }
@@ -1,29 +1,35 @@
 package no.ntnu.network.sensordataprocess;
 
-import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.ByteArrayPool;
+import no.ntnu.network.bufferpool.ByteArrayPools;
 import no.ntnu.network.message.deserialize.component.SensorDataMessageDeserializer;
-import no.ntnu.network.message.encryption.TlvEncryption;
 import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
 import no.ntnu.network.message.encryption.cipher.decrypt.PlainTextDecryption;
 import no.ntnu.network.message.sensordata.SensorDataMessage;
-import no.ntnu.network.message.serialize.NofspSerializationConstants;
-import no.ntnu.network.message.serialize.tool.tlv.Tlv;
-import no.ntnu.network.message.serialize.tool.tlv.TlvReader;
+import no.ntnu.network.message.sensordata.SensorDataReceiver;
+import no.ntnu.tools.logger.SimpleLogger;
 
 import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.SocketException;
-import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * A sensor data process responsible for receiving sensor data messages from a specific source using UDP.
+ * Every datagram is received into an array borrowed from a {@code ByteArrayPool}, decrypted in place, and returned
+ * to the pool as soon as the message is deserialized. Once started, the sink receives and delivers all sensor data
+ * on a single thread.
  */
-public class UdpSensorDataSink {
+public class UdpSensorDataSink implements SensorDataSink {
     private static final int MAX_DATAGRAM_SIZE = 800; // careful of not exceeding the MTU
     private final UdpDatagramReceiver datagramReceiver;
-    private final SensorDataMessageDeserializer deserializer;
-    private DecryptionStrategy decryption;
+    private final SensorDatagramDecoder decoder;
+    private final Set<SimpleLogger> loggers;
+    private volatile DecryptionStrategy decryption;
+    private volatile boolean running;
+    private Thread receivingThread;
 
     /**
      * Creates a new UdpSensorDataSink.
@@ -33,13 +39,7 @@ public class UdpSensorDataSink {
      * @throws SocketException thrown if socket establishment fails
      */
     public UdpSensorDataSink(SensorDataMessageDeserializer deserializer) throws SocketException {
-        if (deserializer == null) {
-            throw new IllegalArgumentException("Cannot create UdpSensorDataSink, because deserializer is null.");
-        }
-        this.deserializer = deserializer;
-        DatagramSocket datagramSocket = new DatagramSocket();
-        this.datagramReceiver = new UdpDatagramReceiver(datagramSocket, MAX_DATAGRAM_SIZE);
-        this.decryption = new PlainTextDecryption();
+        this(deserializer, new DatagramSocket());
     }
 
     /**
@@ -50,20 +50,30 @@ public class UdpSensorDataSink {
      * @throws SocketException thrown if socket establishment fails
      */
     public UdpSensorDataSink(SensorDataMessageDeserializer deserializer, int portNumber) throws SocketException {
+        this(deserializer, new DatagramSocket(portNumber));
+    }
+
+    /**
+     * Creates a new UdpSensorDataSink.
+     *
+     * @param deserializer the deserializer used for message deserialization
+     * @param datagramSocket the socket to receive datagrams from
+     */
+    private UdpSensorDataSink(SensorDataMessageDeserializer deserializer, DatagramSocket datagramSocket) {
         if (deserializer == null) {
+            datagramSocket.close();
             throw new IllegalArgumentException("Cannot create UdpSensorDataSink, because deserializer is null.");
         }
-        this.deserializer = deserializer;
-        DatagramSocket datagramSocket = new DatagramSocket(portNumber);
-        this.datagramReceiver = new UdpDatagramReceiver(datagramSocket, MAX_DATAGRAM_SIZE);
+
+        ByteArrayPool pool = ByteArrayPools.getDefault();
+        this.datagramReceiver = new UdpDatagramReceiver(datagramSocket, MAX_DATAGRAM_SIZE, pool);
+        this.decoder = new SensorDatagramDecoder(deserializer);
+        this.loggers = new CopyOnWriteArraySet<>();
         this.decryption = new PlainTextDecryption();
+        this.running = false;
     }
 
-    /**
-     * Sets the decryption used for receiving Tlvs.
-     *
-     * @param decryption the decryption strategy to use
-     */
+    @Override
     public void setDecryption(DecryptionStrategy decryption) {
         if (decryption == null) {
             throw new IllegalArgumentException("Cannot set decryption, because decryption strategy is null.");
@@ -72,60 +82,104 @@ public class UdpSensorDataSink {
         this.decryption = decryption;
     }
 
+    @Override
+    public void addLogger(SimpleLogger logger) {
+        loggers.add(logger);
+    }
+
     /**
-     * Returns the next received sensor data message.
-     * This method blocks until a sensor data message is received.
+     * Logs an error.
      *
-     * @return the next received sensor data message
-     * @throws IOException thrown if an I/O exception occurs
+     * @param error error message to log
      */
-    public SensorDataMessage receiveNextMessage() throws IOException {
-        SensorDataMessage message = null;
+    private void logError(String error) {
+        loggers.forEach(logger -> logger.logError(error));
+    }
+
+    @Override
+    public void start(SensorDataReceiver receiver) {
+        if (receiver == null) {
+            throw new IllegalArgumentException("Cannot start the sink, because receiver is null.");
+        }
 
-        Tlv rawTlv = receiveNextRawTlv();
-        Tlv processedTlv = processTlv(rawTlv);
-        message = deserializer.deserializeSensorData(processedTlv);
+        if (running) {
+            throw new IllegalStateException("Cannot start the sink, because it is already running.");
+        }
 
-        return message;
+        running = true;
+        receivingThread = new Thread(() -> receiveData(receiver));
+        receivingThread.start();
     }
 
     /**
-     * Processes a raw TLV.
+     * Keeps receiving sensor data messages, delivering their sensor data to a receiver, until the sink is stopped.
      *
-     * @param rawTlv the raw tlv to process
-     * @return the processed tlv
-     * @throws IOException thrown if an I/O exception occurs
+     * @param receiver the receiver of the sensor data
      */
-    private Tlv processTlv(Tlv rawTlv) throws IOException {
-        Tlv processedTlv = null;
+    private void receiveData(SensorDataReceiver receiver) {
+        while (running) {
+            try {
+                receiveNextData(receiver);
+            } catch (IOException e) {
+                logError("Could not receive sensor data message: " + e.getMessage());
+            }
+        }
+    }
 
-        try {
-            processedTlv = TlvEncryption.decryptTlv(rawTlv, decryption);
-        } catch (EncryptionException e) {
-            throw new IOException("Could not process the TLV: " + e.getMessage());
+    @Override
+    public void stop() {
+        if (!running) {
+            throw new IllegalStateException("Cannot stop the sink, because it is not running.");
         }
 
-        return processedTlv;
+        running = false;
+        receivingThread.interrupt();
     }
 
     /**
-     * Receives the next raw Tlv from the remote socket, without any processing.
+     * Returns the next received sensor data message.
+     * This method blocks until a sensor data message is received.
      *
-     * @return the next raw tlv
+     * @return the next received sensor data message
      * @throws IOException thrown if an I/O exception occurs
      */
-    private Tlv receiveNextRawTlv() throws IOException {
+    public SensorDataMessage receiveNextMessage() throws IOException {
+        SensorDataMessage message = null;
+
         DatagramPacket receivedDatagram = datagramReceiver.getNextDatagramPacket();
-        byte[] messageBytes = Arrays.copyOfRange(receivedDatagram.getData(), 0, receivedDatagram.getLength());
+        try {
+            message = decoder.decodeMessage(receivedDatagram.getData(), receivedDatagram.getOffset(),
+                    receivedDatagram.getLength(), decryption);
+        } finally {
+            datagramReceiver.releaseDatagramPacket(receivedDatagram);
+        }
 
-        return TlvReader.constructTlv(messageBytes, NofspSerializationConstants.TLV_FRAME);
+        return message;
     }
 
     /**
-     * Returns the local port number for the process.
+     * Receives the next sensor data message, delivering its sensor data to a receiver.
+     * SDU sensor data is delivered without creating a message object.
+     * This method blocks until a sensor data message is received.
      *
-     * @return local port number
+     * @param receiver the receiver of the sensor data
+     * @throws IOException thrown if an I/O exception occurs
      */
+    public void receiveNextData(SensorDataReceiver receiver) throws IOException {
+        if (receiver == null) {
+            throw new IllegalArgumentException("Cannot receive sensor data, because receiver is null.");
+        }
+
+        DatagramPacket receivedDatagram = datagramReceiver.getNextDatagramPacket();
+        try {
+            decoder.decode(receivedDatagram.getData(), receivedDatagram.getOffset(), receivedDatagram.getLength(),
+                    decryption, receiver);
+        } finally {
+            datagramReceiver.releaseDatagramPacket(receivedDatagram);
+        }
+    }
+
+    @Override
     public int getPortNumber() {
         return datagramReceiver.getDatagramSocketPortNumber();
     }
@@ -0,0 +1,111 @@
+package no.ntnu.network.sensordataprocess;
+
+import no.ntnu.network.SensorDataBroadcaster;
+import no.ntnu.network.SharedDataCommAgent;
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+import no.ntnu.network.message.sensordata.SensorDataMessage;
+
+import java.io.IOException;
+import java.net.InetAddress;
+
+/**
+ * A communication agent for a single remote network entity, sending sensor data through a
+ * {@code SharedUdpSensorDataSender}.
+ * The agent holds no socket of its own, only the destination and, if its session requires it, the encryption to use.
+ */
+public class UdpSensorDataTarget implements SharedDataCommAgent {
+    private final SharedUdpSensorDataSender sender;
+    private final InetAddress destIpAddress;
+    private final int destPortNumber;
+    private final int channelIndex;
+    private volatile EncryptionStrategy encryption;
+
+    /**
+     * Creates a new UdpSensorDataTarget.
+     *
+     * @param sender the sender to send through
+     * @param destIpAddress the ip address of the destination
+     * @param destPortNumber the port number of the destination
+     * @param channelIndex the index of the channel of the sender used for the destination
+     */
+    UdpSensorDataTarget(SharedUdpSensorDataSender sender, InetAddress destIpAddress, int destPortNumber,
+                        int channelIndex) {
+        this.sender = sender;
+        this.destIpAddress = destIpAddress;
+        this.destPortNumber = destPortNumber;
+        this.channelIndex = channelIndex;
+        this.encryption = null;
+    }
+
+    @Override
+    public void sendSensorData(SensorDataMessage sensorData) throws IOException {
+        sender.broadcast(sensorData, new SharedDataCommAgent[] {this});
+    }
+
+    @Override
+    public SensorDataBroadcaster getBroadcaster() {
+        return sender;
+    }
+
+    /**
+     * Sets the encryption used for sending sensor data to the destination.
+     * Sensor data for a target with encryption is encrypted for that target alone, while sensor data for targets
+     * without encryption is sent as the same bytes to all of them.
+     *
+     * @param encryption the encryption strategy to use, null for no encryption
+     */
+    @Override
+    public void setEncryption(EncryptionStrategy encryption) {
+        this.encryption = encryption;
+    }
+
+    /**
+     * Returns the encryption used for sending sensor data to the destination.
+     *
+     * @return the encryption strategy, null if no encryption is used
+     */
+    EncryptionStrategy getEncryption() {
+        return encryption;
+    }
+
+    @Override
+    public boolean isEncrypted() {
+        return encryption != null;
+    }
+
+    /**
+     * Returns the sender the target sends through.
+     *
+     * @return the sender
+     */
+    SharedUdpSensorDataSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Returns the ip address of the destination.
+     *
+     * @return the ip address
+     */
+    public InetAddress getDestIpAddress() {
+        return destIpAddress;
+    }
+
+    /**
+     * Returns the port number of the destination.
+     *
+     * @return the port number
+     */
+    public int getDestPortNumber() {
+        return destPortNumber;
+    }
+
+    /**
+     * Returns the index of the channel of the sender used for the destination.
+     *
+     * @return the channel index
+     */
+    int getChannelIndex() {
+        return channelIndex;
+    }
+}
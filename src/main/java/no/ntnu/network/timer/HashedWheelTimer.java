@@ -0,0 +1,307 @@
+package no.ntnu.network.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A timer keeping delayed tasks in a hashed timing wheel, driven by a single thread.
+ * <p/>
+ * The wheel is a ring of buckets, each bucket holding a doubly-linked list of timeouts. Every tick, the wheel thread
+ * moves on to the next bucket, expiring the timeouts of the bucket that are due and counting down the rounds of the
+ * ones due in a later turn of the wheel. Scheduling a task links a timeout into the bucket of its deadline, and
+ * cancelling it unlinks it again, both in constant time. A process can therefore keep a timeout for every
+ * connection and every pending request, at no cost while nothing is due.
+ * <p/>
+ * Timeouts never expire before their delay has passed, and expire at most a tick later. Expired tasks are handed
+ * to the task executor of the timer, which should not let a blocking task hold back the wheel thread.
+ */
+public class HashedWheelTimer {
+    private static final int MAX_WHEEL_SIZE = 1 << 30;
+    private static final long MAX_DELAY_NANOS = Long.MAX_VALUE / 4;
+    private final long tickNanos;
+    private final Timeout[] wheel;
+    private final int mask;
+    private final Executor taskExecutor;
+    private final String threadName;
+    private final Object lock;
+    private final List<Timeout> expiredTimeouts;
+    private long startNanos;
+    private long nextTick;
+    private int pendingTimeouts;
+    private Thread wheelThread;
+    private volatile boolean stopped;
+
+    /**
+     * Creates a new HashedWheelTimer, running expired tasks on the wheel thread itself.
+     * Tasks scheduled on the timer must then be short and never block.
+     *
+     * @param tickDuration the duration of a tick, the resolution of the timer
+     * @param unit the time unit of the tick duration
+     * @param wheelSize the number of buckets of the wheel, rounded up to a power of two
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize) {
+        this(tickDuration, unit, wheelSize, Runnable::run, "hashed-wheel-timer");
+    }
+
+    /**
+     * Creates a new HashedWheelTimer.
+     *
+     * @param tickDuration the duration of a tick, the resolution of the timer
+     * @param unit the time unit of the tick duration
+     * @param wheelSize the number of buckets of the wheel, rounded up to a power of two
+     * @param taskExecutor the executor running expired tasks
+     * @param threadName the name of the wheel thread
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, Executor taskExecutor,
+                            String threadName) {
+        if (unit == null) {
+            throw new IllegalArgumentException("Cannot create HashedWheelTimer, because unit is null.");
+        }
+
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Cannot create HashedWheelTimer, because tickDuration must be " +
+                    "bigger than 0.");
+        }
+
+        if (wheelSize < 1 || wheelSize > MAX_WHEEL_SIZE) {
+            throw new IllegalArgumentException("Cannot create HashedWheelTimer, because wheelSize must be between " +
+                    "1 and " + MAX_WHEEL_SIZE + ".");
+        }
+
+        if (taskExecutor == null) {
+            throw new IllegalArgumentException("Cannot create HashedWheelTimer, because taskExecutor is null.");
+        }
+
+        if (threadName == null) {
+            throw new IllegalArgumentException("Cannot create HashedWheelTimer, because threadName is null.");
+        }
+
+        int buckets = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.wheel = new Timeout[buckets];
+        this.mask = buckets - 1;
+        this.taskExecutor = taskExecutor;
+        this.threadName = threadName;
+        this.lock = new Object();
+        this.expiredTimeouts = new ArrayList<>();
+        this.startNanos = 0;
+        this.nextTick = 0;
+        this.pendingTimeouts = 0;
+        this.wheelThread = null;
+        this.stopped = false;
+    }
+
+    /**
+     * Schedules a task to run once a delay has passed.
+     * The wheel thread is started by the first task scheduled.
+     *
+     * @param task the task to run
+     * @param delay the delay before running the task
+     * @param unit the time unit of the delay
+     * @return the timeout of the task, which can be used to cancel it
+     * @throws IllegalStateException thrown if the timer has been stopped
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new IllegalArgumentException("Cannot schedule task, because task is null.");
+        }
+
+        if (unit == null) {
+            throw new IllegalArgumentException("Cannot schedule task, because unit is null.");
+        }
+
+        long delayNanos = Math.min(Math.max(unit.toNanos(delay), 0), MAX_DELAY_NANOS);
+        Timeout timeout;
+
+        synchronized (lock) {
+            if (stopped) {
+                throw new IllegalStateException("Cannot schedule task, because the timer has been stopped.");
+            }
+
+            if (wheelThread == null) {
+                startWheelThread();
+            }
+
+            // the tick whose end is the first one past the deadline
+            long deadlineNanos = System.nanoTime() - startNanos + delayNanos;
+            long deadlineTick = Math.max((deadlineNanos + tickNanos - 1) / tickNanos - 1, nextTick);
+
+            timeout = new Timeout(this, task, (int) (deadlineTick & mask), (deadlineTick - nextTick) / wheel.length);
+            link(timeout);
+        }
+
+        return timeout;
+    }
+
+    /**
+     * Starts the wheel thread, counting ticks from now.
+     */
+    private void startWheelThread() {
+        startNanos = System.nanoTime();
+        wheelThread = new Thread(this::runWheel, threadName);
+        wheelThread.setDaemon(true);
+        wheelThread.start();
+    }
+
+    /**
+     * Cancels a pending timeout, unlinking it from its bucket.
+     *
+     * @param timeout the timeout to cancel
+     * @return true if the timeout was cancelled
+     */
+    boolean cancel(Timeout timeout) {
+        boolean cancelled = false;
+
+        synchronized (lock) {
+            if (timeout.isPending()) {
+                unlink(timeout);
+                timeout.markCancelled();
+                cancelled = true;
+            }
+        }
+
+        return cancelled;
+    }
+
+    /**
+     * Returns the number of timeouts waiting to expire.
+     *
+     * @return the number of pending timeouts
+     */
+    public int getPendingTimeoutCount() {
+        synchronized (lock) {
+            return pendingTimeouts;
+        }
+    }
+
+    /**
+     * Returns the duration of a tick.
+     *
+     * @param unit the time unit to return the duration in
+     * @return the tick duration
+     */
+    public long getTickDuration(TimeUnit unit) {
+        if (unit == null) {
+            throw new IllegalArgumentException("Cannot get tick duration, because unit is null.");
+        }
+
+        return unit.convert(tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the timer. Pending timeouts never expire, and no more tasks can be scheduled.
+     */
+    public void stop() {
+        Thread thread;
+
+        synchronized (lock) {
+            stopped = true;
+            thread = wheelThread;
+        }
+
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Links a timeout into its bucket.
+     *
+     * @param timeout the timeout to link
+     */
+    private void link(Timeout timeout) {
+        Timeout head = wheel[timeout.bucket];
+        timeout.next = head;
+        if (head != null) {
+            head.previous = timeout;
+        }
+        wheel[timeout.bucket] = timeout;
+        pendingTimeouts++;
+    }
+
+    /**
+     * Unlinks a timeout from its bucket.
+     *
+     * @param timeout the timeout to unlink
+     */
+    private void unlink(Timeout timeout) {
+        if (timeout.previous != null) {
+            timeout.previous.next = timeout.next;
+        } else {
+            wheel[timeout.bucket] = timeout.next;
+        }
+
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+
+        timeout.previous = null;
+        timeout.next = null;
+        pendingTimeouts--;
+    }
+
+    /**
+     * Turns the wheel, one bucket every tick, until the timer is stopped.
+     */
+    private void runWheel() {
+        while (waitForNextTick()) {
+            expireTimeouts();
+        }
+    }
+
+    /**
+     * Waits for the end of the next tick.
+     * A wheel thread falling behind returns at once, catching up tick by tick.
+     *
+     * @return true if the tick has ended, false if the timer has been stopped
+     */
+    private boolean waitForNextTick() {
+        long tickEnd = startNanos + (nextTick + 1) * tickNanos;
+        long remainingNanos = tickEnd - System.nanoTime();
+
+        while (remainingNanos > 0 && !stopped) {
+            LockSupport.parkNanos(this, remainingNanos);
+            remainingNanos = tickEnd - System.nanoTime();
+        }
+
+        return !stopped;
+    }
+
+    /**
+     * Expires the due timeouts of the bucket of the ended tick, and hands their tasks to the task executor.
+     */
+    private void expireTimeouts() {
+        synchronized (lock) {
+            Timeout timeout = wheel[(int) (nextTick & mask)];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+
+                if (timeout.remainingRounds <= 0) {
+                    unlink(timeout);
+                    timeout.markExpired();
+                    expiredTimeouts.add(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+
+                timeout = next;
+            }
+
+            nextTick++;
+        }
+
+        for (Timeout timeout : expiredTimeouts) {
+            try {
+                taskExecutor.execute(timeout.getTask());
+            } catch (RuntimeException e) {
+                // a failing task must not stop the wheel for all other timeouts
+            }
+        }
+
+        expiredTimeouts.clear();
+    }
+}
@@ -0,0 +1,97 @@
+package no.ntnu.network.timer;
+
+/**
+ * A handle of a task scheduled on a {@code HashedWheelTimer}.
+ * The timeout is linked into a bucket of the wheel until it expires or is cancelled, so that cancelling it
+ * only unlinks it, however many other timeouts are pending.
+ */
+public final class Timeout {
+    private static final int PENDING = 0;
+    private static final int EXPIRED = 1;
+    private static final int CANCELLED = 2;
+    private final HashedWheelTimer timer;
+    private final Runnable task;
+    final int bucket;
+    long remainingRounds;
+    Timeout previous;
+    Timeout next;
+    private volatile int state;
+
+    /**
+     * Creates a new Timeout.
+     *
+     * @param timer the timer the timeout is scheduled on
+     * @param task the task to run once the timeout expires
+     * @param bucket the bucket of the wheel holding the timeout
+     * @param remainingRounds the number of times the wheel passes the bucket before the timeout expires
+     */
+    Timeout(HashedWheelTimer timer, Runnable task, int bucket, long remainingRounds) {
+        this.timer = timer;
+        this.task = task;
+        this.bucket = bucket;
+        this.remainingRounds = remainingRounds;
+        this.previous = null;
+        this.next = null;
+        this.state = PENDING;
+    }
+
+    /**
+     * Cancels the timeout, so that its task is never run.
+     * Cancelling a timeout that has already expired or been cancelled has no effect.
+     *
+     * @return true if the timeout was cancelled by this call
+     */
+    public boolean cancel() {
+        return timer.cancel(this);
+    }
+
+    /**
+     * Returns whether the timeout has expired, its task having been run or handed off to be run.
+     *
+     * @return true if expired
+     */
+    public boolean isExpired() {
+        return state == EXPIRED;
+    }
+
+    /**
+     * Returns whether the timeout has been cancelled.
+     *
+     * @return true if cancelled
+     */
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    /**
+     * Returns whether the timeout is still waiting to expire.
+     *
+     * @return true if pending
+     */
+    boolean isPending() {
+        return state == PENDING;
+    }
+
+    /**
+     * Marks the timeout as expired.
+     */
+    void markExpired() {
+        state = EXPIRED;
+    }
+
+    /**
+     * Marks the timeout as cancelled.
+     */
+    void markCancelled() {
+        state = CANCELLED;
+    }
+
+    /**
+     * Returns the task to run once the timeout expires.
+     *
+     * @return the task
+     */
+    Runnable getTask() {
+        return task;
+    }
+}
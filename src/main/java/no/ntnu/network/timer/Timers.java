@@ -0,0 +1,48 @@
+package no.ntnu.network.timer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the timer shared by components that are not given a timer of their own.
+ * <p/>
+ * The default timer ticks every 10 milliseconds, and hands expired tasks to a pool of daemon threads, created when
+ * needed and let go once idle, so that a task blocking on a socket never holds back the other timeouts of the
+ * process.
+ */
+public class Timers {
+    private static final long DEFAULT_TICK_MILLIS = 10;
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+    private static final HashedWheelTimer DEFAULT_TIMER = createDefaultTimer();
+
+    /**
+     * Does not allow creating instances of the class.
+     */
+    private Timers() {}
+
+    /**
+     * Creates the default timer.
+     *
+     * @return the default timer
+     */
+    private static HashedWheelTimer createDefaultTimer() {
+        ExecutorService taskExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "timer-task");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        return new HashedWheelTimer(DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE, taskExecutor,
+                "default-wheel-timer");
+    }
+
+    /**
+     * Returns the default timer, shared by the whole process.
+     *
+     * @return the default timer
+     */
+    public static HashedWheelTimer getDefault() {
+        return DEFAULT_TIMER;
+    }
+}
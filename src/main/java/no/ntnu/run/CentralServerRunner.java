@@ -1,19 +1,33 @@
 package no.ntnu.run;
 
 import no.ntnu.network.centralserver.CentralServer;
+import no.ntnu.network.centralserver.ControlTransport;
 import no.ntnu.tools.logger.SystemOutLogger;
 
+import java.util.Arrays;
+
 /**
  * Runner for the central server.
  */
 public class CentralServerRunner {
     /**
      * The main starting point for the central server.
+     * Passing {@code selector} as the first argument serves all clients using the selector-based transport, while
+     * passing {@code virtual} serves every client on virtual threads. Passing {@code staged} as any argument passes
+     * the control messages of every client through a staged pipeline.
      *
      * @param args console line arguments
      */
     public static void main(String[] args) {
-        CentralServer server = new CentralServer();
+        ControlTransport transport = ControlTransport.THREAD_PER_CLIENT;
+        if (args.length > 0 && args[0].equalsIgnoreCase("selector")) {
+            transport = ControlTransport.SELECTOR;
+        } else if (args.length > 0 && args[0].equalsIgnoreCase("virtual")) {
+            transport = ControlTransport.VIRTUAL_THREAD_PER_CLIENT;
+        }
+
+        CentralServer server = new CentralServer(transport);
+        server.setStagedMessagePipeline(Arrays.asList(args).contains("staged"));
         server.addLogger(new SystemOutLogger());
         server.run();
     }
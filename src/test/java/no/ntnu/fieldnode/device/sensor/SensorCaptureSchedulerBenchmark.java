@@ -0,0 +1,97 @@
+package no.ntnu.fieldnode.device.sensor;
+
+import no.ntnu.environment.Environment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Benchmark of the SensorCaptureScheduler class.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class SensorCaptureSchedulerBenchmark {
+    private static final int THREADS = 2;
+    private static final int SENSORS = 10000;
+    SensorCaptureScheduler scheduler;
+
+    /**
+     * Setting up for the following benchmark methods.
+     */
+    @Before
+    public void setup() {
+        scheduler = new SensorCaptureScheduler(THREADS);
+    }
+
+    /**
+     * Stops the scheduler used by a benchmark.
+     */
+    @After
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    /**
+     * Reports the threads used and the capture-time drift of 10,000 sensors captured at 100 millisecond intervals
+     * for two seconds, reporting the threads a timer per sensor would have used, the threads added by the shared
+     * scheduler, the lateness of the captures and the largest drift of a sensor from its interval.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void benchmarkTenThousandSensors() throws InterruptedException {
+        long interval = 100;
+        long runMillis = 2000;
+        Environment environment = new Environment();
+        AtomicIntegerArray captures = new AtomicIntegerArray(SENSORS);
+        AtomicLongArray firstCaptures = new AtomicLongArray(SENSORS);
+        AtomicLongArray lastCaptures = new AtomicLongArray(SENSORS);
+        SduSensorListener listener = (sensorAddress, data) -> {
+            long now = System.nanoTime();
+            firstCaptures.compareAndSet(sensorAddress, 0, now);
+            lastCaptures.set(sensorAddress, now);
+            captures.incrementAndGet(sensorAddress);
+        };
+
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        SensorCaptureScheduler.ScheduledCapture[] scheduledCaptures =
+                new SensorCaptureScheduler.ScheduledCapture[SENSORS];
+        for (int i = 0; i < SENSORS; i++) {
+            TemperatureSensor sensor = new TemperatureSensor(1);
+            sensor.setEnvironment(environment);
+            sensor.addListener(listener, i);
+            scheduledCaptures[i] = scheduler.schedule(sensor::captureData, interval, TimeUnit.MILLISECONDS);
+        }
+        Thread.sleep(runMillis);
+        int threadsAdded = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore;
+
+        for (SensorCaptureScheduler.ScheduledCapture scheduledCapture : scheduledCaptures) {
+            scheduledCapture.cancel();
+        }
+
+        long maxDriftNanos = 0;
+        int uncapturedSensors = 0;
+        for (int i = 0; i < SENSORS; i++) {
+            int count = captures.get(i);
+            if (count == 0) {
+                uncapturedSensors++;
+            } else {
+                long expectedNanos = TimeUnit.MILLISECONDS.toNanos(interval) * (count - 1);
+                long actualNanos = lastCaptures.get(i) - firstCaptures.get(i);
+                maxDriftNanos = Math.max(maxDriftNanos, Math.abs(actualNanos - expectedNanos));
+            }
+        }
+
+        System.out.println("Capturing " + SENSORS + " sensors every " + interval + " ms: " + SENSORS +
+                " threads with a timer per sensor, " + threadsAdded + " threads added with a shared scheduler, " +
+                scheduler.getCaptureCount() + " captures, " + scheduler.getAverageLateness(TimeUnit.MICROSECONDS) +
+                " us average and " + scheduler.getMaxLateness(TimeUnit.MICROSECONDS) + " us max lateness, " +
+                TimeUnit.NANOSECONDS.toMicros(maxDriftNanos) + " us max drift of a sensor, " + uncapturedSensors +
+                " sensors never captured.");
+    }
+}
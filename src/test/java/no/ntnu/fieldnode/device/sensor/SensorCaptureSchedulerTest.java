@@ -0,0 +1,204 @@
+package no.ntnu.fieldnode.device.sensor;
+
+import no.ntnu.environment.Environment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the SensorCaptureScheduler class.
+ * The class verifies that captures run at their interval until cancelled, that their first captures are spread over
+ * the first interval, and that a large number of sensors is captured by a fixed number of threads. The drift and
+ * lateness of the captures are reported by SensorCaptureSchedulerBenchmark.
+ */
+public class SensorCaptureSchedulerTest {
+    private static final int THREADS = 2;
+    private static final int SENSORS = 10000;
+    private static final long TIMEOUT_MILLIS = 5000;
+    SensorCaptureScheduler scheduler;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        scheduler = new SensorCaptureScheduler(THREADS);
+    }
+
+    /**
+     * Stops the scheduler used by a test.
+     */
+    @After
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    /**
+     * Waits until a counter reaches a count, or the timeout runs out.
+     *
+     * @param counter the counter to wait for
+     * @param count the count to reach
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    private static void awaitCount(AtomicInteger counter, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (counter.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Tests that scheduling a capture with an invalid interval is not allowed.
+     */
+    @Test
+    public void testInvalidInterval() {
+        assertThrows(IllegalArgumentException.class, () -> scheduler.schedule(() -> {}, 0, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class, () -> new TemperatureSensor(0).setCaptureInterval(-1));
+    }
+
+    /**
+     * Tests that a capture runs repeatedly until cancelled, and never after.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void testCancel() throws InterruptedException {
+        AtomicInteger captures = new AtomicInteger();
+        SensorCaptureScheduler.ScheduledCapture capture = scheduler.schedule(captures::incrementAndGet, 10,
+                TimeUnit.MILLISECONDS);
+
+        awaitCount(captures, 3);
+        assertTrue(captures.get() >= 3);
+
+        capture.cancel();
+        Thread.sleep(50);
+        int capturesAfterCancel = captures.get();
+        Thread.sleep(100);
+
+        assertTrue(capture.isCancelled());
+        assertEquals(capturesAfterCancel, captures.get());
+    }
+
+    /**
+     * Tests that a failing capture is counted, and does not stop the following captures.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void testFailingCaptureContinues() throws InterruptedException {
+        AtomicInteger captures = new AtomicInteger();
+        scheduler.schedule(() -> {
+            captures.incrementAndGet();
+            throw new IllegalStateException("Sensor failed.");
+        }, 10, TimeUnit.MILLISECONDS);
+
+        awaitCount(captures, 3);
+
+        assertTrue(captures.get() >= 3);
+        assertTrue(scheduler.getFailedCaptureCount() >= 2);
+    }
+
+    /**
+     * Tests that a sensor captures data at the interval set for it, using the default scheduler, and stops capturing
+     * once stopped.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void testSensorCaptureInterval() throws InterruptedException {
+        AtomicInteger captures = new AtomicInteger();
+        TemperatureSensor sensor = new TemperatureSensor(0);
+        sensor.setEnvironment(new Environment());
+        sensor.addListener((sensorAddress, data) -> captures.incrementAndGet(), 1);
+        sensor.setCaptureInterval(10);
+
+        sensor.start();
+        awaitCount(captures, 3);
+        sensor.stop();
+
+        assertEquals(10, sensor.getCaptureInterval());
+        assertTrue(captures.get() >= 3);
+    }
+
+    /**
+     * Tests that captures started at the same moment are spread over their first interval.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void testPhaseJitter() throws InterruptedException {
+        int sensors = 1000;
+        long interval = 500;
+        AtomicInteger captured = new AtomicInteger();
+        AtomicLongArray firstCaptures = new AtomicLongArray(sensors);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < sensors; i++) {
+            int sensor = i;
+            scheduler.schedule(() -> {
+                if (firstCaptures.compareAndSet(sensor, 0, System.nanoTime())) {
+                    captured.incrementAndGet();
+                }
+            }, interval, TimeUnit.MILLISECONDS);
+        }
+        awaitCount(captured, sensors);
+
+        long earliest = Long.MAX_VALUE;
+        long latest = Long.MIN_VALUE;
+        for (int i = 0; i < sensors; i++) {
+            earliest = Math.min(earliest, firstCaptures.get(i) - start);
+            latest = Math.max(latest, firstCaptures.get(i) - start);
+        }
+
+        assertEquals(sensors, captured.get());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(latest - earliest) >= interval / 2);
+    }
+
+    /**
+     * Tests that 10,000 sensors captured at 100 millisecond intervals are all captured, by no more threads than the
+     * scheduler was created with, and without failing captures.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void testTenThousandSensors() throws InterruptedException {
+        long interval = 100;
+        Environment environment = new Environment();
+        AtomicIntegerArray captures = new AtomicIntegerArray(SENSORS);
+        AtomicInteger capturedSensors = new AtomicInteger();
+        Set<Thread> captureThreads = ConcurrentHashMap.newKeySet();
+        SduSensorListener listener = (sensorAddress, data) -> {
+            captureThreads.add(Thread.currentThread());
+            if (captures.getAndIncrement(sensorAddress) == 0) {
+                capturedSensors.incrementAndGet();
+            }
+        };
+
+        SensorCaptureScheduler.ScheduledCapture[] scheduledCaptures =
+                new SensorCaptureScheduler.ScheduledCapture[SENSORS];
+        for (int i = 0; i < SENSORS; i++) {
+            TemperatureSensor sensor = new TemperatureSensor(1);
+            sensor.setEnvironment(environment);
+            sensor.addListener(listener, i);
+            scheduledCaptures[i] = scheduler.schedule(sensor::captureData, interval, TimeUnit.MILLISECONDS);
+        }
+        awaitCount(capturedSensors, SENSORS);
+
+        for (SensorCaptureScheduler.ScheduledCapture scheduledCapture : scheduledCaptures) {
+            scheduledCapture.cancel();
+        }
+
+        assertEquals(SENSORS, capturedSensors.get());
+        assertTrue(captureThreads.size() <= THREADS);
+        assertEquals(0, scheduler.getFailedCaptureCount());
+    }
+}
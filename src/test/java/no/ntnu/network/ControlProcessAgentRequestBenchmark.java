@@ -0,0 +1,161 @@
+package no.ntnu.network;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.message.Message;
+import no.ntnu.network.message.context.FieldNodeContext;
+import no.ntnu.network.message.context.MessageContext;
+import no.ntnu.network.message.context.ServerContext;
+import no.ntnu.network.message.deserialize.NofspFieldNodeDeserializer;
+import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.deserialize.component.MessageDeserializer;
+import no.ntnu.network.message.request.HeartbeatRequest;
+import no.ntnu.network.message.request.RequestMessage;
+import no.ntnu.network.message.response.HeartbeatResponse;
+import no.ntnu.network.message.response.ResponseMessage;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.StringJoiner;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark of the asynchronous requests of the ControlProcessAgent class.
+ * A requesting agent sends heartbeats over a loopback connection to a responding agent, which answers every heartbeat
+ * right away.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class ControlProcessAgentRequestBenchmark {
+    private static final int BENCHMARK_ROUND_TRIPS = 20000;
+    private static final int[] PIPELINE_DEPTHS = {1, 4, 16, 64};
+    private static final long TIMEOUT_SECONDS = 10;
+    LoopbackAgent<ServerContext> requester;
+    LoopbackAgent<FieldNodeContext> responder;
+
+    /**
+     * An agent over a loopback socket, answering every received heartbeat.
+     *
+     * @param <C> the type of message processing context to use
+     */
+    private static class LoopbackAgent<C extends MessageContext> extends ControlProcessAgent<C> {
+        /**
+         * Creates a new LoopbackAgent, connected over the given socket.
+         *
+         * @param socket the socket to communicate over
+         * @param deserializer the deserializer for received messages
+         */
+        LoopbackAgent(Socket socket, MessageDeserializer<C> deserializer) {
+            super();
+            setSocket(socket);
+            establishConnection(new NofspFrameSerializer(), deserializer);
+        }
+
+        @Override
+        protected void handleMessageReadingException(IOException e) {
+            // the connection is simply closed
+        }
+
+        @Override
+        protected void processReceivedMessage(Message<C> message) {
+            if (message instanceof HeartbeatRequest<?> request) {
+                try {
+                    sendResponse(new HeartbeatResponse(request.getId()));
+                } catch (IOException e) {
+                    safelyClose();
+                }
+            } else if (message instanceof ResponseMessage response) {
+                acceptResponse(response);
+            }
+        }
+
+        @Override
+        protected void handleConnectionClosing() {
+            // nothing to clean up
+        }
+
+        @Override
+        protected void logSendRequestMessage(RequestMessage request) {
+            // requests are not logged
+        }
+
+        @Override
+        protected void logSendResponseMessage(ResponseMessage response) {
+            // responses are not logged
+        }
+
+        @Override
+        public void requestTimedOut(RequestMessage requestMessage) {
+            // timed out requests only fail their future responses
+        }
+    }
+
+    /**
+     * Setting up for the following benchmark methods.
+     *
+     * @throws IOException thrown if the loopback connection cannot be set up
+     */
+    @Before
+    public void setup() throws IOException {
+        try (ServerSocket listener = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Socket requesterSocket = new Socket(InetAddress.getLoopbackAddress(), listener.getLocalPort());
+            Socket responderSocket = listener.accept();
+
+            requester = new LoopbackAgent<>(requesterSocket,
+                    new NofspServerDeserializer((clientAddress, deviceAddress) -> DeviceClass.S1));
+            responder = new LoopbackAgent<>(responderSocket, new NofspFieldNodeDeserializer());
+        }
+    }
+
+    /**
+     * Closes both agents.
+     */
+    @After
+    public void teardown() {
+        requester.safelyClose();
+        responder.safelyClose();
+    }
+
+    /**
+     * Reports the request/response round-trips per second over loopback, keeping an increasing number of requests
+     * outstanding at once.
+     *
+     * @throws Exception thrown if a request cannot be sent
+     */
+    @Test
+    public void benchmarkRoundTrips() throws Exception {
+        StringJoiner results = new StringJoiner(", ");
+
+        for (int depth : PIPELINE_DEPTHS) {
+            Semaphore outstanding = new Semaphore(depth);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+
+            long start = System.nanoTime();
+            for (int i = 0; i < BENCHMARK_ROUND_TRIPS; i++) {
+                outstanding.acquire();
+                requester.sendRequest(new HeartbeatRequest<>()).whenComplete((response, e) -> {
+                    if (e != null) {
+                        failure.set(e);
+                    }
+                    outstanding.release();
+                });
+            }
+            assertTrue(outstanding.tryAcquire(depth, TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            long elapsedNanos = System.nanoTime() - start;
+
+            assertNull(failure.get());
+            results.add("depth " + depth + ": " + ((long) BENCHMARK_ROUND_TRIPS * 1000000000L / elapsedNanos) + "/s");
+        }
+
+        System.out.println("Request/response round-trips over loopback: " + results + ".");
+    }
+}
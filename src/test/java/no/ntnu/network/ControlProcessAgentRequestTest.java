@@ -0,0 +1,348 @@
+package no.ntnu.network;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.centralserver.centralhub.CentralHub;
+import no.ntnu.network.controlprocess.pipeline.PipelineMetrics;
+import no.ntnu.network.message.Message;
+import no.ntnu.network.message.context.FieldNodeContext;
+import no.ntnu.network.message.context.MessageContext;
+import no.ntnu.network.message.context.ServerContext;
+import no.ntnu.network.message.deserialize.NofspFieldNodeDeserializer;
+import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.deserialize.component.MessageDeserializer;
+import no.ntnu.network.message.request.HeartbeatRequest;
+import no.ntnu.network.message.request.RegisterFieldNodeRequest;
+import no.ntnu.network.message.request.RequestMessage;
+import no.ntnu.network.message.response.HeartbeatResponse;
+import no.ntnu.network.message.response.ResponseMessage;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+import no.ntnu.network.representation.FieldNodeInformation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the asynchronous requests of the ControlProcessAgent class.
+ * A requesting agent sends heartbeats over a loopback connection to a responding agent, which answers every heartbeat
+ * right away.
+ */
+public class ControlProcessAgentRequestTest {
+    private static final long TIMEOUT_SECONDS = 10;
+    LoopbackAgent<ServerContext> requester;
+    LoopbackAgent<FieldNodeContext> responder;
+
+    /**
+     * An agent over a loopback socket, answering every received heartbeat.
+     *
+     * @param <C> the type of message processing context to use
+     */
+    private static class LoopbackAgent<C extends MessageContext> extends ControlProcessAgent<C> {
+        final List<Integer> receivedRequestIds;
+        volatile boolean answering;
+
+        /**
+         * Creates a new LoopbackAgent, connected over the given socket.
+         *
+         * @param socket the socket to communicate over
+         * @param deserializer the deserializer for received messages
+         */
+        LoopbackAgent(Socket socket, MessageDeserializer<C> deserializer) {
+            super();
+            this.receivedRequestIds = Collections.synchronizedList(new ArrayList<>());
+            this.answering = true;
+            setSocket(socket);
+            establishConnection(new NofspFrameSerializer(), deserializer);
+        }
+
+        /**
+         * Creates a new LoopbackAgent, connected over the given socket through a staged pipeline.
+         *
+         * @param socket the socket to communicate over
+         * @param deserializer the deserializer for received messages
+         * @param queueCapacity the capacity of every queue between two stages
+         */
+        LoopbackAgent(Socket socket, MessageDeserializer<C> deserializer, int queueCapacity) {
+            super();
+            this.receivedRequestIds = Collections.synchronizedList(new ArrayList<>());
+            this.answering = true;
+            setSocket(socket);
+            setStagedPipeline(queueCapacity, new PipelineMetrics());
+            establishConnection(new NofspFrameSerializer(), deserializer);
+        }
+
+        @Override
+        protected void handleMessageReadingException(IOException e) {
+            // the connection is simply closed
+        }
+
+        @Override
+        protected void processReceivedMessage(Message<C> message) {
+            if (message instanceof HeartbeatRequest<?> request) {
+                receivedRequestIds.add(request.getId());
+            }
+
+            if (message instanceof HeartbeatRequest<?> request && answering) {
+                try {
+                    sendResponse(new HeartbeatResponse(request.getId()));
+                } catch (IOException e) {
+                    safelyClose();
+                }
+            } else if (message instanceof ResponseMessage response) {
+                acceptResponse(response);
+            }
+        }
+
+        @Override
+        protected void handleConnectionClosing() {
+            // nothing to clean up
+        }
+
+        @Override
+        protected void logSendRequestMessage(RequestMessage request) {
+            // requests are not logged
+        }
+
+        @Override
+        protected void logSendResponseMessage(ResponseMessage response) {
+            // responses are not logged
+        }
+
+        @Override
+        public void requestTimedOut(RequestMessage requestMessage) {
+            // timed out requests only fail their future responses
+        }
+    }
+
+    /**
+     * Setting up for the following test methods.
+     *
+     * @throws IOException thrown if the loopback connection cannot be set up
+     */
+    @Before
+    public void setup() throws IOException {
+        try (ServerSocket listener = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Socket requesterSocket = new Socket(InetAddress.getLoopbackAddress(), listener.getLocalPort());
+            Socket responderSocket = listener.accept();
+
+            requester = new LoopbackAgent<>(requesterSocket,
+                    new NofspServerDeserializer((clientAddress, deviceAddress) -> DeviceClass.S1));
+            responder = new LoopbackAgent<>(responderSocket, new NofspFieldNodeDeserializer());
+        }
+    }
+
+    /**
+     * Closes both agents.
+     */
+    @After
+    public void teardown() {
+        requester.safelyClose();
+        responder.safelyClose();
+    }
+
+    /**
+     * Tests that the future response of a request is completed by the matching response.
+     *
+     * @throws Exception thrown if the future response fails
+     */
+    @Test
+    public void testFutureCompletedByResponse() throws Exception {
+        HeartbeatRequest<FieldNodeContext> request = new HeartbeatRequest<>();
+        ResponseMessage response = requester.sendRequest(request).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(new HeartbeatResponse(request.getId()), response);
+    }
+
+    /**
+     * Tests that many outstanding requests on a single connection are each completed by their own response.
+     *
+     * @throws Exception thrown if a future response fails
+     */
+    @Test
+    public void testManyOutstandingRequests() throws Exception {
+        List<HeartbeatRequest<FieldNodeContext>> requests = new ArrayList<>();
+        List<CompletableFuture<ResponseMessage>> responses = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            HeartbeatRequest<FieldNodeContext> request = new HeartbeatRequest<>();
+            requests.add(request);
+            responses.add(requester.sendRequest(request));
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            assertEquals(requests.get(i).getId(), responses.get(i).get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getId());
+        }
+    }
+
+    /**
+     * Tests that closing the connection fails the future responses of unanswered requests.
+     *
+     * @throws IOException thrown if the request cannot be sent
+     */
+    @Test
+    public void testCloseFailsOutstandingRequests() throws IOException {
+        responder.answering = false;
+        CompletableFuture<ResponseMessage> response = requester.sendRequest(new HeartbeatRequest<>());
+        requester.safelyClose();
+
+        assertTrue(response.isCompletedExceptionally());
+    }
+
+    /**
+     * Tests that requests posted to an agent are sent by the writer of the connection in the order they were posted.
+     *
+     * @throws Exception thrown if a request cannot be sent
+     */
+    @Test
+    public void testPostedRequestsSentInOrder() throws Exception {
+        List<HeartbeatRequest<FieldNodeContext>> requests = new ArrayList<>();
+        List<CompletableFuture<Void>> sent = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            HeartbeatRequest<FieldNodeContext> request = new HeartbeatRequest<>();
+            requests.add(request);
+            sent.add(requester.postRequest(request));
+        }
+
+        for (CompletableFuture<Void> future : sent) {
+            future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (responder.receivedRequestIds.size() < requests.size() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(requests.stream().map(HeartbeatRequest::getId).toList(), responder.receivedRequestIds);
+    }
+
+    /**
+     * Tests that a request posted to a closed agent fails instead of being sent.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting for the request
+     */
+    @Test
+    public void testPostToClosedAgentFails() throws InterruptedException {
+        requester.safelyClose();
+        CompletableFuture<Void> sent = requester.postRequest(new HeartbeatRequest<>());
+
+        try {
+            sent.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("The request was sent over a closed connection.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        } catch (TimeoutException e) {
+            fail("The request was never sent.");
+        }
+    }
+
+    /**
+     * Tests that a shard of the central hub keeps serving its field nodes while the send queue of a staged field node
+     * connection is full, as the requests it posts to the connection are handed to the writer of the connection.
+     *
+     * @throws Exception thrown if the hub or the connection fails
+     */
+    @Test
+    public void testFullStagedSendQueueDoesNotBlockShard() throws Exception {
+        Map<Integer, DeviceClass> fnst = new HashMap<>();
+        fnst.put(1, DeviceClass.S1);
+        Map<Integer, Integer> fnsm = new HashMap<>();
+        FieldNodeInformation fieldNodeInformation = new FieldNodeInformation(fnst, fnsm, "Field node");
+        FieldNodeInformation largeInformation = new FieldNodeInformation(fnst, fnsm, "x".repeat(64 * 1024));
+
+        try (ServerSocket listener = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Socket stalledSocket = new Socket(InetAddress.getLoopbackAddress(), listener.getLocalPort());
+            // the remote end of the connection never reads, so the send stage ends up blocked on the socket
+            Socket unreadSocket = listener.accept();
+            LoopbackAgent<ServerContext> stalledAgent = new LoopbackAgent<>(stalledSocket,
+                    new NofspServerDeserializer((clientAddress, deviceAddress) -> DeviceClass.S1), 1);
+            CentralHub hub = new CentralHub(1);
+
+            try {
+                int stalledFieldNode = hub.registerFieldNode(fieldNodeInformation, stalledAgent);
+                int otherFieldNode = hub.registerFieldNode(fieldNodeInformation, new TestControlCommAgent());
+                TestControlCommAgent controlPanelAgent = new TestControlCommAgent();
+                controlPanelAgent.setClientNodeAddress(hub.registerControlPanel(Set.of(DeviceClass.S1),
+                        controlPanelAgent, new TestDataCommAgent()));
+
+                // fills the socket buffers and the send queue of the stalled connection
+                List<CompletableFuture<Void>> sent = CompletableFuture.supplyAsync(() -> {
+                    List<CompletableFuture<Void>> futures = new ArrayList<>();
+                    for (int i = 0; i < 400; i++) {
+                        futures.add(stalledAgent.postRequest(new RegisterFieldNodeRequest(largeInformation)));
+                    }
+                    return futures;
+                }).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                awaitStalledWriter(sent);
+
+                // the ADL update of the subscription is posted to the stalled connection by the shard
+                CompletableFuture.runAsync(() -> {
+                    try {
+                        hub.subscribeToFieldNode(controlPanelAgent, stalledFieldNode);
+                    } catch (Exception e) {
+                        // fails once the stalled connection is closed
+                    }
+                });
+
+                CompletableFuture<Set<Integer>> otherSubscribers = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+                        while (!hub.getFieldNodeSubscribers(stalledFieldNode).contains(
+                                controlPanelAgent.getClientNodeAddress()) && System.currentTimeMillis() < deadline) {
+                            Thread.sleep(5);
+                        }
+
+                        hub.subscribeToFieldNode(controlPanelAgent, otherFieldNode);
+                        return hub.getFieldNodeSubscribers(otherFieldNode);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                });
+
+                assertEquals(Set.of(controlPanelAgent.getClientNodeAddress()),
+                        otherSubscribers.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+                assertTrue(hub.getFieldNodeSubscribers(stalledFieldNode).contains(
+                        controlPanelAgent.getClientNodeAddress()));
+            } finally {
+                stalledAgent.safelyClose();
+                unreadSocket.close();
+                hub.close();
+            }
+        }
+    }
+
+    /**
+     * Waits until the writer of a connection stops sending the posted requests, as its send queue is full.
+     *
+     * @param sent the futures of the posted requests
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    private static void awaitStalledWriter(List<CompletableFuture<Void>> sent) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        long lastSentCount = -1;
+        long sentCount = sent.stream().filter(CompletableFuture::isDone).count();
+
+        while (sentCount != lastSentCount && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            lastSentCount = sentCount;
+            sentCount = sent.stream().filter(CompletableFuture::isDone).count();
+        }
+
+        assertTrue(sentCount < sent.size());
+    }
+}
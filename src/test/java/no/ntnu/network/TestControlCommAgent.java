@@ -7,6 +7,7 @@ import no.ntnu.network.message.response.ResponseMessage;
 import no.ntnu.network.sensordataprocess.UdpDataCommAgentProvider;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A communication agent for testing purposes.
@@ -34,8 +35,10 @@ public class TestControlCommAgent implements ControlCommAgent, UdpDataCommAgentP
     }
 
     @Override
-    public void sendRequest(RequestMessage request) throws IOException {
+    public CompletableFuture<ResponseMessage> sendRequest(RequestMessage request) throws IOException {
         requestSent = request;
+
+        return new CompletableFuture<>();
     }
 
     @Override
@@ -0,0 +1,148 @@
+package no.ntnu.network.bufferpool;
+
+import no.ntnu.exception.EncryptionException;
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.encryption.TlvEncryption;
+import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
+import no.ntnu.network.message.encryption.cipher.decrypt.PlainTextDecryption;
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+import no.ntnu.network.message.encryption.cipher.encrypt.PlainTextEncryption;
+import no.ntnu.network.message.sensordata.SduSensorDataMessage;
+import no.ntnu.network.message.sensordata.SensorDataMessage;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvReader;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+import no.ntnu.network.message.serialize.visitor.NofspSerializer;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark of the sensor data codec path when borrowing from a SizeClassedByteArrayPool.
+ * The benchmark simulates sensor data from a large number of field nodes passing through serialization, encryption,
+ * framing, reading, decryption and deserialization, and reports the bytes allocated with and without the pool.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class PooledCodecBenchmark {
+    private static final int FIELD_NODES = 500;
+    private static final int MESSAGES_PER_FIELD_NODE = 20;
+    SizeClassedByteArrayPool pool;
+    ByteSerializerVisitor frameSerializer;
+    ByteSerializerVisitor plainSerializer;
+    EncryptionStrategy encryption;
+    DecryptionStrategy decryption;
+    NofspServerDeserializer deserializer;
+    List<SensorDataMessage> messages;
+
+    /**
+     * Setting up for the following benchmark methods.
+     */
+    @Before
+    public void setup() {
+        pool = new SizeClassedByteArrayPool(true);
+        frameSerializer = new NofspFrameSerializer(pool);
+        plainSerializer = new NofspSerializer();
+        encryption = new PlainTextEncryption();
+        decryption = new PlainTextDecryption();
+        deserializer = new NofspServerDeserializer((clientAddress, deviceAddress) -> DeviceClass.S1);
+
+        messages = new ArrayList<>();
+        for (int i = 0; i < MESSAGES_PER_FIELD_NODE; i++) {
+            for (int fieldNode = 0; fieldNode < FIELD_NODES; fieldNode++) {
+                messages.add(new SduSensorDataMessage(fieldNode, i % 4, fieldNode + i / 10d));
+            }
+        }
+    }
+
+    /**
+     * Passes a message through the codec path, borrowing every intermediate array from the pool.
+     *
+     * @param message the message to pass
+     * @return the message as received
+     */
+    private SensorDataMessage pooledRoundTrip(SensorDataMessage message) throws IOException, EncryptionException {
+        TlvView encryptedTlv = TlvEncryption.encryptTlv(frameSerializer.serializeToView(message), encryption, pool);
+        byte[] datagram = pool.acquire(encryptedTlv.getLength());
+        int datagramLength = encryptedTlv.writeTo(datagram, 0);
+        pool.release(encryptedTlv.getValueBuffer());
+
+        TlvView receivedTlv = new TlvReader(datagram, 0, datagramLength, NofspSerializationConstants.TLV_FRAME)
+                .readNextView();
+        TlvView decryptedTlv = TlvEncryption.decryptTlv(receivedTlv, decryption, pool);
+        SensorDataMessage result = deserializer.deserializeSensorData(decryptedTlv);
+        pool.release(decryptedTlv.getValueBuffer());
+        pool.release(datagram);
+
+        return result;
+    }
+
+    /**
+     * Passes a message through the codec path, materializing every intermediate result.
+     *
+     * @param message the message to pass
+     * @return the message as received
+     */
+    private SensorDataMessage unpooledRoundTrip(SensorDataMessage message) throws IOException, EncryptionException {
+        byte[] datagram = TlvEncryption.encryptTlv(plainSerializer.serialize(message), encryption).toBytes();
+
+        Tlv receivedTlv = TlvReader.constructTlv(datagram, NofspSerializationConstants.TLV_FRAME);
+
+        return deserializer.deserializeSensorData(TlvEncryption.decryptTlv(receivedTlv, decryption));
+    }
+
+    /**
+     * Returns the number of bytes allocated by the calling thread so far.
+     *
+     * @return the allocated bytes, -1 if not supported by the runtime
+     */
+    private static long allocatedBytes() {
+        long result = -1;
+
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadBean
+                && threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled()) {
+            result = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return result;
+    }
+
+    /**
+     * Reports the bytes allocated by the pooled codec path and by the materializing codec path, along with the
+     * metrics of the pool. The benchmark is skipped if the runtime cannot measure allocated bytes.
+     */
+    @Test
+    public void benchmarkAllocationPressure() throws IOException, EncryptionException {
+        Assume.assumeTrue(allocatedBytes() >= 0);
+
+        // warms up both paths, so that one-time allocations are not measured
+        for (SensorDataMessage message : messages) {
+            pooledRoundTrip(message);
+            unpooledRoundTrip(message);
+        }
+
+        long before = allocatedBytes();
+        for (SensorDataMessage message : messages) {
+            unpooledRoundTrip(message);
+        }
+        long unpooledBytes = allocatedBytes() - before;
+
+        before = allocatedBytes();
+        for (SensorDataMessage message : messages) {
+            pooledRoundTrip(message);
+        }
+        long pooledBytes = allocatedBytes() - before;
+
+        System.out.println("Codec allocation for " + messages.size() + " messages: " + (unpooledBytes / 1024) +
+                " KiB without pool, " + (pooledBytes / 1024) + " KiB with pool, " + pool.getMetrics());
+    }
+}
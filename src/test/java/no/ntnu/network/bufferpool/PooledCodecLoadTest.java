@@ -0,0 +1,101 @@
+package no.ntnu.network.bufferpool;
+
+import no.ntnu.exception.EncryptionException;
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.encryption.TlvEncryption;
+import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
+import no.ntnu.network.message.encryption.cipher.decrypt.PlainTextDecryption;
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+import no.ntnu.network.message.encryption.cipher.encrypt.PlainTextEncryption;
+import no.ntnu.network.message.sensordata.SduSensorDataMessage;
+import no.ntnu.network.message.sensordata.SensorDataMessage;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.tlv.TlvReader;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Load testing for the sensor data codec path when borrowing from a SizeClassedByteArrayPool.
+ * The test simulates sensor data from a large number of field nodes passing through serialization, encryption,
+ * framing, reading, decryption and deserialization. The bytes allocated with and without the pool are reported by
+ * PooledCodecBenchmark.
+ */
+public class PooledCodecLoadTest {
+    private static final int FIELD_NODES = 500;
+    private static final int MESSAGES_PER_FIELD_NODE = 20;
+    SizeClassedByteArrayPool pool;
+    ByteSerializerVisitor frameSerializer;
+    EncryptionStrategy encryption;
+    DecryptionStrategy decryption;
+    NofspServerDeserializer deserializer;
+    List<SensorDataMessage> messages;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        pool = new SizeClassedByteArrayPool(true);
+        frameSerializer = new NofspFrameSerializer(pool);
+        encryption = new PlainTextEncryption();
+        decryption = new PlainTextDecryption();
+        deserializer = new NofspServerDeserializer((clientAddress, deviceAddress) -> DeviceClass.S1);
+
+        messages = new ArrayList<>();
+        for (int i = 0; i < MESSAGES_PER_FIELD_NODE; i++) {
+            for (int fieldNode = 0; fieldNode < FIELD_NODES; fieldNode++) {
+                messages.add(new SduSensorDataMessage(fieldNode, i % 4, fieldNode + i / 10d));
+            }
+        }
+    }
+
+    /**
+     * Passes a message through the codec path, borrowing every intermediate array from the pool.
+     *
+     * @param message the message to pass
+     * @return the message as received
+     */
+    private SensorDataMessage pooledRoundTrip(SensorDataMessage message) throws IOException, EncryptionException {
+        TlvView encryptedTlv = TlvEncryption.encryptTlv(frameSerializer.serializeToView(message), encryption, pool);
+        byte[] datagram = pool.acquire(encryptedTlv.getLength());
+        int datagramLength = encryptedTlv.writeTo(datagram, 0);
+        pool.release(encryptedTlv.getValueBuffer());
+
+        TlvView receivedTlv = new TlvReader(datagram, 0, datagramLength, NofspSerializationConstants.TLV_FRAME)
+                .readNextView();
+        TlvView decryptedTlv = TlvEncryption.decryptTlv(receivedTlv, decryption, pool);
+        SensorDataMessage result = deserializer.deserializeSensorData(decryptedTlv);
+        pool.release(decryptedTlv.getValueBuffer());
+        pool.release(datagram);
+
+        return result;
+    }
+
+    /**
+     * Tests that every message survives the pooled codec path, that the pool serves almost all acquisitions once
+     * warmed up, and that no borrowed array is leaked.
+     */
+    @Test
+    public void testPooledLoad() throws IOException, EncryptionException {
+        pooledRoundTrip(messages.get(0));
+        int outstandingBefore = pool.getOutstandingArrays();
+        ByteArrayPoolMetrics metricsBefore = pool.getMetrics();
+
+        for (SensorDataMessage message : messages) {
+            assertEquals(message, pooledRoundTrip(message));
+        }
+
+        assertEquals(outstandingBefore, pool.getOutstandingArrays());
+        assertEquals(metricsBefore.misses(), pool.getMetrics().misses());
+    }
+}
@@ -0,0 +1,112 @@
+package no.ntnu.network.bufferpool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the SizeClassedByteArrayPool class.
+ */
+public class SizeClassedByteArrayPoolTest {
+    SizeClassedByteArrayPool pool;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        pool = new SizeClassedByteArrayPool(true);
+    }
+
+    /**
+     * Tests that requested lengths are rounded up to the length of their size class, while lengths too big for any
+     * size class are served exactly.
+     */
+    @Test
+    public void testSizeClasses() {
+        assertEquals(64, acquireAndRelease(0));
+        assertEquals(64, acquireAndRelease(64));
+        assertEquals(128, acquireAndRelease(65));
+        assertEquals(65536, acquireAndRelease(65536));
+        assertEquals(65537, acquireAndRelease(65537));
+    }
+
+    /**
+     * Acquires an array and releases it right away.
+     *
+     * @param minimumLength the minimum length of the array
+     * @return the length of the acquired array
+     */
+    private int acquireAndRelease(int minimumLength) {
+        byte[] array = pool.acquire(minimumLength);
+        pool.release(array);
+
+        return array.length;
+    }
+
+    /**
+     * Tests that a released array is handed out again by the same thread, counting as a thread-local hit.
+     */
+    @Test
+    public void testThreadLocalReuse() {
+        byte[] first = pool.acquire(100);
+        pool.release(first);
+        byte[] second = pool.acquire(120);
+
+        assertSame(first, second);
+        assertEquals(new ByteArrayPoolMetrics(1, 0, 1), pool.getMetrics());
+    }
+
+    /**
+     * Tests that arrays released by one thread can be acquired by another thread through the shared cache, once
+     * the cache of the releasing thread is full.
+     */
+    @Test
+    public void testSharedFallback() throws InterruptedException {
+        byte[][] arrays = new byte[20][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = pool.acquire(256);
+        }
+        for (byte[] array : arrays) {
+            pool.release(array);
+        }
+
+        Thread otherThread = new Thread(() -> pool.release(pool.acquire(256)));
+        otherThread.start();
+        otherThread.join();
+
+        assertEquals(1, pool.getMetrics().sharedHits());
+        assertEquals(arrays.length, pool.getMetrics().misses());
+    }
+
+    /**
+     * Tests that the pool keeps count of arrays that are acquired but not yet released.
+     */
+    @Test
+    public void testLeakDetection() {
+        byte[] released = pool.acquire(10);
+        pool.acquire(1000);
+        pool.release(released);
+
+        assertEquals(1, pool.getOutstandingArrays());
+    }
+
+    /**
+     * Tests that releasing an array twice is rejected.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testDoubleRelease() {
+        byte[] array = pool.acquire(10);
+        pool.release(array);
+        pool.release(array);
+    }
+
+    /**
+     * Tests that releasing an array that was not acquired from the pool is rejected.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testForeignRelease() {
+        pool.release(new byte[64]);
+    }
+}
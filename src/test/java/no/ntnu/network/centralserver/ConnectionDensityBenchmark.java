@@ -0,0 +1,167 @@
+package no.ntnu.network.centralserver;
+
+import no.ntnu.network.centralserver.centralhub.CentralHub;
+import no.ntnu.network.controlprocess.nio.NioConnection;
+import no.ntnu.network.controlprocess.nio.NioEventLoopGroup;
+import no.ntnu.network.executor.ConnectionExecutor;
+import no.ntnu.network.executor.PlatformThreadExecutor;
+import no.ntnu.network.executor.VirtualThreadExecutor;
+import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+import no.ntnu.network.message.serialize.visitor.NofspSerializer;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection density benchmark of the ClientHandler class.
+ * Every benchmark opens a number of loopback clients, serves them using a given execution mode, and reports the
+ * number of threads and the amount of memory used by the server side.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class ConnectionDensityBenchmark {
+    private static final int CONNECTIONS = 100;
+    CentralHub centralHub;
+    ByteSerializerVisitor serializer;
+    NofspServerDeserializer deserializer;
+    List<Socket> clients;
+    List<ClientHandler> clientHandlers;
+    NioEventLoopGroup eventLoopGroup;
+
+    /**
+     * Setting up for the following benchmark methods.
+     */
+    @Before
+    public void setup() {
+        centralHub = new CentralHub();
+        serializer = new NofspSerializer();
+        deserializer = new NofspServerDeserializer(centralHub);
+        clients = new ArrayList<>();
+        clientHandlers = new ArrayList<>();
+    }
+
+    /**
+     * Closes all connections opened by a benchmark.
+     */
+    @After
+    public void tearDown() throws IOException {
+        for (ClientHandler clientHandler : clientHandlers) {
+            if (clientHandler.isConnected()) {
+                clientHandler.close();
+            }
+        }
+
+        for (Socket client : clients) {
+            client.close();
+        }
+
+        if (eventLoopGroup != null) {
+            eventLoopGroup.stop();
+        }
+    }
+
+    /**
+     * Serves all clients with blocking sockets, using the given executor.
+     *
+     * @param executor the executor running the work of the connections
+     */
+    private void serveBlockingClients(ConnectionExecutor executor) throws IOException {
+        int threadsBefore = Thread.activeCount();
+        long memoryBefore = usedMemory();
+
+        try (ServerSocket serverSocket = new ServerSocket(0, CONNECTIONS, InetAddress.getLoopbackAddress())) {
+            for (int i = 0; i < CONNECTIONS; i++) {
+                clients.add(new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort()));
+                ClientHandler clientHandler = new ClientHandler(serverSocket.accept(), centralHub, serializer,
+                        deserializer, executor);
+                clientHandler.run();
+                clientHandlers.add(clientHandler);
+            }
+        }
+
+        report(executor.getClass().getSimpleName(), threadsBefore, memoryBefore);
+    }
+
+    /**
+     * Reports the threads and memory used since a measurement was taken.
+     *
+     * @param mode the name of the execution mode
+     * @param threadsBefore the number of threads at the time of measurement
+     * @param memoryBefore the amount of used memory at the time of measurement
+     */
+    private void report(String mode, int threadsBefore, long memoryBefore) {
+        int threadsAdded = Thread.activeCount() - threadsBefore;
+        long memoryAdded = usedMemory() - memoryBefore;
+
+        System.out.println(mode + ": " + CONNECTIONS + " connections, " + threadsAdded + " platform threads added, " +
+                (memoryAdded / 1024) + " KiB of memory added.");
+    }
+
+    /**
+     * Returns the amount of used heap memory.
+     *
+     * @return the used memory in bytes
+     */
+    private long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Reports the threads and memory used to serve clients on platform threads.
+     */
+    @Test
+    public void benchmarkPlatformThreads() throws IOException {
+        serveBlockingClients(new PlatformThreadExecutor());
+    }
+
+    /**
+     * Reports the threads and memory used to serve clients on virtual threads.
+     * The benchmark is skipped if the runtime does not support virtual threads.
+     */
+    @Test
+    public void benchmarkVirtualThreads() throws IOException {
+        Assume.assumeTrue(VirtualThreadExecutor.isSupported());
+
+        serveBlockingClients(new VirtualThreadExecutor());
+    }
+
+    /**
+     * Reports the threads and memory used to serve clients with the selector transport.
+     */
+    @Test
+    public void benchmarkSelector() throws IOException {
+        eventLoopGroup = new NioEventLoopGroup(2);
+        int threadsBefore = Thread.activeCount();
+        long memoryBefore = usedMemory();
+
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            eventLoopGroup.start();
+            serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), CONNECTIONS);
+            ConnectionExecutor executor = new PlatformThreadExecutor();
+
+            for (int i = 0; i < CONNECTIONS; i++) {
+                clients.add(new Socket(InetAddress.getLoopbackAddress(), serverChannel.socket().getLocalPort()));
+                NioConnection connection = new NioConnection(serverChannel.accept(), eventLoopGroup.next());
+                ClientHandler clientHandler = new ClientHandler(connection, centralHub, serializer, deserializer, executor);
+                clientHandler.run();
+                clientHandlers.add(clientHandler);
+            }
+
+            report("Selector", threadsBefore, memoryBefore);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package no.ntnu.network.centralserver;
+
+import no.ntnu.network.centralserver.centralhub.CentralHub;
+import no.ntnu.network.controlprocess.nio.NioConnection;
+import no.ntnu.network.controlprocess.nio.NioEventLoopGroup;
+import no.ntnu.network.executor.ConnectionExecutor;
+import no.ntnu.network.executor.PlatformThreadExecutor;
+import no.ntnu.network.executor.VirtualThreadExecutor;
+import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+import no.ntnu.network.message.serialize.visitor.NofspSerializer;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Connection density testing for the ClientHandler class.
+ * Every test opens a number of loopback clients, and verifies that all of them are served using a given execution
+ * mode. The threads and memory used by each mode are reported by ConnectionDensityBenchmark.
+ */
+public class ConnectionDensityTest {
+    private static final int CONNECTIONS = 100;
+    CentralHub centralHub;
+    ByteSerializerVisitor serializer;
+    NofspServerDeserializer deserializer;
+    List<Socket> clients;
+    List<ClientHandler> clientHandlers;
+    NioEventLoopGroup eventLoopGroup;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        centralHub = new CentralHub();
+        serializer = new NofspSerializer();
+        deserializer = new NofspServerDeserializer(centralHub);
+        clients = new ArrayList<>();
+        clientHandlers = new ArrayList<>();
+    }
+
+    /**
+     * Closes all connections opened by a test.
+     */
+    @After
+    public void tearDown() throws IOException {
+        for (ClientHandler clientHandler : clientHandlers) {
+            if (clientHandler.isConnected()) {
+                clientHandler.close();
+            }
+        }
+
+        for (Socket client : clients) {
+            client.close();
+        }
+
+        if (eventLoopGroup != null) {
+            eventLoopGroup.stop();
+        }
+    }
+
+    /**
+     * Serves all clients with blocking sockets, using the given executor.
+     *
+     * @param executor the executor running the work of the connections
+     */
+    private void serveBlockingClients(ConnectionExecutor executor) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0, CONNECTIONS, InetAddress.getLoopbackAddress())) {
+            for (int i = 0; i < CONNECTIONS; i++) {
+                clients.add(new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort()));
+                ClientHandler clientHandler = new ClientHandler(serverSocket.accept(), centralHub, serializer,
+                        deserializer, executor);
+                clientHandler.run();
+                clientHandlers.add(clientHandler);
+            }
+        }
+    }
+
+    /**
+     * Asserts that all client handlers are connected.
+     */
+    private void assertAllConnected() {
+        assertEquals(CONNECTIONS, clientHandlers.size());
+        clientHandlers.forEach(clientHandler -> assertTrue(clientHandler.isConnected()));
+    }
+
+    /**
+     * Tests that all clients are served on platform threads.
+     */
+    @Test
+    public void testPlatformThreads() throws IOException {
+        serveBlockingClients(new PlatformThreadExecutor());
+
+        assertAllConnected();
+    }
+
+    /**
+     * Tests that all clients are served on virtual threads.
+     * The test is skipped if the runtime does not support virtual threads.
+     */
+    @Test
+    public void testVirtualThreads() throws IOException {
+        Assume.assumeTrue(VirtualThreadExecutor.isSupported());
+
+        serveBlockingClients(new VirtualThreadExecutor());
+
+        assertAllConnected();
+    }
+
+    /**
+     * Tests that all clients are served with the selector transport.
+     */
+    @Test
+    public void testSelector() throws IOException {
+        eventLoopGroup = new NioEventLoopGroup(2);
+
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            eventLoopGroup.start();
+            serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), CONNECTIONS);
+            ConnectionExecutor executor = new PlatformThreadExecutor();
+
+            for (int i = 0; i < CONNECTIONS; i++) {
+                clients.add(new Socket(InetAddress.getLoopbackAddress(), serverChannel.socket().getLocalPort()));
+                NioConnection connection = new NioConnection(serverChannel.accept(), eventLoopGroup.next());
+                ClientHandler clientHandler = new ClientHandler(connection, centralHub, serializer, deserializer, executor);
+                clientHandler.run();
+                clientHandlers.add(clientHandler);
+            }
+
+            assertAllConnected();
+        }
+    }
+}
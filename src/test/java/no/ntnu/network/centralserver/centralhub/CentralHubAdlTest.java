@@ -0,0 +1,361 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.exception.SubscriptionException;
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.TestControlCommAgent;
+import no.ntnu.network.TestDataCommAgent;
+import no.ntnu.network.message.request.AdlUpdateRequest;
+import no.ntnu.network.message.request.RequestMessage;
+import no.ntnu.network.message.response.ResponseMessage;
+import no.ntnu.network.representation.FieldNodeInformation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the ADL maintenance of the CentralHub class.
+ * The ADL updates sent by the hub under randomized subscription churn are compared to those of a reference model,
+ * computing the ADL from scratch after every change the way the hub used to.
+ */
+public class CentralHubAdlTest {
+    private static final DeviceClass[] DEVICE_CLASSES = DeviceClass.values();
+    private static final int FIELD_NODES = 5;
+    private static final int CONTROL_PANELS = 8;
+    private static final int OPERATIONS = 5000;
+    CentralHub hub;
+    Random random;
+    List<FieldNode> fieldNodes;
+    List<ControlPanel> controlPanels;
+
+    /**
+     * A simulated field node, applying the ADL updates it is sent to its own ADL and confirming them to the hub.
+     */
+    private static class FieldNode extends TestControlCommAgent {
+        final CentralHub hub;
+        final Map<Integer, DeviceClass> fnst;
+        final Set<Integer> adl;
+        final List<Set<Integer>> receivedUpdates;
+        int address;
+        boolean unreachable;
+        boolean losingUpdates;
+        boolean confirming;
+
+        /**
+         * Creates a new FieldNode.
+         *
+         * @param hub the hub to confirm ADL updates to
+         * @param fnst the field node system table of the field node
+         */
+        FieldNode(CentralHub hub, Map<Integer, DeviceClass> fnst) {
+            this.hub = hub;
+            this.fnst = fnst;
+            this.adl = new HashSet<>();
+            this.receivedUpdates = new ArrayList<>();
+            this.unreachable = false;
+            this.losingUpdates = false;
+            this.confirming = true;
+        }
+
+        /**
+         * Confirms the current ADL of the field node to the hub, like an {@code AdlUpdatedResponse}.
+         */
+        void confirmAdl() {
+            hub.updateLocalAdl(address, new HashSet<>(adl));
+        }
+
+        @Override
+        public CompletableFuture<ResponseMessage> sendRequest(RequestMessage request) throws IOException {
+            if (unreachable) {
+                throw new IOException("Field node is unreachable.");
+            }
+
+            if (request instanceof AdlUpdateRequest adlUpdateRequest && !losingUpdates) {
+                receivedUpdates.add(adlUpdateRequest.getAdlUpdates());
+                adlUpdateRequest.getAdlUpdates().forEach(update -> {
+                    if (update > 0) {
+                        adl.add(update);
+                    } else {
+                        adl.remove(update * -1);
+                    }
+                });
+
+                if (confirming) {
+                    confirmAdl();
+                }
+            }
+
+            return new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * A simulated control panel with a compatibility list of its own.
+     */
+    private static class ControlPanel {
+        final Set<DeviceClass> compatibilityList;
+        final Set<Integer> subscriptions;
+        TestControlCommAgent agent;
+
+        /**
+         * Creates a new ControlPanel.
+         *
+         * @param compatibilityList the compatibility list of the control panel
+         */
+        ControlPanel(Set<DeviceClass> compatibilityList) {
+            this.compatibilityList = compatibilityList;
+            this.subscriptions = new HashSet<>();
+        }
+    }
+
+    /**
+     * Setting up for the following test methods.
+     * Every field node gets a random FNST, with device addresses starting at 1, since the address 0 cannot be
+     * negated in an ADL update.
+     */
+    @Before
+    public void setup() {
+        hub = new CentralHub();
+        random = new Random(2304);
+        fieldNodes = new ArrayList<>();
+        controlPanels = new ArrayList<>();
+
+        for (int i = 0; i < FIELD_NODES; i++) {
+            Map<Integer, DeviceClass> fnst = new HashMap<>();
+            int devices = 1 + random.nextInt(8);
+            for (int address = 1; address <= devices; address++) {
+                fnst.put(address, DEVICE_CLASSES[random.nextInt(DEVICE_CLASSES.length)]);
+            }
+
+            FieldNode fieldNode = new FieldNode(hub, fnst);
+            fieldNode.address = hub.registerFieldNode(new FieldNodeInformation(fnst, new HashMap<>(), "Node " + i),
+                    fieldNode);
+            fieldNodes.add(fieldNode);
+        }
+
+        for (int i = 0; i < CONTROL_PANELS; i++) {
+            ControlPanel controlPanel = new ControlPanel(randomCompatibilityList());
+            registerControlPanel(controlPanel);
+            controlPanels.add(controlPanel);
+        }
+    }
+
+    /**
+     * Returns a random compatibility list.
+     *
+     * @return the compatibility list
+     */
+    private Set<DeviceClass> randomCompatibilityList() {
+        Set<DeviceClass> compatibilityList = EnumSet.noneOf(DeviceClass.class);
+        for (DeviceClass deviceClass : DEVICE_CLASSES) {
+            if (random.nextInt(3) == 0) {
+                compatibilityList.add(deviceClass);
+            }
+        }
+
+        return compatibilityList;
+    }
+
+    /**
+     * Registers a control panel with the hub, under a new agent.
+     *
+     * @param controlPanel the control panel to register
+     */
+    private void registerControlPanel(ControlPanel controlPanel) {
+        controlPanel.agent = new TestControlCommAgent();
+        controlPanel.agent.setClientNodeAddress(hub.registerControlPanel(controlPanel.compatibilityList,
+                controlPanel.agent, new TestDataCommAgent()));
+        controlPanel.subscriptions.clear();
+    }
+
+    /**
+     * Computes the ADL of a field node from scratch, from the compatibility lists of all its subscribers.
+     *
+     * @param fieldNode the field node
+     * @return the ADL
+     */
+    private Set<Integer> referenceAdl(FieldNode fieldNode) {
+        Set<DeviceClass> activeClasses = new HashSet<>();
+        controlPanels.stream()
+                .filter(controlPanel -> controlPanel.subscriptions.contains(fieldNode.address))
+                .forEach(controlPanel -> activeClasses.addAll(controlPanel.compatibilityList));
+
+        Set<Integer> adl = new HashSet<>();
+        fieldNode.fnst.forEach((address, deviceClass) -> {
+            if (activeClasses.contains(deviceClass)) {
+                adl.add(address);
+            }
+        });
+
+        return adl;
+    }
+
+    /**
+     * Computes the ADL update taking a field node from its previous ADL to a new ADL.
+     *
+     * @param previousAdl the previous ADL
+     * @param newAdl the new ADL
+     * @return the ADL update
+     */
+    private static Set<Integer> referenceAdlUpdate(Set<Integer> previousAdl, Set<Integer> newAdl) {
+        Set<Integer> adlUpdate = new HashSet<>(newAdl);
+        adlUpdate.removeAll(previousAdl);
+
+        previousAdl.stream().filter(address -> !newAdl.contains(address)).forEach(address -> adlUpdate.add(-address));
+
+        return adlUpdate;
+    }
+
+    /**
+     * Tests that the ADL updates sent under randomized subscription churn are exactly those of the reference model,
+     * and that no ADL update is sent when the ADL of a field node does not change.
+     *
+     * @throws SubscriptionException thrown if subscribing fails
+     */
+    @Test
+    public void testAdlUpdatesUnderChurn() throws SubscriptionException {
+        int sentUpdates = 0;
+
+        for (int operation = 0; operation < OPERATIONS; operation++) {
+            ControlPanel controlPanel = controlPanels.get(random.nextInt(CONTROL_PANELS));
+            FieldNode fieldNode = fieldNodes.get(random.nextInt(FIELD_NODES));
+
+            Map<FieldNode, Set<Integer>> previousAdls = new HashMap<>();
+            fieldNodes.forEach(node -> previousAdls.put(node, referenceAdl(node)));
+            Map<FieldNode, Integer> previousUpdateCounts = new HashMap<>();
+            fieldNodes.forEach(node -> previousUpdateCounts.put(node, node.receivedUpdates.size()));
+
+            int choice = random.nextInt(10);
+            if (choice == 0) {
+                hub.deregisterClient(controlPanel.agent.getClientNodeAddress());
+                registerControlPanel(controlPanel);
+            } else if (controlPanel.subscriptions.contains(fieldNode.address)) {
+                hub.unsubscribeFromFieldNode(controlPanel.agent, fieldNode.address);
+                controlPanel.subscriptions.remove(fieldNode.address);
+            } else {
+                hub.subscribeToFieldNode(controlPanel.agent, fieldNode.address);
+                controlPanel.subscriptions.add(fieldNode.address);
+            }
+
+            for (FieldNode node : fieldNodes) {
+                Set<Integer> expectedUpdate = referenceAdlUpdate(previousAdls.get(node), referenceAdl(node));
+                List<Set<Integer>> newUpdates = node.receivedUpdates.subList(previousUpdateCounts.get(node),
+                        node.receivedUpdates.size());
+
+                if (expectedUpdate.isEmpty()) {
+                    assertTrue("Unexpected ADL update in operation " + operation, newUpdates.isEmpty());
+                } else {
+                    assertEquals("Wrong ADL update in operation " + operation, List.of(expectedUpdate), newUpdates);
+                    sentUpdates++;
+                }
+
+                assertEquals(referenceAdl(node), node.adl);
+            }
+        }
+
+        assertTrue(sentUpdates > 0);
+    }
+
+    /**
+     * Tests that deregistering the only subscriber of a field node removes its devices from the ADL of the field node.
+     *
+     * @throws SubscriptionException thrown if subscribing fails
+     */
+    @Test
+    public void testDeregisteringSubscriberUpdatesAdl() throws SubscriptionException {
+        FieldNode fieldNode = fieldNodes.get(0);
+        ControlPanel controlPanel = new ControlPanel(EnumSet.allOf(DeviceClass.class));
+        registerControlPanel(controlPanel);
+
+        hub.subscribeToFieldNode(controlPanel.agent, fieldNode.address);
+        assertEquals(fieldNode.fnst.keySet(), fieldNode.adl);
+
+        hub.deregisterClient(controlPanel.agent.getClientNodeAddress());
+        assertTrue(fieldNode.adl.isEmpty());
+    }
+
+    /**
+     * Tests that a subscription whose ADL update cannot be sent is withdrawn, so that subscribing again succeeds once
+     * the field node can be reached.
+     *
+     * @throws SubscriptionException thrown if subscribing fails
+     */
+    @Test
+    public void testUnsentAdlUpdateWithdrawsSubscription() throws SubscriptionException {
+        FieldNode fieldNode = fieldNodes.get(0);
+        ControlPanel controlPanel = new ControlPanel(EnumSet.allOf(DeviceClass.class));
+        registerControlPanel(controlPanel);
+
+        fieldNode.unreachable = true;
+        assertThrows(SubscriptionException.class, () -> hub.subscribeToFieldNode(controlPanel.agent,
+                fieldNode.address));
+        assertTrue(hub.getFieldNodeSubscribers(fieldNode.address).isEmpty());
+
+        fieldNode.unreachable = false;
+        assertNotNull(hub.subscribeToFieldNode(controlPanel.agent, fieldNode.address));
+        assertEquals(Set.of(controlPanel.agent.getClientNodeAddress()), hub.getFieldNodeSubscribers(fieldNode.address));
+        assertEquals(fieldNode.fnst.keySet(), fieldNode.adl);
+    }
+
+    /**
+     * Tests that the devices of an ADL update lost on the way to a field node are sent again with the next update.
+     *
+     * @throws SubscriptionException thrown if subscribing fails
+     */
+    @Test
+    public void testLostAdlUpdateSentAgain() throws SubscriptionException {
+        FieldNode fieldNode = fieldNodes.get(0);
+        ControlPanel first = new ControlPanel(EnumSet.of(DeviceClass.S1, DeviceClass.S2, DeviceClass.S3));
+        ControlPanel second = new ControlPanel(EnumSet.complementOf(EnumSet.of(DeviceClass.S1, DeviceClass.S2,
+                DeviceClass.S3)));
+        controlPanels.add(first);
+        controlPanels.add(second);
+        registerControlPanel(first);
+        registerControlPanel(second);
+
+        fieldNode.losingUpdates = true;
+        hub.subscribeToFieldNode(first.agent, fieldNode.address);
+        first.subscriptions.add(fieldNode.address);
+
+        fieldNode.losingUpdates = false;
+        hub.subscribeToFieldNode(second.agent, fieldNode.address);
+        second.subscriptions.add(fieldNode.address);
+
+        assertEquals(fieldNode.fnst.keySet(), fieldNode.adl);
+        assertEquals(referenceAdl(fieldNode), fieldNode.adl);
+    }
+
+    /**
+     * Tests that a field node confirming an ADL update after the subscriptions have changed again is sent the
+     * difference, instead of being left with devices no subscriber is compatible with.
+     *
+     * @throws SubscriptionException thrown if subscribing fails
+     */
+    @Test
+    public void testLateConfirmationCorrected() throws SubscriptionException {
+        FieldNode fieldNode = fieldNodes.get(0);
+        ControlPanel controlPanel = new ControlPanel(EnumSet.allOf(DeviceClass.class));
+        registerControlPanel(controlPanel);
+
+        fieldNode.confirming = false;
+        hub.subscribeToFieldNode(controlPanel.agent, fieldNode.address);
+        hub.unsubscribeFromFieldNode(controlPanel.agent, fieldNode.address);
+        assertEquals(fieldNode.fnst.keySet(), fieldNode.adl);
+
+        fieldNode.confirming = true;
+        fieldNode.confirmAdl();
+
+        assertTrue(fieldNode.adl.isEmpty());
+    }
+}
@@ -0,0 +1,180 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.exception.SubscriptionException;
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.TestControlCommAgent;
+import no.ntnu.network.TestDataCommAgent;
+import no.ntnu.network.representation.FieldNodeInformation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Contention testing for the CentralHub class.
+ * The tests route a saturated stream of sensor data through the hub, with and without registration churn running
+ * alongside it, and verify that no sensor data is lost to the churn. The routing throughput is reported by
+ * CentralHubContentionBenchmark.
+ */
+public class CentralHubContentionTest {
+    private static final int FIELD_NODES = 20;
+    private static final int SENSOR_THREADS = 2;
+    private static final long RUN_MILLIS = 1000;
+    CentralHub hub;
+    List<Integer> fieldNodeAddresses;
+    LongAdder stableDeliveries;
+    LongAdder sent;
+
+    /**
+     * Setting up for the following test methods.
+     * Every field node gets one stable subscriber, which stays subscribed throughout the test.
+     *
+     * @throws SubscriptionException thrown if subscribing fails
+     */
+    @Before
+    public void setup() throws SubscriptionException {
+        hub = new CentralHub();
+        fieldNodeAddresses = new ArrayList<>();
+        stableDeliveries = new LongAdder();
+        sent = new LongAdder();
+
+        for (int i = 0; i < FIELD_NODES; i++) {
+            fieldNodeAddresses.add(registerFieldNode());
+        }
+
+        TestControlCommAgent stableAgent = new TestControlCommAgent();
+        int stableAddress = hub.registerControlPanel(Set.of(DeviceClass.S1), stableAgent,
+                sensorData -> stableDeliveries.increment());
+        stableAgent.setClientNodeAddress(stableAddress);
+        for (int fieldNodeAddress : fieldNodeAddresses) {
+            hub.subscribeToFieldNode(stableAgent, fieldNodeAddress);
+        }
+    }
+
+    /**
+     * Registers a field node with a single S1 sensor at address 1.
+     *
+     * @return the address of the field node
+     */
+    private int registerFieldNode() {
+        Map<Integer, DeviceClass> fnst = new HashMap<>();
+        fnst.put(1, DeviceClass.S1);
+        fnst.put(2, DeviceClass.A1);
+
+        Map<Integer, Integer> fnsm = new HashMap<>();
+        fnsm.put(2, 0);
+
+        return hub.registerFieldNode(new FieldNodeInformation(fnst, fnsm, "Field node"), new TestControlCommAgent());
+    }
+
+    /**
+     * Keeps routing sensor data from all field nodes through the hub, until told to stop.
+     *
+     * @param running whether to keep running
+     * @param failure the first failure of any thread
+     */
+    private void routeSensorData(AtomicBoolean running, AtomicReference<Throwable> failure) {
+        try {
+            int i = 0;
+            while (running.get()) {
+                int fieldNodeAddress = fieldNodeAddresses.get(i % FIELD_NODES);
+                if (hub.lookup(fieldNodeAddress, 1) != DeviceClass.S1) {
+                    throw new IllegalStateException("Sensor was not identified.");
+                }
+
+                hub.receiveSduData(fieldNodeAddress, 1, i);
+                sent.increment();
+                i++;
+            }
+        } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+        }
+    }
+
+    /**
+     * Keeps registering control panels and field nodes, subscribing and unsubscribing, and deregistering them again,
+     * until told to stop.
+     *
+     * @param running whether to keep running
+     * @param failure the first failure of any thread
+     */
+    private void churn(AtomicBoolean running, AtomicReference<Throwable> failure) {
+        try {
+            int i = 0;
+            while (running.get()) {
+                TestControlCommAgent agent = new TestControlCommAgent();
+                int controlPanelAddress = hub.registerControlPanel(Set.of(DeviceClass.S1, DeviceClass.A1), agent,
+                        new TestDataCommAgent());
+                agent.setClientNodeAddress(controlPanelAddress);
+
+                int fieldNodeAddress = fieldNodeAddresses.get(i % FIELD_NODES);
+                hub.subscribeToFieldNode(agent, fieldNodeAddress);
+                hub.unsubscribeFromFieldNode(agent, fieldNodeAddress);
+                hub.subscribeToFieldNode(agent, fieldNodeAddress);
+                hub.deregisterClient(controlPanelAddress);
+
+                int temporaryFieldNode = registerFieldNode();
+                hub.deregisterClient(temporaryFieldNode);
+
+                i++;
+            }
+        } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+        }
+    }
+
+    /**
+     * Runs the sensor data stream for a while, optionally with churn alongside it, asserting that every sensor data
+     * sent was delivered to the stable subscriber.
+     *
+     * @param withChurn whether to run churn alongside the sensor data stream
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    private void runStream(boolean withChurn) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < SENSOR_THREADS; i++) {
+            threads.add(new Thread(() -> routeSensorData(running, failure)));
+        }
+        if (withChurn) {
+            threads.add(new Thread(() -> churn(running, failure)));
+        }
+
+        threads.forEach(Thread::start);
+        Thread.sleep(RUN_MILLIS);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull("A thread failed: " + failure.get(), failure.get());
+        assertEquals(sent.sum(), stableDeliveries.sum());
+    }
+
+    /**
+     * Tests that the sensor data stream is routed without failures or losses, both on its own and while clients
+     * churn.
+     */
+    @Test
+    public void testSensorStreamWithChurn() throws InterruptedException {
+        runStream(false);
+
+        sent.reset();
+        stableDeliveries.reset();
+        runStream(true);
+
+        assertEquals(FIELD_NODES, hub.getFieldNodePool().size());
+        fieldNodeAddresses.forEach(address -> assertEquals(1, hub.getFieldNodeSubscribers(address).size()));
+    }
+}
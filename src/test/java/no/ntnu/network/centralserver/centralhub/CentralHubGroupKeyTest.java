@@ -0,0 +1,222 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.exception.SubscriptionException;
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.TestControlCommAgent;
+import no.ntnu.network.TestDataCommAgent;
+import no.ntnu.network.message.encryption.cipher.encrypt.DatagramEncryption;
+import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
+import no.ntnu.network.message.request.SensorDataKeyRequest;
+import no.ntnu.network.message.sensordata.SduSensorDataMessage;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+import no.ntnu.network.representation.FieldNodeInformation;
+import no.ntnu.network.sensordataprocess.SharedUdpSensorDataSender;
+import no.ntnu.network.sensordataprocess.UdpSensorDataTarget;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the group keys of the CentralHub class.
+ * Encrypted control panels subscribed to the same field node are sent its group key, and once they have accepted it,
+ * every reading of the field node is encrypted once for all of them. The number of encryptions made by the shared
+ * sender tells whether the control panels were sent the readings encrypted for the group or for each of them.
+ */
+public class CentralHubGroupKeyTest {
+    CentralHub hub;
+    SharedUdpSensorDataSender sender;
+    DatagramSocket destination;
+    int fieldNodeAddress;
+    SduSensorDataMessage reading;
+
+    /**
+     * Setting up for the following test methods.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Before
+    public void setup() throws IOException {
+        hub = new CentralHub(2);
+        sender = new SharedUdpSensorDataSender(new NofspFrameSerializer());
+        destination = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+
+        Map<Integer, DeviceClass> fnst = new HashMap<>();
+        fnst.put(1, DeviceClass.S1);
+        fieldNodeAddress = hub.registerFieldNode(new FieldNodeInformation(fnst, new HashMap<>(), "Field node"),
+                new TestControlCommAgent());
+        reading = new SduSensorDataMessage(fieldNodeAddress, 1, 21.5);
+    }
+
+    /**
+     * Closes the hub and the sockets used by a test.
+     */
+    @After
+    public void tearDown() {
+        hub.close();
+        sender.close();
+        destination.close();
+    }
+
+    /**
+     * Registers a control panel whose sensor data is sent through the shared sender, encrypted with a session key.
+     *
+     * @return the control communication agent of the control panel
+     * @throws NoSuchAlgorithmException thrown if the session key cannot be generated
+     */
+    private TestControlCommAgent registerEncryptedControlPanel() throws NoSuchAlgorithmException {
+        AESKeyGenerator keyGenerator = new AESKeyGenerator();
+        keyGenerator.createKey();
+
+        TestControlCommAgent agent = new TestControlCommAgent();
+        UdpSensorDataTarget target = sender.createTarget(InetAddress.getLoopbackAddress(), destination.getLocalPort());
+        agent.setClientNodeAddress(hub.registerControlPanel(Set.of(DeviceClass.S1), agent, target));
+        target.setEncryption(new DatagramEncryption(keyGenerator.getKey(), agent.getClientNodeAddress()));
+
+        return agent;
+    }
+
+    /**
+     * Returns the group key last sent to a control panel.
+     *
+     * @param agent the control communication agent of the control panel
+     * @return the last key request sent to the control panel
+     */
+    private static SensorDataKeyRequest getKeyRequest(TestControlCommAgent agent) {
+        assertTrue(agent.getRequestSent() instanceof SensorDataKeyRequest);
+
+        return (SensorDataKeyRequest) agent.getRequestSent();
+    }
+
+    /**
+     * Routes a reading of the field node, returning the number of encryptions it took.
+     *
+     * @return the number of encryptions made for the reading
+     */
+    private long routeReading() {
+        long encryptionsBefore = sender.getEncryptedMessages();
+        hub.receiveSensorData(reading);
+
+        return sender.getEncryptedMessages() - encryptionsBefore;
+    }
+
+    /**
+     * Tests that every encrypted subscriber is sent the same group key, and that readings are encrypted once for all
+     * subscribers as soon as they have accepted it.
+     *
+     * @throws SubscriptionException thrown if subscribing fails
+     * @throws NoSuchAlgorithmException thrown if a key cannot be generated
+     */
+    @Test
+    public void testEncryptOnce() throws SubscriptionException, NoSuchAlgorithmException {
+        TestControlCommAgent first = registerEncryptedControlPanel();
+        TestControlCommAgent second = registerEncryptedControlPanel();
+
+        hub.subscribeToFieldNode(first, fieldNodeAddress);
+        hub.subscribeToFieldNode(second, fieldNodeAddress);
+        SensorDataKeyRequest firstKey = getKeyRequest(first);
+        SensorDataKeyRequest secondKey = getKeyRequest(second);
+
+        assertEquals(fieldNodeAddress, firstKey.getFieldNodeAddress());
+        assertEquals(firstKey.getEpoch(), secondKey.getEpoch());
+        assertEquals(firstKey.getGroupKey(), secondKey.getGroupKey());
+        assertEquals(2, routeReading());
+
+        hub.acceptSensorDataKey(first, fieldNodeAddress, firstKey.getEpoch());
+        hub.acceptSensorDataKey(second, fieldNodeAddress, secondKey.getEpoch());
+        long sentBefore = sender.getSentDatagrams();
+
+        assertEquals(1, routeReading());
+        assertEquals(2, sender.getSentDatagrams() - sentBefore);
+    }
+
+    /**
+     * Tests that the group key is replaced when a subscriber leaves, that the remaining subscribers are sent readings
+     * encrypted for each of them until they accept the new key, and that the old key is no longer accepted.
+     *
+     * @throws SubscriptionException thrown if subscribing fails
+     * @throws NoSuchAlgorithmException thrown if a key cannot be generated
+     */
+    @Test
+    public void testRotationOnUnsubscribe() throws SubscriptionException, NoSuchAlgorithmException {
+        TestControlCommAgent first = registerEncryptedControlPanel();
+        TestControlCommAgent second = registerEncryptedControlPanel();
+        TestControlCommAgent leaving = registerEncryptedControlPanel();
+        for (TestControlCommAgent agent : new TestControlCommAgent[] {first, second, leaving}) {
+            hub.subscribeToFieldNode(agent, fieldNodeAddress);
+        }
+        SensorDataKeyRequest oldKey = getKeyRequest(leaving);
+        for (TestControlCommAgent agent : new TestControlCommAgent[] {first, second, leaving}) {
+            hub.acceptSensorDataKey(agent, fieldNodeAddress, oldKey.getEpoch());
+        }
+        assertEquals(1, routeReading());
+
+        hub.unsubscribeFromFieldNode(leaving, fieldNodeAddress);
+        SensorDataKeyRequest newKey = getKeyRequest(first);
+
+        assertNotEquals(oldKey.getEpoch(), newKey.getEpoch());
+        assertNotEquals(oldKey.getGroupKey(), newKey.getGroupKey());
+        assertEquals(newKey.getGroupKey(), getKeyRequest(second).getGroupKey());
+        assertSame(oldKey, leaving.getRequestSent());
+        assertEquals(2, routeReading());
+
+        hub.acceptSensorDataKey(first, fieldNodeAddress, oldKey.getEpoch());
+        assertEquals(2, routeReading());
+
+        hub.acceptSensorDataKey(first, fieldNodeAddress, newKey.getEpoch());
+        hub.acceptSensorDataKey(second, fieldNodeAddress, newKey.getEpoch());
+        assertEquals(1, routeReading());
+    }
+
+    /**
+     * Tests that the group key is replaced when a subscriber is deregistered, and dropped once no encrypted
+     * subscribers remain, so that a later subscriber is sent a key of its own.
+     *
+     * @throws SubscriptionException thrown if subscribing fails
+     * @throws NoSuchAlgorithmException thrown if a key cannot be generated
+     */
+    @Test
+    public void testRotationOnDeregistration() throws SubscriptionException, NoSuchAlgorithmException {
+        TestControlCommAgent staying = registerEncryptedControlPanel();
+        TestControlCommAgent leaving = registerEncryptedControlPanel();
+        hub.subscribeToFieldNode(staying, fieldNodeAddress);
+        hub.subscribeToFieldNode(leaving, fieldNodeAddress);
+        SensorDataKeyRequest oldKey = getKeyRequest(leaving);
+
+        hub.deregisterClient(leaving.getClientNodeAddress());
+        SensorDataKeyRequest newKey = getKeyRequest(staying);
+        assertNotEquals(oldKey.getEpoch(), newKey.getEpoch());
+
+        hub.unsubscribeFromFieldNode(staying, fieldNodeAddress);
+        TestControlCommAgent later = registerEncryptedControlPanel();
+        hub.subscribeToFieldNode(later, fieldNodeAddress);
+        SensorDataKeyRequest laterKey = getKeyRequest(later);
+
+        assertNotEquals(newKey.getEpoch(), laterKey.getEpoch());
+        assertNotEquals(newKey.getGroupKey(), laterKey.getGroupKey());
+    }
+
+    /**
+     * Tests that a control panel whose sensor data is not encrypted is never sent the group key.
+     *
+     * @throws SubscriptionException thrown if subscribing fails
+     */
+    @Test
+    public void testUnencryptedSubscriberGetsNoKey() throws SubscriptionException {
+        TestControlCommAgent agent = new TestControlCommAgent();
+        agent.setClientNodeAddress(hub.registerControlPanel(Set.of(DeviceClass.S1), agent, new TestDataCommAgent()));
+
+        hub.subscribeToFieldNode(agent, fieldNodeAddress);
+
+        assertNull(agent.getRequestSent());
+    }
+}
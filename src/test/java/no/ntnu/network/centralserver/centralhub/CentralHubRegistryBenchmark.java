@@ -0,0 +1,76 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.TestControlCommAgent;
+import no.ntnu.network.representation.FieldNodeInformation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmark of the client registry of the CentralHub class.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class CentralHubRegistryBenchmark {
+    private static final int BENCHMARK_CLIENTS = 50000;
+    CentralHub hub;
+    FieldNodeInformation fieldNodeInformation;
+
+    /**
+     * Setting up for the following benchmark methods.
+     */
+    @Before
+    public void setup() {
+        hub = new CentralHub();
+
+        Map<Integer, DeviceClass> fnst = new HashMap<>();
+        fnst.put(1, DeviceClass.S1);
+        fnst.put(2, DeviceClass.A1);
+
+        Map<Integer, Integer> fnsm = new HashMap<>();
+        fnsm.put(2, 0);
+
+        fieldNodeInformation = new FieldNodeInformation(fnst, fnsm, "Field node");
+    }
+
+    /**
+     * Reports the registrations per second of registering 50 000 field nodes, followed by a reconnect storm where
+     * every field node is deregistered and registered again.
+     * Registration cost does not depend on the number of registered clients, so the registrations per second of the
+     * first and last batches of a round should be about the same.
+     */
+    @Test
+    public void benchmarkRegistration() {
+        int batchSize = BENCHMARK_CLIENTS / 10;
+        List<Integer> addresses = new ArrayList<>(BENCHMARK_CLIENTS);
+        long[] batchNanos = new long[BENCHMARK_CLIENTS / batchSize];
+
+        long start = System.nanoTime();
+        for (int batch = 0; batch < batchNanos.length; batch++) {
+            long batchStart = System.nanoTime();
+            for (int i = 0; i < batchSize; i++) {
+                addresses.add(hub.registerFieldNode(fieldNodeInformation, new TestControlCommAgent()));
+            }
+            batchNanos[batch] = Math.max(1, System.nanoTime() - batchStart);
+        }
+        long registerNanos = Math.max(1, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_CLIENTS; i++) {
+            hub.deregisterClient(addresses.get(i));
+            addresses.set(i, hub.registerFieldNode(fieldNodeInformation, new TestControlCommAgent()));
+        }
+        long stormNanos = Math.max(1, System.nanoTime() - start);
+
+        System.out.println("Registering " + BENCHMARK_CLIENTS + " field nodes: " +
+                ((long) BENCHMARK_CLIENTS * 1000000000L / registerNanos) + " registrations/s (first batch " +
+                ((long) batchSize * 1000000000L / batchNanos[0]) + "/s, last batch " +
+                ((long) batchSize * 1000000000L / batchNanos[batchNanos.length - 1]) + "/s), reconnect storm: " +
+                ((long) BENCHMARK_CLIENTS * 1000000000L / stormNanos) + " re-registrations/s.");
+    }
+}
@@ -0,0 +1,120 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.exception.ClientRegistrationException;
+import no.ntnu.exception.SubscriptionException;
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.TestControlCommAgent;
+import no.ntnu.network.TestDataCommAgent;
+import no.ntnu.network.representation.FieldNodeInformation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the client registry of the CentralHub class.
+ */
+public class CentralHubRegistryTest {
+    private static final int STORM_CLIENTS = 1000;
+    CentralHub hub;
+    FieldNodeInformation fieldNodeInformation;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        hub = new CentralHub();
+
+        Map<Integer, DeviceClass> fnst = new HashMap<>();
+        fnst.put(1, DeviceClass.S1);
+        fnst.put(2, DeviceClass.A1);
+
+        Map<Integer, Integer> fnsm = new HashMap<>();
+        fnsm.put(2, 0);
+
+        fieldNodeInformation = new FieldNodeInformation(fnst, fnsm, "Field node");
+    }
+
+    /**
+     * Tests that an agent cannot be registered twice, even as a different type of client.
+     */
+    @Test
+    public void testDuplicateAgent() {
+        TestControlCommAgent agent = new TestControlCommAgent();
+        hub.registerFieldNode(fieldNodeInformation, agent);
+
+        assertThrows(ClientRegistrationException.class, () -> hub.registerFieldNode(fieldNodeInformation, agent));
+        assertThrows(ClientRegistrationException.class,
+                () -> hub.registerControlPanel(Set.of(DeviceClass.S1), agent, new TestDataCommAgent()));
+    }
+
+    /**
+     * Tests that an agent can be registered again once deregistered.
+     */
+    @Test
+    public void testRegisterAfterDeregistering() {
+        TestControlCommAgent agent = new TestControlCommAgent();
+        int address = hub.registerFieldNode(fieldNodeInformation, agent);
+        hub.deregisterClient(address);
+
+        int newAddress = hub.registerFieldNode(fieldNodeInformation, agent);
+
+        assertNotEquals(address, newAddress);
+        assertNull(hub.getFieldNodeClientProxy(address));
+        assertNotNull(hub.getFieldNodeClientProxy(newAddress));
+    }
+
+    /**
+     * Tests that sensor data carrying the address of a deregistered field node is not routed to the subscribers of
+     * the field node that got its slot recycled.
+     *
+     * @throws SubscriptionException thrown if subscribing fails
+     */
+    @Test
+    public void testStaleSensorDataForRecycledAddress() throws SubscriptionException {
+        int oldFieldNode = hub.registerFieldNode(fieldNodeInformation, new TestControlCommAgent());
+        hub.deregisterClient(oldFieldNode);
+        int newFieldNode = hub.registerFieldNode(fieldNodeInformation, new TestControlCommAgent());
+
+        LongAdder deliveries = new LongAdder();
+        TestControlCommAgent controlPanelAgent = new TestControlCommAgent();
+        controlPanelAgent.setClientNodeAddress(hub.registerControlPanel(Set.of(DeviceClass.S1), controlPanelAgent,
+                sensorData -> deliveries.increment()));
+        hub.subscribeToFieldNode(controlPanelAgent, newFieldNode);
+
+        hub.receiveSduData(oldFieldNode, 1, 20);
+        assertNull(hub.lookup(oldFieldNode, 1));
+        assertEquals(0, deliveries.sum());
+
+        hub.receiveSduData(newFieldNode, 1, 20);
+        assertEquals(1, deliveries.sum());
+    }
+
+    /**
+     * Tests that a reconnect storm, where every registered field node is deregistered and registered again, leaves
+     * every field node registered under an address of its own.
+     */
+    @Test
+    public void testReconnectStorm() {
+        List<Integer> addresses = new ArrayList<>(STORM_CLIENTS);
+        for (int i = 0; i < STORM_CLIENTS; i++) {
+            addresses.add(hub.registerFieldNode(fieldNodeInformation, new TestControlCommAgent()));
+        }
+
+        for (int i = 0; i < STORM_CLIENTS; i++) {
+            hub.deregisterClient(addresses.get(i));
+            addresses.set(i, hub.registerFieldNode(fieldNodeInformation, new TestControlCommAgent()));
+        }
+
+        assertEquals(STORM_CLIENTS, hub.getFieldNodePool().size());
+        assertEquals(STORM_CLIENTS, Set.copyOf(addresses).size());
+    }
+}
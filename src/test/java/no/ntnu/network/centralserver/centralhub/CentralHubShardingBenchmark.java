@@ -0,0 +1,134 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.TestControlCommAgent;
+import no.ntnu.network.TestDataCommAgent;
+import no.ntnu.network.message.request.RequestMessage;
+import no.ntnu.network.message.response.ResponseMessage;
+import no.ntnu.network.representation.FieldNodeInformation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark of the sharding of the CentralHub class.
+ * A control panel keeps subscribing to and unsubscribing from every field node, each from a thread of its own, and
+ * the subscription operations per second are reported for an increasing number of shards. Every subscription sends an
+ * ADL update to the field node, which takes about a millisecond, like a request over the network.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class CentralHubShardingBenchmark {
+    private static final int FIELD_NODES = 4;
+    private static final long RUN_MILLIS = 1000;
+    private static final long NETWORK_DELAY_MILLIS = 1;
+    FieldNodeInformation fieldNodeInformation;
+
+    /**
+     * A field node agent taking a while to send every request, as if sending it over the network.
+     */
+    private static class SlowFieldNodeAgent extends TestControlCommAgent {
+        @Override
+        public CompletableFuture<ResponseMessage> sendRequest(RequestMessage request) throws IOException {
+            try {
+                Thread.sleep(NETWORK_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.sendRequest(request);
+        }
+    }
+
+    /**
+     * Setting up for the following benchmark methods.
+     */
+    @Before
+    public void setup() {
+        Map<Integer, DeviceClass> fnst = new HashMap<>();
+        fnst.put(1, DeviceClass.S1);
+        fnst.put(2, DeviceClass.A1);
+
+        Map<Integer, Integer> fnsm = new HashMap<>();
+        fnsm.put(2, 0);
+
+        fieldNodeInformation = new FieldNodeInformation(fnst, fnsm, "Field node");
+    }
+
+    /**
+     * Runs the subscription benchmark for a given number of shards.
+     *
+     * @param shardCount the number of shards
+     * @return the subscription operations per second
+     * @throws InterruptedException thrown if interrupted while waiting for the benchmark threads
+     */
+    private long runBenchmark(int shardCount) throws InterruptedException {
+        CentralHub hub = new CentralHub(shardCount);
+        TestControlCommAgent controlPanelAgent = new TestControlCommAgent();
+        controlPanelAgent.setClientNodeAddress(hub.registerControlPanel(Set.of(DeviceClass.S1), controlPanelAgent,
+                new TestDataCommAgent()));
+
+        List<Integer> fieldNodes = new ArrayList<>();
+        for (int i = 0; i < FIELD_NODES; i++) {
+            fieldNodes.add(hub.registerFieldNode(fieldNodeInformation, new SlowFieldNodeAgent()));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        LongAdder operations = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int fieldNode : fieldNodes) {
+            threads.add(new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        hub.subscribeToFieldNode(controlPanelAgent, fieldNode);
+                        hub.unsubscribeFromFieldNode(controlPanelAgent, fieldNode);
+                        operations.add(2);
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            }));
+        }
+
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        Thread.sleep(RUN_MILLIS);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        hub.close();
+
+        assertNull(failure.get());
+        return operations.sum() * 1000000000L / elapsedNanos;
+    }
+
+    /**
+     * Reports the subscription operations per second with 1, 2 and 4 shards.
+     * Field nodes of different shards are served in parallel, so the throughput should grow with the number of shards.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting for the benchmark threads
+     */
+    @Test
+    public void benchmarkThroughputAcrossShards() throws InterruptedException {
+        long oneShard = runBenchmark(1);
+        long twoShards = runBenchmark(2);
+        long fourShards = runBenchmark(4);
+
+        System.out.println("Subscription operations across " + FIELD_NODES + " field nodes: 1 shard " + oneShard +
+                "/s, 2 shards " + twoShards + "/s, 4 shards " + fourShards + "/s.");
+    }
+}
@@ -0,0 +1,160 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.exception.SubscriptionException;
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.TestControlCommAgent;
+import no.ntnu.network.TestDataCommAgent;
+import no.ntnu.network.message.request.RequestMessage;
+import no.ntnu.network.message.response.ResponseMessage;
+import no.ntnu.network.message.sensordata.SduSensorDataMessage;
+import no.ntnu.network.message.sensordata.SensorDataMessage;
+import no.ntnu.network.representation.FieldNodeInformation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the sharding of the CentralHub class.
+ * The class verifies that field nodes are spread across the shards, and that a blocked shard does not hold up the
+ * field nodes served by the other shards.
+ */
+public class CentralHubShardingTest {
+    private static final int FIELD_NODES = 4;
+    private static final long TIMEOUT_SECONDS = 5;
+    FieldNodeInformation fieldNodeInformation;
+
+    /**
+     * A field node agent blocking the thread sending a request until released, as if the network had stalled.
+     */
+    private static class BlockingFieldNodeAgent extends TestControlCommAgent {
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public CompletableFuture<ResponseMessage> sendRequest(RequestMessage request) throws IOException {
+            blocked.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.sendRequest(request);
+        }
+    }
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        Map<Integer, DeviceClass> fnst = new HashMap<>();
+        fnst.put(1, DeviceClass.S1);
+        fnst.put(2, DeviceClass.A1);
+
+        Map<Integer, Integer> fnsm = new HashMap<>();
+        fnsm.put(2, 0);
+
+        fieldNodeInformation = new FieldNodeInformation(fnst, fnsm, "Field node");
+    }
+
+    /**
+     * Tests that field nodes are spread across all shards, and that each field node is served by its own shard.
+     *
+     * @throws SubscriptionException thrown if subscribing fails
+     */
+    @Test
+    public void testFieldNodesAcrossShards() throws SubscriptionException {
+        CentralHub hub = new CentralHub(FIELD_NODES);
+        TestControlCommAgent controlPanelAgent = new TestControlCommAgent();
+        controlPanelAgent.setClientNodeAddress(hub.registerControlPanel(Set.of(DeviceClass.S1), controlPanelAgent,
+                new TestDataCommAgent()));
+
+        List<Integer> fieldNodes = new ArrayList<>();
+        for (int i = 0; i < FIELD_NODES; i++) {
+            fieldNodes.add(hub.registerFieldNode(fieldNodeInformation, new TestControlCommAgent()));
+        }
+
+        for (int fieldNode : fieldNodes) {
+            assertNotNull(hub.subscribeToFieldNode(controlPanelAgent, fieldNode));
+            assertEquals(Set.of(controlPanelAgent.getClientNodeAddress()), hub.getFieldNodeSubscribers(fieldNode));
+        }
+
+        hub.deregisterClient(controlPanelAgent.getClientNodeAddress());
+        for (int fieldNode : fieldNodes) {
+            assertTrue(hub.getFieldNodeSubscribers(fieldNode).isEmpty());
+        }
+
+        assertEquals(FIELD_NODES, hub.getFieldNodePool().size());
+        hub.close();
+    }
+
+    /**
+     * Tests that a shard blocked by a field node that does not take its ADL update neither delays subscribing to nor
+     * routing sensor data from a field node served by another shard.
+     *
+     * @throws SubscriptionException thrown if subscribing fails
+     * @throws InterruptedException thrown if interrupted while waiting for the shards
+     */
+    @Test
+    public void testBlockedShardIsolated() throws SubscriptionException, InterruptedException {
+        CentralHub hub = new CentralHub(2);
+        CountDownLatch sensorDataReceived = new CountDownLatch(1);
+        TestControlCommAgent controlPanelAgent = new TestControlCommAgent();
+        controlPanelAgent.setClientNodeAddress(hub.registerControlPanel(Set.of(DeviceClass.S1), controlPanelAgent,
+                new TestDataCommAgent() {
+                    @Override
+                    public void sendSensorData(SensorDataMessage sensorData) {
+                        sensorDataReceived.countDown();
+                    }
+                }));
+
+        BlockingFieldNodeAgent blockingAgent = new BlockingFieldNodeAgent();
+        int blockedFieldNode = hub.registerFieldNode(fieldNodeInformation, blockingAgent);
+        int fieldNode = hub.registerFieldNode(fieldNodeInformation, new TestControlCommAgent());
+        assertNotEquals(ClientAddressAllocator.slotOf(blockedFieldNode) % 2, ClientAddressAllocator.slotOf(fieldNode) % 2);
+
+        Thread blockedSubscriber = new Thread(() -> {
+            try {
+                hub.subscribeToFieldNode(controlPanelAgent, blockedFieldNode);
+            } catch (SubscriptionException e) {
+                // the outcome of the blocked subscription is of no interest
+            }
+        });
+        CountDownLatch subscribed = new CountDownLatch(1);
+        Thread subscriber = new Thread(() -> {
+            try {
+                hub.subscribeToFieldNode(controlPanelAgent, fieldNode);
+                subscribed.countDown();
+            } catch (SubscriptionException e) {
+                // leaves the latch closed, failing the test
+            }
+        });
+
+        try {
+            blockedSubscriber.start();
+            assertTrue(blockingAgent.blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            subscriber.start();
+            assertTrue(subscribed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            hub.receiveSensorData(new SduSensorDataMessage(fieldNode, 1, 21.5));
+            assertTrue(sensorDataReceived.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            blockingAgent.released.countDown();
+            blockedSubscriber.join();
+            subscriber.join();
+            hub.close();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the ClientAddressAllocator class.
+ */
+public class ClientAddressAllocatorTest {
+    ClientAddressAllocator allocator;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        allocator = new ClientAddressAllocator();
+    }
+
+    /**
+     * Tests that a new allocator hands out the addresses 0, 1, 2 and so on.
+     */
+    @Test
+    public void testFreshAddresses() {
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, allocator.allocate());
+        }
+
+        assertEquals(200, allocator.getAllocatedCount());
+    }
+
+    /**
+     * Tests that a released slot is reused under a new address, and that the old address is no longer allocated.
+     */
+    @Test
+    public void testRecycledAddressHasNewGeneration() {
+        int first = allocator.allocate();
+        allocator.allocate();
+
+        assertTrue(allocator.release(first));
+        int recycled = allocator.allocate();
+
+        assertNotEquals(first, recycled);
+        assertEquals(first & (ClientAddressAllocator.MAX_SLOTS - 1), recycled & (ClientAddressAllocator.MAX_SLOTS - 1));
+        assertTrue(recycled > 0);
+        assertFalse(allocator.isAllocated(first));
+        assertTrue(allocator.isAllocated(recycled));
+    }
+
+    /**
+     * Tests that an address can only be released once, and that unknown addresses cannot be released.
+     */
+    @Test
+    public void testReleaseUnallocated() {
+        int address = allocator.allocate();
+
+        assertTrue(allocator.release(address));
+        assertFalse(allocator.release(address));
+        assertFalse(allocator.release(5));
+        assertFalse(allocator.release(-1));
+        assertEquals(0, allocator.getAllocatedCount());
+    }
+
+    /**
+     * Tests that repeatedly recycling the same slot never hands out an address allocated before, until the
+     * generations wrap around.
+     */
+    @Test
+    public void testNoAddressRepeatsWithinGenerations() {
+        Set<Integer> seen = new HashSet<>();
+
+        for (int i = 0; i < 1000; i++) {
+            int address = allocator.allocate();
+            assertTrue(seen.add(address));
+            allocator.release(address);
+        }
+    }
+}
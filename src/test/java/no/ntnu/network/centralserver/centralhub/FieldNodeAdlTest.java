@@ -0,0 +1,103 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the FieldNodeAdl class.
+ */
+public class FieldNodeAdlTest {
+    FieldNodeAdl adl;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        Map<Integer, DeviceClass> fnst = new HashMap<>();
+        fnst.put(1, DeviceClass.S1);
+        fnst.put(2, DeviceClass.S1);
+        fnst.put(3, DeviceClass.A1);
+        fnst.put(4, DeviceClass.S2);
+
+        adl = new FieldNodeAdl(fnst);
+    }
+
+    /**
+     * Tests that the first compatible subscriber of a class adds the devices of the class to the ADL.
+     */
+    @Test
+    public void testFirstSubscriberActivatesClasses() {
+        adl.addSubscriber(Set.of(DeviceClass.S1, DeviceClass.A1, DeviceClass.S3));
+
+        assertEquals(Set.of(1, 2, 3), adl.getUpdateFrom(Set.of()));
+
+        assertTrue(adl.isActive(DeviceClass.S1));
+        assertTrue(adl.isActive(DeviceClass.S3));
+        assertFalse(adl.isActive(DeviceClass.S2));
+        assertEquals(Set.of(1, 2, 3), adl.getAdl());
+    }
+
+    /**
+     * Tests that no ADL update is produced as long as the count of a class does not cross zero.
+     */
+    @Test
+    public void testNoUpdateWithoutCrossingZero() {
+        adl.addSubscriber(Set.of(DeviceClass.S1));
+        Set<Integer> confirmedAdl = adl.getAdl();
+
+        adl.addSubscriber(Set.of(DeviceClass.S1));
+        assertTrue(adl.getUpdateFrom(confirmedAdl).isEmpty());
+        adl.removeSubscriber(Set.of(DeviceClass.S1));
+        assertTrue(adl.getUpdateFrom(confirmedAdl).isEmpty());
+        assertEquals(Set.of(1, 2), adl.getAdl());
+    }
+
+    /**
+     * Tests that the last compatible subscriber of a class removes the devices of the class from the ADL.
+     */
+    @Test
+    public void testLastSubscriberDeactivatesClasses() {
+        adl.addSubscriber(Set.of(DeviceClass.S1, DeviceClass.S2));
+        adl.addSubscriber(Set.of(DeviceClass.S2));
+
+        Set<Integer> confirmedAdl = adl.getAdl();
+
+        adl.removeSubscriber(Set.of(DeviceClass.S1, DeviceClass.S2));
+        assertEquals(Set.of(-1, -2), adl.getUpdateFrom(confirmedAdl));
+        assertEquals(Set.of(4), adl.getAdl());
+    }
+
+    /**
+     * Tests that the ADL update is computed from the ADL confirmed by the field node, so that devices of an update
+     * it never applied are sent again, and devices it should not have are removed.
+     */
+    @Test
+    public void testUpdateFromConfirmedAdl() {
+        adl.addSubscriber(Set.of(DeviceClass.S1));
+        adl.addSubscriber(Set.of(DeviceClass.A1));
+
+        assertEquals(Set.of(1, 2, 3), adl.getUpdateFrom(Set.of()));
+        assertEquals(Set.of(2, 3, -4), adl.getUpdateFrom(Set.of(1, 4)));
+        assertTrue(adl.getUpdateFrom(Set.of(1, 2, 3)).isEmpty());
+    }
+
+    /**
+     * Tests that a subscriber that was never added cannot be removed, and that the failed removal leaves the counts
+     * untouched.
+     */
+    @Test
+    public void testRemoveUnknownSubscriber() {
+        adl.addSubscriber(Set.of(DeviceClass.S1));
+
+        assertThrows(IllegalStateException.class, () -> adl.removeSubscriber(Set.of(DeviceClass.S1, DeviceClass.A1)));
+        assertTrue(adl.isActive(DeviceClass.S1));
+    }
+}
@@ -0,0 +1,203 @@
+package no.ntnu.network.centralserver.centralhub;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.SensorDataBroadcaster;
+import no.ntnu.network.SharedDataCommAgent;
+import no.ntnu.network.TestControlCommAgent;
+import no.ntnu.network.TestDataCommAgent;
+import no.ntnu.network.centralserver.centralhub.clientproxy.ControlPanelClientProxy;
+import no.ntnu.network.message.sensordata.SensorDataMessage;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the SensorDataRoute class.
+ */
+public class SensorDataRouteTest {
+    Map<Integer, DeviceClass> fnst;
+    ControlPanelClientProxy controlPanelOne;
+    ControlPanelClientProxy controlPanelTwo;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        fnst = new HashMap<>();
+        fnst.put(0, DeviceClass.S1);
+        fnst.put(3, DeviceClass.A2);
+        fnst.put(100000, DeviceClass.S3);
+
+        controlPanelOne = new ControlPanelClientProxy(new TestControlCommAgent(), new TestDataCommAgent(),
+                Set.of(DeviceClass.S1));
+        controlPanelTwo = new ControlPanelClientProxy(new TestControlCommAgent(), new TestDataCommAgent(),
+                Set.of(DeviceClass.S3));
+    }
+
+    /**
+     * Tests that the route identifies all devices of the FNST, both within and outside the dense index.
+     */
+    @Test
+    public void testLookup() {
+        SensorDataRoute route = SensorDataRoute.of(fnst);
+
+        assertEquals(DeviceClass.S1, route.lookup(0));
+        assertEquals(DeviceClass.A2, route.lookup(3));
+        assertEquals(DeviceClass.S3, route.lookup(100000));
+        assertNull(route.lookup(1));
+        assertNull(route.lookup(-1));
+        assertNull(route.lookup(5000));
+    }
+
+    /**
+     * Tests that the route is a snapshot, not affected by later changes to the FNST it was created from.
+     */
+    @Test
+    public void testLookupIsSnapshot() {
+        SensorDataRoute route = SensorDataRoute.of(fnst);
+
+        fnst.put(1, DeviceClass.S2);
+
+        assertNull(route.lookup(1));
+    }
+
+    /**
+     * Tests that adding and removing subscribers creates new routes, leaving the previous routes unchanged.
+     */
+    @Test
+    public void testCopyOnWrite() {
+        SensorDataRoute empty = SensorDataRoute.of(fnst);
+        SensorDataRoute one = empty.withSubscriber(4, controlPanelOne);
+        SensorDataRoute both = one.withSubscriber(7, controlPanelTwo);
+        SensorDataRoute onlyTwo = both.withoutSubscriber(4);
+
+        assertEquals(0, empty.getSubscriberCount());
+        assertEquals(Set.of(4), one.getSubscriberAddresses());
+        assertEquals(Set.of(4, 7), both.getSubscriberAddresses());
+        assertEquals(Set.of(7), onlyTwo.getSubscriberAddresses());
+
+        assertSame(controlPanelTwo, onlyTwo.getSubscriber(0));
+        assertEquals(7, onlyTwo.getSubscriberAddress(0));
+        assertEquals(DeviceClass.A2, onlyTwo.lookup(3));
+    }
+
+    /**
+     * Tests that removing a subscriber that is not subscribed returns the same route.
+     */
+    @Test
+    public void testRemoveUnknownSubscriber() {
+        SensorDataRoute route = SensorDataRoute.of(fnst).withSubscriber(4, controlPanelOne);
+
+        assertSame(route, route.withoutSubscriber(5));
+    }
+
+    /**
+     * Tests that a subscriber cannot be added twice.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddSubscriberTwice() {
+        SensorDataRoute.of(fnst).withSubscriber(4, controlPanelOne).withSubscriber(4, controlPanelTwo);
+    }
+
+    /**
+     * Tests that subscribers sharing a broadcaster are grouped, while any other subscribers are kept individual.
+     */
+    @Test
+    public void testBroadcastGroups() {
+        SensorDataBroadcaster broadcaster = (sensorData, agents) -> {};
+        SharedDataCommAgent sharedAgent = new SharedDataCommAgent() {
+            @Override
+            public SensorDataBroadcaster getBroadcaster() {
+                return broadcaster;
+            }
+
+            @Override
+            public void sendSensorData(SensorDataMessage sensorData) {}
+        };
+
+        SensorDataRoute route = SensorDataRoute.of(fnst)
+                .withSubscriber(4, new ControlPanelClientProxy(new TestControlCommAgent(), sharedAgent, Set.of()))
+                .withSubscriber(5, controlPanelOne)
+                .withSubscriber(6, new ControlPanelClientProxy(new TestControlCommAgent(), sharedAgent, Set.of()));
+
+        assertEquals(1, route.getBroadcastGroupCount());
+        assertSame(broadcaster, route.getBroadcaster(0));
+        assertEquals(2, route.getBroadcastGroup(0).length);
+        assertEquals(1, route.getIndividualSubscriberCount());
+        assertEquals(5, route.getSubscriberAddress(route.getIndividualSubscriberIndex(0)));
+
+        SensorDataRoute withoutShared = route.withoutSubscriber(4).withoutSubscriber(6);
+        assertEquals(0, withoutShared.getBroadcastGroupCount());
+        assertEquals(1, withoutShared.getIndividualSubscriberCount());
+    }
+
+    /**
+     * Creates a shared agent using a given broadcaster.
+     *
+     * @param broadcaster the broadcaster of the agent
+     * @param encrypted true if the sensor data sent through the agent is encrypted
+     * @return the shared agent
+     */
+    private static SharedDataCommAgent createSharedAgent(SensorDataBroadcaster broadcaster, boolean encrypted) {
+        return new SharedDataCommAgent() {
+            @Override
+            public SensorDataBroadcaster getBroadcaster() {
+                return broadcaster;
+            }
+
+            @Override
+            public boolean isEncrypted() {
+                return encrypted;
+            }
+
+            @Override
+            public void sendSensorData(SensorDataMessage sensorData) {}
+        };
+    }
+
+    /**
+     * Tests that only encrypted subscribers sharing a broadcaster can become members of the current group key, and
+     * that members are grouped apart from the rest of their broadcast group.
+     */
+    @Test
+    public void testGroupKeyMembers() {
+        SensorDataBroadcaster broadcaster = (sensorData, agents) -> {};
+        SharedDataCommAgent encryptedAgent = createSharedAgent(broadcaster, true);
+        SharedDataCommAgent plainAgent = createSharedAgent(broadcaster, false);
+        SensorDataGroupKey groupKey = new SensorDataGroupKey(1, 2, new SecretKeySpec(new byte[32], "AES"));
+
+        SensorDataRoute route = SensorDataRoute.of(fnst)
+                .withSubscriber(4, new ControlPanelClientProxy(new TestControlCommAgent(), encryptedAgent, Set.of()))
+                .withSubscriber(5, controlPanelOne)
+                .withSubscriber(6, new ControlPanelClientProxy(new TestControlCommAgent(), encryptedAgent, Set.of()))
+                .withSubscriber(8, new ControlPanelClientProxy(new TestControlCommAgent(), plainAgent, Set.of()));
+        assertTrue(route.hasGroupKeyCandidates());
+        assertSame(route, route.withGroupMember(4, 2));
+
+        SensorDataRoute keyed = route.withGroupKey(groupKey);
+        assertSame(keyed, keyed.withGroupMember(4, 1));
+        assertSame(keyed, keyed.withGroupMember(5, 2));
+        assertSame(keyed, keyed.withGroupMember(8, 2));
+
+        SensorDataRoute member = keyed.withGroupMember(4, 2);
+        assertSame(groupKey, member.getGroupKey());
+        assertTrue(member.isGroupMember(4));
+        assertEquals(1, member.getBroadcastGroupCount());
+        assertEquals(1, member.getMemberGroup(0).length);
+        assertEquals(2, member.getBroadcastGroup(0).length);
+        assertEquals(0, keyed.getMemberGroup(0).length);
+        assertEquals(3, keyed.getBroadcastGroup(0).length);
+
+        assertTrue(member.withSubscriber(9, controlPanelTwo).isGroupMember(4));
+        assertFalse(member.withoutSubscriber(4).isGroupMember(4));
+        assertFalse(member.withGroupKey(null).isGroupMember(4));
+        assertNull(member.withGroupKey(null).getGroupKey());
+    }
+}
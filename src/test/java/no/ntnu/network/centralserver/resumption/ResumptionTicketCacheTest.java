@@ -0,0 +1,97 @@
+package no.ntnu.network.centralserver.resumption;
+
+import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.SecretKey;
+import java.security.NoSuchAlgorithmException;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the ResumptionTicketCache class.
+ */
+public class ResumptionTicketCacheTest {
+    private static final int CAPACITY = 4;
+    private static final long LIFETIME_MILLIS = 60000;
+    ResumptionTicketCache cache;
+    SecretKey key;
+    SessionRegistration registration;
+
+    /**
+     * Setting up for the following test methods.
+     *
+     * @throws NoSuchAlgorithmException thrown if the AES algorithm cannot be found
+     */
+    @Before
+    public void setup() throws NoSuchAlgorithmException {
+        cache = new ResumptionTicketCache(CAPACITY, LIFETIME_MILLIS);
+        AESKeyGenerator keyGen = new AESKeyGenerator();
+        keyGen.createKey();
+        key = keyGen.getKey();
+        registration = context -> 7;
+    }
+
+    /**
+     * Tests that a ticket is redeemed for the session it was issued for, and only once.
+     */
+    @Test
+    public void testTicketIsSingleUse() {
+        String ticket = cache.issue(key, registration);
+
+        ResumableSession session = cache.redeem(ticket);
+
+        assertNotNull(session);
+        assertEquals(key, session.secretKey());
+        assertSame(registration, session.registration());
+        assertNull(cache.redeem(ticket));
+    }
+
+    /**
+     * Tests that unknown tickets are not redeemed, and that issued tickets differ.
+     */
+    @Test
+    public void testUnknownTicket() {
+        String ticket = cache.issue(key, registration);
+
+        assertNotEquals(ticket, cache.issue(key, registration));
+        assertNull(cache.redeem("not a ticket"));
+    }
+
+    /**
+     * Tests that a reissued session keeps its expiry, so resuming a session never extends the life of its key.
+     */
+    @Test
+    public void testReissueKeepsExpiry() {
+        ResumableSession session = cache.redeem(cache.issue(key, registration));
+
+        String ticket = cache.reissue(session);
+
+        assertEquals(session.expiresAt(), cache.redeem(ticket).expiresAt());
+    }
+
+    /**
+     * Tests that expired sessions cannot be resumed.
+     */
+    @Test
+    public void testExpiredSessionIsNotRedeemed() {
+        String ticket = cache.reissue(new ResumableSession(key, registration, System.currentTimeMillis() - 1));
+
+        assertNull(cache.redeem(ticket));
+    }
+
+    /**
+     * Tests that the oldest ticket is evicted once the cache is full.
+     */
+    @Test
+    public void testOldestTicketEvicted() {
+        String oldest = cache.issue(key, registration);
+        for (int i = 0; i < CAPACITY; i++) {
+            cache.issue(key, registration);
+        }
+
+        assertEquals(CAPACITY, cache.getSize());
+        assertNull(cache.redeem(oldest));
+    }
+}
@@ -0,0 +1,81 @@
+package no.ntnu.network.client;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the time it takes a field node to be registered again after reconnecting.
+ * A field node is reconnected to a central server over loopback a number of times, and the median time from
+ * reconnecting until the field node is registered again, and thereby can push sensor data, is reported for the full
+ * handshake and for session resumption.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class SessionResumptionBenchmark {
+    private static final int RECONNECTIONS = 20;
+    private static final long TIMEOUT_MILLIS = 5000;
+    TestCentralServer server;
+    TestFieldNodeClient client;
+
+    /**
+     * Setting up for the following benchmark methods.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Before
+    public void setup() throws IOException {
+        server = new TestCentralServer();
+        client = new TestFieldNodeClient(server.getPortNumber());
+        client.setKeyAgreement(true);
+    }
+
+    /**
+     * Closes the client and the server.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws InterruptedException thrown if interrupted while waiting for the accepting thread
+     */
+    @After
+    public void tearDown() throws IOException, InterruptedException {
+        client.disconnect();
+        server.close(TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Reconnects the client a number of times, returning the median time until registered.
+     *
+     * @return the median time in microseconds from reconnecting until registered
+     */
+    private long measureReconnections() {
+        long[] times = new long[RECONNECTIONS];
+        for (int i = 0; i < RECONNECTIONS; i++) {
+            client.disconnect();
+            times[i] = server.connectAndAwaitRegistration(client, TIMEOUT_MILLIS);
+        }
+
+        Arrays.sort(times);
+
+        return TimeUnit.NANOSECONDS.toMicros(times[RECONNECTIONS / 2]);
+    }
+
+    /**
+     * Reports the median reconnection time with and without session resumption.
+     */
+    @Test
+    public void benchmarkReconnectionTime() {
+        client.setSessionResumption(false);
+        server.connectAndAwaitRegistration(client, TIMEOUT_MILLIS);
+        long handshake = measureReconnections();
+
+        client.setSessionResumption(true);
+        long resumption = measureReconnections();
+
+        System.out.println("Median time from reconnecting until registered: full handshake " + handshake +
+                " us, session resumption " + resumption + " us.");
+    }
+}
@@ -0,0 +1,167 @@
+package no.ntnu.network.client;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.centralserver.centralhub.CentralHub;
+import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.encryption.cipher.encrypt.DatagramEncryption;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+import no.ntnu.network.sensordataprocess.UdpChannelSensorDataSink;
+import no.ntnu.network.sensordataprocess.UdpSensorDataPusher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reconnection testing for field node clients resuming their sessions.
+ * A field node is reconnected to a central server over loopback, and is expected to be registered again without
+ * repeating the handshake as long as it holds a valid resumption ticket.
+ */
+public class SessionResumptionTest {
+    private static final long TIMEOUT_MILLIS = 5000;
+    TestCentralServer server;
+    CentralHub centralHub;
+    TestFieldNodeClient client;
+
+    /**
+     * Setting up for the following test methods.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Before
+    public void setup() throws IOException {
+        server = new TestCentralServer();
+        centralHub = server.getCentralHub();
+        client = new TestFieldNodeClient(server.getPortNumber());
+        client.setKeyAgreement(true);
+    }
+
+    /**
+     * Closes the client and the server.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws InterruptedException thrown if interrupted while waiting for the accepting thread
+     */
+    @After
+    public void tearDown() throws IOException, InterruptedException {
+        client.disconnect();
+        server.close(TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Connects the client, and asserts that it is registered at the central hub within the timeout.
+     */
+    private void connectAndAwaitRegistration() {
+        server.connectAndAwaitRegistration(client, TIMEOUT_MILLIS);
+
+        assertTrue(server.isRegistered(client));
+    }
+
+    /**
+     * Tests that a field node reconnecting without session resumption repeats the handshake, and that a field node
+     * reconnecting with a resumption ticket is registered again with the secret key of its session, skipping the
+     * handshake.
+     */
+    @Test
+    public void testResumptionSkipsHandshake() {
+        client.setSessionResumption(false);
+        connectAndAwaitRegistration();
+        SecretKey firstKey = client.getContext().getSessionKey();
+        assertNotNull(client.getContext().getResumptionTicket());
+
+        client.disconnect();
+        connectAndAwaitRegistration();
+        SecretKey handshakeKey = client.getContext().getSessionKey();
+        assertNotSame(firstKey, handshakeKey);
+        assertNotNull(client.getContext().getResumptionTicket());
+
+        client.setSessionResumption(true);
+        client.disconnect();
+        connectAndAwaitRegistration();
+
+        assertSame(handshakeKey, client.getContext().getSessionKey());
+        assertNotNull(client.getContext().getResumptionTicket());
+    }
+
+    /**
+     * Tests that every resumption gives the client a new ticket, as tickets can only be used once.
+     */
+    @Test
+    public void testTicketReplacedOnResumption() {
+        connectAndAwaitRegistration();
+        String ticket = client.getContext().getResumptionTicket();
+        assertNotNull(ticket);
+
+        client.disconnect();
+        connectAndAwaitRegistration();
+
+        assertNotNull(client.getContext().getResumptionTicket());
+        assertNotEquals(ticket, client.getContext().getResumptionTicket());
+        assertNull(centralHub.getResumptionTickets().redeem(ticket));
+    }
+
+    /**
+     * Tests that a client falls back to the full handshake when the server declines its ticket, as when the server
+     * has been restarted.
+     */
+    @Test
+    public void testDeclinedTicketFallsBackToHandshake() {
+        connectAndAwaitRegistration();
+        client.getContext().setResumptionTicket("unknown");
+
+        client.disconnect();
+        connectAndAwaitRegistration();
+
+        assertNotNull(client.getContext().getResumptionTicket());
+        assertNotEquals("unknown", client.getContext().getResumptionTicket());
+    }
+
+    /**
+     * Tests that a resumed field node can push sensor data encrypted with the session key, and that the sensor data
+     * sink of the central hub decrypts it, as the session key is in place before the field node is registered again.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws InterruptedException thrown if interrupted while waiting for the sensor data
+     */
+    @Test
+    public void testResumedFieldNodePushesEncryptedSensorData() throws IOException, InterruptedException {
+        connectAndAwaitRegistration();
+        SecretKey sessionKey = client.getContext().getSessionKey();
+        client.disconnect();
+        connectAndAwaitRegistration();
+        int address = client.getClientNodeAddress();
+        assertSame(sessionKey, client.getContext().getSessionKey());
+
+        CountDownLatch received = new CountDownLatch(1);
+        AtomicInteger receivedAddress = new AtomicInteger(-1);
+        UdpChannelSensorDataSink sink = new UdpChannelSensorDataSink(
+                new NofspServerDeserializer((clientAddress, deviceAddress) -> DeviceClass.S1), 0);
+        sink.setDecryption(centralHub.getSensorDataKeys());
+        sink.start((fieldNodeAddress, sensorAddress, data) -> {
+            receivedAddress.set(fieldNodeAddress);
+            received.countDown();
+        });
+
+        try {
+            // the sensor data is encrypted the way the field node client encrypts it once registered
+            UdpSensorDataPusher pusher = new UdpSensorDataPusher(InetAddress.getLoopbackAddress(),
+                    sink.getPortNumber(), new NofspFrameSerializer());
+            pusher.setEncryption(new DatagramEncryption(sessionKey, address));
+            pusher.sendSduData(address, 1, 21.5);
+
+            assertTrue(received.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            assertEquals(address, receivedAddress.get());
+            assertEquals(0, sink.getDroppedDatagrams());
+        } finally {
+            sink.stop();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package no.ntnu.network.client;
+
+import no.ntnu.network.centralserver.ClientHandler;
+import no.ntnu.network.centralserver.centralhub.CentralHub;
+import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A central server on a loopback port, serving every accepted client with a client handler for its central hub.
+ */
+class TestCentralServer {
+    private final CentralHub centralHub;
+    private final ServerSocket serverSocket;
+    private final List<ClientHandler> clientHandlers;
+    private final Thread acceptThread;
+
+    /**
+     * Creates a new TestCentralServer, and starts accepting clients.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    TestCentralServer() throws IOException {
+        this.centralHub = new CentralHub();
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.clientHandlers = new ArrayList<>();
+        this.acceptThread = new Thread(this::acceptClients);
+        this.acceptThread.start();
+    }
+
+    /**
+     * Accepts clients until the server socket is closed.
+     */
+    private void acceptClients() {
+        NofspServerDeserializer deserializer = new NofspServerDeserializer(centralHub);
+        try {
+            while (!serverSocket.isClosed()) {
+                ClientHandler clientHandler = new ClientHandler(serverSocket.accept(), centralHub,
+                        new NofspFrameSerializer(), deserializer);
+                clientHandler.run();
+                synchronized (clientHandlers) {
+                    clientHandlers.add(clientHandler);
+                }
+            }
+        } catch (IOException e) {
+            // the server socket has been closed
+        }
+    }
+
+    /**
+     * Returns the central hub of the server.
+     *
+     * @return the central hub
+     */
+    CentralHub getCentralHub() {
+        return centralHub;
+    }
+
+    /**
+     * Returns the port number the server accepts clients on.
+     *
+     * @return the port number
+     */
+    int getPortNumber() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Connects a client, and waits until it is registered at the central hub, or the timeout runs out.
+     *
+     * @param client the client to connect
+     * @param timeoutMillis the time in milliseconds to wait for the registration
+     * @return the time in nanoseconds from connecting until registered
+     */
+    long connectAndAwaitRegistration(TestFieldNodeClient client, long timeoutMillis) {
+        long start = System.nanoTime();
+        client.connect(InetAddress.getLoopbackAddress().getHostAddress());
+
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!isRegistered(client) && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(50000);
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Returns whether a client is registered at the central hub.
+     *
+     * @param client the client
+     * @return true if registered
+     */
+    boolean isRegistered(TestFieldNodeClient client) {
+        int address = client.getClientNodeAddress();
+
+        return address != -1 && centralHub.getFieldNodeProxy(address) != null;
+    }
+
+    /**
+     * Closes the server socket and all client handlers.
+     *
+     * @param timeoutMillis the time in milliseconds to wait for the accepting thread
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws InterruptedException thrown if interrupted while waiting for the accepting thread
+     */
+    void close(long timeoutMillis) throws IOException, InterruptedException {
+        serverSocket.close();
+        acceptThread.join(timeoutMillis);
+
+        synchronized (clientHandlers) {
+            for (ClientHandler clientHandler : clientHandlers) {
+                if (clientHandler.isConnected()) {
+                    clientHandler.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package no.ntnu.network.client;
+
+import no.ntnu.environment.Environment;
+import no.ntnu.fieldnode.FieldNode;
+import no.ntnu.network.message.Message;
+import no.ntnu.network.message.context.FieldNodeContext;
+import no.ntnu.network.message.deserialize.NofspFieldNodeDeserializer;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+
+import java.io.IOException;
+import java.util.HashSet;
+
+/**
+ * A field node client connecting to a given port, and reconnecting on request.
+ */
+class TestFieldNodeClient extends Client<FieldNodeContext> {
+    private final int portNumber;
+    private final FieldNodeContext context;
+
+    /**
+     * Creates a new TestFieldNodeClient.
+     *
+     * @param portNumber the port number of the server
+     */
+    TestFieldNodeClient(int portNumber) {
+        this.portNumber = portNumber;
+        this.context = new FieldNodeContext(this, new FieldNode(new Environment()), new HashSet<>(),
+                "Test node", getLoggers());
+    }
+
+    @Override
+    public void connect(String serverAddress) {
+        setClientNodeAddress(-1);
+        if (connectToServer(serverAddress, portNumber, new NofspFrameSerializer(),
+                new NofspFieldNodeDeserializer())) {
+            initializeRegistration();
+        }
+    }
+
+    @Override
+    protected FieldNodeContext getContext() {
+        return context;
+    }
+
+    @Override
+    protected void processReceivedMessage(Message<FieldNodeContext> message) {
+        try {
+            message.process(context);
+        } catch (IOException e) {
+            logError("Cannot process received message: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void disconnect() {
+        safelyClose();
+    }
+}
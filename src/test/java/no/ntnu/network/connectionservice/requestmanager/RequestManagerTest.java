@@ -0,0 +1,138 @@
+package no.ntnu.network.connectionservice.requestmanager;
+
+import no.ntnu.network.message.request.HeartbeatRequest;
+import no.ntnu.network.message.request.RequestMessage;
+import no.ntnu.network.message.response.HeartbeatResponse;
+import no.ntnu.network.message.response.ResponseMessage;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the RequestManager class.
+ */
+public class RequestManagerTest {
+    private static final long TTL = 10000;
+    RequestManager requestManager;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        requestManager = new RequestManager();
+    }
+
+    /**
+     * Tests that requests are given increasing ids.
+     */
+    @Test
+    public void testMonotonicIds() {
+        List<RequestMessage> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            RequestMessage request = new HeartbeatRequest<>();
+            requestManager.putRequest(request, TTL);
+            requests.add(request);
+        }
+
+        assertTrue(requests.get(0).getId() < requests.get(1).getId());
+        assertTrue(requests.get(1).getId() < requests.get(2).getId());
+        assertEquals(3, requestManager.getPendingRequestCount());
+    }
+
+    /**
+     * Tests that accepting a response completes the future response of the matching request, and only once.
+     *
+     * @throws ExecutionException thrown if the future response failed
+     * @throws InterruptedException thrown if interrupted while waiting for the future response
+     */
+    @Test
+    public void testAcceptResponseCompletesFuture() throws ExecutionException, InterruptedException {
+        RequestMessage request = new HeartbeatRequest<>();
+        CompletableFuture<ResponseMessage> future = requestManager.putRequest(request, TTL);
+        ResponseMessage response = new HeartbeatResponse(request.getId());
+
+        assertSame(request, requestManager.acceptResponse(response));
+        assertSame(response, future.get());
+        assertNull(requestManager.acceptResponse(response));
+        assertEquals(0, requestManager.getPendingRequestCount());
+    }
+
+    /**
+     * Tests that a request that is not answered in time fails its future response with a timeout, and notifies the
+     * listeners.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void testTimeoutFailsFuture() throws InterruptedException {
+        CountDownLatch timedOut = new CountDownLatch(1);
+        requestManager.addListener(request -> timedOut.countDown());
+        CompletableFuture<ResponseMessage> future = requestManager.putRequest(new HeartbeatRequest<>(), 1);
+
+        requestManager.start();
+        try {
+            assertTrue(timedOut.await(5, TimeUnit.SECONDS));
+            ExecutionException e = assertThrows(ExecutionException.class, future::get);
+            assertTrue(e.getCause() instanceof TimeoutException);
+        } finally {
+            requestManager.stop();
+        }
+    }
+
+    /**
+     * Tests that stopping the request manager fails the future responses of all pending requests.
+     */
+    @Test
+    public void testStopFailsPendingFutures() {
+        CompletableFuture<ResponseMessage> future = requestManager.putRequest(new HeartbeatRequest<>(), TTL);
+
+        requestManager.stop();
+
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertTrue(e.getCause() instanceof IOException);
+        assertEquals(0, requestManager.getPendingRequestCount());
+    }
+
+    /**
+     * Tests that requests put from several threads at once are all given ids of their own.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting for the threads
+     */
+    @Test
+    public void testConcurrentRequests() throws InterruptedException {
+        int threadCount = 4;
+        int requestsPerThread = 5000;
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < requestsPerThread; j++) {
+                    RequestMessage request = new HeartbeatRequest<>();
+                    requestManager.putRequest(request, TTL);
+                    ids.add(request.getId());
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threadCount * requestsPerThread, ids.size());
+        assertEquals(threadCount * requestsPerThread, requestManager.getPendingRequestCount());
+    }
+}
@@ -0,0 +1,78 @@
+package no.ntnu.network.controlprocess.nio;
+
+import no.ntnu.tools.logger.SimpleLogger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the NioEventLoop class.
+ */
+public class NioEventLoopTest {
+    private static final long TIMEOUT_SECONDS = 5;
+    NioEventLoop eventLoop;
+    List<String> loggedErrors;
+
+    /**
+     * Setting up for the following test methods.
+     *
+     * @throws IOException thrown if the selector cannot be opened
+     */
+    @Before
+    public void setup() throws IOException {
+        loggedErrors = new CopyOnWriteArrayList<>();
+        eventLoop = new NioEventLoop();
+        eventLoop.addLogger(new SimpleLogger() {
+            @Override
+            public void logInfo(String message) {
+                // only errors are of interest
+            }
+
+            @Override
+            public void logError(String error) {
+                loggedErrors.add(error);
+            }
+        });
+        eventLoop.start();
+    }
+
+    /**
+     * Stops the event loop used by a test.
+     */
+    @After
+    public void tearDown() {
+        eventLoop.stop();
+    }
+
+    /**
+     * Tests that a failing task is logged, and neither stops the tasks submitted along with it nor the loop itself.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting for the tasks
+     */
+    @Test
+    public void testFailingTaskIsolated() throws InterruptedException {
+        CountDownLatch sameBatch = new CountDownLatch(1);
+        CountDownLatch laterBatch = new CountDownLatch(1);
+
+        eventLoop.execute(() -> {
+            throw new IllegalStateException("Task failed.");
+        });
+        eventLoop.execute(sameBatch::countDown);
+
+        assertTrue(sameBatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        eventLoop.execute(laterBatch::countDown);
+
+        assertTrue(laterBatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, loggedErrors.size());
+        assertTrue(loggedErrors.get(0).contains("Task failed."));
+    }
+}
@@ -0,0 +1,122 @@
+package no.ntnu.network.controlprocess.nio;
+
+import no.ntnu.network.message.common.ByteSerializableString;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+import no.ntnu.network.message.serialize.visitor.NofspSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the TlvStreamDecoder class.
+ */
+public class TlvStreamDecoderTest {
+    TlvStreamDecoder decoder;
+    Tlv firstTlv;
+    Tlv secondTlv;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() throws IOException {
+        decoder = new TlvStreamDecoder(NofspSerializationConstants.TLV_FRAME);
+
+        ByteSerializerVisitor serializer = new NofspSerializer();
+        firstTlv = serializer.serialize(new ByteSerializableString("greenhouse"));
+        secondTlv = serializer.serialize(new ByteSerializableString("x".repeat(3000)));
+    }
+
+    /**
+     * Writes bytes into the decoder.
+     *
+     * @param bytes the bytes to write
+     * @param offset the index of the first byte to write
+     * @param length the number of bytes to write
+     */
+    private void writeBytes(byte[] bytes, int offset, int length) {
+        int written = 0;
+        while (written < length) {
+            ByteBuffer buffer = decoder.getWritableBuffer();
+            int chunk = Math.min(buffer.remaining(), length - written);
+            buffer.put(bytes, offset + written, chunk);
+            written += chunk;
+        }
+    }
+
+    /**
+     * Tests that a complete TLV is decoded.
+     */
+    @Test
+    public void testCompleteTlv() throws IOException {
+        byte[] bytes = firstTlv.toBytes();
+        writeBytes(bytes, 0, bytes.length);
+
+        assertEquals(firstTlv, decoder.nextTlv());
+        assertNull(decoder.nextTlv());
+    }
+
+    /**
+     * Tests that no TLV is returned before all of its bytes are received.
+     */
+    @Test
+    public void testIncompleteTlv() throws IOException {
+        byte[] bytes = firstTlv.toBytes();
+        writeBytes(bytes, 0, bytes.length - 1);
+
+        assertNull(decoder.nextTlv());
+
+        writeBytes(bytes, bytes.length - 1, 1);
+
+        assertEquals(firstTlv, decoder.nextTlv());
+    }
+
+    /**
+     * Tests that TLVs arriving in arbitrary chunks, and bigger than the initial buffer, are decoded in order.
+     */
+    @Test
+    public void testChunkedTlvs() throws IOException {
+        byte[] firstBytes = firstTlv.toBytes();
+        byte[] secondBytes = secondTlv.toBytes();
+        byte[] stream = new byte[firstBytes.length + secondBytes.length];
+        System.arraycopy(firstBytes, 0, stream, 0, firstBytes.length);
+        System.arraycopy(secondBytes, 0, stream, firstBytes.length, secondBytes.length);
+
+        Tlv[] decoded = new Tlv[2];
+        int decodedCount = 0;
+        int position = 0;
+        while (position < stream.length) {
+            int chunk = Math.min(7, stream.length - position);
+            writeBytes(stream, position, chunk);
+            position += chunk;
+
+            Tlv tlv = decoder.nextTlv();
+            while (tlv != null) {
+                decoded[decodedCount++] = tlv;
+                tlv = decoder.nextTlv();
+            }
+        }
+
+        assertEquals(2, decodedCount);
+        assertEquals(firstTlv, decoded[0]);
+        assertEquals(secondTlv, decoded[1]);
+    }
+
+    /**
+     * Tests that a TLV whose length-field exceeds the maximum frame length is refused before any room is made for it.
+     */
+    @Test
+    public void testTlvLongerThanMaximumFrameLength() {
+        byte[] header = {0, 1, (byte) 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF};
+        writeBytes(header, 0, header.length);
+
+        assertThrows(IOException.class, () -> decoder.nextTlv());
+        assertTrue(decoder.getWritableBuffer().capacity() < NofspSerializationConstants.MAX_TLV_LENGTH);
+    }
+}
@@ -0,0 +1,218 @@
+package no.ntnu.network.controlprocess.pipeline;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.controlprocess.TcpControlProcess;
+import no.ntnu.network.executor.PlatformThreadExecutor;
+import no.ntnu.network.message.Message;
+import no.ntnu.network.message.common.ControlMessage;
+import no.ntnu.network.message.context.FieldNodeContext;
+import no.ntnu.network.message.context.ServerContext;
+import no.ntnu.network.message.deserialize.NofspFieldNodeDeserializer;
+import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.request.FieldNodePoolPullRequest;
+import no.ntnu.network.message.request.HeartbeatRequest;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the StagedControlProcess class.
+ * A client sends requests over a loopback connection to a staged control process, which answers every processed
+ * request with a heartbeat carrying the id of the request.
+ */
+public class StagedControlProcessTest {
+    private static final int QUEUE_CAPACITY = 16;
+    private static final long TIMEOUT_MILLIS = 5000;
+    Socket clientSocket;
+    Socket serverSocket;
+    TcpControlProcess<FieldNodeContext> client;
+    StagedControlProcess<ServerContext> stagedProcess;
+    PipelineMetrics metrics;
+    TestHandler handler;
+
+    /**
+     * A handler recording the processed messages, answering each of them once the processing gate opens.
+     */
+    private class TestHandler implements StagedMessageHandler<ServerContext> {
+        final List<Integer> processedIds;
+        final CountDownLatch processingGate;
+        final CountDownLatch closedLatch;
+        volatile boolean connected;
+
+        /**
+         * Creates a new TestHandler.
+         *
+         * @param processingGate the gate every message waits for before being processed
+         */
+        TestHandler(CountDownLatch processingGate) {
+            this.processedIds = new CopyOnWriteArrayList<>();
+            this.processingGate = processingGate;
+            this.closedLatch = new CountDownLatch(1);
+            this.connected = true;
+        }
+
+        @Override
+        public void processMessage(Message<ServerContext> message) {
+            try {
+                processingGate.await();
+                int id = ((ControlMessage) message).getId();
+                processedIds.add(id);
+                stagedProcess.sendMessage(new HeartbeatRequest<>(id));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                fail(e.getMessage());
+            }
+        }
+
+        @Override
+        public void handleMessageReadingException(IOException e) {
+            // a reading exception only closes the connection
+        }
+
+        @Override
+        public void handleMessageSendingException(IOException e) {
+            // a sending exception only closes the connection
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public void close() {
+            connected = false;
+            closedLatch.countDown();
+        }
+    }
+
+    /**
+     * Setting up for the following test methods.
+     *
+     * @throws IOException thrown if the loopback connection cannot be set up
+     */
+    @Before
+    public void setup() throws IOException {
+        try (ServerSocket listener = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            clientSocket = new Socket(InetAddress.getLoopbackAddress(), listener.getLocalPort());
+            serverSocket = listener.accept();
+        }
+
+        NofspFrameSerializer serializer = new NofspFrameSerializer();
+        client = new TcpControlProcess<>(clientSocket, serializer, new NofspFieldNodeDeserializer());
+        metrics = new PipelineMetrics();
+    }
+
+    /**
+     * Closes the loopback connection.
+     *
+     * @throws IOException thrown if the sockets cannot be closed
+     */
+    @After
+    public void teardown() throws IOException {
+        clientSocket.close();
+        serverSocket.close();
+    }
+
+    /**
+     * Starts the staged control process on the server side of the connection.
+     *
+     * @param processingGate the gate every message waits for before being processed
+     * @throws IOException thrown if the control process cannot be created
+     */
+    private void startStagedProcess(CountDownLatch processingGate) throws IOException {
+        handler = new TestHandler(processingGate);
+        TcpControlProcess<ServerContext> serverProcess = new TcpControlProcess<>(serverSocket,
+                new NofspFrameSerializer(), new NofspServerDeserializer((clientAddress, deviceAddress) -> DeviceClass.S1));
+        stagedProcess = new StagedControlProcess<>(serverProcess, handler, QUEUE_CAPACITY, metrics);
+        stagedProcess.start(new PlatformThreadExecutor());
+    }
+
+    /**
+     * Tests that received messages are processed, and their answers sent, in the order the messages were received.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testMessagesProcessedAndSentInOrder() throws IOException {
+        startStagedProcess(new CountDownLatch(0));
+        int messages = QUEUE_CAPACITY * 4;
+
+        for (int id = 1; id <= messages; id++) {
+            client.sendMessage(new FieldNodePoolPullRequest(id));
+        }
+
+        for (int id = 1; id <= messages; id++) {
+            Message<FieldNodeContext> answer = client.getNextMessage();
+            assertEquals(new HeartbeatRequest<>(id), answer);
+        }
+
+        assertEquals(messages, handler.processedIds.size());
+        for (PipelineStage stage : PipelineStage.values()) {
+            assertEquals(messages, metrics.getStage(stage).getItemCount());
+        }
+    }
+
+    /**
+     * Tests that the socket keeps being read and decoded while the processing of a message is stalled.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void testStalledProcessingDoesNotStopReading() throws IOException, InterruptedException {
+        CountDownLatch processingGate = new CountDownLatch(1);
+        startStagedProcess(processingGate);
+        int messages = QUEUE_CAPACITY / 2;
+
+        for (int id = 1; id <= messages; id++) {
+            client.sendMessage(new FieldNodePoolPullRequest(id));
+        }
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (metrics.getStage(PipelineStage.DECODE).getItemCount() < messages &&
+                System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(messages, metrics.getStage(PipelineStage.DECODE).getItemCount());
+        assertTrue(handler.processedIds.isEmpty());
+
+        processingGate.countDown();
+        for (int id = 1; id <= messages; id++) {
+            assertEquals(new HeartbeatRequest<>(id), client.getNextMessage());
+        }
+    }
+
+    /**
+     * Tests that the connection is closed once the end of the stream is met, after the messages received before it
+     * have been processed and answered.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void testEndOfStreamClosesConnection() throws IOException, InterruptedException {
+        startStagedProcess(new CountDownLatch(0));
+
+        client.sendMessage(new FieldNodePoolPullRequest(1));
+        clientSocket.shutdownOutput();
+
+        assertEquals(new HeartbeatRequest<>(1), client.getNextMessage());
+        assertTrue(handler.closedLatch.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertEquals(List.of(1), handler.processedIds);
+    }
+}
@@ -4,9 +4,11 @@ import no.ntnu.controlpanel.ControlPanel;
 import no.ntnu.fieldnode.device.DeviceClass;
 import no.ntnu.network.message.context.ControlPanelContext;
 import no.ntnu.network.message.deserialize.component.MessageDeserializer;
+import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
 import no.ntnu.network.message.encryption.keygen.AsymmetricKeyPairGenerator;
 import no.ntnu.network.message.encryption.keygen.RSAKeyPairGenerator;
 import no.ntnu.network.message.request.HeartbeatRequest;
+import no.ntnu.network.message.request.SensorDataKeyRequest;
 import no.ntnu.network.message.request.ServerFnsmNotificationRequest;
 import no.ntnu.network.message.response.ActuatorStateSetControlPanelResponse;
 import no.ntnu.network.message.response.FieldNodePoolResponse;
@@ -155,4 +157,21 @@ public class NofspControlPanelDeserializerTest {
 
         assertEquals(response, deserializer.deserializeMessage(tlv));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the serialization of {@code SensorDataKeyRequest}.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws NoSuchAlgorithmException thrown if the AES algorithm is not found
+     */
+    @Test
+    public void testSensorDataKeyRequestSerialization() throws IOException, NoSuchAlgorithmException {
+        AESKeyGenerator keyGen = new AESKeyGenerator();
+        keyGen.createKey();
+        SensorDataKeyRequest request = new SensorDataKeyRequest(3, 7, keyGen.getKey());
+
+        Tlv tlv = serializer.serialize(request);
+
+        assertEquals(request, deserializer.deserializeMessage(tlv));
+    }
+}
@@ -4,15 +4,20 @@ import no.ntnu.network.message.context.FieldNodeContext;
 import no.ntnu.network.message.deserialize.component.MessageDeserializer;
 import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
 import no.ntnu.network.message.encryption.keygen.AsymmetricKeyPairGenerator;
+import no.ntnu.network.message.encryption.keygen.ECKeyPairGenerator;
 import no.ntnu.network.message.encryption.keygen.RSAKeyPairGenerator;
 import no.ntnu.network.message.encryption.keygen.SymmetricKeyGenerator;
 import no.ntnu.network.message.request.AdlUpdateRequest;
 import no.ntnu.network.message.request.FieldNodeActivateActuatorRequest;
 import no.ntnu.network.message.response.AsymmetricEncryptionResponse;
 import no.ntnu.network.message.response.DisconnectionAllowedResponse;
+import no.ntnu.network.message.response.KeyAgreementResponse;
+import no.ntnu.network.message.response.RegistrationConfirmationResponse;
 import no.ntnu.network.message.response.ServerFnsmUpdatedResponse;
+import no.ntnu.network.message.response.SessionResumedResponse;
 import no.ntnu.network.message.response.SymmetricEncryptionResponse;
 import no.ntnu.network.message.response.error.KeyGenError;
+import no.ntnu.network.message.response.error.ResumptionDeclinedError;
 import no.ntnu.network.message.response.error.ServerFnsmUpdateRejectedError;
 import no.ntnu.network.message.response.error.UnsecureRequestError;
 import no.ntnu.network.message.serialize.NofspSerializationConstants;
@@ -141,6 +146,25 @@ public class NofspFieldNodeDeserializerTest {
         assertEquals(response, deserializer.deserializeMessage(tlv));
     }
 
+    /**
+     * Tests the serialization of the {@code KeyAgreementResponse}.
+     * This test covers the response for all clients, as it is implemented in the base class for client message
+     * deserialization.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testKeyAgreementResponseSerialization() throws IOException, NoSuchAlgorithmException {
+        ECKeyPairGenerator keyGen = new ECKeyPairGenerator();
+        keyGen.createKeys();
+        PublicKey key = keyGen.getKeyPair().getPublic();
+        KeyAgreementResponse<FieldNodeContext> response = new KeyAgreementResponse<>(key);
+
+        Tlv tlv = serializer.serialize(response);
+
+        assertEquals(response, deserializer.deserializeMessage(tlv));
+    }
+
     /**
      * Tests the serialization of the {@code SymmetricEncryptionResponse}.
      * This test covers the response for all clients, as it is implemented in the base class for client message
@@ -191,4 +215,57 @@ public class NofspFieldNodeDeserializerTest {
 
         assertEquals(response, deserializer.deserializeMessage(tlv));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the serialization of the {@code RegistrationConfirmationResponse}, both with and without a resumption
+     * ticket.
+     * This test covers the response for all clients, as it is implemented in the base class for client message
+     * deserialization.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testRegistrationConfirmationResponseSerialization() throws IOException {
+        RegistrationConfirmationResponse<FieldNodeContext> response = new RegistrationConfirmationResponse<>(3);
+        RegistrationConfirmationResponse<FieldNodeContext> ticketResponse =
+                new RegistrationConfirmationResponse<>(3, "dGlja2V0");
+
+        Tlv tlv = serializer.serialize(response);
+        Tlv ticketTlv = serializer.serialize(ticketResponse);
+
+        assertEquals(response, deserializer.deserializeMessage(tlv));
+        assertEquals(ticketResponse, deserializer.deserializeMessage(ticketTlv));
+    }
+
+    /**
+     * Tests the serialization of the {@code SessionResumedResponse}.
+     * This test covers the response for all clients, as it is implemented in the base class for client message
+     * deserialization.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testSessionResumedResponseSerialization() throws IOException {
+        SessionResumedResponse<FieldNodeContext> response = new SessionResumedResponse<>(5, "dGlja2V0");
+
+        Tlv tlv = serializer.serialize(response);
+
+        assertEquals(response, deserializer.deserializeMessage(tlv));
+    }
+
+    /**
+     * Tests the serialization of the {@code ResumptionDeclinedError}.
+     * This test covers the response for all clients, as it is implemented in the base class for client message
+     * deserialization.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testResumptionDeclinedErrorSerialization() throws IOException {
+        ResumptionDeclinedError<FieldNodeContext> response = new ResumptionDeclinedError<>("TestError");
+
+        Tlv tlv = serializer.serialize(response);
+
+        assertEquals(response, deserializer.deserializeMessage(tlv));
+    }
+}
@@ -7,6 +7,7 @@ import no.ntnu.network.message.Message;
 import no.ntnu.network.message.common.ControlMessage;
 import no.ntnu.network.message.context.ServerContext;
 import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
+import no.ntnu.network.message.encryption.keygen.ECKeyPairGenerator;
 import no.ntnu.network.message.encryption.keygen.SymmetricKeyGenerator;
 import no.ntnu.network.message.request.*;
 import no.ntnu.network.message.response.*;
@@ -317,4 +318,48 @@ public class NofspServerDeserializerTest {
 
         assertEquals(request, deserializer.deserializeMessage(tlv));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the serialization of the {@code KeyAgreementRequest}.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testKeyAgreementRequestSerialization() throws IOException, NoSuchAlgorithmException {
+        ECKeyPairGenerator keyGen = new ECKeyPairGenerator();
+        keyGen.createKeys();
+        KeyAgreementRequest request = new KeyAgreementRequest(keyGen.getKeyPair());
+
+        Tlv tlv = serializer.serialize(request);
+
+        assertEquals(request, deserializer.deserializeMessage(tlv));
+    }
+
+    /**
+     * Tests the serialization of the {@code ResumeSessionRequest}.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testResumeSessionRequestSerialization() throws IOException {
+        ResumeSessionRequest request = new ResumeSessionRequest("dGlja2V0", "cHJvb2Y");
+
+        Tlv tlv = serializer.serialize(request);
+
+        assertEquals(request, deserializer.deserializeMessage(tlv));
+    }
+
+    /**
+     * Tests the serialization of the {@code SensorDataKeyAcceptedResponse}.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testSensorDataKeyAcceptedResponseSerialization() throws IOException {
+        SensorDataKeyAcceptedResponse response = new SensorDataKeyAcceptedResponse(3, 7);
+
+        Tlv tlv = serializer.serialize(response);
+
+        assertEquals(response, deserializer.deserializeMessage(tlv));
+    }
+}
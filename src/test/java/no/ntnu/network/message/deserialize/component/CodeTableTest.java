@@ -0,0 +1,51 @@
+package no.ntnu.network.message.deserialize.component;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the CodeTable class.
+ */
+public class CodeTableTest {
+    CodeTable<String> table;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        table = new CodeTable<>();
+        table.put(0, "integer");
+        table.put(512, "sensor data");
+    }
+
+    /**
+     * Tests that entries are returned for the codes they were put for.
+     */
+    @Test
+    public void testGet() {
+        assertEquals("integer", table.get(0));
+        assertEquals("sensor data", table.get(512));
+    }
+
+    /**
+     * Tests that no entry is returned for codes without an entry, including codes outside the table.
+     */
+    @Test
+    public void testGetMissing() {
+        assertNull(table.get(1));
+        assertNull(table.get(513));
+        assertNull(table.get(-1));
+        assertNull(table.get(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Tests that putting an entry for a code outside the 16-bit range is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPutOutOfRange() {
+        table.put(65536, "too big");
+    }
+}
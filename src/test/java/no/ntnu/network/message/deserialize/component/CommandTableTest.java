@@ -0,0 +1,59 @@
+package no.ntnu.network.message.deserialize.component;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the CommandTable class.
+ */
+public class CommandTableTest {
+    CommandTable<Integer> table;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        table = new CommandTable<>();
+        for (int i = 0; i < 100; i++) {
+            table.put("CMD" + i, i);
+        }
+    }
+
+    /**
+     * Tests that entries are found for commands given as a range of a larger array.
+     */
+    @Test
+    public void testGetFromRange() {
+        byte[] bytes = "xxCMD42yy".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(Integer.valueOf(42), table.get(bytes, 2, 5));
+        assertEquals(Integer.valueOf(4), table.get(bytes, 2, 4));
+    }
+
+    /**
+     * Tests that no entry is found for commands not put into the table.
+     */
+    @Test
+    public void testGetMissing() {
+        byte[] bytes = "CMD100".getBytes(StandardCharsets.UTF_8);
+
+        assertNull(table.get(bytes, 0, bytes.length));
+        assertNull(table.get(bytes, 0, 0));
+    }
+
+    /**
+     * Tests that putting an entry for a command already in the table replaces its entry.
+     */
+    @Test
+    public void testReplace() {
+        table.put("CMD7", 700);
+        byte[] bytes = "CMD7".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(Integer.valueOf(700), table.get(bytes, 0, bytes.length));
+    }
+}
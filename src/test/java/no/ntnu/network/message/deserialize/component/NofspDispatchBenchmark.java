@@ -0,0 +1,165 @@
+package no.ntnu.network.message.deserialize.component;
+
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.ByteHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark of the dispatch of NOFSP messages with the CodeTable and CommandTable classes.
+ * For every message type, the deserialization method is looked up the way the deserializers used to look it up, in
+ * maps keyed by the binary string rendering of the type-field, the decoded request command and the boxed status code,
+ * and through the tables keyed by the numeric type code and the encoded command. The nanoseconds per dispatch are
+ * reported for both.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class NofspDispatchBenchmark {
+    private static final int DISPATCHES = 200000;
+    private static final int ROUNDS = 5;
+    private static final List<String> COMMANDS = List.of(
+            NofspSerializationConstants.HEART_BEAT,
+            NofspSerializationConstants.REGISTER_FIELD_NODE_COMMAND,
+            NofspSerializationConstants.REGISTER_CONTROL_PANEL_COMMAND,
+            NofspSerializationConstants.FIELD_NODE_POOL_PULL_COMMAND,
+            NofspSerializationConstants.SUBSCRIBE_TO_FIELD_NODE_COMMAND,
+            NofspSerializationConstants.UNSUBSCRIBE_FROM_FIELD_NODE_COMMAND,
+            NofspSerializationConstants.ADL_UPDATE_COMMAND,
+            NofspSerializationConstants.ACTUATOR_NOTIFICATION_COMMAND,
+            NofspSerializationConstants.FNSM_NOTIFICATION_COMMAND,
+            NofspSerializationConstants.ACTIVATE_ACTUATOR_COMMAND,
+            NofspSerializationConstants.DISCONNECT_CLIENT_COMMAND,
+            NofspSerializationConstants.ASYMMETRIC_ENCRYPTION_REQUEST,
+            NofspSerializationConstants.SYMMETRIC_ENCRYPTION_REQUEST,
+            NofspSerializationConstants.KEY_AGREEMENT_REQUEST,
+            NofspSerializationConstants.RESUME_SESSION_REQUEST,
+            NofspSerializationConstants.SENSOR_DATA_KEY_COMMAND);
+    private static final List<Integer> STATUS_CODES = List.of(
+            NofspSerializationConstants.HEART_BEAT_CODE,
+            NofspSerializationConstants.NODE_REGISTRATION_CONFIRMED_CODE,
+            NofspSerializationConstants.SUBSCRIBED_TO_FIELD_NODE_CODE,
+            NofspSerializationConstants.ADL_UPDATED_CODE,
+            NofspSerializationConstants.ACTUATOR_STATE_SET_CODE,
+            NofspSerializationConstants.KEY_AGREEMENT_CODE,
+            NofspSerializationConstants.FIELD_NODE_UNREACHABLE_CODE,
+            NofspSerializationConstants.RESUMPTION_DECLINED_CODE);
+    private static final List<byte[]> FRAME_TYPES = List.of(
+            NofspSerializationConstants.REQUEST_BYTES,
+            NofspSerializationConstants.RESPONSE_BYTES,
+            NofspSerializationConstants.SENSOR_DATA_BYTES,
+            NofspSerializationConstants.SENSOR_DATA_BATCH_BYTES);
+    Map<String, String> frameMap;
+    Map<String, String> commandMap;
+    Map<Integer, String> statusCodeMap;
+    CodeTable<String> frameTable;
+    CommandTable<String> commandTable;
+    CodeTable<String> statusCodeTable;
+    int dispatched;
+
+    /**
+     * Setting up for the following benchmark methods.
+     */
+    @Before
+    public void setup() {
+        frameMap = new HashMap<>();
+        commandMap = new HashMap<>();
+        statusCodeMap = new HashMap<>();
+        frameTable = new CodeTable<>();
+        commandTable = new CommandTable<>();
+        statusCodeTable = new CodeTable<>();
+
+        for (byte[] typeField : FRAME_TYPES) {
+            frameMap.put(ByteHandler.bytesToString(typeField), "frame");
+            frameTable.put(NofspDeserializer.typeCode(typeField), "frame");
+        }
+        for (String command : COMMANDS) {
+            commandMap.put(command, command);
+            commandTable.put(command, command);
+        }
+        for (int statusCode : STATUS_CODES) {
+            statusCodeMap.put(statusCode, "response");
+            statusCodeTable.put(statusCode, "response");
+        }
+    }
+
+    /**
+     * Dispatches a message a number of times per round, returning the nanoseconds per dispatch of the fastest round.
+     *
+     * @param dispatch looks up the deserialization method of the message
+     * @return the nanoseconds per dispatch
+     */
+    private double measure(Supplier<String> dispatch) {
+        long result = Long.MAX_VALUE;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < DISPATCHES; i++) {
+                if (dispatch.get() != null) {
+                    dispatched++;
+                }
+            }
+            result = Math.min(result, System.nanoTime() - start);
+        }
+
+        return (double) result / DISPATCHES;
+    }
+
+    /**
+     * Prints the nanoseconds per dispatch of a message type through the maps and through the tables.
+     *
+     * @param messageType the name of the message type
+     * @param mapDispatch looks up the deserialization method through the maps
+     * @param tableDispatch looks up the deserialization method through the tables
+     */
+    private void report(String messageType, Supplier<String> mapDispatch, Supplier<String> tableDispatch) {
+        assertEquals(mapDispatch.get(), tableDispatch.get());
+
+        double mapNanos = measure(mapDispatch);
+        double tableNanos = measure(tableDispatch);
+
+        System.out.println(String.format("Dispatching %s: %.1f ns through the maps, %.1f ns through the tables.",
+                messageType, mapNanos, tableNanos));
+    }
+
+    /**
+     * Reports the nanoseconds per dispatch of sensor data, of every request command and of response status codes,
+     * looked up through the maps and through the tables.
+     */
+    @Test
+    public void benchmarkDispatchPerMessageType() {
+        byte[] sensorDataType = NofspSerializationConstants.SENSOR_DATA_BYTES;
+        report("sensor data", () -> frameMap.get(ByteHandler.bytesToString(sensorDataType)),
+                () -> frameTable.get(NofspDeserializer.typeCode(sensorDataType)));
+
+        byte[] requestType = NofspSerializationConstants.REQUEST_BYTES;
+        for (String command : COMMANDS) {
+            // the value-field of the command TLV, as the deserializer finds it in the frame
+            byte[] commandField = command.getBytes(StandardCharsets.UTF_8);
+            report("request " + command,
+                    () -> frameMap.get(ByteHandler.bytesToString(requestType)) == null ? null :
+                            commandMap.get(new String(commandField, StandardCharsets.UTF_8)),
+                    () -> frameTable.get(NofspDeserializer.typeCode(requestType)) == null ? null :
+                            commandTable.get(commandField, 0, commandField.length));
+        }
+
+        byte[] responseType = NofspSerializationConstants.RESPONSE_BYTES;
+        for (int statusCode : STATUS_CODES) {
+            byte[] statusCodeField = new byte[] {(byte) statusCode};
+            report("response " + statusCode,
+                    () -> frameMap.get(ByteHandler.bytesToString(responseType)) == null ? null :
+                            statusCodeMap.get(ByteHandler.bytesToInt(statusCodeField)),
+                    () -> frameTable.get(NofspDeserializer.typeCode(responseType)) == null ? null :
+                            statusCodeTable.get(ByteHandler.bytesToInt(statusCodeField, 0, statusCodeField.length)));
+        }
+
+        assertTrue(dispatched > 0);
+    }
+}
@@ -0,0 +1,96 @@
+package no.ntnu.network.message.deserialize.component;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.message.sensordata.SduSensorDataCodec;
+import no.ntnu.network.message.sensordata.SduSensorDataMessage;
+import no.ntnu.network.message.sensordata.SensorDataReceiver;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.tlv.TlvReader;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the NofspSensorDataDeserializer class.
+ */
+public class NofspSensorDataDeserializerTest {
+    NofspSensorDataDeserializer deserializer;
+    List<SduSensorDataMessage> received;
+    SensorDataReceiver receiver;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        deserializer = new NofspSensorDataDeserializer((clientAddress, deviceAddress) -> DeviceClass.S1);
+        received = new ArrayList<>();
+        receiver = (fieldNodeAddress, sensorAddress, data) ->
+                received.add(new SduSensorDataMessage(fieldNodeAddress, sensorAddress, data));
+    }
+
+    /**
+     * Encodes a sensor data batch holding a given number of messages, the i-th message holding the data i * 0.25
+     * captured by sensor i * 100 of field node i % 3.
+     *
+     * @param messageCount the number of messages to hold
+     * @return a view of the encoded batch
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private static TlvView encodeBatch(int messageCount) throws IOException {
+        byte[] batch = new byte[SduSensorDataCodec.HEADER_LENGTH + messageCount * SduSensorDataCodec.MAX_FRAME_LENGTH];
+
+        int length = SduSensorDataCodec.HEADER_LENGTH;
+        for (int i = 0; i < messageCount; i++) {
+            length += SduSensorDataCodec.encode(i % 3, i * 100, i * 0.25, batch, length);
+        }
+        SduSensorDataCodec.encodeBatchHeader(length - SduSensorDataCodec.HEADER_LENGTH, batch, 0);
+
+        return new TlvReader(batch, 0, length, NofspSerializationConstants.TLV_FRAME).readNextView();
+    }
+
+    /**
+     * Tests that the sensor data of every message in a batch is delivered, in the order of the batch.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testDeserializeBatch() throws IOException {
+        List<SduSensorDataMessage> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(new SduSensorDataMessage(i % 3, i * 100, i * 0.25));
+        }
+
+        deserializer.deserializeMessage(encodeBatch(20), receiver);
+
+        assertEquals(expected, received);
+    }
+
+    /**
+     * Tests that an empty batch delivers no sensor data.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testDeserializeEmptyBatch() throws IOException {
+        deserializer.deserializeMessage(encodeBatch(0), receiver);
+
+        assertTrue(received.isEmpty());
+    }
+
+    /**
+     * Tests that a batch cannot be deserialized into a single sensor data message.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test(expected = IOException.class)
+    public void testDeserializeBatchIntoMessage() throws IOException {
+        deserializer.deserializeMessage(encodeBatch(1));
+    }
+}
@@ -1,6 +1,7 @@
 package no.ntnu.network.message.encryption;
 
 import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.SizeClassedByteArrayPool;
 import no.ntnu.network.message.common.ByteSerializableString;
 import no.ntnu.network.message.encryption.cipher.decrypt.AESDecryption;
 import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
@@ -9,6 +10,7 @@ import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
 import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
 import no.ntnu.network.message.encryption.keygen.SymmetricKeyGenerator;
 import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
 import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
 import no.ntnu.network.message.serialize.visitor.NofspSerializer;
 import org.junit.Before;
@@ -73,4 +75,38 @@ public class TlvEncryptionTest {
 
         assertNotEquals(originalTlv, encryptedTlv);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that encrypting and decrypting views into pooled value-fields reverts to the original TLV, and that all
+     * borrowed arrays are returned to the pool.
+     */
+    @Test
+    public void testPooledTlvEncryption() throws IOException, EncryptionException {
+        SizeClassedByteArrayPool pool = new SizeClassedByteArrayPool(true);
+        Tlv originalTlv = serializer.serialize(new ByteSerializableString("Hello world!"));
+
+        TlvView encryptedTlv = TlvEncryption.encryptTlv(TlvView.of(originalTlv), encryptor, pool);
+        TlvView decryptedTlv = TlvEncryption.decryptTlv(encryptedTlv, decryptor, pool);
+        pool.release(encryptedTlv.getValueBuffer());
+
+        assertEquals(originalTlv, decryptedTlv.toTlv());
+
+        pool.release(decryptedTlv.getValueBuffer());
+        assertEquals(0, pool.getOutstandingArrays());
+    }
+
+    /**
+     * Tests that decrypting a view in place reverts to the original TLV, writing the value-field over the encrypted
+     * one.
+     */
+    @Test
+    public void testInPlaceTlvDecryption() throws IOException, EncryptionException {
+        Tlv originalTlv = serializer.serialize(new ByteSerializableString("Hello world!"));
+        TlvView encryptedTlv = TlvView.of(TlvEncryption.encryptTlv(originalTlv, encryptor));
+
+        TlvView decryptedTlv = TlvEncryption.decryptTlvInPlace(encryptedTlv, decryptor);
+
+        assertSame(encryptedTlv.getValueBuffer(), decryptedTlv.getValueBuffer());
+        assertEquals(originalTlv, decryptedTlv.toTlv());
+    }
+}
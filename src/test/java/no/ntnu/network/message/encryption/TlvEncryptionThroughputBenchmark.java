@@ -0,0 +1,167 @@
+package no.ntnu.network.message.encryption;
+
+import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.bufferpool.SizeClassedByteArrayPool;
+import no.ntnu.network.message.common.ByteSerializableString;
+import no.ntnu.network.message.encryption.cipher.decrypt.AESDecryption;
+import no.ntnu.network.message.encryption.cipher.decrypt.DecryptionStrategy;
+import no.ntnu.network.message.encryption.cipher.encrypt.AESEncryption;
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.tool.tlv.TlvView;
+import no.ntnu.network.message.serialize.visitor.NofspSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Throughput benchmark of the {@code TlvEncryption} class.
+ * The benchmark encrypts and decrypts a control message sized TLV on a single thread, and reports the messages per
+ * second per core for the session encryption, compared to looking up and initializing a cipher for every message.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class TlvEncryptionThroughputBenchmark {
+    private static final long WARMUP_MILLIS = 300;
+    private static final long RUN_MILLIS = 700;
+    SecretKey key;
+    Tlv tlv;
+
+    /**
+     * A cipher looking up and initializing a new {@code Cipher} for every message, as the strategies used to.
+     */
+    private static class PerMessageCipher implements EncryptionStrategy, DecryptionStrategy {
+        private final int mode;
+        private final Key key;
+
+        /**
+         * Creates a new PerMessageCipher.
+         *
+         * @param mode the mode of the cipher
+         * @param key the key to use
+         */
+        PerMessageCipher(int mode, Key key) {
+            this.mode = mode;
+            this.key = key;
+        }
+
+        @Override
+        public byte[] encrypt(byte[] data) throws EncryptionException {
+            return transform(data);
+        }
+
+        @Override
+        public byte[] decrypt(byte[] data) throws EncryptionException {
+            return transform(data);
+        }
+
+        /**
+         * Transforms data using a new cipher.
+         *
+         * @param data the data to transform
+         * @return the transformed data
+         * @throws EncryptionException thrown if the transformation fails
+         */
+        private byte[] transform(byte[] data) throws EncryptionException {
+            byte[] result = null;
+
+            try {
+                Cipher cipher = Cipher.getInstance("AES");
+                cipher.init(mode, key);
+                result = cipher.doFinal(data);
+            } catch (GeneralSecurityException e) {
+                throw new EncryptionException(e.getMessage());
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * A round trip through encryption and decryption of a TLV.
+     */
+    private interface RoundTrip {
+        /**
+         * Encrypts and decrypts the TLV once.
+         *
+         * @return the decrypted tlv
+         * @throws EncryptionException thrown if encryption or decryption fails
+         */
+        Tlv run() throws EncryptionException;
+    }
+
+    /**
+     * Setting up for the following benchmark methods.
+     */
+    @Before
+    public void setup() throws NoSuchAlgorithmException, IOException {
+        AESKeyGenerator keyGenerator = new AESKeyGenerator();
+        keyGenerator.createKey();
+        key = keyGenerator.getKey();
+
+        tlv = new NofspSerializer().serialize(new ByteSerializableString("Actuator 2 of field node 14 set to 1."));
+    }
+
+    /**
+     * Runs round trips for a while, returning the round trips per second.
+     *
+     * @param roundTrip the round trip to run
+     * @return the round trips per second
+     * @throws EncryptionException thrown if encryption or decryption fails
+     */
+    private long measure(RoundTrip roundTrip) throws EncryptionException {
+        long warmupEnd = System.nanoTime() + WARMUP_MILLIS * 1000000;
+        while (System.nanoTime() < warmupEnd) {
+            assertEquals(tlv, roundTrip.run());
+        }
+
+        long roundTrips = 0;
+        long start = System.nanoTime();
+        long end = start + RUN_MILLIS * 1000000;
+        while (System.nanoTime() < end) {
+            roundTrip.run();
+            roundTrips++;
+        }
+
+        return roundTrips * 1000000000L / (System.nanoTime() - start);
+    }
+
+    /**
+     * Reports the messages per second per core encrypted and decrypted with a cipher looked up for every message,
+     * with the session encryption, and with the session encryption into pooled value-fields decrypted in place.
+     *
+     * @throws EncryptionException thrown if encryption or decryption fails
+     */
+    @Test
+    public void benchmarkSessionEncryptionThroughput() throws EncryptionException {
+        PerMessageCipher perMessageEncryption = new PerMessageCipher(Cipher.ENCRYPT_MODE, key);
+        PerMessageCipher perMessageDecryption = new PerMessageCipher(Cipher.DECRYPT_MODE, key);
+        AESEncryption encryption = new AESEncryption(key);
+        AESDecryption decryption = new AESDecryption(key);
+        SizeClassedByteArrayPool pool = new SizeClassedByteArrayPool();
+        TlvView view = TlvView.of(tlv);
+
+        long perMessage = measure(() -> TlvEncryption.decryptTlv(TlvEncryption.encryptTlv(tlv, perMessageEncryption),
+                perMessageDecryption));
+        long session = measure(() -> TlvEncryption.decryptTlv(TlvEncryption.encryptTlv(tlv, encryption), decryption));
+        long pooledInPlace = measure(() -> {
+            TlvView encrypted = TlvEncryption.encryptTlv(view, encryption, pool);
+            Tlv decrypted = TlvEncryption.decryptTlvInPlace(encrypted, decryption).toTlv();
+            pool.release(encrypted.getValueBuffer());
+            return decrypted;
+        });
+
+        System.out.println("TLV encryption round trips per second per core: cipher per message (AES/ECB) " +
+                perMessage + ", session cipher (AES/GCM) " + session + ", pooled and in place (AES/GCM) " +
+                pooledInPlace + ".");
+    }
+}
@@ -1,6 +1,7 @@
 package no.ntnu.network.message.encryption.cipher.encrypt;
 
 import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.message.encryption.cipher.AesGcm;
 import no.ntnu.network.message.encryption.cipher.decrypt.AESDecryption;
 import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
 import org.junit.Before;
@@ -60,4 +61,59 @@ public class AESEncryptorTest {
 
         assertFalse(Arrays.equals(bytes, encryptedBytes));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that every message is encrypted with a nonce of its own, so that encrypting the same bytes twice gives
+     * different results.
+     *
+     * @throws EncryptionException thrown if encryption fails
+     */
+    @Test
+    public void testNoncePerMessage() throws EncryptionException {
+        byte[] bytes = "This is the string to encrypt".getBytes(StandardCharsets.UTF_8);
+
+        byte[] firstEncryption = encryptor.encrypt(bytes);
+        byte[] secondEncryption = encryptor.encrypt(bytes);
+
+        assertEquals(bytes.length + AesGcm.OVERHEAD, firstEncryption.length);
+        assertFalse(Arrays.equals(Arrays.copyOf(firstEncryption, AesGcm.NONCE_LENGTH),
+                Arrays.copyOf(secondEncryption, AesGcm.NONCE_LENGTH)));
+        assertArrayEquals(bytes, decryptor.decrypt(secondEncryption));
+        assertArrayEquals(bytes, decryptor.decrypt(firstEncryption));
+    }
+
+    /**
+     * Tests that bytes that have been tampered with are rejected rather than decrypted.
+     *
+     * @throws EncryptionException thrown if encryption fails
+     */
+    @Test
+    public void testTamperingDetected() throws EncryptionException {
+        byte[] bytes = "This is the string to encrypt".getBytes(StandardCharsets.UTF_8);
+
+        byte[] encryptedBytes = encryptor.encrypt(bytes);
+        encryptedBytes[AesGcm.NONCE_LENGTH] ^= 1;
+
+        assertThrows(EncryptionException.class, () -> decryptor.decrypt(encryptedBytes));
+
+        encryptedBytes[AesGcm.NONCE_LENGTH] ^= 1;
+        assertArrayEquals(bytes, decryptor.decrypt(encryptedBytes));
+    }
+
+    /**
+     * Tests that bytes decrypted in place are written over the encrypted bytes.
+     *
+     * @throws EncryptionException thrown if encryption fails
+     */
+    @Test
+    public void testDecryptInPlace() throws EncryptionException {
+        byte[] bytes = "This is the string to encrypt".getBytes(StandardCharsets.UTF_8);
+        byte[] encryptedBytes = encryptor.encrypt(bytes);
+        byte[] buffer = new byte[encryptedBytes.length + 4];
+        System.arraycopy(encryptedBytes, 0, buffer, 2, encryptedBytes.length);
+
+        int length = decryptor.decryptInPlace(buffer, 2, encryptedBytes.length);
+
+        assertArrayEquals(bytes, Arrays.copyOfRange(buffer, 2, 2 + length));
+    }
+}
@@ -0,0 +1,183 @@
+package no.ntnu.network.message.encryption.cipher.encrypt;
+
+import no.ntnu.exception.EncryptionException;
+import no.ntnu.network.message.encryption.cipher.AesGcm;
+import no.ntnu.network.message.encryption.cipher.DatagramGcm;
+import no.ntnu.network.message.encryption.cipher.decrypt.AESDecryption;
+import no.ntnu.network.message.encryption.cipher.decrypt.DatagramDecryption;
+import no.ntnu.network.message.encryption.cipher.decrypt.DatagramKeyring;
+import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the {@code DatagramEncryption}, {@code DatagramDecryption} and {@code DatagramKeyring}.
+ * The class verifies that sensor data datagrams are authenticated per channel, and that replayed datagrams are
+ * rejected while reordered datagrams are accepted.
+ */
+public class DatagramEncryptionTest {
+    private static final int CHANNEL_ID = 7;
+    SecretKey sessionKey;
+    DatagramEncryption encryptor;
+    DatagramDecryption decryptor;
+    byte[] bytes;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() throws NoSuchAlgorithmException {
+        AESKeyGenerator keyGen = new AESKeyGenerator();
+        keyGen.createKey();
+        sessionKey = keyGen.getKey();
+
+        encryptor = new DatagramEncryption(sessionKey, CHANNEL_ID);
+        decryptor = new DatagramDecryption(sessionKey, CHANNEL_ID);
+        bytes = "This is the datagram to encrypt".getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Tests that the decryptor reverses the effects of the encryptor, and that the nonce holds the channel id.
+     *
+     * @throws EncryptionException thrown if encryption fails
+     */
+    @Test
+    public void testEncryption() throws EncryptionException {
+        byte[] encryptedBytes = encryptor.encrypt(bytes);
+
+        assertEquals(bytes.length + AesGcm.OVERHEAD, encryptedBytes.length);
+        assertEquals(CHANNEL_ID, DatagramGcm.readChannelId(encryptedBytes, 0));
+        assertArrayEquals(bytes, decryptor.decrypt(encryptedBytes));
+    }
+
+    /**
+     * Tests that bytes encrypted in place, behind room for the nonce, are decrypted in place to the same bytes.
+     *
+     * @throws EncryptionException thrown if encryption fails
+     */
+    @Test
+    public void testInPlace() throws EncryptionException {
+        byte[] buffer = new byte[2 + bytes.length + AesGcm.OVERHEAD];
+        System.arraycopy(bytes, 0, buffer, 2 + encryptor.getHeaderLength(), bytes.length);
+
+        int encryptedLength = encryptor.encryptInPlace(buffer, 2, bytes.length);
+        int decryptedLength = decryptor.decryptInPlace(buffer, 2, encryptedLength);
+
+        assertEquals(bytes.length + AesGcm.OVERHEAD, encryptedLength);
+        assertArrayEquals(bytes, Arrays.copyOfRange(buffer, 2, 2 + decryptedLength));
+    }
+
+    /**
+     * Tests that encrypting in place fails if the array has no room for the tag.
+     */
+    @Test
+    public void testInPlaceWithoutRoom() {
+        byte[] buffer = new byte[bytes.length + AesGcm.NONCE_LENGTH];
+
+        assertThrows(EncryptionException.class, () -> encryptor.encryptInPlace(buffer, 0, bytes.length));
+    }
+
+    /**
+     * Tests that a datagram received twice is only accepted the first time.
+     *
+     * @throws EncryptionException thrown if encryption fails
+     */
+    @Test
+    public void testReplayRejected() throws EncryptionException {
+        byte[] encryptedBytes = encryptor.encrypt(bytes);
+
+        assertArrayEquals(bytes, decryptor.decrypt(encryptedBytes));
+        assertThrows(EncryptionException.class, () -> decryptor.decrypt(encryptedBytes));
+    }
+
+    /**
+     * Tests that datagrams received out of order are accepted, unless they are too far behind the newest one.
+     *
+     * @throws EncryptionException thrown if encryption fails
+     */
+    @Test
+    public void testReorderingAccepted() throws EncryptionException {
+        byte[] first = encryptor.encrypt(bytes);
+        byte[] second = encryptor.encrypt(bytes);
+        byte[] third = encryptor.encrypt(bytes);
+
+        assertArrayEquals(bytes, decryptor.decrypt(third));
+        assertArrayEquals(bytes, decryptor.decrypt(first));
+        assertArrayEquals(bytes, decryptor.decrypt(second));
+
+        byte[] old = encryptor.encrypt(bytes);
+        for (int i = 0; i < Long.SIZE; i++) {
+            decryptor.decrypt(encryptor.encrypt(bytes));
+        }
+        assertThrows(EncryptionException.class, () -> decryptor.decrypt(old));
+    }
+
+    /**
+     * Tests that datagrams that have been tampered with are rejected, without being counted as received.
+     *
+     * @throws EncryptionException thrown if encryption fails
+     */
+    @Test
+    public void testTamperingDetected() throws EncryptionException {
+        byte[] encryptedBytes = encryptor.encrypt(bytes);
+        encryptedBytes[AesGcm.NONCE_LENGTH] ^= 1;
+
+        assertThrows(EncryptionException.class, () -> decryptor.decrypt(encryptedBytes));
+
+        encryptedBytes[AesGcm.NONCE_LENGTH] ^= 1;
+        assertArrayEquals(bytes, decryptor.decrypt(encryptedBytes));
+    }
+
+    /**
+     * Tests that datagrams of another channel are rejected, even with the same session key.
+     *
+     * @throws EncryptionException thrown if encryption fails
+     */
+    @Test
+    public void testOtherChannelRejected() throws EncryptionException {
+        byte[] encryptedBytes = new DatagramEncryption(sessionKey, CHANNEL_ID + 1).encrypt(bytes);
+
+        assertThrows(EncryptionException.class, () -> decryptor.decrypt(encryptedBytes));
+    }
+
+    /**
+     * Tests that datagrams are not encrypted with the session key itself, so that they cannot be mistaken for
+     * control messages of the session.
+     *
+     * @throws EncryptionException thrown if encryption fails
+     */
+    @Test
+    public void testKeyDerived() throws EncryptionException {
+        byte[] encryptedBytes = encryptor.encrypt(bytes);
+
+        assertThrows(EncryptionException.class, () -> new AESDecryption(sessionKey).decrypt(encryptedBytes));
+    }
+
+    /**
+     * Tests that the keyring decrypts datagrams of every channel with a key, and rejects those of other channels.
+     *
+     * @throws EncryptionException thrown if encryption fails
+     */
+    @Test
+    public void testKeyring() throws EncryptionException {
+        DatagramKeyring keyring = new DatagramKeyring();
+        keyring.addChannel(CHANNEL_ID, sessionKey);
+        byte[] encryptedBytes = encryptor.encrypt(bytes);
+        byte[] otherEncryptedBytes = new DatagramEncryption(sessionKey, CHANNEL_ID + 1).encrypt(bytes);
+
+        assertEquals(1, keyring.getChannelCount());
+        assertArrayEquals(bytes, keyring.decrypt(encryptedBytes));
+        assertThrows(EncryptionException.class, () -> keyring.decrypt(otherEncryptedBytes));
+
+        keyring.removeChannel(CHANNEL_ID);
+        assertEquals(0, keyring.getChannelCount());
+        assertThrows(EncryptionException.class, () -> keyring.decrypt(encryptor.encrypt(bytes)));
+    }
+}
@@ -0,0 +1,150 @@
+package no.ntnu.network.message.encryption.keygen;
+
+import no.ntnu.network.message.encryption.cipher.decrypt.RSADecryption;
+import no.ntnu.network.message.encryption.cipher.encrypt.RSAEncryption;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Throughput benchmark of the handshakes initiating symmetric encryption.
+ * The benchmark runs the key material work of both parties of a handshake on a single thread, without the network,
+ * and reports the handshakes per second for asymmetric encryption with a key pair generated for every handshake, for
+ * asymmetric encryption with pre-generated key pairs, and for the elliptic-curve key agreement.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class HandshakeRateBenchmark {
+    private static final int RSA_CAPACITY = 8;
+    private static final int EC_CAPACITY = 32;
+    private static final long RUN_MILLIS = 700;
+    private static final long FILL_TIMEOUT_MILLIS = 30000;
+    KeyMaterialService service;
+
+    /**
+     * A handshake between a client and the server.
+     */
+    private interface Handshake {
+        /**
+         * Runs the handshake once.
+         *
+         * @return true if both parties ended up with the same secret key
+         * @throws Exception thrown if the handshake fails
+         */
+        boolean run() throws Exception;
+    }
+
+    /**
+     * Setting up for the following benchmark methods.
+     */
+    @Before
+    public void setup() {
+        service = new KeyMaterialService(RSA_CAPACITY, RSA_CAPACITY / 2, EC_CAPACITY, EC_CAPACITY / 2, 1);
+    }
+
+    /**
+     * Stops the background generation of key pairs.
+     */
+    @After
+    public void tearDown() {
+        service.stop();
+    }
+
+    /**
+     * Runs a handshake using asymmetric encryption, where the client sends a secret key encrypted with the public key
+     * of the server.
+     *
+     * @param serverPair the key pair of the server
+     * @return true if both parties ended up with the same secret key
+     * @throws Exception thrown if the handshake fails
+     */
+    private static boolean asymmetricHandshake(KeyPair serverPair) throws Exception {
+        AESKeyGenerator keyGen = new AESKeyGenerator();
+        keyGen.createKey();
+        byte[] clientKey = keyGen.getKey().getEncoded();
+
+        byte[] encryptedKey = new RSAEncryption(serverPair.getPublic()).encrypt(clientKey);
+        byte[] serverKey = new RSADecryption(serverPair.getPrivate()).decrypt(encryptedKey);
+
+        return Arrays.equals(clientKey, serverKey);
+    }
+
+    /**
+     * Runs handshakes for a while, or until a given number of handshakes have run, returning the handshakes per
+     * second.
+     *
+     * @param handshake the handshake to run
+     * @param maxHandshakes the maximum number of handshakes to run
+     * @return the handshakes per second
+     * @throws Exception thrown if a handshake fails
+     */
+    private static long measure(Handshake handshake, int maxHandshakes) throws Exception {
+        assertTrue(handshake.run());
+
+        long handshakes = 0;
+        long start = System.nanoTime();
+        long end = start + RUN_MILLIS * 1000000;
+        while (System.nanoTime() < end && handshakes < maxHandshakes) {
+            assertTrue(handshake.run());
+            handshakes++;
+        }
+
+        return handshakes * 1000000000L / (System.nanoTime() - start);
+    }
+
+    /**
+     * Waits until a pool is full, or the fill timeout runs out.
+     *
+     * @param pool the pool to wait for
+     * @param capacity the capacity of the pool
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    private static void awaitFull(KeyPairPool pool, int capacity) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + FILL_TIMEOUT_MILLIS;
+        while (pool.getAvailableCount() < capacity && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Reports the handshakes per second of asymmetric encryption with an RSA pair generated by the server for every
+     * handshake, of asymmetric encryption with pre-generated RSA pairs (a burst of at most the pool capacity, as
+     * seen by clients connecting at once), and of the key agreement.
+     *
+     * @throws Exception thrown if a handshake fails
+     */
+    @Test
+    public void benchmarkHandshakeRate() throws Exception {
+        long inlineRsa = measure(() -> {
+            RSAKeyPairGenerator keyGen = new RSAKeyPairGenerator();
+            keyGen.createKeys();
+            return asymmetricHandshake(keyGen.getKeyPair());
+        }, Integer.MAX_VALUE);
+
+        service.prefill();
+        awaitFull(service.getRsaKeyPairs(), RSA_CAPACITY);
+        awaitFull(service.getEcKeyPairs(), EC_CAPACITY);
+
+        long pooledRsa = measure(() -> asymmetricHandshake(service.takeRsaKeyPair()), RSA_CAPACITY - 1);
+        long keyAgreement = measure(() -> {
+            ECKeyPairGenerator clientKeyGen = new ECKeyPairGenerator();
+            clientKeyGen.createKeys();
+            KeyPair clientPair = clientKeyGen.getKeyPair();
+            KeyPair serverPair = service.takeEcKeyPair();
+
+            SecretKey serverKey = ECKeyAgreement.deriveSecretKey(serverPair.getPrivate(), clientPair.getPublic());
+            SecretKey clientKey = ECKeyAgreement.deriveSecretKey(clientPair.getPrivate(), serverPair.getPublic());
+            return serverKey.equals(clientKey);
+        }, Integer.MAX_VALUE);
+
+        System.out.println("Handshakes per second: RSA pair per handshake " + inlineRsa + ", pre-generated RSA pairs " +
+                pooledRsa + ", X25519 key agreement " + keyAgreement + " (" +
+                service.getEcKeyPairs().getMissCount() + " of the agreement pairs generated inline).");
+    }
+}
@@ -0,0 +1,143 @@
+package no.ntnu.network.message.encryption.keygen;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the KeyPairPool class and the elliptic-curve key agreement.
+ */
+public class KeyPairPoolTest {
+    private static final int CAPACITY = 8;
+    private static final long FILL_TIMEOUT_MILLIS = 5000;
+    ExecutorService executor;
+    KeyPairPool pool;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+        pool = new KeyPairPool(ECKeyPairGenerator::new, CAPACITY, CAPACITY / 2, 1, executor);
+    }
+
+    /**
+     * Stops the background generation of key pairs.
+     */
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Waits until the pool is full, or the fill timeout runs out.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    private void awaitFull() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + FILL_TIMEOUT_MILLIS;
+        while (pool.getAvailableCount() < CAPACITY && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Tests that prefilling the pool generates pairs in the background up to its capacity.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void testPrefillReachesCapacity() throws InterruptedException {
+        pool.prefill();
+        awaitFull();
+
+        assertEquals(CAPACITY, pool.getAvailableCount());
+    }
+
+    /**
+     * Tests that pairs taken from a filled pool are counted as hits, and are never handed out twice.
+     *
+     * @throws Exception thrown if a pair cannot be generated or waiting is interrupted
+     */
+    @Test
+    public void testTakenPairsAreDistinctHits() throws Exception {
+        pool.prefill();
+        awaitFull();
+
+        KeyPair first = pool.takeKeyPair();
+        KeyPair second = pool.takeKeyPair();
+
+        assertNotSame(first, second);
+        assertNotEquals(first.getPublic(), second.getPublic());
+        assertEquals(2, pool.getHitCount());
+        assertEquals(0, pool.getMissCount());
+    }
+
+    /**
+     * Tests that a pair taken from an empty pool is generated by the taking thread, even when no background task
+     * can run.
+     *
+     * @throws Exception thrown if a pair cannot be generated
+     */
+    @Test
+    public void testTakeFromEmptyPoolGeneratesInline() throws Exception {
+        KeyPairPool rejectingPool = new KeyPairPool(ECKeyPairGenerator::new, CAPACITY, CAPACITY / 2, 1, task -> {
+            throw new RejectedExecutionException("No background tasks.");
+        });
+
+        KeyPair keyPair = rejectingPool.takeKeyPair();
+
+        assertNotNull(keyPair);
+        assertEquals(0, rejectingPool.getHitCount());
+        assertEquals(1, rejectingPool.getMissCount());
+    }
+
+    /**
+     * Tests that a pool taken below its low-water mark is refilled in the background.
+     *
+     * @throws Exception thrown if a pair cannot be generated or waiting is interrupted
+     */
+    @Test
+    public void testRefillBelowLowWaterMark() throws Exception {
+        pool.prefill();
+        awaitFull();
+
+        for (int i = 0; i <= CAPACITY / 2; i++) {
+            pool.takeKeyPair();
+        }
+        awaitFull();
+
+        assertEquals(CAPACITY, pool.getAvailableCount());
+    }
+
+    /**
+     * Tests that two parties of a key agreement derive the same secret key, and that a third party does not.
+     *
+     * @throws GeneralSecurityException thrown if the key agreement fails
+     */
+    @Test
+    public void testKeyAgreementDerivesSharedKey() throws GeneralSecurityException {
+        KeyPair client = pool.takeKeyPair();
+        KeyPair server = pool.takeKeyPair();
+        KeyPair other = pool.takeKeyPair();
+
+        SecretKey clientKey = ECKeyAgreement.deriveSecretKey(client.getPrivate(), server.getPublic());
+        SecretKey serverKey = ECKeyAgreement.deriveSecretKey(server.getPrivate(), client.getPublic());
+        SecretKey otherKey = ECKeyAgreement.deriveSecretKey(other.getPrivate(), server.getPublic());
+
+        assertEquals(clientKey, serverKey);
+        assertEquals("AES", clientKey.getAlgorithm());
+        assertEquals(32, clientKey.getEncoded().length);
+        assertNotEquals(clientKey, otherKey);
+    }
+}
@@ -0,0 +1,109 @@
+package no.ntnu.network.message.request;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.TestControlCommAgent;
+import no.ntnu.network.centralserver.centralhub.CentralHub;
+import no.ntnu.network.message.context.ServerContext;
+import no.ntnu.network.message.encryption.ResumptionProof;
+import no.ntnu.network.message.encryption.cipher.encrypt.AESEncryption;
+import no.ntnu.network.message.encryption.cipher.encrypt.EncryptionStrategy;
+import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
+import no.ntnu.network.message.response.ResponseMessage;
+import no.ntnu.network.message.response.SessionResumedResponse;
+import no.ntnu.network.message.response.error.ResumptionDeclinedError;
+import no.ntnu.network.representation.FieldNodeInformation;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the ResumeSessionRequest class.
+ * The class verifies that a session is only resumed for a client proving that it holds the session key, and that
+ * the response carrying the new ticket is encrypted with the key.
+ */
+public class ResumeSessionRequestTest {
+    ResponseRecordingAgent agent;
+    CentralHub hub;
+    ServerContext context;
+    SecretKey sessionKey;
+    String ticket;
+
+    /**
+     * A control communication agent remembering the encryption in use when the last response was sent.
+     */
+    private static class ResponseRecordingAgent extends TestControlCommAgent {
+        private EncryptionStrategy responseEncryption;
+
+        @Override
+        public void sendResponse(ResponseMessage response) throws IOException {
+            responseEncryption = getEncryption();
+            super.sendResponse(response);
+        }
+    }
+
+    /**
+     * Setting up for the following test methods.
+     *
+     * @throws NoSuchAlgorithmException thrown if the session key cannot be generated
+     */
+    @Before
+    public void setup() throws NoSuchAlgorithmException {
+        agent = new ResponseRecordingAgent();
+        hub = new CentralHub();
+        context = new ServerContext(agent, agent, hub);
+
+        AESKeyGenerator keyGenerator = new AESKeyGenerator();
+        keyGenerator.createKey();
+        sessionKey = keyGenerator.getKey();
+
+        Map<Integer, DeviceClass> fnst = new HashMap<>();
+        fnst.put(1, DeviceClass.S1);
+        FieldNodeInformation fieldNodeInformation = new FieldNodeInformation(fnst, new HashMap<>(), "Field node");
+        ticket = hub.getResumptionTickets().issue(sessionKey,
+                resumingContext -> resumingContext.registerFieldNodeClient(fieldNodeInformation));
+    }
+
+    /**
+     * Tests that a client presenting a ticket with a valid proof is registered again, and sent the new ticket
+     * encrypted with the session key.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testResumed() throws IOException {
+        new ResumeSessionRequest(ticket, ResumptionProof.create(sessionKey, ticket)).process(context);
+
+        assertTrue(agent.getResponseSent() instanceof SessionResumedResponse<?>);
+        assertTrue(agent.responseEncryption instanceof AESEncryption);
+        assertNotNull(hub.getFieldNodeClientProxy(agent.getClientNodeAddress()));
+        assertSame(sessionKey, context.getSessionKey());
+    }
+
+    /**
+     * Tests that a client presenting a ticket without holding the session key is declined in plain text, is not
+     * registered, and has used up the ticket.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws NoSuchAlgorithmException thrown if a key cannot be generated
+     */
+    @Test
+    public void testWrongProofDeclined() throws IOException, NoSuchAlgorithmException {
+        AESKeyGenerator keyGenerator = new AESKeyGenerator();
+        keyGenerator.createKey();
+
+        new ResumeSessionRequest(ticket, ResumptionProof.create(keyGenerator.getKey(), ticket)).process(context);
+
+        assertTrue(agent.getResponseSent() instanceof ResumptionDeclinedError<?>);
+        assertNull(agent.responseEncryption);
+        assertEquals(-1, agent.getClientNodeAddress());
+        assertNull(context.getSessionKey());
+        assertNull(hub.getResumptionTickets().redeem(ticket));
+    }
+}
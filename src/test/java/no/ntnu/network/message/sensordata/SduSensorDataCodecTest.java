@@ -0,0 +1,125 @@
+package no.ntnu.network.message.sensordata;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.message.common.ByteSerializableInteger;
+import no.ntnu.network.message.common.ByteSerializableString;
+import no.ntnu.network.message.deserialize.component.DeviceLookupTable;
+import no.ntnu.network.message.serialize.tool.tlv.Tlv;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+import no.ntnu.network.message.serialize.visitor.NofspSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the SduSensorDataCodec class.
+ */
+public class SduSensorDataCodecTest {
+    private static final int[] ADDRESSES = {0, 1, 127, 128, 255, 256, 65535, 1 << 24, Integer.MAX_VALUE, -1};
+    NofspSerializer serializer;
+    DeviceLookupTable sduLookupTable;
+    List<SduSensorDataMessage> received;
+    SensorDataReceiver receiver;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        serializer = new NofspSerializer();
+        sduLookupTable = (clientAddress, deviceAddress) -> DeviceClass.S2;
+        received = new ArrayList<>();
+        receiver = (fieldNodeAddress, sensorAddress, data) ->
+                received.add(new SduSensorDataMessage(fieldNodeAddress, sensorAddress, data));
+    }
+
+    /**
+     * Tests that encoded frames are identical to serialized sensor data messages.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testWireCompatibility() throws IOException {
+        byte[] destination = new byte[SduSensorDataCodec.MAX_FRAME_LENGTH + 3];
+
+        for (int clientNodeAddress : ADDRESSES) {
+            for (int sensorAddress : ADDRESSES) {
+                SduSensorDataMessage message = new SduSensorDataMessage(clientNodeAddress, sensorAddress, -12.75);
+                byte[] expected = serializer.serialize(message).toBytes();
+
+                int length = SduSensorDataCodec.encode(clientNodeAddress, sensorAddress, -12.75, destination, 3);
+
+                assertArrayEquals(expected, Arrays.copyOfRange(destination, 3, 3 + length));
+            }
+        }
+    }
+
+    /**
+     * Tests that serialized sensor data messages are decoded into the values they hold.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testDecodeSerializedMessages() throws IOException {
+        List<SduSensorDataMessage> expected = new ArrayList<>();
+
+        for (int address : ADDRESSES) {
+            SduSensorDataMessage message = new SduSensorDataMessage(address, address / 2, address * 0.5);
+            byte[] bytes = serializer.serialize(message).toBytes();
+
+            assertTrue(SduSensorDataCodec.decode(bytes, 0, bytes.length, sduLookupTable, receiver));
+            expected.add(message);
+        }
+
+        assertEquals(expected, received);
+    }
+
+    /**
+     * Tests that nothing is delivered for sensors not capturing SDU data, or for sensors not identified.
+     */
+    @Test
+    public void testDecodeUnidentifiedSensor() {
+        byte[] bytes = new byte[SduSensorDataCodec.MAX_FRAME_LENGTH];
+        int length = SduSensorDataCodec.encode(5, 6, 1.5, bytes, 0);
+
+        assertFalse(SduSensorDataCodec.decode(bytes, 0, length, (clientAddress, deviceAddress) -> DeviceClass.A1,
+                receiver));
+        assertFalse(SduSensorDataCodec.decode(bytes, 0, length, (clientAddress, deviceAddress) -> null, receiver));
+        assertTrue(received.isEmpty());
+    }
+
+    /**
+     * Tests that nothing is delivered for frames that do not have the layout of SDU sensor data.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testDecodeOtherLayouts() throws IOException {
+        byte[] bytes = new byte[SduSensorDataCodec.MAX_FRAME_LENGTH];
+        int length = SduSensorDataCodec.encode(5, 6, 1.5, bytes, 0);
+
+        // truncated frame
+        assertFalse(SduSensorDataCodec.decode(bytes, 0, length - 1, sduLookupTable, receiver));
+
+        // frame of another type
+        byte[] integerBytes = serializer.serialize(new ByteSerializableInteger(5)).toBytes();
+        assertFalse(SduSensorDataCodec.decode(integerBytes, 0, integerBytes.length, sduLookupTable, receiver));
+
+        // data of another type than double
+        byte[] stringData = serializer.serialize(new SduSensorDataMessage(5, 6, 1.5) {
+            @Override
+            protected Tlv getDataTlv(ByteSerializerVisitor visitor) throws IOException {
+                return visitor.visitString(new ByteSerializableString("1.5"));
+            }
+        }).toBytes();
+        assertFalse(SduSensorDataCodec.decode(stringData, 0, stringData.length, sduLookupTable, receiver));
+
+        assertTrue(received.isEmpty());
+    }
+}
@@ -0,0 +1,97 @@
+package no.ntnu.network.message.serialize.tool.tlv;
+
+import no.ntnu.network.message.common.ByteSerializableString;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.ByteSource;
+import no.ntnu.network.message.serialize.tool.InputStreamByteSource;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+import no.ntnu.network.message.serialize.visitor.NofspSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark of reading TLVs from a stream with the TlvReader class.
+ * A stream of control message sized TLVs is read through a {@code BufferedInputStream}, as a TCP receiver does, once
+ * through a byte source handing the reader one byte per call, as the reader used to read, and once through a byte
+ * source reading the header and the value-field in bulk. The TLVs and megabytes read per second are reported for both.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class TlvReaderBenchmark {
+    private static final int TLVS = 20000;
+    private static final int ROUNDS = 5;
+    byte[] stream;
+
+    /**
+     * Setting up for the following benchmark methods.
+     *
+     * @throws IOException thrown if the TLVs cannot be serialized
+     */
+    @Before
+    public void setup() throws IOException {
+        ByteSerializerVisitor serializer = new NofspSerializer();
+        byte[] shortTlv = serializer.serialize(new ByteSerializableString("21.5")).toBytes();
+        byte[] longTlv = serializer.serialize(new ByteSerializableString("Actuator 2 of field node 14 set to 1. "
+                .repeat(5))).toBytes();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = 0; i < TLVS; i++) {
+            bytes.write(i % 2 == 0 ? shortTlv : longTlv);
+        }
+        stream = bytes.toByteArray();
+    }
+
+    /**
+     * Reads all TLVs of the stream a few times, returning the time of the fastest round.
+     *
+     * @param sourceFactory creates the byte source reading from the buffered stream
+     * @return the time in nanoseconds of the fastest round
+     * @throws IOException thrown if a TLV cannot be read
+     */
+    private long measure(Function<InputStream, ByteSource> sourceFactory) throws IOException {
+        long result = Long.MAX_VALUE;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            InputStream input = new BufferedInputStream(new ByteArrayInputStream(stream));
+            TlvReader reader = new TlvReader(sourceFactory.apply(input), NofspSerializationConstants.TLV_FRAME);
+
+            long start = System.nanoTime();
+            int tlvs = 0;
+            while (reader.readNextTlv() != null) {
+                tlvs++;
+            }
+            result = Math.min(result, Math.max(1, System.nanoTime() - start));
+
+            assertEquals(TLVS, tlvs);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reports the TLVs and megabytes per second read one byte per call and in bulk.
+     *
+     * @throws IOException thrown if a TLV cannot be read
+     */
+    @Test
+    public void benchmarkByteByByteAgainstBulk() throws IOException {
+        // implements only the single byte read, leaving the byte-by-byte default of readNBytes in place
+        long byteByByteNanos = measure(input -> input::read);
+        long bulkNanos = measure(InputStreamByteSource::new);
+
+        System.out.println("Reading " + TLVS + " TLVs (" + (stream.length / 1024) + " KiB) from a buffered stream: " +
+                "byte by byte " + ((long) TLVS * 1000000000L / byteByByteNanos) + " TLVs/s (" +
+                ((long) stream.length * 1000 / byteByByteNanos) + " MB/s), in bulk " +
+                ((long) TLVS * 1000000000L / bulkNanos) + " TLVs/s (" + ((long) stream.length * 1000 / bulkNanos) +
+                " MB/s).");
+    }
+}
@@ -0,0 +1,107 @@
+package no.ntnu.network.message.serialize.tool.tlv;
+
+import no.ntnu.network.message.common.ByteSerializableString;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.tool.ByteHandler;
+import no.ntnu.network.message.serialize.tool.InputStreamByteSource;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+import no.ntnu.network.message.serialize.visitor.NofspSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the TlvReader class.
+ */
+public class TlvReaderTest {
+    Tlv firstTlv;
+    Tlv secondTlv;
+    byte[] stream;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() throws IOException {
+        ByteSerializerVisitor serializer = new NofspSerializer();
+        firstTlv = serializer.serialize(new ByteSerializableString("greenhouse"));
+        secondTlv = serializer.serialize(new ByteSerializableString("x".repeat(10000)));
+        stream = ByteHandler.combineBytes(firstTlv.toBytes(), secondTlv.toBytes());
+    }
+
+    /**
+     * Creates a reader reading from an input stream over the given bytes.
+     *
+     * @param bytes the bytes to read from
+     * @return the reader
+     */
+    private TlvReader streamReader(byte[] bytes) {
+        return new TlvReader(new InputStreamByteSource(new ByteArrayInputStream(bytes)),
+                NofspSerializationConstants.TLV_FRAME);
+    }
+
+    /**
+     * Tests that consecutive TLVs are read from an input stream in order.
+     */
+    @Test
+    public void testReadingFromStream() throws IOException {
+        TlvReader reader = streamReader(stream);
+
+        assertEquals(firstTlv, reader.readNextTlv());
+        assertEquals(secondTlv, reader.readNextTlv());
+        assertNull(reader.readNextTlv());
+    }
+
+    /**
+     * Tests that consecutive TLVs are read from an array of bytes in order.
+     */
+    @Test
+    public void testReadingFromArray() throws IOException {
+        TlvReader reader = new TlvReader(stream, NofspSerializationConstants.TLV_FRAME);
+
+        assertEquals(firstTlv, reader.readNextTlv());
+        assertEquals(secondTlv, reader.readNextTlv());
+        assertNull(reader.readNextTlv());
+    }
+
+    /**
+     * Tests that a TLV cut short by the end of the stream is not returned.
+     */
+    @Test
+    public void testTruncatedTlv() throws IOException {
+        TlvReader reader = streamReader(Arrays.copyOf(stream, stream.length - 1));
+
+        assertEquals(firstTlv, reader.readNextTlv());
+        assertNull(reader.readNextTlv());
+    }
+
+    /**
+     * Tests that a TLV whose length-field exceeds the maximum frame length is refused before its value-field is read.
+     */
+    @Test
+    public void testTlvLongerThanMaximumFrameLength() {
+        byte[] header = ByteHandler.combineBytes(new byte[] {0, 1},
+                ByteHandler.intToBytes(NofspSerializationConstants.MAX_TLV_LENGTH));
+
+        assertThrows(IOException.class, () -> streamReader(header).readNextTlv());
+        assertThrows(IOException.class, () -> streamReader(header).readNextView());
+    }
+
+    /**
+     * Tests that a length-field so long that the TLV length would overflow is refused, even without a maximum frame
+     * length below what an array can hold.
+     */
+    @Test
+    public void testTlvLengthOverflow() {
+        byte[] header = ByteHandler.combineBytes(new byte[] {0, 1}, ByteHandler.intToBytes(Integer.MAX_VALUE));
+        TlvReader reader = new TlvReader(new InputStreamByteSource(new ByteArrayInputStream(header)),
+                new TlvFrame(2, 4));
+
+        assertThrows(IOException.class, reader::readNextView);
+    }
+}
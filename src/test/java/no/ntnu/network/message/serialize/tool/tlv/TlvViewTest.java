@@ -0,0 +1,85 @@
+package no.ntnu.network.message.serialize.tool.tlv;
+
+import no.ntnu.network.message.common.ByteSerializableInteger;
+import no.ntnu.network.message.common.ByteSerializableMap;
+import no.ntnu.network.message.common.ByteSerializableString;
+import no.ntnu.network.message.serialize.NofspSerializationConstants;
+import no.ntnu.network.message.serialize.visitor.ByteSerializerVisitor;
+import no.ntnu.network.message.serialize.visitor.NofspSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the TlvView class.
+ */
+public class TlvViewTest {
+    ByteSerializerVisitor serializer;
+    Tlv mapTlv;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() throws IOException {
+        serializer = new NofspSerializer();
+
+        ByteSerializableMap<ByteSerializableInteger, ByteSerializableString> map = new ByteSerializableMap<>();
+        for (int i = 0; i < 50; i++) {
+            map.put(new ByteSerializableInteger(i), new ByteSerializableString("S" + i));
+        }
+        mapTlv = serializer.serialize(map);
+    }
+
+    /**
+     * Tests that walking a nested TLV in place gives the same TLVs as reading copies of it.
+     */
+    @Test
+    public void testNestedWalkEqualsMaterializedTlvs() throws IOException {
+        byte[] bytes = mapTlv.toBytes();
+        TlvView mapView = new TlvReader(bytes, NofspSerializationConstants.TLV_FRAME).readNextView();
+        TlvReader viewReader = mapView.valueReader();
+        TlvReader copyReader = new TlvReader(mapTlv.valueField(), NofspSerializationConstants.TLV_FRAME);
+
+        TlvView entryView = viewReader.readNextView();
+        Tlv entryTlv = copyReader.readNextTlv();
+        int entries = 0;
+        while (entryView != null) {
+            assertSame(bytes, entryView.getValueBuffer());
+            assertEquals(entryTlv, entryView.toTlv());
+
+            entryView = viewReader.readNextView();
+            entryTlv = copyReader.readNextTlv();
+            entries++;
+        }
+
+        assertNull(entryTlv);
+        assertEquals(100, entries);
+    }
+
+    /**
+     * Tests that a view of a TLV materializes back into an equal TLV.
+     */
+    @Test
+    public void testMaterialization() {
+        TlvView view = TlvView.of(mapTlv);
+
+        assertEquals(mapTlv, view.toTlv());
+        assertSame(mapTlv.valueField(), view.getValueBuffer());
+    }
+
+    /**
+     * Tests that the type of a view is decoded from its type-field.
+     */
+    @Test
+    public void testType() throws IOException {
+        TlvView view = TlvView.of(serializer.serialize(new ByteSerializableString("type")));
+
+        assertTrue(view.typeEquals(NofspSerializationConstants.STRING_BYTES));
+        assertFalse(view.typeEquals(NofspSerializationConstants.INTEGER_BYTES));
+        assertEquals(1, view.getType());
+    }
+}
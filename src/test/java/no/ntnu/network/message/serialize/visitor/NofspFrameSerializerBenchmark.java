@@ -0,0 +1,116 @@
+package no.ntnu.network.message.serialize.visitor;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.message.request.RegisterFieldNodeRequest;
+import no.ntnu.network.message.response.AdlUpdatedResponse;
+import no.ntnu.network.message.response.HeartbeatResponse;
+import no.ntnu.network.message.sensordata.SduSensorDataMessage;
+import no.ntnu.network.message.serialize.ByteSerializable;
+import no.ntnu.network.representation.FieldNodeInformation;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Allocation benchmark of the NofspFrameSerializer class.
+ * Every message type is serialized a number of times into a view of the reusable frame buffer, and materialized by
+ * the {@code NofspSerializer}, and the bytes allocated per message are reported for both.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class NofspFrameSerializerBenchmark {
+    private static final int MESSAGES = 20000;
+    ByteSerializerVisitor referenceSerializer;
+    ByteSerializerVisitor frameSerializer;
+    Map<String, ByteSerializable> messages;
+
+    /**
+     * Setting up for the following benchmark methods.
+     */
+    @Before
+    public void setup() {
+        referenceSerializer = new NofspSerializer();
+        frameSerializer = new NofspFrameSerializer();
+
+        Map<Integer, DeviceClass> fnst = new HashMap<>();
+        Map<Integer, Integer> fnsm = new HashMap<>();
+        for (int i = 0; i < 8; i++) {
+            fnst.put(i, DeviceClass.S1);
+            fnsm.put(i, i * 1000);
+        }
+
+        messages = new LinkedHashMap<>();
+        messages.put("sensor data", new SduSensorDataMessage(4, 2, -17.25));
+        messages.put("heartbeat response", new HeartbeatResponse(7));
+        messages.put("ADL updated response", new AdlUpdatedResponse(3, Set.of(1, 2, 300)));
+        messages.put("field node registration", new RegisterFieldNodeRequest(
+                new FieldNodeInformation(fnst, fnsm, "greenhouse")));
+    }
+
+    /**
+     * Returns the number of bytes allocated by the calling thread so far.
+     *
+     * @return the allocated bytes, -1 if not supported by the runtime
+     */
+    private static long allocatedBytes() {
+        long result = -1;
+
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadBean
+                && threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled()) {
+            result = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return result;
+    }
+
+    /**
+     * Serializes a message a number of times, returning the bytes allocated per message.
+     *
+     * @param message the message to serialize
+     * @param intoView true to serialize into a view of the frame buffer, false to materialize a TLV
+     * @return the bytes allocated per message
+     * @throws IOException thrown if serialization fails
+     */
+    private long measure(ByteSerializable message, boolean intoView) throws IOException {
+        long before = allocatedBytes();
+        for (int i = 0; i < MESSAGES; i++) {
+            if (intoView) {
+                frameSerializer.serializeToView(message);
+            } else {
+                referenceSerializer.serialize(message);
+            }
+        }
+
+        return (allocatedBytes() - before) / MESSAGES;
+    }
+
+    /**
+     * Reports the bytes allocated per message of every type, serialized in a single pass into the frame buffer and
+     * materialized by the reference serializer. The benchmark is skipped if the runtime cannot measure allocated bytes.
+     *
+     * @throws IOException thrown if serialization fails
+     */
+    @Test
+    public void benchmarkAllocationPerMessage() throws IOException {
+        Assume.assumeTrue(allocatedBytes() >= 0);
+
+        for (Map.Entry<String, ByteSerializable> message : messages.entrySet()) {
+            // warms up both paths, so that one-time allocations are not measured
+            measure(message.getValue(), true);
+            measure(message.getValue(), false);
+
+            long frameBytes = measure(message.getValue(), true);
+            long referenceBytes = measure(message.getValue(), false);
+
+            System.out.println("Serializing " + message.getKey() + ": " + referenceBytes + " bytes allocated per " +
+                    "message materialized, " + frameBytes + " bytes per message into the frame buffer.");
+        }
+    }
+}
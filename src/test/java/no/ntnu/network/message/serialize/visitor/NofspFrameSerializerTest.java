@@ -0,0 +1,114 @@
+package no.ntnu.network.message.serialize.visitor;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.message.common.ByteSerializableInteger;
+import no.ntnu.network.message.common.ByteSerializableMap;
+import no.ntnu.network.message.common.ByteSerializableString;
+import no.ntnu.network.message.request.RegisterFieldNodeRequest;
+import no.ntnu.network.message.response.AdlUpdatedResponse;
+import no.ntnu.network.message.response.HeartbeatResponse;
+import no.ntnu.network.message.sensordata.SduSensorDataMessage;
+import no.ntnu.network.message.serialize.ByteSerializable;
+import no.ntnu.network.representation.FieldNodeInformation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the NofspFrameSerializer class.
+ * The bytes produced are compared to those produced by the {@code NofspSerializer}.
+ */
+public class NofspFrameSerializerTest {
+    ByteSerializerVisitor referenceSerializer;
+    ByteSerializerVisitor frameSerializer;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        referenceSerializer = new NofspSerializer();
+        frameSerializer = new NofspFrameSerializer();
+    }
+
+    /**
+     * Asserts that both serializers produce identical bytes for an object, both when materializing the result and
+     * when serializing into a view.
+     *
+     * @param serializable the object to serialize
+     * @throws IOException thrown if serialization fails
+     */
+    private void assertIdenticalBytes(ByteSerializable serializable) throws IOException {
+        byte[] expected = referenceSerializer.serialize(serializable).toBytes();
+
+        assertArrayEquals(expected, frameSerializer.serialize(serializable).toBytes());
+        assertArrayEquals(expected, frameSerializer.serializeToView(serializable).toBytes());
+    }
+
+    /**
+     * Tests that a registration request with nested maps is serialized identically.
+     */
+    @Test
+    public void testRegisterFieldNodeRequest() throws IOException {
+        Map<Integer, DeviceClass> fnst = new HashMap<>();
+        Map<Integer, Integer> fnsm = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            fnst.put(i, DeviceClass.S1);
+            fnsm.put(i, i * 1000);
+        }
+
+        assertIdenticalBytes(new RegisterFieldNodeRequest(new FieldNodeInformation(fnst, fnsm, "greenhouse")));
+    }
+
+    /**
+     * Tests that responses with and without parameters are serialized identically.
+     */
+    @Test
+    public void testResponses() throws IOException {
+        assertIdenticalBytes(new HeartbeatResponse(7));
+        assertIdenticalBytes(new AdlUpdatedResponse(3, Set.of(1, 2, 300)));
+    }
+
+    /**
+     * Tests that sensor data messages are serialized identically.
+     */
+    @Test
+    public void testSensorDataMessage() throws IOException {
+        assertIdenticalBytes(new SduSensorDataMessage(4, 2, -17.25));
+    }
+
+    /**
+     * Tests that common data types, including negative integers and null map values, are serialized identically.
+     */
+    @Test
+    public void testDataTypes() throws IOException {
+        ByteSerializableMap<ByteSerializableInteger, ByteSerializableString> map = new ByteSerializableMap<>();
+        map.put(new ByteSerializableInteger(-1), new ByteSerializableString("negative"));
+        map.put(new ByteSerializableInteger(0x800000), null);
+        map.put(new ByteSerializableInteger(0), new ByteSerializableString(""));
+
+        assertIdenticalBytes(map);
+        assertIdenticalBytes(new ByteSerializableString("x".repeat(100000)));
+    }
+
+    /**
+     * Tests that a view is replaced by the next object serialized, while materialized TLVs are not.
+     */
+    @Test
+    public void testBufferReuse() throws IOException {
+        ByteSerializableString first = new ByteSerializableString("first");
+        ByteSerializableString second = new ByteSerializableString("second");
+
+        byte[] firstBytes = frameSerializer.serialize(first).toBytes();
+        frameSerializer.serializeToView(second);
+
+        assertArrayEquals(referenceSerializer.serialize(first).toBytes(), firstBytes);
+        assertEquals(referenceSerializer.serialize(second), frameSerializer.serializeToView(second).toTlv());
+    }
+}
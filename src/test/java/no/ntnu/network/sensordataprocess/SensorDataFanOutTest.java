@@ -0,0 +1,323 @@
+package no.ntnu.network.sensordataprocess;
+
+import no.ntnu.network.SharedDataCommAgent;
+import no.ntnu.network.message.encryption.cipher.encrypt.DatagramEncryption;
+import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
+import no.ntnu.network.message.sensordata.SduSensorDataMessage;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+import no.ntnu.network.message.serialize.visitor.NofspSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the SensorDataFanOut class.
+ * A subscriber that cannot keep up is simulated either by occupying the sender threads of the fan-out, or by an
+ * encryption that blocks sending to the subscriber, until the test releases them.
+ */
+public class SensorDataFanOutTest {
+    private static final int CONTROL_PANELS = 10;
+    private static final int TIMEOUT_MILLIS = 2000;
+    SharedUdpSensorDataSender sender;
+    List<DatagramSocket> controlPanels;
+    SensorDataFanOut fanOut;
+
+    /**
+     * Setting up for the following test methods.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Before
+    public void setup() throws IOException {
+        sender = new SharedUdpSensorDataSender(new NofspFrameSerializer());
+        controlPanels = new ArrayList<>();
+
+        for (int i = 0; i < CONTROL_PANELS; i++) {
+            DatagramSocket controlPanel = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+            controlPanel.setSoTimeout(TIMEOUT_MILLIS);
+            controlPanels.add(controlPanel);
+        }
+    }
+
+    /**
+     * Closes the sockets and threads used by a test.
+     */
+    @After
+    public void tearDown() {
+        if (fanOut != null) {
+            fanOut.close();
+        }
+        controlPanels.forEach(DatagramSocket::close);
+        sender.close();
+    }
+
+    /**
+     * Creates targets for all control panels.
+     *
+     * @param disconnectHandler the disconnect handler of the targets
+     * @return the targets
+     */
+    private SharedDataCommAgent[] createTargets(Runnable disconnectHandler) {
+        SharedDataCommAgent[] targets = new SharedDataCommAgent[CONTROL_PANELS];
+        for (int i = 0; i < CONTROL_PANELS; i++) {
+            targets[i] = fanOut.createTarget(InetAddress.getLoopbackAddress(), controlPanels.get(i).getLocalPort(),
+                    disconnectHandler);
+        }
+
+        return targets;
+    }
+
+    /**
+     * Occupies a sender thread of the fan-out until the returned latch is counted down.
+     *
+     * @return the latch releasing the sender thread
+     * @throws InterruptedException thrown if interrupted while waiting for the thread to be occupied
+     */
+    private CountDownLatch occupySenderThread() throws InterruptedException {
+        CountDownLatch occupied = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        fanOut.execute(() -> {
+            occupied.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        occupied.await();
+
+        return release;
+    }
+
+    /**
+     * Receives the next datagram on a socket.
+     *
+     * @param socket the socket to receive on
+     * @return the received bytes
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private static byte[] receive(DatagramSocket socket) throws IOException {
+        DatagramPacket packet = new DatagramPacket(new byte[1000], 1000);
+        socket.receive(packet);
+
+        return Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getOffset() + packet.getLength());
+    }
+
+    /**
+     * Serializes a message the way it is expected to be received.
+     *
+     * @param message the message to serialize
+     * @return the serialized message
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private static byte[] serialize(SduSensorDataMessage message) throws IOException {
+        return new NofspSerializer().serialize(message).toBytes();
+    }
+
+    /**
+     * Tests that sensor data broadcast with a group encryption is encrypted once, and that every subscriber gets the
+     * same ciphertext.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws NoSuchAlgorithmException thrown if the key cannot be generated
+     */
+    @Test
+    public void testGroupEncryptedBroadcast() throws IOException, NoSuchAlgorithmException {
+        fanOut = new SensorDataFanOut(sender, 2, 16, SensorDataOverflowPolicy.DROP_OLDEST);
+        SharedDataCommAgent[] targets = createTargets(() -> {});
+        SduSensorDataMessage message = new SduSensorDataMessage(3, 1, 21.5);
+        AESKeyGenerator keyGenerator = new AESKeyGenerator();
+        keyGenerator.createKey();
+
+        fanOut.broadcast(message, targets, new DatagramEncryption(keyGenerator.getKey(), 3));
+
+        byte[] expected = receive(controlPanels.get(0));
+        assertFalse(Arrays.equals(serialize(message), expected));
+        for (int i = 1; i < CONTROL_PANELS; i++) {
+            assertArrayEquals(expected, receive(controlPanels.get(i)));
+        }
+        assertEquals(1, sender.getSerializedMessages());
+        assertEquals(1, sender.getEncryptedMessages());
+    }
+
+    /**
+     * Tests that broadcast sensor data is serialized once and reaches every subscriber.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testBroadcast() throws IOException {
+        fanOut = new SensorDataFanOut(sender, 2, 16, SensorDataOverflowPolicy.DROP_OLDEST);
+        SharedDataCommAgent[] targets = createTargets(() -> {});
+        SduSensorDataMessage message = new SduSensorDataMessage(3, 1, 21.5);
+
+        fanOut.broadcast(message, targets);
+
+        for (DatagramSocket controlPanel : controlPanels) {
+            assertArrayEquals(serialize(message), receive(controlPanel));
+        }
+        assertEquals(1, sender.getSerializedMessages());
+    }
+
+    /**
+     * Tests that the oldest sensor data is dropped when the queue of a subscriber is full.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void testDropOldest() throws IOException, InterruptedException {
+        fanOut = new SensorDataFanOut(sender, 1, 3, SensorDataOverflowPolicy.DROP_OLDEST);
+        QueuedSensorDataTarget target = (QueuedSensorDataTarget) createTargets(() -> {})[0];
+
+        CountDownLatch release = occupySenderThread();
+        for (int i = 0; i < 5; i++) {
+            target.sendSensorData(new SduSensorDataMessage(3, 1, i));
+        }
+
+        assertEquals(3, target.getQueueDepth());
+        assertEquals(2, target.getDroppedMessages());
+
+        release.countDown();
+        for (int i = 2; i < 5; i++) {
+            assertArrayEquals(serialize(new SduSensorDataMessage(3, 1, i)), receive(controlPanels.get(0)));
+        }
+    }
+
+    /**
+     * Tests that only the latest sensor data of a sensor is kept when the queue of a subscriber is full.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void testKeepLatestPerSensor() throws IOException, InterruptedException {
+        fanOut = new SensorDataFanOut(sender, 1, 2, SensorDataOverflowPolicy.KEEP_LATEST_PER_SENSOR);
+        QueuedSensorDataTarget target = (QueuedSensorDataTarget) createTargets(() -> {})[0];
+
+        CountDownLatch release = occupySenderThread();
+        target.sendSensorData(new SduSensorDataMessage(3, 1, 1));
+        target.sendSensorData(new SduSensorDataMessage(3, 2, 1));
+        target.sendSensorData(new SduSensorDataMessage(3, 1, 2));
+        target.sendSensorData(new SduSensorDataMessage(3, 2, 2));
+
+        assertEquals(2, target.getQueueDepth());
+        assertEquals(2, target.getDroppedMessages());
+
+        release.countDown();
+        assertArrayEquals(serialize(new SduSensorDataMessage(3, 1, 2)), receive(controlPanels.get(0)));
+        assertArrayEquals(serialize(new SduSensorDataMessage(3, 2, 2)), receive(controlPanels.get(0)));
+    }
+
+    /**
+     * Tests that a subscriber whose queue overflows is disconnected with the disconnect policy, and no longer
+     * gets sensor data queued.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void testDisconnect() throws IOException, InterruptedException {
+        fanOut = new SensorDataFanOut(sender, 2, 2, SensorDataOverflowPolicy.DISCONNECT);
+        CountDownLatch disconnected = new CountDownLatch(1);
+        QueuedSensorDataTarget target = (QueuedSensorDataTarget) createTargets(disconnected::countDown)[0];
+
+        CountDownLatch release = occupySenderThread();
+        CountDownLatch otherRelease = occupySenderThread();
+        for (int i = 0; i < 4; i++) {
+            target.sendSensorData(new SduSensorDataMessage(3, 1, i));
+        }
+        release.countDown();
+        otherRelease.countDown();
+
+        assertTrue(disconnected.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertTrue(target.isClosed());
+        assertEquals(0, target.getQueueDepth());
+        assertEquals(3, target.getDroppedMessages());
+        assertFalse(fanOut.getTargets().contains(target));
+        assertEquals(CONTROL_PANELS - 1, fanOut.getTargets().size());
+    }
+
+    /**
+     * Tests that subscribers keep getting sensor data while sending to one subscriber is stalled, and that
+     * broadcasting never waits for the stalled subscriber.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws InterruptedException thrown if interrupted while waiting for the subscribers
+     */
+    @Test
+    public void testStalledSubscriberDoesNotHoldBackOthers() throws IOException, InterruptedException {
+        int messages = 2000;
+        int capacity = 64;
+        fanOut = new SensorDataFanOut(sender, 2, capacity, SensorDataOverflowPolicy.KEEP_LATEST_PER_SENSOR);
+        SharedDataCommAgent[] targets = createTargets(() -> {});
+
+        // sending to the stalled subscriber blocks until the end of the test
+        CountDownLatch release = new CountDownLatch(1);
+        QueuedSensorDataTarget stalled = (QueuedSensorDataTarget) targets[0];
+        stalled.setEncryption(data -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return data;
+        });
+
+        try {
+            for (int i = 0; i < messages; i++) {
+                fanOut.broadcast(new SduSensorDataMessage(3, i % 4, i), targets);
+            }
+
+            // the other subscribers are drained, although the loopback may drop datagrams no one reads in time
+            for (int i = 1; i < CONTROL_PANELS; i++) {
+                QueuedSensorDataTarget target = (QueuedSensorDataTarget) targets[i];
+                long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+                while (target.getSentMessages() + target.getDroppedMessages() < messages &&
+                        System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1);
+                }
+
+                assertEquals(messages, target.getSentMessages() + target.getDroppedMessages());
+                assertNotNull(receive(controlPanels.get(i)));
+            }
+
+            // one message is stuck being sent, while the queue holds as many as it can
+            assertEquals(capacity, stalled.getQueueDepth());
+            assertEquals(messages - capacity - 1, stalled.getDroppedMessages());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Tests that targets created by another fan-out cannot be broadcast to.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testForeignTarget() throws IOException {
+        fanOut = new SensorDataFanOut(sender, 1, 16, SensorDataOverflowPolicy.DROP_OLDEST);
+        SensorDataFanOut otherFanOut = new SensorDataFanOut(sender, 1, 16, SensorDataOverflowPolicy.DROP_OLDEST);
+        try {
+            SharedDataCommAgent foreignTarget = otherFanOut.createTarget(InetAddress.getLoopbackAddress(),
+                    controlPanels.get(0).getLocalPort(), () -> {});
+            fanOut.broadcast(new SduSensorDataMessage(3, 1, 21.5), new SharedDataCommAgent[] {foreignTarget});
+        } finally {
+            otherFanOut.close();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package no.ntnu.network.sensordataprocess;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.SharedDataCommAgent;
+import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.encryption.cipher.decrypt.AESDecryption;
+import no.ntnu.network.message.encryption.cipher.decrypt.DatagramDecryption;
+import no.ntnu.network.message.encryption.cipher.encrypt.AESEncryption;
+import no.ntnu.network.message.encryption.cipher.encrypt.DatagramEncryption;
+import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
+import no.ntnu.network.message.sensordata.SduSensorDataMessage;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+import no.ntnu.network.message.serialize.visitor.NofspSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the SharedUdpSensorDataSender class.
+ * The tests broadcast sensor data to a number of loopback control panels, each receiving on a socket of its own.
+ */
+public class SharedUdpSensorDataSenderTest {
+    private static final int CONTROL_PANELS = 40;
+    private static final int TIMEOUT_MILLIS = 2000;
+    SharedUdpSensorDataSender sender;
+    List<DatagramSocket> controlPanels;
+    SharedDataCommAgent[] targets;
+    SduSensorDataMessage message;
+
+    /**
+     * Setting up for the following test methods.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Before
+    public void setup() throws IOException {
+        sender = new SharedUdpSensorDataSender(new NofspFrameSerializer(), 2);
+        controlPanels = new ArrayList<>();
+        targets = new SharedDataCommAgent[CONTROL_PANELS];
+        message = new SduSensorDataMessage(3, 1, 21.5);
+
+        for (int i = 0; i < CONTROL_PANELS; i++) {
+            DatagramSocket controlPanel = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+            controlPanel.setSoTimeout(TIMEOUT_MILLIS);
+            controlPanels.add(controlPanel);
+            targets[i] = sender.createTarget(InetAddress.getLoopbackAddress(), controlPanel.getLocalPort());
+        }
+    }
+
+    /**
+     * Closes the sockets opened for a test.
+     */
+    @After
+    public void tearDown() {
+        controlPanels.forEach(DatagramSocket::close);
+        sender.close();
+    }
+
+    /**
+     * Receives the next datagram on a socket.
+     *
+     * @param socket the socket to receive on
+     * @return the received bytes
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private static byte[] receive(DatagramSocket socket) throws IOException {
+        DatagramPacket packet = new DatagramPacket(new byte[1000], 1000);
+        socket.receive(packet);
+
+        return Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getOffset() + packet.getLength());
+    }
+
+    /**
+     * Tests that a broadcast message is serialized once, and that every control panel receives the same bytes as a
+     * serialized message.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testBroadcastSerializesOnce() throws IOException {
+        byte[] expected = new NofspSerializer().serialize(message).toBytes();
+
+        sender.broadcast(message, targets);
+
+        for (DatagramSocket controlPanel : controlPanels) {
+            assertArrayEquals(expected, receive(controlPanel));
+        }
+        assertEquals(1, sender.getSerializedMessages());
+        assertEquals(CONTROL_PANELS, sender.getSentDatagrams());
+    }
+
+    /**
+     * Tests that a target with encryption gets a datagram encrypted for it, while the others get the plain datagram.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws NoSuchAlgorithmException thrown if the key cannot be generated
+     */
+    @Test
+    public void testEncryptedTarget() throws IOException, NoSuchAlgorithmException {
+        AESKeyGenerator keyGenerator = new AESKeyGenerator();
+        keyGenerator.createKey();
+        ((UdpSensorDataTarget) targets[0]).setEncryption(new AESEncryption(keyGenerator.getKey()));
+        byte[] plain = new NofspSerializer().serialize(message).toBytes();
+
+        sender.broadcast(message, targets);
+
+        byte[] encrypted = receive(controlPanels.get(0));
+        assertFalse(Arrays.equals(plain, encrypted));
+        assertArrayEquals(plain, receive(controlPanels.get(1)));
+
+        SensorDatagramDecoder decoder = new SensorDatagramDecoder(
+                new NofspServerDeserializer((clientAddress, deviceAddress) -> DeviceClass.S1));
+        assertEquals(message, decoder.decodeMessage(encrypted, 0, encrypted.length,
+                new AESDecryption(keyGenerator.getKey())));
+    }
+
+    /**
+     * Creates a new AES key.
+     *
+     * @return the key
+     * @throws NoSuchAlgorithmException thrown if the key cannot be generated
+     */
+    private static SecretKey createKey() throws NoSuchAlgorithmException {
+        AESKeyGenerator keyGenerator = new AESKeyGenerator();
+        keyGenerator.createKey();
+
+        return keyGenerator.getKey();
+    }
+
+    /**
+     * Tests that a message broadcast with a group encryption is serialized and encrypted once, and that every control
+     * panel receives the same ciphertext, which the group key decrypts.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws NoSuchAlgorithmException thrown if the key cannot be generated
+     */
+    @Test
+    public void testGroupEncryption() throws IOException, NoSuchAlgorithmException {
+        SecretKey groupKey = createKey();
+        // targets with session encryption are sent the group ciphertext as well
+        ((UdpSensorDataTarget) targets[0]).setEncryption(new DatagramEncryption(createKey(), 9));
+
+        sender.broadcast(message, targets, new DatagramEncryption(groupKey, 3));
+
+        byte[] encrypted = receive(controlPanels.get(0));
+        for (int i = 1; i < CONTROL_PANELS; i++) {
+            assertArrayEquals(encrypted, receive(controlPanels.get(i)));
+        }
+        assertEquals(1, sender.getSerializedMessages());
+        assertEquals(1, sender.getEncryptedMessages());
+        assertEquals(CONTROL_PANELS, sender.getSentDatagrams());
+
+        SensorDatagramDecoder decoder = new SensorDatagramDecoder(
+                new NofspServerDeserializer((clientAddress, deviceAddress) -> DeviceClass.S1));
+        assertEquals(message, decoder.decodeMessage(encrypted, 0, encrypted.length,
+                new DatagramDecryption(groupKey, 3)));
+    }
+
+    /**
+     * Tests that sending through a single target reaches only its own destination.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testSendToSingleTarget() throws IOException {
+        targets[5].sendSensorData(message);
+
+        assertArrayEquals(new NofspSerializer().serialize(message).toBytes(), receive(controlPanels.get(5)));
+        assertEquals(1, sender.getSentDatagrams());
+    }
+
+    /**
+     * Tests that targets created by another sender cannot be broadcast to.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testForeignTarget() throws IOException {
+        SharedUdpSensorDataSender otherSender = new SharedUdpSensorDataSender(new NofspFrameSerializer());
+        try {
+            SharedDataCommAgent foreignTarget = otherSender.createTarget(InetAddress.getLoopbackAddress(),
+                    controlPanels.get(0).getLocalPort());
+            sender.broadcast(message, new SharedDataCommAgent[] {foreignTarget});
+        } finally {
+            otherSender.close();
+        }
+    }
+
+    /**
+     * Tests that broadcasting a stream of sensor data to all control panels serializes every message once, while
+     * sending a datagram to every control panel.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Test
+    public void testFanOutLoad() throws IOException {
+        int messages = 200;
+
+        for (int i = 0; i < messages; i++) {
+            sender.broadcast(message, targets);
+        }
+
+        assertEquals(messages, sender.getSerializedMessages());
+        assertEquals((long) messages * CONTROL_PANELS, sender.getSentDatagrams());
+    }
+
+    /**
+     * Tests that encrypted sensor data is encrypted once for every control panel when sent with their session keys,
+     * and once for all of them when sent with a group key shared by all of them.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws NoSuchAlgorithmException thrown if a key cannot be generated
+     */
+    @Test
+    public void testGroupEncryptionLoad() throws IOException, NoSuchAlgorithmException {
+        int messages = 200;
+        for (int i = 0; i < CONTROL_PANELS; i++) {
+            ((UdpSensorDataTarget) targets[i]).setEncryption(new DatagramEncryption(createKey(), i));
+        }
+        DatagramEncryption groupEncryption = new DatagramEncryption(createKey(), CONTROL_PANELS);
+
+        for (int i = 0; i < messages; i++) {
+            sender.broadcast(message, targets);
+        }
+        long perTargetEncryptions = sender.getEncryptedMessages();
+
+        for (int i = 0; i < messages; i++) {
+            sender.broadcast(message, targets, groupEncryption);
+        }
+        long groupEncryptions = sender.getEncryptedMessages() - perTargetEncryptions;
+
+        long deliveries = (long) messages * CONTROL_PANELS;
+
+        assertEquals(deliveries, perTargetEncryptions);
+        assertEquals(messages, groupEncryptions);
+        assertEquals(2 * deliveries, sender.getSentDatagrams());
+    }
+}
@@ -0,0 +1,154 @@
+package no.ntnu.network.sensordataprocess;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.sensordata.SduSensorDataCodec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark of the UdpChannelSensorDataSink class.
+ * Sensor data datagrams are sent from a number of loopback field nodes, each using a socket of its own, and the
+ * throughput of the sink is reported in datagrams per second.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class UdpChannelSensorDataSinkBenchmark {
+    private static final int FIELD_NODES = 20;
+    private static final int DATAGRAMS_PER_FIELD_NODE = 500;
+    private static final long TIMEOUT_MILLIS = 10000;
+    NofspServerDeserializer deserializer;
+    UdpChannelSensorDataSink sink;
+    Map<Integer, List<Double>> receivedData;
+    AtomicLong receivedCount;
+
+    /**
+     * Setting up for the following benchmark methods.
+     */
+    @Before
+    public void setup() {
+        deserializer = new NofspServerDeserializer((clientAddress, deviceAddress) -> DeviceClass.S1);
+        receivedData = new ConcurrentHashMap<>();
+        receivedCount = new AtomicLong();
+    }
+
+    /**
+     * Stops the sink started by a benchmark.
+     */
+    @After
+    public void tearDown() {
+        if (sink != null) {
+            sink.stop();
+        }
+    }
+
+    /**
+     * Starts a sink with a given number of workers, recording all received sensor data.
+     *
+     * @param workers the number of workers
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private void startSink(int workers) throws IOException {
+        sink = new UdpChannelSensorDataSink(deserializer, 0, workers);
+        sink.start((fieldNodeAddress, sensorAddress, data) -> {
+            receivedData.computeIfAbsent(fieldNodeAddress, address -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(data);
+            receivedCount.incrementAndGet();
+        });
+    }
+
+    /**
+     * Sends the sensor data of all field nodes to the sink, every field node sending from its own socket.
+     * The data of every datagram is its sequence number for the field node.
+     *
+     * @return the number of datagrams sent
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private long sendSensorData() throws IOException {
+        List<DatagramSocket> sockets = new ArrayList<>();
+        for (int i = 0; i < FIELD_NODES; i++) {
+            sockets.add(new DatagramSocket());
+        }
+
+        byte[] frame = new byte[SduSensorDataCodec.MAX_FRAME_LENGTH];
+        InetAddress localHost = InetAddress.getLoopbackAddress();
+        long sent = 0;
+        try {
+            for (int sequenceNumber = 0; sequenceNumber < DATAGRAMS_PER_FIELD_NODE; sequenceNumber++) {
+                for (int fieldNode = 0; fieldNode < FIELD_NODES; fieldNode++) {
+                    int length = SduSensorDataCodec.encode(fieldNode, 1, sequenceNumber, frame, 0);
+                    sockets.get(fieldNode).send(new DatagramPacket(frame, length, localHost, sink.getPortNumber()));
+                    sent++;
+                }
+
+                // paces the field nodes, so that the loopback socket buffer is not overrun
+                if (sequenceNumber % 50 == 0) {
+                    Thread.yield();
+                }
+            }
+        } finally {
+            sockets.forEach(DatagramSocket::close);
+        }
+
+        return sent;
+    }
+
+    /**
+     * Waits until a given number of datagrams has been delivered or dropped by the sink, or until no more datagrams
+     * are being delivered. Datagrams may also be dropped by the loopback socket buffer, and are then never received.
+     *
+     * @param expected the number of datagrams sent
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    private void awaitDelivery(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        long lastHandled = -1;
+        long handled = receivedCount.get() + sink.getDroppedDatagrams();
+
+        while (handled < expected && handled != lastHandled && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+            lastHandled = handled;
+            handled = receivedCount.get() + sink.getDroppedDatagrams();
+        }
+    }
+
+    /**
+     * Reports the delivered datagrams per second of the sink with one worker and with one worker for every
+     * available processor.
+     */
+    @Test
+    public void benchmarkThroughput() throws IOException, InterruptedException {
+        int[] workerCounts = {1, Math.max(2, Runtime.getRuntime().availableProcessors())};
+
+        for (int workers : workerCounts) {
+            receivedCount.set(0);
+            receivedData.clear();
+            startSink(workers);
+
+            long start = System.nanoTime();
+            long sent = sendSensorData();
+            awaitDelivery(sent);
+            long elapsedNanos = System.nanoTime() - start;
+
+            long delivered = receivedCount.get();
+            System.out.println("UDP sensor data sink with " + workers + " workers: " + delivered + " of " + sent +
+                    " datagrams delivered (" + sink.getDroppedDatagrams() + " dropped by the sink), " +
+                    (delivered * 1000000000L / Math.max(1, elapsedNanos)) + " datagrams/s.");
+
+            sink.stop();
+            sink = null;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package no.ntnu.network.sensordataprocess;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.encryption.cipher.decrypt.DatagramKeyring;
+import no.ntnu.network.message.encryption.cipher.decrypt.PlainTextDecryption;
+import no.ntnu.network.message.encryption.cipher.encrypt.DatagramEncryption;
+import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark of the UdpSensorDataPusher class.
+ * Sensor data is pushed over loopback to a {@code UdpChannelSensorDataSink}, and the datagrams per second and the CPU
+ * time used by the sink are reported with batching enabled and disabled, along with the overhead of encrypting every
+ * datagram.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class UdpSensorDataPusherBenchmark {
+    private static final int FIELD_NODES = 10;
+    private static final int READINGS_PER_FIELD_NODE = 1000;
+    private static final long TIMEOUT_MILLIS = 10000;
+    private static final int ENCRYPTION_ROUNDS = 3;
+    private static final int READINGS_PER_ROUND = 20000;
+    UdpChannelSensorDataSink sink;
+    AtomicLong receivedCount;
+
+    /**
+     * Setting up for the following benchmark methods.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Before
+    public void setup() throws IOException {
+        NofspServerDeserializer deserializer = new NofspServerDeserializer((clientAddress, deviceAddress) ->
+                DeviceClass.S1);
+        receivedCount = new AtomicLong();
+
+        sink = new UdpChannelSensorDataSink(deserializer, 0, 2);
+        sink.start((fieldNodeAddress, sensorAddress, data) -> receivedCount.incrementAndGet());
+    }
+
+    /**
+     * Stops the sink started for a benchmark.
+     */
+    @After
+    public void tearDown() {
+        sink.stop();
+    }
+
+    /**
+     * Creates a pusher pushing to the sink.
+     *
+     * @return the pusher
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private UdpSensorDataPusher createPusher() throws IOException {
+        return new UdpSensorDataPusher(InetAddress.getLoopbackAddress(), sink.getPortNumber(),
+                new NofspFrameSerializer());
+    }
+
+    /**
+     * Waits until a given number of readings has been delivered by the sink, or until no more readings are being
+     * delivered.
+     *
+     * @param expected the number of readings sent
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    private void awaitDelivery(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        long lastDelivered = -1;
+        long delivered = receivedCount.get();
+
+        while (delivered < expected && delivered != lastDelivered && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+            lastDelivered = delivered;
+            delivered = receivedCount.get();
+        }
+    }
+
+    /**
+     * Reports the datagrams per second received by the sink and the CPU time used by its threads, with batching
+     * disabled and enabled.
+     */
+    @Test
+    public void benchmarkBatchingLoad() throws IOException, InterruptedException {
+        long[] lingerTimes = {0, 20};
+
+        for (long lingerMillis : lingerTimes) {
+            receivedCount.set(0);
+            long receivedDatagramsBefore = sink.getReceivedDatagrams();
+            long cpuNanosBefore = getSinkCpuNanos();
+
+            List<UdpSensorDataPusher> pushers = new ArrayList<>();
+            for (int i = 0; i < FIELD_NODES; i++) {
+                UdpSensorDataPusher pusher = createPusher();
+                if (lingerMillis > 0) {
+                    pusher.enableBatching(lingerMillis);
+                }
+                pushers.add(pusher);
+            }
+
+            long start = System.nanoTime();
+            for (int reading = 0; reading < READINGS_PER_FIELD_NODE; reading++) {
+                for (int fieldNode = 0; fieldNode < FIELD_NODES; fieldNode++) {
+                    pushers.get(fieldNode).sendSduData(fieldNode, 1, reading);
+                }
+
+                // paces the field nodes, so that the loopback socket buffer is not overrun
+                if (reading % 50 == 0) {
+                    Thread.yield();
+                }
+            }
+            for (UdpSensorDataPusher pusher : pushers) {
+                pusher.disableBatching();
+            }
+            awaitDelivery((long) FIELD_NODES * READINGS_PER_FIELD_NODE);
+            long elapsedNanos = Math.max(1, System.nanoTime() - start);
+
+            long datagrams = sink.getReceivedDatagrams() - receivedDatagramsBefore;
+            long cpuMillis = (getSinkCpuNanos() - cpuNanosBefore) / 1000000;
+            System.out.println("UDP sensor data pusher with " + (lingerMillis > 0 ? "batching (" + lingerMillis +
+                    " ms linger)" : "no batching") + ": " + receivedCount.get() + " readings in " + datagrams +
+                    " datagrams, " + (datagrams * 1000000000L / elapsedNanos) + " datagrams/s, " +
+                    (receivedCount.get() * 1000000000L / elapsedNanos) + " readings/s, " + cpuMillis +
+                    " ms sink CPU time.");
+        }
+    }
+
+    /**
+     * Creates a session key.
+     *
+     * @return the session key
+     * @throws NoSuchAlgorithmException thrown if AES is not supported
+     */
+    private static SecretKey createSessionKey() throws NoSuchAlgorithmException {
+        AESKeyGenerator keyGen = new AESKeyGenerator();
+        keyGen.createKey();
+
+        return keyGen.getKey();
+    }
+
+    /**
+     * Reports the datagrams per second sent by a pusher with and without encryption, and the share of the throughput
+     * lost by encrypting every datagram. The best of a few rounds is kept for each, so that the comparison is not
+     * skewed by warm-up.
+     */
+    @Test
+    public void benchmarkEncryptionOverhead() throws IOException, InterruptedException, NoSuchAlgorithmException {
+        SecretKey sessionKey = createSessionKey();
+        DatagramKeyring keyring = new DatagramKeyring();
+        long plainNanos = Long.MAX_VALUE;
+        long encryptedNanos = Long.MAX_VALUE;
+
+        for (int round = 0; round < ENCRYPTION_ROUNDS; round++) {
+            sink.setDecryption(new PlainTextDecryption());
+            plainNanos = Math.min(plainNanos, measureSending(createPusher()));
+
+            // every pusher starts its sequence anew, as a field node registering again would
+            UdpSensorDataPusher pusher = createPusher();
+            pusher.setEncryption(new DatagramEncryption(sessionKey, 1));
+            keyring.addChannel(1, sessionKey);
+            sink.setDecryption(keyring);
+            encryptedNanos = Math.min(encryptedNanos, measureSending(pusher));
+        }
+
+        // the share of the plain text throughput lost by encrypting
+        double costPercent = (encryptedNanos - plainNanos) * 100.0 / encryptedNanos;
+        System.out.println("UDP sensor data pusher: " + (READINGS_PER_ROUND * 1000000000L / plainNanos) +
+                " datagrams/s in plain text, " + (READINGS_PER_ROUND * 1000000000L / encryptedNanos) +
+                " datagrams/s encrypted, " + String.format("%.1f", costPercent) +
+                " % of the throughput lost to encryption.");
+    }
+
+    /**
+     * Sends a round of readings in datagrams of their own, and waits until the sink has delivered them.
+     *
+     * @param pusher the pusher to send with
+     * @return the time in nanoseconds spent sending
+     * @throws IOException thrown if an I/O exception occurs
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    private long measureSending(UdpSensorDataPusher pusher) throws IOException, InterruptedException {
+        receivedCount.set(0);
+
+        long start = System.nanoTime();
+        for (int reading = 0; reading < READINGS_PER_ROUND; reading++) {
+            pusher.sendSduData(1, 2, reading);
+
+            // paces the pusher, so that the loopback socket buffer is not overrun
+            if (reading % 50 == 0) {
+                Thread.yield();
+            }
+        }
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+
+        awaitDelivery(READINGS_PER_ROUND);
+
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the total CPU time used so far by the threads of the sink.
+     *
+     * @return the cpu time in nanoseconds
+     */
+    private static long getSinkCpuNanos() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("sensor-data-worker") ||
+                        thread.getName().equals("sensor-data-receiver"))
+                .mapToLong(thread -> Math.max(0, threadBean.getThreadCpuTime(thread.getId())))
+                .sum();
+    }
+}
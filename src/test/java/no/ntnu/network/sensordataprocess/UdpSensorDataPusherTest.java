@@ -0,0 +1,189 @@
+package no.ntnu.network.sensordataprocess;
+
+import no.ntnu.fieldnode.device.DeviceClass;
+import no.ntnu.network.message.deserialize.NofspServerDeserializer;
+import no.ntnu.network.message.encryption.cipher.decrypt.DatagramKeyring;
+import no.ntnu.network.message.encryption.cipher.encrypt.DatagramEncryption;
+import no.ntnu.network.message.encryption.keygen.AESKeyGenerator;
+import no.ntnu.network.message.serialize.visitor.NofspFrameSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the UdpSensorDataPusher class.
+ * The tests push sensor data over loopback to a {@code UdpChannelSensorDataSink}. The datagrams per second and the
+ * CPU time used by the sink with batching enabled and disabled, and the overhead of encrypting every datagram, are
+ * reported by UdpSensorDataPusherBenchmark.
+ */
+public class UdpSensorDataPusherTest {
+    private static final long TIMEOUT_MILLIS = 10000;
+    UdpChannelSensorDataSink sink;
+    List<Double> receivedData;
+    AtomicLong receivedCount;
+
+    /**
+     * Setting up for the following test methods.
+     *
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    @Before
+    public void setup() throws IOException {
+        NofspServerDeserializer deserializer = new NofspServerDeserializer((clientAddress, deviceAddress) ->
+                DeviceClass.S1);
+        receivedData = Collections.synchronizedList(new ArrayList<>());
+        receivedCount = new AtomicLong();
+
+        sink = new UdpChannelSensorDataSink(deserializer, 0, 2);
+        sink.start((fieldNodeAddress, sensorAddress, data) -> {
+            receivedData.add(data);
+            receivedCount.incrementAndGet();
+        });
+    }
+
+    /**
+     * Stops the sink started for a test.
+     */
+    @After
+    public void tearDown() {
+        sink.stop();
+    }
+
+    /**
+     * Creates a pusher pushing to the sink.
+     *
+     * @return the pusher
+     * @throws IOException thrown if an I/O exception occurs
+     */
+    private UdpSensorDataPusher createPusher() throws IOException {
+        return new UdpSensorDataPusher(InetAddress.getLoopbackAddress(), sink.getPortNumber(),
+                new NofspFrameSerializer());
+    }
+
+    /**
+     * Waits until a given number of readings has been delivered by the sink, or until no more readings are being
+     * delivered.
+     *
+     * @param expected the number of readings sent
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    private void awaitDelivery(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        long lastDelivered = -1;
+        long delivered = receivedCount.get();
+
+        while (delivered < expected && delivered != lastDelivered && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+            lastDelivered = delivered;
+            delivered = receivedCount.get();
+        }
+    }
+
+    /**
+     * Tests that batched readings are delivered individually and in order, in far fewer datagrams than readings.
+     */
+    @Test
+    public void testBatchesFlushedOnSize() throws IOException, InterruptedException {
+        UdpSensorDataPusher pusher = createPusher();
+        pusher.enableBatching(TIMEOUT_MILLIS);
+
+        for (int i = 0; i < 200; i++) {
+            pusher.sendSduData(1, 2, i);
+        }
+        pusher.flush();
+        awaitDelivery(200);
+
+        assertEquals(200, receivedData.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, receivedData.get(i), 0);
+        }
+        assertTrue(sink.getReceivedDatagrams() <= 20);
+    }
+
+    /**
+     * Tests that a batch is sent once its linger time has passed, without being flushed.
+     */
+    @Test
+    public void testBatchFlushedOnLinger() throws IOException, InterruptedException {
+        UdpSensorDataPusher pusher = createPusher();
+        pusher.enableBatching(50);
+
+        pusher.sendSduData(1, 2, 1.5);
+        pusher.sendSduData(1, 3, 2.5);
+        pusher.sendSduData(1, 4, 3.5);
+        awaitDelivery(3);
+
+        assertEquals(List.of(1.5, 2.5, 3.5), receivedData);
+        assertEquals(1, sink.getReceivedDatagrams());
+    }
+
+    /**
+     * Tests that disabling batching sends the held back readings, and that readings are sent right away afterwards.
+     */
+    @Test
+    public void testDisableBatching() throws IOException, InterruptedException {
+        UdpSensorDataPusher pusher = createPusher();
+        pusher.enableBatching(TIMEOUT_MILLIS);
+
+        pusher.sendSduData(1, 2, 1.5);
+        pusher.disableBatching();
+        pusher.sendSduData(1, 2, 2.5);
+        awaitDelivery(2);
+
+        assertFalse(pusher.isBatching());
+        assertEquals(List.of(1.5, 2.5), receivedData);
+        assertEquals(2, sink.getReceivedDatagrams());
+    }
+
+    /**
+     * Creates a session key.
+     *
+     * @return the session key
+     * @throws NoSuchAlgorithmException thrown if AES is not supported
+     */
+    private static SecretKey createSessionKey() throws NoSuchAlgorithmException {
+        AESKeyGenerator keyGen = new AESKeyGenerator();
+        keyGen.createKey();
+
+        return keyGen.getKey();
+    }
+
+    /**
+     * Tests that encrypted readings are delivered, both in datagrams of their own and in batches.
+     */
+    @Test
+    public void testEncryptedDelivery() throws IOException, InterruptedException, NoSuchAlgorithmException {
+        SecretKey sessionKey = createSessionKey();
+        DatagramKeyring keyring = new DatagramKeyring();
+        keyring.addChannel(1, sessionKey);
+        sink.setDecryption(keyring);
+        UdpSensorDataPusher pusher = createPusher();
+        pusher.setEncryption(new DatagramEncryption(sessionKey, 1));
+
+        for (int i = 0; i < 3; i++) {
+            pusher.sendSduData(1, 2, i);
+        }
+        pusher.enableBatching(TIMEOUT_MILLIS);
+        for (int i = 3; i < 100; i++) {
+            pusher.sendSduData(1, 2, i);
+        }
+        pusher.flush();
+        awaitDelivery(100);
+
+        assertEquals(100, receivedData.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, receivedData.get(i), 0);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package no.ntnu.network.timer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark of the HashedWheelTimer class.
+ * <p/>
+ * The benchmark is not run by {@code mvn test}, but by {@code mvn test -Pbenchmark}.
+ */
+public class HashedWheelTimerBenchmark {
+    private static final long TICK_MILLIS = 5;
+    private static final int WHEEL_SIZE = 64;
+    private static final long TIMEOUT_MILLIS = 5000;
+    HashedWheelTimer timer;
+
+    /**
+     * Setting up for the following benchmark methods.
+     */
+    @Before
+    public void setup() {
+        timer = new HashedWheelTimer(TICK_MILLIS, TimeUnit.MILLISECONDS, WHEEL_SIZE);
+    }
+
+    /**
+     * Stops the timer used by a benchmark.
+     */
+    @After
+    public void teardown() {
+        timer.stop();
+    }
+
+    /**
+     * Reports how late timeouts with random delays fire, and how fast timeouts are scheduled and cancelled.
+     * Timeouts should fire within a few ticks, well below the 1 second granularity of scanning for timed out
+     * requests every second.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting for the timeouts
+     */
+    @Test
+    public void benchmarkLatenessAndThroughput() throws InterruptedException {
+        int timeouts = 200;
+        Random random = new Random(42);
+        CountDownLatch fired = new CountDownLatch(timeouts);
+        AtomicLong maxLatenessNanos = new AtomicLong();
+
+        for (int i = 0; i < timeouts; i++) {
+            long delayMillis = 10 + random.nextInt(200);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+            timer.schedule(() -> {
+                maxLatenessNanos.accumulateAndGet(System.nanoTime() - deadline, Math::max);
+                fired.countDown();
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        fired.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        int operations = 1000000;
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            timer.schedule(() -> {}, 10000, TimeUnit.MILLISECONDS).cancel();
+        }
+        long nanosPerOperation = (System.nanoTime() - start) / operations;
+
+        long maxLatenessMillis = TimeUnit.NANOSECONDS.toMillis(maxLatenessNanos.get());
+        System.out.println("Wheel timer with " + TICK_MILLIS + " ms ticks: " + timeouts + " timeouts fired at most " +
+                maxLatenessMillis + " ms late; schedule and cancel took " + nanosPerOperation + " ns.");
+    }
+}
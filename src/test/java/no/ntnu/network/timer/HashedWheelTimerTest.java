@@ -0,0 +1,164 @@
+package no.ntnu.network.timer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit testing for the HashedWheelTimer class.
+ */
+public class HashedWheelTimerTest {
+    private static final long TICK_MILLIS = 5;
+    private static final int WHEEL_SIZE = 64;
+    private static final long TIMEOUT_MILLIS = 5000;
+    HashedWheelTimer timer;
+
+    /**
+     * Setting up for the following test methods.
+     */
+    @Before
+    public void setup() {
+        timer = new HashedWheelTimer(TICK_MILLIS, TimeUnit.MILLISECONDS, WHEEL_SIZE);
+    }
+
+    /**
+     * Stops the timer used by a test.
+     */
+    @After
+    public void teardown() {
+        timer.stop();
+    }
+
+    /**
+     * Tests that a scheduled task runs once its delay has passed, and not before.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting for the task
+     */
+    @Test
+    public void testScheduledTaskRuns() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+        long delayMillis = 50;
+        long start = System.nanoTime();
+
+        Timeout timeout = timer.schedule(ran::countDown, delayMillis, TimeUnit.MILLISECONDS);
+
+        assertTrue(ran.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= delayMillis);
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+        assertEquals(0, timer.getPendingTimeoutCount());
+    }
+
+    /**
+     * Tests that a cancelled task never runs, and that a timeout can only be cancelled once.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    @Test
+    public void testCancelledTaskNeverRuns() throws InterruptedException {
+        AtomicBoolean ran = new AtomicBoolean(false);
+
+        Timeout timeout = timer.schedule(() -> ran.set(true), 30, TimeUnit.MILLISECONDS);
+        assertEquals(1, timer.getPendingTimeoutCount());
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        assertEquals(0, timer.getPendingTimeoutCount());
+
+        Thread.sleep(100);
+        assertFalse(ran.get());
+    }
+
+    /**
+     * Tests that tasks run in the order of their deadlines, including deadlines several turns of the wheel away.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting for the tasks
+     */
+    @Test
+    public void testTasksRunInDeadlineOrder() throws InterruptedException {
+        long turnMillis = TICK_MILLIS * WHEEL_SIZE;
+        List<Long> order = new CopyOnWriteArrayList<>();
+        CountDownLatch ran = new CountDownLatch(3);
+        long[] delays = {turnMillis * 2 + 20, 40, turnMillis + 10};
+
+        for (long delay : delays) {
+            timer.schedule(() -> {
+                order.add(delay);
+                ran.countDown();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(ran.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertEquals(List.of(40L, turnMillis + 10, turnMillis * 2 + 20), order);
+    }
+
+    /**
+     * Tests that a task failing does not stop the timer from running other tasks.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting for the task
+     */
+    @Test
+    public void testFailingTaskDoesNotStopTimer() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+
+        timer.schedule(() -> {
+            throw new IllegalStateException("Failing task.");
+        }, 10, TimeUnit.MILLISECONDS);
+        timer.schedule(ran::countDown, 20, TimeUnit.MILLISECONDS);
+
+        assertTrue(ran.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Tests that no task can be scheduled on a stopped timer.
+     */
+    @Test
+    public void testScheduleOnStoppedTimer() {
+        timer.stop();
+
+        assertThrows(IllegalStateException.class, () -> timer.schedule(() -> {}, 1, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Tests that timeouts with random delays all fire, none of them before its deadline, and that scheduling and
+     * cancelling timeouts leaves none of them pending.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting for the timeouts
+     */
+    @Test
+    public void testRandomDelays() throws InterruptedException {
+        int timeouts = 200;
+        Random random = new Random(42);
+        CountDownLatch fired = new CountDownLatch(timeouts);
+        AtomicLong minLatenessNanos = new AtomicLong(Long.MAX_VALUE);
+
+        for (int i = 0; i < timeouts; i++) {
+            long delayMillis = 10 + random.nextInt(200);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+            timer.schedule(() -> {
+                minLatenessNanos.accumulateAndGet(System.nanoTime() - deadline, Math::min);
+                fired.countDown();
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(fired.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertTrue(minLatenessNanos.get() >= 0);
+
+        for (int i = 0; i < timeouts; i++) {
+            timer.schedule(() -> {}, 10000, TimeUnit.MILLISECONDS).cancel();
+        }
+
+        assertEquals(0, timer.getPendingTimeoutCount());
+    }
+}